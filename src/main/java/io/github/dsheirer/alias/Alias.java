@@ -32,7 +32,6 @@ import io.github.dsheirer.alias.id.priority.Priority;
 import io.github.dsheirer.alias.id.record.Record;
 import javafx.beans.Observable;
 import javafx.beans.binding.Bindings;
-import javafx.beans.binding.BooleanBinding;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -41,7 +40,6 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
-import javafx.collections.transformation.FilteredList;
 import javafx.util.Callback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,10 +81,8 @@ public class Alias
     {
         mName.set(name);
 
-        //Bind the non-audio identifier count property to the size of a filtered list of alias identifiers
-        mNonAudioIdentifierCount.bind(Bindings.size(new FilteredList<>(mAliasIDs, aliasID -> {
-            return aliasID != null && !aliasID.isAudioIdentifier();
-        })));
+        //Bind the non-audio identifier count property to a count of the alias identifiers
+        mNonAudioIdentifierCount.bind(Bindings.createIntegerBinding(this::getNonAudioIdentifierCount, mAliasIDs));
     }
 
     /**
@@ -345,12 +341,9 @@ public class Alias
 
     public void setAliasIdentifiers(List<AliasID> id)
     {
-        mAliasIDs.clear();
-
-        for(AliasID aliasID : id)
-        {
-            addAliasID(aliasID);
-        }
+        mAliasIDs.setAll(id);
+        validate();
+        updateOverlapBinding();
     }
 
     /**
@@ -433,18 +426,55 @@ public class Alias
         mPriority.set(Priority.DEFAULT_PRIORITY);
     }
 
+    /**
+     * Binds the overlap property to the overlap properties of the alias identifiers
+     */
     private void updateOverlapBinding()
     {
         mOverlap.unbind();
 
-        BooleanBinding binding = new SimpleBooleanProperty(true).not();
+        Observable[] dependencies = new Observable[mAliasIDs.size()];
+
+        for(int x = 0; x < dependencies.length; x++)
+        {
+            dependencies[x] = mAliasIDs.get(x).overlapProperty();
+        }
+
+        mOverlap.bind(Bindings.createBooleanBinding(this::hasOverlappingIdentifier, dependencies));
+    }
 
+    /**
+     * Indicates if any of the alias identifiers overlap with an identifier from another alias
+     */
+    private boolean hasOverlappingIdentifier()
+    {
         for(AliasID aliasID: mAliasIDs)
         {
-            binding = binding.or(aliasID.overlapProperty());
+            if(aliasID.overlapProperty().get())
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Count of alias identifiers that are not audio identifiers (monitor, record, stream)
+     */
+    private int getNonAudioIdentifierCount()
+    {
+        int count = 0;
+
+        for(AliasID aliasID: mAliasIDs)
+        {
+            if(aliasID != null && !aliasID.isAudioIdentifier())
+            {
+                count++;
+            }
         }
 
-        mOverlap.bind(binding);
+        return count;
     }
 
     /**
@@ -26,6 +26,7 @@ import io.github.dsheirer.alias.action.AliasActionType;
 import io.github.dsheirer.alias.action.beep.BeepAction;
 import io.github.dsheirer.alias.action.clip.ClipAction;
 import io.github.dsheirer.alias.action.script.ScriptAction;
+import io.github.dsheirer.alias.action.timeshift.TimeShiftCaptureAction;
 import io.github.dsheirer.alias.id.AliasID;
 import io.github.dsheirer.alias.id.AliasIDType;
 import io.github.dsheirer.alias.id.broadcast.BroadcastChannel;
@@ -179,6 +180,10 @@ public class AliasFactory
             copyScript.setScript(originalScript.getScript());
             return copyScript;
         }
+        else if(action instanceof TimeShiftCaptureAction)
+        {
+            return new TimeShiftCaptureAction();
+        }
 
         return null;
     }
@@ -293,6 +298,8 @@ public class AliasFactory
                 return new ClipAction();
             case SCRIPT:
                 return new ScriptAction();
+            case TIME_SHIFT_CAPTURE:
+                return new TimeShiftCaptureAction();
             default:
                 throw new IllegalArgumentException("Unrecognized Alias Action type: " + type);
         }
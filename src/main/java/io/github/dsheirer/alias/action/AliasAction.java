@@ -26,6 +26,7 @@ import io.github.dsheirer.alias.Alias;
 import io.github.dsheirer.alias.action.beep.BeepAction;
 import io.github.dsheirer.alias.action.clip.ClipAction;
 import io.github.dsheirer.alias.action.script.ScriptAction;
+import io.github.dsheirer.alias.action.timeshift.TimeShiftCaptureAction;
 import io.github.dsheirer.message.IMessage;
 import javafx.beans.Observable;
 import javafx.beans.property.SimpleStringProperty;
@@ -39,7 +40,8 @@ import javafx.util.Callback;
     @JsonSubTypes.Type(value = BeepAction.class, name="beepAction"),
     @JsonSubTypes.Type(value = ClipAction.class, name = "clipAction"),
     @JsonSubTypes.Type(value = RecurringAction.class, name = "recurringAction"),
-    @JsonSubTypes.Type(value = ScriptAction.class, name = "scriptAction")
+    @JsonSubTypes.Type(value = ScriptAction.class, name = "scriptAction"),
+    @JsonSubTypes.Type(value = TimeShiftCaptureAction.class, name = "timeShiftCaptureAction")
 })
 @JacksonXmlRootElement(localName = "action")
 public abstract class AliasAction
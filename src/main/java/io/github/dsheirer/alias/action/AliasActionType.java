@@ -21,7 +21,8 @@ public enum AliasActionType
 {
 	BEEP( "Beep" ),
 	CLIP( "Play Clip" ),
-	SCRIPT( "Run Script" );
+	SCRIPT( "Run Script" ),
+	TIME_SHIFT_CAPTURE( "Capture Tuner I/Q" );
 	
 	private String mLabel;
 	
@@ -0,0 +1,66 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.alias.action.timeshift;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.action.AliasAction;
+import io.github.dsheirer.alias.action.AliasActionType;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.record.timeshift.TimeShiftManager;
+
+/**
+ * Triggers a capture of the tuner time-shift buffers when the alias is active.  Repeated triggers are coalesced by the
+ * time-shift manager, so this action doesn't need a recurring interval.
+ */
+public class TimeShiftCaptureAction extends AliasAction
+{
+    public TimeShiftCaptureAction()
+    {
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "type", namespace = "http://www.w3.org/2001/XMLSchema-instance")
+    @Override
+    public AliasActionType getType()
+    {
+        return AliasActionType.TIME_SHIFT_CAPTURE;
+    }
+
+    @Override
+    public void execute(Alias alias, IMessage message)
+    {
+        TimeShiftManager.getInstance().capture("alias [" + (alias != null ? alias.getName() : "") + "]");
+    }
+
+    @Override
+    public void dismiss(boolean reset)
+    {
+        //no-op
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Capture Tuner I/Q";
+    }
+}
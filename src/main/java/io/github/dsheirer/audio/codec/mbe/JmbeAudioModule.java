@@ -22,226 +22,248 @@
 
 package io.github.dsheirer.audio.codec.mbe;
 
-import com.google.common.eventbus.Subscribe;
 import io.github.dsheirer.alias.AliasList;
 import io.github.dsheirer.audio.AbstractAudioModule;
 import io.github.dsheirer.audio.squelch.ISquelchStateListener;
-import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.identifier.IdentifierUpdateNotification;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
-import io.github.dsheirer.preference.PreferenceType;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.decoder.JmbeLibraryPreference;
 import io.github.dsheirer.sample.Listener;
 import jmbe.iface.IAudioCodec;
-import jmbe.iface.IAudioCodecLibrary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.InvocationTargetException;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Base JMBE audio module.  Audio frames are decoded by the assigned vocoder worker pool lane so that vocoder CPU does
+ * not delay demodulation and message framing on the decoder thread.  All codec access, audio segment updates and
+ * identifier collection updates occur in order on the assigned lane, so that identifier updates received from the
+ * decoder state are applied to the audio segment of the call whose audio frames preceded them.
+ *
+ * Tasks posted from the lane to the decoder (message) thread are tagged with the call that queued the audio frame
+ * and tasks from a previous call are discarded once the call's audio segment close is queued.
+ *
+ * When the JMBE library is reloaded, the codec manager swaps the module to a codec from the new library immediately,
+ * so that any queued audio frames decode with the new codec, and the previous codec is released on the lane once any
+ * in-progress audio frame decode completes.
+ */
 public abstract class JmbeAudioModule extends AbstractAudioModule implements Listener<IMessage>, IMessageListener,
     ISquelchStateListener
 {
     private static final Logger mLog = LoggerFactory.getLogger(JmbeAudioModule.class);
-    private static final String JMBE_AUDIO_LIBRARY = "JMBE";
-    private static List<String> mLibraryLoadStatusLogged = new ArrayList<>();
-    private IAudioCodec mAudioCodec;
-    private UserPreferences mUserPreferences;
+    private volatile IAudioCodec mAudioCodec;
+    private JmbeCodecManager mCodecManager;
+    private JmbeLibraryPreference mJmbeLibraryPreference;
+    private VocoderWorkerPool.Lane mLane = VocoderWorkerPool.getInstance().assign();
+    private AtomicInteger mQueuedFrames = new AtomicInteger();
+    private Object mCodecLock = new Object();
+    private boolean mDisposed;
+    private Queue<MessageThreadTask> mMessageThreadTasks = new ConcurrentLinkedQueue<>();
+    private Listener<IdentifierUpdateNotification> mIdentifierUpdateListener;
+    private volatile int mCall;
+    private int mLaneCall;
 
     public JmbeAudioModule(UserPreferences userPreferences, AliasList aliasList, int timeslot)
+    {
+        this(userPreferences.getJmbeLibraryPreference(), aliasList, timeslot, JmbeCodecManager.getInstance());
+    }
+
+    /**
+     * Constructs an instance that obtains audio codecs from the specified codec manager.
+     */
+    JmbeAudioModule(JmbeLibraryPreference jmbeLibraryPreference, AliasList aliasList, int timeslot,
+                    JmbeCodecManager codecManager)
     {
         super(aliasList, timeslot, DEFAULT_SEGMENT_AUDIO_SAMPLE_LENGTH);
-        mUserPreferences = userPreferences;
-        MyEventBus.getGlobalEventBus().register(this);
-        loadConverter();
+        mJmbeLibraryPreference = jmbeLibraryPreference;
+        mCodecManager = codecManager;
+        Listener<IdentifierUpdateNotification> identifierUpdateListener = super.getIdentifierUpdateListener();
+        mIdentifierUpdateListener = notification -> mLane.execute(() -> identifierUpdateListener.receive(notification));
+        mCodecManager.register(this);
+        mAudioCodec = mCodecManager.getCodec(mJmbeLibraryPreference, getCodecName());
     }
 
     @Override
     public void dispose()
     {
         super.dispose();
-        MyEventBus.getGlobalEventBus().unregister(this);
-        mAudioCodec = null;
+        mCodecManager.deregister(this);
+
+        //Release the codec after any queued audio frames are decoded
+        mLane.execute(() -> {
+            IAudioCodec codec;
+
+            synchronized(mCodecLock)
+            {
+                mDisposed = true;
+                codec = mAudioCodec;
+                mAudioCodec = null;
+            }
+
+            mCodecManager.releaseCodec(getCodecName(), codec);
+        });
+
+        VocoderWorkerPool.getInstance().release(mLane);
+        mMessageThreadTasks.clear();
     }
 
-    protected IAudioCodec getAudioCodec()
+    /**
+     * Closes the current audio segment after any queued audio frames are decoded.
+     */
+    @Override
+    public void stop()
     {
-        return mAudioCodec;
+        queueCloseAudioSegment();
     }
 
     /**
-     * Indicates that the JMBE audio library has been loaded and a suitable audio codec is usable (ie non-null)
+     * Queues an audio frame decode task to the vocoder worker lane.  The task should decode a single audio frame with
+     * the audio codec and add the audio to the current audio segment.  Frames are dropped if this module already has
+     * the maximum number of frames queued.  The frame task is not run if the audio codec is no longer available when
+     * the frame is dequeued.
+     *
+     * @param frameTask to run on the vocoder worker lane
+     * @return true if the frame task was queued or false if it was dropped
      */
-    protected boolean hasAudioCodec()
+    protected boolean decodeAudio(Runnable frameTask)
     {
-        return getAudioCodec() != null;
+        int call = mCall;
+
+        return mLane.decode(() -> {
+            if(mAudioCodec != null)
+            {
+                mLaneCall = call;
+                frameTask.run();
+            }
+        }, mQueuedFrames);
     }
 
-    @Override
-    public Listener<IMessage> getMessageListener()
+    /**
+     * Queues a task to the vocoder worker lane that is executed in order with any previously queued audio frames and
+     * identifier updates.  Use this method from the decoder thread for any changes to the identifier collection.
+     */
+    protected void queueLaneTask(Runnable task)
     {
-        return this;
+        mLane.execute(task);
     }
 
     /**
-     * Receives notifications that the JMBE library preference has been updated via the Guava event bus
+     * Closes the current audio segment after any queued audio frames are decoded.  Use this method from the decoder
+     * thread instead of closeAudioSegment() so that the call's final audio frames are included in the segment.
      *
-     * @param preferenceType that was updated
+     * Any tasks already posted to the message thread for the current call are executed and any tasks that are
+     * subsequently posted by the current call's remaining queued audio frames are discarded.
      */
-    @Subscribe
-    public void preferenceUpdated(PreferenceType preferenceType)
+    protected void queueCloseAudioSegment()
     {
-        if(preferenceType == PreferenceType.JMBE_LIBRARY)
-        {
-            mLibraryLoadStatusLogged.clear();
-            loadConverter();
-        }
+        processMessageThreadTasks();
+        mCall++;
+        mLane.execute(this::closeAudioSegment);
     }
 
     /**
-     * Name of the CODEC to use from the JMBE library
+     * Queues a task from the vocoder worker lane to be executed on the decoder (message) thread, for example to
+     * broadcast identifier updates derived from decoded audio metadata.  Invoke this method only from an audio frame
+     * task so that the posted task can be associated with the call that queued the audio frame.
      */
-    protected abstract String getCodecName();
+    protected void postToMessageThread(Runnable task)
+    {
+        mMessageThreadTasks.offer(new MessageThreadTask(mLaneCall, task));
+    }
 
     /**
-     * Loads audio frame processing chain.  Constructs an imbe targetdataline
-     * to receive the raw imbe frames.  Adds an IMBE to 8k PCM format conversion
-     * stream wrapper.  Finally, adds an upsampling (8k to 48k) stream wrapper.
+     * Executes any tasks posted from the vocoder worker lane for the current call and discards any tasks posted for a
+     * previous call.  Invoke this method from the decoder (message) thread.
      */
-    protected void loadConverter()
+    protected void processMessageThreadTasks()
     {
-        IAudioCodec audioConverter = null;
+        MessageThreadTask task = mMessageThreadTasks.poll();
 
-        Path path = mUserPreferences.getJmbeLibraryPreference().getPathJmbeLibrary();
-
-        if(path != null)
+        while(task != null)
         {
-            try
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.info("Loading JMBE library from [" + path.toString() + "]");
-                }
-
-                URLClassLoader childClassLoader = new URLClassLoader(new URL[]{path.toUri().toURL()},
-                    this.getClass().getClassLoader());
-
-                Class classToLoad = Class.forName("jmbe.JMBEAudioLibrary", true, childClassLoader);
-
-                Object instance = classToLoad.getDeclaredConstructor().newInstance();
-
-                if(instance instanceof IAudioCodecLibrary)
-                {
-                    IAudioCodecLibrary library = (IAudioCodecLibrary)instance;
-
-                    if((library.getMajorVersion() == 1 && library.getMinorVersion() >= 0 &&
-                        library.getBuildVersion() >= 0) || library.getMajorVersion() >= 1)
-                    {
-                        audioConverter = library.getAudioConverter(getCodecName());
-
-                        if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                        {
-                            mLog.info("JMBE audio conversion library loaded: " + library.getVersion());
-                            mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                        }
-                    }
-                    else
-                    {
-                        if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                        {
-                            mLog.warn("JMBE library version 1.0.0 or higher is required - found: " + library.getVersion());
-                            mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                        }
-                    }
-                }
-                else
-                {
-                    if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                    {
-                        mLog.info("JMBE audio conversion library NOT FOUND");
-                        mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                    }
-                }
-            }
-            catch(IllegalArgumentException iae)
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY + getCodecName()))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library - " + iae.getMessage());
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY + getCodecName());
-                }
-            }
-            catch(NoSuchMethodException nsme)
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library - no such method exception");
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                }
-            }
-            catch(MalformedURLException mue)
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library from path [" + path + "]");
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                }
-            }
-            catch(ClassNotFoundException e1)
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library - class not found");
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                }
-            }
-            catch(InvocationTargetException ite)
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library - invocation target exception", ite);
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                }
-            }
-            catch(InstantiationException e1)
-            {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library - instantiation exception", e1);
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                }
-            }
-            catch(IllegalAccessException e1)
+            if(task.mCall == mCall)
             {
-                if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
-                {
-                    mLog.error("Couldn't load JMBE audio conversion library - security restrictions");
-                    mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
-                }
+                task.mTask.run();
             }
+
+            task = mMessageThreadTasks.poll();
         }
-        else
+    }
+
+    /**
+     * Receives identifier updates from the decoder state(s) and applies them to the identifier collection and the
+     * current audio segment on the vocoder worker lane.
+     */
+    @Override
+    public Listener<IdentifierUpdateNotification> getIdentifierUpdateListener()
+    {
+        return mIdentifierUpdateListener;
+    }
+
+    protected IAudioCodec getAudioCodec()
+    {
+        return mAudioCodec;
+    }
+
+    /**
+     * Indicates that the JMBE audio library has been loaded and a suitable audio codec is usable (ie non-null)
+     */
+    protected boolean hasAudioCodec()
+    {
+        return getAudioCodec() != null;
+    }
+
+    @Override
+    public Listener<IMessage> getMessageListener()
+    {
+        return this;
+    }
+
+    /**
+     * Name of the CODEC to use from the JMBE library
+     */
+    protected abstract String getCodecName();
+
+    /**
+     * Swaps to a new audio codec from the codec manager so that any queued audio frames are decoded with the new codec
+     * and releases the previous codec on the vocoder worker lane once any in-progress audio frame decode completes.
+     * This method is invoked by the codec manager whenever the JMBE library is reloaded.
+     */
+    void reloadConverter()
+    {
+        IAudioCodec previous;
+
+        synchronized(mCodecLock)
         {
-            if(!mLibraryLoadStatusLogged.contains(JMBE_AUDIO_LIBRARY))
+            if(mDisposed)
             {
-                mLog.warn("JMBE audio library path is NOT SET in your User Preferences.");
-                mLibraryLoadStatusLogged.add(JMBE_AUDIO_LIBRARY);
+                return;
             }
-        }
 
-        if(audioConverter != null)
-        {
-            mAudioCodec = audioConverter;
+            previous = mAudioCodec;
+            mAudioCodec = mCodecManager.getCodec(mJmbeLibraryPreference, getCodecName());
         }
-        else
+
+        mLane.execute(() -> mCodecManager.releaseCodec(getCodecName(), previous));
+    }
+
+    /**
+     * Task posted from the vocoder worker lane to the message thread, tagged with the call that queued the audio frame.
+     */
+    private static class MessageThreadTask
+    {
+        private int mCall;
+        private Runnable mTask;
+
+        public MessageThreadTask(int call, Runnable task)
         {
-            mAudioCodec = null;
+            mCall = call;
+            mTask = task;
         }
     }
 }
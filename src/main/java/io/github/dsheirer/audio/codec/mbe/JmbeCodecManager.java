@@ -0,0 +1,456 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.audio.codec.mbe;
+
+import com.google.common.eventbus.Subscribe;
+import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.preference.decoder.JmbeLibraryPreference;
+import jmbe.iface.IAudioCodec;
+import jmbe.iface.IAudioCodecLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide JMBE audio codec library loader and audio codec pool.
+ *
+ * The JMBE library jar is loaded once into a single class loader and audio codec instances are pooled per codec name
+ * so that starting a traffic channel reuses an already constructed (and JIT-warmed) codec instead of reloading the
+ * library.  Codecs are reset when they are returned to the pool.
+ *
+ * The library is reloaded only when the JMBE library preference is updated, at which point the pooled codecs are
+ * discarded and each registered audio module is notified to swap to a codec from the new library.  The previous
+ * library class loader remains open until every codec that it created has been released, so that audio frames that
+ * are still decoding with a previous codec never encounter a closed class loader.
+ */
+public class JmbeCodecManager
+{
+    private static final Logger mLog = LoggerFactory.getLogger(JmbeCodecManager.class);
+    private static final String JMBE_LIBRARY_CLASS = "jmbe.JMBEAudioLibrary";
+    private static final int MAXIMUM_POOLED_CODECS = 32;
+    private static JmbeCodecManager sInstance;
+
+    private Map<IAudioCodec,LibraryGeneration> mOutstandingCodecs = Collections.synchronizedMap(new IdentityHashMap<>());
+    private List<JmbeAudioModule> mAudioModules = new CopyOnWriteArrayList<>();
+    private JmbeLibraryPreference mJmbeLibraryPreference;
+    private volatile LibraryGeneration mGeneration;
+    private boolean mLoadAttempted;
+
+    private JmbeCodecManager()
+    {
+        MyEventBus.getGlobalEventBus().register(this);
+    }
+
+    /**
+     * Constructs an instance that loads the library from the specified preference and that is not registered to
+     * receive preference updates from the global event bus.
+     */
+    JmbeCodecManager(JmbeLibraryPreference preference)
+    {
+        mJmbeLibraryPreference = preference;
+    }
+
+    /**
+     * Singleton instance of the codec manager
+     */
+    public static synchronized JmbeCodecManager getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new JmbeCodecManager();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Registers the audio module to be notified when the JMBE library is reloaded.
+     */
+    void register(JmbeAudioModule audioModule)
+    {
+        mAudioModules.add(audioModule);
+    }
+
+    /**
+     * Deregisters the audio module from library reload notifications.
+     */
+    void deregister(JmbeAudioModule audioModule)
+    {
+        mAudioModules.remove(audioModule);
+    }
+
+    /**
+     * Obtains an audio codec from the pool, or creates a new codec from the JMBE library, loading the library on
+     * first use.  The codec must be returned via releaseCodec() when it is no longer used.
+     *
+     * @param preference for the JMBE library path
+     * @param codecName of the codec to obtain from the library
+     * @return audio codec or null if the library is not available or doesn't support the named codec
+     */
+    public IAudioCodec getCodec(JmbeLibraryPreference preference, String codecName)
+    {
+        LibraryGeneration generation;
+
+        synchronized(this)
+        {
+            if(mJmbeLibraryPreference == null)
+            {
+                mJmbeLibraryPreference = preference;
+            }
+
+            if(!mLoadAttempted)
+            {
+                load();
+            }
+
+            generation = mGeneration;
+        }
+
+        if(generation == null)
+        {
+            return null;
+        }
+
+        CodecPool pool = generation.getCodecPool(codecName);
+        IAudioCodec codec = pool.poll();
+
+        if(codec == null)
+        {
+            try
+            {
+                codec = generation.mLibrary.getAudioConverter(codecName);
+                pool.mCreatedCount.incrementAndGet();
+            }
+            catch(IllegalArgumentException iae)
+            {
+                mLog.error("Couldn't create JMBE audio codec [" + codecName + "] - " + iae.getMessage());
+            }
+        }
+
+        if(codec != null)
+        {
+            generation.acquire();
+            mOutstandingCodecs.put(codec, generation);
+        }
+
+        return codec;
+    }
+
+    /**
+     * Resets the codec and returns it to the pool for reuse.  Codecs that were created by a previously loaded version
+     * of the library are discarded and the previous library class loader is closed once all of its codecs are
+     * released.
+     *
+     * @param codecName of the codec
+     * @param codec to release, can be null
+     */
+    public void releaseCodec(String codecName, IAudioCodec codec)
+    {
+        if(codec == null)
+        {
+            return;
+        }
+
+        LibraryGeneration generation = mOutstandingCodecs.remove(codec);
+
+        if(generation == null)
+        {
+            mLog.warn("Ignoring release of JMBE audio codec [" + codecName + "] that is not outstanding");
+            return;
+        }
+
+        codec.reset();
+
+        if(generation == mGeneration)
+        {
+            generation.getCodecPool(codecName).offer(codec);
+        }
+
+        generation.release();
+    }
+
+    /**
+     * Count of codec instances created for the named codec since the library was loaded
+     */
+    public int getCreatedCodecCount(String codecName)
+    {
+        LibraryGeneration generation = mGeneration;
+        return generation != null ? generation.getCodecPool(codecName).mCreatedCount.get() : 0;
+    }
+
+    /**
+     * Count of codecs that have been obtained and not yet released, across all loaded versions of the library
+     */
+    public int getOutstandingCodecCount()
+    {
+        return mOutstandingCodecs.size();
+    }
+
+    /**
+     * Receives notifications that the JMBE library preference has been updated via the Guava event bus and reloads
+     * the library.
+     *
+     * Each registered audio module swaps to a codec from the new library and releases its previous codec once any
+     * in-progress audio frame decode completes.  The previous library class loader is closed when the last of its
+     * codecs is released.
+     *
+     * @param preferenceType that was updated
+     */
+    @Subscribe
+    public void preferenceUpdated(PreferenceType preferenceType)
+    {
+        if(preferenceType == PreferenceType.JMBE_LIBRARY)
+        {
+            LibraryGeneration previous;
+
+            synchronized(this)
+            {
+                previous = mGeneration;
+                mGeneration = null;
+                mLoadAttempted = false;
+
+                if(mJmbeLibraryPreference != null)
+                {
+                    load();
+                }
+            }
+
+            for(JmbeAudioModule audioModule: mAudioModules)
+            {
+                audioModule.reloadConverter();
+            }
+
+            if(previous != null)
+            {
+                previous.retire();
+            }
+        }
+    }
+
+    /**
+     * Loads the JMBE library from the path specified in the user preferences.  Any error is logged once and the load
+     * is not attempted again until the preference is updated.
+     */
+    private void load()
+    {
+        mLoadAttempted = true;
+
+        Path path = mJmbeLibraryPreference.getPathJmbeLibrary();
+
+        if(path == null)
+        {
+            mLog.warn("JMBE audio library path is NOT SET in your User Preferences.");
+            return;
+        }
+
+        mLog.info("Loading JMBE library from [" + path.toString() + "]");
+
+        URLClassLoader classLoader = null;
+
+        try
+        {
+            classLoader = new URLClassLoader(new URL[]{path.toUri().toURL()}, getClass().getClassLoader());
+
+            Class classToLoad = Class.forName(JMBE_LIBRARY_CLASS, true, classLoader);
+
+            Object instance = classToLoad.getDeclaredConstructor().newInstance();
+
+            if(instance instanceof IAudioCodecLibrary)
+            {
+                IAudioCodecLibrary library = (IAudioCodecLibrary)instance;
+
+                if((library.getMajorVersion() == 1 && library.getMinorVersion() >= 0 &&
+                    library.getBuildVersion() >= 0) || library.getMajorVersion() >= 1)
+                {
+                    mGeneration = new LibraryGeneration(classLoader, library);
+                    mLog.info("JMBE audio conversion library loaded: " + library.getVersion());
+                    return;
+                }
+                else
+                {
+                    mLog.warn("JMBE library version 1.0.0 or higher is required - found: " + library.getVersion());
+                }
+            }
+            else
+            {
+                mLog.info("JMBE audio conversion library NOT FOUND");
+            }
+        }
+        catch(MalformedURLException mue)
+        {
+            mLog.error("Couldn't load JMBE audio conversion library from path [" + path + "]");
+        }
+        catch(ClassNotFoundException cnfe)
+        {
+            mLog.error("Couldn't load JMBE audio conversion library - class not found");
+        }
+        catch(NoSuchMethodException nsme)
+        {
+            mLog.error("Couldn't load JMBE audio conversion library - no such method exception");
+        }
+        catch(ReflectiveOperationException roe)
+        {
+            mLog.error("Couldn't load JMBE audio conversion library - " + roe.getClass().getSimpleName(), roe);
+        }
+        catch(IllegalArgumentException iae)
+        {
+            mLog.error("Couldn't load JMBE audio conversion library - " + iae.getMessage());
+        }
+
+        //Release the class loader when the library couldn't be loaded
+        if(classLoader != null)
+        {
+            try
+            {
+                classLoader.close();
+            }
+            catch(IOException ioe)
+            {
+                //Do nothing
+            }
+        }
+    }
+
+    /**
+     * A loaded version of the JMBE library with its class loader, codec pools and a count of the codecs that have been
+     * obtained from it and not yet released.  Once retired, the class loader is closed when the outstanding count
+     * reaches zero.
+     */
+    private static class LibraryGeneration
+    {
+        private URLClassLoader mClassLoader;
+        private IAudioCodecLibrary mLibrary;
+        private Map<String,CodecPool> mCodecPools = new ConcurrentHashMap<>();
+        private int mOutstandingCount;
+        private boolean mRetired;
+
+        LibraryGeneration(URLClassLoader classLoader, IAudioCodecLibrary library)
+        {
+            mClassLoader = classLoader;
+            mLibrary = library;
+        }
+
+        CodecPool getCodecPool(String codecName)
+        {
+            return mCodecPools.computeIfAbsent(codecName, key -> new CodecPool());
+        }
+
+        synchronized void acquire()
+        {
+            mOutstandingCount++;
+        }
+
+        synchronized void release()
+        {
+            mOutstandingCount--;
+
+            if(mRetired && mOutstandingCount == 0)
+            {
+                close();
+            }
+        }
+
+        /**
+         * Discards the pooled codecs and closes the class loader now, or when the last outstanding codec is released.
+         */
+        synchronized void retire()
+        {
+            mRetired = true;
+            mCodecPools.clear();
+
+            if(mOutstandingCount == 0)
+            {
+                close();
+            }
+            else
+            {
+                mLog.info("Previous JMBE library will be closed after [" + mOutstandingCount +
+                    "] audio codecs in use are released");
+            }
+        }
+
+        private void close()
+        {
+            mLibrary = null;
+
+            try
+            {
+                mClassLoader.close();
+                mLog.info("Previous JMBE library class loader closed");
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing JMBE library class loader", ioe);
+            }
+        }
+    }
+
+    /**
+     * Bounded pool of idle codec instances for a single codec name
+     */
+    private static class CodecPool
+    {
+        private Queue<IAudioCodec> mCodecs = new ConcurrentLinkedQueue<>();
+        private AtomicInteger mIdleCount = new AtomicInteger();
+        private AtomicInteger mCreatedCount = new AtomicInteger();
+
+        IAudioCodec poll()
+        {
+            IAudioCodec codec = mCodecs.poll();
+
+            if(codec != null)
+            {
+                mIdleCount.decrementAndGet();
+            }
+
+            return codec;
+        }
+
+        void offer(IAudioCodec codec)
+        {
+            if(mIdleCount.incrementAndGet() <= MAXIMUM_POOLED_CODECS)
+            {
+                mCodecs.offer(codec);
+            }
+            else
+            {
+                mIdleCount.decrementAndGet();
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonRootName;
 import io.github.dsheirer.identifier.encryption.EncryptionKey;
 import io.github.dsheirer.module.decode.p25.audio.VoiceFrame;
+import io.github.dsheirer.sample.Listener;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -51,6 +52,8 @@ public class MBECallSequence
     private boolean mEncrypted;
     private List<VoiceFrame> mVoiceFrames = new ArrayList<>();
     private IEncryptionSyncParameters mTemporaryEncryptionSyncParameters;
+    private Listener<VoiceFrame> mVoiceFrameListener;
+    private int mVoiceFrameCount;
 
     /**
      * Constructs a call sequence
@@ -86,7 +89,7 @@ public class MBECallSequence
     @JsonIgnore
     public boolean hasAudio()
     {
-        return mVoiceFrames.size() > 4;
+        return mVoiceFrameCount > 4;
     }
 
     /**
@@ -240,6 +243,44 @@ public class MBECallSequence
     public void setVoiceFrames(List<VoiceFrame> voiceFrames)
     {
         mVoiceFrames = voiceFrames;
+        mVoiceFrameCount = voiceFrames.size();
+    }
+
+    /**
+     * Sets a listener to receive voice frames as they are added to this call sequence.  When a listener is set, voice
+     * frames are streamed to the listener and are not retained in this sequence's list of voice frames.
+     *
+     * @param listener to receive voice frames or null to retain voice frames in this sequence
+     */
+    public void setVoiceFrameListener(Listener<VoiceFrame> listener)
+    {
+        mVoiceFrameListener = listener;
+    }
+
+    /**
+     * Number of voice frames that have been added to this sequence
+     */
+    @JsonIgnore
+    public int getVoiceFrameCount()
+    {
+        return mVoiceFrameCount;
+    }
+
+    /**
+     * Adds the voice frame to the list of voice frames or dispatches it to the voice frame listener
+     */
+    private void add(VoiceFrame voiceFrame)
+    {
+        mVoiceFrameCount++;
+
+        if(mVoiceFrameListener != null)
+        {
+            mVoiceFrameListener.receive(voiceFrame);
+        }
+        else
+        {
+            mVoiceFrames.add(voiceFrame);
+        }
     }
 
     /**
@@ -257,7 +298,7 @@ public class MBECallSequence
         }
         else
         {
-            mVoiceFrames.add(new VoiceFrame(timestamp, frame));
+            add(new VoiceFrame(timestamp, frame));
         }
     }
 
@@ -286,6 +327,6 @@ public class MBECallSequence
      */
     public void addEncryptedVoiceFrame(long timestamp, String frame, int algorithm, int keyid, String messageIndicator)
     {
-        mVoiceFrames.add(new VoiceFrame(timestamp, frame, algorithm, keyid, messageIndicator));
+        add(new VoiceFrame(timestamp, frame, algorithm, keyid, messageIndicator));
     }
 }
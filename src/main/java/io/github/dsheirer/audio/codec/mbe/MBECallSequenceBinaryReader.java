@@ -0,0 +1,375 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2019 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+
+package io.github.dsheirer.audio.codec.mbe;
+
+import io.github.dsheirer.module.decode.p25.audio.VoiceFrame;
+import io.github.dsheirer.sample.Listener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Memory-mapped reader for binary MBE call sequence recording files (see MBECallSequenceFormat).
+ *
+ * Call sequences are reconstructed from the interleaved call records and delivered to a listener as each call ends,
+ * so that large numbers of recordings can be processed in batch without parsing JSON.  Calls that don't have a call
+ * end record (e.g. recording was interrupted) are delivered when the end of the file is reached.  A truncated record
+ * at the end of the file is ignored.
+ *
+ * This class is not thread safe.  Use a separate reader per thread for parallel batch processing.
+ */
+public class MBECallSequenceBinaryReader
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MBECallSequenceBinaryReader.class);
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private Inflater mInflater = new Inflater();
+    private byte[] mInflateBuffer = new byte[8192];
+    private char[] mHexBuffer = new char[256];
+
+    /**
+     * Reads all of the call sequences from the binary recording file.
+     *
+     * @param path to the recording file
+     * @return call sequences
+     * @throws IOException if the file cannot be read or is not a binary call sequence file
+     */
+    public static List<MBECallSequence> readAll(Path path) throws IOException
+    {
+        List<MBECallSequence> sequences = new ArrayList<>();
+        new MBECallSequenceBinaryReader().read(path, sequences::add);
+        return sequences;
+    }
+
+    /**
+     * Reads the call sequences from each of the binary recording files.  Files that cannot be read are logged and
+     * skipped.
+     *
+     * @param paths to the recording files
+     * @param listener to receive each call sequence
+     * @return number of call sequences read
+     */
+    public int read(List<Path> paths, Listener<MBECallSequence> listener)
+    {
+        int count = 0;
+
+        for(Path path: paths)
+        {
+            try
+            {
+                count += read(path, listener);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error reading MBE call sequence recording [" + path.toString() + "]", ioe);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads the call sequences from the binary recording file.
+     *
+     * @param path to the recording file
+     * @param listener to receive each call sequence
+     * @return number of call sequences read
+     * @throws IOException if the file cannot be read or is not a binary call sequence file
+     */
+    public int read(Path path, Listener<MBECallSequence> listener) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ))
+        {
+            if(channel.size() > Integer.MAX_VALUE)
+            {
+                throw new IOException("MBE call sequence recording exceeds maximum size [" + path.toString() + "]");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer, listener);
+        }
+    }
+
+    /**
+     * Reads the call sequences from a buffer containing a binary call sequence recording.
+     *
+     * @param buffer positioned at the start of the recording
+     * @param listener to receive each call sequence
+     * @return number of call sequences read
+     * @throws IOException if the buffer doesn't contain a binary call sequence recording
+     */
+    public int read(ByteBuffer buffer, Listener<MBECallSequence> listener) throws IOException
+    {
+        if(buffer.remaining() < MBECallSequenceFormat.FILE_HEADER_LENGTH ||
+           buffer.getInt() != MBECallSequenceFormat.MAGIC)
+        {
+            throw new IOException("Not a binary MBE call sequence recording");
+        }
+
+        byte version = buffer.get();
+
+        if(version != MBECallSequenceFormat.VERSION)
+        {
+            throw new IOException("Unsupported binary MBE call sequence recording version [" + version + "]");
+        }
+
+        Map<Integer,PendingCall> pendingCalls = new LinkedHashMap<>();
+        int count = 0;
+
+        while(buffer.remaining() >= MBECallSequenceFormat.RECORD_HEADER_LENGTH)
+        {
+            byte type = buffer.get();
+            int length = buffer.getInt();
+
+            if(length < 0 || length > buffer.remaining())
+            {
+                mLog.warn("Ignoring truncated record at the end of MBE call sequence recording");
+                break;
+            }
+
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            buffer.position(buffer.position() + length);
+
+            if((type & MBECallSequenceFormat.RECORD_COMPRESSED) != 0)
+            {
+                payload = inflate(payload);
+            }
+
+            try
+            {
+                switch(type & MBECallSequenceFormat.RECORD_TYPE_MASK)
+                {
+                    case MBECallSequenceFormat.RECORD_CALL_START:
+                        int callId = payload.getInt();
+                        long timestamp = payload.getLong();
+                        payload.getLong(); //channel frequency
+                        String protocol = getUTF(payload);
+                        pendingCalls.put(callId, new PendingCall(new MBECallSequence(protocol), timestamp));
+                        break;
+                    case MBECallSequenceFormat.RECORD_FRAMES:
+                        PendingCall framesCall = pendingCalls.get(payload.getInt());
+
+                        if(framesCall != null)
+                        {
+                            readFrames(payload, framesCall);
+                        }
+                        break;
+                    case MBECallSequenceFormat.RECORD_CALL_END:
+                        PendingCall endCall = pendingCalls.remove(payload.getInt());
+
+                        if(endCall != null)
+                        {
+                            readCallEnd(payload, endCall.mSequence);
+                            listener.receive(endCall.complete());
+                            count++;
+                        }
+                        break;
+                    default:
+                        //Skip unrecognized record types
+                        break;
+                }
+            }
+            catch(BufferUnderflowException bue)
+            {
+                throw new IOException("Malformed record in MBE call sequence recording", bue);
+            }
+        }
+
+        for(PendingCall pendingCall: pendingCalls.values())
+        {
+            listener.receive(pendingCall.complete());
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Reads a block of frames into the call sequence
+     */
+    private void readFrames(ByteBuffer payload, PendingCall call)
+    {
+        int frameCount = payload.getShort() & 0xFFFF;
+        List<VoiceFrame> voiceFrames = call.mSequence.getVoiceFrames();
+
+        for(int x = 0; x < frameCount; x++)
+        {
+            byte flags = payload.get();
+            long timestamp = call.mTimestamp + payload.getInt();
+            String frame = getFrame(payload);
+
+            if((flags & MBECallSequenceFormat.FRAME_FLAG_ENCRYPTED) != 0)
+            {
+                int algorithm = payload.getInt();
+                int keyId = payload.getInt();
+                String messageIndicator = getString(payload);
+                voiceFrames.add(new VoiceFrame(timestamp, frame, algorithm, keyId, messageIndicator));
+            }
+            else
+            {
+                voiceFrames.add(new VoiceFrame(timestamp, frame));
+            }
+        }
+    }
+
+    /**
+     * Reads the call end metadata into the call sequence
+     */
+    private void readCallEnd(ByteBuffer payload, MBECallSequence sequence)
+    {
+        payload.getInt(); //frame count
+        sequence.setEncrypted(payload.get() != 0);
+        sequence.setCallType(getString(payload));
+        sequence.setFromIdentifier(getString(payload));
+        sequence.setToIdentifier(getString(payload));
+        sequence.setSystem(getString(payload));
+        sequence.setSite(getString(payload));
+        getString(payload); //channel tag
+    }
+
+    /**
+     * Inflates a compressed record payload
+     */
+    private ByteBuffer inflate(ByteBuffer payload) throws IOException
+    {
+        int length = payload.getInt();
+        byte[] compressed = new byte[payload.remaining()];
+        payload.get(compressed);
+
+        if(mInflateBuffer.length < length)
+        {
+            mInflateBuffer = new byte[length];
+        }
+
+        mInflater.reset();
+        mInflater.setInput(compressed);
+
+        try
+        {
+            int inflated = 0;
+
+            while(inflated < length && !mInflater.finished())
+            {
+                int count = mInflater.inflate(mInflateBuffer, inflated, length - inflated);
+
+                if(count == 0 && (mInflater.needsInput() || mInflater.needsDictionary()))
+                {
+                    break;
+                }
+
+                inflated += count;
+            }
+
+            if(inflated != length)
+            {
+                throw new IOException("Compressed MBE call sequence record is incomplete");
+            }
+        }
+        catch(DataFormatException dfe)
+        {
+            throw new IOException("Compressed MBE call sequence record is corrupt", dfe);
+        }
+
+        return ByteBuffer.wrap(mInflateBuffer, 0, length).slice();
+    }
+
+    /**
+     * Reads a packed hexadecimal frame value
+     */
+    private String getFrame(ByteBuffer payload)
+    {
+        int nibbles = payload.get() & 0xFF;
+
+        for(int x = 0; x < nibbles; x += 2)
+        {
+            int value = payload.get() & 0xFF;
+            mHexBuffer[x] = HEX[value >> 4];
+
+            if(x + 1 < nibbles)
+            {
+                mHexBuffer[x + 1] = HEX[value & 0xF];
+            }
+        }
+
+        return new String(mHexBuffer, 0, nibbles);
+    }
+
+    /**
+     * Reads an optional string value
+     */
+    private static String getString(ByteBuffer payload)
+    {
+        return payload.get() != 0 ? getUTF(payload) : null;
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 string value
+     */
+    private static String getUTF(ByteBuffer payload)
+    {
+        int length = payload.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Call sequence that is being reconstructed from the recording
+     */
+    private static class PendingCall
+    {
+        private MBECallSequence mSequence;
+        private long mTimestamp;
+
+        public PendingCall(MBECallSequence sequence, long timestamp)
+        {
+            mSequence = sequence;
+            mTimestamp = timestamp;
+        }
+
+        /**
+         * Updates the voice frame count of the call sequence and returns the completed sequence
+         */
+        public MBECallSequence complete()
+        {
+            mSequence.setVoiceFrames(mSequence.getVoiceFrames());
+            return mSequence;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2019 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+
+package io.github.dsheirer.audio.codec.mbe;
+
+/**
+ * Binary MBE call sequence recording format constants.
+ *
+ * A binary call sequence file starts with a file header (magic and version) followed by length-prefixed records:
+ *
+ * <pre>
+ *   record:      [type:byte][length:int][payload:length bytes]
+ *   CALL_START:  [call id:int][timestamp:long][channel frequency:long][protocol:utf]
+ *   FRAMES:      [call id:int][frame count:short] followed by frame count frames
+ *   frame:       [flags:byte][timestamp offset from call start:int][nibble count:byte][packed nibbles]
+ *                and when the encrypted flag is set: [algorithm:int][key id:int][message indicator:string]
+ *   CALL_END:    [call id:int][frame count:int][encrypted:boolean][call type:string][from:string][to:string]
+ *                [system:string][site:string][channel tag:string]
+ *   utf:         [length:short][UTF-8 bytes]
+ *   string:      [present:boolean][value:utf when present]
+ * </pre>
+ *
+ * When the COMPRESSED flag is set in the record type, the payload is [uncompressed length:int] followed by the
+ * deflate compressed record payload.  Records from multiple calls (e.g. TDMA timeslots) can be interleaved and are
+ * associated by call id.
+ */
+public class MBECallSequenceFormat
+{
+    public static final int MAGIC = 0x4D424553; //MBES
+    public static final byte VERSION = 1;
+    public static final int FILE_HEADER_LENGTH = 5;
+    public static final int RECORD_HEADER_LENGTH = 5;
+    public static final String FILE_EXTENSION = ".mbeb";
+
+    public static final byte RECORD_CALL_START = 1;
+    public static final byte RECORD_FRAMES = 2;
+    public static final byte RECORD_CALL_END = 3;
+    public static final byte RECORD_TYPE_MASK = 0x7F;
+    public static final byte RECORD_COMPRESSED = (byte)0x80;
+
+    public static final byte FRAME_FLAG_ENCRYPTED = 0x01;
+
+    private MBECallSequenceFormat()
+    {
+    }
+}
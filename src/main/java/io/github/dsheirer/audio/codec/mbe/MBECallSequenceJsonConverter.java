@@ -0,0 +1,139 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2019 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+
+package io.github.dsheirer.audio.codec.mbe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.dsheirer.module.decode.p25.audio.VoiceFrame;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One-time converter for legacy JSON MBE call sequence recordings (*.mbe) to the binary call sequence format.  Each
+ * JSON recording becomes one call sequence in the binary recording file.
+ */
+public class MBECallSequenceJsonConverter
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MBECallSequenceJsonConverter.class);
+    public static final String JSON_FILE_EXTENSION = ".mbe";
+
+    /**
+     * Converts the JSON call sequence recordings to a single binary call sequence recording.  Recordings that can't
+     * be parsed are logged and skipped.
+     *
+     * @param jsonPaths to convert
+     * @param output path for the binary recording
+     * @param compressed to compress the binary recording
+     * @return number of call sequences converted
+     * @throws IOException if there is an error writing the binary recording
+     */
+    public static int convert(List<Path> jsonPaths, Path output, boolean compressed) throws IOException
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        MBECallSequenceWriter writer = new MBECallSequenceWriter(output, 0, compressed);
+        int count = 0;
+
+        try
+        {
+            for(Path jsonPath: jsonPaths)
+            {
+                MBECallSequence sequence;
+
+                try
+                {
+                    sequence = mapper.readValue(jsonPath.toFile(), MBECallSequence.class);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error reading JSON MBE call sequence [" + jsonPath.toString() + "]", ioe);
+                    continue;
+                }
+
+                List<VoiceFrame> voiceFrames = sequence.getVoiceFrames();
+                long timestamp = voiceFrames.isEmpty() ? 0 : voiceFrames.get(0).getTimestamp();
+                MBECallSequenceWriter.CallWriter callWriter = writer.startCall(sequence, timestamp);
+
+                for(VoiceFrame voiceFrame: voiceFrames)
+                {
+                    callWriter.receive(voiceFrame);
+                }
+
+                callWriter.finish(null);
+                count++;
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+
+        return count;
+    }
+
+    /**
+     * Converts all JSON call sequence recordings in a directory to a single binary recording.
+     *
+     * Arguments: json_directory output_file [--compress]
+     */
+    public static void main(String[] args)
+    {
+        if(args.length < 2)
+        {
+            mLog.info("Usage: MBECallSequenceJsonConverter json_directory output_file [--compress]");
+            return;
+        }
+
+        Path directory = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        boolean compressed = args.length > 2 && args[2].contentEquals("--compress");
+
+        List<Path> jsonPaths = new ArrayList<>();
+
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + JSON_FILE_EXTENSION))
+        {
+            for(Path path: stream)
+            {
+                jsonPaths.add(path);
+            }
+
+            Collections.sort(jsonPaths);
+
+            int count = convert(jsonPaths, output, compressed);
+            mLog.info("Converted [" + count + "] of [" + jsonPaths.size() + "] JSON MBE call sequences to [" +
+                output.toString() + "]");
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error converting JSON MBE call sequences", ioe);
+        }
+    }
+}
@@ -35,12 +35,27 @@ import java.util.Collections;
 import java.util.List;
 
 /**
- * Reader for MBE call sequence recordings
+ * Reader for MBE call sequence recordings in either the legacy JSON format or the binary format
  */
 public class MBECallSequenceReader
 {
     public static List<String> getAudioFrames(Path path) throws IOException
     {
+        if(path.toString().endsWith(MBECallSequenceFormat.FILE_EXTENSION))
+        {
+            List<String> audioFrames = new ArrayList<>();
+
+            for(MBECallSequence sequence: MBECallSequenceBinaryReader.readAll(path))
+            {
+                for(VoiceFrame voiceFrame: sequence.getVoiceFrames())
+                {
+                    audioFrames.add(voiceFrame.getFrame());
+                }
+            }
+
+            return audioFrames;
+        }
+
         ObjectMapper mapper = new ObjectMapper();
         Object obj = mapper.readValue(path.toFile(), MBECallSequence.class);
 
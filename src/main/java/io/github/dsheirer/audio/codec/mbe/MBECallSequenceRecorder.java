@@ -22,7 +22,6 @@
 
 package io.github.dsheirer.audio.codec.mbe;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.IMessageListener;
 import io.github.dsheirer.module.Module;
@@ -33,13 +32,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
- * Records MBE audio frame call sequences and metadata to a JSON format recording file
+ * Records MBE audio frame call sequences and metadata to a binary call sequence recording file.  Voice frames are
+ * streamed to the recording file as they are decoded.  Each recorder start produces a single recording file that
+ * contains all of the call sequences recorded by the recorder until it is stopped.
+ *
+ * See MBECallSequenceFormat for the recording file format.
  */
 public abstract class MBECallSequenceRecorder extends Module implements IMessageListener, Listener<IMessage>
 {
@@ -52,7 +55,8 @@ public abstract class MBECallSequenceRecorder extends Module implements IMessage
     protected long mChannelFrequency;
     protected String mSystem;
     protected String mSite;
-    private int mCallNumber = 1;
+    private MBECallSequenceWriter mWriter;
+    private Map<MBECallSequence,MBECallSequenceWriter.CallWriter> mCallWriters = new IdentityHashMap<>();
 
     /**
      * Constructs an instance
@@ -78,7 +82,22 @@ public abstract class MBECallSequenceRecorder extends Module implements IMessage
     }
 
     /**
-     * Writes an MBE call sequence recording to the recording directory
+     * Creates a new call sequence that streams voice frames to the recording file as they are added.
+     *
+     * @param protocol for the call sequence
+     * @return call sequence
+     */
+    protected MBECallSequence createCallSequence(String protocol)
+    {
+        MBECallSequence sequence = new MBECallSequence(protocol);
+        MBECallSequenceWriter.CallWriter callWriter = getWriter().startCall(sequence, System.currentTimeMillis());
+        sequence.setVoiceFrameListener(callWriter);
+        mCallWriters.put(sequence, callWriter);
+        return sequence;
+    }
+
+    /**
+     * Completes the MBE call sequence recording by writing the call sequence metadata to the recording file.
      * @param sequence to write
      */
     protected void writeCallSequence(MBECallSequence sequence)
@@ -87,64 +106,75 @@ public abstract class MBECallSequenceRecorder extends Module implements IMessage
     }
 
     /**
-     * Writes an MBE call sequence recording to the recording directory.
+     * Completes the MBE call sequence recording by writing the call sequence metadata to the recording file.
      *
-     * @param optionalChannelTag to include in the filename
+     * @param optionalChannelTag to include in the recording
      * @param sequence containing voice frames
      */
     protected void writeCallSequence(MBECallSequence sequence, String optionalChannelTag)
     {
-        if(sequence != null && sequence.hasAudio())
+        if(sequence != null)
         {
-            sequence.setSystem(mSystem);
-            sequence.setSite(mSite);
-
-            StringBuilder sb = new StringBuilder();
-            sb.append(TimestampFormat.TIMESTAMP_COMPACT.getFormatter().format(new Date(System.currentTimeMillis())));
-            sb.append("_").append(mChannelFrequency);
-            sb.append("_").append(mCallNumber++);
+            MBECallSequenceWriter.CallWriter callWriter = mCallWriters.remove(sequence);
 
-            if(mCallNumber < 1)
+            if(callWriter != null)
             {
-                mCallNumber = 1;
+                sequence.setSystem(mSystem);
+                sequence.setSite(mSite);
+
+                try
+                {
+                    callWriter.finish(optionalChannelTag);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Couldn't write MBE call sequence to path [" + mWriter.getPath().toString() + "]", ioe);
+                }
             }
+        }
+    }
 
-            if(optionalChannelTag != null)
-            {
-                sb.append("_").append(optionalChannelTag);
-            }
+    /**
+     * Closes the current recording file.  Any call sequences that have not been written are discarded.  A new
+     * recording file is created for the next call sequence.
+     */
+    protected void closeRecording()
+    {
+        mCallWriters.clear();
 
-            if(sequence.getToIdentifier() != null)
+        if(mWriter != null)
+        {
+            try
             {
-                sb.append("_").append(sequence.getToIdentifier().replace(":", ""));
+                mWriter.close();
             }
-            if(sequence.getFromIdentifier() != null)
+            catch(IOException ioe)
             {
-                sb.append("_").append(sequence.getFromIdentifier().replace(":", ""));
+                mLog.error("Error closing MBE call sequence recording [" + mWriter.getPath().toString() + "]", ioe);
             }
 
-            if(sequence.isEncrypted())
-            {
-                sb.append("_encrypted");
-            }
+            mWriter = null;
+        }
+    }
 
-            sb.append(".mbe");
+    /**
+     * Current recording file writer, created as needed.
+     */
+    private MBECallSequenceWriter getWriter()
+    {
+        if(mWriter == null)
+        {
+            StringBuilder sb = new StringBuilder();
+            sb.append(TimestampFormat.TIMESTAMP_COMPACT.getFormatter().format(new Date(System.currentTimeMillis())));
+            sb.append("_").append(mChannelFrequency);
+            sb.append(MBECallSequenceFormat.FILE_EXTENSION);
 
             Path recordingDirectory = mUserPreferences.getDirectoryPreference().getDirectoryRecording();
-            Path filePath = recordingDirectory.resolve(sb.toString());
-
-            try
-            {
-                OutputStream outputStream = Files.newOutputStream(filePath);
-                ObjectMapper mapper = new ObjectMapper();
-                mapper.writerWithDefaultPrettyPrinter().writeValue(outputStream, sequence);
-                outputStream.close();
-            }
-            catch(IOException ioe)
-            {
-                mLog.error("Couldn't write MBE call sequence to path [" + filePath.toString() + "]", ioe);
-            }
+            mWriter = new MBECallSequenceWriter(recordingDirectory.resolve(sb.toString()), mChannelFrequency,
+                mUserPreferences.getRecordPreference().isMBERecordCompressed());
         }
+
+        return mWriter;
     }
 
     /**
@@ -0,0 +1,360 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2019 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+
+package io.github.dsheirer.audio.codec.mbe;
+
+import io.github.dsheirer.module.decode.p25.audio.VoiceFrame;
+import io.github.dsheirer.sample.Listener;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming writer for the binary MBE call sequence format described in MBECallSequenceFormat.
+ *
+ * Voice frames are written incrementally while the call is in progress, in blocks of frames, so that the complete
+ * call never has to be held in memory or serialized at the end of the call.  The call start record is deferred until
+ * the first block of frames is written and calls that end without audio (see MBECallSequence.hasAudio()) are not
+ * written at all.
+ *
+ * This class is not thread safe and is intended to be used by a single decoder thread.
+ */
+public class MBECallSequenceWriter
+{
+    public static final int FRAMES_PER_BLOCK = 50;
+
+    private Path mPath;
+    private boolean mCompressed;
+    private long mChannelFrequency;
+    private DataOutputStream mOutputStream;
+    private ByteArrayOutputStream mRecordBuffer = new ByteArrayOutputStream();
+    private DataOutputStream mRecordStream = new DataOutputStream(mRecordBuffer);
+    private ByteArrayOutputStream mCompressedBuffer = new ByteArrayOutputStream();
+    private Deflater mDeflater;
+    private byte[] mDeflaterBuffer;
+    private int mNextCallId = 1;
+
+    /**
+     * Constructs an instance.  The file is created when the first call with audio is written.
+     *
+     * @param path for the binary call sequence file
+     * @param channelFrequency for the recorded channel
+     * @param compressed to deflate compress the frame records
+     */
+    public MBECallSequenceWriter(Path path, long channelFrequency, boolean compressed)
+    {
+        mPath = path;
+        mChannelFrequency = channelFrequency;
+        mCompressed = compressed;
+
+        if(mCompressed)
+        {
+            mDeflater = new Deflater(Deflater.BEST_SPEED);
+            mDeflaterBuffer = new byte[4096];
+        }
+    }
+
+    /**
+     * Path for the binary call sequence file
+     */
+    public Path getPath()
+    {
+        return mPath;
+    }
+
+    /**
+     * Starts a new call for the call sequence.
+     *
+     * @param sequence for the call
+     * @param timestamp for the start of the call
+     * @return call writer to receive voice frames for the call
+     */
+    public CallWriter startCall(MBECallSequence sequence, long timestamp)
+    {
+        CallWriter callWriter = new CallWriter(mNextCallId++, sequence, timestamp);
+
+        if(mNextCallId < 1)
+        {
+            mNextCallId = 1;
+        }
+
+        return callWriter;
+    }
+
+    /**
+     * Closes the file
+     */
+    public void close() throws IOException
+    {
+        if(mOutputStream != null)
+        {
+            mOutputStream.close();
+            mOutputStream = null;
+        }
+
+        if(mDeflater != null)
+        {
+            mDeflater.end();
+            mDeflater = null;
+        }
+    }
+
+    /**
+     * Output stream for the file, creating the file and writing the file header on first access.
+     */
+    private DataOutputStream getOutputStream() throws IOException
+    {
+        if(mOutputStream == null)
+        {
+            mOutputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mPath)));
+            mOutputStream.writeInt(MBECallSequenceFormat.MAGIC);
+            mOutputStream.writeByte(MBECallSequenceFormat.VERSION);
+        }
+
+        return mOutputStream;
+    }
+
+    /**
+     * Writes the record currently contained in the record buffer to the file.
+     *
+     * @param type of record
+     * @param compress to compress the record payload
+     */
+    private void writeRecord(byte type, boolean compress) throws IOException
+    {
+        DataOutputStream outputStream = getOutputStream();
+
+        if(compress && mDeflater != null)
+        {
+            mDeflater.reset();
+            mDeflater.setInput(mRecordBuffer.toByteArray());
+            mDeflater.finish();
+            mCompressedBuffer.reset();
+
+            while(!mDeflater.finished())
+            {
+                int length = mDeflater.deflate(mDeflaterBuffer);
+                mCompressedBuffer.write(mDeflaterBuffer, 0, length);
+            }
+
+            outputStream.writeByte(type | MBECallSequenceFormat.RECORD_COMPRESSED);
+            outputStream.writeInt(4 + mCompressedBuffer.size());
+            outputStream.writeInt(mRecordBuffer.size());
+            mCompressedBuffer.writeTo(outputStream);
+        }
+        else
+        {
+            outputStream.writeByte(type);
+            outputStream.writeInt(mRecordBuffer.size());
+            mRecordBuffer.writeTo(outputStream);
+        }
+
+        mRecordBuffer.reset();
+    }
+
+    /**
+     * Writes an optional string value
+     */
+    static void writeString(DataOutputStream outputStream, String value) throws IOException
+    {
+        outputStream.writeBoolean(value != null);
+
+        if(value != null)
+        {
+            writeUTF(outputStream, value);
+        }
+    }
+
+    /**
+     * Writes a UTF-8 string value prefixed with the encoded length
+     */
+    static void writeUTF(DataOutputStream outputStream, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        if(bytes.length > 0xFFFF)
+        {
+            throw new IOException("String value exceeds maximum encoded length [" + bytes.length + "]");
+        }
+
+        outputStream.writeShort(bytes.length);
+        outputStream.write(bytes);
+    }
+
+    /**
+     * Writes the hexadecimal frame value as a nibble count and packed nibbles
+     */
+    static void writeFrame(DataOutputStream outputStream, String hex) throws IOException
+    {
+        int nibbles = hex.length();
+
+        if(nibbles > 255)
+        {
+            throw new IOException("Voice frame exceeds maximum length [" + nibbles + " hex characters]");
+        }
+
+        outputStream.writeByte(nibbles);
+
+        for(int x = 0; x < nibbles; x += 2)
+        {
+            int high = Character.digit(hex.charAt(x), 16);
+            int low = (x + 1 < nibbles) ? Character.digit(hex.charAt(x + 1), 16) : 0;
+            outputStream.writeByte((high << 4) | low);
+        }
+    }
+
+    /**
+     * Call writer receives voice frames for a single call and writes them to the file in blocks of frames.
+     */
+    public class CallWriter implements Listener<VoiceFrame>
+    {
+        private int mCallId;
+        private MBECallSequence mSequence;
+        private long mStartTimestamp;
+        private ByteArrayOutputStream mBlockBuffer = new ByteArrayOutputStream();
+        private DataOutputStream mBlockStream = new DataOutputStream(mBlockBuffer);
+        private int mBlockFrameCount;
+        private int mFrameCount;
+        private boolean mStarted;
+        private IOException mError;
+
+        private CallWriter(int callId, MBECallSequence sequence, long startTimestamp)
+        {
+            mCallId = callId;
+            mSequence = sequence;
+            mStartTimestamp = startTimestamp;
+        }
+
+        /**
+         * Receives a voice frame for the call and writes a block of frames once the block is full.  Write errors
+         * are deferred and reported when the call is finished.
+         */
+        @Override
+        public void receive(VoiceFrame voiceFrame)
+        {
+            if(mError != null)
+            {
+                return;
+            }
+
+            try
+            {
+                if(mFrameCount == 0)
+                {
+                    //Anchor frame timestamp offsets to the first frame since frames can predate the call start
+                    mStartTimestamp = Math.min(mStartTimestamp, voiceFrame.getTimestamp());
+                }
+
+                boolean encrypted = voiceFrame.getAlgorithm() != null;
+                mBlockStream.writeByte(encrypted ? MBECallSequenceFormat.FRAME_FLAG_ENCRYPTED : 0);
+                mBlockStream.writeInt((int)(voiceFrame.getTimestamp() - mStartTimestamp));
+                writeFrame(mBlockStream, voiceFrame.getFrame());
+
+                if(encrypted)
+                {
+                    mBlockStream.writeInt(voiceFrame.getAlgorithm());
+                    mBlockStream.writeInt(voiceFrame.getKeyId() != null ? voiceFrame.getKeyId() : 0);
+                    writeString(mBlockStream, voiceFrame.getMessageIndicator());
+                }
+
+                mBlockFrameCount++;
+                mFrameCount++;
+
+                if(mBlockFrameCount >= FRAMES_PER_BLOCK)
+                {
+                    writeBlock();
+                }
+            }
+            catch(IOException ioe)
+            {
+                mError = ioe;
+            }
+        }
+
+        /**
+         * Writes any remaining frames and the call end record containing the call sequence metadata.  Calls without
+         * audio are discarded.
+         *
+         * @param channelTag optional channel tag (e.g. timeslot) or null
+         * @throws IOException if there were any errors writing the call
+         */
+        public void finish(String channelTag) throws IOException
+        {
+            if(mError != null)
+            {
+                throw mError;
+            }
+
+            if(!mStarted && !mSequence.hasAudio())
+            {
+                return;
+            }
+
+            writeBlock();
+
+            mRecordStream.writeInt(mCallId);
+            mRecordStream.writeInt(mFrameCount);
+            mRecordStream.writeBoolean(mSequence.isEncrypted());
+            writeString(mRecordStream, mSequence.getCallType());
+            writeString(mRecordStream, mSequence.getFromIdentifier());
+            writeString(mRecordStream, mSequence.getToIdentifier());
+            writeString(mRecordStream, mSequence.getSystem());
+            writeString(mRecordStream, mSequence.getSite());
+            writeString(mRecordStream, channelTag);
+            writeRecord(MBECallSequenceFormat.RECORD_CALL_END, false);
+            mOutputStream.flush();
+        }
+
+        /**
+         * Writes the call start record, if needed, and the currently buffered block of frames.
+         */
+        private void writeBlock() throws IOException
+        {
+            if(!mStarted)
+            {
+                mRecordStream.writeInt(mCallId);
+                mRecordStream.writeLong(mStartTimestamp);
+                mRecordStream.writeLong(mChannelFrequency);
+                writeUTF(mRecordStream, mSequence.getProtocol() != null ? mSequence.getProtocol() : "");
+                writeRecord(MBECallSequenceFormat.RECORD_CALL_START, false);
+                mStarted = true;
+            }
+
+            if(mBlockFrameCount > 0)
+            {
+                mRecordStream.writeInt(mCallId);
+                mRecordStream.writeShort(mBlockFrameCount);
+                mBlockBuffer.writeTo(mRecordStream);
+                writeRecord(MBECallSequenceFormat.RECORD_FRAMES, mCompressed);
+                mBlockBuffer.reset();
+                mBlockFrameCount = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.audio.codec.mbe;
+
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.util.ThreadPool;
+import org.apache.commons.math3.util.FastMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide pool of vocoder worker threads for decoding IMBE/AMBE audio frames off of the decoder threads.
+ *
+ * The pool is divided into lanes where each lane is serviced by a single thread.  Each JMBE audio module is assigned
+ * to one lane for its lifetime so that all frames for a call are decoded in order, on the same thread, by the module's
+ * (stateful) audio codec.  Modules are assigned to the lane with the fewest assigned modules.
+ *
+ * Queued audio frames are bounded per audio module.  When a module has too many frames queued, its new audio frames are
+ * dropped so that the decoder threads are never blocked by the vocoder, while the other modules assigned to the same
+ * lane continue to queue frames.  Control tasks (ie closing an audio segment or releasing a codec) are never dropped so
+ * that call boundaries are preserved.
+ */
+public class VocoderWorkerPool
+{
+    private static final Logger mLog = LoggerFactory.getLogger(VocoderWorkerPool.class);
+    public static final int MAXIMUM_QUEUED_FRAMES_PER_MODULE = 500; //10 seconds of 20ms audio frames
+    private static final long STATISTICS_LOG_INTERVAL_SECONDS = 300;
+    private static VocoderWorkerPool sInstance;
+
+    private Lane[] mLanes;
+
+    /**
+     * Constructs an instance
+     * @param laneCount number of worker threads
+     */
+    VocoderWorkerPool(int laneCount)
+    {
+        NamingThreadFactory threadFactory = new NamingThreadFactory("sdrtrunk vocoder");
+
+        mLanes = new Lane[laneCount];
+
+        for(int x = 0; x < laneCount; x++)
+        {
+            mLanes[x] = new Lane(x, Executors.newSingleThreadExecutor(threadFactory));
+        }
+
+        ThreadPool.SCHEDULED.scheduleAtFixedRate(this::logStatistics, STATISTICS_LOG_INTERVAL_SECONDS,
+            STATISTICS_LOG_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        mLog.info("Vocoder worker pool created with [" + laneCount + "] threads");
+    }
+
+    /**
+     * Singleton instance of the vocoder worker pool, sized to half of the available processors, minimum 1.
+     */
+    public static synchronized VocoderWorkerPool getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new VocoderWorkerPool(FastMath.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Assigns a lane to an audio module.  The module should use the lane for all codec access and release the lane
+     * when it is disposed.
+     */
+    public synchronized Lane assign()
+    {
+        Lane lane = mLanes[0];
+
+        for(Lane candidate: mLanes)
+        {
+            if(candidate.mAssignedCount < lane.mAssignedCount)
+            {
+                lane = candidate;
+            }
+        }
+
+        lane.mAssignedCount++;
+        return lane;
+    }
+
+    /**
+     * Releases a lane assignment
+     */
+    public synchronized void release(Lane lane)
+    {
+        if(lane != null && lane.mAssignedCount > 0)
+        {
+            lane.mAssignedCount--;
+        }
+    }
+
+    /**
+     * Logs queue depth and vocoder latency for each lane
+     */
+    private void logStatistics()
+    {
+        for(Lane lane: mLanes)
+        {
+            if(lane.getDecodedFrameCount() > 0 || lane.getDroppedFrameCount() > 0)
+            {
+                mLog.info(lane.toString());
+            }
+        }
+    }
+
+    /**
+     * Single-threaded vocoder lane with queue depth and latency tracking.
+     */
+    public static class Lane
+    {
+        private int mIndex;
+        private ExecutorService mExecutorService;
+        private int mAssignedCount;
+        private AtomicInteger mQueuedFrames = new AtomicInteger();
+        private AtomicInteger mMaxQueuedFrames = new AtomicInteger();
+        private AtomicLong mDecodedFrames = new AtomicLong();
+        private AtomicLong mDroppedFrames = new AtomicLong();
+        private AtomicLong mTotalLatencyNanos = new AtomicLong();
+        private AtomicLong mMaxLatencyNanos = new AtomicLong();
+
+        private Lane(int index, ExecutorService executorService)
+        {
+            mIndex = index;
+            mExecutorService = executorService;
+        }
+
+        /**
+         * Queues an audio frame decode task.  The task is dropped when the audio module that owns the queued frame
+         * counter already has the maximum number of frames queued.
+         *
+         * @param frameTask to decode a single audio frame and deliver the PCM audio
+         * @param moduleQueuedFrames count of frames currently queued by the audio module that owns the frame task
+         * @return true if the task was queued or false if it was dropped
+         */
+        public boolean decode(Runnable frameTask, AtomicInteger moduleQueuedFrames)
+        {
+            if(moduleQueuedFrames.incrementAndGet() > MAXIMUM_QUEUED_FRAMES_PER_MODULE)
+            {
+                moduleQueuedFrames.decrementAndGet();
+
+                if(mDroppedFrames.getAndIncrement() % 500 == 0)
+                {
+                    mLog.warn("Vocoder lane [" + mIndex + "] audio module queue is full - dropping audio frames.  " +
+                        "Dropped frame count [" + mDroppedFrames.get() + "]");
+                }
+
+                return false;
+            }
+
+            int depth = mQueuedFrames.incrementAndGet();
+            updateMax(mMaxQueuedFrames, depth);
+
+            long queued = System.nanoTime();
+
+            mExecutorService.execute(() -> {
+                try
+                {
+                    frameTask.run();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error decoding vocoder audio frame", t);
+                }
+                finally
+                {
+                    moduleQueuedFrames.decrementAndGet();
+                    mQueuedFrames.decrementAndGet();
+                    long latency = System.nanoTime() - queued;
+                    mTotalLatencyNanos.addAndGet(latency);
+                    updateMax(mMaxLatencyNanos, latency);
+                    mDecodedFrames.incrementAndGet();
+                }
+            });
+
+            return true;
+        }
+
+        /**
+         * Queues a control task that is executed in order with any previously queued audio frames.  Control tasks
+         * are never dropped.
+         */
+        public void execute(Runnable controlTask)
+        {
+            mExecutorService.execute(() -> {
+                try
+                {
+                    controlTask.run();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error executing vocoder control task", t);
+                }
+            });
+        }
+
+        /**
+         * Current number of queued audio frames
+         */
+        public int getQueueDepth()
+        {
+            return mQueuedFrames.get();
+        }
+
+        /**
+         * Maximum observed number of queued audio frames
+         */
+        public int getMaxQueueDepth()
+        {
+            return mMaxQueuedFrames.get();
+        }
+
+        /**
+         * Number of decoded audio frames
+         */
+        public long getDecodedFrameCount()
+        {
+            return mDecodedFrames.get();
+        }
+
+        /**
+         * Number of audio frames dropped because the owning audio module's queue was full
+         */
+        public long getDroppedFrameCount()
+        {
+            return mDroppedFrames.get();
+        }
+
+        /**
+         * Average latency from queueing to completing an audio frame decode, in microseconds
+         */
+        public double getAverageLatencyMicros()
+        {
+            long decoded = mDecodedFrames.get();
+            return decoded > 0 ? mTotalLatencyNanos.get() / (decoded * 1000.0) : 0.0;
+        }
+
+        /**
+         * Maximum latency from queueing to completing an audio frame decode, in microseconds
+         */
+        public double getMaxLatencyMicros()
+        {
+            return mMaxLatencyNanos.get() / 1000.0;
+        }
+
+        private static void updateMax(AtomicInteger max, int value)
+        {
+            int current = max.get();
+
+            while(value > current && !max.compareAndSet(current, value))
+            {
+                current = max.get();
+            }
+        }
+
+        private static void updateMax(AtomicLong max, long value)
+        {
+            long current = max.get();
+
+            while(value > current && !max.compareAndSet(current, value))
+            {
+                current = max.get();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Vocoder lane [" + mIndex + "] modules [" + mAssignedCount + "] queue depth [" +
+                getQueueDepth() + "] max depth [" + getMaxQueueDepth() + "] decoded [" + getDecodedFrameCount() +
+                "] dropped [" + getDroppedFrameCount() + "] latency avg/max [" +
+                String.format("%.0f/%.0f", getAverageLatencyMicros(), getMaxLatencyMicros()) + "] us";
+        }
+    }
+}
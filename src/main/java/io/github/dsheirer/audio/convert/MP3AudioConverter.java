@@ -20,6 +20,7 @@ package io.github.dsheirer.audio.convert;
 
 import io.github.dsheirer.audio.AudioFormats;
 import io.github.dsheirer.audio.AudioUtils;
+import io.github.dsheirer.sample.ConversionUtils;
 import net.sourceforge.lame.lowlevel.LameEncoder;
 import net.sourceforge.lame.mp3.Lame;
 import net.sourceforge.lame.mp3.MPEGMode;
@@ -28,6 +29,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.List;
 
@@ -38,6 +41,8 @@ public class MP3AudioConverter implements IAudioConverter
     private LameEncoder mEncoder;
     private ByteArrayOutputStream mMP3Stream = new ByteArrayOutputStream();
     private byte[] mMP3Buffer;
+    private byte[] mEncodeBuffer;
+    private int mPCMChunkSize;
 
     /**
      * Converts PCM 8kHz 16-bit Little Endian audio packets to Mono, Low Quality MP3 compressed audio.
@@ -51,6 +56,45 @@ public class MP3AudioConverter implements IAudioConverter
                 bitRate, MPEGMode.MONO, AUDIO_QUALITY, variableBitRate);
 
         mMP3Buffer = new byte[mEncoder.getPCMBufferSize()];
+        mPCMChunkSize = mEncoder.getPCMBufferSize();
+        mEncodeBuffer = new byte[FastMath.max(mEncoder.getMP3BufferSize(), mPCMChunkSize)];
+    }
+
+    /**
+     * Incrementally encodes a single audio buffer and writes any MP3 frames produced by the encoder to the output
+     * stream.  The encoder may retain a partial frame internally until more audio is encoded or until flush() is
+     * invoked.
+     *
+     * @param audioBuffer containing PCM audio samples
+     * @param outputStream to receive the encoded MP3 frames
+     * @throws IOException if there is an error writing to the output stream
+     */
+    public void encode(float[] audioBuffer, OutputStream outputStream) throws IOException
+    {
+        byte[] pcmBytes = ConversionUtils.convertToSigned16BitSamples(audioBuffer).array();
+
+        int offset = 0;
+
+        while(offset < pcmBytes.length)
+        {
+            int length = FastMath.min(mPCMChunkSize, pcmBytes.length - offset);
+            int encoded = mEncoder.encodeBuffer(pcmBytes, offset, length, mEncodeBuffer);
+
+            if(encoded > 0)
+            {
+                outputStream.write(mEncodeBuffer, 0, encoded);
+            }
+
+            offset += length;
+        }
+    }
+
+    /**
+     * Releases the native encoder resources.  This converter cannot be used after it is disposed.
+     */
+    public void dispose()
+    {
+        mEncoder.close();
     }
 
     @Override
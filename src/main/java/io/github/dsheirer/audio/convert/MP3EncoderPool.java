@@ -0,0 +1,136 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.audio.convert;
+
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of ready-to-use MP3 audio converters.
+ *
+ * A LAME encoder cannot be restarted once it has been flushed at the end of a recording, so each converter is used
+ * for exactly one recording.  This pool keeps a small number of freshly constructed converters on hand and replenishes
+ * and disposes converters on the shared thread pool so that encoder construction and teardown stays off of the
+ * recording path.
+ */
+public class MP3EncoderPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MP3EncoderPool.class);
+    private static final int POOL_SIZE = 4;
+
+    private ConcurrentLinkedQueue<MP3AudioConverter> mConverters = new ConcurrentLinkedQueue<>();
+    private AtomicInteger mPooledCount = new AtomicInteger();
+    private AtomicBoolean mReplenishing = new AtomicBoolean();
+    private int mBitRate;
+    private boolean mVariableBitRate;
+
+    /**
+     * Constructs an instance
+     * @param bitRate for the MP3 encoders
+     * @param variableBitRate true for VBR or false for CBR
+     */
+    public MP3EncoderPool(int bitRate, boolean variableBitRate)
+    {
+        mBitRate = bitRate;
+        mVariableBitRate = variableBitRate;
+    }
+
+    /**
+     * Obtains a fresh converter from the pool, or creates a new converter if the pool is empty.  The pool is
+     * replenished in the background.
+     *
+     * @return converter ready to encode a new recording.
+     */
+    public MP3AudioConverter acquire()
+    {
+        MP3AudioConverter converter = mConverters.poll();
+
+        if(converter != null)
+        {
+            mPooledCount.decrementAndGet();
+        }
+        else
+        {
+            converter = new MP3AudioConverter(mBitRate, mVariableBitRate);
+        }
+
+        replenish();
+
+        return converter;
+    }
+
+    /**
+     * Returns a converter that is no longer needed.  The converter is disposed on the shared thread pool.
+     *
+     * @param converter to release, can be null
+     */
+    public void release(MP3AudioConverter converter)
+    {
+        if(converter != null)
+        {
+            ThreadPool.SCHEDULED.execute(() -> {
+                try
+                {
+                    converter.dispose();
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error disposing MP3 audio converter", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Schedules construction of converters to refill the pool, if a refill is not already in progress.
+     */
+    private void replenish()
+    {
+        if(mPooledCount.get() < POOL_SIZE && mReplenishing.compareAndSet(false, true))
+        {
+            ThreadPool.SCHEDULED.execute(() -> {
+                try
+                {
+                    while(mPooledCount.get() < POOL_SIZE)
+                    {
+                        mConverters.offer(new MP3AudioConverter(mBitRate, mVariableBitRate));
+                        mPooledCount.incrementAndGet();
+                    }
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error creating MP3 audio converter", e);
+                }
+                finally
+                {
+                    mReplenishing.set(false);
+                }
+            });
+        }
+    }
+}
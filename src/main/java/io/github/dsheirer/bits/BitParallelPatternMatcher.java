@@ -0,0 +1,190 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.bits;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Matches a bit stream value against a set of up to 64 sync patterns at once, allowing a per-pattern number of bit
+ * errors.
+ *
+ * The pattern length is split into at least (maximum bit errors + 1) segments.  When a value is within the maximum
+ * bit errors of a pattern, at least one of the segments must match the pattern exactly (pigeonhole principle).  Each
+ * segment has a lookup table that maps the segment value to a 64-bit mask of the patterns that contain that segment
+ * value, so a value is checked against all patterns with one table lookup per segment.  Only the (rare) candidate
+ * patterns flagged by the lookup masks are verified with a bit count of the differing bits.
+ *
+ * Note: works for patterns up to 63 bits long, matching MultiSyncPatternMatcher.
+ */
+public class BitParallelPatternMatcher
+{
+    public static final int NO_MATCH = -1;
+    public static final int MAXIMUM_PATTERN_COUNT = 64;
+    private static final int MAXIMUM_SEGMENT_LENGTH = 16;
+
+    private int mPatternLength;
+    private int mMaximumBitErrors;
+    private long mMask;
+    private int[] mSegmentShifts;
+    private int[] mSegmentMasks;
+    private long[][] mSegmentTables;
+    private long[] mPatterns = new long[MAXIMUM_PATTERN_COUNT];
+    private int[] mPatternBitErrors = new int[MAXIMUM_PATTERN_COUNT];
+    private int mPatternCount;
+    private int mBitErrorCount;
+
+    /**
+     * Constructs an instance
+     * @param patternLength in bits (1 - 63) of each of the patterns
+     * @param maximumBitErrors allowed for any pattern.  Each pattern can specify a lower threshold when added.
+     */
+    public BitParallelPatternMatcher(int patternLength, int maximumBitErrors)
+    {
+        Validate.inclusiveBetween(1, 63, patternLength, "Pattern length must be in range 1 - 63");
+        Validate.inclusiveBetween(0, patternLength - 1, maximumBitErrors,
+            "Maximum bit errors must be less than the pattern length");
+
+        mPatternLength = patternLength;
+        mMaximumBitErrors = maximumBitErrors;
+        mMask = (1l << patternLength) - 1;
+
+        int segmentCount = Math.max(maximumBitErrors + 1,
+            (patternLength + MAXIMUM_SEGMENT_LENGTH - 1) / MAXIMUM_SEGMENT_LENGTH);
+
+        mSegmentShifts = new int[segmentCount];
+        mSegmentMasks = new int[segmentCount];
+        mSegmentTables = new long[segmentCount][];
+
+        //Distribute the pattern bits as evenly as possible across the segments
+        int shift = 0;
+
+        for(int x = 0; x < segmentCount; x++)
+        {
+            int length = patternLength / segmentCount + (x < patternLength % segmentCount ? 1 : 0);
+            mSegmentShifts[x] = shift;
+            mSegmentMasks[x] = (1 << length) - 1;
+            mSegmentTables[x] = new long[1 << length];
+            shift += length;
+        }
+    }
+
+    /**
+     * Adds a pattern to the matcher.
+     *
+     * @param pattern to match
+     * @param maximumBitErrors allowed when matching this pattern, less than or equal to the matcher's maximum
+     * @return index of the pattern which is returned by the match() method when the pattern is matched
+     */
+    public int add(long pattern, int maximumBitErrors)
+    {
+        Validate.isTrue(mPatternCount < MAXIMUM_PATTERN_COUNT, "Maximum pattern count exceeded");
+        Validate.inclusiveBetween(0, mMaximumBitErrors, maximumBitErrors,
+            "Pattern bit errors must be in range 0 - " + mMaximumBitErrors);
+        Validate.isTrue((pattern & ~mMask) == 0, "Pattern exceeds the pattern length");
+
+        int index = mPatternCount++;
+        mPatterns[index] = pattern;
+        mPatternBitErrors[index] = maximumBitErrors;
+
+        for(int x = 0; x < mSegmentTables.length; x++)
+        {
+            mSegmentTables[x][(int)(pattern >>> mSegmentShifts[x]) & mSegmentMasks[x]] |= (1l << index);
+        }
+
+        return index;
+    }
+
+    /**
+     * Matches the value against all patterns.
+     *
+     * When the value matches more than one pattern, the pattern with the fewest bit errors is returned, and patterns
+     * with an equal number of bit errors are resolved in favor of the pattern that was added first.
+     *
+     * @param value to match, containing the most recent pattern length bits in the least significant bits
+     * @return index of the matching pattern or NO_MATCH (-1)
+     */
+    public int match(long value)
+    {
+        value &= mMask;
+
+        long candidates = 0;
+
+        for(int x = 0; x < mSegmentTables.length; x++)
+        {
+            candidates |= mSegmentTables[x][(int)(value >>> mSegmentShifts[x]) & mSegmentMasks[x]];
+        }
+
+        int match = NO_MATCH;
+        int matchBitErrors = Integer.MAX_VALUE;
+
+        while(candidates != 0)
+        {
+            int index = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+
+            int bitErrors = Long.bitCount(value ^ mPatterns[index]);
+
+            if(bitErrors <= mPatternBitErrors[index] && bitErrors < matchBitErrors)
+            {
+                match = index;
+                matchBitErrors = bitErrors;
+            }
+        }
+
+        mBitErrorCount = (match != NO_MATCH) ? matchBitErrors : 0;
+
+        return match;
+    }
+
+    /**
+     * Number of bit errors for the pattern returned by the most recent match, or zero when there was no match.
+     */
+    public int getBitErrorCount()
+    {
+        return mBitErrorCount;
+    }
+
+    /**
+     * Pattern at the specified index
+     */
+    public long getPattern(int index)
+    {
+        Validate.isTrue(index >= 0 && index < mPatternCount, "Invalid pattern index: " + index);
+        return mPatterns[index];
+    }
+
+    /**
+     * Number of patterns added to this matcher
+     */
+    public int getPatternCount()
+    {
+        return mPatternCount;
+    }
+
+    /**
+     * Length of the patterns in bits
+     */
+    public int getPatternLength()
+    {
+        return mPatternLength;
+    }
+}
@@ -24,94 +24,129 @@ import io.github.dsheirer.dsp.symbol.SyncDetectProvider;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-
 /**
- * MessageFramer - processes bitsets looking for a sync pattern within
- * the bits, and then extracts the message, including the sync
- * pattern, for a total bit length of messageLength.
+ * MessageFramer - processes a primitive bit stream looking for a sync pattern within the bits, and then extracts the
+ * message, including the sync pattern, for a total bit length of messageLength.
+ *
+ * Will extract multiple messages simultaneously, for each sync pattern that is encountered within the bit stream.
  *
- * Will extract multiple messages simultaneously, for each sync pattern that is
- * encountered within the bitset bit stream.
+ * Received bits are packed into a preallocated circular bit history that holds at least one message length of bits,
+ * and each sync detection records the candidate message start offset in a preallocated ring.  Since every candidate
+ * message has the same length, candidates complete in the order they were detected and only the oldest candidate
+ * is checked for completion on each bit.  Per-bit processing cost is constant regardless of the number of overlapping
+ * candidate messages and a message object is only allocated when a complete message is dispatched.
  */
-public class MessageFramer implements IBinarySymbolProcessor, Listener<Boolean>, SyncDetectProvider
+public class MessageFramer implements IBinarySymbolProcessor, SyncDetectProvider
 {
-    private boolean[] mSyncPattern;
     private int mMessageLength;
     private ISyncDetectListener mSyncDetectListener;
     private Broadcaster<CorrectedBinaryMessage> mBroadcaster = new Broadcaster<>();
-    private List<MessageAssembler> mMessageAssemblers = new ArrayList<>();
-    private List<MessageAssembler> mCompletedMessageAssemblers = new ArrayList<>();
     private SyncPatternMatcher mMatcher;
+    private int mSyncLength;
+
+    //Circular bit history packed into 64-bit words
+    private long[] mHistory;
+    private long mHistoryMask;
+    private long mBitCount;
+
+    //Ring of candidate message start offsets (absolute bit counts) ordered oldest to newest
+    private long[] mCandidates;
+    private int mCandidateHead;
+    private int mCandidateCount;
 
     public MessageFramer(boolean[] syncPattern, int messageLength)
     {
-        mSyncPattern = syncPattern;
+        if(syncPattern.length > messageLength)
+        {
+            throw new IllegalArgumentException("Sync pattern length [" + syncPattern.length +
+                "] cannot exceed the message length [" + messageLength + "]");
+        }
+
         mMatcher = new SyncPatternMatcher(syncPattern);
+        mSyncLength = syncPattern.length;
         mMessageLength = messageLength;
+
+        int historyLength = Math.max(64, Integer.highestOneBit(messageLength - 1) << 1);
+        mHistory = new long[historyLength / 64];
+        mHistoryMask = historyLength - 1;
+
+        //A candidate is detected at most once per bit and remains active until the remainder of the message arrives
+        mCandidates = new long[messageLength - mSyncLength + 1];
     }
 
     public void reset()
     {
-        for(MessageAssembler assembler : mMessageAssemblers)
-        {
-            assembler.dispose();
-        }
-
-        mMessageAssemblers.clear();
+        mCandidateHead = 0;
+        mCandidateCount = 0;
     }
 
     public void dispose()
     {
         mBroadcaster.dispose();
-        mCompletedMessageAssemblers.clear();
+        reset();
     }
 
     public void process(boolean bit)
     {
+        int index = (int)(mBitCount & mHistoryMask);
+
+        if(bit)
+        {
+            mHistory[index >>> 6] |= (1L << (index & 0x3F));
+        }
+        else
+        {
+            mHistory[index >>> 6] &= ~(1L << (index & 0x3F));
+        }
+
+        mBitCount++;
+
         mMatcher.receive(bit);
 
-        Iterator<MessageAssembler> it = mMessageAssemblers.iterator();
+        /* Check for sync match and add a new candidate message that starts with the sync pattern */
+        boolean syncDetected = mMatcher.matches();
 
-        MessageAssembler assembler;
+        if(syncDetected)
+        {
+            mCandidates[(mCandidateHead + mCandidateCount) % mCandidates.length] = mBitCount - mSyncLength;
+            mCandidateCount++;
+        }
 
-        while(it.hasNext())
+        /* Dispatch any completed candidate messages */
+        while(mCandidateCount > 0 && (mBitCount - mCandidates[mCandidateHead]) >= mMessageLength)
         {
-            assembler = it.next();
+            dispatch(mCandidates[mCandidateHead]);
+            mCandidateHead = (mCandidateHead + 1) % mCandidates.length;
+            mCandidateCount--;
+        }
 
-            /* Dispose and remove any completed assemblers */
-            if(assembler.complete())
-            {
-                assembler.dispose();
-                it.remove();
-            }
-            /* Otherwise, send them the bit */
-            else
-            {
-                assembler.receive(bit);
-            }
+        /* Notify any sync detect listener(s) */
+        if(syncDetected && mSyncDetectListener != null)
+        {
+            mSyncDetectListener.syncDetected(0);
         }
+    }
 
-        /* Check for sync match and add new message assembler */
-        if(mMatcher.matches())
+    /**
+     * Extracts the message starting at the absolute bit offset from the bit history and broadcasts it to the
+     * registered message listeners.
+     */
+    private void dispatch(long start)
+    {
+        CorrectedBinaryMessage message = new CorrectedBinaryMessage(mMessageLength);
+
+        for(int x = 0; x < mMessageLength; x++)
         {
-            addMessageAssembler(new MessageAssembler(mMessageLength, mSyncPattern));
+            int index = (int)((start + x) & mHistoryMask);
 
-            /* Notify any sync detect listener(s) */
-            if(mSyncDetectListener != null)
+            if((mHistory[index >>> 6] & (1L << (index & 0x3F))) != 0)
             {
-                mSyncDetectListener.syncDetected(0);
+                message.set(x);
             }
         }
-    }
 
-    @Deprecated //Legacy support ... remove once all producers are converted to use receive(boolean bit) method
-    @Override
-    public void receive(Boolean bit)
-    {
-        process(bit);
+        message.setPointer(mMessageLength);
+        mBroadcaster.receive(message);
     }
 
     @Override
@@ -133,96 +168,4 @@ public class MessageFramer implements IBinarySymbolProcessor, Listener<Boolean>,
     {
         mBroadcaster.removeListener(listener);
     }
-
-    /*
-     * Adds a message assembler to receive bits from the bit stream
-     */
-    private void addMessageAssembler(MessageAssembler assembler)
-    {
-        mMessageAssemblers.add(assembler);
-    }
-
-    private void removeMessageAssembler(MessageAssembler assembler)
-    {
-        mMessageAssemblers.remove(assembler);
-    }
-
-    /**
-     * Assembles a binary message, starting with the initial fill of the
-     * identified sync pattern, and every bit thereafter.  Once the accumulated
-     * bits equal the message length, the message is sent and the assembler
-     * flags itself as complete.
-     *
-     * By design, multiple message assemblers can exist at the same time, each
-     * assembling different, overlapping potential messages
-     */
-    private class MessageAssembler implements Listener<Boolean>
-    {
-        CorrectedBinaryMessage mMessage;
-        boolean mComplete = false;
-
-        MessageAssembler(int messageLength)
-        {
-            mMessage = new CorrectedBinaryMessage(messageLength);
-        }
-
-        MessageAssembler(int messageLength, boolean[] initialFill)
-        {
-            this(messageLength);
-
-            /* Pre-load the message with the sync pattern */
-            for (boolean b : initialFill) {
-                receive(b);
-            }
-        }
-
-        public void dispose()
-        {
-            mMessage = null;
-        }
-
-        @Override
-        /**
-         * Receives one bit at a time, and assembles them into a message
-         */
-        public void receive(Boolean bit)
-        {
-            try
-            {
-                mMessage.add(bit);
-            }
-            catch(BitSetFullException e)
-            {
-                e.printStackTrace();
-            }
-
-            /* Once our message is complete (ie full), send it to all registered
-             * message listeners, and set complete flag so for auto-removal */
-            if(mMessage.isFull())
-            {
-                mComplete = true;
-                flush();
-            }
-        }
-
-        /**
-         * Flushes/Sends the current message, or partial message, and sets
-         * complete flag to true, so that we can be auto-removed
-         */
-        public void flush()
-        {
-            mBroadcaster.receive(mMessage);
-            mComplete = true;
-        }
-
-        /**
-         * Flag to indicate when this assembler has received all of the bits it
-         * is looking for (ie message length), and should then be removed from
-         * receiving any more bits
-         */
-        public boolean complete()
-        {
-            return mComplete;
-        }
-    }
 }
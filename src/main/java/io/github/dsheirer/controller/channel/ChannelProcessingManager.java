@@ -39,6 +39,12 @@ import io.github.dsheirer.module.Module;
 import io.github.dsheirer.module.ProcessingChain;
 import io.github.dsheirer.module.decode.DecoderFactory;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.remote.RemoteDecodeManager;
+import io.github.dsheirer.module.decode.remote.RemoteDecoderModule;
+import io.github.dsheirer.module.decode.traffic.ProcessingChainPool;
+import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
+import io.github.dsheirer.module.export.MessageExportModule;
+import io.github.dsheirer.module.export.MessageExportServer;
 import io.github.dsheirer.module.log.EventLogManager;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.record.RecorderFactory;
@@ -56,6 +62,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -74,6 +81,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
     private final static Logger mLog = LoggerFactory.getLogger(ChannelProcessingManager.class);
     private static final String TUNER_UNAVAILABLE_DESCRIPTION = "TUNER UNAVAILABLE";
     private Map<Channel,ProcessingChain> mProcessingChains = new ConcurrentHashMap<>();
+    private Map<Channel,ProcessingChainPool> mProcessingChainPools = new ConcurrentHashMap<>();
 
     private List<Listener<AudioSegment>> mAudioSegmentListeners = new CopyOnWriteArrayList<>();
     private List<Listener<IDecodeEvent>> mDecodeEventListeners = new CopyOnWriteArrayList<>();
@@ -87,6 +95,8 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
     private UserPreferences mUserPreferences;
     private List<Long> mLoggedFrequencies = new ArrayList<>();
     private List<ScheduledFuture<?>> mDelayedChannelStartTasks = new ArrayList<>();
+    private RemoteDecodeManager mRemoteDecodeManager;
+    private LoadSheddingController mLoadSheddingController = new LoadSheddingController(mProcessingChains);
 
     /**
      * Constructs the channel processing manager
@@ -106,6 +116,16 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         mAliasModel = aliasModel;
         mUserPreferences = userPreferences;
         mChannelMetadataModel = new ChannelMetadataModel();
+        mRemoteDecodeManager = new RemoteDecodeManager(userPreferences.getRemoteDecodePreference());
+        mLoadSheddingController.start();
+    }
+
+    /**
+     * Overload controller that sheds the lowest priority channels when the DSP pipeline is overloaded.
+     */
+    public LoadSheddingController getLoadSheddingController()
+    {
+        return mLoadSheddingController;
     }
 
     /**
@@ -319,7 +339,31 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             throw new ChannelException("No Tuner Available");
         }
 
-        ProcessingChain processingChain = new ProcessingChain(channel, mAliasModel);
+        ProcessingChain processingChain = null;
+        RemoteDecoderModule remoteDecoder = null;
+
+        //Distribute traffic channel decoding to a remote decode worker when enabled and a worker connection is ready,
+        //otherwise the channel is decoded locally
+        if(channel.isTrafficChannel() && mRemoteDecodeManager.isEnabled())
+        {
+            remoteDecoder = mRemoteDecodeManager.createRemoteDecoder(channel,
+                mAliasModel.getAliasList(channel.getAliasListName()));
+        }
+
+        if(remoteDecoder != null)
+        {
+            processingChain = createProcessingChain(channel, Collections.singletonList(remoteDecoder));
+        }
+        //Reuse an idle (pre-warmed or previously stopped) processing chain for traffic channels when available
+        else if(request.getProcessingChainPool() != null)
+        {
+            processingChain = request.getProcessingChainPool().take(channel);
+        }
+
+        if(processingChain == null)
+        {
+            processingChain = createProcessingChain(channel, request.getTrafficChannelManager());
+        }
 
         //Certain decoders aggregate the decode events in the parent channel that also includes any events produced
         //by the traffic channels.  Establish listener registration depending on if this channel is a traffic channel
@@ -334,67 +378,11 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             request.getChildDecodeEventHistory().addListener(processingChain.getDecodeEventHistory());
         }
 
-        //Register to receive event bus requests/notifications
-        processingChain.getEventBus().register(ChannelProcessingManager.this);
-
         mChannelEventBroadcaster.addListener(processingChain);
 
-        /* Register global listeners */
-        for(Listener<AudioSegment> listener : mAudioSegmentListeners)
-        {
-            processingChain.addAudioSegmentListener(listener);
-        }
-
-        for(Listener<IDecodeEvent> listener : mDecodeEventListeners)
-        {
-            processingChain.addDecodeEventListener(listener);
-        }
-
-        //Add a listener to detect source error state that indicates the channel should be shutdown
-        processingChain.addSourceEventListener(sourceEvent ->
-        {
-            if(sourceEvent.getEvent() == SourceEvent.Event.NOTIFICATION_ERROR_STATE && sourceEvent.getSource() != null)
-            {
-                Channel toShutdown = null;
-
-                for(Map.Entry<Channel,ProcessingChain> entry: mProcessingChains.entrySet())
-                {
-                    if(entry.getValue().hasSource(sourceEvent.getSource()))
-                    {
-                        toShutdown = entry.getKey();
-                        break;
-                    }
-                }
-
-                if(toShutdown != null)
-                {
-                    mLog.warn("Channel source error detected - stopping channel [" + toShutdown.getName() + "]");
-
-                    try
-                    {
-                        stopProcessing(toShutdown);
-                    }
-                    catch(ChannelException ce)
-                    {
-                        mLog.error("Error stopping channel [" + channel.getName() + "] with source error - " +
-                            ce.getMessage());
-                    }
-                }
-            }
-        });
-
-        //Register this manager to receive channel events from traffic channel manager modules within
-        //the processing chain
-        processingChain.addChannelEventListener(this);
-
         //Register channel to receive frequency correction events to show in the spectral display (hack!)
         processingChain.addFrequencyChangeListener(channel);
 
-        /* Processing Modules */
-        List<Module> modules = DecoderFactory.getModules(mChannelMapModel, channel, mAliasModel, mUserPreferences,
-            request.getTrafficChannelManager());
-        processingChain.addModules(modules);
-
         //Post preload data from the request to the event bus.  Modules that can handle preload data will annotate
         //their processor method with @Subscribe to receive each specific preload data content class.
         for(PreloadDataContent preloadDataContent: request.getPreloadDataContents())
@@ -410,6 +398,12 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             processingChain.addModules(loggers);
         }
 
+        //Setup decoded message export
+        if(MessageExportServer.getInstance().isRunning())
+        {
+            processingChain.addModule(new MessageExportModule(channel.getName(), MessageExportServer.getInstance()));
+        }
+
         //Add recorders
         processingChain.addModules(RecorderFactory.getRecorders(mUserPreferences, channel));
 
@@ -428,7 +422,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                             request.getChannelDescriptor().getProtocol());
                     IdentifierUpdateNotification notification = new IdentifierUpdateNotification(identifier,
                         IdentifierUpdateNotification.Operation.ADD, timeslot);
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    preload(processingChain, remoteDecoder, notification);
 
                     //Inject scramble parameters
                     for(Identifier scrambleParameters: request.getIdentifierCollection()
@@ -437,7 +431,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                         //Broadcast scramble parameters to both timeslots
                         IdentifierUpdateNotification scrambleNotification = new IdentifierUpdateNotification(scrambleParameters,
                             IdentifierUpdateNotification.Operation.ADD, timeslot);
-                        processingChain.getChannelState().updateChannelStateIdentifiers(scrambleNotification);
+                        preload(processingChain, remoteDecoder, scrambleNotification);
                     }
                 }
             }
@@ -449,19 +443,25 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
                     //Only broadcast an identifier update for the timeslot specified in the originating collection
                     IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
                         IdentifierUpdateNotification.Operation.ADD, request.getIdentifierCollection().getTimeslot());
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    preload(processingChain, remoteDecoder, notification);
                 }
                 else
                 {
                     //Only broadcast an identifier update for the timeslot specified in the originating collection
                     IdentifierUpdateNotification notification = new IdentifierUpdateNotification(userIdentifier,
                         IdentifierUpdateNotification.Operation.ADD, 0);
-                    processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+                    preload(processingChain, remoteDecoder, notification);
                 }
             }
 
         }
 
+        //Remote decoding processing chains are bound to their worker connection and can't be pooled for reuse
+        if(request.getProcessingChainPool() != null && remoteDecoder == null)
+        {
+            mProcessingChainPools.put(channel, request.getProcessingChainPool());
+        }
+
         mProcessingChains.put(channel, processingChain);
         processingChain.start();
 
@@ -471,6 +471,175 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
         getChannelMetadataModel().add(new ChannelAndMetadata(channel, processingChain.getChannelState().getChannelMetadata()));
 
         mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_START));
+
+        prewarmTrafficChannels(processingChain);
+    }
+
+    /**
+     * Applies a preload identifier update to the channel state and to the remote decoder, when the channel is
+     * decoded remotely, so that the remote decoders start with the same identifiers.
+     */
+    private static void preload(ProcessingChain processingChain, RemoteDecoderModule remoteDecoder,
+                                IdentifierUpdateNotification notification)
+    {
+        processingChain.getChannelState().updateChannelStateIdentifiers(notification);
+
+        if(remoteDecoder != null)
+        {
+            remoteDecoder.addPreloadIdentifier(notification);
+        }
+    }
+
+    /**
+     * Creates a new processing chain for the channel with the global listeners and the decoder modules for the
+     * channel configuration.  Per-start modules (event loggers and recorders), the sample source and any listener
+     * registrations that are removed when the chain is stopped are added by the start processing method.
+     *
+     * @param channel for the processing chain
+     * @param trafficChannelManager optional traffic channel manager to reuse, or null
+     * @return constructed processing chain in a stopped state
+     */
+    private ProcessingChain createProcessingChain(Channel channel, TrafficChannelManager trafficChannelManager)
+    {
+        return createProcessingChain(channel, DecoderFactory.getModules(mChannelMapModel, channel, mAliasModel,
+            mUserPreferences, trafficChannelManager));
+    }
+
+    /**
+     * Creates a new processing chain for the channel with the global listeners and the specified decoder modules.
+     *
+     * @param channel for the processing chain
+     * @param modules that decode the channel
+     * @return constructed processing chain in a stopped state
+     */
+    private ProcessingChain createProcessingChain(Channel channel, List<Module> modules)
+    {
+        ProcessingChain processingChain = new ProcessingChain(channel, mAliasModel);
+
+        //Register to receive event bus requests/notifications
+        processingChain.getEventBus().register(ChannelProcessingManager.this);
+
+        /* Register global listeners */
+        for(Listener<AudioSegment> listener : mAudioSegmentListeners)
+        {
+            processingChain.addAudioSegmentListener(listener);
+        }
+
+        for(Listener<IDecodeEvent> listener : mDecodeEventListeners)
+        {
+            processingChain.addDecodeEventListener(listener);
+        }
+
+        //Add a listener to detect source error state that indicates the channel should be shutdown
+        processingChain.addSourceEventListener(sourceEvent ->
+        {
+            if(sourceEvent.getEvent() == SourceEvent.Event.NOTIFICATION_ERROR_STATE && sourceEvent.getSource() != null)
+            {
+                Channel toShutdown = null;
+
+                for(Map.Entry<Channel,ProcessingChain> entry: mProcessingChains.entrySet())
+                {
+                    if(entry.getValue().hasSource(sourceEvent.getSource()))
+                    {
+                        toShutdown = entry.getKey();
+                        break;
+                    }
+                }
+
+                if(toShutdown != null)
+                {
+                    mLog.warn("Channel source error detected - stopping channel [" + toShutdown.getName() + "]");
+
+                    try
+                    {
+                        stopProcessing(toShutdown);
+                    }
+                    catch(ChannelException ce)
+                    {
+                        mLog.error("Error stopping channel [" + channel.getName() + "] with source error - " +
+                            ce.getMessage());
+                    }
+                }
+            }
+        });
+
+        //Register this manager to receive channel events from traffic channel manager modules within
+        //the processing chain
+        processingChain.addChannelEventListener(this);
+
+        /* Processing Modules */
+        processingChain.addModules(modules);
+
+        return processingChain;
+    }
+
+    /**
+     * Disposes a processing chain that is no longer needed.
+     */
+    private void disposeProcessingChain(ProcessingChain processingChain)
+    {
+        //Unregister for event bus requests and notifications
+        processingChain.getEventBus().unregister(ChannelProcessingManager.this);
+        processingChain.dispose();
+    }
+
+    /**
+     * Schedules construction of idle processing chains for the traffic channels managed by any traffic channel
+     * manager in the processing chain, up to the user preference pool size, so that the first traffic channel
+     * grants don't incur the cost of constructing decoder modules and filters.
+     *
+     * @param processingChain that was just started
+     */
+    private void prewarmTrafficChannels(ProcessingChain processingChain)
+    {
+        int poolSize = mUserPreferences.getTrafficChannelPreference().getProcessingChainPoolSize();
+
+        if(poolSize <= 0)
+        {
+            return;
+        }
+
+        for(Module module: processingChain.getModules())
+        {
+            if(module instanceof TrafficChannelManager)
+            {
+                ProcessingChainPool pool = ((TrafficChannelManager)module).getProcessingChainPool();
+
+                if(pool.isEnabled() && !pool.getTrafficChannels().isEmpty())
+                {
+                    ThreadPool.SCHEDULED.submit(() -> prewarm(pool, poolSize));
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates idle processing chains for the decoder types used by the traffic channels in the pool, up to the
+     * maximum idle pool size for each decoder type.
+     */
+    private void prewarm(ProcessingChainPool pool, int poolSize)
+    {
+        try
+        {
+            Channel trafficChannel = pool.getPrewarmChannel(poolSize);
+
+            while(trafficChannel != null)
+            {
+                ProcessingChain processingChain = createProcessingChain(trafficChannel, (TrafficChannelManager)null);
+
+                if(!pool.offer(trafficChannel, processingChain, poolSize))
+                {
+                    disposeProcessingChain(processingChain);
+                    return;
+                }
+
+                trafficChannel = pool.getPrewarmChannel(poolSize);
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error pre-warming traffic channel processing chains", t);
+        }
     }
 
     /**
@@ -504,9 +673,14 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
             mChannelEventBroadcaster.broadcast(new ChannelEvent(channel, ChannelEvent.Event.NOTIFICATION_PROCESSING_STOP));
             mChannelEventBroadcaster.removeListener(processingChain);
 
-            //Unregister for event bus requests and notifications
-            processingChain.getEventBus().unregister(ChannelProcessingManager.this);
-            processingChain.dispose();
+            //Return traffic channel processing chains to the owning pool for reuse, otherwise dispose
+            ProcessingChainPool pool = mProcessingChainPools.remove(channel);
+
+            if(pool == null || !pool.offer(channel, processingChain,
+                mUserPreferences.getTrafficChannelPreference().getProcessingChainPoolSize()))
+            {
+                disposeProcessingChain(processingChain);
+            }
         }
         else
         {
@@ -519,6 +693,9 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
      */
     public void shutdown()
     {
+        mLoadSheddingController.stop();
+        mRemoteDecodeManager.dispose();
+
         List<ScheduledFuture<?>> delayedTasks = new ArrayList<>(mDelayedChannelStartTasks);
 
         for(ScheduledFuture<?> delayedTask: delayedTasks)
@@ -551,6 +728,7 @@ public class ChannelProcessingManager implements Listener<ChannelEvent>
     {
         //Update the channel to processing chain map.
         ProcessingChain processingChain = mProcessingChains.remove(request.getCurrentChannel());
+        mProcessingChainPools.remove(request.getCurrentChannel());
 
         if(processingChain != null)
         {
@@ -0,0 +1,402 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.controller.channel;
+
+import io.github.dsheirer.channel.metadata.ChannelMetadata;
+import io.github.dsheirer.channel.state.AbstractChannelState;
+import io.github.dsheirer.module.ProcessingChain;
+import io.github.dsheirer.sample.Broadcaster;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global overload controller that monitors the sample processing CPU time of each processing chain and sheds (pauses)
+ * the lowest priority channels when the DSP pipeline is overloaded for a sustained period, instead of allowing
+ * whichever channel happens to overflow its sample buffer queue to lose samples.  Shed channels are restored, highest
+ * priority first, once the load drops.
+ *
+ * The system is considered overloaded when the combined sample processing CPU time of all processing chains exceeds
+ * the overload threshold of the available processor time, or when any running channel is overflowing its sample
+ * buffers.  Control channels (ie channels with a traffic channel manager) are never shed.  Other channels are shed
+ * in {@link ShedPriority} order and the overload and restore thresholds are applied by {@link LoadSheddingPolicy}.
+ */
+public class LoadSheddingController
+{
+    private final static Logger mLog = LoggerFactory.getLogger(LoadSheddingController.class);
+    private static final long MONITOR_INTERVAL_MILLISECONDS = 1000;
+    private static final int MAX_SHED_EVENT_HISTORY = 100;
+
+    private Map<Channel,ProcessingChain> mProcessingChains;
+    private Map<ProcessingChain,Long> mPreviousCpuNanos = new HashMap<>();
+    private Map<ProcessingChain,Channel> mShedChains = new HashMap<>();
+    private LinkedList<ShedEvent> mShedEvents = new LinkedList<>();
+    private Broadcaster<ShedEvent> mShedEventBroadcaster = new Broadcaster<>();
+    private LoadSheddingPolicy mPolicy = new LoadSheddingPolicy();
+    private ScheduledFuture<?> mMonitorFuture;
+    private int mProcessorCount = Runtime.getRuntime().availableProcessors();
+    private long mPreviousTimestamp;
+    private volatile double mUtilization;
+
+    /**
+     * Constructs an instance
+     *
+     * @param processingChains map of currently processing channels to monitor
+     */
+    public LoadSheddingController(Map<Channel,ProcessingChain> processingChains)
+    {
+        mProcessingChains = processingChains;
+    }
+
+    /**
+     * Starts monitoring processing chain load
+     */
+    public void start()
+    {
+        if(mMonitorFuture == null)
+        {
+            mPreviousTimestamp = System.nanoTime();
+            mMonitorFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::monitor, MONITOR_INTERVAL_MILLISECONDS,
+                MONITOR_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops monitoring and resumes any shed channels
+     */
+    public void stop()
+    {
+        if(mMonitorFuture != null)
+        {
+            mMonitorFuture.cancel(false);
+            mMonitorFuture = null;
+        }
+
+        synchronized(this)
+        {
+            for(ProcessingChain processingChain: mShedChains.keySet())
+            {
+                processingChain.setPaused(false);
+            }
+
+            mShedChains.clear();
+            mPreviousCpuNanos.clear();
+            mPolicy.reset();
+        }
+    }
+
+    /**
+     * Most recent combined sample processing CPU utilization of all processing chains (0.0 - 1.0) relative to the
+     * available processor time.
+     */
+    public double getUtilization()
+    {
+        return mUtilization;
+    }
+
+    /**
+     * Names of the channels that are currently shed (paused)
+     */
+    public synchronized List<String> getShedChannels()
+    {
+        List<String> channels = new ArrayList<>();
+
+        for(Channel channel: mShedChains.values())
+        {
+            channels.add(channel.getName());
+        }
+
+        return channels;
+    }
+
+    /**
+     * Recent shed and restore events, oldest first
+     */
+    public synchronized List<ShedEvent> getShedEvents()
+    {
+        return Collections.unmodifiableList(new ArrayList<>(mShedEvents));
+    }
+
+    /**
+     * Registers the listener to receive shed and restore events
+     */
+    public void addShedEventListener(Listener<ShedEvent> listener)
+    {
+        mShedEventBroadcaster.addListener(listener);
+    }
+
+    /**
+     * Unregisters the listener from receiving shed and restore events
+     */
+    public void removeShedEventListener(Listener<ShedEvent> listener)
+    {
+        mShedEventBroadcaster.removeListener(listener);
+    }
+
+    /**
+     * Measures processing chain load and sheds or restores channels as needed.
+     */
+    private void monitor()
+    {
+        try
+        {
+            synchronized(this)
+            {
+                long now = System.nanoTime();
+                long elapsed = now - mPreviousTimestamp;
+                mPreviousTimestamp = now;
+
+                if(elapsed <= 0)
+                {
+                    return;
+                }
+
+                Map<ProcessingChain,Long> currentCpuNanos = new HashMap<>();
+                long totalCpuNanos = 0;
+                boolean overflow = false;
+
+                for(ProcessingChain processingChain: mProcessingChains.values())
+                {
+                    long cpuNanos = processingChain.getProcessingCpuNanos();
+                    currentCpuNanos.put(processingChain, cpuNanos);
+
+                    Long previous = mPreviousCpuNanos.get(processingChain);
+
+                    if(previous != null && cpuNanos >= previous)
+                    {
+                        totalCpuNanos += (cpuNanos - previous);
+                    }
+
+                    AbstractChannelState channelState = processingChain.getChannelState();
+
+                    if(!processingChain.isPaused() && channelState != null && channelState.isOverflow())
+                    {
+                        overflow = true;
+                    }
+                }
+
+                //Replacing the map also purges chains that are no longer processing
+                mPreviousCpuNanos = currentCpuNanos;
+                mShedChains.keySet().retainAll(currentCpuNanos.keySet());
+
+                mUtilization = (double)totalCpuNanos / ((double)elapsed * mProcessorCount);
+
+                ShedEvent.Action action = mPolicy.update(mUtilization, overflow, !mShedChains.isEmpty());
+
+                if(action == ShedEvent.Action.SHED)
+                {
+                    shed(overflow);
+                }
+                else if(action == ShedEvent.Action.RESTORE)
+                {
+                    restore();
+                }
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while monitoring processing chain load", t);
+        }
+    }
+
+    /**
+     * Pauses the lowest priority running channel.  At least one channel is always left running and control channels
+     * are never paused.
+     */
+    private void shed(boolean overflow)
+    {
+        Map<ProcessingChain,ShedPriority> running = new HashMap<>();
+        Map<ProcessingChain,Channel> channels = new HashMap<>();
+        int runningCount = 0;
+
+        for(Map.Entry<Channel,ProcessingChain> entry: mProcessingChains.entrySet())
+        {
+            ProcessingChain processingChain = entry.getValue();
+
+            if(processingChain.isProcessing() && !processingChain.isPaused())
+            {
+                runningCount++;
+
+                if(processingChain.isPausable())
+                {
+                    running.put(processingChain, getShedPriority(entry.getKey(), processingChain));
+                    channels.put(processingChain, entry.getKey());
+                }
+            }
+        }
+
+        ProcessingChain lowest = LoadSheddingPolicy.selectShed(running, runningCount);
+
+        if(lowest != null)
+        {
+            lowest.setPaused(true);
+            Channel channel = channels.get(lowest);
+            mShedChains.put(lowest, channel);
+            broadcast(new ShedEvent(ShedEvent.Action.SHED, channel.getName(), running.get(lowest).toString(),
+                mUtilization, overflow));
+        }
+    }
+
+    /**
+     * Resumes the highest priority shed channel.
+     */
+    private void restore()
+    {
+        Map<ProcessingChain,ShedPriority> shed = new HashMap<>();
+
+        for(Map.Entry<ProcessingChain,Channel> entry: mShedChains.entrySet())
+        {
+            shed.put(entry.getKey(), getShedPriority(entry.getValue(), entry.getKey()));
+        }
+
+        ProcessingChain highest = LoadSheddingPolicy.selectRestore(shed);
+
+        if(highest != null)
+        {
+            highest.setPaused(false);
+            Channel channel = mShedChains.remove(highest);
+            broadcast(new ShedEvent(ShedEvent.Action.RESTORE, channel.getName(), shed.get(highest).toString(),
+                mUtilization, false));
+        }
+    }
+
+    /**
+     * Shed priority of the channel from its configuration and the aliases that are currently active on it
+     */
+    private static ShedPriority getShedPriority(Channel channel, ProcessingChain processingChain)
+    {
+        ShedPriority shedPriority = new ShedPriority(channel.isStandardChannel(),
+            !channel.getRecordConfiguration().getRecorders().isEmpty());
+
+        AbstractChannelState channelState = processingChain.getChannelState();
+
+        if(channelState != null)
+        {
+            for(ChannelMetadata channelMetadata: channelState.getChannelMetadata())
+            {
+                shedPriority.update(channelMetadata.getFromIdentifierAliases());
+                shedPriority.update(channelMetadata.getToIdentifierAliases());
+            }
+        }
+
+        return shedPriority;
+    }
+
+    /**
+     * Logs, records and broadcasts the shed event
+     */
+    private void broadcast(ShedEvent shedEvent)
+    {
+        mLog.info(shedEvent.toString());
+
+        mShedEvents.add(shedEvent);
+
+        while(mShedEvents.size() > MAX_SHED_EVENT_HISTORY)
+        {
+            mShedEvents.removeFirst();
+        }
+
+        mShedEventBroadcaster.receive(shedEvent);
+    }
+
+    /**
+     * Channel load shedding or restore event
+     */
+    public static class ShedEvent
+    {
+        public enum Action {SHED, RESTORE}
+
+        private long mTimestamp = System.currentTimeMillis();
+        private Action mAction;
+        private String mChannelName;
+        private String mDescription;
+        private double mUtilization;
+        private boolean mOverflow;
+
+        public ShedEvent(Action action, String channelName, String description, double utilization, boolean overflow)
+        {
+            mAction = action;
+            mChannelName = channelName;
+            mDescription = description;
+            mUtilization = utilization;
+            mOverflow = overflow;
+        }
+
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+
+        public Action getAction()
+        {
+            return mAction;
+        }
+
+        public String getChannelName()
+        {
+            return mChannelName;
+        }
+
+        /**
+         * Description of the channel's shed priority
+         */
+        public String getDescription()
+        {
+            return mDescription;
+        }
+
+        /**
+         * Combined processing chain CPU utilization at the time of the event
+         */
+        public double getUtilization()
+        {
+            return mUtilization;
+        }
+
+        /**
+         * Indicates if a running channel was overflowing its sample buffers at the time of the event
+         */
+        public boolean isOverflow()
+        {
+            return mOverflow;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Load " + (mAction == Action.SHED ? "shedding - paused" : "restored - resumed") + " channel [" +
+                mChannelName + "] " + mDescription + " - DSP utilization [" +
+                String.format("%.0f%%", mUtilization * 100.0) + "]" + (mOverflow ? " sample buffer overflow" : "");
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.controller.channel;
+
+import java.util.Map;
+
+/**
+ * Load shedding thresholds and channel ranking used by the load shedding controller.
+ *
+ * A channel is shed after the load exceeds the overload threshold (or a running channel overflows its sample
+ * buffers) for several consecutive monitoring intervals.  A shed channel is restored only after the load stays below
+ * the lower restore threshold for a longer run of intervals, so that restoring a channel doesn't immediately push the
+ * load back over the overload threshold.
+ */
+class LoadSheddingPolicy
+{
+    static final double OVERLOAD_THRESHOLD = 0.90;
+    static final double RESTORE_THRESHOLD = 0.70;
+    static final int OVERLOAD_INTERVALS_BEFORE_SHED = 5;
+    static final int NORMAL_INTERVALS_BEFORE_RESTORE = 10;
+
+    private int mOverloadCount;
+    private int mNormalCount;
+
+    /**
+     * Updates the policy with the load measured over one monitoring interval.
+     *
+     * @param utilization of the available processor time (0.0 - 1.0)
+     * @param overflow true if any running channel is overflowing its sample buffers
+     * @param channelsShed true if any channels are currently shed
+     * @return action to take, or null when no action is needed
+     */
+    public LoadSheddingController.ShedEvent.Action update(double utilization, boolean overflow, boolean channelsShed)
+    {
+        if(utilization > OVERLOAD_THRESHOLD || overflow)
+        {
+            mNormalCount = 0;
+            mOverloadCount++;
+
+            if(mOverloadCount >= OVERLOAD_INTERVALS_BEFORE_SHED)
+            {
+                mOverloadCount = 0;
+                return LoadSheddingController.ShedEvent.Action.SHED;
+            }
+        }
+        else
+        {
+            mOverloadCount = 0;
+
+            if(utilization < RESTORE_THRESHOLD && channelsShed)
+            {
+                mNormalCount++;
+
+                if(mNormalCount >= NORMAL_INTERVALS_BEFORE_RESTORE)
+                {
+                    mNormalCount = 0;
+                    return LoadSheddingController.ShedEvent.Action.RESTORE;
+                }
+            }
+            else
+            {
+                mNormalCount = 0;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Resets the overload and normal interval counts
+     */
+    public void reset()
+    {
+        mOverloadCount = 0;
+        mNormalCount = 0;
+    }
+
+    /**
+     * Selects the lowest priority channel to shed.  At least one channel is always left running.
+     *
+     * @param candidates running channels that can be shed and their shed priorities
+     * @param runningCount of all running channels, including channels that can't be shed
+     * @return channel to shed or null if no channel should be shed
+     */
+    public static <T> T selectShed(Map<T,ShedPriority> candidates, int runningCount)
+    {
+        if(runningCount < 2)
+        {
+            return null;
+        }
+
+        T lowest = null;
+        ShedPriority lowestPriority = null;
+
+        for(Map.Entry<T,ShedPriority> entry: candidates.entrySet())
+        {
+            if(lowestPriority == null || entry.getValue().compareTo(lowestPriority) < 0)
+            {
+                lowest = entry.getKey();
+                lowestPriority = entry.getValue();
+            }
+        }
+
+        return lowest;
+    }
+
+    /**
+     * Selects the highest priority shed channel to restore.
+     *
+     * @param shed channels and their shed priorities
+     * @return channel to restore or null if there are no shed channels
+     */
+    public static <T> T selectRestore(Map<T,ShedPriority> shed)
+    {
+        T highest = null;
+        ShedPriority highestPriority = null;
+
+        for(Map.Entry<T,ShedPriority> entry: shed.entrySet())
+        {
+            if(highestPriority == null || entry.getValue().compareTo(highestPriority) >= 0)
+            {
+                highest = entry.getKey();
+                highestPriority = entry.getValue();
+            }
+        }
+
+        return highest;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.controller.channel;
+
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.id.priority.Priority;
+
+import java.util.List;
+
+/**
+ * Load shedding priority of a channel.  Natural ordering is lowest priority (shed first) to highest priority:
+ *
+ * 1. Lowest alias priority (ie do-not-monitor and default priority) before higher alias priority
+ * 2. For equal alias priority, traffic channels before standard channels
+ * 3. For equal alias priority and channel type, channels that are not recording or streaming before channels that are
+ */
+class ShedPriority implements Comparable<ShedPriority>
+{
+    private boolean mStandardChannel;
+    private boolean mRecordingOrStreaming;
+    private int mAliasPriority = Priority.DEFAULT_PRIORITY;
+
+    /**
+     * Constructs an instance
+     *
+     * @param standardChannel true for a standard channel or false for a traffic channel
+     * @param recordingOrStreaming true if the channel is configured to record or stream
+     */
+    public ShedPriority(boolean standardChannel, boolean recordingOrStreaming)
+    {
+        mStandardChannel = standardChannel;
+        mRecordingOrStreaming = recordingOrStreaming;
+    }
+
+    /**
+     * Updates recording/streaming status and the most important alias priority from the aliases that are active
+     * on the channel
+     */
+    public void update(List<Alias> aliases)
+    {
+        if(aliases != null)
+        {
+            for(Alias alias: aliases)
+            {
+                if(alias.isRecordable() || alias.isStreamable())
+                {
+                    mRecordingOrStreaming = true;
+                }
+
+                int priority = alias.getPlaybackPriority();
+
+                //Lower (non-negative) priority values are more important
+                if(priority != Priority.DO_NOT_MONITOR && priority < mAliasPriority)
+                {
+                    mAliasPriority = priority;
+                }
+            }
+        }
+    }
+
+    /**
+     * Most important alias priority of the active aliases
+     */
+    public int getAliasPriority()
+    {
+        return mAliasPriority;
+    }
+
+    public boolean isStandardChannel()
+    {
+        return mStandardChannel;
+    }
+
+    public boolean isRecordingOrStreaming()
+    {
+        return mRecordingOrStreaming;
+    }
+
+    @Override
+    public int compareTo(ShedPriority other)
+    {
+        //Higher priority value is less important and sorts first
+        if(mAliasPriority != other.mAliasPriority)
+        {
+            return Integer.compare(other.mAliasPriority, mAliasPriority);
+        }
+
+        if(mStandardChannel != other.mStandardChannel)
+        {
+            return mStandardChannel ? 1 : -1;
+        }
+
+        if(mRecordingOrStreaming != other.mRecordingOrStreaming)
+        {
+            return mRecordingOrStreaming ? 1 : -1;
+        }
+
+        return 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "alias priority " + mAliasPriority + ", " + (mStandardChannel ? "STANDARD" : "TRAFFIC") +
+            " channel, " + (mRecordingOrStreaming ? "recording/streaming" : "not recording/streaming");
+    }
+}
@@ -24,6 +24,7 @@ import io.github.dsheirer.controller.channel.Channel;
 import io.github.dsheirer.identifier.IdentifierCollection;
 import io.github.dsheirer.module.ModuleEventBusMessage;
 import io.github.dsheirer.module.decode.event.DecodeEventHistory;
+import io.github.dsheirer.module.decode.traffic.ProcessingChainPool;
 import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
 
 import java.util.ArrayList;
@@ -41,6 +42,7 @@ public class ChannelStartProcessingRequest extends ModuleEventBusMessage
     private final List<PreloadDataContent<?>> mPreloadDataContents = new ArrayList<>();
     private DecodeEventHistory mParentDecodeEventHistory;
     private DecodeEventHistory mChildDecodeEventHistory;
+    private ProcessingChainPool mProcessingChainPool;
     private boolean mPersistentAttempt;
 
     /**
@@ -127,6 +129,25 @@ public class ChannelStartProcessingRequest extends ModuleEventBusMessage
         return mTrafficChannelManager;
     }
 
+    /**
+     * Optional pool of idle processing chains to use for starting the traffic channel.  Stopped traffic channel
+     * processing chains are offered back to this pool for reuse.
+     * @return pool or null
+     */
+    public ProcessingChainPool getProcessingChainPool()
+    {
+        return mProcessingChainPool;
+    }
+
+    /**
+     * Sets the processing chain pool for starting the traffic channel
+     * @param processingChainPool owned by the traffic channel manager
+     */
+    public void setProcessingChainPool(ProcessingChainPool processingChainPool)
+    {
+        mProcessingChainPool = processingChainPool;
+    }
+
     /**
      * Optional parent decode event history module to be added as a decode event listener
      */
@@ -20,7 +20,6 @@
 package io.github.dsheirer.dsp;
 
 import io.github.dsheirer.bits.IBinarySymbolProcessor;
-import io.github.dsheirer.sample.Listener;
 
 public class NRZDecoder implements IBinarySymbolProcessor
 {
@@ -73,7 +72,7 @@ public class NRZDecoder implements IBinarySymbolProcessor
         mListener = listener;
     }
 
-    public void removeListener(Listener<Boolean> listener)
+    public void removeListener(IBinarySymbolProcessor listener)
     {
         mListener = null;
     }
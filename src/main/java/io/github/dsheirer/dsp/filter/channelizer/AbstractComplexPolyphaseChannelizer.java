@@ -18,6 +18,7 @@
  ******************************************************************************/
 package io.github.dsheirer.dsp.filter.channelizer;
 
+import io.github.dsheirer.dsp.filter.channelizer.output.IPolyphaseChannelOutputProcessor;
 import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
@@ -28,6 +29,7 @@ import io.github.dsheirer.source.SourceEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -41,6 +43,8 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
     private int mChannelCount;
     private int mSubChannelCount;
     private double mChannelSampleRate;
+    private boolean mChannelMajorOutput = true;
+    private volatile int[] mSubscribedChannels = new int[0];
 
     /**
      * Complex sample polyphase channelizer
@@ -100,6 +104,65 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         return mChannelSampleRate;
     }
 
+    /**
+     * Indicates if channel results are scattered into contiguous (channel-major) arrays for each of the channels
+     * used by the registered polyphase channel outputs, so that each output can extract its channel with a single
+     * copy instead of gathering one sample from each of the channel results arrays.
+     */
+    public boolean isChannelMajorOutput()
+    {
+        return mChannelMajorOutput;
+    }
+
+    /**
+     * Enables or disables channel-major output.  When disabled, each output gathers its channel from the channel
+     * results arrays.
+     */
+    public void setChannelMajorOutput(boolean channelMajorOutput)
+    {
+        mChannelMajorOutput = channelMajorOutput;
+    }
+
+    /**
+     * Polyphase channel numbers that are used by the registered polyphase channel outputs, as of the most recent
+     * channel add/remove or output channel index update.
+     *
+     * @return array of channel numbers, possibly including duplicates
+     */
+    protected int[] getSubscribedChannels()
+    {
+        return mSubscribedChannels;
+    }
+
+    /**
+     * Updates the cached polyphase channel numbers that are used by the registered polyphase channel outputs.  This
+     * method is invoked when a channel is added or removed and must be invoked when the polyphase channel indices for
+     * a registered channel output change.
+     */
+    public void updateSubscribedChannels()
+    {
+        List<Integer> channels = new ArrayList<>();
+
+        for(PolyphaseChannelSource channel : mChannels)
+        {
+            IPolyphaseChannelOutputProcessor outputProcessor = channel.getPolyphaseChannelOutputProcessor();
+
+            if(outputProcessor != null && outputProcessor.getPolyphaseChannelIndices() != null)
+            {
+                channels.addAll(outputProcessor.getPolyphaseChannelIndices());
+            }
+        }
+
+        int[] subscribed = new int[channels.size()];
+
+        for(int x = 0; x < subscribed.length; x++)
+        {
+            subscribed[x] = channels.get(x);
+        }
+
+        mSubscribedChannels = subscribed;
+    }
+
     /**
      * Dispatches the processed channel samples to any registered polyphase channel outputs.
      *
@@ -127,6 +190,7 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         {
             mChannels.add(polyphaseChannelSource);
             mSourceChangeBroadcaster.addListener(polyphaseChannelSource.getSourceEventListener());
+            updateSubscribedChannels();
         }
     }
 
@@ -141,6 +205,7 @@ public abstract class AbstractComplexPolyphaseChannelizer implements Listener<Re
         {
             mChannels.remove(polyphaseChannelSource);
             mSourceChangeBroadcaster.removeListener(polyphaseChannelSource.getSourceEventListener());
+            updateSubscribedChannels();
         }
     }
 
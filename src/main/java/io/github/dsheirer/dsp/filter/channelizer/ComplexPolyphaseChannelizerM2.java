@@ -24,6 +24,7 @@ import io.github.dsheirer.sample.IOverflowListener;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.queue.QueueType;
 import org.apache.commons.math3.util.FastMath;
 import org.jtransforms.fft.FloatFFT_1D;
 import org.slf4j.Logger;
@@ -408,19 +409,27 @@ public class ComplexPolyphaseChannelizerM2 extends AbstractComplexPolyphaseChann
     {
         public IFFTProcessor(int maximumSize, int resetThreshold)
         {
-            super(maximumSize, resetThreshold);
+            super(maximumSize, resetThreshold, QueueType.SPSC);
 
             //We create a listener interface to receive the buffers from the scheduled thread pool
             //dispatcher thread that is part of this continuous buffer processor.  We perform an IFFT on each
             //channel results array contained in each results buffer and then dispatch the buffer
             //so that it can be distributed to each channel listener.
+            //When channel-major output is enabled, each results array is also scattered into contiguous per-channel
+            //arrays for the channels used by the registered outputs while the array is still cache-resident.
             setListener(buffers -> {
                 for(ReusableChannelResultsBuffer buffer: buffers)
                 {
+                    if(isChannelMajorOutput())
+                    {
+                        buffer.setChannelMajorChannels(getSubscribedChannels(), getChannelCount());
+                    }
+
                     for(float[] channelResults: buffer.getChannelResults())
                     {
                         //Rotate each of the channels to the correct phase using the IFFT
                         mFFT.complexInverse(channelResults, true);
+                        buffer.scatter(channelResults);
                     }
 
                     dispatch(buffer);
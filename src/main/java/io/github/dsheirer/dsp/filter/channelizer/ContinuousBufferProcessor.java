@@ -18,6 +18,7 @@ package io.github.dsheirer.dsp.filter.channelizer;
 import io.github.dsheirer.sample.IOverflowListener;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.OverflowableTransferQueue;
+import io.github.dsheirer.sample.queue.QueueType;
 import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +59,18 @@ public class ContinuousBufferProcessor<E> implements Listener<E>
         this(new OverflowableTransferQueue<>(maximumSize, resetThreshold));
     }
 
+    /**
+     * Constructs a processor with an internal queue that uses the specified queue type for storage.
+     *
+     * @param maximumSize of the internal queue (overflow happens when this is exceeded)
+     * @param resetThreshold of the internal queue (overflow reset happens once queue size falls below this threshold
+     * @param queueType for the internal queue.  Use SPSC only when elements are received from a single thread at a time.
+     */
+    public ContinuousBufferProcessor(int maximumSize, int resetThreshold, QueueType queueType)
+    {
+        this(new OverflowableTransferQueue<>(maximumSize, resetThreshold, queueType));
+    }
+
     /**
      * Listener to receive the queued buffers each time this processor runs.
      */
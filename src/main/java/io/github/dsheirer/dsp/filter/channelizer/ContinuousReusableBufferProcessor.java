@@ -17,6 +17,7 @@ package io.github.dsheirer.dsp.filter.channelizer;
 
 import io.github.dsheirer.sample.buffer.AbstractReusableBuffer;
 import io.github.dsheirer.sample.buffer.OverflowableReusableBufferTransferQueue;
+import io.github.dsheirer.sample.queue.QueueType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,18 @@ public class ContinuousReusableBufferProcessor<T extends AbstractReusableBuffer>
         super(new OverflowableReusableBufferTransferQueue<T>(maximumSize, resetThreshold));
     }
 
+    /**
+     * Constructs a processor with an internal queue that uses the specified queue type for storage.
+     *
+     * @param maximumSize of the internal queue (overflow happens when this is exceeded)
+     * @param resetThreshold of the internal queue (overflow reset happens once queue size falls below this threshold
+     * @param queueType for the internal queue.  Use SPSC only when buffers are received from a single thread at a time.
+     */
+    public ContinuousReusableBufferProcessor(int maximumSize, int resetThreshold, QueueType queueType)
+    {
+        super(new OverflowableReusableBufferTransferQueue<T>(maximumSize, resetThreshold, queueType));
+    }
+
     /**
      * Distributes queued buffers to the listener
      */
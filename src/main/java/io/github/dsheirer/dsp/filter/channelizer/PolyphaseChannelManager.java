@@ -30,6 +30,7 @@ import io.github.dsheirer.sample.Broadcaster;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableComplexBufferProvider;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.queue.QueueType;
 import io.github.dsheirer.source.ISourceEventProcessor;
 import io.github.dsheirer.source.Source;
 import io.github.dsheirer.source.SourceEvent;
@@ -113,7 +114,7 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
 
         mChannelCalculator = new ChannelCalculator(sampleRate, channelCount, frequency, CHANNEL_OVERSAMPLING);
 
-        mBufferProcessor = new ContinuousBufferProcessor(200, 50);
+        mBufferProcessor = new ContinuousBufferProcessor(200, 50, QueueType.SPSC);
         mBufferProcessor.setListener(mBufferSourceEventMonitor);
     }
 
@@ -430,6 +431,11 @@ public class PolyphaseChannelManager implements ISourceEventProcessor
             {
                 channelSource.setPolyphaseChannelOutputProcessor(getOutputProcessor(indexes), centerFrequency);
             }
+
+            if(mPolyphaseChannelizer != null)
+            {
+                mPolyphaseChannelizer.updateSubscribedChannels();
+            }
         }
         catch(IllegalArgumentException iae)
         {
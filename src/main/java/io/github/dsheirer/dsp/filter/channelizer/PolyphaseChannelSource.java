@@ -165,6 +165,12 @@ public class PolyphaseChannelSource extends TunerChannelSource
      */
     public void receiveChannelResults(ReusableChannelResultsBuffer channelResultsBuffer)
     {
+        if(isPaused())
+        {
+            channelResultsBuffer.decrementUserCount();
+            return;
+        }
+
         if(mReplacementPolyphaseChannelOutputProcessor != null)
         {
             swapOutputProcessor();
@@ -24,6 +24,7 @@ import io.github.dsheirer.sample.buffer.ReusableComplexBufferAssembler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class OneChannelOutputProcessor extends ChannelOutputProcessor
@@ -31,6 +32,7 @@ public class OneChannelOutputProcessor extends ChannelOutputProcessor
     private final static Logger mLog = LoggerFactory.getLogger(OneChannelOutputProcessor.class);
 
     private int mChannelOffset;
+    private List<Integer> mChannelIndexes;
 
     /**
      * Processor to extract a single channel from a polyphase channelizer and produce an output I/Q complex sample
@@ -68,6 +70,13 @@ public class OneChannelOutputProcessor extends ChannelOutputProcessor
         //Set the channelized output results offset to twice the channel index to account for each channel having
         //an I/Q pair
         mChannelOffset = indexes.get(0) * 2;
+        mChannelIndexes = new ArrayList<>(indexes);
+    }
+
+    @Override
+    public List<Integer> getPolyphaseChannelIndices()
+    {
+        return mChannelIndexes;
     }
 
     /**
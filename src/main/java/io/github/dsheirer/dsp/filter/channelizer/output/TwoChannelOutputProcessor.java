@@ -16,21 +16,22 @@
 package io.github.dsheirer.dsp.filter.channelizer.output;
 
 import io.github.dsheirer.dsp.filter.channelizer.TwoChannelSynthesizerM2;
-import io.github.dsheirer.dsp.mixer.FS4DownConverter;
+import io.github.dsheirer.dsp.mixer.IOscillator;
 import io.github.dsheirer.sample.buffer.ReusableChannelResultsBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferAssembler;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class TwoChannelOutputProcessor extends ChannelOutputProcessor
 {
 //    private final static Logger mLog = LoggerFactory.getLogger(TwoChannelOutputProcessor.class);
     private TwoChannelSynthesizerM2 mSynthesizer;
-    private FS4DownConverter mFS4DownConverter = new FS4DownConverter();
 
     private int mChannelOffset1;
     private int mChannelOffset2;
+    private List<Integer> mChannelIndexes;
 
     /**
      * Processor to extract two channels from a polyphase channelizer, synthesize/recombine the channels, apply
@@ -47,17 +48,23 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
         super(2, sampleRate, gain);
         setPolyphaseChannelIndices(channelIndexes);
         setSynthesisFilter(filter);
+        setFrequencyOffset(0);
     }
 
     /**
      * Sets the frequency offset to apply to the incoming samples to mix the desired signal to baseband.
      *
+     * The -FS/4 down conversion that centers the synthesized channels is folded into the frequency correction mixer so
+     * that both translations are applied in a single pass.
+     *
      * @param frequencyOffset in hertz
      */
     @Override
     public void setFrequencyOffset(long frequencyOffset)
     {
         super.setFrequencyOffset(frequencyOffset);
+        IOscillator mixer = getFrequencyCorrectionMixer();
+        mixer.setFrequency(frequencyOffset - (mixer.getSampleRate() / 4.0));
     }
 
 
@@ -85,6 +92,13 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
         //an I/Q pair
         mChannelOffset1 = indexes.get(0) * 2;
         mChannelOffset2 = indexes.get(1) * 2;
+        mChannelIndexes = new ArrayList<>(indexes);
+    }
+
+    @Override
+    public List<Integer> getPolyphaseChannelIndices()
+    {
+        return mChannelIndexes;
     }
 
     /**
@@ -106,10 +120,8 @@ public class TwoChannelOutputProcessor extends ChannelOutputProcessor
             //Join the two channels using the synthesizer
             ReusableComplexBuffer synthesized = mSynthesizer.process(channel1, channel2);
 
-            //The synthesized channels are centered at +FS/4 ... downconvert to center the spectrum
-            mFS4DownConverter.mixComplex(synthesized.getSamples());
-
-            //Apply offset and frequency correction to center the signal of interest within the synthesized channel
+            //The synthesized channels are centered at +FS/4 ... downconvert to center the spectrum and apply offset
+            //and frequency correction to center the signal of interest within the synthesized channel in one pass
             getFrequencyCorrectionMixer().mixComplex(synthesized.getSamples());
 
             synthesized.applyGain(getGain());
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * sdr-trunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by  the Free Software Foundation, either version 3 of the License, or  (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful,  but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License  along with this program.
+ * If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package io.github.dsheirer.dsp.filter.fir.complex;
+
+import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.sample.complex.Complex;
+
+import java.util.Arrays;
+
+/**
+ * Decoder front-end stage that filters and optionally decimates complex sample buffers in a single pass and applies
+ * feed-forward automatic gain control to the (decimated) output, producing one reusable output buffer per input buffer.
+ *
+ * The FIR filter history is held in a double-length circular buffer where each sample is written twice, one filter
+ * length apart, so that the most recent samples are always contiguous and no per-sample array shifting is required.
+ * When decimating, filter outputs are only calculated for the samples that are retained.
+ *
+ * Gain is calculated once per buffer from the maximum envelope of the filtered output samples and applied to every
+ * sample in the buffer, the same as ComplexFeedForwardGainControl.filter(), so that the relative amplitude of the
+ * samples within a buffer is preserved for the phase and amplitude sensitive demodulators.
+ */
+public class ComplexBasebandFrontEnd
+{
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue =
+        new ReusableComplexBufferQueue("ComplexBasebandFrontEnd");
+    private float[] mCoefficients;
+    private float[] mInphaseHistory;
+    private float[] mQuadratureHistory;
+    private int mHistoryPointer;
+    private int mDecimation;
+    private int mDecimationCounter;
+    private float mGain = 1.0f;
+
+    /**
+     * Constructs an instance
+     *
+     * @param coefficients for the low-pass filter, in normal order
+     * @param decimation factor to apply after filtering.  Use 1 for no decimation.
+     */
+    public ComplexBasebandFrontEnd(float[] coefficients, int decimation)
+    {
+        if(decimation < 1)
+        {
+            throw new IllegalArgumentException("Decimation must be a positive value");
+        }
+
+        //Reverse the coefficients so that they can be applied against the oldest through newest samples
+        mCoefficients = new float[coefficients.length];
+
+        for(int x = 0; x < coefficients.length; x++)
+        {
+            mCoefficients[x] = coefficients[coefficients.length - 1 - x];
+        }
+
+        mInphaseHistory = new float[coefficients.length * 2];
+        mQuadratureHistory = new float[coefficients.length * 2];
+        mDecimation = decimation;
+    }
+
+    /**
+     * Constructs an instance that filters and applies gain without decimation
+     *
+     * @param coefficients for the low-pass filter, in normal order
+     */
+    public ComplexBasebandFrontEnd(float[] coefficients)
+    {
+        this(coefficients, 1);
+    }
+
+    /**
+     * Decimation factor
+     */
+    public int getDecimation()
+    {
+        return mDecimation;
+    }
+
+    /**
+     * Current gain value
+     */
+    public float getGain()
+    {
+        return mGain;
+    }
+
+    /**
+     * Filters, decimates and applies gain to the samples in the buffer.
+     *
+     * Note: the user count is decremented on the buffer argument and the returned (new) buffer has a user count of one.
+     *
+     * @param buffer to process
+     * @return new reusable buffer containing the processed samples
+     */
+    public ReusableComplexBuffer process(ReusableComplexBuffer buffer)
+    {
+        float[] samples = buffer.getSamples();
+        int sampleCount = samples.length / 2;
+        int outputCount = (mDecimationCounter + sampleCount) / mDecimation;
+
+        ReusableComplexBuffer processedBuffer = mReusableComplexBufferQueue.getBuffer(outputCount * 2);
+        processedBuffer.setTimestamp(buffer.getTimestamp());
+        float[] processed = processedBuffer.getSamples();
+
+        float[] coefficients = mCoefficients;
+        float[] inphaseHistory = mInphaseHistory;
+        float[] quadratureHistory = mQuadratureHistory;
+        int length = coefficients.length;
+        int pointer = mHistoryPointer;
+        int outputPointer = 0;
+        float maxEnvelope = ComplexFeedForwardGainControl.MINIMUM_ENVELOPE;
+
+        for(int x = 0; x < samples.length; x += 2)
+        {
+            inphaseHistory[pointer] = samples[x];
+            inphaseHistory[pointer + length] = samples[x];
+            quadratureHistory[pointer] = samples[x + 1];
+            quadratureHistory[pointer + length] = samples[x + 1];
+
+            //The most recent samples (oldest to newest) are contiguous, starting after the sample just written
+            pointer++;
+
+            if(pointer == length)
+            {
+                pointer = 0;
+            }
+
+            if(++mDecimationCounter == mDecimation)
+            {
+                mDecimationCounter = 0;
+
+                float inphase = 0.0f;
+                float quadrature = 0.0f;
+
+                for(int tap = 0; tap < length; tap++)
+                {
+                    inphase = Math.fma(inphaseHistory[pointer + tap], coefficients[tap], inphase);
+                    quadrature = Math.fma(quadratureHistory[pointer + tap], coefficients[tap], quadrature);
+                }
+
+                maxEnvelope = Math.max(maxEnvelope, Complex.envelope(inphase, quadrature));
+
+                processed[outputPointer++] = inphase;
+                processed[outputPointer++] = quadrature;
+            }
+        }
+
+        mHistoryPointer = pointer;
+
+        if(outputPointer > 0)
+        {
+            mGain = ComplexFeedForwardGainControl.OBJECTIVE_ENVELOPE / maxEnvelope;
+
+            for(int x = 0; x < outputPointer; x++)
+            {
+                processed[x] *= mGain;
+            }
+        }
+
+        buffer.decrementUserCount();
+
+        return processedBuffer;
+    }
+
+    /**
+     * Clears the filter history and gain state
+     */
+    public void reset()
+    {
+        Arrays.fill(mInphaseHistory, 0.0f);
+        Arrays.fill(mQuadratureHistory, 0.0f);
+        mHistoryPointer = 0;
+        mDecimationCounter = 0;
+        mGain = 1.0f;
+    }
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * sdr-trunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by  the Free Software Foundation, either version 3 of the License, or  (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful,  but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License  along with this program.
+ * If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package io.github.dsheirer.dsp.filter.resample;
+
+import io.github.dsheirer.dsp.filter.Window;
+import org.apache.commons.math3.util.FastMath;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Polyphase decomposition of a Kaiser windowed-sinc low-pass prototype filter for resampling real samples.
+ *
+ * The prototype filter runs at the interpolated rate (phases x input rate) and is decomposed into one sub-filter per
+ * phase.  The cutoff is placed at the Nyquist frequency of the lower of the input and output sample rates, with a
+ * transition band of +/- 10% of that rate, so that the passband extends to 40% of the lower sample rate and any
+ * energy that aliases on decimation only folds into the transition band.  Each phase is normalized to unity DC gain.
+ *
+ * Coefficients for each phase are stored in reverse order so that a phase can be applied as a straight dot product
+ * against the oldest-to-newest input samples.
+ *
+ * Filter banks are immutable and are cached by phase count and decimation so that all resamplers operating at the same
+ * conversion ratio (e.g. every conventional channel converting to 8 kHz audio) share one set of coefficients.
+ */
+public class PolyphaseFilterBank
+{
+    private static final double STOP_BAND_ATTENUATION_DB = 75.0;
+    private static final double TRANSITION_BANDWIDTH = 0.2;
+    private static final int MINIMUM_TAPS_PER_PHASE = 8;
+    private static final Map<Key,PolyphaseFilterBank> sCache = new HashMap<>();
+
+    private int mPhaseCount;
+    private int mTapsPerPhase;
+    private float[][] mCoefficients;
+
+    /**
+     * Constructs an instance.  Use the getInstance() method to access cached filter banks.
+     *
+     * @param phaseCount number of filter phases (interpolation factor)
+     * @param decimation ratio of input rate to output rate when downsampling, or 1.0 when upsampling
+     */
+    private PolyphaseFilterBank(int phaseCount, double decimation)
+    {
+        mPhaseCount = phaseCount;
+
+        //Kaiser estimate of the prototype filter length, expressed per phase (relative to the input sample rate)
+        double transition = TRANSITION_BANDWIDTH / decimation;
+        int taps = (int)FastMath.ceil((STOP_BAND_ATTENUATION_DB - 7.95) / (14.36 * transition));
+        mTapsPerPhase = FastMath.max(MINIMUM_TAPS_PER_PHASE, taps);
+
+        int length = mTapsPerPhase * phaseCount;
+        double[] window = Window.getKaiser(length, STOP_BAND_ATTENUATION_DB);
+        double cutoff = 0.5 / decimation / phaseCount;
+        double center = (length - 1) / 2.0;
+
+        double[] prototype = new double[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            double t = x - center;
+
+            if(t == 0.0)
+            {
+                prototype[x] = 2.0 * cutoff;
+            }
+            else
+            {
+                prototype[x] = FastMath.sin(2.0 * FastMath.PI * cutoff * t) / (FastMath.PI * t);
+            }
+
+            prototype[x] *= window[x];
+        }
+
+        mCoefficients = new float[phaseCount][mTapsPerPhase];
+
+        for(int phase = 0; phase < phaseCount; phase++)
+        {
+            double sum = 0.0;
+
+            for(int tap = 0; tap < mTapsPerPhase; tap++)
+            {
+                sum += prototype[phase + tap * phaseCount];
+            }
+
+            for(int tap = 0; tap < mTapsPerPhase; tap++)
+            {
+                mCoefficients[phase][mTapsPerPhase - 1 - tap] = (float)(prototype[phase + tap * phaseCount] / sum);
+            }
+        }
+    }
+
+    /**
+     * Number of phases (interpolation factor) in this filter bank
+     */
+    public int getPhaseCount()
+    {
+        return mPhaseCount;
+    }
+
+    /**
+     * Number of filter taps in each phase
+     */
+    public int getTapsPerPhase()
+    {
+        return mTapsPerPhase;
+    }
+
+    /**
+     * Reversed filter coefficients for the phase
+     *
+     * @param phase in the range 0 to (phase count - 1)
+     * @return coefficients to apply to the oldest through newest input samples
+     */
+    public float[] getPhase(int phase)
+    {
+        return mCoefficients[phase];
+    }
+
+    /**
+     * Applies the filter phase to the samples ending at (and including) the specified index.
+     *
+     * @param samples input samples
+     * @param index of the most recent sample, which must be at least (taps per phase - 1)
+     * @param phase to apply
+     * @return filtered sample
+     */
+    public float filter(float[] samples, int index, int phase)
+    {
+        float[] coefficients = mCoefficients[phase];
+        int offset = index - mTapsPerPhase + 1;
+        float accumulator = 0.0f;
+
+        for(int x = 0; x < coefficients.length; x++)
+        {
+            accumulator += samples[offset + x] * coefficients[x];
+        }
+
+        return accumulator;
+    }
+
+    /**
+     * Provides a (cached) filter bank for resampling between the specified rates.
+     *
+     * @param phaseCount number of filter phases (ie the interpolation factor L for a rational L/M resampler)
+     * @param inputRate sample rate
+     * @param outputRate sample rate
+     * @return filter bank
+     */
+    public static PolyphaseFilterBank getInstance(int phaseCount, double inputRate, double outputRate)
+    {
+        if(phaseCount < 1)
+        {
+            throw new IllegalArgumentException("Phase count must be a positive value");
+        }
+
+        Key key = new Key(phaseCount, FastMath.max(1.0, inputRate / outputRate));
+
+        synchronized(sCache)
+        {
+            PolyphaseFilterBank filterBank = sCache.get(key);
+
+            if(filterBank == null)
+            {
+                filterBank = new PolyphaseFilterBank(key.mPhaseCount, key.mDecimation);
+                sCache.put(key, filterBank);
+            }
+
+            return filterBank;
+        }
+    }
+
+    /**
+     * Filter bank cache key
+     */
+    private static class Key
+    {
+        private int mPhaseCount;
+        private double mDecimation;
+
+        public Key(int phaseCount, double decimation)
+        {
+            mPhaseCount = phaseCount;
+            mDecimation = decimation;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(this == o)
+            {
+                return true;
+            }
+
+            if(!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+            return mPhaseCount == other.mPhaseCount && Double.compare(mDecimation, other.mDecimation) == 0;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * mPhaseCount + Double.hashCode(mDecimation);
+        }
+    }
+}
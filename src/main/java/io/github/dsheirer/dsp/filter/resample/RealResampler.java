@@ -1,6 +1,6 @@
 /*******************************************************************************
  * sdr-trunk
- * Copyright (C) 2014-2018 Dennis Sheirer
+ * Copyright (C) 2014-2020 Dennis Sheirer
  *
  * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
  * License as published by  the Free Software Foundation, either version 3 of the License, or  (at your option) any
@@ -15,37 +15,107 @@
  ******************************************************************************/
 package io.github.dsheirer.dsp.filter.resample;
 
-import com.laszlosystems.libresample4j.Resampler;
-import com.laszlosystems.libresample4j.SampleBuffers;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
 import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import org.apache.commons.math3.util.ArithmeticUtils;
+import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.nio.ByteBuffer;
-import java.nio.FloatBuffer;
-
+/**
+ * Polyphase resampler for real sample buffers.
+ *
+ * When the input and output sample rates are integral and reduce to an interpolation/decimation ratio (L/M) with no
+ * more than MAXIMUM_RATIONAL_PHASES interpolation phases, each output sample is produced by a single dot product
+ * using the exact filter phase for that output sample.  Otherwise, the resampler falls back to arbitrary-ratio
+ * resampling using a filter bank with ARBITRARY_RATIO_PHASES phases and linear interpolation between the two filter
+ * phases that straddle the output sample's fractional input position.
+ *
+ * Filter banks are shared across instances via PolyphaseFilterBank.  Input samples are staged in a reusable history
+ * buffer and output samples are written directly into reusable output buffers, so steady-state resampling does not
+ * allocate.
+ */
 public class RealResampler
 {
     protected static final Logger mLog = LoggerFactory.getLogger(RealResampler.class);
 
+    public static final int MAXIMUM_RATIONAL_PHASES = 256;
+    public static final int ARBITRARY_RATIO_PHASES = 128;
+
     private ReusableBufferQueue mReusableBufferQueue = new ReusableBufferQueue("RealResampler");
-    private Resampler mResampler;
     private Listener<ReusableFloatBuffer> mResampledListener;
-    private BufferManager mBufferManager;
-    private double mResampleFactor;
+    private PolyphaseFilterBank mFilterBank;
+    private int mOutputBufferSize;
+    private ReusableFloatBuffer mOutputBuffer;
+    private int mOutputPointer;
+
+    //History buffer: the leading samples are retained from the previous input buffer
+    private float[] mBuffer;
+    private int mHistoryLength;
+
+    //Rational resampling state: interpolation L, decimation M and the current phase
+    private boolean mRational;
+    private int mInterpolation;
+    private int mDecimation;
+    private int mPhase;
+
+    //Arbitrary resampling state: input samples per output sample and the fractional input position
+    private double mStep;
+    private double mPosition;
+
+    //Index of the next input sample (relative to the history buffer) that is needed to produce an output sample
+    private int mInputIndex;
 
     /**
      * Resampler for real sample buffers.
-     * @param inputRate
-     * @param outputRate
+     * @param inputRate sample rate
+     * @param outputRate sample rate
+     * @param inputBufferSize expected size of each input buffer, used to size the history buffer
+     * @param outputBufferSize size of each resampled buffer dispatched to the listener
      */
     public RealResampler(double inputRate, double outputRate, int inputBufferSize, int outputBufferSize)
     {
-        mResampleFactor = outputRate / inputRate;
-        mResampler = new Resampler(true, mResampleFactor, mResampleFactor);
-        mBufferManager = new BufferManager(inputBufferSize, outputBufferSize);
+        mOutputBufferSize = outputBufferSize;
+
+        long input = FastMath.round(inputRate);
+        long output = FastMath.round(outputRate);
+
+        if(input > 0 && output > 0 && input == inputRate && output == outputRate)
+        {
+            long gcd = ArithmeticUtils.gcd(input, output);
+
+            if(output / gcd <= MAXIMUM_RATIONAL_PHASES && input / gcd <= Integer.MAX_VALUE)
+            {
+                mRational = true;
+                mInterpolation = (int)(output / gcd);
+                mDecimation = (int)(input / gcd);
+            }
+        }
+
+        if(mRational)
+        {
+            mFilterBank = PolyphaseFilterBank.getInstance(mInterpolation, inputRate, outputRate);
+        }
+        else
+        {
+            mFilterBank = PolyphaseFilterBank.getInstance(ARBITRARY_RATIO_PHASES, inputRate, outputRate);
+            mStep = inputRate / outputRate;
+        }
+
+        //Arbitrary-ratio resampling retains one extra sample for the look-ahead filter phase
+        mHistoryLength = mFilterBank.getTapsPerPhase() - (mRational ? 1 : 0);
+        mBuffer = new float[mHistoryLength + inputBufferSize];
+        mInputIndex = mHistoryLength;
+    }
+
+    /**
+     * Indicates if this resampler is using an exact rational (L/M) ratio, or false if using arbitrary-ratio
+     * resampling.
+     */
+    public boolean isRational()
+    {
+        return mRational;
     }
 
     /**
@@ -54,95 +124,121 @@ public class RealResampler
      */
     public void resample(ReusableFloatBuffer reusableFloatBuffer)
     {
-        mBufferManager.load(reusableFloatBuffer);
-        mResampler.process(mResampleFactor, mBufferManager, false);
+        float[] samples = reusableFloatBuffer.getSamples();
+        int length = mHistoryLength + samples.length;
+
+        if(mBuffer.length < length)
+        {
+            float[] buffer = new float[length];
+            System.arraycopy(mBuffer, 0, buffer, 0, mHistoryLength);
+            mBuffer = buffer;
+        }
+
+        System.arraycopy(samples, 0, mBuffer, mHistoryLength, samples.length);
+        reusableFloatBuffer.decrementUserCount();
+
+        if(mRational)
+        {
+            resampleRational(length);
+        }
+        else
+        {
+            resampleArbitrary(length);
+        }
+
+        //Retain the trailing samples as history for the next buffer
+        System.arraycopy(mBuffer, length - mHistoryLength, mBuffer, 0, mHistoryLength);
+        mInputIndex -= samples.length;
     }
 
     /**
-     * Registers the listener to receive the resampled buffer output
-     * @param resampledBufferListener to receive buffers
+     * Produces output samples using the exact filter phase for each output sample.
+     *
+     * @param length of valid samples in the history buffer
      */
-    public void setListener(Listener<ReusableFloatBuffer> resampledBufferListener)
+    private void resampleRational(int length)
     {
-        mResampledListener = resampledBufferListener;
+        while(mInputIndex < length)
+        {
+            write(mFilterBank.filter(mBuffer, mInputIndex, mPhase));
+
+            mPhase += mDecimation;
+
+            if(mPhase >= mInterpolation)
+            {
+                mInputIndex += mPhase / mInterpolation;
+                mPhase %= mInterpolation;
+            }
+        }
     }
 
     /**
-     * Buffer manager for input and output buffers used during the resampling process.  The manager will
-     * auto-resize the input and output buffers to meet the size of the incoming sample buffers.
+     * Produces output samples by interpolating between the two filter phases that straddle each output sample's
+     * fractional input position.
+     *
+     * @param length of valid samples in the history buffer
      */
-    public class BufferManager implements SampleBuffers
+    private void resampleArbitrary(int length)
     {
-        private int mOutputBufferSize;
-        private FloatBuffer mInputBuffer;
-        private FloatBuffer mOutputBuffer;
+        int phaseCount = mFilterBank.getPhaseCount();
 
-        public BufferManager(int inputBufferSize, int outputBufferSize)
+        //The upper phase for the last fractional phase is phase 0 of the next input sample, so one look-ahead sample
+        //is required
+        while(mInputIndex < length - 1)
         {
-            mOutputBufferSize = outputBufferSize;
+            double fractionalPhase = mPosition * phaseCount;
+            int phase = (int)fractionalPhase;
+            float gain = (float)(fractionalPhase - phase);
 
-            //The size of the underlying byte buffer in bytes is 4 times the requested input buffer size in floats
-            mInputBuffer = ByteBuffer.allocate(inputBufferSize * 4).asFloatBuffer();
-            mOutputBuffer = ByteBuffer.allocate(inputBufferSize * 4).asFloatBuffer();
-        }
+            float lower = mFilterBank.filter(mBuffer, mInputIndex, phase);
+            float upper = (phase + 1 < phaseCount) ? mFilterBank.filter(mBuffer, mInputIndex, phase + 1) :
+                mFilterBank.filter(mBuffer, mInputIndex + 1, 0);
 
-        /**
-         * Queues the buffer sample for resampling
-         */
-        public void load(ReusableFloatBuffer reusableFloatBuffer)
-        {
-            mInputBuffer.put(reusableFloatBuffer.getSamples());
-            reusableFloatBuffer.decrementUserCount();
-        }
+            write(lower + (upper - lower) * gain);
 
-        @Override
-        public int getInputBufferLength()
-        {
-            return mInputBuffer.position();
-        }
+            mPosition += mStep;
 
-        @Override
-        public int getOutputBufferLength()
-        {
-            return mOutputBuffer.remaining();
+            int whole = (int)mPosition;
+            mInputIndex += whole;
+            mPosition -= whole;
         }
+    }
 
-        /**
-         * Provides input to the resampler
-         */
-        @Override
-        public void produceInput(float[] samples, int offset, int length)
+    /**
+     * Writes the sample to the current output buffer and dispatches the buffer when it is full.
+     */
+    private void write(float sample)
+    {
+        if(mOutputBuffer == null)
         {
-            mInputBuffer.flip();
-            mInputBuffer.get(samples, offset, length);
-            mInputBuffer.compact();
+            mOutputBuffer = mReusableBufferQueue.getBuffer(mOutputBufferSize);
+            mOutputPointer = 0;
         }
 
-        /**
-         * Receives output from the resampler and dispatches output buffers periodically.
-         */
-        @Override
-        public void consumeOutput(float[] samples, int offset, int length)
+        mOutputBuffer.getSamples()[mOutputPointer++] = sample;
+
+        if(mOutputPointer >= mOutputBufferSize)
         {
-            mOutputBuffer.put(samples, offset, length);
+            ReusableFloatBuffer outputBuffer = mOutputBuffer;
+            mOutputBuffer = null;
 
-            while(mOutputBuffer.position() > mOutputBufferSize)
+            if(mResampledListener != null)
+            {
+                mResampledListener.receive(outputBuffer);
+            }
+            else
             {
-                ReusableFloatBuffer outputBuffer = mReusableBufferQueue.getBuffer(mOutputBufferSize);
-
-                mOutputBuffer.flip();
-                mOutputBuffer.get(outputBuffer.getSamples());
-                mOutputBuffer.compact();
-
-                if(mResampledListener != null)
-                {
-                    mResampledListener.receive(outputBuffer);
-                }
-                else
-                {
-                    outputBuffer.decrementUserCount();
-                }
+                outputBuffer.decrementUserCount();
             }
         }
     }
+
+    /**
+     * Registers the listener to receive the resampled buffer output
+     * @param resampledBufferListener to receive buffers
+     */
+    public void setListener(Listener<ReusableFloatBuffer> resampledBufferListener)
+    {
+        mResampledListener = resampledBufferListener;
+    }
 }
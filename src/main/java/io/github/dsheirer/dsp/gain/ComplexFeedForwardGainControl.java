@@ -15,7 +15,6 @@
  ******************************************************************************/
 package io.github.dsheirer.dsp.gain;
 
-import io.github.dsheirer.buffer.FloatCircularBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
 import io.github.dsheirer.sample.complex.Complex;
@@ -27,7 +26,7 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
     public static final float MINIMUM_ENVELOPE = 0.0001f;
 
     private ComplexSampleListener mListener;
-    private FloatCircularBuffer mEnvelopeHistory;
+    private SlidingWindowMaximum mEnvelopeHistory;
     private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("ComplexFeedForwardGainControl");
 
     private float mMaxEnvelope = 0.0f;
@@ -46,7 +45,7 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
      */
     public ComplexFeedForwardGainControl(int window)
     {
-        mEnvelopeHistory = new FloatCircularBuffer(window);
+        mEnvelopeHistory = new SlidingWindowMaximum(window);
     }
 
     public void dispose()
@@ -68,31 +67,13 @@ public class ComplexFeedForwardGainControl implements ComplexSampleListener
 
     private void process(float inphase, float quadrature)
     {
-        float envelope = Complex.envelope(inphase, quadrature);
+        /* The sliding window maximum tracks when the max envelope value ages out of the history window, so we
+         * don't have to rediscover the max value by rescanning the envelope history */
+        float maxEnvelope = Math.max(mEnvelopeHistory.add(Complex.envelope(inphase, quadrature)), MINIMUM_ENVELOPE);
 
-        if(envelope > mMaxEnvelope)
+        if(maxEnvelope != mMaxEnvelope)
         {
-            mMaxEnvelope = envelope;
-
-            adjustGain();
-        }
-
-        /* Replace oldest envelope value with current envelope value */
-        float oldestEnvelope = mEnvelopeHistory.get(envelope);
-
-        /* If the oldest envelope value was the max envelope value, then we
-         * have to rediscover the max value from the envelope history */
-        if(mMaxEnvelope == oldestEnvelope && mMaxEnvelope != envelope)
-        {
-            mMaxEnvelope = MINIMUM_ENVELOPE;
-
-            for(float value : mEnvelopeHistory.getBuffer())
-            {
-                if(value > mMaxEnvelope)
-                {
-                    mMaxEnvelope = value;
-                }
-            }
+            mMaxEnvelope = maxEnvelope;
 
             adjustGain();
         }
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * sdr-trunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by  the Free Software Foundation, either version 3 of the License, or  (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful,  but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License  along with this program.
+ * If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package io.github.dsheirer.dsp.gain;
+
+/**
+ * Tracks the maximum value over a sliding window of the most recent values using a monotonic deque.
+ *
+ * The deque holds candidate maximum values in decreasing order along with the sample count at which each value was
+ * added.  Each new value removes the smaller values from the tail of the deque since those can never become the
+ * maximum again, and the head of the deque is removed once it ages out of the window.  Each value is added and
+ * removed at most once, so the maximum is available in amortized constant time without rescanning the window.
+ *
+ * The deque is stored in fixed-size (power of two) ring arrays, so adding values does not allocate.
+ */
+public class SlidingWindowMaximum
+{
+    private float[] mValues;
+    private int[] mIndices;
+    private int mWindow;
+    private int mMask;
+    private int mHead;
+    private int mTail;
+    private int mCount;
+
+    /**
+     * Constructs an instance
+     * @param window size (number of most recent values) to track the maximum across
+     */
+    public SlidingWindowMaximum(int window)
+    {
+        if(window < 1)
+        {
+            throw new IllegalArgumentException("Window size must be a positive value");
+        }
+
+        mWindow = window;
+
+        //Ring capacity exceeds the window so that a full deque is distinguishable from an empty deque
+        int capacity = Integer.highestOneBit(window) << 1;
+
+        mMask = capacity - 1;
+        mValues = new float[capacity];
+        mIndices = new int[capacity];
+    }
+
+    /**
+     * Adds the value to the window and returns the maximum value across the window, including this value.
+     * @param value to add
+     * @return maximum value in the window
+     */
+    public float add(float value)
+    {
+        //Remove the head value when it falls outside of the window.  The sample count is allowed to overflow since
+        //only the difference between counts is compared.
+        if(mHead != mTail && mCount - mIndices[mHead] >= mWindow)
+        {
+            mHead = (mHead + 1) & mMask;
+        }
+
+        //Remove tail values that are less than or equal to the new value
+        while(mHead != mTail && mValues[(mTail - 1) & mMask] <= value)
+        {
+            mTail = (mTail - 1) & mMask;
+        }
+
+        mValues[mTail] = value;
+        mIndices[mTail] = mCount++;
+        mTail = (mTail + 1) & mMask;
+
+        return mValues[mHead];
+    }
+
+    /**
+     * Current maximum value in the window, or 0.0 if no values have been added.
+     */
+    public float getMaximum()
+    {
+        return mHead != mTail ? mValues[mHead] : 0.0f;
+    }
+
+    /**
+     * Window size
+     */
+    public int getWindow()
+    {
+        return mWindow;
+    }
+
+    /**
+     * Removes all values from the window
+     */
+    public void reset()
+    {
+        mHead = 0;
+        mTail = 0;
+        mCount = 0;
+    }
+}
@@ -115,6 +115,27 @@ public abstract class AbstractOscillator implements IOscillator
         return samples;
     }
 
+    /**
+     * Performs complex heterodyne against the input samples using this oscillator and places the results in the output
+     * array.
+     * @param input samples to mix with this oscillator
+     * @param output array to receive the mixed samples, at least as long as the input array.  May be the input array.
+     */
+    @Override
+    public void mixComplex(float[] input, float[] output)
+    {
+        for(int x = 0; x < input.length; x += 2)
+        {
+            float i = Complex.multiplyInphase(input[x], input[x + 1], inphase(), quadrature());
+            float q = Complex.multiplyQuadrature(input[x], input[x + 1], inphase(), quadrature());
+
+            output[x] = i;
+            output[x + 1] = q;
+
+            rotate();
+        }
+    }
+
     /**
      * Generates an array of real samples from this oscillator.
      * @param sampleCount number of samples to generate and length of the resulting float array.
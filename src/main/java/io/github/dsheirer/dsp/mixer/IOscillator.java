@@ -112,4 +112,12 @@ public interface IOscillator
      * @return mixed/heterdyned samples
      */
     float[] mixComplex(float[] complexSamples);
+
+    /**
+     * Mixes (heterodynes) the complex input sample array using the current settings of this oscillator and places
+     * the results in the output array.
+     * @param input complex samples to mix to a new frequency
+     * @param output array to receive the mixed samples, at least as long as the input array.  May be the input array.
+     */
+    void mixComplex(float[] input, float[] output);
 }
@@ -15,10 +15,12 @@
  ******************************************************************************/
 package io.github.dsheirer.dsp.mixer;
 
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.FloatBuffer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.concurrent.TimeUnit;
@@ -37,6 +39,14 @@ public class LowPhaseNoiseOscillator extends AbstractOscillator
     private double mSineAngle;
     private double mGain = 1.0;
 
+    //Block kernel rotation steps: index k holds the phasor rotation for k samples (0 - BLOCK_SIZE)
+    private static final int BLOCK_SIZE = 16;
+    private double[] mStepCosine;
+    private double[] mStepSine;
+    private float[] mBlockCosine;
+    private float[] mBlockSine;
+    private FloatBuffer mSampleBuffer;
+
     /**
      * Ultra-low phase noise complex oscillator as described in Digital Signal Processing 3e, Lyons, p.786
      *
@@ -71,6 +81,27 @@ public class LowPhaseNoiseOscillator extends AbstractOscillator
 
         mCosineAngle = FastMath.cos(anglePerSample);
         mSineAngle = FastMath.sin(anglePerSample);
+
+        //Note: this method is invoked by the super class constructor before this class's fields are initialized
+        if(mStepCosine == null)
+        {
+            mStepCosine = new double[BLOCK_SIZE + 1];
+            mStepSine = new double[BLOCK_SIZE + 1];
+            mBlockCosine = new float[BLOCK_SIZE];
+            mBlockSine = new float[BLOCK_SIZE];
+        }
+
+        for(int x = 0; x <= BLOCK_SIZE; x++)
+        {
+            mStepCosine[x] = FastMath.cos(anglePerSample * x);
+            mStepSine[x] = FastMath.sin(anglePerSample * x);
+
+            if(x < BLOCK_SIZE)
+            {
+                mBlockCosine[x] = (float)mStepCosine[x];
+                mBlockSine[x] = (float)mStepSine[x];
+            }
+        }
     }
 
     /**
@@ -84,8 +115,131 @@ public class LowPhaseNoiseOscillator extends AbstractOscillator
         mPreviousInphase = mInphase;
         mPreviousQuadrature = mQuadrature;
 
-        //Update the gain value for the next rotation
-        mGain = THREE_HALVES - ((mPreviousInphase * mPreviousInphase) + (mPreviousQuadrature * mPreviousQuadrature));
+        //Update the gain value for the next rotation (first order approximation of 1 / magnitude)
+        mGain = THREE_HALVES - ((mPreviousInphase * mPreviousInphase) + (mPreviousQuadrature * mPreviousQuadrature)) / 2.0;
+    }
+
+    /**
+     * Performs complex heterodyne against the samples using this oscillator.  Uses the block kernel.
+     *
+     * @param samples to mix with this oscillator
+     * @return samples mixed in place
+     */
+    @Override
+    public float[] mixComplex(float[] samples)
+    {
+        processBlocks(samples, samples, samples.length / 2, true);
+        return samples;
+    }
+
+    /**
+     * Performs complex heterodyne against the input samples, placing the results in the output array.  Uses the block
+     * kernel.
+     *
+     * @param input samples to mix with this oscillator
+     * @param output array to receive the mixed samples, at least as long as the input array.  May be the input array.
+     */
+    @Override
+    public void mixComplex(float[] input, float[] output)
+    {
+        processBlocks(input, output, input.length / 2, true);
+    }
+
+    /**
+     * Generates an array of complex samples from this oscillator using the block kernel.
+     */
+    @Override
+    public float[] generateComplex(int sampleCount)
+    {
+        float[] samples = new float[sampleCount * 2];
+        processBlocks(null, samples, sampleCount, false);
+        return samples;
+    }
+
+    /**
+     * Generates enough complex samples to fill the reusable complex buffer using the block kernel.
+     */
+    @Override
+    public void generateComplex(ReusableComplexBuffer reusableComplexBuffer)
+    {
+        int sampleCount = reusableComplexBuffer.getSampleCount();
+
+        if(mSampleBuffer == null || mSampleBuffer.capacity() != sampleCount * 2)
+        {
+            mSampleBuffer = FloatBuffer.allocate(sampleCount * 2);
+        }
+
+        processBlocks(null, mSampleBuffer.array(), sampleCount, false);
+        mSampleBuffer.rewind();
+        reusableComplexBuffer.reloadFrom(mSampleBuffer, System.currentTimeMillis());
+    }
+
+    /**
+     * Block oscillator kernel.  Generates BLOCK_SIZE phasors at a time from the current (block base) phasor using the
+     * precomputed rotation steps in float and optionally mixes them with the input samples in the same pass.  The
+     * block base phasor is advanced in double precision and renormalized once per block so that amplitude and phase
+     * error do not accumulate.  The per-sample oscillator state is updated on completion, so block and per-sample
+     * (rotate) usage can be freely interleaved.
+     *
+     * @param input samples to mix, or null to generate the oscillator samples
+     * @param output samples array
+     * @param sampleCount number of complex samples to process
+     * @param mix true to mix the input samples or false to generate the oscillator samples
+     */
+    private void processBlocks(float[] input, float[] output, int sampleCount, boolean mix)
+    {
+        double baseInphase = mInphase;
+        double baseQuadrature = mQuadrature;
+        float[] blockCosine = mBlockCosine;
+        float[] blockSine = mBlockSine;
+
+        int processed = 0;
+
+        while(processed < sampleCount)
+        {
+            int count = FastMath.min(BLOCK_SIZE, sampleCount - processed);
+            float i = (float)baseInphase;
+            float q = (float)baseQuadrature;
+            int offset = processed * 2;
+
+            if(mix)
+            {
+                for(int x = 0; x < count; x++)
+                {
+                    float oscillatorInphase = i * blockCosine[x] - q * blockSine[x];
+                    float oscillatorQuadrature = i * blockSine[x] + q * blockCosine[x];
+                    int index = offset + 2 * x;
+                    float sampleInphase = input[index];
+                    float sampleQuadrature = input[index + 1];
+                    output[index] = sampleInphase * oscillatorInphase - sampleQuadrature * oscillatorQuadrature;
+                    output[index + 1] = sampleInphase * oscillatorQuadrature + sampleQuadrature * oscillatorInphase;
+                }
+            }
+            else
+            {
+                for(int x = 0; x < count; x++)
+                {
+                    int index = offset + 2 * x;
+                    output[index] = i * blockCosine[x] - q * blockSine[x];
+                    output[index + 1] = i * blockSine[x] + q * blockCosine[x];
+                }
+            }
+
+            //Advance the block base phasor by the number of processed samples and renormalize
+            double nextInphase = baseInphase * mStepCosine[count] - baseQuadrature * mStepSine[count];
+            double nextQuadrature = baseInphase * mStepSine[count] + baseQuadrature * mStepCosine[count];
+            double gain = THREE_HALVES - ((nextInphase * nextInphase) + (nextQuadrature * nextQuadrature)) / 2.0;
+            baseInphase = nextInphase * gain;
+            baseQuadrature = nextQuadrature * gain;
+
+            processed += count;
+        }
+
+        mInphase = baseInphase;
+        mQuadrature = baseQuadrature;
+        mPreviousInphase = baseInphase;
+        mPreviousQuadrature = baseQuadrature;
+        mGain = 1.0;
     }
 
     public static long process(AbstractOscillator oscillator, int iterations, int sampleCount)
@@ -37,12 +37,15 @@ import io.github.dsheirer.gui.preference.ViewUserPreferenceEditorRequest;
 import io.github.dsheirer.icon.IconModel;
 import io.github.dsheirer.log.ApplicationLog;
 import io.github.dsheirer.map.MapService;
+import io.github.dsheirer.module.export.MessageExportServer;
 import io.github.dsheirer.module.log.EventLogManager;
 import io.github.dsheirer.playlist.PlaylistManager;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.properties.SystemProperties;
 import io.github.dsheirer.record.AudioRecordingManager;
+import io.github.dsheirer.record.timeshift.TimeShiftManager;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableBufferPool;
 import io.github.dsheirer.settings.SettingsManager;
 import io.github.dsheirer.source.SourceManager;
 import io.github.dsheirer.source.tuner.Tuner;
@@ -177,6 +180,9 @@ public class SDRTrunk implements Listener<TunerEvent>
         mAudioRecordingManager = new AudioRecordingManager(mUserPreferences);
         mAudioRecordingManager.start();
 
+        MessageExportServer.getInstance().initialize(mUserPreferences.getMessageExportPreference());
+        TimeShiftManager.getInstance().initialize(mUserPreferences, tunerModel);
+
         mAudioStreamingManager = new AudioStreamingManager(mPlaylistManager.getBroadcastModel(), BroadcastFormat.MP3,
             mUserPreferences);
         mAudioStreamingManager.start();
@@ -190,6 +196,7 @@ public class SDRTrunk implements Listener<TunerEvent>
 
         MapService mapService = new MapService(mIconModel);
         mPlaylistManager.getChannelProcessingManager().addDecodeEventListener(mapService);
+        mPlaylistManager.getChannelProcessingManager().addDecodeEventListener(TimeShiftManager.getInstance());
 
         mControllerPanel = new ControllerPanel(mPlaylistManager, audioPlaybackManager, mIconModel, mapService,
             mSettingsManager, mSourceManager, mUserPreferences);
@@ -430,11 +437,15 @@ public class SDRTrunk implements Listener<TunerEvent>
         mJavaFxWindowManager.shutdown();
         mLog.info("Stopping channels ...");
         mPlaylistManager.getChannelProcessingManager().shutdown();
+        mLog.info("Saving playlist ...");
+        mPlaylistManager.shutdown();
         mAudioRecordingManager.stop();
+        MessageExportServer.getInstance().stop();
 
         mLog.info("Stopping spectral display ...");
         mSpectralPanel.clearTuner();
         mSourceManager.shutdown();
+        ReusableBufferPool.logStatistics();
         mLog.info("Shutdown complete.");
         mApplicationLog.stop();
     }
@@ -34,6 +34,7 @@ import io.github.dsheirer.alias.action.AliasActionType;
 import io.github.dsheirer.alias.action.beep.BeepAction;
 import io.github.dsheirer.alias.action.clip.ClipAction;
 import io.github.dsheirer.alias.action.script.ScriptAction;
+import io.github.dsheirer.alias.action.timeshift.TimeShiftCaptureAction;
 import io.github.dsheirer.alias.id.AliasID;
 import io.github.dsheirer.alias.id.AliasIDType;
 import io.github.dsheirer.alias.id.broadcast.BroadcastChannel;
@@ -540,7 +541,7 @@ public class AliasItemEditor extends Editor<Alias>
             mAddActionButton.setDisable(true);
             mAddActionButton.setMaxWidth(Double.MAX_VALUE);
             mAddActionButton.getItems().addAll(new AddAudioClipActionItem(), new AddBeepActionItem(),
-                new AddScriptActionItem());
+                new AddScriptActionItem(), new AddTimeShiftCaptureActionItem());
         }
 
         return mAddActionButton;
@@ -1383,6 +1384,28 @@ public class AliasItemEditor extends Editor<Alias>
         }
     }
 
+    /**
+     * Menu item to add a new tuner time-shift capture alias action
+     */
+    public class AddTimeShiftCaptureActionItem extends MenuItem
+    {
+        public AddTimeShiftCaptureActionItem()
+        {
+            super("Capture Tuner I/Q");
+
+            setOnAction(event -> {
+                if(getItem() != null)
+                {
+                    TimeShiftCaptureAction timeShiftCaptureAction = new TimeShiftCaptureAction();
+                    getActionsList().getItems().add(timeShiftCaptureAction);
+                    getActionsList().getSelectionModel().select(timeShiftCaptureAction);
+                    getActionsList().scrollTo(timeShiftCaptureAction);
+                    modifiedProperty().set(true);
+                }
+            });
+        }
+    }
+
     /**
      * Menu item to add a new audio clip alias action
      */
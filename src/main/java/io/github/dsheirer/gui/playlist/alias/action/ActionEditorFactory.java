@@ -41,6 +41,8 @@ public class ActionEditorFactory
                 return new ClipEditor();
             case SCRIPT:
                 return new ScriptEditor();
+            case TIME_SHIFT_CAPTURE:
+                return new TimeShiftCaptureEditor();
             default:
                 return new UnrecognizedActionEditor();
         }
@@ -0,0 +1,52 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.gui.playlist.alias.action;
+
+import io.github.dsheirer.alias.action.timeshift.TimeShiftCaptureAction;
+import javafx.scene.control.Label;
+
+/**
+ * Tuner time-shift capture action editor
+ */
+public class TimeShiftCaptureEditor extends ActionEditor<TimeShiftCaptureAction>
+{
+    public TimeShiftCaptureEditor()
+    {
+        Label label = new Label("Captures the I/Q time-shift buffer of each tuner to the recordings folder when this " +
+            "alias is active.  Time-shift buffering must be enabled in the recording preferences.");
+        label.setWrapText(true);
+        getChildren().add(label);
+    }
+
+    @Override
+    public void save()
+    {
+        //no-op
+    }
+
+    @Override
+    public void dispose()
+    {
+        //no-op
+    }
+}
@@ -68,6 +68,8 @@ public class ChannelConfigurationEditorFactory
                 return new P25P1ConfigurationEditor(playlistManager, userPreferences);
             case P25_PHASE2:
                 return new P25P2ConfigurationEditor(playlistManager, userPreferences);
+            case PROTOCOL_SCANNER:
+                return new ProtocolScannerConfigurationEditor(playlistManager, userPreferences);
             default:
                 if(decoderType != null && !mLoggedUnrecognizedTypes.contains(decoderType))
                 {
@@ -0,0 +1,259 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.gui.playlist.channel;
+
+import io.github.dsheirer.gui.playlist.eventlog.EventLogConfigurationEditor;
+import io.github.dsheirer.gui.playlist.record.RecordConfigurationEditor;
+import io.github.dsheirer.gui.playlist.source.FrequencyEditor;
+import io.github.dsheirer.gui.playlist.source.SourceConfigurationEditor;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.config.AuxDecodeConfiguration;
+import io.github.dsheirer.module.decode.config.DecodeConfiguration;
+import io.github.dsheirer.module.decode.scanner.DecodeConfigProtocolScanner;
+import io.github.dsheirer.module.log.EventLogType;
+import io.github.dsheirer.module.log.config.EventLogConfiguration;
+import io.github.dsheirer.playlist.PlaylistManager;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.RecorderType;
+import io.github.dsheirer.record.config.RecordConfiguration;
+import io.github.dsheirer.source.config.SourceConfiguration;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.TitledPane;
+import javafx.scene.layout.VBox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocol scanner channel configuration editor
+ */
+public class ProtocolScannerConfigurationEditor extends ChannelConfigurationEditor
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ProtocolScannerConfigurationEditor.class);
+    private TitledPane mDecoderPane;
+    private TitledPane mEventLogPane;
+    private TitledPane mRecordPane;
+    private TitledPane mSourcePane;
+    private SourceConfigurationEditor mSourceConfigurationEditor;
+    private EventLogConfigurationEditor mEventLogConfigurationEditor;
+    private RecordConfigurationEditor mRecordConfigurationEditor;
+
+    /**
+     * Constructs an instance
+     * @param playlistManager
+     * @param userPreferences
+     */
+    public ProtocolScannerConfigurationEditor(PlaylistManager playlistManager, UserPreferences userPreferences)
+    {
+        super(playlistManager, userPreferences);
+        getTitledPanesBox().getChildren().add(getSourcePane());
+        getTitledPanesBox().getChildren().add(getDecoderPane());
+        getTitledPanesBox().getChildren().add(getEventLogPane());
+        getTitledPanesBox().getChildren().add(getRecordPane());
+    }
+
+    @Override
+    public DecoderType getDecoderType()
+    {
+        return DecoderType.PROTOCOL_SCANNER;
+    }
+
+    private TitledPane getSourcePane()
+    {
+        if(mSourcePane == null)
+        {
+            mSourcePane = new TitledPane("Source", getSourceConfigurationEditor());
+            mSourcePane.setExpanded(true);
+        }
+
+        return mSourcePane;
+    }
+
+    private TitledPane getDecoderPane()
+    {
+        if(mDecoderPane == null)
+        {
+            mDecoderPane = new TitledPane();
+            mDecoderPane.setText("Decoder: Protocol Scanner (P25 Phase 1, P25 Phase 2 and DMR)");
+            mDecoderPane.setExpanded(false);
+            mDecoderPane.setDisable(true);
+        }
+
+        return mDecoderPane;
+    }
+
+    private TitledPane getEventLogPane()
+    {
+        if(mEventLogPane == null)
+        {
+            mEventLogPane = new TitledPane("Logging", getEventLogConfigurationEditor());
+            mEventLogPane.setExpanded(false);
+        }
+
+        return mEventLogPane;
+    }
+
+    private TitledPane getRecordPane()
+    {
+        if(mRecordPane == null)
+        {
+            mRecordPane = new TitledPane();
+            mRecordPane.setText("Recording");
+            mRecordPane.setExpanded(false);
+
+            Label notice = new Label("Note: the protocol scanner does not produce call audio");
+            notice.setPadding(new Insets(10, 10, 0, 10));
+
+            VBox vBox = new VBox();
+            vBox.getChildren().addAll(getRecordConfigurationEditor(), notice);
+
+            mRecordPane.setContent(vBox);
+        }
+
+        return mRecordPane;
+    }
+
+    private SourceConfigurationEditor getSourceConfigurationEditor()
+    {
+        if(mSourceConfigurationEditor == null)
+        {
+            mSourceConfigurationEditor = new FrequencyEditor(getTunerModel());
+
+            //Add a listener so that we can push change notifications up to this editor
+            mSourceConfigurationEditor.modifiedProperty()
+                .addListener((observable, oldValue, newValue) -> modifiedProperty().set(true));
+        }
+
+        return mSourceConfigurationEditor;
+    }
+
+    private EventLogConfigurationEditor getEventLogConfigurationEditor()
+    {
+        if(mEventLogConfigurationEditor == null)
+        {
+            List<EventLogType> types = new ArrayList<>();
+            types.add(EventLogType.CALL_EVENT);
+            types.add(EventLogType.DECODED_MESSAGE);
+
+            mEventLogConfigurationEditor = new EventLogConfigurationEditor(types);
+            mEventLogConfigurationEditor.setPadding(new Insets(5,5,5,5));
+            mEventLogConfigurationEditor.modifiedProperty().addListener((observable, oldValue, newValue) -> modifiedProperty().set(true));
+        }
+
+        return mEventLogConfigurationEditor;
+    }
+
+    private RecordConfigurationEditor getRecordConfigurationEditor()
+    {
+        if(mRecordConfigurationEditor == null)
+        {
+            List<RecorderType> types = new ArrayList<>();
+            types.add(RecorderType.BASEBAND);
+            mRecordConfigurationEditor = new RecordConfigurationEditor(types);
+            mRecordConfigurationEditor.setDisable(true);
+            mRecordConfigurationEditor.modifiedProperty()
+                .addListener((observable, oldValue, newValue) -> modifiedProperty().set(true));
+        }
+
+        return mRecordConfigurationEditor;
+    }
+
+    @Override
+    protected void setDecoderConfiguration(DecodeConfiguration config)
+    {
+    }
+
+    @Override
+    protected void saveDecoderConfiguration()
+    {
+        if(!(getItem().getDecodeConfiguration() instanceof DecodeConfigProtocolScanner))
+        {
+            getItem().setDecodeConfiguration(new DecodeConfigProtocolScanner());
+        }
+    }
+
+    @Override
+    protected void setEventLogConfiguration(EventLogConfiguration config)
+    {
+        getEventLogConfigurationEditor().setItem(config);
+    }
+
+    @Override
+    protected void saveEventLogConfiguration()
+    {
+        getEventLogConfigurationEditor().save();
+
+        if(getEventLogConfigurationEditor().getItem().getLoggers().isEmpty())
+        {
+            getItem().setEventLogConfiguration(null);
+        }
+        else
+        {
+            getItem().setEventLogConfiguration(getEventLogConfigurationEditor().getItem());
+        }
+    }
+
+    @Override
+    protected void setAuxDecoderConfiguration(AuxDecodeConfiguration config)
+    {
+        //Auxiliary decoders are not supported - the protocol scanner does not produce demodulated audio
+    }
+
+    @Override
+    protected void saveAuxDecoderConfiguration()
+    {
+        getItem().setAuxDecodeConfiguration(null);
+    }
+
+    @Override
+    protected void setRecordConfiguration(RecordConfiguration config)
+    {
+        getRecordConfigurationEditor().setDisable(config == null);
+        getRecordConfigurationEditor().setItem(config);
+    }
+
+    @Override
+    protected void saveRecordConfiguration()
+    {
+        getRecordConfigurationEditor().save();
+        RecordConfiguration config = getRecordConfigurationEditor().getItem();
+        getItem().setRecordConfiguration(config);
+    }
+
+    @Override
+    protected void setSourceConfiguration(SourceConfiguration config)
+    {
+        getSourceConfigurationEditor().setSourceConfiguration(config);
+    }
+
+    @Override
+    protected void saveSourceConfiguration()
+    {
+        getSourceConfigurationEditor().save();
+        SourceConfiguration sourceConfiguration = getSourceConfigurationEditor().getSourceConfiguration();
+        getItem().setSourceConfiguration(sourceConfiguration);
+    }
+}
@@ -20,8 +20,10 @@
 package io.github.dsheirer.gui.preference;
 
 import io.github.dsheirer.gui.preference.decoder.JmbeLibraryPreferenceEditor;
+import io.github.dsheirer.gui.preference.decoder.RemoteDecodePreferenceEditor;
 import io.github.dsheirer.gui.preference.directory.DirectoryPreferenceEditor;
 import io.github.dsheirer.gui.preference.duplicate.DuplicateCallPreferenceEditor;
+import io.github.dsheirer.gui.preference.export.MessageExportPreferenceEditor;
 import io.github.dsheirer.gui.preference.playback.PlaybackPreferenceEditor;
 import io.github.dsheirer.gui.preference.record.RecordPreferenceEditor;
 import io.github.dsheirer.gui.preference.tuner.TunerPreferenceEditor;
@@ -49,6 +51,10 @@ public class PreferenceEditorFactory
                 return new DirectoryPreferenceEditor(userPreferences);
             case JMBE_LIBRARY:
                 return new JmbeLibraryPreferenceEditor(userPreferences);
+            case MESSAGE_EXPORT:
+                return new MessageExportPreferenceEditor(userPreferences);
+            case REMOTE_DECODE:
+                return new RemoteDecodePreferenceEditor(userPreferences);
             case SOURCE_TUNER_CHANNELIZER:
                 return new TunerPreferenceEditor(userPreferences);
             case TALKGROUP_FORMAT:
@@ -27,6 +27,8 @@ public enum PreferenceEditorType
     CHANNEL_EVENT("Channel Events"),
     DIRECTORY("Directories"),
     JMBE_LIBRARY("JMBE Audio Library"),
+    MESSAGE_EXPORT("Message Export"),
+    REMOTE_DECODE("Remote Decoding"),
     AUDIO_RECORD("Record"),
     AUDIO_OUTPUT("Output/Tones"),
     AUDIO_DUPLICATE_CALL_DETECTION("Duplicate Calls"),
@@ -175,6 +175,8 @@ public class UserPreferencesEditor extends BorderPane
 
             TreeItem<String> decoderItem = new TreeItem<>("Decoder");
             decoderItem.getChildren().add(new TreeItem(PreferenceEditorType.JMBE_LIBRARY));
+            decoderItem.getChildren().add(new TreeItem(PreferenceEditorType.MESSAGE_EXPORT));
+            decoderItem.getChildren().add(new TreeItem(PreferenceEditorType.REMOTE_DECODE));
             treeRoot.getChildren().add(decoderItem);
             decoderItem.setExpanded(true);
 
@@ -0,0 +1,171 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.gui.preference.decoder;
+
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.decoder.RemoteDecodePreference;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import org.controlsfx.control.ToggleSwitch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Preference settings for distributing traffic channel decoding to remote decode workers
+ */
+public class RemoteDecodePreferenceEditor extends HBox
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RemoteDecodePreferenceEditor.class);
+    private RemoteDecodePreference mPreference;
+    private GridPane mEditorPane;
+    private ToggleSwitch mEnabledSwitch;
+    private TextField mWorkersTextField;
+    private ToggleSwitch mQuantizeSwitch;
+    private Spinner<Integer> mBatchIntervalSpinner;
+
+    /**
+     * Constructs an instance
+     */
+    public RemoteDecodePreferenceEditor(UserPreferences userPreferences)
+    {
+        mPreference = userPreferences.getRemoteDecodePreference();
+
+        HBox.setHgrow(getEditorPane(), Priority.ALWAYS);
+        getChildren().add(getEditorPane());
+    }
+
+    private GridPane getEditorPane()
+    {
+        if(mEditorPane == null)
+        {
+            int row = 0;
+            mEditorPane = new GridPane();
+            mEditorPane.setPadding(new Insets(10, 10, 10, 10));
+            mEditorPane.setHgap(10);
+            mEditorPane.setVgap(10);
+
+            Label descriptionLabel = new Label("Remote Decoding.  Streams traffic channel samples to remote decode " +
+                "worker processes and receives the decoded events and audio.  Channels are assigned to the least " +
+                "loaded worker and are decoded locally when no worker is available.  Changes take effect for " +
+                "channels started after the change.");
+            descriptionLabel.setWrapText(true);
+            GridPane.setConstraints(descriptionLabel, 0, row, 2, 1);
+            mEditorPane.getChildren().add(descriptionLabel);
+
+            GridPane.setConstraints(getEnabledSwitch(), 0, ++row);
+            mEditorPane.getChildren().add(getEnabledSwitch());
+
+            Label enabledLabel = new Label("Enable remote decoding of traffic channels");
+            GridPane.setConstraints(enabledLabel, 1, row);
+            mEditorPane.getChildren().add(enabledLabel);
+
+            GridPane.setConstraints(getWorkersTextField(), 0, ++row);
+            mEditorPane.getChildren().add(getWorkersTextField());
+
+            Label workersLabel = new Label("Decode workers (comma separated host:port list)");
+            GridPane.setConstraints(workersLabel, 1, row);
+            mEditorPane.getChildren().add(workersLabel);
+
+            GridPane.setConstraints(getQuantizeSwitch(), 0, ++row);
+            mEditorPane.getChildren().add(getQuantizeSwitch());
+
+            Label quantizeLabel = new Label("Send samples as 16-bit integers (half the network bandwidth)");
+            GridPane.setConstraints(quantizeLabel, 1, row);
+            mEditorPane.getChildren().add(quantizeLabel);
+
+            GridPane.setConstraints(getBatchIntervalSpinner(), 0, ++row);
+            mEditorPane.getChildren().add(getBatchIntervalSpinner());
+
+            Label batchIntervalLabel = new Label("Sample batch interval (milliseconds)");
+            GridPane.setConstraints(batchIntervalLabel, 1, row);
+            mEditorPane.getChildren().add(batchIntervalLabel);
+        }
+
+        return mEditorPane;
+    }
+
+    private ToggleSwitch getEnabledSwitch()
+    {
+        if(mEnabledSwitch == null)
+        {
+            mEnabledSwitch = new ToggleSwitch();
+            mEnabledSwitch.setSelected(mPreference.isEnabled());
+            mEnabledSwitch.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setEnabled(newValue));
+        }
+
+        return mEnabledSwitch;
+    }
+
+    private TextField getWorkersTextField()
+    {
+        if(mWorkersTextField == null)
+        {
+            mWorkersTextField = new TextField(mPreference.getWorkers());
+            mWorkersTextField.setPrefWidth(250);
+            mWorkersTextField.disableProperty().bind(getEnabledSwitch().selectedProperty().not());
+            mWorkersTextField.focusedProperty().addListener((observable, oldValue, focused) -> {
+                if(!focused)
+                {
+                    mPreference.setWorkers(mWorkersTextField.getText().trim());
+                }
+            });
+        }
+
+        return mWorkersTextField;
+    }
+
+    private ToggleSwitch getQuantizeSwitch()
+    {
+        if(mQuantizeSwitch == null)
+        {
+            mQuantizeSwitch = new ToggleSwitch();
+            mQuantizeSwitch.setSelected(mPreference.isQuantize());
+            mQuantizeSwitch.disableProperty().bind(getEnabledSwitch().selectedProperty().not());
+            mQuantizeSwitch.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setQuantize(newValue));
+        }
+
+        return mQuantizeSwitch;
+    }
+
+    private Spinner<Integer> getBatchIntervalSpinner()
+    {
+        if(mBatchIntervalSpinner == null)
+        {
+            mBatchIntervalSpinner = new Spinner<>(1, RemoteDecodePreference.MAXIMUM_BATCH_INTERVAL_MILLISECONDS,
+                mPreference.getBatchInterval());
+            mBatchIntervalSpinner.setEditable(true);
+            mBatchIntervalSpinner.setPrefWidth(100);
+            mBatchIntervalSpinner.disableProperty().bind(getEnabledSwitch().selectedProperty().not());
+            mBatchIntervalSpinner.valueProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setBatchInterval(newValue));
+        }
+
+        return mBatchIntervalSpinner;
+    }
+}
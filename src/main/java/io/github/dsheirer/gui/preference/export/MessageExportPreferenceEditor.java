@@ -0,0 +1,218 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.gui.preference.export;
+
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.export.MessageExportPreference;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.Separator;
+import javafx.scene.control.Spinner;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import org.controlsfx.control.ToggleSwitch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Preference settings for the decoded message export stream
+ */
+public class MessageExportPreferenceEditor extends HBox
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageExportPreferenceEditor.class);
+    private MessageExportPreference mPreference;
+    private GridPane mEditorPane;
+    private ToggleSwitch mEnabledSwitch;
+    private Spinner<Integer> mTcpPortSpinner;
+    private ToggleSwitch mMessageTextSwitch;
+    private ToggleSwitch mMulticastSwitch;
+    private TextField mMulticastGroupTextField;
+    private Spinner<Integer> mMulticastPortSpinner;
+
+    /**
+     * Constructs an instance
+     */
+    public MessageExportPreferenceEditor(UserPreferences userPreferences)
+    {
+        mPreference = userPreferences.getMessageExportPreference();
+
+        HBox.setHgrow(getEditorPane(), Priority.ALWAYS);
+        getChildren().add(getEditorPane());
+    }
+
+    private GridPane getEditorPane()
+    {
+        if(mEditorPane == null)
+        {
+            int row = 0;
+            mEditorPane = new GridPane();
+            mEditorPane.setPadding(new Insets(10, 10, 10, 10));
+            mEditorPane.setHgap(10);
+            mEditorPane.setVgap(10);
+
+            Label descriptionLabel = new Label("Message Export.  Streams decoded messages and decode events from " +
+                "all channels to external applications using a compact binary format.  Changes take effect for " +
+                "channels started after the change.");
+            descriptionLabel.setWrapText(true);
+            GridPane.setConstraints(descriptionLabel, 0, row, 2, 1);
+            mEditorPane.getChildren().add(descriptionLabel);
+
+            GridPane.setConstraints(getEnabledSwitch(), 0, ++row);
+            mEditorPane.getChildren().add(getEnabledSwitch());
+
+            Label enabledLabel = new Label("Enable message export");
+            GridPane.setConstraints(enabledLabel, 1, row);
+            mEditorPane.getChildren().add(enabledLabel);
+
+            GridPane.setConstraints(getTcpPortSpinner(), 0, ++row);
+            mEditorPane.getChildren().add(getTcpPortSpinner());
+
+            Label tcpPortLabel = new Label("TCP port for client connections");
+            GridPane.setConstraints(tcpPortLabel, 1, row);
+            mEditorPane.getChildren().add(tcpPortLabel);
+
+            GridPane.setConstraints(getMessageTextSwitch(), 0, ++row);
+            mEditorPane.getChildren().add(getMessageTextSwitch());
+
+            Label messageTextLabel = new Label("Include decoded message text with the message bits");
+            GridPane.setConstraints(messageTextLabel, 1, row);
+            mEditorPane.getChildren().add(messageTextLabel);
+
+            Separator separator = new Separator();
+            GridPane.setHgrow(separator, Priority.ALWAYS);
+            GridPane.setConstraints(separator, 0, ++row, 2, 1);
+            mEditorPane.getChildren().add(separator);
+
+            GridPane.setConstraints(getMulticastSwitch(), 0, ++row);
+            mEditorPane.getChildren().add(getMulticastSwitch());
+
+            Label multicastLabel = new Label("Also send each batch to a UDP multicast group");
+            GridPane.setConstraints(multicastLabel, 1, row);
+            mEditorPane.getChildren().add(multicastLabel);
+
+            GridPane.setConstraints(getMulticastGroupTextField(), 0, ++row);
+            mEditorPane.getChildren().add(getMulticastGroupTextField());
+
+            Label groupLabel = new Label("Multicast group address");
+            GridPane.setConstraints(groupLabel, 1, row);
+            mEditorPane.getChildren().add(groupLabel);
+
+            GridPane.setConstraints(getMulticastPortSpinner(), 0, ++row);
+            mEditorPane.getChildren().add(getMulticastPortSpinner());
+
+            Label multicastPortLabel = new Label("Multicast port");
+            GridPane.setConstraints(multicastPortLabel, 1, row);
+            mEditorPane.getChildren().add(multicastPortLabel);
+        }
+
+        return mEditorPane;
+    }
+
+    private ToggleSwitch getEnabledSwitch()
+    {
+        if(mEnabledSwitch == null)
+        {
+            mEnabledSwitch = new ToggleSwitch();
+            mEnabledSwitch.setSelected(mPreference.isEnabled());
+            mEnabledSwitch.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setEnabled(newValue));
+        }
+
+        return mEnabledSwitch;
+    }
+
+    private Spinner<Integer> getTcpPortSpinner()
+    {
+        if(mTcpPortSpinner == null)
+        {
+            mTcpPortSpinner = new Spinner<>(1, 65535, mPreference.getTcpPort());
+            mTcpPortSpinner.setEditable(true);
+            mTcpPortSpinner.setPrefWidth(100);
+            mTcpPortSpinner.valueProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setTcpPort(newValue));
+        }
+
+        return mTcpPortSpinner;
+    }
+
+    private ToggleSwitch getMessageTextSwitch()
+    {
+        if(mMessageTextSwitch == null)
+        {
+            mMessageTextSwitch = new ToggleSwitch();
+            mMessageTextSwitch.setSelected(mPreference.isMessageTextEnabled());
+            mMessageTextSwitch.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setMessageTextEnabled(newValue));
+        }
+
+        return mMessageTextSwitch;
+    }
+
+    private ToggleSwitch getMulticastSwitch()
+    {
+        if(mMulticastSwitch == null)
+        {
+            mMulticastSwitch = new ToggleSwitch();
+            mMulticastSwitch.setSelected(mPreference.isMulticastEnabled());
+            mMulticastSwitch.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setMulticastEnabled(newValue));
+        }
+
+        return mMulticastSwitch;
+    }
+
+    private TextField getMulticastGroupTextField()
+    {
+        if(mMulticastGroupTextField == null)
+        {
+            mMulticastGroupTextField = new TextField(mPreference.getMulticastGroup());
+            mMulticastGroupTextField.setPrefWidth(100);
+            mMulticastGroupTextField.disableProperty().bind(getMulticastSwitch().selectedProperty().not());
+            mMulticastGroupTextField.focusedProperty().addListener((observable, oldValue, focused) -> {
+                if(!focused)
+                {
+                    mPreference.setMulticastGroup(mMulticastGroupTextField.getText().trim());
+                }
+            });
+        }
+
+        return mMulticastGroupTextField;
+    }
+
+    private Spinner<Integer> getMulticastPortSpinner()
+    {
+        if(mMulticastPortSpinner == null)
+        {
+            mMulticastPortSpinner = new Spinner<>(1, 65535, mPreference.getMulticastPort());
+            mMulticastPortSpinner.setEditable(true);
+            mMulticastPortSpinner.setPrefWidth(100);
+            mMulticastPortSpinner.disableProperty().bind(getMulticastSwitch().selectedProperty().not());
+            mMulticastPortSpinner.valueProperty()
+                .addListener((observable, oldValue, newValue) -> mPreference.setMulticastPort(newValue));
+        }
+
+        return mMulticastPortSpinner;
+    }
+}
@@ -25,8 +25,11 @@ import io.github.dsheirer.record.RecordFormat;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.geometry.Insets;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
+import javafx.scene.control.Separator;
+import javafx.scene.control.Spinner;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
@@ -43,6 +46,12 @@ public class RecordPreferenceEditor extends HBox
     private RecordPreference mRecordPreference;
     private GridPane mEditorPane;
     private ComboBox<RecordFormat> mRecordFormatComboBox;
+    private CheckBox mArchiveCheckBox;
+    private CheckBox mMBECompressionCheckBox;
+    private CheckBox mTimeShiftCheckBox;
+    private Spinner<Integer> mTimeShiftDurationSpinner;
+    private Spinner<Integer> mTimeShiftPostTriggerSpinner;
+    private CheckBox mTimeShiftEmergencyCheckBox;
 
     public RecordPreferenceEditor(UserPreferences userPreferences)
     {
@@ -64,6 +73,22 @@ public class RecordPreferenceEditor extends HBox
             mEditorPane.add(label, 0, 0);
 
             mEditorPane.add(getRecordFormatComboBox(), 1, 0);
+
+            mEditorPane.add(getArchiveCheckBox(), 0, 1, 2, 1);
+            mEditorPane.add(getMBECompressionCheckBox(), 0, 2, 2, 1);
+
+            mEditorPane.add(new Separator(), 0, 3, 2, 1);
+            mEditorPane.add(getTimeShiftCheckBox(), 0, 4, 2, 1);
+
+            Label durationLabel = new Label("Time-Shift Duration (seconds):");
+            mEditorPane.add(durationLabel, 0, 5);
+            mEditorPane.add(getTimeShiftDurationSpinner(), 1, 5);
+
+            Label postTriggerLabel = new Label("Capture Delay After Trigger (seconds):");
+            mEditorPane.add(postTriggerLabel, 0, 6);
+            mEditorPane.add(getTimeShiftPostTriggerSpinner(), 1, 6);
+
+            mEditorPane.add(getTimeShiftEmergencyCheckBox(), 0, 7, 2, 1);
         }
 
         return mEditorPane;
@@ -88,4 +113,89 @@ public class RecordPreferenceEditor extends HBox
 
         return mRecordFormatComboBox;
     }
+
+    private CheckBox getArchiveCheckBox()
+    {
+        if(mArchiveCheckBox == null)
+        {
+            mArchiveCheckBox = new CheckBox("Store audio recordings in call archive instead of individual files");
+            mArchiveCheckBox.setSelected(mRecordPreference.isAudioRecordArchive());
+            mArchiveCheckBox.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setAudioRecordArchive(newValue));
+        }
+
+        return mArchiveCheckBox;
+    }
+
+    private CheckBox getMBECompressionCheckBox()
+    {
+        if(mMBECompressionCheckBox == null)
+        {
+            mMBECompressionCheckBox = new CheckBox("Compress MBE call sequence recordings");
+            mMBECompressionCheckBox.setSelected(mRecordPreference.isMBERecordCompressed());
+            mMBECompressionCheckBox.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setMBERecordCompressed(newValue));
+        }
+
+        return mMBECompressionCheckBox;
+    }
+
+    private CheckBox getTimeShiftCheckBox()
+    {
+        if(mTimeShiftCheckBox == null)
+        {
+            mTimeShiftCheckBox = new CheckBox("Buffer tuner I/Q samples for triggered time-shift capture");
+            mTimeShiftCheckBox.setSelected(mRecordPreference.isTimeShiftEnabled());
+            mTimeShiftCheckBox.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setTimeShiftEnabled(newValue));
+        }
+
+        return mTimeShiftCheckBox;
+    }
+
+    private Spinner<Integer> getTimeShiftDurationSpinner()
+    {
+        if(mTimeShiftDurationSpinner == null)
+        {
+            mTimeShiftDurationSpinner = new Spinner<>(1, RecordPreference.MAXIMUM_TIME_SHIFT_DURATION_SECONDS,
+                mRecordPreference.getTimeShiftDuration());
+            mTimeShiftDurationSpinner.setEditable(true);
+            mTimeShiftDurationSpinner.setPrefWidth(100);
+            mTimeShiftDurationSpinner.disableProperty().bind(getTimeShiftCheckBox().selectedProperty().not());
+            mTimeShiftDurationSpinner.valueProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setTimeShiftDuration(newValue));
+        }
+
+        return mTimeShiftDurationSpinner;
+    }
+
+    private Spinner<Integer> getTimeShiftPostTriggerSpinner()
+    {
+        if(mTimeShiftPostTriggerSpinner == null)
+        {
+            mTimeShiftPostTriggerSpinner = new Spinner<>(0, RecordPreference.MAXIMUM_TIME_SHIFT_DURATION_SECONDS,
+                mRecordPreference.getTimeShiftPostTrigger());
+            mTimeShiftPostTriggerSpinner.setEditable(true);
+            mTimeShiftPostTriggerSpinner.setPrefWidth(100);
+            mTimeShiftPostTriggerSpinner.disableProperty().bind(getTimeShiftCheckBox().selectedProperty().not());
+            mTimeShiftPostTriggerSpinner.valueProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setTimeShiftPostTrigger(newValue));
+        }
+
+        return mTimeShiftPostTriggerSpinner;
+    }
+
+    private CheckBox getTimeShiftEmergencyCheckBox()
+    {
+        if(mTimeShiftEmergencyCheckBox == null)
+        {
+            mTimeShiftEmergencyCheckBox = new CheckBox("Capture time-shift buffers when an emergency is decoded");
+            mTimeShiftEmergencyCheckBox.setSelected(mRecordPreference.isTimeShiftEmergencyTrigger());
+            mTimeShiftEmergencyCheckBox.disableProperty().bind(getTimeShiftCheckBox().selectedProperty().not());
+            mTimeShiftEmergencyCheckBox.selectedProperty()
+                .addListener((observable, oldValue, newValue) -> mRecordPreference.setTimeShiftEmergencyTrigger(newValue));
+        }
+
+        return mTimeShiftEmergencyCheckBox;
+    }
 }
@@ -23,21 +23,37 @@ import io.github.dsheirer.identifier.configuration.AliasListConfigurationIdentif
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * (Immutable) Collection of identifiers with convenient accessor methods
  *
+ * Identifiers are held in insertion order along with a slot key for each identifier that combines the identifier
+ * class, form and role.  Accessor methods operate on an immutable snapshot of the collection that is created when the
+ * collection changes, on first request.  The snapshot resolves single identifier lookups by comparing slot keys and
+ * builds each filtered (class, form and/or role) list once, so repeated requests against an unchanged collection do
+ * not scan the identifiers or allocate new lists.  Lists returned by the accessor methods are unmodifiable.
+ *
  * @see MutableIdentifierCollection for the mutable version of this class
  */
 public class IdentifierCollection
 {
     private final static Logger mLog = LoggerFactory.getLogger(IdentifierCollection.class);
-    protected List<Identifier> mIdentifiers = new CopyOnWriteArrayList<>();
+    private static final Identifier[] EMPTY_IDENTIFIERS = new Identifier[0];
+    private static final int[] EMPTY_SLOT_KEYS = new int[0];
+    private static final int CLASS_COUNT = IdentifierClass.values().length + 1;
+    private static final int FORM_COUNT = Form.values().length + 1;
+    private static final int ROLE_COUNT = Role.values().length + 1;
+
+    //Identifiers and slot keys in insertion order.  Access is guarded by this collection's monitor.
+    private Identifier[] mIdentifiers = EMPTY_IDENTIFIERS;
+    private int[] mSlotKeys = EMPTY_SLOT_KEYS;
+    private int mCount;
+    private volatile Snapshot mSnapshot;
+
     protected AliasListConfigurationIdentifier mAliasListConfigurationIdentifier;
     private int mTimeslot = 0;
 
@@ -72,7 +88,7 @@ public class IdentifierCollection
                 throw new IllegalArgumentException("Identifier cannot be null");
             }
 
-            mIdentifiers.add(identifier);
+            append(identifier);
 
             if(identifier instanceof AliasListConfigurationIdentifier)
             {
@@ -81,6 +97,26 @@ public class IdentifierCollection
         }
     }
 
+    /**
+     * Constructs an identifier collection that shares the immutable snapshot from another collection.
+     */
+    protected IdentifierCollection(IdentifierCollection collection)
+    {
+        Snapshot snapshot = collection.getSnapshot();
+        mIdentifiers = snapshot.mIdentifiers;
+        mSlotKeys = snapshot.mSlotKeys;
+        mCount = snapshot.mIdentifiers.length;
+        mSnapshot = snapshot;
+
+        for(Identifier identifier: snapshot.mIdentifiers)
+        {
+            if(identifier instanceof AliasListConfigurationIdentifier)
+            {
+                mAliasListConfigurationIdentifier = (AliasListConfigurationIdentifier)identifier;
+            }
+        }
+    }
+
     public int getTimeslot()
     {
         return mTimeslot;
@@ -109,101 +145,167 @@ public class IdentifierCollection
     }
 
     /**
-     * Immutable list of identifiers contained in this collection
+     * Slot key for the combination of identifier class, form and role, where a null value occupies index zero.
      */
-    public List<Identifier> getIdentifiers()
+    private static int getSlotKey(IdentifierClass identifierClass, Form form, Role role)
+    {
+        return ((ordinal(identifierClass) * FORM_COUNT) + ordinal(form)) * ROLE_COUNT + ordinal(role);
+    }
+
+    private static int getSlotKey(Identifier identifier)
+    {
+        return getSlotKey(identifier.getIdentifierClass(), identifier.getForm(), identifier.getRole());
+    }
+
+    private static int ordinal(Enum<?> value)
     {
-        return Collections.unmodifiableList(mIdentifiers);
+        return value == null ? 0 : value.ordinal() + 1;
     }
 
     /**
-     * Indicates if this collection has no identifiers
+     * Appends the identifier to the end of this collection.  Caller must hold this collection's monitor when the
+     * collection is shared across threads.
      */
-    public boolean isEmpty()
+    protected void append(Identifier identifier)
     {
-        return mIdentifiers.isEmpty();
+        if(mCount == mIdentifiers.length)
+        {
+            int capacity = Math.max(8, mCount * 2);
+            mIdentifiers = Arrays.copyOf(mIdentifiers, capacity);
+            mSlotKeys = Arrays.copyOf(mSlotKeys, capacity);
+        }
+
+        mIdentifiers[mCount] = identifier;
+        mSlotKeys[mCount] = getSlotKey(identifier);
+        mCount++;
+        mSnapshot = null;
     }
 
     /**
-     * Get a list of identifiers by identifier class from this collection.
+     * Removes the first identifier that is equal to the argument.  Caller must hold this collection's monitor when the
+     * collection is shared across threads.
      *
-     * @param identifierClass to match
-     * @return list of zero or more identifiers
+     * @return true if an identifier was removed
      */
-    public List<Identifier> getIdentifiers(IdentifierClass identifierClass)
+    protected boolean removeFirst(Identifier identifier)
     {
-        List<Identifier> identifiers = new ArrayList<>();
+        int index = indexOf(identifier);
 
-        for(Identifier identifier : mIdentifiers)
+        if(index < 0)
         {
-            if(identifier.getIdentifierClass() == identifierClass)
-            {
-                identifiers.add(identifier);
-            }
+            return false;
+        }
+
+        int trailing = mCount - index - 1;
+
+        if(trailing > 0)
+        {
+            System.arraycopy(mIdentifiers, index + 1, mIdentifiers, index, trailing);
+            System.arraycopy(mSlotKeys, index + 1, mSlotKeys, index, trailing);
         }
 
-        return identifiers;
+        mCount--;
+        mIdentifiers[mCount] = null;
+        mSnapshot = null;
+        return true;
     }
 
     /**
-     * Get a list of identifiers by form from this collection.
-     *
-     * @param form to match
-     * @return list of zero or more identifiers
+     * Index of the first identifier that is equal to the argument, or -1.  Caller must hold this collection's monitor
+     * when the collection is shared across threads.
      */
-    public List<Identifier> getIdentifiers(Form form)
+    protected int indexOf(Identifier identifier)
     {
-        List<Identifier> identifiers = new ArrayList<>();
+        if(identifier == null)
+        {
+            return -1;
+        }
+
+        int slotKey = getSlotKey(identifier);
 
-        for(Identifier identifier : mIdentifiers)
+        for(int x = 0; x < mCount; x++)
         {
-            if(identifier.getForm() == form)
+            if(mSlotKeys[x] == slotKey && identifier.equals(mIdentifiers[x]))
             {
-                identifiers.add(identifier);
+                return x;
             }
         }
 
-        return identifiers;
+        return -1;
     }
 
     /**
-     * Get a list of identifiers by role from this collection.
-     *
-     * @param role to match
-     * @return list of zero or more identifiers
+     * Immutable snapshot of the current identifiers.  A new snapshot is created after the collection changes, the
+     * first time that it is requested.
      */
-    public List<Identifier> getIdentifiers(Role role)
+    private Snapshot getSnapshot()
     {
-        List<Identifier> identifiers = new ArrayList<>();
+        Snapshot snapshot = mSnapshot;
 
-        for(Identifier identifier : mIdentifiers)
+        if(snapshot == null)
         {
-            try
+            synchronized(this)
             {
-                if(identifier.getRole() == role)
-                {
-                    identifiers.add(identifier);
-                }
-            }
-            catch(NullPointerException npe)
-            {
-                StringBuilder sb = new StringBuilder();
-                for(Identifier i : mIdentifiers)
+                snapshot = mSnapshot;
+
+                if(snapshot == null)
                 {
-                    if(i == null)
-                    {
-                        sb.append("Identifier: (null)").append("\n");
-                    }
-                    else
-                    {
-                        sb.append("Identifier: ").append(i).append(" Class:").append(i.getClass()).append("\n");
-                    }
+                    snapshot = new Snapshot(Arrays.copyOf(mIdentifiers, mCount), Arrays.copyOf(mSlotKeys, mCount));
+                    mSnapshot = snapshot;
                 }
-                mLog.warn("An identifier in a collection is somehow null ...\n" + sb);
             }
         }
 
-        return identifiers;
+        return snapshot;
+    }
+
+    /**
+     * Immutable list of identifiers contained in this collection
+     */
+    public List<Identifier> getIdentifiers()
+    {
+        return getSnapshot().mList;
+    }
+
+    /**
+     * Indicates if this collection has no identifiers
+     */
+    public boolean isEmpty()
+    {
+        return getSnapshot().mIdentifiers.length == 0;
+    }
+
+    /**
+     * Get a list of identifiers by identifier class from this collection.
+     *
+     * @param identifierClass to match
+     * @return list of zero or more identifiers
+     */
+    public List<Identifier> getIdentifiers(IdentifierClass identifierClass)
+    {
+        return getSnapshot().getIdentifiers(Filter.CLASS, identifierClass, null, null);
+    }
+
+    /**
+     * Get a list of identifiers by form from this collection.
+     *
+     * @param form to match
+     * @return list of zero or more identifiers
+     */
+    public List<Identifier> getIdentifiers(Form form)
+    {
+        return getSnapshot().getIdentifiers(Filter.FORM, null, form, null);
+    }
+
+    /**
+     * Get a list of identifiers by role from this collection.
+     *
+     * @param role to match
+     * @return list of zero or more identifiers
+     */
+    public List<Identifier> getIdentifiers(Role role)
+    {
+        return getSnapshot().getIdentifiers(Filter.ROLE, null, null, role);
     }
 
     /**
@@ -215,17 +317,7 @@ public class IdentifierCollection
      */
     public List<Identifier> getIdentifiers(IdentifierClass identifierClass, Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass && identifier.getRole() == role)
-            {
-                identifiers.add(identifier);
-            }
-        }
-
-        return identifiers;
+        return getSnapshot().getIdentifiers(Filter.CLASS_AND_ROLE, identifierClass, null, role);
     }
 
     /**
@@ -237,17 +329,7 @@ public class IdentifierCollection
      */
     public List<Identifier> getIdentifiers(IdentifierClass identifierClass, Form form)
     {
-        List<Identifier> identifiers = new ArrayList<>();
-
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass && identifier.getForm() == form)
-            {
-                identifiers.add(identifier);
-            }
-        }
-
-        return identifiers;
+        return getSnapshot().getIdentifiers(Filter.CLASS_AND_FORM, identifierClass, form, null);
     }
 
     /**
@@ -260,17 +342,7 @@ public class IdentifierCollection
      */
     public Identifier getIdentifier(IdentifierClass identifierClass, Form form, Role role)
     {
-        for(Identifier identifier : mIdentifiers)
-        {
-            if(identifier.getIdentifierClass() == identifierClass &&
-                identifier.getForm() == form &&
-                identifier.getRole() == role)
-            {
-                return identifier;
-            }
-        }
-
-        return null;
+        return getSnapshot().getIdentifier(getSlotKey(identifierClass, form, role));
     }
 
     /**
@@ -318,4 +390,124 @@ public class IdentifierCollection
         }
         return sb.toString();
     }
+
+    /**
+     * Immutable snapshot of the identifiers in a collection.
+     *
+     * Filtered lists are cached per filter combination in a linked list of immutable entries, so snapshots can be
+     * shared across threads without locking.  Concurrent requests for the same uncached filter may each build the
+     * (identical) list and the last one cached is retained.
+     */
+    private static class Snapshot
+    {
+        private final Identifier[] mIdentifiers;
+        private final int[] mSlotKeys;
+        private final List<Identifier> mList;
+        private volatile FilteredList mFilteredLists;
+
+        Snapshot(Identifier[] identifiers, int[] slotKeys)
+        {
+            mIdentifiers = identifiers;
+            mSlotKeys = slotKeys;
+            mList = identifiers.length == 0 ? Collections.emptyList() :
+                Collections.unmodifiableList(Arrays.asList(identifiers));
+        }
+
+        /**
+         * First identifier with the slot key, or null
+         */
+        Identifier getIdentifier(int slotKey)
+        {
+            for(int x = 0; x < mSlotKeys.length; x++)
+            {
+                if(mSlotKeys[x] == slotKey)
+                {
+                    return mIdentifiers[x];
+                }
+            }
+
+            return null;
+        }
+
+        /**
+         * Identifiers matching the filter, in collection order.
+         *
+         * @param filter to apply
+         * @param identifierClass to match when the filter includes the identifier class
+         * @param form to match when the filter includes the form
+         * @param role to match when the filter includes the role
+         */
+        List<Identifier> getIdentifiers(Filter filter, IdentifierClass identifierClass, Form form, Role role)
+        {
+            int filterKey = (filter.ordinal() * CLASS_COUNT * FORM_COUNT * ROLE_COUNT) +
+                getSlotKey(filter.mClass ? identifierClass : null, filter.mForm ? form : null,
+                    filter.mRole ? role : null);
+
+            for(FilteredList cached = mFilteredLists; cached != null; cached = cached.mNext)
+            {
+                if(cached.mFilterKey == filterKey)
+                {
+                    return cached.mIdentifiers;
+                }
+            }
+
+            int count = 0;
+            Identifier[] matches = new Identifier[mIdentifiers.length];
+
+            for(Identifier identifier: mIdentifiers)
+            {
+                if((!filter.mClass || identifier.getIdentifierClass() == identifierClass) &&
+                    (!filter.mForm || identifier.getForm() == form) &&
+                    (!filter.mRole || identifier.getRole() == role))
+                {
+                    matches[count++] = identifier;
+                }
+            }
+
+            List<Identifier> identifiers = count == 0 ? Collections.emptyList() :
+                Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(matches, count)));
+            mFilteredLists = new FilteredList(filterKey, identifiers, mFilteredLists);
+            return identifiers;
+        }
+    }
+
+    /**
+     * Cached filtered identifier list entry
+     */
+    private static class FilteredList
+    {
+        private final int mFilterKey;
+        private final List<Identifier> mIdentifiers;
+        private final FilteredList mNext;
+
+        FilteredList(int filterKey, List<Identifier> identifiers, FilteredList next)
+        {
+            mFilterKey = filterKey;
+            mIdentifiers = identifiers;
+            mNext = next;
+        }
+    }
+
+    /**
+     * Identifier attribute combinations that are supported as list filters
+     */
+    private enum Filter
+    {
+        CLASS(true, false, false),
+        FORM(false, true, false),
+        ROLE(false, false, true),
+        CLASS_AND_ROLE(true, false, true),
+        CLASS_AND_FORM(true, true, false);
+
+        private final boolean mClass;
+        private final boolean mForm;
+        private final boolean mRole;
+
+        Filter(boolean identifierClass, boolean form, boolean role)
+        {
+            mClass = identifierClass;
+            mForm = form;
+            mRole = role;
+        }
+    }
 }
@@ -124,17 +124,35 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     private void add(Identifier identifier)
     {
-        if(identifier.isValid() && !mIdentifiers.contains(identifier))
+        if(silentAddIdentifier(identifier))
         {
-            mIdentifiers.add(identifier);
             notifyAdd(identifier);
         }
+    }
+
+    /**
+     * Adds the identifier to this collection if not already contained in this collection.
+     *
+     * @param identifier to add
+     * @return true if the identifier was added
+     */
+    private synchronized boolean silentAddIdentifier(Identifier identifier)
+    {
+        boolean added = false;
+
+        if(identifier.isValid() && indexOf(identifier) < 0)
+        {
+            append(identifier);
+            added = true;
+        }
 
         //Retain a reference to the alias list identifier separately so that it can be accessed quickly.
         if(identifier instanceof AliasListConfigurationIdentifier)
         {
             mAliasListConfigurationIdentifier = (AliasListConfigurationIdentifier)identifier;
         }
+
+        return added;
     }
 
     /**
@@ -145,16 +163,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     private void silentAdd(Identifier identifier)
     {
-        if(identifier.isValid() && !mIdentifiers.contains(identifier))
-        {
-            mIdentifiers.add(identifier);
-        }
-
-        //Retain a reference to the alias list identifier separately so that it can be accessed quickly.
-        if(identifier instanceof AliasListConfigurationIdentifier)
-        {
-            mAliasListConfigurationIdentifier = (AliasListConfigurationIdentifier)identifier;
-        }
+        silentAddIdentifier(identifier);
     }
 
     /**
@@ -162,16 +171,10 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(Identifier identifier)
     {
-        if(mIdentifiers.remove(identifier))
+        if(silentRemoveIdentifier(identifier))
         {
             notifyRemove(identifier);
         }
-
-        //Remove the reference to the alias list identifier.
-        if(identifier instanceof AliasListConfigurationIdentifier)
-        {
-            mAliasListConfigurationIdentifier = null;
-        }
     }
 
     /**
@@ -179,13 +182,25 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void silentRemove(Identifier identifier)
     {
-        mIdentifiers.remove(identifier);
+        silentRemoveIdentifier(identifier);
+    }
+
+    /**
+     * Removes the identifier from this collection
+     *
+     * @return true if the identifier was removed
+     */
+    private synchronized boolean silentRemoveIdentifier(Identifier identifier)
+    {
+        boolean removed = removeFirst(identifier);
 
         //Remove the reference to the alias list identifier.
         if(identifier instanceof AliasListConfigurationIdentifier)
         {
             mAliasListConfigurationIdentifier = null;
         }
+
+        return removed;
     }
 
     /**
@@ -274,9 +289,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(IdentifierClass identifierClass)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers())
         {
             if(identifier.getIdentifierClass() == identifierClass)
             {
@@ -290,9 +303,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(Form form)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers())
         {
             if(identifier.getForm() == form)
             {
@@ -306,9 +317,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers())
         {
             if(identifier.getRole() == role)
             {
@@ -322,9 +331,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(IdentifierClass identifierClass, Form form, Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers())
         {
             if(identifier.getIdentifierClass() == identifierClass &&
                 identifier.getForm() == form &&
@@ -340,9 +347,7 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public void remove(IdentifierClass identifierClass, Role role)
     {
-        List<Identifier> identifiers = new ArrayList<>(mIdentifiers);
-
-        for(Identifier identifier: identifiers)
+        for(Identifier identifier: getIdentifiers())
         {
             if(identifier.getIdentifierClass() == identifierClass && identifier.getRole() == role)
             {
@@ -383,7 +388,8 @@ public class MutableIdentifierCollection extends IdentifierCollection implements
      */
     public IdentifierCollection copyOf()
     {
-        IdentifierCollection copy = new IdentifierCollection(getIdentifiers(), getTimeslot());
+        //The copy shares this collection's current immutable snapshot
+        IdentifierCollection copy = new IdentifierCollection(this);
         return copy;
     }
 }
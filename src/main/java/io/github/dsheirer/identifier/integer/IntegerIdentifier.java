@@ -29,14 +29,25 @@ import java.util.Objects;
 
 /**
  * Integer identifier base class.
+ *
+ * The hash code is calculated once at construction since identifiers are immutable and are hashed repeatedly in alias
+ * lookups and identifier collections.  Use an IntegerIdentifierInterner to obtain canonical instances so that equality
+ * tests between identifiers from successive messages resolve by identity.
  */
 public abstract class IntegerIdentifier extends Identifier<Integer>
 {
+    private final int mHashCode;
+
     public IntegerIdentifier(int value, IdentifierClass identifierClass, Form form, Role role)
     {
         super(value, identifierClass, form, role);
-    }
 
+        //Equivalent to Objects.hash(value, identifierClass, form, role) without boxing or varargs allocation
+        int hashCode = 31 + Integer.hashCode(value);
+        hashCode = 31 * hashCode + Objects.hashCode(identifierClass);
+        hashCode = 31 * hashCode + Objects.hashCode(form);
+        mHashCode = 31 * hashCode + Objects.hashCode(role);
+    }
 
     @Override
     public boolean equals(Object o)
@@ -52,6 +63,11 @@ public abstract class IntegerIdentifier extends Identifier<Integer>
 
         IntegerIdentifier that = (IntegerIdentifier)o;
 
+        if(mHashCode != that.mHashCode)
+        {
+            return false;
+        }
+
         return (getValue().intValue() == that.getValue().intValue()) &&
             getIdentifierClass() == that.getIdentifierClass() &&
             getForm() == that.getForm() &&
@@ -61,6 +77,6 @@ public abstract class IntegerIdentifier extends Identifier<Integer>
     @Override
     public int hashCode()
     {
-        return Objects.hash(getValue(), getIdentifierClass(), getForm(), getRole());
+        return mHashCode;
     }
 }
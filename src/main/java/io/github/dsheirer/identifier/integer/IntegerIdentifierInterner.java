@@ -0,0 +1,156 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+
+package io.github.dsheirer.identifier.integer;
+
+import io.github.dsheirer.identifier.Role;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interning factory for integer identifiers of a single protocol and form (e.g. APCO-25 talkgroups).  Returns the
+ * canonical instance for a value and role so that decoders reuse identifier instances across messages instead of
+ * creating a new identifier for each message.
+ *
+ * The interner is a fixed-size, two-way set associative cache: each value and role hashes to a pair of slots.  A new
+ * identifier is placed in the first slot of the pair, the previous occupant of the first slot moves to the second
+ * slot and the older occupant of the second slot is evicted.  Memory use is bounded by the slot count regardless of
+ * how many distinct identifiers a system produces, and lookups are lock-free.  An evicted identifier remains valid and
+ * still compares equal to a newer canonical instance for the same value and role.
+ *
+ * Identifiers are immutable (final fields), so instances are safely shared across decoder threads.
+ */
+public class IntegerIdentifierInterner<T extends IntegerIdentifier>
+{
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final AtomicReferenceArray<T> mSlots;
+    private final int mMask;
+    private final Factory<T> mFactory;
+
+    /**
+     * Constructs an instance
+     * @param capacity number of cache slots, rounded up to a power of two (minimum of two)
+     * @param factory to create new identifier instances
+     */
+    public IntegerIdentifierInterner(int capacity, Factory<T> factory)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be a positive value");
+        }
+
+        int slots = Integer.highestOneBit(Math.max(capacity, 2));
+
+        if(slots < capacity)
+        {
+            slots <<= 1;
+        }
+
+        mSlots = new AtomicReferenceArray<>(slots);
+        mMask = slots - 1;
+        mFactory = factory;
+    }
+
+    /**
+     * Constructs an instance with the default capacity
+     * @param factory to create new identifier instances
+     */
+    public IntegerIdentifierInterner(Factory<T> factory)
+    {
+        this(DEFAULT_CAPACITY, factory);
+    }
+
+    /**
+     * Provides the canonical identifier for the value and role, creating a new identifier when the cache does not
+     * contain a matching instance.
+     *
+     * @param value of the identifier
+     * @param role of the identifier
+     * @return identifier
+     */
+    public T get(int value, Role role)
+    {
+        int index = index(value, role);
+        T first = mSlots.get(index);
+
+        if(matches(first, value, role))
+        {
+            return first;
+        }
+
+        T second = mSlots.get(index + 1);
+
+        if(matches(second, value, role))
+        {
+            return second;
+        }
+
+        T identifier = mFactory.create(value, role);
+        mSlots.lazySet(index + 1, first);
+        mSlots.lazySet(index, identifier);
+        return identifier;
+    }
+
+    /**
+     * Indicates if the cached identifier matches the value and role
+     */
+    private static boolean matches(IntegerIdentifier identifier, int value, Role role)
+    {
+        return identifier != null && identifier.getValue().intValue() == value && identifier.getRole() == role;
+    }
+
+    /**
+     * Number of cache slots
+     */
+    public int getCapacity()
+    {
+        return mSlots.length();
+    }
+
+    /**
+     * Removes all cached identifiers
+     */
+    public void clear()
+    {
+        for(int x = 0; x < mSlots.length(); x++)
+        {
+            mSlots.set(x, null);
+        }
+    }
+
+    /**
+     * First (even) slot of the slot pair for the value and role.  Mixes the bits so that sequential values and values
+     * that differ only in the upper bits spread across the slots.
+     */
+    private int index(int value, Role role)
+    {
+        int hash = (value * 31 + role.ordinal()) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mMask & ~1;
+    }
+
+    /**
+     * Creates new identifier instances for the interner
+     */
+    public interface Factory<T extends IntegerIdentifier>
+    {
+        T create(int value, Role role);
+    }
+}
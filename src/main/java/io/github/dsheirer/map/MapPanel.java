@@ -47,7 +47,7 @@ public class MapPanel extends JPanel implements IPlottableUpdateListener
     {
         mSettingsManager = settingsManager;
         mMapService = mapService;
-        mMapPainter = new PlottableEntityPainter(aliasModel, iconModel);
+        mMapPainter = new PlottableEntityPainter(aliasModel, iconModel, mapService.getEntityStore());
 
         init();
     }
@@ -119,17 +119,21 @@ public class MapPanel extends JPanel implements IPlottableUpdateListener
         EventQueue.invokeLater(() -> mMapViewer.repaint());
     }
 
+    /**
+     * No-op: the map painter queries the map service entity store and the map service issues a coalesced
+     * entitiesUpdated() notification after entities are added.
+     */
     @Override
     public void addPlottableEntity(PlottableEntityHistory entity)
     {
-        mMapPainter.addEntity(entity);
-        entitiesUpdated();
     }
 
+    /**
+     * No-op: the map painter queries the map service entity store and the map service issues a coalesced
+     * entitiesUpdated() notification after entities are evicted.
+     */
     @Override
     public void removePlottableEntity(PlottableEntityHistory entity)
     {
-        mMapPainter.removeEntity(entity);
-        entitiesUpdated();
     }
 }
@@ -24,26 +24,62 @@ import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
 import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Map service that tracks the location history of plottable entities from decode events.
+ *
+ * Entity histories are stored in a time-windowed, spatially indexed entity store.  Listeners are notified when
+ * entities are added or evicted, and the entitiesUpdated() (repaint) notification is coalesced so that listeners are
+ * notified at most once per update interval regardless of the plottable event rate.
+ */
 public class MapService implements Listener<IDecodeEvent>
 {
     private final static Logger mLog = LoggerFactory.getLogger(MapService.class);
+    private static final long UPDATE_INTERVAL_MS = 250;
+    private static final long EVICTION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
 
     private int mMaxHistory = 2;
-    private List<IPlottableUpdateListener> mListeners = new ArrayList<IPlottableUpdateListener>();
-    private Map<Identifier,PlottableEntityHistory> mEntityHistories = new HashMap<>();
+    private List<IPlottableUpdateListener> mListeners = new CopyOnWriteArrayList<>();
+    private PlottableEntityStore mEntityStore = new PlottableEntityStore();
+    private AtomicBoolean mUpdatePending = new AtomicBoolean();
+    private long mLastEvictionTime = System.currentTimeMillis();
+    private ScheduledFuture<?> mScheduledFuture;
     private IconModel mIconModel;
 
     public MapService(IconModel resourceManager)
     {
         mIconModel = resourceManager;
+        mScheduledFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(new UpdateNotifier(), UPDATE_INTERVAL_MS,
+            UPDATE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduled update notifications
+     */
+    public void dispose()
+    {
+        if(mScheduledFuture != null)
+        {
+            mScheduledFuture.cancel(true);
+            mScheduledFuture = null;
+        }
+    }
+
+    /**
+     * Entity store containing the plottable entity histories
+     */
+    public PlottableEntityStore getEntityStore()
+    {
+        return mEntityStore;
     }
 
     @Override
@@ -56,22 +92,17 @@ public class MapService implements Listener<IDecodeEvent>
 
             if(from != null)
             {
-                PlottableEntityHistory entityHistory = mEntityHistories.get(from);
-
-                if(entityHistory == null)
-                {
-                    entityHistory = new PlottableEntityHistory(from, plottableDecodeEvent);
-                    mEntityHistories.put(from, entityHistory);
-                }
-                else
+                if(mEntityStore.update(from, plottableDecodeEvent, System.currentTimeMillis()))
                 {
-                    entityHistory.add(plottableDecodeEvent);
-                }
+                    PlottableEntityHistory entityHistory = mEntityStore.get(from);
 
-                for(IPlottableUpdateListener listener : mListeners)
-                {
-                    listener.addPlottableEntity(entityHistory);
+                    for(IPlottableUpdateListener listener : mListeners)
+                    {
+                        listener.addPlottableEntity(entityHistory);
+                    }
                 }
+
+                mUpdatePending.set(true);
             }
             else
             {
@@ -89,4 +120,52 @@ public class MapService implements Listener<IDecodeEvent>
     {
         mListeners.remove(listener);
     }
+
+    /**
+     * Evicts entities that have not been updated within the store's time window and notifies listeners of pending
+     * entity updates.
+     */
+    private class UpdateNotifier implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                long now = System.currentTimeMillis();
+
+                if(now - mLastEvictionTime >= EVICTION_INTERVAL_MS)
+                {
+                    mLastEvictionTime = now;
+
+                    List<PlottableEntityHistory> evicted = mEntityStore.evict(now);
+
+                    if(!evicted.isEmpty())
+                    {
+                        for(PlottableEntityHistory entityHistory : evicted)
+                        {
+                            for(IPlottableUpdateListener listener : mListeners)
+                            {
+                                listener.removePlottableEntity(entityHistory);
+                            }
+                        }
+
+                        mUpdatePending.set(true);
+                    }
+                }
+
+                if(mUpdatePending.getAndSet(false))
+                {
+                    for(IPlottableUpdateListener listener : mListeners)
+                    {
+                        listener.entitiesUpdated();
+                    }
+                }
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error while updating map entities", t);
+            }
+        }
+    }
 }
@@ -37,14 +37,31 @@ public class PlottableEntityHistory
     private List<GeoPosition> mLocationHistory = new ArrayList<>();
     private PlottableDecodeEvent mCurrentEvent;
     private Identifier mIdentifier;
+    private long mLastUpdateTime;
+    private boolean mHasBounds;
+    private double mMinimumLatitude;
+    private double mMaximumLatitude;
+    private double mMinimumLongitude;
+    private double mMaximumLongitude;
 
     /**
      * Constructs a plottable entity history
      */
     public PlottableEntityHistory(Identifier identifier, PlottableDecodeEvent event)
+    {
+        this(identifier, event, System.currentTimeMillis());
+    }
+
+    /**
+     * Constructs a plottable entity history
+     * @param identifier for the entity
+     * @param event with the first location for the entity
+     * @param timestamp when the event was received
+     */
+    public PlottableEntityHistory(Identifier identifier, PlottableDecodeEvent event, long timestamp)
     {
         mIdentifier = identifier;
-        add(event);
+        add(event, timestamp);
     }
 
     /**
@@ -75,8 +92,86 @@ public class PlottableEntityHistory
      * Updates the entity history with a location from the latest decode event
      */
     public void add(PlottableDecodeEvent event)
+    {
+        add(event, System.currentTimeMillis());
+    }
+
+    /**
+     * Updates the entity history with a location from the latest decode event
+     * @param event with the latest location
+     * @param timestamp when the event was received
+     */
+    public void add(PlottableDecodeEvent event, long timestamp)
     {
         mCurrentEvent = event;
-        mLocationHistory.add(event.getLocation());
+        mLastUpdateTime = timestamp;
+
+        GeoPosition location = event.getLocation();
+        mLocationHistory.add(location);
+
+        if(location != null && location.isValid())
+        {
+            if(mHasBounds)
+            {
+                mMinimumLatitude = Math.min(mMinimumLatitude, location.getLatitude());
+                mMaximumLatitude = Math.max(mMaximumLatitude, location.getLatitude());
+                mMinimumLongitude = Math.min(mMinimumLongitude, location.getLongitude());
+                mMaximumLongitude = Math.max(mMaximumLongitude, location.getLongitude());
+            }
+            else
+            {
+                mHasBounds = true;
+                mMinimumLatitude = mMaximumLatitude = location.getLatitude();
+                mMinimumLongitude = mMaximumLongitude = location.getLongitude();
+            }
+        }
+    }
+
+    /**
+     * Time that the latest location was received for this entity
+     */
+    public long getLastUpdateTime()
+    {
+        return mLastUpdateTime;
+    }
+
+    /**
+     * Indicates if the location history contains at least one valid location and the bounds are available
+     */
+    public boolean hasBounds()
+    {
+        return mHasBounds;
+    }
+
+    /**
+     * Minimum latitude across the valid locations in the history
+     */
+    public double getMinimumLatitude()
+    {
+        return mMinimumLatitude;
+    }
+
+    /**
+     * Maximum latitude across the valid locations in the history
+     */
+    public double getMaximumLatitude()
+    {
+        return mMaximumLatitude;
+    }
+
+    /**
+     * Minimum longitude across the valid locations in the history
+     */
+    public double getMinimumLongitude()
+    {
+        return mMinimumLongitude;
+    }
+
+    /**
+     * Maximum longitude across the valid locations in the history
+     */
+    public double getMaximumLongitude()
+    {
+        return mMaximumLongitude;
     }
 }
@@ -23,44 +23,48 @@ package io.github.dsheirer.map;
 import io.github.dsheirer.alias.AliasModel;
 import io.github.dsheirer.icon.IconModel;
 import org.jdesktop.swingx.JXMapViewer;
+import org.jdesktop.swingx.mapviewer.GeoPosition;
 import org.jdesktop.swingx.painter.AbstractPainter;
 
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.awt.geom.Point2D;
+import java.util.List;
 
+/**
+ * Paints the plottable entities whose routes are visible in the map viewport.  Entities are queried from the
+ * spatially indexed entity store so that painting does not visit the entities outside of the viewport.
+ */
 public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 {
+    //Extends the viewport query so that icons and labels of entities just outside of the viewport are painted
+    private static final int VIEWPORT_MARGIN_PIXELS = 100;
+
     private PlottableEntityRenderer mRenderer;
-    private Set<PlottableEntityHistory> mEntities = new HashSet<>();
+    private PlottableEntityStore mEntityStore;
 
-    public PlottableEntityPainter(AliasModel aliasModel, IconModel iconModel)
+    public PlottableEntityPainter(AliasModel aliasModel, IconModel iconModel, PlottableEntityStore entityStore)
     {
         mRenderer = new PlottableEntityRenderer(aliasModel, iconModel);
+        mEntityStore = entityStore;
         setAntialiasing(true);
         setCacheable(false);
     }
 
-    public void addEntity(PlottableEntityHistory entity)
-    {
-        mEntities.add(entity);
-    }
-
-    public void removeEntity(PlottableEntityHistory entity)
+    /**
+     * Entities with a route that is visible in the map viewport
+     */
+    private List<PlottableEntityHistory> getEntities(JXMapViewer map, Rectangle viewportBounds)
     {
-        mEntities.remove(entity);
-    }
+        GeoPosition topLeft = map.getTileFactory().pixelToGeo(
+            new Point2D.Double(viewportBounds.getMinX() - VIEWPORT_MARGIN_PIXELS,
+                viewportBounds.getMinY() - VIEWPORT_MARGIN_PIXELS), map.getZoom());
+        GeoPosition bottomRight = map.getTileFactory().pixelToGeo(
+            new Point2D.Double(viewportBounds.getMaxX() + VIEWPORT_MARGIN_PIXELS,
+                viewportBounds.getMaxY() + VIEWPORT_MARGIN_PIXELS), map.getZoom());
 
-    public void clearEntities()
-    {
-        mEntities.clear();
-    }
-
-    private Set<PlottableEntityHistory> getEntities()
-    {
-        return Collections.unmodifiableSet(mEntities);
+        return mEntityStore.getEntities(bottomRight.getLatitude(), topLeft.getLatitude(), topLeft.getLongitude(),
+            bottomRight.getLongitude());
     }
 
     @Override
@@ -70,7 +74,7 @@ public class PlottableEntityPainter extends AbstractPainter<JXMapViewer>
 
         g.translate(-viewportBounds.getX(), -viewportBounds.getY());
 
-        Set<PlottableEntityHistory> entities = getEntities();
+        List<PlottableEntityHistory> entities = getEntities(map, viewportBounds);
 
         for(PlottableEntityHistory entity : entities)
         {
@@ -0,0 +1,397 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.map;
+
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Storage for plottable entity histories with time window eviction and a grid spatial index.
+ *
+ * Entities are ordered by last update so that entities that have not been updated within the time window are evicted
+ * from the head of the ordering without scanning the remaining entities.
+ *
+ * The spatial index divides the globe into fixed-size latitude/longitude cells.  Each entity is indexed in every cell
+ * covered by the bounding box of its location history (route) so that a viewport query returns the entities whose
+ * route is at least partially visible, without visiting the entities outside of the viewport.  Entities with a route
+ * that covers a large number of cells are kept in a separate list that is checked by every query.
+ *
+ * Access to the store is synchronized so that decoder threads can update the store while the map painter queries it.
+ */
+public class PlottableEntityStore
+{
+    public static final long DEFAULT_TIME_WINDOW_MS = TimeUnit.HOURS.toMillis(24);
+    public static final double DEFAULT_CELL_SIZE_DEGREES = 0.25;
+
+    //Entities with a route bounding box that covers more cells than this threshold are not indexed by cell
+    private static final int MAXIMUM_INDEXED_CELLS = 256;
+
+    private long mTimeWindow;
+    private double mCellSize;
+    private int mRows;
+    private int mColumns;
+    private LinkedHashMap<Identifier,Entry> mEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private Map<Integer,List<Entry>> mCells = new HashMap<>();
+    private List<Entry> mOversizedEntries = new ArrayList<>();
+
+    /**
+     * Constructs an instance
+     * @param timeWindow in milliseconds.  Entities that are not updated within the time window are evicted.
+     * @param cellSize in degrees for the spatial index grid cells
+     */
+    public PlottableEntityStore(long timeWindow, double cellSize)
+    {
+        if(timeWindow <= 0 || cellSize <= 0.0)
+        {
+            throw new IllegalArgumentException("Time window and cell size must be positive values");
+        }
+
+        mTimeWindow = timeWindow;
+        mCellSize = cellSize;
+        mRows = (int)Math.ceil(180.0 / cellSize);
+        mColumns = (int)Math.ceil(360.0 / cellSize);
+    }
+
+    /**
+     * Constructs an instance with the default time window and cell size
+     */
+    public PlottableEntityStore()
+    {
+        this(DEFAULT_TIME_WINDOW_MS, DEFAULT_CELL_SIZE_DEGREES);
+    }
+
+    /**
+     * Time window in milliseconds
+     */
+    public long getTimeWindow()
+    {
+        return mTimeWindow;
+    }
+
+    /**
+     * Updates the history for the identifier with the location from the event, creating a new entity history when
+     * the identifier is not in the store.
+     *
+     * @param identifier for the entity
+     * @param event with the entity location
+     * @param timestamp when the event was received
+     * @return true if a new entity history was created
+     */
+    public synchronized boolean update(Identifier identifier, PlottableDecodeEvent event, long timestamp)
+    {
+        Entry entry = mEntries.get(identifier);
+        boolean created = entry == null;
+
+        if(created)
+        {
+            entry = new Entry(new PlottableEntityHistory(identifier, event, timestamp));
+            mEntries.put(identifier, entry);
+        }
+        else
+        {
+            entry.getHistory().add(event, timestamp);
+        }
+
+        index(entry);
+
+        return created;
+    }
+
+    /**
+     * Entity history for the identifier
+     * @return history or null if the store does not contain the identifier
+     */
+    public synchronized PlottableEntityHistory get(Identifier identifier)
+    {
+        Entry entry = mEntries.get(identifier);
+        return entry != null ? entry.getHistory() : null;
+    }
+
+    /**
+     * Removes the entity histories that have not been updated within the time window.
+     *
+     * @param timestamp current time
+     * @return list of evicted entity histories
+     */
+    public synchronized List<PlottableEntityHistory> evict(long timestamp)
+    {
+        List<PlottableEntityHistory> evicted = new ArrayList<>();
+        Iterator<Entry> it = mEntries.values().iterator();
+
+        while(it.hasNext())
+        {
+            Entry entry = it.next();
+
+            //Entries are ordered by update, so the remaining entries are within the time window
+            if(timestamp - entry.getHistory().getLastUpdateTime() < mTimeWindow)
+            {
+                break;
+            }
+
+            it.remove();
+            unindex(entry);
+            evicted.add(entry.getHistory());
+        }
+
+        return evicted;
+    }
+
+    /**
+     * Entity histories with a route bounding box that intersects the specified region.  The longitude range can
+     * extend beyond -180/+180 when the map viewport spans more than the width of the map.
+     *
+     * @return list of entity histories
+     */
+    public synchronized List<PlottableEntityHistory> getEntities(double minimumLatitude, double maximumLatitude,
+                                                               double minimumLongitude, double maximumLongitude)
+    {
+        int minimumRow = getRow(minimumLatitude);
+        int maximumRow = getRow(maximumLatitude);
+        int minimumColumn = getColumn(minimumLongitude);
+        int maximumColumn = getColumn(maximumLongitude);
+
+        Set<Entry> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidates.addAll(mOversizedEntries);
+
+        long queryCellCount = (long)(maximumRow - minimumRow + 1) * (long)(maximumColumn - minimumColumn + 1);
+
+        if(queryCellCount <= mCells.size())
+        {
+            for(int row = minimumRow; row <= maximumRow; row++)
+            {
+                for(int column = minimumColumn; column <= maximumColumn; column++)
+                {
+                    List<Entry> cell = mCells.get(getCellKey(row, column));
+
+                    if(cell != null)
+                    {
+                        candidates.addAll(cell);
+                    }
+                }
+            }
+        }
+        else
+        {
+            //The region covers more cells than are occupied, so check the occupied cells instead
+            for(Map.Entry<Integer,List<Entry>> cell: mCells.entrySet())
+            {
+                int row = cell.getKey() / mColumns;
+                int column = cell.getKey() % mColumns;
+
+                if(minimumRow <= row && row <= maximumRow && minimumColumn <= column && column <= maximumColumn)
+                {
+                    candidates.addAll(cell.getValue());
+                }
+            }
+        }
+
+        List<PlottableEntityHistory> entities = new ArrayList<>();
+
+        for(Entry candidate: candidates)
+        {
+            PlottableEntityHistory history = candidate.getHistory();
+
+            if(history.getMinimumLatitude() <= maximumLatitude && history.getMaximumLatitude() >= minimumLatitude &&
+               history.getMinimumLongitude() <= maximumLongitude && history.getMaximumLongitude() >= minimumLongitude)
+            {
+                entities.add(history);
+            }
+        }
+
+        return entities;
+    }
+
+    /**
+     * All entity histories in the store
+     */
+    public synchronized List<PlottableEntityHistory> getEntities()
+    {
+        List<PlottableEntityHistory> entities = new ArrayList<>();
+
+        for(Entry entry: mEntries.values())
+        {
+            entities.add(entry.getHistory());
+        }
+
+        return entities;
+    }
+
+    /**
+     * Number of entity histories in the store
+     */
+    public synchronized int size()
+    {
+        return mEntries.size();
+    }
+
+    /**
+     * Removes all entity histories
+     */
+    public synchronized void clear()
+    {
+        mEntries.clear();
+        mCells.clear();
+        mOversizedEntries.clear();
+    }
+
+    /**
+     * Updates the spatial index for the entry when the cells covered by the route bounding box change.
+     */
+    private void index(Entry entry)
+    {
+        PlottableEntityHistory history = entry.getHistory();
+
+        if(!history.hasBounds())
+        {
+            return;
+        }
+
+        int minimumRow = getRow(history.getMinimumLatitude());
+        int maximumRow = getRow(history.getMaximumLatitude());
+        int minimumColumn = getColumn(history.getMinimumLongitude());
+        int maximumColumn = getColumn(history.getMaximumLongitude());
+
+        if(entry.isIndexed() && entry.mMinimumRow == minimumRow && entry.mMaximumRow == maximumRow &&
+           entry.mMinimumColumn == minimumColumn && entry.mMaximumColumn == maximumColumn)
+        {
+            return;
+        }
+
+        unindex(entry);
+
+        entry.mIndexed = true;
+        entry.mMinimumRow = minimumRow;
+        entry.mMaximumRow = maximumRow;
+        entry.mMinimumColumn = minimumColumn;
+        entry.mMaximumColumn = maximumColumn;
+
+        if(entry.isOversized())
+        {
+            mOversizedEntries.add(entry);
+            return;
+        }
+
+        for(int row = minimumRow; row <= maximumRow; row++)
+        {
+            for(int column = minimumColumn; column <= maximumColumn; column++)
+            {
+                mCells.computeIfAbsent(getCellKey(row, column), key -> new ArrayList<>(2)).add(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes the entry from the spatial index
+     */
+    private void unindex(Entry entry)
+    {
+        if(!entry.isIndexed())
+        {
+            return;
+        }
+
+        if(entry.isOversized())
+        {
+            mOversizedEntries.remove(entry);
+        }
+        else
+        {
+            for(int row = entry.mMinimumRow; row <= entry.mMaximumRow; row++)
+            {
+                for(int column = entry.mMinimumColumn; column <= entry.mMaximumColumn; column++)
+                {
+                    Integer key = getCellKey(row, column);
+                    List<Entry> cell = mCells.get(key);
+
+                    if(cell != null)
+                    {
+                        cell.remove(entry);
+
+                        if(cell.isEmpty())
+                        {
+                            mCells.remove(key);
+                        }
+                    }
+                }
+            }
+        }
+
+        entry.mIndexed = false;
+    }
+
+    private int getRow(double latitude)
+    {
+        return Math.max(0, Math.min(mRows - 1, (int)Math.floor((latitude + 90.0) / mCellSize)));
+    }
+
+    private int getColumn(double longitude)
+    {
+        return Math.max(0, Math.min(mColumns - 1, (int)Math.floor((longitude + 180.0) / mCellSize)));
+    }
+
+    private int getCellKey(int row, int column)
+    {
+        return row * mColumns + column;
+    }
+
+    /**
+     * Entity history and the range of spatial index cells that contain the entity
+     */
+    private static class Entry
+    {
+        private PlottableEntityHistory mHistory;
+        private boolean mIndexed;
+        private int mMinimumRow;
+        private int mMaximumRow;
+        private int mMinimumColumn;
+        private int mMaximumColumn;
+
+        public Entry(PlottableEntityHistory history)
+        {
+            mHistory = history;
+        }
+
+        public PlottableEntityHistory getHistory()
+        {
+            return mHistory;
+        }
+
+        public boolean isIndexed()
+        {
+            return mIndexed;
+        }
+
+        public boolean isOversized()
+        {
+            return (mMaximumRow - mMinimumRow + 1) * (mMaximumColumn - mMinimumColumn + 1) > MAXIMUM_INDEXED_CELLS;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * sdr-trunk
+ * Copyright (C) 2014-2018 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms of the GNU General Public
+ * License as published by  the Free Software Foundation, either version 3 of the License, or  (at your option) any
+ * later version.
+ *
+ * This program is distributed in the hope that it will be useful,  but WITHOUT ANY WARRANTY; without even the implied
+ * warranty of  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License  along with this program.
+ * If not, see <http://www.gnu.org/licenses/>
+ *
+ ******************************************************************************/
+package io.github.dsheirer.message;
+
+import io.github.dsheirer.bits.BinaryMessage;
+
+/**
+ * Interface for messages that provide access to the transmitted binary message, after any error correction.
+ */
+public interface IBinaryMessageProvider
+{
+    /**
+     * Binary message bits.  The message size indicates the number of valid bits and the corrected bit count
+     * indicates the number of bit errors that were corrected.
+     */
+    BinaryMessage getMessage();
+}
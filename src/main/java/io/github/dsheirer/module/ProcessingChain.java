@@ -52,6 +52,7 @@ import io.github.dsheirer.module.decode.event.IDecodeEvent;
 import io.github.dsheirer.module.decode.event.IDecodeEventListener;
 import io.github.dsheirer.module.decode.event.IDecodeEventProvider;
 import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
+import io.github.dsheirer.module.export.MessageExportModule;
 import io.github.dsheirer.module.log.EventLogger;
 import io.github.dsheirer.record.binary.BinaryRecorder;
 import io.github.dsheirer.record.wave.ComplexBufferWaveRecorder;
@@ -75,6 +76,7 @@ import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.heartbeat.Heartbeat;
 import io.github.dsheirer.source.heartbeat.IHeartbeatListener;
 import io.github.dsheirer.source.heartbeat.IHeartbeatProvider;
+import io.github.dsheirer.source.tuner.channel.TunerChannelSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -271,6 +273,64 @@ public class ProcessingChain implements Listener<ChannelEvent>
         addModule(mSource);
     }
 
+    /**
+     * Indicates if this chain's sample source supports pausing (ie load shedding).  Control channel chains (ie chains
+     * with a traffic channel manager) are never pausable, since their traffic channels depend on them.
+     */
+    public boolean isPausable()
+    {
+        return mSource instanceof TunerChannelSource && !hasTrafficChannelManager();
+    }
+
+    /**
+     * Indicates if this chain contains a traffic channel manager module (ie a trunked system control channel).
+     */
+    public boolean hasTrafficChannelManager()
+    {
+        for(Module module: mModules)
+        {
+            if(module instanceof TrafficChannelManager)
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Pauses or resumes sample processing for this chain.  While paused, the source discards incoming samples.
+     * Ignored when the source is not pausable.
+     */
+    public void setPaused(boolean paused)
+    {
+        Source source = mSource;
+
+        if(source instanceof TunerChannelSource)
+        {
+            ((TunerChannelSource)source).setPaused(paused);
+        }
+    }
+
+    /**
+     * Indicates if sample processing for this chain is paused
+     */
+    public boolean isPaused()
+    {
+        Source source = mSource;
+        return source instanceof TunerChannelSource && ((TunerChannelSource)source).isPaused();
+    }
+
+    /**
+     * Cumulative thread CPU time in nanoseconds spent processing samples for this chain, or zero if the source does
+     * not support CPU accounting.
+     */
+    public long getProcessingCpuNanos()
+    {
+        Source source = mSource;
+        return source instanceof TunerChannelSource ? ((TunerChannelSource)source).getProcessingCpuNanos() : 0;
+    }
+
     /**
      * List of current modules for this processing chain
      */
@@ -716,7 +776,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
     }
 
     /**
-     * Removes any logging modules that are currently registered with this processing chain
+     * Removes any logging and message export modules that are currently registered with this processing chain
      */
     public void removeEventLoggingModules()
     {
@@ -724,7 +784,7 @@ public class ProcessingChain implements Listener<ChannelEvent>
 
         for(Module module : mModules)
         {
-            if(module instanceof EventLogger)
+            if(module instanceof EventLogger || module instanceof MessageExportModule)
             {
                 eventLoggingModules.add(module);
             }
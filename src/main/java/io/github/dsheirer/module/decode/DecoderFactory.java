@@ -35,6 +35,7 @@ import io.github.dsheirer.filter.IFilter;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.message.MessageDirection;
 import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.am.AMDecoder;
 import io.github.dsheirer.module.decode.am.DecodeConfigAM;
 import io.github.dsheirer.module.decode.config.AuxDecodeConfiguration;
@@ -84,6 +85,9 @@ import io.github.dsheirer.module.decode.passport.DecodeConfigPassport;
 import io.github.dsheirer.module.decode.passport.PassportDecoder;
 import io.github.dsheirer.module.decode.passport.PassportDecoderState;
 import io.github.dsheirer.module.decode.passport.PassportMessageFilter;
+import io.github.dsheirer.module.decode.scanner.DecodeConfigProtocolScanner;
+import io.github.dsheirer.module.decode.scanner.ProtocolScanner;
+import io.github.dsheirer.module.decode.scanner.ProtocolScannerDecoderState;
 import io.github.dsheirer.module.decode.tait.Tait1200Decoder;
 import io.github.dsheirer.module.decode.tait.Tait1200DecoderState;
 import io.github.dsheirer.module.decode.traffic.TrafficChannelManager;
@@ -174,6 +178,9 @@ public class DecoderFactory
             case P25_PHASE2:
                 processP25Phase2(channel, userPreferences, modules, aliasList);
                 break;
+            case PROTOCOL_SCANNER:
+                processProtocolScanner(modules, (DecodeConfigProtocolScanner)decodeConfig);
+                break;
             default:
                 throw new IllegalArgumentException("Unknown decoder type [" + decodeConfig.getDecoderType().toString() + "]");
         }
@@ -181,6 +188,15 @@ public class DecoderFactory
         return modules;
     }
 
+    /**
+     * Creates modules for the protocol scanner.  The scanner does not produce audio.
+     */
+    private static void processProtocolScanner(List<Module> modules, DecodeConfigProtocolScanner decodeConfig)
+    {
+        modules.add(new ProtocolScanner(decodeConfig));
+        modules.add(new ProtocolScannerDecoderState());
+    }
+
     private static void processP25Phase2(Channel channel, UserPreferences userPreferences, List<Module> modules, AliasList aliasList) {
         modules.add(new P25P2DecoderHDQPSK((DecodeConfigP25Phase2)channel.getDecodeConfiguration()));
 
@@ -402,24 +418,33 @@ public class DecoderFactory
 
         if(config != null)
         {
+            //When more than one AFSK1200 decoder is enabled, the decoders share a single demodulator front end
+            AFSK1200FrontEnd frontEnd = null;
+
+            if(config.getAuxDecoders().size() > 1)
+            {
+                frontEnd = new AFSK1200FrontEnd();
+                modules.add(frontEnd);
+            }
+
             for(DecoderType auxDecoder : config.getAuxDecoders())
             {
                 switch(auxDecoder)
                 {
                     case FLEETSYNC2:
-                        modules.add(new Fleetsync2Decoder());
+                        modules.add(frontEnd != null ? new Fleetsync2Decoder(frontEnd) : new Fleetsync2Decoder());
                         modules.add(new Fleetsync2DecoderState());
                         break;
                     case MDC1200:
-                        modules.add(new MDCDecoder());
+                        modules.add(frontEnd != null ? new MDCDecoder(frontEnd) : new MDCDecoder());
                         modules.add(new MDCDecoderState());
                         break;
                     case LJ_1200:
-                        modules.add(new LJ1200Decoder());
+                        modules.add(frontEnd != null ? new LJ1200Decoder(frontEnd) : new LJ1200Decoder());
                         modules.add(new LJ1200DecoderState());
                         break;
                     case TAIT_1200:
-                        modules.add(new Tait1200Decoder());
+                        modules.add(frontEnd != null ? new Tait1200Decoder(frontEnd) : new Tait1200Decoder());
                         modules.add(new Tait1200DecoderState());
                         break;
                     default:
@@ -529,6 +554,8 @@ public class DecoderFactory
                 return new DecodeConfigP25Phase1();
             case P25_PHASE2:
                 return new DecodeConfigP25Phase2();
+            case PROTOCOL_SCANNER:
+                return new DecodeConfigProtocolScanner();
             default:
                 throw new IllegalArgumentException("DecodeConfigFactory - unknown decoder type [" + decoder.toString() + "]");
         }
@@ -592,6 +619,8 @@ public class DecoderFactory
                     return copyP25P2;
                 case PASSPORT:
                     return new DecodeConfigPassport();
+                case PROTOCOL_SCANNER:
+                    return new DecodeConfigProtocolScanner();
                 default:
                     throw new IllegalArgumentException("Unrecognized decoder configuration type:" + config.getDecoderType());
             }
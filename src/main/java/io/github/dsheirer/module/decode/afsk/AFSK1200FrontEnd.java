@@ -0,0 +1,135 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.afsk;
+
+import io.github.dsheirer.bits.IBinarySymbolProcessor;
+import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.IReusableBufferListener;
+import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+
+import java.util.Arrays;
+
+/**
+ * Shared AFSK 1200-baud demodulator front end for multiple AFSK decoders on one channel.
+ *
+ * The demodulated audio is resampled, correlated and symbol-timed once and each decoded symbol is distributed to the
+ * symbol processor of each registered decoder, in normal or inverted form as requested by that decoder.  This module
+ * must be added to the processing chain so that it receives the demodulated audio, while decoders that are
+ * constructed with this front end ignore the demodulated audio.
+ */
+public class AFSK1200FrontEnd extends Module implements IReusableBufferListener, Listener<ReusableFloatBuffer>,
+    IBinarySymbolProcessor
+{
+    private AFSK1200Decoder mAFSK1200Decoder = new AFSK1200Decoder(AFSK1200Decoder.Output.NORMAL);
+    private IBinarySymbolProcessor[] mNormalProcessors = new IBinarySymbolProcessor[0];
+    private IBinarySymbolProcessor[] mInvertedProcessors = new IBinarySymbolProcessor[0];
+
+    /**
+     * Constructs an instance
+     */
+    public AFSK1200FrontEnd()
+    {
+        mAFSK1200Decoder.setSymbolProcessor(this);
+    }
+
+    /**
+     * Registers the symbol processor to receive the decoded symbols.
+     *
+     * @param symbolProcessor to receive symbols
+     * @param output NORMAL: 1200Hz = Mark(1) and 1800Hz = Space(0), or INVERTED (vice-versa)
+     */
+    public synchronized void addSymbolProcessor(IBinarySymbolProcessor symbolProcessor, AFSK1200Decoder.Output output)
+    {
+        if(output == AFSK1200Decoder.Output.NORMAL)
+        {
+            mNormalProcessors = append(mNormalProcessors, symbolProcessor);
+        }
+        else
+        {
+            mInvertedProcessors = append(mInvertedProcessors, symbolProcessor);
+        }
+    }
+
+    private static IBinarySymbolProcessor[] append(IBinarySymbolProcessor[] processors,
+                                                   IBinarySymbolProcessor processor)
+    {
+        IBinarySymbolProcessor[] appended = Arrays.copyOf(processors, processors.length + 1);
+        appended[processors.length] = processor;
+        return appended;
+    }
+
+    /**
+     * Distributes each decoded symbol to the registered symbol processors
+     */
+    @Override
+    public void process(boolean symbol)
+    {
+        for(IBinarySymbolProcessor processor: mNormalProcessors)
+        {
+            processor.process(symbol);
+        }
+
+        for(IBinarySymbolProcessor processor: mInvertedProcessors)
+        {
+            processor.process(!symbol);
+        }
+    }
+
+    @Override
+    public void receive(ReusableFloatBuffer reusableFloatBuffer)
+    {
+        mAFSK1200Decoder.receive(reusableFloatBuffer);
+    }
+
+    @Override
+    public Listener<ReusableFloatBuffer> getReusableBufferListener()
+    {
+        return this;
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    @Override
+    public void stop()
+    {
+    }
+
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        mAFSK1200Decoder.dispose();
+        mNormalProcessors = new IBinarySymbolProcessor[0];
+        mInvertedProcessors = new IBinarySymbolProcessor[0];
+    }
+}
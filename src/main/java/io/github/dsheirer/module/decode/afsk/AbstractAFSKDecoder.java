@@ -15,6 +15,7 @@
  ******************************************************************************/
 package io.github.dsheirer.module.decode.afsk;
 
+import io.github.dsheirer.bits.IBinarySymbolProcessor;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
 import io.github.dsheirer.module.decode.Decoder;
 import io.github.dsheirer.sample.Listener;
@@ -26,11 +27,16 @@ import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
  *
  * This class handles the AFSK 1200 decoder and incoming sample stream buffer management.
  *
- * Sub-class implementations should invoke getDecoder().setListener() to receive decoded symbol stream.
+ * Sub-class implementations should invoke setSymbolProcessor() to receive decoded symbol stream.
+ *
+ * When constructed with a shared AFSK1200 front end, the decoder doesn't demodulate the incoming audio and instead
+ * receives its symbols from the front end, which demodulates once for all of the AFSK decoders on a channel.
  */
 public abstract class AbstractAFSKDecoder extends Decoder implements IReusableBufferListener, Listener<ReusableFloatBuffer>
 {
     private AFSK1200Decoder mAFSK1200Decoder;
+    private AFSK1200FrontEnd mFrontEnd;
+    private AFSK1200Decoder.Output mOutput;
 
     public AbstractAFSKDecoder(AFSK1200Decoder decoder)
     {
@@ -42,15 +48,53 @@ public abstract class AbstractAFSKDecoder extends Decoder implements IReusableBu
         mAFSK1200Decoder = new AFSK1200Decoder(output);
     }
 
+    /**
+     * Constructs a decoder that receives symbols from a shared front end.
+     *
+     * @param frontEnd that demodulates the channel audio
+     * @param output NORMAL: 1200Hz = Mark(1) and 1800Hz = Space(0), or INVERTED (vice-versa)
+     */
+    public AbstractAFSKDecoder(AFSK1200FrontEnd frontEnd, AFSK1200Decoder.Output output)
+    {
+        mFrontEnd = frontEnd;
+        mOutput = output;
+    }
+
+    /**
+     * AFSK1200 decoder owned by this decoder, or null when this decoder uses a shared front end.
+     */
     protected AFSK1200Decoder getDecoder()
     {
         return mAFSK1200Decoder;
     }
 
+    /**
+     * Registers the symbol processor to receive the decoded symbol stream
+     */
+    protected void setSymbolProcessor(IBinarySymbolProcessor symbolProcessor)
+    {
+        if(mFrontEnd != null)
+        {
+            mFrontEnd.addSymbolProcessor(symbolProcessor, mOutput);
+        }
+        else
+        {
+            mAFSK1200Decoder.setSymbolProcessor(symbolProcessor);
+        }
+    }
+
     @Override
     public void receive(ReusableFloatBuffer reusableFloatBuffer)
     {
-        mAFSK1200Decoder.receive(reusableFloatBuffer);
+        if(mAFSK1200Decoder != null)
+        {
+            mAFSK1200Decoder.receive(reusableFloatBuffer);
+        }
+        else
+        {
+            //The shared front end demodulates the audio
+            reusableFloatBuffer.decrementUserCount();
+        }
     }
 
     @Override
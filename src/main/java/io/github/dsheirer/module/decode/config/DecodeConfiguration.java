@@ -37,6 +37,7 @@ import io.github.dsheirer.module.decode.nbfm.DecodeConfigNBFM;
 import io.github.dsheirer.module.decode.p25.phase1.DecodeConfigP25Phase1;
 import io.github.dsheirer.module.decode.p25.phase2.DecodeConfigP25Phase2;
 import io.github.dsheirer.module.decode.passport.DecodeConfigPassport;
+import io.github.dsheirer.module.decode.scanner.DecodeConfigProtocolScanner;
 import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -50,6 +51,7 @@ import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
     @JsonSubTypes.Type(value = DecodeConfigP25Phase1.class, name = "decodeConfigP25Phase1"),
     @JsonSubTypes.Type(value = DecodeConfigP25Phase2.class, name = "decodeConfigP25Phase2"),
     @JsonSubTypes.Type(value = DecodeConfigPassport.class, name = "decodeConfigPassport"),
+    @JsonSubTypes.Type(value = DecodeConfigProtocolScanner.class, name = "decodeConfigProtocolScanner"),
         @JsonSubTypes.Type(value = DecodeConfigDMR.class, name = "decodeConfigDMR")
 })
 @JacksonXmlRootElement(localName = "decode_configuration")
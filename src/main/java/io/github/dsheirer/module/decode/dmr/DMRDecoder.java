@@ -2,8 +2,7 @@ package io.github.dsheirer.module.decode.dmr;
 
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexBasebandFrontEnd;
 import io.github.dsheirer.dsp.psk.DQPSKDecisionDirectedDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -42,9 +41,8 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     private DibitToByteBufferAssembler mByteBufferAssembler = new DibitToByteBufferAssembler(300);
     private DMRMessageProcessor mMessageProcessor;
     private Listener<SourceEvent> mSourceEventListener;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
     private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
+    private ComplexBasebandFrontEnd mFrontEnd;
     protected InterpolatingSampleBuffer mInterpolatingSampleBuffer;
     protected DQPSKDecisionDirectedDemodulator mQPSKDemodulator;
     protected CostasLoop mCostasLoop;
@@ -92,7 +90,7 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
         }
 
         mSampleRate = sampleRate;
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        mFrontEnd = new ComplexBasebandFrontEnd(getBasebandFilter());
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
         mFrequencyCorrectionSyncMonitor = new FrequencyCorrectionSyncMonitor(mCostasLoop, this);
@@ -122,27 +120,25 @@ public class DMRDecoder extends FeedbackDecoder implements ISourceEventListener,
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
 
-        //User accounting of the incoming buffer is handled by the gain filter
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
-        mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
+        mMessageFramer.setCurrentTime(gainApplied.getTimestamp());
 
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
+     * Filters and applies gain to the complex buffer in a single pass and returns a new reusable complex buffer with
+     * the processed contents.
      * @param reusableComplexBuffer to filter
-     * @return filtered complex buffer
+     * @return filtered and gain-adjusted complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        return mFrontEnd.process(reusableComplexBuffer);
     }
 
     /**
@@ -620,7 +620,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                     if(hasTrafficChannelManager())
                     {
                         mTrafficChannelManager.processChannelGrant(channel, mergedIdentifiers, csbk.getOpcode(),
-                            csbk.getTimestamp(), csbk.isEncrypted());
+                            csbk.getTimestamp(), csbk.isEncrypted(), csbk.isEmergency());
                     }
                     else
                     {
@@ -632,6 +632,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                                 .channel(channel)
                                 .details(csbk.getOpcode().getLabel())
                                 .eventDescription(DecodeEventType.DATA_CALL.toString())
+                                .emergency(csbk.isEmergency())
                                 .identifiers(mergedIdentifiers)
                                 .timeslot(channel.getTimeslot())
                                 .build();
@@ -659,7 +660,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                     if(hasTrafficChannelManager())
                     {
                         mTrafficChannelManager.processChannelGrant(channel, mergedIdentifiers,
-                            csbk.getOpcode(), csbk.getTimestamp(), csbk.isEncrypted());
+                            csbk.getOpcode(), csbk.getTimestamp(), csbk.isEncrypted(), csbk.isEmergency());
                     }
                     else
                     {
@@ -671,6 +672,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                                 .channel(channel)
                                 .details(csbk.getOpcode().getLabel())
                                 .eventDescription(DecodeEventType.CALL_GROUP.toString())
+                                .emergency(csbk.isEmergency())
                                 .identifiers(mergedIdentifiers)
                                 .timeslot(channel.getTimeslot())
                                 .build();
@@ -697,7 +699,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                     if(hasTrafficChannelManager())
                     {
                         mTrafficChannelManager.processChannelGrant(channel, mergedIdentifiers,
-                            csbk.getOpcode(), csbk.getTimestamp(), csbk.isEncrypted());
+                            csbk.getOpcode(), csbk.getTimestamp(), csbk.isEncrypted(), csbk.isEmergency());
                     }
                     else
                     {
@@ -709,6 +711,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                                 .channel(channel)
                                 .details(csbk.getOpcode().getLabel())
                                 .eventDescription(DecodeEventType.CALL_UNIT_TO_UNIT.toString())
+                                .emergency(csbk.isEmergency())
                                 .identifiers(mergedIdentifiers)
                                 .timeslot(channel.getTimeslot())
                                 .build();
@@ -756,7 +759,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                     if(hasTrafficChannelManager())
                     {
                         mTrafficChannelManager.processChannelGrant(channel, mergedIdentifiers, csbk.getOpcode(),
-                            csbk.getTimestamp(), csbk.isEncrypted());
+                            csbk.getTimestamp(), csbk.isEncrypted(), csbk.isEmergency());
                     }
                     else
                     {
@@ -768,6 +771,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                                 .channel(channel)
                                 .details(csbk.getOpcode().getLabel())
                                 .eventDescription(DecodeEventType.DATA_CALL.toString())
+                                .emergency(csbk.isEmergency())
                                 .identifiers(mergedIdentifiers)
                                 .timeslot(channel.getTimeslot())
                                 .build();
@@ -815,7 +819,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                     if(hasTrafficChannelManager())
                     {
                         mTrafficChannelManager.processChannelGrant(channel, mergedIdentifiers, csbk.getOpcode(),
-                            csbk.getTimestamp(), csbk.isEncrypted());
+                            csbk.getTimestamp(), csbk.isEncrypted(), csbk.isEmergency());
                     }
                     else
                     {
@@ -827,6 +831,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                                 .channel(channel)
                                 .details(csbk.getOpcode().getLabel())
                                 .eventDescription(DecodeEventType.CALL_GROUP.toString())
+                                .emergency(csbk.isEmergency())
                                 .identifiers(mergedIdentifiers)
                                 .timeslot(channel.getTimeslot())
                                 .build();
@@ -981,7 +986,8 @@ public class DMRDecoderState extends TimeslotDecoderState
                         getIdentifierCollection().update(message.getIdentifiers());
                         ServiceOptions serviceOptions = cpgvcu.getServiceOptions();
                         updateCurrentCall(serviceOptions.isEncrypted() ? DecodeEventType.CALL_GROUP_ENCRYPTED :
-                            DecodeEventType.CALL_GROUP, serviceOptions.toString(), message.getTimestamp());
+                            DecodeEventType.CALL_GROUP, serviceOptions.toString(), serviceOptions.isEmergency(),
+                            message.getTimestamp());
                     }
                 }
                 break;
@@ -1018,7 +1024,8 @@ public class DMRDecoderState extends TimeslotDecoderState
                         getIdentifierCollection().update(message.getIdentifiers());
                         ServiceOptions serviceOptions = hgvcu.getServiceOptions();
                         updateCurrentCall(serviceOptions.isEncrypted() ? DecodeEventType.CALL_GROUP_ENCRYPTED :
-                            DecodeEventType.CALL_GROUP, serviceOptions.toString(), message.getTimestamp());
+                            DecodeEventType.CALL_GROUP, serviceOptions.toString(), serviceOptions.isEmergency(),
+                            message.getTimestamp());
 
                     }
                 }
@@ -1042,7 +1049,8 @@ public class DMRDecoderState extends TimeslotDecoderState
                         getIdentifierCollection().update(message.getIdentifiers());
                         ServiceOptions serviceOptions = huuvcu.getServiceOptions();
                         updateCurrentCall(serviceOptions.isEncrypted() ? DecodeEventType.CALL_UNIT_TO_UNIT_ENCRYPTED :
-                            DecodeEventType.CALL_UNIT_TO_UNIT, serviceOptions.toString(), message.getTimestamp());
+                            DecodeEventType.CALL_UNIT_TO_UNIT, serviceOptions.toString(), serviceOptions.isEmergency(),
+                            message.getTimestamp());
                     }
                 }
                 break;
@@ -1061,7 +1069,8 @@ public class DMRDecoderState extends TimeslotDecoderState
                         getIdentifierCollection().update(message.getIdentifiers());
                         ServiceOptions serviceOptions = gvcu.getServiceOptions();
                         updateCurrentCall(serviceOptions.isEncrypted() ? DecodeEventType.CALL_GROUP_ENCRYPTED :
-                            DecodeEventType.CALL_GROUP, serviceOptions.toString(), message.getTimestamp());
+                            DecodeEventType.CALL_GROUP, serviceOptions.toString(), serviceOptions.isEmergency(),
+                            message.getTimestamp());
                     }
                 }
                 break;
@@ -1080,7 +1089,8 @@ public class DMRDecoderState extends TimeslotDecoderState
                         getIdentifierCollection().update(message.getIdentifiers());
                         ServiceOptions serviceOptions = uuvcu.getServiceOptions();
                         updateCurrentCall(serviceOptions.isEncrypted() ? DecodeEventType.CALL_UNIT_TO_UNIT_ENCRYPTED :
-                            DecodeEventType.CALL_UNIT_TO_UNIT, serviceOptions.toString(), message.getTimestamp());
+                            DecodeEventType.CALL_UNIT_TO_UNIT, serviceOptions.toString(), serviceOptions.isEmergency(),
+                            message.getTimestamp());
                     }
                 }
                 break;
@@ -1111,7 +1121,7 @@ public class DMRDecoderState extends TimeslotDecoderState
      * @param details of the call (optional)
      * @param timestamp of the message indicating a call or continuation
      */
-    private void updateCurrentCall(DecodeEventType type, String details, long timestamp)
+    private void updateCurrentCall(DecodeEventType type, String details, boolean emergency, long timestamp)
     {
         Event event = (mCurrentCallEvent == null ? Event.START : Event.CONTINUATION);
 
@@ -1121,6 +1131,7 @@ public class DMRDecoderState extends TimeslotDecoderState
                 .channel(getCurrentChannel())
                 .eventDescription(type.toString())
                 .details(details)
+                .emergency(emergency)
                 .identifiers(getIdentifierCollection().copyOf())
                 .build();
 
@@ -1134,6 +1145,11 @@ public class DMRDecoderState extends TimeslotDecoderState
                 mCurrentCallEvent.setDetails(details);
             }
 
+            if(emergency)
+            {
+                mCurrentCallEvent.setEmergency(true);
+            }
+
             mCurrentCallEvent.setIdentifierCollection(getIdentifierCollection().copyOf());
             mCurrentCallEvent.end(timestamp);
             broadcast(mCurrentCallEvent);
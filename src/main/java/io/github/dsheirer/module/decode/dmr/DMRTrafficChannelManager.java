@@ -182,6 +182,7 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
 
             mAvailableTrafficChannelQueue.addAll(trafficChannelList);
             mManagedTrafficChannels = Collections.unmodifiableList(trafficChannelList);
+            getProcessingChainPool().addTrafficChannels(trafficChannelList);
         }
     }
 
@@ -322,9 +323,10 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
      * Processes channel grants to allocate traffic channels and track overall channel usage.  Generates
      * decode events for each new channel that is allocated.
      *
+     * @param emergency true if the channel grant has the emergency flag set
      */
     public void processChannelGrant(DMRChannel channel, IdentifierCollection identifierCollection,
-                                    Opcode opcode, long timestamp, boolean encrypted)
+                                    Opcode opcode, long timestamp, boolean encrypted, boolean emergency)
     {
         int lsn = channel.getLogicalSlotNumber();
 
@@ -336,6 +338,7 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
                 .channel(channel)
                 .eventDescription(getEventType(opcode, identifierCollection, encrypted).toString())
                 .details("CHANNEL GRANT" + (encrypted ? " ENCRYPTED" : ""))
+                .emergency(emergency)
                 .identifiers(identifierCollection)
                 .build();
 
@@ -357,6 +360,7 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
                         .channel(channel)
                         .eventDescription(getEventType(opcode, identifierCollection, encrypted).toString() + " - Continue")
                         .details("CHANNEL GRANT" + (encrypted ? " ENCRYPTED" : ""))
+                        .emergency(emergency)
                         .identifiers(identifierCollection)
                         .build();
 
@@ -365,6 +369,11 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
                 }
             }
 
+            if(emergency)
+            {
+                event.setEmergency(true);
+            }
+
             //update the ending timestamp so that the duration value is correctly calculated
             event.update(timestamp);
         }
@@ -423,7 +432,7 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
                 sourceConfig.setFrequency(frequency);
                 trafficChannel.setSourceConfiguration(sourceConfig);
                 mAllocatedTrafficChannelFrequencyMap.put(frequency, trafficChannel);
-                getInterModuleEventBus().post(new ChannelStartProcessingRequest(trafficChannel, channel,
+                requestTrafficChannelStart(new ChannelStartProcessingRequest(trafficChannel, channel,
                     identifierCollection));
             }
             else
@@ -625,6 +634,8 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
     @Override
     public void start()
     {
+        getProcessingChainPool().setEnabled(true);
+
         for(Long frequency: mAllocatedTrafficChannelFrequencyMap.keySet())
         {
             getInterModuleEventBus().post(FrequencyLockChangeRequest.lock(frequency));
@@ -634,6 +645,10 @@ public class DMRTrafficChannelManager extends TrafficChannelManager implements I
     @Override
     public void stop()
     {
+        //Disable the processing chain pool before stopping the traffic channels so that their processing chains are
+        //disposed instead of being retained for reuse.
+        getProcessingChainPool().setEnabled(false);
+
         mAvailableTrafficChannelQueue.clear();
 
         List<Channel> channels = new ArrayList<>(mAllocatedTrafficChannelFrequencyMap.values());
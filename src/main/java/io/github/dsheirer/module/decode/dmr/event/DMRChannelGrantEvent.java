@@ -79,6 +79,7 @@ public class DMRChannelGrantEvent extends DMRDecodeEvent
         protected DMRChannel mChannel;
         protected String mDetails;
         protected boolean mEncrypted;
+        protected boolean mEmergency;
 
         /**
          * Constructs a builder instance with the specified start time in milliseconds
@@ -99,6 +100,15 @@ public class DMRChannelGrantEvent extends DMRDecodeEvent
             return this;
         }
 
+        /**
+         * Sets the emergency state for the channel grant
+         */
+        public DMRChannelGrantDecodeEventBuilder emergency(boolean emergency)
+        {
+            mEmergency = emergency;
+            return this;
+        }
+
         /**
          * Sets the duration value
          * @param duration in milliseconds
@@ -172,6 +182,7 @@ public class DMRChannelGrantEvent extends DMRDecodeEvent
             decodeEvent.setDuration(mDuration);
             decodeEvent.setEventDescription(mEventDescription);
             decodeEvent.setIdentifierCollection(mIdentifierCollection);
+            decodeEvent.setEmergency(mEmergency);
             return decodeEvent;
         }
     }
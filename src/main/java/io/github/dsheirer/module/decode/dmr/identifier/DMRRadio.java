@@ -23,6 +23,7 @@
 package io.github.dsheirer.module.decode.dmr.identifier;
 
 import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.integer.IntegerIdentifierInterner;
 import io.github.dsheirer.identifier.radio.RadioIdentifier;
 import io.github.dsheirer.protocol.Protocol;
 
@@ -31,6 +32,8 @@ import io.github.dsheirer.protocol.Protocol;
  */
 public class DMRRadio extends RadioIdentifier
 {
+    private static final IntegerIdentifierInterner<DMRRadio> INTERNER = new IntegerIdentifierInterner<>(DMRRadio::new);
+
     public DMRRadio(Integer value, Role role)
     {
         super(value, role);
@@ -47,7 +50,7 @@ public class DMRRadio extends RadioIdentifier
      */
     public static RadioIdentifier createTo(int radioId)
     {
-        return new DMRRadio(radioId, Role.TO);
+        return INTERNER.get(radioId, Role.TO);
     }
 
     /**
@@ -55,7 +58,7 @@ public class DMRRadio extends RadioIdentifier
      */
     public static RadioIdentifier createFrom(int radioId)
     {
-        return new DMRRadio(radioId, Role.FROM);
+        return INTERNER.get(radioId, Role.FROM);
     }
 
     /**
@@ -63,6 +66,6 @@ public class DMRRadio extends RadioIdentifier
      */
     public static RadioIdentifier createAny(int radioId)
     {
-        return new DMRRadio(radioId, Role.ANY);
+        return INTERNER.get(radioId, Role.ANY);
     }
 }
@@ -23,11 +23,15 @@
 package io.github.dsheirer.module.decode.dmr.identifier;
 
 import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.integer.IntegerIdentifierInterner;
 import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
 import io.github.dsheirer.protocol.Protocol;
 
 public class DMRTalkgroup extends TalkgroupIdentifier
 {
+    private static final IntegerIdentifierInterner<DMRTalkgroup> INTERNER =
+        new IntegerIdentifierInterner<>(DMRTalkgroup::new);
+
     public DMRTalkgroup(Integer value)
     {
         super(value, Role.TO);
@@ -49,7 +53,7 @@ public class DMRTalkgroup extends TalkgroupIdentifier
      */
     public static TalkgroupIdentifier create(int talkgroup)
     {
-        return new DMRTalkgroup(talkgroup);
+        return INTERNER.get(talkgroup, Role.TO);
     }
 
     /**
@@ -57,6 +61,6 @@ public class DMRTalkgroup extends TalkgroupIdentifier
      */
     public static TalkgroupIdentifier createAny(int talkgroup)
     {
-        return new DMRTalkgroup(talkgroup, Role.ANY);
+        return INTERNER.get(talkgroup, Role.ANY);
     }
 }
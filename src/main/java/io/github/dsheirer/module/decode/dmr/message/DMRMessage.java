@@ -20,13 +20,14 @@
 package io.github.dsheirer.module.decode.dmr.message;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.protocol.Protocol;
 
 /**
  * Base DMR Message
  */
-public abstract class DMRMessage extends Message
+public abstract class DMRMessage extends Message implements IBinaryMessageProvider
 {
     private CorrectedBinaryMessage mCorrectedBinaryMessage;
     private boolean mValid = true;
@@ -112,6 +112,14 @@ public abstract class CSBKMessage extends DataMessage
         return getMessage().get(PROTECT_FLAG);
     }
 
+    /**
+     * Indicates if this message has the emergency flag set.  Subclasses with an emergency flag override this method.
+     */
+    public boolean isEmergency()
+    {
+        return false;
+    }
+
     /**
      * Utility method to lookup the opcode from a CSBK message
      * @param message containing CSBK bits
@@ -84,7 +84,7 @@ public class DMRAudioModule extends AmbeAudioModule implements IdentifierUpdateP
     public void reset()
     {
         //Explicitly clear FROM identifiers to ensure previous call TONE identifiers are cleared.
-        mIdentifierCollection.remove(Role.FROM);
+        queueLaneTask(() -> mIdentifierCollection.remove(Role.FROM));
 
         mEncryptedCall = false;
         mEncryptedCallStateEstablished = false;
@@ -101,6 +101,8 @@ public class DMRAudioModule extends AmbeAudioModule implements IdentifierUpdateP
      */
     public void receive(IMessage message)
     {
+        processMessageThreadTasks();
+
         if(hasAudioCodec() && message.getTimeslot() == getTimeslot())
         {
             //Both Motorola and Hytera signal their Basic Privacy (BP) scrambling in some of the Voice B-F frames
@@ -192,18 +194,24 @@ public class DMRAudioModule extends AmbeAudioModule implements IdentifierUpdateP
         }
     }
 
+    /**
+     * Queues the audio frame for decoding on the vocoder worker lane.  Any audio metadata is processed on the
+     * decoder thread.
+     */
     private void produceAudio(byte[] frame)
     {
-        try
-        {
-            IAudioWithMetadata audioWithMetadata = getAudioCodec().getAudioWithMetadata(frame);
-            addAudio(audioWithMetadata.getAudio());
-            processMetadata(audioWithMetadata);
-        }
-        catch(Exception e)
-        {
-            mLog.error("Error synthesizing DMR AMBE audio - continuing [" + e.getMessage() + "]");
-        }
+        decodeAudio(() -> {
+            try
+            {
+                IAudioWithMetadata audioWithMetadata = getAudioCodec().getAudioWithMetadata(frame);
+                addAudio(audioWithMetadata.getAudio());
+                postToMessageThread(() -> processMetadata(audioWithMetadata));
+            }
+            catch(Exception e)
+            {
+                mLog.error("Error synthesizing DMR AMBE audio - continuing [" + e.getMessage() + "]");
+            }
+        });
     }
 
     /**
@@ -274,7 +282,7 @@ public class DMRAudioModule extends AmbeAudioModule implements IdentifierUpdateP
         {
             if(event.getTimeslot() == getTimeslot() && event.getSquelchState() == SquelchState.SQUELCH)
             {
-                closeAudioSegment();
+                queueCloseAudioSegment();
             }
         }
     }
@@ -41,6 +41,7 @@ public class DecodeEvent implements IDecodeEvent
     private String mDetails;
     private Protocol mProtocol;
     private Integer mTimeslot;
+    private boolean mEmergency;
 
     public DecodeEvent(long start)
     {
@@ -231,6 +232,23 @@ public class DecodeEvent implements IDecodeEvent
         mTimeslot = timeslot;
     }
 
+    /**
+     * Indicates if the radio or system flagged the event as an emergency
+     */
+    @Override
+    public boolean isEmergency()
+    {
+        return mEmergency;
+    }
+
+    /**
+     * Sets the emergency flag for the event
+     */
+    public void setEmergency(boolean emergency)
+    {
+        mEmergency = emergency;
+    }
+
     @Override
     public String toString()
     {
@@ -260,6 +278,7 @@ public class DecodeEvent implements IDecodeEvent
         protected String mDetails;
         protected Protocol mProtocol = Protocol.UNKNOWN;
         protected Integer mTimeslot;
+        protected boolean mEmergency;
 
         /**
          * Constructs a builder instance with the specified start time in milliseconds
@@ -346,6 +365,16 @@ public class DecodeEvent implements IDecodeEvent
             return this;
         }
 
+        /**
+         * Sets the emergency flag for the event
+         * @param emergency true if the radio or system flagged the event as an emergency
+         */
+        public DecodeEventBuilder emergency(boolean emergency)
+        {
+            mEmergency = emergency;
+            return this;
+        }
+
         /**
          * Builds the decode event
          */
@@ -359,6 +388,7 @@ public class DecodeEvent implements IDecodeEvent
             decodeEvent.setIdentifierCollection(mIdentifierCollection);
             decodeEvent.setProtocol(mProtocol);
             decodeEvent.setTimeslot(mTimeslot);
+            decodeEvent.setEmergency(mEmergency);
             return decodeEvent;
         }
     }
@@ -90,4 +90,9 @@ public interface IDecodeEvent
      * Indicates if the event has a timeslot specified
      */
     boolean hasTimeslot();
+
+    /**
+     * Indicates if the radio or system flagged the event as an emergency
+     */
+    boolean isEmergency();
 }
@@ -23,6 +23,7 @@ import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
 import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
 /**
@@ -55,13 +56,24 @@ public class Fleetsync2Decoder extends AbstractAFSKDecoder
         init();
     }
 
+    /**
+     * Constructs a Fleetsync II decoder that receives symbols from a shared AFSK1200 front end
+     *
+     * @param frontEnd that demodulates the channel audio
+     */
+    public Fleetsync2Decoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     /**
      * Initializes the decoding chain.
      */
     private void init()
     {
         mMessageFramer = new MessageFramer(SyncPattern.FLEETSYNC2.getPattern(), MESSAGE_LENGTH);
-        getDecoder().setSymbolProcessor(mMessageFramer);
+        setSymbolProcessor(mMessageFramer);
         mMessageProcessor = new Fleetsync2MessageProcessor();
         mMessageFramer.addMessageListener(mMessageProcessor);
         mMessageProcessor.setMessageListener(getMessageListener());
@@ -23,6 +23,7 @@ import io.github.dsheirer.bits.BinaryMessage;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.edac.CRC;
 import io.github.dsheirer.edac.CRCFleetsync;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.module.decode.fleetsync2.FleetsyncMessageType;
 import io.github.dsheirer.module.decode.fleetsync2.identifier.FleetsyncIdentifier;
@@ -30,7 +31,7 @@ import io.github.dsheirer.protocol.Protocol;
 
 import java.util.BitSet;
 
-public abstract class Fleetsync2Message extends Message
+public abstract class Fleetsync2Message extends Message implements IBinaryMessageProvider
 {
     //Message Header
     private static int[] BIT_REVERSALS = {0, 1, 2, 3, 4};
@@ -81,7 +82,7 @@ public abstract class Fleetsync2Message extends Message
         checkParity();
     }
 
-    protected CorrectedBinaryMessage getMessage()
+    public CorrectedBinaryMessage getMessage()
     {
         return mMessage;
     }
@@ -24,6 +24,7 @@ import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
 import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
 /**
@@ -50,10 +51,21 @@ public class LJ1200Decoder extends AbstractAFSKDecoder implements IBinarySymbolP
         init();
     }
 
+    /**
+     * Constructs a LJ1200 decoder that receives symbols from a shared AFSK1200 front end
+     *
+     * @param frontEnd that demodulates the channel audio
+     */
+    public LJ1200Decoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
 
     private void init()
     {
-        getDecoder().setSymbolProcessor(this);
+        setSymbolProcessor(this);
 
         mTowerMessageFramer = new MessageFramer(SyncPattern.LJ1200.getPattern(), MESSAGE_LENGTH);
         mTransponderMessageFramer = new MessageFramer(SyncPattern.LJ1200_TRANSPONDER.getPattern(), MESSAGE_LENGTH);
@@ -23,12 +23,13 @@ import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.edac.CRC;
 import io.github.dsheirer.edac.CRCLTR;
 import io.github.dsheirer.identifier.talkgroup.LTRTalkgroup;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.message.MessageDirection;
 import io.github.dsheirer.module.decode.ltrnet.LtrNetMessageType;
 import io.github.dsheirer.protocol.Protocol;
 
-public abstract class LtrNetMessage extends Message
+public abstract class LtrNetMessage extends Message implements IBinaryMessageProvider
 {
     protected static final int[] SYNC = {0, 1, 2, 3, 4, 5, 6, 7, 8};
     protected static final int[] AREA = {9};
@@ -53,7 +54,7 @@ public abstract class LtrNetMessage extends Message
     /**
      * Underlying binary message
      */
-    protected CorrectedBinaryMessage getMessage()
+    public CorrectedBinaryMessage getMessage()
     {
         return mMessage;
     }
@@ -22,6 +22,7 @@ package io.github.dsheirer.module.decode.ltrstandard.message;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.edac.CRC;
 import io.github.dsheirer.identifier.talkgroup.LTRTalkgroup;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.message.MessageDirection;
 import io.github.dsheirer.module.decode.ltrstandard.LtrStandardMessageType;
@@ -30,7 +31,7 @@ import io.github.dsheirer.protocol.Protocol;
 /**
  * LTR Standard Base Message
  */
-public abstract class LTRMessage extends Message
+public abstract class LTRMessage extends Message implements IBinaryMessageProvider
 {
     public static final int[] SYNC = {0, 1, 2, 3, 4, 5, 6, 7, 8};
     public static final int[] AREA = {9};
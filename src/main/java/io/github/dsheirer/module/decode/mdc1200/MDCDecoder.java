@@ -24,6 +24,7 @@ import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.NRZDecoder;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
 import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
 /**
@@ -43,6 +44,17 @@ public class MDCDecoder extends AbstractAFSKDecoder
         init();
     }
 
+    /**
+     * Constructs a MDC1200 decoder that receives symbols from a shared AFSK1200 front end
+     *
+     * @param frontEnd that demodulates the channel audio
+     */
+    public MDCDecoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.INVERTED);
+        init();
+    }
+
     protected MDCDecoder(AFSK1200Decoder decoder)
     {
         super(decoder);
@@ -52,7 +64,7 @@ public class MDCDecoder extends AbstractAFSKDecoder
     private void init()
     {
         mNRZDecoder = new NRZDecoder(NRZDecoder.MODE_INVERTED);
-        getDecoder().setSymbolProcessor(mNRZDecoder);
+        setSymbolProcessor(mNRZDecoder);
         mMessageFramer = new MessageFramer(SyncPattern.MDC1200.getPattern(), MESSAGE_LENGTH);
         mNRZDecoder.setListener(mMessageFramer);
         mMessageProcessor = new MDCMessageProcessor();
@@ -117,6 +117,7 @@ public class MDCDecoderState extends DecoderState
             broadcast(DecodeEvent.builder(mdc.getTimestamp())
                 .eventDescription(type.getLabel())
                 .details(mdc.toString())
+                .emergency(mdc.isEmergency() || type == MDCMessageType.EMERGENCY)
                 .identifiers(ic)
                 .build());
 
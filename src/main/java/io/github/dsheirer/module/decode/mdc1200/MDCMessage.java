@@ -21,6 +21,7 @@ package io.github.dsheirer.module.decode.mdc1200;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.module.decode.mdc1200.identifier.MDC1200Identifier;
 import io.github.dsheirer.protocol.Protocol;
@@ -29,7 +30,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.util.ArrayList;
 import java.util.List;
 
-public class MDCMessage extends Message
+public class MDCMessage extends Message implements IBinaryMessageProvider
 {
     private static int[] SYNC1 = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20, 21, 22,
         23, 24, 25, 26, 27, 28, 29, 30, 31, 32, 33, 34, 35, 36, 37, 38, 39};
@@ -133,7 +133,7 @@ public class MPT1327TrafficChannelManager extends TrafficChannelManager implemen
                 sourceConfig.setFrequency(mpt1327Channel.getDownlinkFrequency());
                 trafficChannel.setSourceConfiguration(sourceConfig);
                 mAllocatedTrafficChannelMap.put(mpt1327Channel, trafficChannel);
-                getInterModuleEventBus().post(new ChannelStartProcessingRequest(trafficChannel, mpt1327Channel,
+                requestTrafficChannelStart(new ChannelStartProcessingRequest(trafficChannel, mpt1327Channel,
                     identifierCollection));
             }
 
@@ -173,6 +173,7 @@ public class MPT1327TrafficChannelManager extends TrafficChannelManager implemen
 
         mAvailableTrafficChannelQueue.addAll(trafficChannelList);
         mManagedTrafficChannels = Collections.unmodifiableList(trafficChannelList);
+        getProcessingChainPool().addTrafficChannels(trafficChannelList);
     }
 
     /**
@@ -236,12 +237,16 @@ public class MPT1327TrafficChannelManager extends TrafficChannelManager implemen
     @Override
     public void start()
     {
-
+        getProcessingChainPool().setEnabled(true);
     }
 
     @Override
     public void stop()
     {
+        //Disable the processing chain pool before stopping the traffic channels so that their processing chains are
+        //disposed instead of being retained for reuse.
+        getProcessingChainPool().setEnabled(false);
+
         mAvailableTrafficChannelQueue.clear();
         List<Channel> channels = new ArrayList<>(mAllocatedTrafficChannelMap.values());
 
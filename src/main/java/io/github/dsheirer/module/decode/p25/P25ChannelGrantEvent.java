@@ -60,6 +60,15 @@ public class P25ChannelGrantEvent extends P25DecodeEvent
         mServiceOptions = serviceOptions;
     }
 
+    /**
+     * Indicates if the event or the channel grant service options are flagged as an emergency
+     */
+    @Override
+    public boolean isEmergency()
+    {
+        return super.isEmergency() || (mServiceOptions != null && mServiceOptions.isEmergency());
+    }
+
     /**
      * Indicates if this channel grant event has non-null service options
      */
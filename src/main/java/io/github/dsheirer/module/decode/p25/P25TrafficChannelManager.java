@@ -164,6 +164,7 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
 
             mAvailablePhase1TrafficChannelQueue.addAll(trafficChannelList);
             mManagedPhase1TrafficChannels = Collections.unmodifiableList(trafficChannelList);
+            getProcessingChainPool().addTrafficChannels(trafficChannelList);
         }
     }
 
@@ -203,6 +204,7 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
 
             mAvailablePhase2TrafficChannelQueue.addAll(trafficChannelList);
             mManagedPhase2TrafficChannels = Collections.unmodifiableList(trafficChannelList);
+            getProcessingChainPool().addTrafficChannels(trafficChannelList);
         }
     }
 
@@ -315,7 +317,7 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
                     sourceConfig.setFrequency(frequency);
                     trafficChannel.setSourceConfiguration(sourceConfig);
                     mAllocatedTrafficChannelMap.put(frequency, trafficChannel);
-                    getInterModuleEventBus().post(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
+                    requestTrafficChannelStart(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
                 }
             }
 
@@ -361,7 +363,7 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
             sourceConfig.setFrequency(frequency);
             trafficChannel.setSourceConfiguration(sourceConfig);
             mAllocatedTrafficChannelMap.put(frequency, trafficChannel);
-            getInterModuleEventBus().post(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
+            requestTrafficChannelStart(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
         }
 
         broadcast(channelGrantEvent);
@@ -465,7 +467,7 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
                         decodeConfig.setScrambleParameters(mPhase2ScrambleParameters.copy());
                     }
 
-                    getInterModuleEventBus().post(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
+                    requestTrafficChannelStart(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
                 }
             }
 
@@ -519,7 +521,7 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
             sourceConfig.setFrequency(frequency);
             trafficChannel.setSourceConfiguration(sourceConfig);
             mAllocatedTrafficChannelMap.put(frequency, trafficChannel);
-            getInterModuleEventBus().post(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
+            requestTrafficChannelStart(new ChannelStartProcessingRequest(trafficChannel, apco25Channel, identifierCollection));
         }
 
         broadcast(channelGrantEvent);
@@ -672,11 +674,16 @@ public class P25TrafficChannelManager extends TrafficChannelManager implements I
     @Override
     public void start()
     {
+        getProcessingChainPool().setEnabled(true);
     }
 
     @Override
     public void stop()
     {
+        //Disable the processing chain pool before stopping the traffic channels so that their processing chains are
+        //disposed instead of being retained for reuse.
+        getProcessingChainPool().setEnabled(false);
+
         mAvailablePhase1TrafficChannelQueue.clear();
         mAvailablePhase2TrafficChannelQueue.clear();
 
@@ -60,7 +60,7 @@ public class P25P1AudioModule extends ImbeAudioModule
     @Override
     public void reset()
     {
-        getIdentifierCollection().clear();
+        queueLaneTask(() -> getIdentifierCollection().clear());
     }
 
     @Override
@@ -118,7 +118,8 @@ public class P25P1AudioModule extends ImbeAudioModule
     }
 
     /**
-     * Processes an audio packet by decoding the IMBE audio frames and rebroadcasting them as PCM audio packets.
+     * Processes an audio packet by queueing the IMBE audio frames for decoding on the vocoder worker lane and
+     * rebroadcasting them as PCM audio packets.
      */
     private void processAudio(LDUMessage ldu)
     {
@@ -126,9 +127,11 @@ public class P25P1AudioModule extends ImbeAudioModule
         {
             for(byte[] frame : ldu.getIMBEFrames())
             {
-                float[] audio = getAudioCodec().getAudio(frame);
-                audio = mGain.apply(audio);
-                addAudio(audio);
+                decodeAudio(() -> {
+                    float[] audio = getAudioCodec().getAudio(frame);
+                    audio = mGain.apply(audio);
+                    addAudio(audio);
+                });
             }
         }
         else
@@ -149,7 +152,7 @@ public class P25P1AudioModule extends ImbeAudioModule
         {
             if(event.getSquelchState() == SquelchState.SQUELCH)
             {
-                closeAudioSegment();
+                queueCloseAudioSegment();
                 mEncryptedCallStateEstablished = false;
                 mEncryptedCall = false;
                 mCachedLDU1Message = null;
@@ -48,7 +48,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 
 /**
- * P25 Phase 1 IMBE Frame recorder generates P25 call sequence recordings containing JSON representations of audio
+ * P25 Phase 1 IMBE Frame recorder generates P25 call sequence recordings containing binary representations of audio
  * frames, optional encryption and call identifiers.
  */
 public class P25P1CallSequenceRecorder extends MBECallSequenceRecorder
@@ -79,6 +79,7 @@ public class P25P1CallSequenceRecorder extends MBECallSequenceRecorder
     public void stop()
     {
         flush();
+        closeRecording();
     }
 
     /**
@@ -142,7 +143,7 @@ public class P25P1CallSequenceRecorder extends MBECallSequenceRecorder
     {
         if(mCallSequence == null)
         {
-            mCallSequence = new MBECallSequence(PROTOCOL);
+            mCallSequence = createCallSequence(PROTOCOL);
         }
 
         if(lduMessage instanceof LDU1Message)
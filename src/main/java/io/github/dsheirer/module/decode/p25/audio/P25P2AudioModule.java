@@ -78,7 +78,7 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
     public void reset()
     {
         //Explicitly clear FROM identifiers to ensure previous call TONE identifiers are cleared.
-        mIdentifierCollection.remove(Role.FROM);
+        queueLaneTask(() -> mIdentifierCollection.remove(Role.FROM));
 
         mToneMetadataProcessor.reset();
         mQueuedAudioTimeslots.clear();
@@ -106,6 +106,8 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
     @Override
     public void receive(IMessage message)
     {
+        processMessageThreadTasks();
+
         if(message.getTimeslot() == getTimeslot())
         {
             if(message instanceof AbstractVoiceTimeslot)
@@ -164,16 +166,18 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
             {
                 byte[] voiceFrameBytes = voiceFrame.getBytes();
 
-                try
-                {
-                    IAudioWithMetadata audioWithMetadata = getAudioCodec().getAudioWithMetadata(voiceFrameBytes);
-                    addAudio(audioWithMetadata.getAudio());
-                    processMetadata(audioWithMetadata);
-                }
-                catch(Exception e)
-                {
-                    mLog.error("Error synthesizing AMBE audio - continuing [" + e.getLocalizedMessage() + "]");
-                }
+                decodeAudio(() -> {
+                    try
+                    {
+                        IAudioWithMetadata audioWithMetadata = getAudioCodec().getAudioWithMetadata(voiceFrameBytes);
+                        addAudio(audioWithMetadata.getAudio());
+                        postToMessageThread(() -> processMetadata(audioWithMetadata));
+                    }
+                    catch(Exception e)
+                    {
+                        mLog.error("Error synthesizing AMBE audio - continuing [" + e.getLocalizedMessage() + "]");
+                    }
+                });
             }
         }
     }
@@ -306,7 +310,7 @@ public class P25P2AudioModule extends AmbeAudioModule implements IdentifierUpdat
             {
                 if(event.getSquelchState() == SquelchState.SQUELCH)
                 {
-                    closeAudioSegment();
+                    queueCloseAudioSegment();
                     reset();
                 }
             }
@@ -45,7 +45,7 @@ import org.slf4j.LoggerFactory;
 import java.util.List;
 
 /**
- * P25 Phase 2 AMBE Frame recorder generates P25 call sequence recordings containing JSON representations of audio
+ * P25 Phase 2 AMBE Frame recorder generates P25 call sequence recordings containing binary representations of audio
  * frames, optional encryption and call identifiers.
  */
 public class P25P2CallSequenceRecorder extends MBECallSequenceRecorder
@@ -76,6 +76,7 @@ public class P25P2CallSequenceRecorder extends MBECallSequenceRecorder
     {
         mTimeslot0Processor.flush();
         mTimeslot1Processor.flush();
+        closeRecording();
     }
 
     /**
@@ -162,7 +163,7 @@ public class P25P2CallSequenceRecorder extends MBECallSequenceRecorder
         {
             if(mCallSequence == null)
             {
-                mCallSequence = new MBECallSequence(PROTOCOL);
+                mCallSequence = createCallSequence(PROTOCOL);
             }
 
             List<BinaryMessage> voiceFrames = voiceTimeslot.getVoiceFrames();
@@ -211,7 +212,7 @@ public class P25P2CallSequenceRecorder extends MBECallSequenceRecorder
         {
             if(mCallSequence == null && isActive)
             {
-                mCallSequence = new MBECallSequence(PROTOCOL);
+                mCallSequence = createCallSequence(PROTOCOL);
             }
 
             if(mCallSequence != null)
@@ -366,7 +367,7 @@ public class P25P2CallSequenceRecorder extends MBECallSequenceRecorder
 
                 if(mCallSequence == null)
                 {
-                    mCallSequence = new MBECallSequence(PROTOCOL);
+                    mCallSequence = createCallSequence(PROTOCOL);
                 }
                 mCallSequence.setFromIdentifier(ptt.getSourceAddress().toString());
                 mCallSequence.setToIdentifier(ptt.getGroupAddress().toString());
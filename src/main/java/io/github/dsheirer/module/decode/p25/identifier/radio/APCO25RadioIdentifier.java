@@ -23,6 +23,7 @@
 package io.github.dsheirer.module.decode.p25.identifier.radio;
 
 import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.integer.IntegerIdentifierInterner;
 import io.github.dsheirer.identifier.radio.RadioIdentifier;
 import io.github.dsheirer.protocol.Protocol;
 
@@ -31,6 +32,9 @@ import io.github.dsheirer.protocol.Protocol;
  */
 public class APCO25RadioIdentifier extends RadioIdentifier
 {
+    private static final IntegerIdentifierInterner<APCO25RadioIdentifier> INTERNER =
+        new IntegerIdentifierInterner<>(APCO25RadioIdentifier::new);
+
     public APCO25RadioIdentifier(Integer value, Role role)
     {
         super(value, role);
@@ -47,7 +51,7 @@ public class APCO25RadioIdentifier extends RadioIdentifier
      */
     public static RadioIdentifier createTo(int radioId)
     {
-        return new APCO25RadioIdentifier(radioId, Role.TO);
+        return INTERNER.get(radioId, Role.TO);
     }
 
     /**
@@ -55,7 +59,7 @@ public class APCO25RadioIdentifier extends RadioIdentifier
      */
     public static RadioIdentifier createFrom(int radioId)
     {
-        return new APCO25RadioIdentifier(radioId, Role.FROM);
+        return INTERNER.get(radioId, Role.FROM);
     }
 
     /**
@@ -63,6 +67,6 @@ public class APCO25RadioIdentifier extends RadioIdentifier
      */
     public static RadioIdentifier createAny(int radioId)
     {
-        return new APCO25RadioIdentifier(radioId, Role.ANY);
+        return INTERNER.get(radioId, Role.ANY);
     }
 }
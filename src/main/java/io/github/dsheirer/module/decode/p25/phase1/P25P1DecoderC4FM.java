@@ -24,8 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase1;
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexBasebandFrontEnd;
 import io.github.dsheirer.dsp.psk.DQPSKDecisionDirectedDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -50,9 +49,8 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     protected CostasLoop mCostasLoop;
     protected FrequencyCorrectionSyncMonitor mFrequencyCorrectionSyncMonitor;
     protected P25P1MessageFramer mMessageFramer;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
     private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
+    private ComplexBasebandFrontEnd mFrontEnd;
 
     /**
      * P25 Phase 1 - standard C4FM modulation decoder.  Uses Differential QPSK decoding with a Costas PLL and a
@@ -68,7 +66,7 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     {
         super.setSampleRate(sampleRate);
 
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        mFrontEnd = new ComplexBasebandFrontEnd(getBasebandFilter());
 
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
@@ -100,27 +98,25 @@ public class P25P1DecoderC4FM extends P25P1Decoder
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
 
-        //User accounting of the incoming buffer is handled by the gain filter
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
-        mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
+        mMessageFramer.setCurrentTime(gainApplied.getTimestamp());
 
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
+     * Filters and applies gain to the complex buffer in a single pass and returns a new reusable complex buffer with
+     * the processed contents.
      * @param reusableComplexBuffer to filter
-     * @return filtered complex buffer
+     * @return filtered and gain-adjusted complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        return mFrontEnd.process(reusableComplexBuffer);
     }
 
     /**
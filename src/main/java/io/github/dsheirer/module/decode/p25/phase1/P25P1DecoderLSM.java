@@ -21,10 +21,7 @@
  */
 package io.github.dsheirer.module.decode.p25.phase1;
 
-import io.github.dsheirer.dsp.filter.FilterFactory;
-import io.github.dsheirer.dsp.filter.Window.WindowType;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexBasebandFrontEnd;
 import io.github.dsheirer.dsp.psk.DQPSKGardnerDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -42,8 +39,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.HashMap;
-import java.util.Map;
 
 public class P25P1DecoderLSM extends P25P1Decoder
 {
@@ -51,9 +46,7 @@ public class P25P1DecoderLSM extends P25P1Decoder
 
     protected static final float SAMPLE_COUNTER_GAIN = 0.3f;
 
-    private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
+    private ComplexBasebandFrontEnd mFrontEnd;
     protected DQPSKGardnerDemodulator mQPSKDemodulator;
     protected P25P1MessageFramer mMessageFramer;
     protected CostasLoop mCostasLoop;
@@ -79,7 +72,9 @@ public class P25P1DecoderLSM extends P25P1Decoder
     {
         super.setSampleRate(sampleRate);
 
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        //No additional filtering of the channel is currently needed, since the polyphase channelizer provides the
+        //filtering, so the front end uses a single unity tap and only applies gain
+        mFrontEnd = new ComplexBasebandFrontEnd(new float[]{1.0f});
 
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_200);
@@ -110,32 +105,25 @@ public class P25P1DecoderLSM extends P25P1Decoder
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //The filter will decrement the user count when finished
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
 
-        //AGC will decrement the user count when finished
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
-        mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
+        mMessageFramer.setCurrentTime(gainApplied.getTimestamp());
 
         //Decoder will decrement the user count when finished
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
-     *
+     * Filters and applies gain to the complex buffer in a single pass and returns a new reusable complex buffer with
+     * the processed contents.
      * @param reusableComplexBuffer to filter
-     * @return filtered complex buffer
+     * @return filtered and gain-adjusted complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //No additional filtering of the channel is currently needed, since the polyphase channelizer
-        //provides the filtering.
-        return reusableComplexBuffer;
-
-        //User accounting of the incoming buffer is handled by the filter
-//        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        return mFrontEnd.process(reusableComplexBuffer);
     }
 
     /**
@@ -173,25 +161,6 @@ public class P25P1DecoderLSM extends P25P1Decoder
         return Modulation.CQPSK;
     }
 
-    /**
-     * Constructs a baseband filter for this decoder using the current sample rate
-     */
-    private float[] getBasebandFilter()
-    {
-        //Attempt to reuse a cached (ie already-designed) filter if available
-        float[] filter = mBasebandFilters.get(getSampleRate());
-
-        if(filter == null)
-        {
-            filter = FilterFactory.getLowPass(getSampleRate(), 7250, 8000, 60,
-                WindowType.HANN, true);
-
-            mBasebandFilters.put(getSampleRate(), filter);
-        }
-
-        return filter;
-    }
-
     public static void main(String[] args)
     {
         String path = "/media/denny/500G1EXT4/RadioRecordings/";
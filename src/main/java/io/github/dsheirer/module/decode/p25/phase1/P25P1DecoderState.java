@@ -55,9 +55,11 @@ import io.github.dsheirer.module.decode.p25.phase1.message.hdu.HeaderData;
 import io.github.dsheirer.module.decode.p25.phase1.message.lc.LinkControlWord;
 import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCCallTermination;
 import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCExtendedFunctionCommand;
+import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCGroupVoiceChannelUser;
 import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCMessageUpdate;
 import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCStatusUpdate;
 import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCTelephoneInterconnectAnswerRequest;
+import io.github.dsheirer.module.decode.p25.phase1.message.lc.standard.LCUnitToUnitVoiceChannelUser;
 import io.github.dsheirer.module.decode.p25.phase1.message.ldu.EncryptionSyncParameters;
 import io.github.dsheirer.module.decode.p25.phase1.message.ldu.LDU1Message;
 import io.github.dsheirer.module.decode.p25.phase1.message.ldu.LDU2Message;
@@ -693,6 +695,11 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
     }
 
     private void processBroadcast(List<Identifier> identifiers, long timestamp, DecodeEventType request, String s) {
+        processBroadcast(identifiers, timestamp, request, s, false);
+    }
+
+    private void processBroadcast(List<Identifier> identifiers, long timestamp, DecodeEventType request, String s,
+                                  boolean emergency) {
         MutableIdentifierCollection requestCollection = new MutableIdentifierCollection(getIdentifierCollection().getIdentifiers());
         requestCollection.remove(IdentifierClass.USER);
         requestCollection.update(identifiers);
@@ -701,6 +708,7 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
                 .channel(getCurrentChannel())
                 .eventDescription(request.toString())
                 .details(s)
+                .emergency(emergency)
                 .identifiers(requestCollection)
                 .build());
     }
@@ -1314,7 +1322,8 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
                     processTSBKExtendedFunctionResponse(tsbk);
                     break;
                 case ISP_EMERGENCY_ALARM_REQUEST:
-                    processBroadcast(tsbk.getIdentifiers(), tsbk.getTimestamp(), DecodeEventType.REQUEST, "EMERGENCY ALARM");
+                    processBroadcast(tsbk.getIdentifiers(), tsbk.getTimestamp(), DecodeEventType.REQUEST,
+                        "EMERGENCY ALARM", true);
                     break;
                 case ISP_GROUP_AFFILIATION_REQUEST:
                     processBroadcast(tsbk.getIdentifiers(), tsbk.getTimestamp(), DecodeEventType.REQUEST, "GROUP AFFILIATION");
@@ -1399,6 +1408,7 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
                 .eventDescription(DecodeEventType.REGISTER.toString())
                 .details((lrr.isEmergency() ? "EMERGENCY " : "") +
                     "LOCATION REGISTRATION REQUEST - CAPABILITY:" + lrr.getCapability())
+                .emergency(lrr.isEmergency())
                 .identifiers(ic)
                 .build());
         }
@@ -1417,6 +1427,7 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
                 .eventDescription(DecodeEventType.REGISTER.toString())
                 .details((urr.isEmergency() ? "EMERGENCY " : "") +
                     "UNIT REGISTRATION REQUEST - CAPABILITY:" + urr.getCapability())
+                .emergency(urr.isEmergency())
                 .identifiers(ic)
                 .build());
         }
@@ -1961,6 +1972,23 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
         }
     }
 
+    /**
+     * Indicates if the link control word is a voice channel user message with the emergency service option set
+     */
+    private static boolean isEmergency(LinkControlWord lcw)
+    {
+        if(lcw instanceof LCGroupVoiceChannelUser)
+        {
+            return ((LCGroupVoiceChannelUser)lcw).getVoiceServiceOptions().isEmergency();
+        }
+        else if(lcw instanceof LCUnitToUnitVoiceChannelUser)
+        {
+            return ((LCUnitToUnitVoiceChannelUser)lcw).getVoiceServiceOptions().isEmergency();
+        }
+
+        return false;
+    }
+
     /**
      * Processes a Link Control Word (LCW) that is carried by either an LDU1 or a TDULC message.
      *
@@ -1981,6 +2009,11 @@ public class P25P1DecoderState extends DecoderState implements IChannelEventList
                     //Add to the identifier collection after filtering through the patch group manager
                     getIdentifierCollection().update(mPatchGroupManager.update(identifier));
                 }
+
+                if(mCurrentCallEvent != null && isEmergency(lcw))
+                {
+                    mCurrentCallEvent.setEmergency(true);
+                }
                 break;
 
             //Call termination
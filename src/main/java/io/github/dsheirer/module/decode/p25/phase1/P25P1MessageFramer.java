@@ -45,7 +45,7 @@ import io.github.dsheirer.module.decode.p25.phase1.message.P25MessageFactory;
 import io.github.dsheirer.module.decode.p25.phase1.message.pdu.PDUMessageFactory;
 import io.github.dsheirer.module.decode.p25.phase1.message.pdu.PDUSequence;
 import io.github.dsheirer.module.decode.p25.phase1.message.tsbk.TSBKMessage;
-import io.github.dsheirer.module.decode.p25.phase1.message.tsbk.TSBKMessageFactory;
+import io.github.dsheirer.module.decode.p25.phase1.message.tsbk.TSBKMessageCache;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.protocol.Protocol;
 import io.github.dsheirer.record.AudioRecordingManager;
@@ -85,6 +85,7 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
     private double mBitRate;
     private long mCurrentTime = System.currentTimeMillis();
     private ISyncDetectListener mSyncDetectListener;
+    private TSBKMessageCache mTSBKMessageCache = new TSBKMessageCache();
 
     public P25P1MessageFramer(IPhaseLockedLoop phaseLockedLoop, int bitRate)
     {
@@ -148,6 +149,14 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
         }
     }
 
+    /**
+     * Cache of decoded TSBK messages for this channel.  Exposed for hit rate metrics.
+     */
+    public TSBKMessageCache getTSBKMessageCache()
+    {
+        return mTSBKMessageCache;
+    }
+
     /**
      * Registers the listener for messages produced by this message framer
      *
@@ -319,7 +328,7 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
                 case TRUNKING_SIGNALING_BLOCK_1:
                 case TRUNKING_SIGNALING_BLOCK_2:
                 case TRUNKING_SIGNALING_BLOCK_3:
-                    TSBKMessage tsbkMessage = TSBKMessageFactory.create(mChannelStatusProcessor.getDirection(),
+                    TSBKMessage tsbkMessage = mTSBKMessageCache.create(mChannelStatusProcessor.getDirection(),
                         mDataUnitID, mBinaryMessage, mNAC, getTimestamp());
 
                     mMessageListener.receive(tsbkMessage);
@@ -533,6 +542,8 @@ public class P25P1MessageFramer implements Listener<Dibit>, IP25P1DataUnitDetect
                                        {
                                            ioe.printStackTrace();
                                        }
+
+                                       mLog.debug(messageFramer.getTSBKMessageCache().toString());
                                    }
                                }
                 );
@@ -21,12 +21,13 @@ package io.github.dsheirer.module.decode.p25.phase1.message;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.module.decode.p25.identifier.APCO25Nac;
 import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitID;
 import io.github.dsheirer.protocol.Protocol;
 
-public abstract class P25Message extends Message
+public abstract class P25Message extends Message implements IBinaryMessageProvider
 {
     public enum DuplexMode
     {
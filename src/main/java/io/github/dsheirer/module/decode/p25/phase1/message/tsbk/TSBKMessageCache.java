@@ -0,0 +1,235 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.p25.phase1.message.tsbk;
+
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.module.decode.p25.phase1.P25P1DataUnitID;
+import io.github.dsheirer.module.decode.p25.reference.Direction;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Bounded, least-recently-used cache of decoded TSBK messages keyed by the raw interleaved block bits.
+ *
+ * A P25 control channel repeats the same broadcast messages (network/RFSS status, adjacent sites, identifier
+ * updates) continuously.  When an identical raw block arrives again, the cached decoded message bits are reused and
+ * the deinterleave and 1/2 rate trellis (Viterbi) decode steps are skipped.  A new message parser is created for each
+ * hit so that each message carries its own timestamp and no message instance is shared across listeners.
+ *
+ * This cache is not thread safe and is intended to be used by a single message framer (ie per-channel).
+ */
+public class TSBKMessageCache
+{
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private Map<Key,CorrectedBinaryMessage> mCache;
+    private long mHitCount;
+    private long mMissCount;
+
+    /**
+     * Constructs an instance
+     * @param capacity maximum number of cached blocks
+     */
+    public TSBKMessageCache(int capacity)
+    {
+        if(capacity < 1)
+        {
+            throw new IllegalArgumentException("Capacity must be greater than zero");
+        }
+
+        mCache = new LinkedHashMap<Key,CorrectedBinaryMessage>(capacity * 2, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key,CorrectedBinaryMessage> eldest)
+            {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Constructs an instance with the default capacity
+     */
+    public TSBKMessageCache()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a TSBK message from the raw interleaved block, using the cached decoded message when this block has
+     * been decoded previously.
+     *
+     * @param direction inbound or outbound
+     * @param dataUnitID TSBK1/2/3
+     * @param interleaved raw TSBK block
+     * @param nac decoded from the NID
+     * @param timestamp for the message
+     * @return TSBK message or null if the block could not be decoded
+     */
+    public TSBKMessage create(Direction direction, P25P1DataUnitID dataUnitID, CorrectedBinaryMessage interleaved,
+                              int nac, long timestamp)
+    {
+        Key key = new Key(direction, dataUnitID, nac, interleaved);
+
+        CorrectedBinaryMessage decoded = mCache.get(key);
+
+        if(decoded != null)
+        {
+            mHitCount++;
+        }
+        else
+        {
+            mMissCount++;
+
+            decoded = TSBKMessageFactory.decode(interleaved);
+
+            if(decoded == null)
+            {
+                return null;
+            }
+
+            //Cache a copy since the message parser applies CRC corrections to its message bits
+            key.detach();
+            mCache.put(key, copy(decoded));
+        }
+
+        return TSBKMessageFactory.createMessage(direction, dataUnitID, copy(decoded), nac, timestamp);
+    }
+
+    /**
+     * Creates a copy of the message that preserves the corrected bit count
+     */
+    private static CorrectedBinaryMessage copy(CorrectedBinaryMessage message)
+    {
+        CorrectedBinaryMessage copy = new CorrectedBinaryMessage(message);
+        copy.setCorrectedBitCount(message.getCorrectedBitCount());
+        return copy;
+    }
+
+    /**
+     * Number of blocks that were served from the cache
+     */
+    public long getHitCount()
+    {
+        return mHitCount;
+    }
+
+    /**
+     * Number of blocks that were not in the cache and required a full decode
+     */
+    public long getMissCount()
+    {
+        return mMissCount;
+    }
+
+    /**
+     * Ratio of cache hits to total lookups, or zero if there have been no lookups.
+     */
+    public double getHitRate()
+    {
+        long total = mHitCount + mMissCount;
+        return total > 0 ? (double)mHitCount / (double)total : 0.0;
+    }
+
+    /**
+     * Number of currently cached blocks
+     */
+    public int size()
+    {
+        return mCache.size();
+    }
+
+    /**
+     * Removes all cached blocks and resets the hit/miss counters
+     */
+    public void clear()
+    {
+        mCache.clear();
+        mHitCount = 0;
+        mMissCount = 0;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TSBK Cache Size:" + size() + " Hits:" + mHitCount + " Misses:" + mMissCount +
+            " Hit Rate:" + String.format("%.1f%%", getHitRate() * 100.0);
+    }
+
+    /**
+     * Cache key.  The raw block bits are referenced for lookups and copied only when the key is stored in the cache,
+     * since the message framer reuses/discards the raw block after it is processed.
+     */
+    private static class Key
+    {
+        private Direction mDirection;
+        private P25P1DataUnitID mDataUnitID;
+        private int mNAC;
+        private BitSet mBits;
+        private int mHashCode;
+
+        public Key(Direction direction, P25P1DataUnitID dataUnitID, int nac, BitSet bits)
+        {
+            mDirection = direction;
+            mDataUnitID = dataUnitID;
+            mNAC = nac;
+            mBits = bits;
+            mHashCode = Objects.hash(direction, dataUnitID, nac, bits);
+        }
+
+        /**
+         * Replaces the referenced raw block with a private copy
+         */
+        public void detach()
+        {
+            mBits = (BitSet)mBits.clone();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if(this == o)
+            {
+                return true;
+            }
+
+            if(!(o instanceof Key))
+            {
+                return false;
+            }
+
+            Key other = (Key)o;
+            return mHashCode == other.mHashCode && mNAC == other.mNAC && mDirection == other.mDirection &&
+                mDataUnitID == other.mDataUnitID && mBits.equals(other.mBits);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return mHashCode;
+        }
+    }
+}
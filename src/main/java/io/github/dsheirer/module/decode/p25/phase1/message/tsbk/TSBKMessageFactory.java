@@ -133,17 +133,44 @@ public class TSBKMessageFactory
     public static TSBKMessage create(Direction direction, P25P1DataUnitID dataUnitID,
                                      CorrectedBinaryMessage correctedBinaryMessage, int nac, long timestamp)
     {
-        //Get deinterleaved header chunk
-        CorrectedBinaryMessage deinterleaved = P25P1Interleave.deinterleaveChunk(P25P1Interleave.DATA_DEINTERLEAVE, correctedBinaryMessage);
-
-        //Decode 1/2 rate trellis encoded PDU header
-        CorrectedBinaryMessage message = VITERBI_HALF_RATE_DECODER.decode(deinterleaved);
+        CorrectedBinaryMessage message = decode(correctedBinaryMessage);
 
         if(message == null)
         {
             return null;
         }
 
+        return createMessage(direction, dataUnitID, message, nac, timestamp);
+    }
+
+    /**
+     * Deinterleaves and trellis decodes the raw (interleaved) TSBK block.
+     *
+     * @param correctedBinaryMessage containing the raw interleaved TSBK block
+     * @return decoded 96-bit TSBK message or null if the message could not be decoded
+     */
+    public static CorrectedBinaryMessage decode(CorrectedBinaryMessage correctedBinaryMessage)
+    {
+        //Get deinterleaved header chunk
+        CorrectedBinaryMessage deinterleaved = P25P1Interleave.deinterleaveChunk(P25P1Interleave.DATA_DEINTERLEAVE, correctedBinaryMessage);
+
+        //Decode 1/2 rate trellis encoded PDU header
+        return VITERBI_HALF_RATE_DECODER.decode(deinterleaved);
+    }
+
+    /**
+     * Creates a TSBK message parser from an already deinterleaved and trellis decoded TSBK message.
+     *
+     * @param direction inbound or outbound
+     * @param dataUnitID TSBK1/2/3
+     * @param message decoded TSBK message
+     * @param nac decoded from the NID
+     * @param timestamp for the message
+     * @return TSBK message parser
+     */
+    public static TSBKMessage createMessage(Direction direction, P25P1DataUnitID dataUnitID,
+                                            CorrectedBinaryMessage message, int nac, long timestamp)
+    {
         Vendor vendor = TSBKMessage.getVendor(message);
         Opcode opcode = TSBKMessage.getOpcode(message, direction, vendor);
 
@@ -24,8 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase2;
 import io.github.dsheirer.dsp.filter.FilterFactory;
 import io.github.dsheirer.dsp.filter.design.FilterDesignException;
 import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
-import io.github.dsheirer.dsp.filter.fir.complex.ComplexFIRFilter2;
-import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexBasebandFrontEnd;
 import io.github.dsheirer.dsp.psk.DQPSKGardnerDemodulator;
 import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
 import io.github.dsheirer.dsp.psk.pll.CostasLoop;
@@ -63,9 +62,8 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     protected DQPSKGardnerDemodulator mQPSKDemodulator;
     protected CostasLoop mCostasLoop;
     protected P25P2MessageFramer mMessageFramer;
-    private ComplexFeedForwardGainControl mAGC = new ComplexFeedForwardGainControl(32);
     private Map<Double,float[]> mBasebandFilters = new HashMap<>();
-    private ComplexFIRFilter2 mBasebandFilter;
+    private ComplexBasebandFrontEnd mFrontEnd;
     private DecodeConfigP25Phase2 mDecodeConfigP25Phase2;
     private FrequencyCorrectionSyncMonitor mFrequencyCorrectionSyncMonitor;
 
@@ -80,7 +78,7 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     {
         super.setSampleRate(sampleRate);
 
-        mBasebandFilter = new ComplexFIRFilter2(getBasebandFilter());
+        mFrontEnd = new ComplexBasebandFrontEnd(getBasebandFilter());
         mCostasLoop = new CostasLoop(getSampleRate(), getSymbolRate());
         mCostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
 
@@ -117,27 +115,25 @@ public class P25P2DecoderHDQPSK extends P25P2Decoder implements IdentifierUpdate
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        ReusableComplexBuffer basebandFiltered = filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        ReusableComplexBuffer gainApplied = filter(reusableComplexBuffer);
 
-        //User accounting of the incoming buffer is handled by the gain filter
-        ReusableComplexBuffer gainApplied = mAGC.filter(basebandFiltered);
-
-        mMessageFramer.setCurrentTime(reusableComplexBuffer.getTimestamp());
+        mMessageFramer.setCurrentTime(gainApplied.getTimestamp());
 
         //User accounting of the filtered buffer is handled by the demodulator
         mQPSKDemodulator.receive(gainApplied);
     }
 
     /**
-     * Filters the complex buffer and returns a new reusable complex buffer with the filtered contents.
+     * Filters and applies gain to the complex buffer in a single pass and returns a new reusable complex buffer with
+     * the processed contents.
      * @param reusableComplexBuffer to filter
-     * @return filtered complex buffer
+     * @return filtered and gain-adjusted complex buffer
      */
     protected ReusableComplexBuffer filter(ReusableComplexBuffer reusableComplexBuffer)
     {
-        //User accounting of the incoming buffer is handled by the filter
-        return mBasebandFilter.filter(reusableComplexBuffer);
+        //User accounting of the incoming buffer is handled by the front end
+        return mFrontEnd.process(reusableComplexBuffer);
     }
 
     /**
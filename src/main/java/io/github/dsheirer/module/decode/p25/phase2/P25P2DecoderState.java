@@ -846,6 +846,11 @@ public class P25P2DecoderState extends TimeslotDecoderState implements Identifie
                 {
                     updateCurrentCall(DecodeEventType.CALL_INTERCONNECT, null, message.getTimestamp());
                 }
+
+                if(tivcu.getServiceOptions().isEmergency() && mCurrentCallEvent != null)
+                {
+                    mCurrentCallEvent.setEmergency(true);
+                }
             }
         }
     }
@@ -881,6 +886,11 @@ public class P25P2DecoderState extends TimeslotDecoderState implements Identifie
                 {
                     updateCurrentCall(DecodeEventType.CALL_UNIT_TO_UNIT, null, message.getTimestamp());
                 }
+
+                if(uuvcue.getServiceOptions().isEmergency() && mCurrentCallEvent != null)
+                {
+                    mCurrentCallEvent.setEmergency(true);
+                }
             }
         }
     }
@@ -916,6 +926,11 @@ public class P25P2DecoderState extends TimeslotDecoderState implements Identifie
                 {
                     updateCurrentCall(DecodeEventType.CALL_UNIT_TO_UNIT, null, message.getTimestamp());
                 }
+
+                if(uuvcua.getServiceOptions().isEmergency() && mCurrentCallEvent != null)
+                {
+                    mCurrentCallEvent.setEmergency(true);
+                }
             }
         }
     }
@@ -951,6 +966,11 @@ public class P25P2DecoderState extends TimeslotDecoderState implements Identifie
                 {
                     updateCurrentCall(DecodeEventType.CALL_GROUP, null, message.getTimestamp());
                 }
+
+                if(gvcue.getServiceOptions().isEmergency() && mCurrentCallEvent != null)
+                {
+                    mCurrentCallEvent.setEmergency(true);
+                }
             }
         }
     }
@@ -986,6 +1006,11 @@ public class P25P2DecoderState extends TimeslotDecoderState implements Identifie
                 {
                     updateCurrentCall(DecodeEventType.CALL_GROUP, null, message.getTimestamp());
                 }
+
+                if(gvcua.getServiceOptions().isEmergency() && mCurrentCallEvent != null)
+                {
+                    mCurrentCallEvent.setEmergency(true);
+                }
             }
         }
     }
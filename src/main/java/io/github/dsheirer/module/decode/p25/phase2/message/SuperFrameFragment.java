@@ -25,6 +25,7 @@ package io.github.dsheirer.module.decode.p25.phase2.message;
 import io.github.dsheirer.bits.BinaryMessage;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.IMessage;
 import io.github.dsheirer.module.decode.p25.phase2.enumeration.ISCHSequence;
 import io.github.dsheirer.module.decode.p25.phase2.timeslot.ScramblingSequence;
@@ -40,7 +41,7 @@ import java.util.List;
  * APCO25 Phase 2 SuperFrame fragment containing 4 timeslots.  Each superframe contains 12 timeslots and
  * this fragment represents 1/3 of a superframe.
  */
-public class SuperFrameFragment implements IMessage
+public class SuperFrameFragment implements IMessage, IBinaryMessageProvider
 {
     private static final int CHANNEL_A_ISCH_START = 0;
     private static final int TIMESLOT_A_START = 40;
@@ -81,7 +82,7 @@ public class SuperFrameFragment implements IMessage
     /**
      * Transmitted binary message that represents this fragment
      */
-    protected CorrectedBinaryMessage getMessage()
+    public CorrectedBinaryMessage getMessage()
     {
         return mMessage;
     }
@@ -24,6 +24,7 @@ package io.github.dsheirer.module.decode.p25.phase2.message.mac;
 
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.module.decode.p25.phase2.enumeration.DataUnitID;
 import io.github.dsheirer.module.decode.p25.phase2.enumeration.Voice4VOffset;
 import io.github.dsheirer.module.decode.p25.phase2.message.P25P2Message;
@@ -33,7 +34,7 @@ import java.util.List;
 /**
  * Encoded MAC Information (EMI) Message base class
  */
-public class MacMessage extends P25P2Message
+public class MacMessage extends P25P2Message implements IBinaryMessageProvider
 {
     private static int[] PDU_TYPE = {0, 1, 2};
     private static int[] OFFSET_TO_NEXT_VOICE_4V_START = {3, 4, 5};
@@ -89,7 +90,7 @@ public class MacMessage extends P25P2Message
     /**
      * Underlying binary message as transmitted and error-correctede
      */
-    protected CorrectedBinaryMessage getMessage()
+    public CorrectedBinaryMessage getMessage()
     {
         return mMessage;
     }
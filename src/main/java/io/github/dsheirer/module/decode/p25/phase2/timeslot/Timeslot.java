@@ -24,13 +24,14 @@ package io.github.dsheirer.module.decode.p25.phase2.timeslot;
 
 import io.github.dsheirer.bits.BinaryMessage;
 import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.module.decode.p25.phase2.enumeration.DataUnitID;
 import io.github.dsheirer.module.decode.p25.phase2.message.P25P2Message;
 
 /**
  * Base timeslot class.
  */
-public abstract class Timeslot extends P25P2Message
+public abstract class Timeslot extends P25P2Message implements IBinaryMessageProvider
 {
     public static final int[] DATA_UNIT_ID = {0,1,74,75,244,245,318,319};
     private CorrectedBinaryMessage mMessage;
@@ -67,7 +68,7 @@ public abstract class Timeslot extends P25P2Message
         mTimeslot = timeslot;
     }
 
-    protected CorrectedBinaryMessage getMessage()
+    public CorrectedBinaryMessage getMessage()
     {
         return mMessage;
     }
@@ -24,6 +24,7 @@ import io.github.dsheirer.bits.CorrectedBinaryMessage;
 import io.github.dsheirer.edac.CRC;
 import io.github.dsheirer.edac.CRCPassport;
 import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.IBinaryMessageProvider;
 import io.github.dsheirer.message.Message;
 import io.github.dsheirer.message.MessageType;
 import io.github.dsheirer.module.decode.passport.identifier.PassportRadioId;
@@ -34,7 +35,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.util.ArrayList;
 import java.util.List;
 
-public class PassportMessage extends Message
+public class PassportMessage extends Message implements IBinaryMessageProvider
 {
     private static final int[] SYNC = {0, 1, 2, 3, 4, 5, 6, 7, 8};
     private static final int[] DIGITAL_COLOR_CODE = {9, 10};
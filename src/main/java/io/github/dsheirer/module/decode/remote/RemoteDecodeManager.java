@@ -0,0 +1,358 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.preference.decoder.RemoteDecodePreference;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assigns channels to remote decode worker processes.
+ *
+ * Each channel is decoded over a dedicated connection to the least-loaded available worker, where load is the number
+ * of channels assigned to the worker divided by the number of processor cores reported by the worker.  Connections
+ * are established and verified ahead of time on the shared thread pool, so that assigning a channel never waits on
+ * the network.  When remote decoding is disabled or no worker has a spare connection ready, no remote decoder is
+ * created and the channel is decoded locally while replacement connections are established in the background.
+ * Workers that can't be reached are skipped for a short interval.
+ */
+public class RemoteDecodeManager
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RemoteDecodeManager.class);
+    private static final int CONNECT_TIMEOUT_MILLISECONDS = 2000;
+    private static final int SPARE_CONNECTIONS_PER_WORKER = 2;
+    private static final long CONNECTION_MAINTENANCE_INTERVAL_SECONDS = 5;
+
+    private RemoteDecodePreference mPreference;
+    private List<RemoteWorker> mWorkers = new ArrayList<>();
+    private String mWorkersConfiguration;
+    private final Object mConnectionLock = new Object();
+    private final Object mMaintenanceLock = new Object();
+    private ScheduledFuture<?> mConnectionMaintenanceHandle;
+
+    /**
+     * Constructs an instance and starts maintaining spare worker connections on the shared thread pool.
+     * @param preference for remote decoding
+     */
+    public RemoteDecodeManager(RemoteDecodePreference preference)
+    {
+        mPreference = preference;
+        mConnectionMaintenanceHandle = ThreadPool.SCHEDULED.scheduleWithFixedDelay(this::maintainConnections, 0,
+            CONNECTION_MAINTENANCE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Indicates if remote decoding is enabled
+     */
+    public boolean isEnabled()
+    {
+        return mPreference.isEnabled();
+    }
+
+    /**
+     * Stops maintaining spare worker connections and closes any spare connections.  Channels that are currently
+     * decoding remotely are not affected.
+     */
+    public void dispose()
+    {
+        if(mConnectionMaintenanceHandle != null)
+        {
+            mConnectionMaintenanceHandle.cancel(false);
+            mConnectionMaintenanceHandle = null;
+        }
+
+        synchronized(mConnectionLock)
+        {
+            for(RemoteWorker worker: getWorkers())
+            {
+                worker.closeSpareConnections();
+            }
+        }
+    }
+
+    /**
+     * Current remote workers, updated from the preference when the configured workers change.  Spare connections for
+     * workers that are no longer configured are closed.
+     */
+    public synchronized List<RemoteWorker> getWorkers()
+    {
+        String configuration = mPreference.getWorkers();
+
+        if(!configuration.equals(mWorkersConfiguration))
+        {
+            List<RemoteWorker> workers = new ArrayList<>();
+
+            for(String[] address: mPreference.getWorkerAddresses())
+            {
+                try
+                {
+                    workers.add(new RemoteWorker(address[0], Integer.parseInt(address[1])));
+                }
+                catch(NumberFormatException nfe)
+                {
+                    mLog.error("Ignoring remote decode worker with invalid port [" + address[0] + ":" + address[1] + "]");
+                }
+            }
+
+            for(RemoteWorker worker: mWorkers)
+            {
+                worker.closeSpareConnections();
+            }
+
+            mWorkers = workers;
+            mWorkersConfiguration = configuration;
+        }
+
+        return mWorkers;
+    }
+
+    /**
+     * Creates a remote decoder for the channel on the least-loaded available worker that has a spare connection.
+     * This method doesn't block on the network.
+     *
+     * @param channel to decode remotely
+     * @param aliasList for the channel
+     * @return remote decoder module connected to a worker, or null if remote decoding is disabled or no worker has a
+     * spare connection ready.
+     */
+    public RemoteDecoderModule createRemoteDecoder(Channel channel, AliasList aliasList)
+    {
+        if(!isEnabled())
+        {
+            return null;
+        }
+
+        List<RemoteWorker> candidates = new ArrayList<>();
+
+        for(RemoteWorker worker: getWorkers())
+        {
+            if(worker.isAvailable())
+            {
+                candidates.add(worker);
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(RemoteWorker::getLoad));
+
+        RemoteDecoderModule remoteDecoder = null;
+
+        //Spare connections are briefly removed while they are verified, so take the connection under the same lock
+        synchronized(mConnectionLock)
+        {
+            for(RemoteWorker worker: candidates)
+            {
+                Socket socket = worker.takeSpareConnection();
+
+                if(socket != null)
+                {
+                    remoteDecoder = new RemoteDecoderModule(channel, aliasList, worker, socket,
+                        mPreference.isQuantize(), mPreference.getBatchInterval());
+                    break;
+                }
+            }
+        }
+
+        //Replace the used spare connection, or establish connections when none were ready
+        ThreadPool.SCHEDULED.execute(this::maintainConnections);
+
+        return remoteDecoder;
+    }
+
+    /**
+     * Closes spare connections that the worker has closed and establishes new spare connections to each available
+     * worker, up to the spare connection count.  Closes all spare connections when remote decoding is disabled.
+     *
+     * Verification holds the connection lock so that channel assignment never misses a spare connection that is
+     * being verified.  New connections are established outside of the connection lock so that channel assignment
+     * never waits on the network.
+     */
+    private void maintainConnections()
+    {
+        try
+        {
+            synchronized(mMaintenanceLock)
+            {
+                for(RemoteWorker worker: getWorkers())
+                {
+                    synchronized(mConnectionLock)
+                    {
+                        if(!isEnabled())
+                        {
+                            worker.closeSpareConnections();
+                            continue;
+                        }
+
+                        verifySpareConnections(worker);
+                    }
+
+                    while(worker.isAvailable() && worker.getSpareConnectionCount() < SPARE_CONNECTIONS_PER_WORKER)
+                    {
+                        try
+                        {
+                            worker.addSpareConnection(connect(worker));
+                        }
+                        catch(IOException ioe)
+                        {
+                            worker.setUnavailable();
+                            mLog.warn("Remote decode worker [" + worker + "] is not available - " + ioe.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error maintaining remote decode worker connections", t);
+        }
+    }
+
+    /**
+     * Checks each of the worker's spare connections and closes any connection that the worker has closed or that
+     * contains unexpected data.
+     */
+    private void verifySpareConnections(RemoteWorker worker)
+    {
+        int count = worker.getSpareConnectionCount();
+
+        for(int x = 0; x < count; x++)
+        {
+            Socket socket = worker.takeSpareConnection();
+
+            if(socket == null)
+            {
+                return;
+            }
+
+            if(isIdle(socket))
+            {
+                worker.addSpareConnection(socket);
+            }
+            else
+            {
+                try
+                {
+                    socket.close();
+                }
+                catch(IOException ioe)
+                {
+                    //Ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates if the connection is open and the worker hasn't sent anything since the hello.
+     */
+    private static boolean isIdle(Socket socket)
+    {
+        if(socket.isClosed())
+        {
+            return false;
+        }
+
+        try
+        {
+            socket.setSoTimeout(1);
+            socket.getInputStream().read();
+
+            //End of stream or unexpected data
+            return false;
+        }
+        catch(SocketTimeoutException ste)
+        {
+            try
+            {
+                socket.setSoTimeout(0);
+                return true;
+            }
+            catch(IOException ioe)
+            {
+                return false;
+            }
+        }
+        catch(IOException ioe)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Connects to the worker and reads the worker hello.
+     * @return connected socket
+     * @throws IOException if the worker can't be reached or doesn't respond with a valid hello
+     */
+    private Socket connect(RemoteWorker worker) throws IOException
+    {
+        Socket socket = new Socket();
+
+        try
+        {
+            socket.connect(new InetSocketAddress(worker.getHost(), worker.getPort()), CONNECT_TIMEOUT_MILLISECONDS);
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(CONNECT_TIMEOUT_MILLISECONDS);
+
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] frame = RemoteDecodeProtocol.readFrame(inputStream);
+
+            DataInputStream hello = new DataInputStream(new ByteArrayInputStream(frame));
+
+            if(hello.readByte() != RemoteDecodeProtocol.FRAME_HELLO || hello.readInt() != RemoteDecodeProtocol.MAGIC)
+            {
+                throw new IOException("Unrecognized worker hello");
+            }
+
+            int version = hello.readInt();
+
+            if(version != RemoteDecodeProtocol.VERSION)
+            {
+                throw new IOException("Unsupported worker protocol version [" + version + "]");
+            }
+
+            worker.setCapacity(hello.readInt());
+            socket.setSoTimeout(0);
+            return socket;
+        }
+        catch(IOException ioe)
+        {
+            socket.close();
+            throw ioe;
+        }
+    }
+}
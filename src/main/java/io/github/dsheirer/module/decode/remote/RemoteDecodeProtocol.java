@@ -0,0 +1,245 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlModule;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import io.github.dsheirer.controller.channel.Channel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Wire protocol for streaming channel baseband samples from the host that runs the tuners (the coordinator) to a
+ * remote decode worker process and streaming decoder output from the worker back to the coordinator.
+ *
+ * Each TCP connection carries a single channel.  Every frame is an int length followed by that many bytes, where the
+ * first byte is the frame type.  On connect, the worker sends a HELLO frame that describes its capacity.  The
+ * coordinator then sends a START frame with the channel configuration, followed by a continuous stream of SAMPLES
+ * frames and finally a STOP frame.  The worker responds with decoder output frames: decode events, decoder state
+ * events, identifier updates, audio segments and source (frequency correction) events.
+ *
+ * Sample frames carry interleaved I/Q samples either as 32-bit floats or quantized to signed 16-bit values with a
+ * per-frame scale factor.
+ */
+public class RemoteDecodeProtocol
+{
+    public static final int MAGIC = 0x53445244; //SDRD
+    public static final int VERSION = 1;
+    public static final int MAXIMUM_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    //Worker to coordinator
+    public static final byte FRAME_HELLO = 1;
+    public static final byte FRAME_DECODE_EVENT = 2;
+    public static final byte FRAME_DECODER_STATE = 3;
+    public static final byte FRAME_IDENTIFIER_UPDATE = 4;
+    public static final byte FRAME_AUDIO_START = 5;
+    public static final byte FRAME_AUDIO_IDENTIFIER = 6;
+    public static final byte FRAME_AUDIO_DATA = 7;
+    public static final byte FRAME_AUDIO_END = 8;
+    public static final byte FRAME_SOURCE_EVENT = 9;
+    public static final byte FRAME_ERROR = 10;
+
+    //Coordinator to worker
+    public static final byte FRAME_START = 20;
+    public static final byte FRAME_SAMPLES = 21;
+    public static final byte FRAME_STOP = 22;
+
+    public static final byte ENCODING_FLOAT = 0;
+    public static final byte ENCODING_INT16 = 1;
+
+    /**
+     * Header length of a samples frame: type, timestamp, encoding, sample count and scale.
+     */
+    public static final int SAMPLES_HEADER_LENGTH = 1 + 8 + 1 + 4 + 4;
+
+    /**
+     * Writes the frame to the output stream, prefixed with the frame length.
+     */
+    public static void writeFrame(DataOutputStream outputStream, byte[] frame) throws IOException
+    {
+        outputStream.writeInt(frame.length);
+        outputStream.write(frame);
+    }
+
+    /**
+     * Reads the next frame from the input stream
+     * @return frame bytes where the first byte is the frame type
+     * @throws IOException if the stream is closed or the frame length is invalid
+     */
+    public static byte[] readFrame(DataInputStream inputStream) throws IOException
+    {
+        int length = inputStream.readInt();
+
+        if(length < 1 || length > MAXIMUM_FRAME_LENGTH)
+        {
+            throw new IOException("Invalid remote decode frame length [" + length + "]");
+        }
+
+        byte[] frame = new byte[length];
+        inputStream.readFully(frame);
+        return frame;
+    }
+
+    /**
+     * Creates a frame of the specified type using the content writer to write the frame body.
+     */
+    public static byte[] frame(byte type, FrameContent content) throws IOException
+    {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(64);
+        DataOutputStream outputStream = new DataOutputStream(byteArrayOutputStream);
+        outputStream.writeByte(type);
+        content.write(outputStream);
+        outputStream.flush();
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    /**
+     * Encodes interleaved samples into a frame body, optionally quantizing each sample to a signed 16-bit value
+     * scaled to the peak magnitude in the buffer.
+     *
+     * @param type of frame
+     * @param prefix value written before the samples, used for the timestamp or audio segment id
+     * @param samples to encode
+     * @param length of samples to encode
+     * @param quantize to encode as 16-bit values instead of 32-bit floats
+     * @return encoded frame
+     */
+    public static byte[] encodeSamples(byte type, long prefix, float[] samples, int length, boolean quantize)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(SAMPLES_HEADER_LENGTH + length * (quantize ? 2 : 4));
+        buffer.put(type);
+        buffer.putLong(prefix);
+        buffer.put(quantize ? ENCODING_INT16 : ENCODING_FLOAT);
+        buffer.putInt(length);
+
+        if(quantize)
+        {
+            float peak = 0.0f;
+
+            for(int x = 0; x < length; x++)
+            {
+                float magnitude = Math.abs(samples[x]);
+
+                if(magnitude > peak)
+                {
+                    peak = magnitude;
+                }
+            }
+
+            float scale = peak > 0.0f ? peak / Short.MAX_VALUE : 1.0f;
+            float inverse = 1.0f / scale;
+            buffer.putFloat(scale);
+
+            for(int x = 0; x < length; x++)
+            {
+                buffer.putShort((short)Math.round(samples[x] * inverse));
+            }
+        }
+        else
+        {
+            buffer.putFloat(1.0f);
+            buffer.asFloatBuffer().put(samples, 0, length);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Prefix value (timestamp or audio segment id) from an encoded samples frame
+     */
+    public static long getSamplesPrefix(byte[] frame)
+    {
+        return ByteBuffer.wrap(frame, 1, 8).getLong();
+    }
+
+    /**
+     * Number of samples in an encoded samples frame
+     */
+    public static int getSampleCount(byte[] frame)
+    {
+        return ByteBuffer.wrap(frame, 10, 4).getInt();
+    }
+
+    /**
+     * Decodes the samples from an encoded samples frame into the destination array.
+     * @param frame containing encoded samples
+     * @param destination with a length of at least the sample count
+     */
+    public static void decodeSamples(byte[] frame, float[] destination)
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+        buffer.position(9);
+        byte encoding = buffer.get();
+        int length = buffer.getInt();
+        float scale = buffer.getFloat();
+
+        if(encoding == ENCODING_INT16)
+        {
+            for(int x = 0; x < length; x++)
+            {
+                destination[x] = buffer.getShort() * scale;
+            }
+        }
+        else
+        {
+            buffer.asFloatBuffer().get(destination, 0, length);
+        }
+    }
+
+    /**
+     * Serializes the channel configuration using the same XML mapping as the playlist
+     */
+    public static byte[] toXml(Channel channel) throws IOException
+    {
+        return getMapper().writeValueAsBytes(channel);
+    }
+
+    /**
+     * Deserializes a channel configuration
+     */
+    public static Channel fromXml(byte[] xml) throws IOException
+    {
+        return getMapper().readValue(xml, Channel.class);
+    }
+
+    private static ObjectMapper getMapper()
+    {
+        JacksonXmlModule xmlModule = new JacksonXmlModule();
+        xmlModule.setDefaultUseWrapper(false);
+        return new XmlMapper(xmlModule).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    /**
+     * Writes the contents of a frame body
+     */
+    public interface FrameContent
+    {
+        void write(DataOutputStream outputStream) throws IOException;
+    }
+}
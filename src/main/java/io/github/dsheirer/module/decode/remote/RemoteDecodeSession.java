@@ -0,0 +1,652 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.channel.state.DecoderStateEvent;
+import io.github.dsheirer.channel.state.IDecoderStateEventListener;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.identifier.IdentifierUpdateListener;
+import io.github.dsheirer.identifier.IdentifierUpdateNotification;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.ProcessingChain;
+import io.github.dsheirer.module.decode.DecoderFactory;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.protocol.Protocol;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker-side session that decodes a single channel for a coordinator connection.
+ *
+ * The session constructs a processing chain with the decoder modules for the channel configuration sent by the
+ * coordinator and feeds it the baseband samples received over the connection.  Decode events, decoder state
+ * events, identifier updates, audio segments and source events produced by the processing chain are streamed back
+ * to the coordinator.  Audio segments are polled on a fixed interval and their audio buffers, identifiers and
+ * completion state are sent incrementally, so that the coordinator can play and stream audio while the call is
+ * still in progress.
+ */
+public class RemoteDecodeSession implements Runnable
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RemoteDecodeSession.class);
+    private static final long AUDIO_POLL_INTERVAL_MILLISECONDS = 50;
+    private static final int DECODE_EVENT_CACHE_SIZE = 200;
+    private static final int AUDIO_SEGMENT_LINK_CACHE_SIZE = 8;
+
+    private Socket mSocket;
+    private ChannelMapModel mChannelMapModel;
+    private AliasModel mAliasModel;
+    private UserPreferences mUserPreferences;
+    private DataOutputStream mOutputStream;
+    private ProcessingChain mProcessingChain;
+    private RemoteSampleSource mSampleSource;
+    private ScheduledFuture<?> mAudioPoller;
+    private boolean mQuantize;
+    private volatile boolean mClosed;
+    private int mNextId = 1;
+    private Map<IDecodeEvent,Integer> mDecodeEventIds = new LinkedHashMap<IDecodeEvent,Integer>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IDecodeEvent,Integer> eldest)
+        {
+            return size() > DECODE_EVENT_CACHE_SIZE;
+        }
+    };
+    private List<AudioSegmentTracker> mAudioSegmentTrackers = new ArrayList<>();
+    private Map<AudioSegment,Integer> mCompletedAudioSegmentIds = new LinkedHashMap<AudioSegment,Integer>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<AudioSegment,Integer> eldest)
+        {
+            return size() > AUDIO_SEGMENT_LINK_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Constructs an instance
+     * @param socket connected to the coordinator
+     * @param channelMapModel for decoders that use channel maps
+     * @param aliasModel for the remote processing chain
+     * @param userPreferences for decoder settings
+     */
+    public RemoteDecodeSession(Socket socket, ChannelMapModel channelMapModel, AliasModel aliasModel,
+                               UserPreferences userPreferences)
+    {
+        mSocket = socket;
+        mChannelMapModel = channelMapModel;
+        mAliasModel = aliasModel;
+        mUserPreferences = userPreferences;
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            mOutputStream = new DataOutputStream(new BufferedOutputStream(mSocket.getOutputStream()));
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(mSocket.getInputStream()));
+
+            send(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_HELLO, outputStream -> {
+                outputStream.writeInt(RemoteDecodeProtocol.MAGIC);
+                outputStream.writeInt(RemoteDecodeProtocol.VERSION);
+                outputStream.writeInt(Runtime.getRuntime().availableProcessors());
+            }));
+
+            while(true)
+            {
+                byte[] frame = RemoteDecodeProtocol.readFrame(inputStream);
+
+                if(frame[0] == RemoteDecodeProtocol.FRAME_SAMPLES)
+                {
+                    if(mSampleSource != null)
+                    {
+                        mSampleSource.receive(frame);
+                    }
+                }
+                else if(frame[0] == RemoteDecodeProtocol.FRAME_START)
+                {
+                    start(frame);
+                }
+                else if(frame[0] == RemoteDecodeProtocol.FRAME_STOP)
+                {
+                    break;
+                }
+            }
+        }
+        catch(IOException ioe)
+        {
+            if(!mClosed)
+            {
+                mLog.info("Remote decode coordinator connection closed [" + mSocket.getRemoteSocketAddress() +
+                    "] - " + ioe.getMessage());
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error in remote decode session", t);
+
+            try
+            {
+                send(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_ERROR,
+                    outputStream -> outputStream.writeUTF(String.valueOf(t.getMessage()))));
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    /**
+     * Creates and starts the processing chain for the channel described in the start frame
+     */
+    private void start(byte[] frame) throws IOException
+    {
+        if(mProcessingChain != null)
+        {
+            throw new IOException("Remote decode session is already started");
+        }
+
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(frame, 1, frame.length - 1));
+
+        byte[] xml = new byte[inputStream.readInt()];
+        inputStream.readFully(xml);
+        Channel configuration = RemoteDecodeProtocol.fromXml(xml);
+        Channel.ChannelType channelType = Channel.ChannelType.valueOf(inputStream.readUTF());
+        double sampleRate = inputStream.readDouble();
+        long frequency = inputStream.readLong();
+        mQuantize = inputStream.readBoolean();
+
+        //The channel type isn't part of the serialized channel configuration
+        Channel channel = new Channel(configuration.getName(), channelType);
+        channel.setSystem(configuration.getSystem());
+        channel.setSite(configuration.getSite());
+        channel.setAliasListName(configuration.getAliasListName());
+        channel.setDecodeConfiguration(configuration.getDecodeConfiguration());
+        channel.setAuxDecodeConfiguration(configuration.getAuxDecodeConfiguration());
+        channel.setSourceConfiguration(configuration.getSourceConfiguration());
+
+        mProcessingChain = new ProcessingChain(channel, mAliasModel);
+        mProcessingChain.addModules(DecoderFactory.getModules(mChannelMapModel, channel, mAliasModel,
+            mUserPreferences, null));
+        mProcessingChain.addModule(new DecoderOutputRelay());
+        mProcessingChain.addAudioSegmentListener(this::receiveAudioSegment);
+        mProcessingChain.addDecodeEventListener(this::receiveDecodeEvent);
+
+        mSampleSource = new RemoteSampleSource(sampleRate, frequency, this::relaySourceEvent);
+        mProcessingChain.setSource(mSampleSource);
+
+        int preloadCount = inputStream.readShort();
+
+        for(int x = 0; x < preloadCount; x++)
+        {
+            IdentifierUpdateNotification.Operation operation =
+                IdentifierUpdateNotification.Operation.valueOf(inputStream.readUTF());
+            int timeslot = inputStream.readInt();
+            Identifier identifier = RemoteIdentifierCodec.read(inputStream);
+            mProcessingChain.getChannelState().updateChannelStateIdentifiers(
+                new IdentifierUpdateNotification(identifier, operation, timeslot));
+        }
+
+        mProcessingChain.start();
+
+        mAudioPoller = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::pollAudioSegments,
+            AUDIO_POLL_INTERVAL_MILLISECONDS, AUDIO_POLL_INTERVAL_MILLISECONDS, TimeUnit.MILLISECONDS);
+
+        mLog.info("Remote decoding started for channel [" + channel.getName() + "] type [" + channelType +
+            "] from [" + mSocket.getRemoteSocketAddress() + "]");
+    }
+
+    /**
+     * Stops the processing chain, sends any remaining audio and closes the connection
+     */
+    private void close()
+    {
+        if(mClosed)
+        {
+            return;
+        }
+
+        if(mAudioPoller != null)
+        {
+            mAudioPoller.cancel(false);
+        }
+
+        if(mProcessingChain != null)
+        {
+            try
+            {
+                mProcessingChain.stop();
+                pollAudioSegments();
+                mProcessingChain.dispose();
+            }
+            catch(Throwable t)
+            {
+                mLog.error("Error stopping remote processing chain", t);
+            }
+        }
+
+        mClosed = true;
+
+        synchronized(mAudioSegmentTrackers)
+        {
+            for(AudioSegmentTracker tracker: mAudioSegmentTrackers)
+            {
+                tracker.getAudioSegment().decrementConsumerCount();
+            }
+
+            mAudioSegmentTrackers.clear();
+        }
+
+        try
+        {
+            mSocket.close();
+        }
+        catch(IOException ioe)
+        {
+            //Ignore
+        }
+    }
+
+    /**
+     * Sends the frame to the coordinator.  Frames are sent from the sample receive thread and from the audio poller.
+     */
+    private void send(byte[] frame) throws IOException
+    {
+        synchronized(mSocket)
+        {
+            RemoteDecodeProtocol.writeFrame(mOutputStream, frame);
+            mOutputStream.flush();
+        }
+    }
+
+    /**
+     * Sends the frame and closes the connection if the coordinator can't be reached
+     */
+    private void sendOrClose(byte[] frame)
+    {
+        if(mClosed)
+        {
+            return;
+        }
+
+        try
+        {
+            send(frame);
+        }
+        catch(IOException ioe)
+        {
+            try
+            {
+                mSocket.close();
+            }
+            catch(IOException ioe2)
+            {
+                //Ignore - the receive loop will exit and close the session
+            }
+        }
+    }
+
+    /**
+     * Sends the decode event to the coordinator.  Decode events are re-sent when they are updated and carry a stable
+     * identifier so that the coordinator can update its copy of the event.
+     */
+    private void receiveDecodeEvent(IDecodeEvent decodeEvent)
+    {
+        int eventId;
+
+        synchronized(mDecodeEventIds)
+        {
+            eventId = mDecodeEventIds.computeIfAbsent(decodeEvent, event -> mNextId++);
+        }
+
+        IdentifierCollection identifierCollection = decodeEvent.getIdentifierCollection();
+        List<Identifier> identifiers = identifierCollection != null ? identifierCollection.getIdentifiers() :
+            Collections.emptyList();
+        Protocol protocol = decodeEvent.getProtocol() != null ? decodeEvent.getProtocol() : Protocol.UNKNOWN;
+
+        try
+        {
+            sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_DECODE_EVENT, outputStream -> {
+                outputStream.writeInt(eventId);
+                outputStream.writeLong(decodeEvent.getTimeStart());
+                outputStream.writeLong(decodeEvent.getDuration());
+                outputStream.writeUTF(valueOf(decodeEvent.getEventDescription()));
+                outputStream.writeUTF(valueOf(decodeEvent.getDetails()));
+                outputStream.writeUTF(protocol.name());
+                outputStream.writeInt(decodeEvent.hasTimeslot() ? decodeEvent.getTimeslot() : -1);
+                outputStream.writeShort(identifiers.size());
+
+                for(Identifier identifier: identifiers)
+                {
+                    RemoteIdentifierCodec.write(outputStream, identifier);
+                }
+            }));
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error encoding decode event", ioe);
+        }
+    }
+
+    private static String valueOf(String value)
+    {
+        return value != null ? value : "";
+    }
+
+    /**
+     * Starts tracking a new audio segment and sends the segment start to the coordinator
+     */
+    private void receiveAudioSegment(AudioSegment audioSegment)
+    {
+        AudioSegmentTracker tracker;
+
+        synchronized(mAudioSegmentTrackers)
+        {
+            if(mClosed)
+            {
+                audioSegment.decrementConsumerCount();
+                return;
+            }
+
+            tracker = new AudioSegmentTracker(audioSegment, mNextId++);
+            mAudioSegmentTrackers.add(tracker);
+        }
+
+        int linkedSegmentId = -1;
+
+        if(audioSegment.isLinked())
+        {
+            Integer linkedId = getAudioSegmentId(audioSegment.getLinkedAudioSegment());
+            linkedSegmentId = linkedId != null ? linkedId : -1;
+        }
+
+        int linkedId = linkedSegmentId;
+
+        try
+        {
+            sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_AUDIO_START, outputStream -> {
+                outputStream.writeInt(tracker.getId());
+                outputStream.writeInt(audioSegment.getTimeslot());
+                outputStream.writeInt(linkedId);
+                outputStream.writeBoolean(audioSegment.recordAudioProperty().get());
+            }));
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error encoding audio segment start", ioe);
+        }
+    }
+
+    /**
+     * Identifier for an active or recently completed audio segment
+     */
+    private Integer getAudioSegmentId(AudioSegment audioSegment)
+    {
+        synchronized(mAudioSegmentTrackers)
+        {
+            for(AudioSegmentTracker tracker: mAudioSegmentTrackers)
+            {
+                if(tracker.getAudioSegment() == audioSegment)
+                {
+                    return tracker.getId();
+                }
+            }
+
+            return mCompletedAudioSegmentIds.get(audioSegment);
+        }
+    }
+
+    /**
+     * Sends new audio buffers and identifiers for each tracked audio segment and the completion of any audio
+     * segments that are complete.
+     */
+    private void pollAudioSegments()
+    {
+        List<AudioSegmentTracker> trackers;
+
+        synchronized(mAudioSegmentTrackers)
+        {
+            trackers = new ArrayList<>(mAudioSegmentTrackers);
+        }
+
+        try
+        {
+            for(AudioSegmentTracker tracker: trackers)
+            {
+                AudioSegment audioSegment = tracker.getAudioSegment();
+
+                //Capture the complete state before sending buffers so that no buffers are missed
+                boolean complete = audioSegment.completeProperty().get();
+
+                for(Identifier identifier: audioSegment.getIdentifierCollection().getIdentifiers())
+                {
+                    if(tracker.getSentIdentifiers().add(identifier))
+                    {
+                        sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_AUDIO_IDENTIFIER,
+                            outputStream -> {
+                                outputStream.writeInt(tracker.getId());
+                                RemoteIdentifierCodec.write(outputStream, identifier);
+                            }));
+                    }
+                }
+
+                int bufferCount = audioSegment.getAudioBufferCount();
+
+                while(tracker.getSentBufferCount() < bufferCount)
+                {
+                    float[] audio = audioSegment.getAudioBuffer(tracker.getSentBufferCount());
+                    sendOrClose(RemoteDecodeProtocol.encodeSamples(RemoteDecodeProtocol.FRAME_AUDIO_DATA,
+                        tracker.getId(), audio, audio.length, mQuantize));
+                    tracker.incrementSentBufferCount();
+                }
+
+                if(complete)
+                {
+                    sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_AUDIO_END, outputStream -> {
+                        outputStream.writeInt(tracker.getId());
+                        outputStream.writeBoolean(audioSegment.recordAudioProperty().get());
+                    }));
+
+                    synchronized(mAudioSegmentTrackers)
+                    {
+                        if(mAudioSegmentTrackers.remove(tracker))
+                        {
+                            mCompletedAudioSegmentIds.put(audioSegment, tracker.getId());
+                            audioSegment.decrementConsumerCount();
+                        }
+                    }
+                }
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error sending remote audio segments", t);
+        }
+    }
+
+    /**
+     * Relays a source event from the decoders to the coordinator
+     */
+    private void relaySourceEvent(SourceEvent sourceEvent)
+    {
+        try
+        {
+            sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_SOURCE_EVENT, outputStream -> {
+                outputStream.writeUTF(sourceEvent.getEvent().name());
+                outputStream.writeLong(sourceEvent.hasValue() ? sourceEvent.getValue().longValue() : 0);
+            }));
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error encoding source event", ioe);
+        }
+    }
+
+    /**
+     * Tracks the audio buffers and identifiers of an audio segment that have been sent to the coordinator
+     */
+    private static class AudioSegmentTracker
+    {
+        private AudioSegment mAudioSegment;
+        private int mId;
+        private int mSentBufferCount;
+        private Set<Identifier> mSentIdentifiers = new HashSet<>();
+
+        public AudioSegmentTracker(AudioSegment audioSegment, int id)
+        {
+            mAudioSegment = audioSegment;
+            mId = id;
+        }
+
+        public AudioSegment getAudioSegment()
+        {
+            return mAudioSegment;
+        }
+
+        public int getId()
+        {
+            return mId;
+        }
+
+        public int getSentBufferCount()
+        {
+            return mSentBufferCount;
+        }
+
+        public void incrementSentBufferCount()
+        {
+            mSentBufferCount++;
+        }
+
+        public Set<Identifier> getSentIdentifiers()
+        {
+            return mSentIdentifiers;
+        }
+    }
+
+    /**
+     * Processing chain module that relays decoder state events and identifier updates to the coordinator.  Only the
+     * decoder activity events are relayed.  The coordinator's channel state derives its own state and notification
+     * events from them.
+     */
+    private class DecoderOutputRelay extends Module implements IDecoderStateEventListener, IdentifierUpdateListener
+    {
+        @Override
+        public Listener<DecoderStateEvent> getDecoderStateListener()
+        {
+            return event -> {
+                switch(event.getEvent())
+                {
+                    case CONTINUATION:
+                    case DECODE:
+                    case START:
+                    case END:
+                        try
+                        {
+                            sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_DECODER_STATE,
+                                outputStream -> {
+                                    outputStream.writeUTF(event.getEvent().name());
+                                    outputStream.writeUTF(event.getState().name());
+                                    outputStream.writeInt(event.getTimeslot());
+                                }));
+                        }
+                        catch(IOException ioe)
+                        {
+                            mLog.error("Error encoding decoder state event", ioe);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            };
+        }
+
+        @Override
+        public Listener<IdentifierUpdateNotification> getIdentifierUpdateListener()
+        {
+            return notification -> {
+                try
+                {
+                    sendOrClose(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_IDENTIFIER_UPDATE,
+                        outputStream -> {
+                            outputStream.writeUTF(notification.getOperation().name());
+                            outputStream.writeInt(notification.getTimeslot());
+                            RemoteIdentifierCodec.write(outputStream, notification.getIdentifier());
+                        }));
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error encoding identifier update", ioe);
+                }
+            };
+        }
+
+        @Override
+        public void reset()
+        {
+            //No-op
+        }
+
+        @Override
+        public void start()
+        {
+            //No-op
+        }
+
+        @Override
+        public void stop()
+        {
+            //No-op
+        }
+    }
+}
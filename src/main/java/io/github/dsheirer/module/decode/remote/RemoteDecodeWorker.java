@@ -0,0 +1,167 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.alias.AliasModel;
+import io.github.dsheirer.controller.channel.map.ChannelMapModel;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.decoder.RemoteDecodePreference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+
+/**
+ * Remote decode worker process.  Accepts connections from sdrtrunk instances that are configured to distribute
+ * traffic channel decoding and runs a decode session for each connection.
+ *
+ * Usage: RemoteDecodeWorker [port]
+ */
+public class RemoteDecodeWorker
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RemoteDecodeWorker.class);
+
+    private AliasModel mAliasModel = new AliasModel();
+    private ChannelMapModel mChannelMapModel = new ChannelMapModel();
+    private UserPreferences mUserPreferences = new UserPreferences();
+    private ServerSocket mServerSocket;
+    private volatile boolean mRunning;
+
+    /**
+     * Constructs an instance
+     */
+    public RemoteDecodeWorker()
+    {
+    }
+
+    /**
+     * Starts listening for coordinator connections on the specified port.
+     * @param port to listen on, or zero to use any available port
+     * @throws IOException if the server socket can't be opened
+     */
+    public void start(int port) throws IOException
+    {
+        if(mRunning)
+        {
+            return;
+        }
+
+        mServerSocket = new ServerSocket(port);
+        mRunning = true;
+
+        Thread acceptThread = new Thread(this::accept, "sdrtrunk remote decode worker");
+        acceptThread.start();
+
+        mLog.info("Remote decode worker listening on port [" + getPort() + "]");
+    }
+
+    /**
+     * Stops accepting connections.  Active decode sessions continue until the coordinator disconnects.
+     */
+    public void stop()
+    {
+        mRunning = false;
+
+        if(mServerSocket != null)
+        {
+            try
+            {
+                mServerSocket.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing remote decode worker server socket", ioe);
+            }
+        }
+    }
+
+    /**
+     * Port that this worker is listening on, or -1 if it is not running
+     */
+    public int getPort()
+    {
+        return mServerSocket != null ? mServerSocket.getLocalPort() : -1;
+    }
+
+    /**
+     * Accepts coordinator connections and starts a decode session for each
+     */
+    private void accept()
+    {
+        int sessionCount = 0;
+
+        while(mRunning)
+        {
+            try
+            {
+                Socket socket = mServerSocket.accept();
+                socket.setTcpNoDelay(true);
+
+                RemoteDecodeSession session = new RemoteDecodeSession(socket, mChannelMapModel, mAliasModel,
+                    mUserPreferences);
+                Thread sessionThread = new Thread(session, "sdrtrunk remote decode session " + ++sessionCount);
+                sessionThread.setDaemon(true);
+                sessionThread.start();
+            }
+            catch(SocketException se)
+            {
+                //Server socket was closed
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error accepting remote decode connection", ioe);
+            }
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int port = RemoteDecodePreference.DEFAULT_WORKER_PORT;
+
+        if(args.length > 0)
+        {
+            try
+            {
+                port = Integer.parseInt(args[0]);
+            }
+            catch(NumberFormatException nfe)
+            {
+                mLog.error("Invalid port argument [" + args[0] + "] - usage: RemoteDecodeWorker [port]");
+                System.exit(1);
+            }
+        }
+
+        try
+        {
+            new RemoteDecodeWorker().start(port);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Unable to start remote decode worker on port [" + port + "]", ioe);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,833 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.audio.IAudioSegmentProvider;
+import io.github.dsheirer.channel.state.DecoderStateEvent;
+import io.github.dsheirer.channel.state.IDecoderStateEventProvider;
+import io.github.dsheirer.channel.state.State;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.ChannelEvent;
+import io.github.dsheirer.controller.channel.IChannelEventProvider;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierCollection;
+import io.github.dsheirer.identifier.IdentifierUpdateNotification;
+import io.github.dsheirer.identifier.IdentifierUpdateProvider;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.event.DecodeEvent;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.event.IDecodeEventProvider;
+import io.github.dsheirer.protocol.Protocol;
+import io.github.dsheirer.sample.Broadcaster;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.ISourceEventListener;
+import io.github.dsheirer.source.ISourceEventProvider;
+import io.github.dsheirer.source.SourceEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinator-side stand-in for the decoder modules of a channel that is decoded by a remote decode worker.
+ *
+ * The module receives the channel's baseband sample buffers from the processing chain, accumulates them into batches
+ * that are optionally quantized to 16-bit samples and sends them to the worker over a dedicated TCP connection.
+ * Decoder output streamed back from the worker is recreated locally and injected into the processing chain as decode
+ * events, decoder state events, identifier updates, audio segments and frequency correction source events, so that
+ * the channel state, event logging, recording, streaming and the user interface behave as they do for channels that
+ * are decoded locally.
+ *
+ * Sample batches are queued for a dedicated sender thread.  When the worker or the network falls behind and the queue
+ * is full, batches are dropped and counted so that the tuner is never blocked.
+ */
+public class RemoteDecoderModule extends Module implements IReusableComplexBufferListener, Listener<ReusableComplexBuffer>,
+    ISourceEventListener, ISourceEventProvider, IDecodeEventProvider, IAudioSegmentProvider, IDecoderStateEventProvider,
+    IdentifierUpdateProvider, IChannelEventProvider
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RemoteDecoderModule.class);
+    private static final int SEND_QUEUE_CAPACITY = 100;
+    private static final int DECODE_EVENT_CACHE_SIZE = 200;
+    private static final int AUDIO_SEGMENT_LINK_CACHE_SIZE = 8;
+
+    private Channel mChannel;
+    private AliasList mAliasList;
+    private RemoteWorker mWorker;
+    private Socket mSocket;
+    private boolean mQuantize;
+    private int mBatchInterval;
+    private double mSampleRate;
+    private long mFrequency;
+    private List<IdentifierUpdateNotification> mPreloadNotifications = new ArrayList<>();
+
+    private float[] mBatch = new float[0];
+    private int mBatchLength;
+    private int mBatchSize;
+    private long mBatchTimestamp;
+    private BlockingQueue<byte[]> mSendQueue = new ArrayBlockingQueue<>(SEND_QUEUE_CAPACITY);
+    private AtomicLong mDroppedBatchCount = new AtomicLong();
+    private volatile boolean mRunning;
+    private boolean mStarted;
+    private AtomicBoolean mClosed = new AtomicBoolean();
+
+    private Broadcaster<IDecodeEvent> mDecodeEventBroadcaster = new Broadcaster<>();
+    private Listener<AudioSegment> mAudioSegmentListener;
+    private Listener<DecoderStateEvent> mDecoderStateListener;
+    private Listener<IdentifierUpdateNotification> mIdentifierUpdateListener;
+    private Listener<SourceEvent> mSourceEventListener;
+    private Listener<ChannelEvent> mChannelEventListener;
+
+    private Map<Integer,DecodeEvent> mDecodeEvents = new LinkedHashMap<Integer,DecodeEvent>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer,DecodeEvent> eldest)
+        {
+            return size() > DECODE_EVENT_CACHE_SIZE;
+        }
+    };
+    private Map<Integer,AudioSegment> mAudioSegments = new HashMap<>();
+    private Map<Integer,AudioSegment> mCompletedAudioSegments = new LinkedHashMap<Integer,AudioSegment>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer,AudioSegment> eldest)
+        {
+            return size() > AUDIO_SEGMENT_LINK_CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Constructs an instance.  Use the remote decode manager to create instances.
+     *
+     * @param channel that is decoded remotely
+     * @param aliasList for the channel
+     * @param worker that is assigned the channel
+     * @param socket connected to the worker
+     * @param quantize samples to 16 bits
+     * @param batchInterval milliseconds of samples per batch
+     */
+    RemoteDecoderModule(Channel channel, AliasList aliasList, RemoteWorker worker, Socket socket, boolean quantize,
+                        int batchInterval)
+    {
+        mChannel = channel;
+        mAliasList = aliasList;
+        mWorker = worker;
+        mSocket = socket;
+        mQuantize = quantize;
+        mBatchInterval = batchInterval;
+        mWorker.incrementActiveChannelCount();
+    }
+
+    /**
+     * Worker that is decoding this channel
+     */
+    public RemoteWorker getWorker()
+    {
+        return mWorker;
+    }
+
+    /**
+     * Number of sample batches dropped because the worker connection couldn't keep up
+     */
+    public long getDroppedBatchCount()
+    {
+        return mDroppedBatchCount.get();
+    }
+
+    /**
+     * Adds an identifier update to apply to the remote channel state before the remote processing chain starts.  This
+     * is used to preload traffic channel identifiers from the control channel.
+     */
+    public void addPreloadIdentifier(IdentifierUpdateNotification notification)
+    {
+        mPreloadNotifications.add(notification);
+    }
+
+    @Override
+    public void reset()
+    {
+        //No-op
+    }
+
+    @Override
+    public void start()
+    {
+        if(mClosed.get() || mRunning)
+        {
+            return;
+        }
+
+        mBatchSize = Math.max(2, (int)(mSampleRate * mBatchInterval / 1000.0) * 2);
+
+        try
+        {
+            byte[] xml = RemoteDecodeProtocol.toXml(mChannel);
+
+            byte[] startFrame = RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_START, outputStream -> {
+                outputStream.writeInt(xml.length);
+                outputStream.write(xml);
+                outputStream.writeUTF(mChannel.getChannelType().name());
+                outputStream.writeDouble(mSampleRate);
+                outputStream.writeLong(mFrequency);
+                outputStream.writeBoolean(mQuantize);
+                outputStream.writeShort(mPreloadNotifications.size());
+
+                for(IdentifierUpdateNotification notification: mPreloadNotifications)
+                {
+                    outputStream.writeUTF(notification.getOperation().name());
+                    outputStream.writeInt(notification.getTimeslot());
+                    RemoteIdentifierCodec.write(outputStream, notification.getIdentifier());
+                }
+            });
+
+            mSendQueue.offer(startFrame);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error creating remote decode start request for channel [" + mChannel.getName() + "]", ioe);
+            requestDisable();
+            return;
+        }
+
+        mRunning = true;
+        mStarted = true;
+
+        Thread sender = new Thread(this::send, "sdrtrunk remote decode sender " + mWorker);
+        sender.setDaemon(true);
+        sender.start();
+
+        Thread receiver = new Thread(this::receive, "sdrtrunk remote decode receiver " + mWorker);
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void stop()
+    {
+        if(mRunning)
+        {
+            mRunning = false;
+
+            synchronized(this)
+            {
+                flushBatch();
+            }
+
+            try
+            {
+                mSendQueue.put(RemoteDecodeProtocol.frame(RemoteDecodeProtocol.FRAME_STOP, outputStream -> {}));
+            }
+            catch(Exception e)
+            {
+                close();
+            }
+        }
+    }
+
+    @Override
+    public void dispose()
+    {
+        stop();
+
+        //Connections that never started don't have a sender or receiver thread to close them
+        if(!mStarted)
+        {
+            close();
+        }
+
+        super.dispose();
+    }
+
+    /**
+     * Closes the worker connection and completes any open audio segments.
+     */
+    private void close()
+    {
+        if(mClosed.compareAndSet(false, true))
+        {
+            mRunning = false;
+            mWorker.decrementActiveChannelCount();
+
+            try
+            {
+                mSocket.close();
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+
+            synchronized(mAudioSegments)
+            {
+                for(AudioSegment audioSegment: mAudioSegments.values())
+                {
+                    audioSegment.completeProperty().set(true);
+                    audioSegment.decrementConsumerCount();
+                }
+
+                mAudioSegments.clear();
+                mCompletedAudioSegments.clear();
+            }
+
+            if(mDroppedBatchCount.get() > 0)
+            {
+                mLog.info("Remote decoding of channel [" + mChannel.getName() + "] on worker [" + mWorker +
+                    "] dropped [" + mDroppedBatchCount.get() + "] sample batches");
+            }
+        }
+    }
+
+    /**
+     * Requests that the channel processing manager stop this channel, after the worker connection fails.
+     */
+    private void requestDisable()
+    {
+        Listener<ChannelEvent> listener = mChannelEventListener;
+
+        if(listener != null)
+        {
+            listener.receive(new ChannelEvent(mChannel, ChannelEvent.Event.REQUEST_DISABLE));
+        }
+    }
+
+    @Override
+    public Listener<ReusableComplexBuffer> getReusableComplexBufferListener()
+    {
+        return this;
+    }
+
+    /**
+     * Accumulates baseband samples into batches and queues each full batch for the sender thread.
+     */
+    @Override
+    public void receive(ReusableComplexBuffer buffer)
+    {
+        try
+        {
+            if(mRunning)
+            {
+                synchronized(this)
+                {
+                    float[] samples = buffer.getSamples();
+
+                    if(mBatchLength == 0)
+                    {
+                        mBatchTimestamp = buffer.getTimestamp();
+                    }
+
+                    if(mBatch.length < mBatchLength + samples.length)
+                    {
+                        float[] batch = new float[Math.max(mBatchSize, mBatchLength + samples.length)];
+                        System.arraycopy(mBatch, 0, batch, 0, mBatchLength);
+                        mBatch = batch;
+                    }
+
+                    System.arraycopy(samples, 0, mBatch, mBatchLength, samples.length);
+                    mBatchLength += samples.length;
+
+                    if(mBatchLength >= mBatchSize)
+                    {
+                        flushBatch();
+                    }
+                }
+            }
+        }
+        finally
+        {
+            buffer.decrementUserCount();
+        }
+    }
+
+    /**
+     * Encodes and queues the current batch.  Must be invoked while synchronized on this module.
+     */
+    private void flushBatch()
+    {
+        if(mBatchLength > 0)
+        {
+            byte[] frame = RemoteDecodeProtocol.encodeSamples(RemoteDecodeProtocol.FRAME_SAMPLES, mBatchTimestamp,
+                mBatch, mBatchLength, mQuantize);
+            mBatchLength = 0;
+
+            if(!mSendQueue.offer(frame))
+            {
+                mDroppedBatchCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Sender thread.  Writes queued frames to the worker until the stop frame is sent.
+     */
+    private void send()
+    {
+        try
+        {
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(mSocket.getOutputStream()));
+
+            while(!mClosed.get())
+            {
+                byte[] frame = mSendQueue.poll(500, TimeUnit.MILLISECONDS);
+
+                if(frame != null)
+                {
+                    RemoteDecodeProtocol.writeFrame(outputStream, frame);
+
+                    if(mSendQueue.isEmpty())
+                    {
+                        outputStream.flush();
+                    }
+
+                    if(frame[0] == RemoteDecodeProtocol.FRAME_STOP)
+                    {
+                        outputStream.flush();
+                        mSocket.shutdownOutput();
+                        return;
+                    }
+                }
+            }
+        }
+        catch(InterruptedException ie)
+        {
+            close();
+        }
+        catch(IOException ioe)
+        {
+            if(mRunning)
+            {
+                mLog.error("Error sending samples to remote decode worker [" + mWorker + "] for channel [" +
+                    mChannel.getName() + "] - " + ioe.getMessage());
+                close();
+                requestDisable();
+            }
+        }
+    }
+
+    /**
+     * Receiver thread.  Reads decoder output frames from the worker until the worker closes the connection.
+     */
+    private void receive()
+    {
+        try
+        {
+            DataInputStream inputStream = new DataInputStream(new BufferedInputStream(mSocket.getInputStream()));
+
+            while(true)
+            {
+                byte[] frame = RemoteDecodeProtocol.readFrame(inputStream);
+                process(frame);
+            }
+        }
+        catch(IOException ioe)
+        {
+            boolean unexpected = mRunning;
+            close();
+
+            if(unexpected)
+            {
+                mLog.error("Remote decode worker [" + mWorker + "] connection lost for channel [" +
+                    mChannel.getName() + "]");
+                requestDisable();
+            }
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error processing remote decoder output for channel [" + mChannel.getName() + "]", t);
+            close();
+            requestDisable();
+        }
+    }
+
+    /**
+     * Processes a decoder output frame from the worker
+     */
+    private void process(byte[] frame) throws IOException
+    {
+        byte type = frame[0];
+
+        if(type == RemoteDecodeProtocol.FRAME_AUDIO_DATA)
+        {
+            processAudioData(frame);
+            return;
+        }
+
+        DataInputStream inputStream = new DataInputStream(new ByteArrayInputStream(frame, 1, frame.length - 1));
+
+        try
+        {
+            switch(type)
+            {
+                case RemoteDecodeProtocol.FRAME_DECODE_EVENT:
+                    processDecodeEvent(inputStream);
+                    break;
+                case RemoteDecodeProtocol.FRAME_DECODER_STATE:
+                    DecoderStateEvent.Event event = DecoderStateEvent.Event.valueOf(inputStream.readUTF());
+                    State state = State.valueOf(inputStream.readUTF());
+                    int timeslot = inputStream.readInt();
+
+                    if(mDecoderStateListener != null)
+                    {
+                        mDecoderStateListener.receive(new DecoderStateEvent(this, event, state, timeslot));
+                    }
+                    break;
+                case RemoteDecodeProtocol.FRAME_IDENTIFIER_UPDATE:
+                    IdentifierUpdateNotification.Operation operation =
+                        IdentifierUpdateNotification.Operation.valueOf(inputStream.readUTF());
+                    int identifierTimeslot = inputStream.readInt();
+                    Identifier identifier = RemoteIdentifierCodec.read(inputStream);
+
+                    if(mIdentifierUpdateListener != null)
+                    {
+                        mIdentifierUpdateListener.receive(new IdentifierUpdateNotification(identifier, operation,
+                            identifierTimeslot));
+                    }
+                    break;
+                case RemoteDecodeProtocol.FRAME_AUDIO_START:
+                    processAudioStart(inputStream);
+                    break;
+                case RemoteDecodeProtocol.FRAME_AUDIO_IDENTIFIER:
+                    int segmentId = inputStream.readInt();
+                    Identifier audioIdentifier = RemoteIdentifierCodec.read(inputStream);
+
+                    synchronized(mAudioSegments)
+                    {
+                        AudioSegment audioSegment = mAudioSegments.get(segmentId);
+
+                        if(audioSegment != null)
+                        {
+                            audioSegment.addIdentifier(audioIdentifier);
+                        }
+                    }
+                    break;
+                case RemoteDecodeProtocol.FRAME_AUDIO_END:
+                    processAudioEnd(inputStream);
+                    break;
+                case RemoteDecodeProtocol.FRAME_SOURCE_EVENT:
+                    processSourceEvent(inputStream);
+                    break;
+                case RemoteDecodeProtocol.FRAME_ERROR:
+                    throw new IOException("Remote decode worker error - " + inputStream.readUTF());
+                default:
+                    mLog.debug("Ignoring unrecognized remote decode frame type [" + type + "]");
+                    break;
+            }
+        }
+        catch(IllegalArgumentException iae)
+        {
+            throw new IOException("Unrecognized enumeration value in remote decode frame", iae);
+        }
+    }
+
+    /**
+     * Creates or updates the local decode event that corresponds to the remote decode event.  Remote decode events
+     * are re-sent as they are updated (e.g. call duration) and the local event instance is updated and re-broadcast
+     * so that event tables and loggers see the same update behavior as for locally decoded channels.
+     */
+    private void processDecodeEvent(DataInputStream inputStream) throws IOException
+    {
+        int eventId = inputStream.readInt();
+        long start = inputStream.readLong();
+        long duration = inputStream.readLong();
+        String description = inputStream.readUTF();
+        String details = inputStream.readUTF();
+        Protocol protocol = Protocol.valueOf(inputStream.readUTF());
+        int timeslot = inputStream.readInt();
+        int identifierCount = inputStream.readShort();
+
+        List<Identifier> identifiers = new ArrayList<>();
+
+        for(int x = 0; x < identifierCount; x++)
+        {
+            identifiers.add(RemoteIdentifierCodec.read(inputStream));
+        }
+
+        IdentifierCollection identifierCollection = timeslot >= 0 ? new IdentifierCollection(identifiers, timeslot) :
+            new IdentifierCollection(identifiers);
+
+        DecodeEvent decodeEvent = mDecodeEvents.get(eventId);
+
+        if(decodeEvent == null)
+        {
+            decodeEvent = DecodeEvent.builder(start)
+                .duration(duration)
+                .eventDescription(description)
+                .details(details)
+                .protocol(protocol)
+                .identifiers(identifierCollection)
+                .timeslot(timeslot >= 0 ? timeslot : null)
+                .build();
+            mDecodeEvents.put(eventId, decodeEvent);
+        }
+        else
+        {
+            decodeEvent.setDuration(duration);
+            decodeEvent.setEventDescription(description);
+            decodeEvent.setDetails(details);
+            decodeEvent.setIdentifierCollection(identifierCollection);
+        }
+
+        mDecodeEventBroadcaster.broadcast(decodeEvent);
+    }
+
+    /**
+     * Creates a local audio segment that mirrors a remote audio segment.
+     */
+    private void processAudioStart(DataInputStream inputStream) throws IOException
+    {
+        int segmentId = inputStream.readInt();
+        int timeslot = inputStream.readInt();
+        int linkedSegmentId = inputStream.readInt();
+        boolean recordAudio = inputStream.readBoolean();
+
+        AudioSegment audioSegment = new AudioSegment(mAliasList, timeslot);
+        audioSegment.incrementConsumerCount();
+
+        if(recordAudio)
+        {
+            audioSegment.recordAudioProperty().set(true);
+        }
+
+        synchronized(mAudioSegments)
+        {
+            AudioSegment linked = mCompletedAudioSegments.get(linkedSegmentId);
+
+            if(linked == null)
+            {
+                linked = mAudioSegments.get(linkedSegmentId);
+            }
+
+            if(linked != null)
+            {
+                audioSegment.linkTo(linked);
+            }
+
+            mAudioSegments.put(segmentId, audioSegment);
+        }
+
+        Listener<AudioSegment> listener = mAudioSegmentListener;
+
+        if(listener != null)
+        {
+            audioSegment.incrementConsumerCount();
+            listener.receive(audioSegment);
+        }
+    }
+
+    /**
+     * Adds remote audio to the corresponding local audio segment
+     */
+    private void processAudioData(byte[] frame)
+    {
+        int segmentId = (int)RemoteDecodeProtocol.getSamplesPrefix(frame);
+
+        synchronized(mAudioSegments)
+        {
+            AudioSegment audioSegment = mAudioSegments.get(segmentId);
+
+            if(audioSegment != null)
+            {
+                float[] audio = new float[RemoteDecodeProtocol.getSampleCount(frame)];
+                RemoteDecodeProtocol.decodeSamples(frame, audio);
+
+                try
+                {
+                    audioSegment.addAudio(audio);
+                }
+                catch(IllegalStateException ise)
+                {
+                    //Segment is already being disposed - ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Completes the local audio segment that mirrors a completed remote audio segment.
+     */
+    private void processAudioEnd(DataInputStream inputStream) throws IOException
+    {
+        int segmentId = inputStream.readInt();
+        boolean recordAudio = inputStream.readBoolean();
+
+        synchronized(mAudioSegments)
+        {
+            AudioSegment audioSegment = mAudioSegments.remove(segmentId);
+
+            if(audioSegment != null)
+            {
+                if(recordAudio)
+                {
+                    audioSegment.recordAudioProperty().set(true);
+                }
+
+                audioSegment.completeProperty().set(true);
+                mCompletedAudioSegments.put(segmentId, audioSegment);
+                audioSegment.decrementConsumerCount();
+            }
+        }
+    }
+
+    /**
+     * Injects frequency correction requests and frequency error measurements from the remote decoder into the local
+     * processing chain so that the tuner channel source and tuner frequency error tracking respond to them.
+     */
+    private void processSourceEvent(DataInputStream inputStream) throws IOException
+    {
+        SourceEvent.Event event = SourceEvent.Event.valueOf(inputStream.readUTF());
+        long value = inputStream.readLong();
+
+        SourceEvent sourceEvent = null;
+
+        switch(event)
+        {
+            case REQUEST_CHANNEL_FREQUENCY_CORRECTION_CHANGE:
+                sourceEvent = SourceEvent.channelFrequencyCorrectionRequest(value);
+                break;
+            case NOTIFICATION_MEASURED_FREQUENCY_ERROR:
+                sourceEvent = SourceEvent.frequencyErrorMeasurement(value);
+                break;
+            case NOTIFICATION_MEASURED_FREQUENCY_ERROR_SYNC_LOCKED:
+                sourceEvent = SourceEvent.frequencyErrorMeasurementSyncLocked(value, "Remote Decoder");
+                break;
+            default:
+                break;
+        }
+
+        if(sourceEvent != null && mSourceEventListener != null)
+        {
+            mSourceEventListener.receive(sourceEvent);
+        }
+    }
+
+    /**
+     * Captures the sample rate and frequency of the source that are broadcast when the processing chain starts.
+     */
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        return sourceEvent -> {
+            switch(sourceEvent.getEvent())
+            {
+                case NOTIFICATION_SAMPLE_RATE_CHANGE:
+                    mSampleRate = sourceEvent.getValue().doubleValue();
+                    break;
+                case NOTIFICATION_FREQUENCY_CHANGE:
+                    mFrequency = sourceEvent.getValue().longValue();
+                    break;
+                default:
+                    break;
+            }
+        };
+    }
+
+    @Override
+    public void setSourceEventListener(Listener<SourceEvent> listener)
+    {
+        mSourceEventListener = listener;
+    }
+
+    @Override
+    public void removeSourceEventListener()
+    {
+        mSourceEventListener = null;
+    }
+
+    @Override
+    public void addDecodeEventListener(Listener<IDecodeEvent> listener)
+    {
+        mDecodeEventBroadcaster.addListener(listener);
+    }
+
+    @Override
+    public void removeDecodeEventListener(Listener<IDecodeEvent> listener)
+    {
+        mDecodeEventBroadcaster.removeListener(listener);
+    }
+
+    @Override
+    public void setAudioSegmentListener(Listener<AudioSegment> listener)
+    {
+        mAudioSegmentListener = listener;
+    }
+
+    @Override
+    public void removeAudioSegmentListener()
+    {
+        mAudioSegmentListener = null;
+    }
+
+    @Override
+    public void setDecoderStateListener(Listener<DecoderStateEvent> listener)
+    {
+        mDecoderStateListener = listener;
+    }
+
+    @Override
+    public void removeDecoderStateListener()
+    {
+        mDecoderStateListener = null;
+    }
+
+    @Override
+    public void setIdentifierUpdateListener(Listener<IdentifierUpdateNotification> listener)
+    {
+        mIdentifierUpdateListener = listener;
+    }
+
+    @Override
+    public void removeIdentifierUpdateListener()
+    {
+        mIdentifierUpdateListener = null;
+    }
+
+    @Override
+    public void setChannelEventListener(Listener<ChannelEvent> listener)
+    {
+        mChannelEventListener = listener;
+    }
+
+    @Override
+    public void removeChannelEventListener()
+    {
+        mChannelEventListener = null;
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.identifier.Form;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.identifier.integer.IntegerIdentifier;
+import io.github.dsheirer.identifier.longnumber.LongIdentifier;
+import io.github.dsheirer.identifier.patch.PatchGroup;
+import io.github.dsheirer.identifier.patch.PatchGroupIdentifier;
+import io.github.dsheirer.identifier.radio.RadioIdentifier;
+import io.github.dsheirer.identifier.string.StringIdentifier;
+import io.github.dsheirer.identifier.talkgroup.TalkgroupIdentifier;
+import io.github.dsheirer.protocol.Protocol;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes and decodes identifiers for transfer between a remote decode worker and the coordinator.
+ *
+ * Decoded identifiers preserve the identifier class, form, role, protocol and value so that aliasing, talkgroup
+ * formatting and duplicate call detection work the same on the coordinator as they do for locally decoded channels.
+ * Talkgroup, radio and patch group identifiers are recreated as subclasses of the corresponding abstract identifier
+ * types.  All other identifiers are recreated as generic integer, long or string identifiers.
+ */
+public class RemoteIdentifierCodec
+{
+    private static final byte VALUE_INTEGER = 0;
+    private static final byte VALUE_LONG = 1;
+    private static final byte VALUE_STRING = 2;
+    private static final byte VALUE_PATCH_GROUP = 3;
+
+    /**
+     * Writes the identifier to the output stream
+     */
+    public static void write(DataOutputStream outputStream, Identifier identifier) throws IOException
+    {
+        Protocol protocol = identifier.getProtocol() != null ? identifier.getProtocol() : Protocol.UNKNOWN;
+
+        outputStream.writeUTF(identifier.getIdentifierClass().name());
+        outputStream.writeUTF(identifier.getForm().name());
+        outputStream.writeUTF(identifier.getRole().name());
+        outputStream.writeUTF(protocol.name());
+
+        Object value = identifier.getValue();
+
+        if(value instanceof Integer)
+        {
+            outputStream.writeByte(VALUE_INTEGER);
+            outputStream.writeInt((Integer)value);
+        }
+        else if(value instanceof Long)
+        {
+            outputStream.writeByte(VALUE_LONG);
+            outputStream.writeLong((Long)value);
+        }
+        else if(value instanceof PatchGroup)
+        {
+            PatchGroup patchGroup = (PatchGroup)value;
+            outputStream.writeByte(VALUE_PATCH_GROUP);
+            outputStream.writeInt(patchGroup.getPatchGroup().getValue());
+            outputStream.writeShort(patchGroup.getPatchedGroupIdentifiers().size());
+
+            for(TalkgroupIdentifier patchedGroup: patchGroup.getPatchedGroupIdentifiers())
+            {
+                outputStream.writeInt(patchedGroup.getValue());
+            }
+        }
+        else
+        {
+            outputStream.writeByte(VALUE_STRING);
+            outputStream.writeUTF(identifier.toString());
+        }
+    }
+
+    /**
+     * Reads an identifier from the input stream
+     */
+    public static Identifier read(DataInputStream inputStream) throws IOException
+    {
+        try
+        {
+            IdentifierClass identifierClass = IdentifierClass.valueOf(inputStream.readUTF());
+            Form form = Form.valueOf(inputStream.readUTF());
+            Role role = Role.valueOf(inputStream.readUTF());
+            Protocol protocol = Protocol.valueOf(inputStream.readUTF());
+
+            byte valueType = inputStream.readByte();
+
+            switch(valueType)
+            {
+                case VALUE_INTEGER:
+                    int value = inputStream.readInt();
+
+                    if(form == Form.TALKGROUP)
+                    {
+                        return new RemoteTalkgroupIdentifier(value, role, protocol);
+                    }
+                    else if(form == Form.RADIO)
+                    {
+                        return new RemoteRadioIdentifier(value, role, protocol);
+                    }
+
+                    return new RemoteIntegerIdentifier(value, identifierClass, form, role, protocol);
+                case VALUE_LONG:
+                    return new RemoteLongIdentifier(inputStream.readLong(), identifierClass, form, role, protocol);
+                case VALUE_PATCH_GROUP:
+                    PatchGroup patchGroup = new PatchGroup(new RemoteTalkgroupIdentifier(inputStream.readInt(),
+                        Role.TO, protocol));
+                    int patchedCount = inputStream.readShort();
+
+                    for(int x = 0; x < patchedCount; x++)
+                    {
+                        patchGroup.addPatchedGroup(new RemoteTalkgroupIdentifier(inputStream.readInt(), Role.TO,
+                            protocol));
+                    }
+
+                    return new RemotePatchGroupIdentifier(patchGroup, protocol);
+                case VALUE_STRING:
+                    return new RemoteStringIdentifier(inputStream.readUTF(), identifierClass, form, role, protocol);
+                default:
+                    throw new IOException("Unrecognized identifier value type [" + valueType + "]");
+            }
+        }
+        catch(IllegalArgumentException iae)
+        {
+            throw new IOException("Unrecognized identifier enumeration value", iae);
+        }
+    }
+
+    public static class RemoteTalkgroupIdentifier extends TalkgroupIdentifier
+    {
+        private Protocol mProtocol;
+
+        public RemoteTalkgroupIdentifier(Integer value, Role role, Protocol protocol)
+        {
+            super(value, role);
+            mProtocol = protocol;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+    }
+
+    public static class RemoteRadioIdentifier extends RadioIdentifier
+    {
+        private Protocol mProtocol;
+
+        public RemoteRadioIdentifier(Integer value, Role role, Protocol protocol)
+        {
+            super(value, role);
+            mProtocol = protocol;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+    }
+
+    public static class RemotePatchGroupIdentifier extends PatchGroupIdentifier
+    {
+        private Protocol mProtocol;
+
+        public RemotePatchGroupIdentifier(PatchGroup patchGroup, Protocol protocol)
+        {
+            super(patchGroup);
+            mProtocol = protocol;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+    }
+
+    public static class RemoteIntegerIdentifier extends IntegerIdentifier
+    {
+        private Protocol mProtocol;
+
+        public RemoteIntegerIdentifier(int value, IdentifierClass identifierClass, Form form, Role role,
+                                       Protocol protocol)
+        {
+            super(value, identifierClass, form, role);
+            mProtocol = protocol;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+    }
+
+    public static class RemoteLongIdentifier extends LongIdentifier
+    {
+        private Protocol mProtocol;
+
+        public RemoteLongIdentifier(Long value, IdentifierClass identifierClass, Form form, Role role,
+                                    Protocol protocol)
+        {
+            super(value, identifierClass, form, role);
+            mProtocol = protocol;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+    }
+
+    public static class RemoteStringIdentifier extends StringIdentifier
+    {
+        private Protocol mProtocol;
+
+        public RemoteStringIdentifier(String value, IdentifierClass identifierClass, Form form, Role role,
+                                      Protocol protocol)
+        {
+            super(value, identifierClass, form, role);
+            mProtocol = protocol;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return mProtocol;
+        }
+    }
+}
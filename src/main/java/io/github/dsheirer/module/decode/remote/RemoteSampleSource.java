@@ -0,0 +1,174 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.source.ComplexSource;
+import io.github.dsheirer.source.SourceEvent;
+
+/**
+ * Worker-side complex sample source that delivers the baseband sample batches received from the coordinator to the
+ * remote processing chain.  Frequency correction requests and frequency error measurements that the decoders send to
+ * the source are relayed back to the coordinator so that they can be applied to the tuner channel source.
+ */
+public class RemoteSampleSource extends ComplexSource
+{
+    /**
+     * Maximum number of interleaved sample values per delivered buffer.  Batches are split to buffer sizes similar to
+     * those produced by a local tuner channel, since some demodulators use fixed size internal buffers.
+     */
+    private static final int MAXIMUM_BUFFER_LENGTH = 1024;
+
+    private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("RemoteSampleSource");
+    private Listener<ReusableComplexBuffer> mListener;
+    private Listener<SourceEvent> mSourceEventRelay;
+    private double mSampleRate;
+    private long mFrequency;
+    private float[] mBatch = new float[0];
+
+    /**
+     * Constructs an instance
+     * @param sampleRate of the channel samples
+     * @param frequency of the channel
+     * @param sourceEventRelay to receive source events that should be applied to the coordinator's channel source
+     */
+    public RemoteSampleSource(double sampleRate, long frequency, Listener<SourceEvent> sourceEventRelay)
+    {
+        mSampleRate = sampleRate;
+        mFrequency = frequency;
+        mSourceEventRelay = sourceEventRelay;
+    }
+
+    /**
+     * Decodes a samples frame and delivers the samples to the registered listener
+     */
+    public void receive(byte[] samplesFrame)
+    {
+        Listener<ReusableComplexBuffer> listener = mListener;
+
+        getHeartbeatManager().broadcast();
+
+        if(listener != null)
+        {
+            int length = RemoteDecodeProtocol.getSampleCount(samplesFrame);
+
+            if(mBatch.length < length)
+            {
+                mBatch = new float[length];
+            }
+
+            RemoteDecodeProtocol.decodeSamples(samplesFrame, mBatch);
+            long timestamp = RemoteDecodeProtocol.getSamplesPrefix(samplesFrame);
+
+            for(int offset = 0; offset < length; offset += MAXIMUM_BUFFER_LENGTH)
+            {
+                int bufferLength = Math.min(MAXIMUM_BUFFER_LENGTH, length - offset);
+                ReusableComplexBuffer buffer = mReusableComplexBufferQueue.getBuffer(bufferLength);
+                System.arraycopy(mBatch, offset, buffer.getSamples(), 0, bufferLength);
+                buffer.setTimestamp(timestamp + (long)(offset / 2 / mSampleRate * 1000.0));
+                listener.receive(buffer);
+            }
+        }
+    }
+
+    @Override
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    @Override
+    public long getFrequency()
+    {
+        return mFrequency;
+    }
+
+    @Override
+    public void setListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mListener = listener;
+    }
+
+    @Override
+    public void removeListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mListener = null;
+    }
+
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        return sourceEvent -> {
+            switch(sourceEvent.getEvent())
+            {
+                case REQUEST_CHANNEL_FREQUENCY_CORRECTION_CHANGE:
+                case NOTIFICATION_MEASURED_FREQUENCY_ERROR:
+                case NOTIFICATION_MEASURED_FREQUENCY_ERROR_SYNC_LOCKED:
+                    mSourceEventRelay.receive(sourceEvent);
+                    break;
+                default:
+                    break;
+            }
+        };
+    }
+
+    @Override
+    public void setSourceEventListener(Listener<SourceEvent> listener)
+    {
+        //Not implemented
+    }
+
+    @Override
+    public void removeSourceEventListener()
+    {
+        //Not implemented
+    }
+
+    @Override
+    public void reset()
+    {
+        //No-op
+    }
+
+    @Override
+    public void start()
+    {
+        //No-op - samples are delivered as they arrive from the coordinator
+    }
+
+    @Override
+    public void stop()
+    {
+        //No-op
+    }
+
+    @Override
+    public void dispose()
+    {
+        mListener = null;
+        mReusableComplexBufferQueue.dispose();
+        super.dispose();
+    }
+}
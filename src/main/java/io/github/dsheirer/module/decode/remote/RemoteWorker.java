@@ -0,0 +1,178 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.remote;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coordinator-side description of a remote decode worker process, the number of channels currently assigned to it and
+ * the spare connections that are established ahead of time for the next channel assignments.
+ */
+public class RemoteWorker
+{
+    private static final long UNAVAILABLE_RETRY_INTERVAL_MILLISECONDS = 30000;
+
+    private String mHost;
+    private int mPort;
+    private volatile int mCapacity = 1;
+    private AtomicInteger mActiveChannelCount = new AtomicInteger();
+    private volatile long mUnavailableUntil;
+    private Queue<Socket> mSpareConnections = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructs an instance
+     * @param host name or address of the worker
+     * @param port that the worker is listening on
+     */
+    public RemoteWorker(String host, int port)
+    {
+        mHost = host;
+        mPort = port;
+    }
+
+    public String getHost()
+    {
+        return mHost;
+    }
+
+    public int getPort()
+    {
+        return mPort;
+    }
+
+    /**
+     * Number of processor cores reported by the worker
+     */
+    public int getCapacity()
+    {
+        return mCapacity;
+    }
+
+    /**
+     * Sets the worker capacity as reported in the worker hello
+     */
+    void setCapacity(int capacity)
+    {
+        mCapacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Number of channels currently decoding on this worker
+     */
+    public int getActiveChannelCount()
+    {
+        return mActiveChannelCount.get();
+    }
+
+    void incrementActiveChannelCount()
+    {
+        mActiveChannelCount.incrementAndGet();
+    }
+
+    void decrementActiveChannelCount()
+    {
+        mActiveChannelCount.decrementAndGet();
+    }
+
+    /**
+     * Relative load of this worker as the number of active channels per processor core.
+     */
+    public double getLoad()
+    {
+        return (double)getActiveChannelCount() / getCapacity();
+    }
+
+    /**
+     * Indicates if the worker can be offered new channels.  Workers that couldn't be reached are skipped for a short
+     * interval before they are retried.
+     */
+    public boolean isAvailable()
+    {
+        return System.currentTimeMillis() >= mUnavailableUntil;
+    }
+
+    /**
+     * Flags this worker as unreachable so that it is skipped until the retry interval elapses.
+     */
+    void setUnavailable()
+    {
+        mUnavailableUntil = System.currentTimeMillis() + UNAVAILABLE_RETRY_INTERVAL_MILLISECONDS;
+    }
+
+    /**
+     * Removes and returns a spare connection that has completed the worker hello.
+     * @return connected socket or null if there are no spare connections
+     */
+    Socket takeSpareConnection()
+    {
+        return mSpareConnections.poll();
+    }
+
+    /**
+     * Adds a connection that has completed the worker hello to the spare connections
+     */
+    void addSpareConnection(Socket socket)
+    {
+        mSpareConnections.offer(socket);
+    }
+
+    /**
+     * Number of spare connections
+     */
+    public int getSpareConnectionCount()
+    {
+        return mSpareConnections.size();
+    }
+
+    /**
+     * Closes all spare connections
+     */
+    void closeSpareConnections()
+    {
+        Socket socket = mSpareConnections.poll();
+
+        while(socket != null)
+        {
+            try
+            {
+                socket.close();
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+
+            socket = mSpareConnections.poll();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return mHost + ":" + mPort;
+    }
+}
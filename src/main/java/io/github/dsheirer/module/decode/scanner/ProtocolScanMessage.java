@@ -0,0 +1,100 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.module.decode.scanner;
+
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.Message;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.p25.identifier.APCO25Nac;
+import io.github.dsheirer.protocol.Protocol;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Protocol scanner message produced each time a protocol sync pattern is detected, containing the updated scan
+ * result for the protocol.
+ */
+public class ProtocolScanMessage extends Message
+{
+    private ProtocolScanResult mResult;
+    private List<Identifier> mIdentifiers;
+
+    /**
+     * Constructs an instance
+     * @param result for the detected protocol
+     */
+    public ProtocolScanMessage(ProtocolScanResult result)
+    {
+        super(result.getTimestamp() > 0 ? result.getTimestamp() : System.currentTimeMillis());
+        mResult = result;
+    }
+
+    /**
+     * Updated scan result for the detected protocol
+     */
+    public ProtocolScanResult getResult()
+    {
+        return mResult;
+    }
+
+    @Override
+    public boolean isValid()
+    {
+        return true;
+    }
+
+    @Override
+    public Protocol getProtocol()
+    {
+        return mResult.getDecoderType().getProtocol();
+    }
+
+    /**
+     * Network access code identifier for P25 Phase 1 results with a decoded NAC
+     */
+    @Override
+    public List<Identifier> getIdentifiers()
+    {
+        if(mIdentifiers == null)
+        {
+            if(mResult.getDecoderType() == DecoderType.P25_PHASE1 && mResult.hasAccessCode())
+            {
+                mIdentifiers = new ArrayList<>();
+                mIdentifiers.add(APCO25Nac.create(mResult.getAccessCode()));
+            }
+            else
+            {
+                mIdentifiers = Collections.emptyList();
+            }
+        }
+
+        return mIdentifiers;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PROTOCOL SCAN " + mResult;
+    }
+}
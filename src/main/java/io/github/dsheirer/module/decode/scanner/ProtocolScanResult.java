@@ -0,0 +1,133 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.module.decode.scanner;
+
+import io.github.dsheirer.module.decode.DecoderType;
+
+/**
+ * Protocol scan result that summarizes the sync patterns detected for a protocol since the scanner was last reset.
+ */
+public class ProtocolScanResult
+{
+    public static final int UNKNOWN_ACCESS_CODE = -1;
+
+    private final DecoderType mDecoderType;
+    private final int mAccessCode;
+    private final int mSyncCount;
+    private final int mSyncBitErrorCount;
+    private final int mAccessCodeCount;
+    private final long mTimestamp;
+
+    /**
+     * Constructs an instance
+     *
+     * @param decoderType of the detected protocol
+     * @param accessCode most recently decoded NAC (P25 Phase 1) or color code (DMR), or UNKNOWN_ACCESS_CODE
+     * @param syncCount number of sync patterns detected
+     * @param syncBitErrorCount total bit errors across the detected sync patterns
+     * @param accessCodeCount number of access codes that passed error detection and correction
+     * @param timestamp of the sample buffer that contained the most recent sync pattern
+     */
+    public ProtocolScanResult(DecoderType decoderType, int accessCode, int syncCount, int syncBitErrorCount,
+                              int accessCodeCount, long timestamp)
+    {
+        mDecoderType = decoderType;
+        mAccessCode = accessCode;
+        mSyncCount = syncCount;
+        mSyncBitErrorCount = syncBitErrorCount;
+        mAccessCodeCount = accessCodeCount;
+        mTimestamp = timestamp;
+    }
+
+    /**
+     * Detected protocol
+     */
+    public DecoderType getDecoderType()
+    {
+        return mDecoderType;
+    }
+
+    /**
+     * Most recently decoded Network Access Code (P25 Phase 1) or color code (DMR).
+     * @return access code or UNKNOWN_ACCESS_CODE (-1) when not decoded or not available for the protocol
+     */
+    public int getAccessCode()
+    {
+        return mAccessCode;
+    }
+
+    /**
+     * Indicates if an access code was decoded
+     */
+    public boolean hasAccessCode()
+    {
+        return mAccessCode != UNKNOWN_ACCESS_CODE;
+    }
+
+    /**
+     * Number of sync patterns detected for the protocol
+     */
+    public int getSyncCount()
+    {
+        return mSyncCount;
+    }
+
+    /**
+     * Number of access codes (NAC or color code) that passed error detection and correction
+     */
+    public int getAccessCodeCount()
+    {
+        return mAccessCodeCount;
+    }
+
+    /**
+     * Average number of bit errors per detected sync pattern, where lower values indicate a stronger signal.
+     */
+    public float getAverageSyncBitErrors()
+    {
+        return mSyncCount > 0 ? (float)mSyncBitErrorCount / (float)mSyncCount : 0.0f;
+    }
+
+    /**
+     * Timestamp of the sample buffer that contained the most recent sync pattern
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mDecoderType.getShortDisplayString());
+
+        if(hasAccessCode())
+        {
+            sb.append(mDecoderType == DecoderType.DMR ? " CC:" : " NAC:").append(mAccessCode);
+        }
+
+        sb.append(" SYNCS:").append(mSyncCount);
+        sb.append(" AVG BIT ERRORS:").append(String.format("%.1f", getAverageSyncBitErrors()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,642 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.module.decode.scanner;
+
+import io.github.dsheirer.bits.BitParallelPatternMatcher;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.dsp.filter.FilterFactory;
+import io.github.dsheirer.dsp.filter.fir.FIRFilterSpecification;
+import io.github.dsheirer.dsp.filter.fir.complex.ComplexBasebandFrontEnd;
+import io.github.dsheirer.dsp.psk.DQPSKDecisionDirectedDemodulator;
+import io.github.dsheirer.dsp.psk.DQPSKGardnerDemodulator;
+import io.github.dsheirer.dsp.psk.InterpolatingSampleBuffer;
+import io.github.dsheirer.dsp.psk.pll.CostasLoop;
+import io.github.dsheirer.dsp.psk.pll.IPhaseLockedLoop;
+import io.github.dsheirer.dsp.psk.pll.PLLBandwidth;
+import io.github.dsheirer.dsp.symbol.Dibit;
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.edac.BCH_63_16_11;
+import io.github.dsheirer.edac.Golay24;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.PrimaryDecoder;
+import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
+import io.github.dsheirer.module.decode.dmr.message.data.SlotType;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.ISourceEventListener;
+import io.github.dsheirer.source.SourceEvent;
+import io.github.dsheirer.source.tuner.channel.ChannelSpecification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocol scanner for identifying the digital protocol carried on a channel.
+ *
+ * Instead of running a P25 Phase 1, P25 Phase 2 and a DMR decoder against the channel, each with its own baseband
+ * filter, PLL and demodulator, the scanner filters the channel once and demodulates once per modulation family:
+ * a 4800 baud demodulator for P25 Phase 1 and DMR and a 6000 baud demodulator for P25 Phase 2.  The dibit stream
+ * from each demodulator is checked against all of the normal and PLL-misaligned (+/-90 and 180 degree) sync patterns
+ * for the protocols in that family with a single bit-parallel pattern matcher.
+ *
+ * Each detected sync pattern updates the tally for the protocol and the updated result is broadcast to the
+ * registered result listener and dispatched as a protocol scan message to the decoder state.  The scanner decodes the Network Access Code (NAC) from the P25 Phase 1 NID that
+ * follows each sync and the color code from the DMR slot type that surrounds each DMR data sync.  P25 Phase 2 results
+ * do not include an access code since the NAC is only available from the decoded MAC messages.
+ */
+public class ProtocolScanner extends PrimaryDecoder implements IReusableComplexBufferListener,
+    Listener<ReusableComplexBuffer>, ISourceEventListener
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ProtocolScanner.class);
+    private static final double DEFAULT_SAMPLE_RATE = 50000.0;
+
+    //The P25 Phase 2 interpolating sample buffer requires at least 5 samples per symbol
+    private static final double MINIMUM_SAMPLE_RATE = 30000.0;
+
+    //P25 Phase 1 and DMR
+    private static final double FDMA_SYMBOL_RATE = 4800.0;
+    private static final float FDMA_SAMPLE_COUNTER_GAIN = 0.4f;
+    private static final int FDMA_SYNC_LENGTH = 48;
+
+    //P25 Phase 2
+    private static final double TDMA_SYMBOL_RATE = 6000.0;
+    private static final float TDMA_SYMBOL_TIMING_GAIN = 0.1f;
+    private static final int TDMA_SYNC_LENGTH = 40;
+
+    /* Sync pattern match thresholds, consistent with the protocol decoders */
+    private static final int SYNC_MATCH_THRESHOLD = 4;
+    private static final int P25_MISALIGNED_SYNC_MATCH_THRESHOLD = 0;
+    private static final int DMR_MISALIGNED_SYNC_MATCH_THRESHOLD = 1;
+
+    private static final EnumSet<DMRSyncPattern> DMR_DATA_PATTERNS = EnumSet.of(DMRSyncPattern.BASE_STATION_DATA,
+        DMRSyncPattern.MOBILE_STATION_DATA, DMRSyncPattern.DIRECT_MODE_DATA_TIMESLOT_1,
+        DMRSyncPattern.DIRECT_MODE_DATA_TIMESLOT_2);
+
+    private double mSampleRate;
+    private Map<Double,float[]> mBasebandFilters = new HashMap<>();
+    private ComplexBasebandFrontEnd mFrontEnd;
+    private CostasLoop mFDMACostasLoop;
+    private CostasLoop mTDMACostasLoop;
+    private DQPSKDecisionDirectedDemodulator mFDMADemodulator;
+    private DQPSKGardnerDemodulator mTDMADemodulator;
+    private Map<DecoderType,Tally> mTallies = new EnumMap<>(DecoderType.class);
+    private Listener<ProtocolScanResult> mResultListener;
+    private long mCurrentTimestamp;
+
+    /**
+     * Constructs an instance
+     * @param config for the protocol scanner
+     */
+    public ProtocolScanner(DecodeConfigProtocolScanner config)
+    {
+        super(config);
+        setSampleRate(DEFAULT_SAMPLE_RATE);
+    }
+
+    @Override
+    public DecoderType getDecoderType()
+    {
+        return DecoderType.PROTOCOL_SCANNER;
+    }
+
+    @Override
+    public Listener<ReusableComplexBuffer> getReusableComplexBufferListener()
+    {
+        return this;
+    }
+
+    /**
+     * Sets the sample rate and configures the front end and the demodulators for each modulation family.
+     * @param sampleRate of the incoming channel sample buffers
+     */
+    public void setSampleRate(double sampleRate)
+    {
+        if(sampleRate < MINIMUM_SAMPLE_RATE)
+        {
+            throw new IllegalArgumentException("Sample rate [" + sampleRate + "] must be at least " +
+                MINIMUM_SAMPLE_RATE);
+        }
+
+        mSampleRate = sampleRate;
+        mFrontEnd = new ComplexBasebandFrontEnd(getBasebandFilter());
+
+        mFDMACostasLoop = new CostasLoop(sampleRate, FDMA_SYMBOL_RATE);
+        mFDMACostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
+        mFDMADemodulator = new DQPSKDecisionDirectedDemodulator(mFDMACostasLoop,
+            new InterpolatingSampleBuffer((float)(sampleRate / FDMA_SYMBOL_RATE), FDMA_SAMPLE_COUNTER_GAIN));
+        mFDMADemodulator.setSymbolListener(createFDMASyncScanner());
+
+        mTDMACostasLoop = new CostasLoop(sampleRate, TDMA_SYMBOL_RATE);
+        mTDMACostasLoop.setPLLBandwidth(PLLBandwidth.BW_300);
+        mTDMADemodulator = new DQPSKGardnerDemodulator(mTDMACostasLoop,
+            new InterpolatingSampleBuffer((float)(sampleRate / TDMA_SYMBOL_RATE), TDMA_SYMBOL_TIMING_GAIN));
+        mTDMADemodulator.setSymbolListener(createTDMASyncScanner());
+    }
+
+    /**
+     * Channel specification for the channel source that feeds the scanner, matching the P25 and DMR decoder channels
+     */
+    public static ChannelSpecification getChannelSpecification()
+    {
+        return new ChannelSpecification(DEFAULT_SAMPLE_RATE, 12500, 6500.0, 7200.0);
+    }
+
+    /**
+     * Current sample rate
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Sync scanner for the P25 Phase 1 and DMR sync patterns
+     */
+    private SyncScanner createFDMASyncScanner()
+    {
+        SyncScanner scanner = new SyncScanner(mFDMACostasLoop, FDMA_SYNC_LENGTH);
+
+        //Normal patterns are added first so that they are preferred over misaligned patterns with equal bit errors
+        scanner.add(FrameSync.P25_PHASE1_NORMAL.getSync(), SYNC_MATCH_THRESHOLD, DecoderType.P25_PHASE1,
+            AccessCode.NID, 0.0);
+
+        for(DMRSyncPattern pattern: DMRSyncPattern.SYNC_PATTERNS)
+        {
+            scanner.add(pattern.getPattern(), SYNC_MATCH_THRESHOLD, DecoderType.DMR,
+                DMR_DATA_PATTERNS.contains(pattern) ? AccessCode.SLOT_TYPE : AccessCode.NONE, 0.0);
+        }
+
+        double correction90 = FDMA_SYMBOL_RATE / 4.0;
+        double correction180 = FDMA_SYMBOL_RATE / 2.0;
+
+        scanner.add(FrameSync.P25_PHASE1_ERROR_90_CW.getSync(), P25_MISALIGNED_SYNC_MATCH_THRESHOLD,
+            DecoderType.P25_PHASE1, AccessCode.NONE, correction90);
+        scanner.add(FrameSync.P25_PHASE1_ERROR_90_CCW.getSync(), P25_MISALIGNED_SYNC_MATCH_THRESHOLD,
+            DecoderType.P25_PHASE1, AccessCode.NONE, -correction90);
+        scanner.add(FrameSync.P25_PHASE1_ERROR_180.getSync(), P25_MISALIGNED_SYNC_MATCH_THRESHOLD,
+            DecoderType.P25_PHASE1, AccessCode.NONE, correction180);
+
+        for(DMRSyncPattern pattern: DMRSyncPattern.SYNC_PATTERNS)
+        {
+            scanner.add(pattern.getPlus90Pattern(), DMR_MISALIGNED_SYNC_MATCH_THRESHOLD, DecoderType.DMR,
+                AccessCode.NONE, correction90);
+            scanner.add(pattern.getMinus90Pattern(), DMR_MISALIGNED_SYNC_MATCH_THRESHOLD, DecoderType.DMR,
+                AccessCode.NONE, -correction90);
+            scanner.add(pattern.getInvertedPattern(), DMR_MISALIGNED_SYNC_MATCH_THRESHOLD, DecoderType.DMR,
+                AccessCode.NONE, correction180);
+        }
+
+        return scanner;
+    }
+
+    /**
+     * Sync scanner for the P25 Phase 2 sync patterns
+     */
+    private SyncScanner createTDMASyncScanner()
+    {
+        SyncScanner scanner = new SyncScanner(mTDMACostasLoop, TDMA_SYNC_LENGTH);
+
+        double correction90 = TDMA_SYMBOL_RATE / 4.0;
+        double correction180 = TDMA_SYMBOL_RATE / 2.0;
+
+        scanner.add(FrameSync.P25_PHASE2_NORMAL.getSync(), SYNC_MATCH_THRESHOLD, DecoderType.P25_PHASE2,
+            AccessCode.NONE, 0.0);
+        scanner.add(FrameSync.P25_PHASE2_ERROR_90_CW.getSync(), P25_MISALIGNED_SYNC_MATCH_THRESHOLD,
+            DecoderType.P25_PHASE2, AccessCode.NONE, correction90);
+        scanner.add(FrameSync.P25_PHASE2_ERROR_90_CCW.getSync(), P25_MISALIGNED_SYNC_MATCH_THRESHOLD,
+            DecoderType.P25_PHASE2, AccessCode.NONE, -correction90);
+        scanner.add(FrameSync.P25_PHASE2_ERROR_180.getSync(), P25_MISALIGNED_SYNC_MATCH_THRESHOLD,
+            DecoderType.P25_PHASE2, AccessCode.NONE, correction180);
+
+        return scanner;
+    }
+
+    /**
+     * Primary method for processing incoming complex sample buffers
+     * @param reusableComplexBuffer containing channelized complex samples
+     */
+    @Override
+    public void receive(ReusableComplexBuffer reusableComplexBuffer)
+    {
+        //User accounting of the incoming buffer is handled by the front end
+        ReusableComplexBuffer filtered = mFrontEnd.process(reusableComplexBuffer);
+        mCurrentTimestamp = filtered.getTimestamp();
+
+        //Each demodulator decrements the user count of the filtered buffer
+        filtered.incrementUserCount();
+        mFDMADemodulator.receive(filtered);
+        mTDMADemodulator.receive(filtered);
+    }
+
+    /**
+     * Resets the demodulators and clears the scan results to prepare for scanning a new channel
+     */
+    @Override
+    public void reset()
+    {
+        mFrontEnd.reset();
+        mFDMACostasLoop.reset();
+        mTDMACostasLoop.reset();
+        mTallies.clear();
+    }
+
+    /**
+     * Registers the listener to receive an updated scan result each time a sync pattern is detected
+     */
+    public void setResultListener(Listener<ProtocolScanResult> listener)
+    {
+        mResultListener = listener;
+    }
+
+    /**
+     * Removes the result listener
+     */
+    public void removeResultListener()
+    {
+        mResultListener = null;
+    }
+
+    /**
+     * Current scan result for the protocol
+     * @param decoderType of the protocol
+     * @return result or null if no sync patterns were detected for the protocol
+     */
+    public ProtocolScanResult getResult(DecoderType decoderType)
+    {
+        Tally tally = mTallies.get(decoderType);
+        return tally != null ? tally.getResult() : null;
+    }
+
+    /**
+     * Current scan results for each protocol with at least one detected sync pattern, ordered by sync count with the
+     * most likely protocol first.
+     */
+    public List<ProtocolScanResult> getResults()
+    {
+        List<ProtocolScanResult> results = new ArrayList<>();
+
+        for(Tally tally: mTallies.values())
+        {
+            results.add(tally.getResult());
+        }
+
+        results.sort((r1, r2) -> Integer.compare(r2.getSyncCount(), r1.getSyncCount()));
+        return results;
+    }
+
+    /**
+     * Updates the protocol tally with a detected sync pattern and broadcasts the updated result.
+     */
+    private void syncDetected(DecoderType decoderType, int bitErrors, int accessCode)
+    {
+        Tally tally = mTallies.get(decoderType);
+
+        if(tally == null)
+        {
+            tally = new Tally(decoderType);
+            mTallies.put(decoderType, tally);
+        }
+
+        tally.update(bitErrors, accessCode, mCurrentTimestamp);
+
+        ProtocolScanResult result = tally.getResult();
+
+        if(mResultListener != null)
+        {
+            mResultListener.receive(result);
+        }
+
+        getMessageListener().receive(new ProtocolScanMessage(result));
+    }
+
+    /**
+     * Constructs a baseband filter wide enough for the widest (P25 Phase 2) signal using the current sample rate
+     */
+    private float[] getBasebandFilter()
+    {
+        //Attempt to reuse a cached (ie already-designed) filter if available
+        float[] filter = mBasebandFilters.get(getSampleRate());
+
+        if(filter == null)
+        {
+            FIRFilterSpecification specification = FIRFilterSpecification.lowPassBuilder()
+                .sampleRate((int)getSampleRate())
+                .passBandCutoff(6500)
+                .passBandAmplitude(1.0)
+                .passBandRipple(0.01)
+                .stopBandAmplitude(0.0)
+                .stopBandStart(7500)
+                .stopBandRipple(0.01)
+                .build();
+
+            try
+            {
+                filter = FilterFactory.getTaps(specification);
+            }
+            catch(Exception fde) //FilterDesignException
+            {
+                mLog.error("Couldn't design low pass baseband filter for sample rate: " + getSampleRate());
+            }
+
+            if(filter != null)
+            {
+                mBasebandFilters.put(getSampleRate(), filter);
+            }
+            else
+            {
+                throw new IllegalStateException("Couldn't design a scanner baseband filter for sample rate: " +
+                    getSampleRate());
+            }
+        }
+
+        return filter;
+    }
+
+    @Override
+    public Listener<SourceEvent> getSourceEventListener()
+    {
+        return new Listener<SourceEvent>()
+        {
+            @Override
+            public void receive(SourceEvent sourceEvent)
+            {
+                switch(sourceEvent.getEvent())
+                {
+                    case NOTIFICATION_SAMPLE_RATE_CHANGE:
+                        setSampleRate(sourceEvent.getValue().doubleValue());
+                        break;
+                    case NOTIFICATION_FREQUENCY_CORRECTION_CHANGE:
+                        //Reset the PLLs if/when the tuner PPM changes so that we can re-lock
+                        mFDMACostasLoop.reset();
+                        mTDMACostasLoop.reset();
+                        break;
+                }
+            }
+        };
+    }
+
+    /**
+     * Access code that can be decoded from the bits surrounding a sync pattern
+     */
+    private enum AccessCode
+    {
+        NONE(0),
+        //P25 Phase 1 Network ID: 32 dibits (NAC, DUID and BCH parity) plus an embedded status dibit
+        NID(33),
+        //DMR slot type: 5 dibits before the sync pattern and 5 dibits after the sync pattern
+        SLOT_TYPE(5);
+
+        private int mDibitsAfterSync;
+
+        AccessCode(int dibitsAfterSync)
+        {
+            mDibitsAfterSync = dibitsAfterSync;
+        }
+
+        /**
+         * Number of dibits following the sync pattern that contain the access code
+         */
+        public int getDibitsAfterSync()
+        {
+            return mDibitsAfterSync;
+        }
+    }
+
+    /**
+     * Matches the dibit stream from one demodulator against all sync patterns for the modulation family.  Misaligned
+     * (rotated) sync patterns apply a phase correction to the PLL.  Normal sync patterns are reported to the scanner
+     * once the bits that contain the access code (if any) following the sync pattern have been received.
+     */
+    private class SyncScanner implements Listener<Dibit>
+    {
+        //Index of the P25 Phase 1 status dibit in the dibits following the sync pattern
+        private static final int NID_STATUS_DIBIT_INDEX = 11;
+        private static final int SLOT_TYPE_BIT_LENGTH = 10;
+
+        private BitParallelPatternMatcher mMatcher;
+        private IPhaseLockedLoop mPhaseLockedLoop;
+        private int mSyncLength;
+        private DecoderType[] mDecoderTypes = new DecoderType[BitParallelPatternMatcher.MAXIMUM_PATTERN_COUNT];
+        private AccessCode[] mAccessCodes = new AccessCode[BitParallelPatternMatcher.MAXIMUM_PATTERN_COUNT];
+        private double[] mPllCorrections = new double[BitParallelPatternMatcher.MAXIMUM_PATTERN_COUNT];
+        private BCH_63_16_11 mNIDDecoder = new BCH_63_16_11();
+        private long mBits;
+        private int mPendingPattern = BitParallelPatternMatcher.NO_MATCH;
+        private int mPendingBitErrors;
+        private int mPendingDibitCount;
+        private long mPendingPrefix;
+        private long mPendingBits;
+
+        /**
+         * Constructs an instance
+         * @param phaseLockedLoop to receive phase corrections for misaligned sync patterns
+         * @param syncLength in bits for the sync patterns
+         */
+        public SyncScanner(IPhaseLockedLoop phaseLockedLoop, int syncLength)
+        {
+            mPhaseLockedLoop = phaseLockedLoop;
+            mSyncLength = syncLength;
+            mMatcher = new BitParallelPatternMatcher(syncLength, SYNC_MATCH_THRESHOLD);
+        }
+
+        /**
+         * Adds a sync pattern
+         * @param pattern to match
+         * @param threshold of bit errors allowed for the pattern
+         * @param decoderType for the protocol that uses the pattern
+         * @param accessCode that can be decoded from the bits surrounding the pattern
+         * @param frequencyCorrection to apply to the PLL when the pattern is detected, or 0.0 for a normal pattern
+         */
+        public void add(long pattern, int threshold, DecoderType decoderType, AccessCode accessCode,
+                        double frequencyCorrection)
+        {
+            int index = mMatcher.add(pattern, threshold);
+            mDecoderTypes[index] = decoderType;
+            mAccessCodes[index] = accessCode;
+            mPllCorrections[index] = 2.0 * Math.PI * frequencyCorrection / getSampleRate();
+        }
+
+        @Override
+        public void receive(Dibit dibit)
+        {
+            mBits = (mBits << 2) | (dibit.getBit1() ? 2 : 0) | (dibit.getBit2() ? 1 : 0);
+
+            if(mPendingPattern != BitParallelPatternMatcher.NO_MATCH)
+            {
+                collect(dibit);
+                return;
+            }
+
+            int index = mMatcher.match(mBits);
+
+            if(index != BitParallelPatternMatcher.NO_MATCH)
+            {
+                if(mPllCorrections[index] != 0.0)
+                {
+                    mPhaseLockedLoop.correctInversion(mPllCorrections[index]);
+                }
+                else if(mAccessCodes[index] == AccessCode.NONE)
+                {
+                    syncDetected(mDecoderTypes[index], mMatcher.getBitErrorCount(),
+                        ProtocolScanResult.UNKNOWN_ACCESS_CODE);
+                }
+                else
+                {
+                    mPendingPattern = index;
+                    mPendingBitErrors = mMatcher.getBitErrorCount();
+                    mPendingDibitCount = 0;
+                    mPendingBits = 0;
+                    mPendingPrefix = (mBits >>> mSyncLength) & ((1l << SLOT_TYPE_BIT_LENGTH) - 1);
+                }
+            }
+        }
+
+        /**
+         * Collects the dibits that follow a sync pattern and decodes the access code once all dibits are received.
+         */
+        private void collect(Dibit dibit)
+        {
+            AccessCode accessCode = mAccessCodes[mPendingPattern];
+
+            if(accessCode != AccessCode.NID || mPendingDibitCount != NID_STATUS_DIBIT_INDEX)
+            {
+                mPendingBits = (mPendingBits << 2) | (dibit.getBit1() ? 2 : 0) | (dibit.getBit2() ? 1 : 0);
+            }
+
+            mPendingDibitCount++;
+
+            if(mPendingDibitCount == accessCode.getDibitsAfterSync())
+            {
+                int decoded = (accessCode == AccessCode.NID) ? getNAC(mPendingBits) :
+                    getColorCode((mPendingPrefix << SLOT_TYPE_BIT_LENGTH) | mPendingBits);
+
+                syncDetected(mDecoderTypes[mPendingPattern], mPendingBitErrors, decoded);
+                mPendingPattern = BitParallelPatternMatcher.NO_MATCH;
+            }
+        }
+
+        /**
+         * Decodes the Network Access Code from the 64-bit P25 Phase 1 NID.
+         * @param nid bits in transmitted order with the first NID bit in the most significant bit
+         * @return NAC or UNKNOWN_ACCESS_CODE if the NID fails error detection and correction
+         */
+        private int getNAC(long nid)
+        {
+            //BCH decoder uses the first 63 NID bits in reverse order
+            int[] reversed = new int[63];
+
+            for(int x = 0; x < 63; x++)
+            {
+                reversed[x] = (int)(nid >>> (x + 1)) & 1;
+            }
+
+            int[] corrected = new int[63];
+
+            if(mNIDDecoder.decode(reversed, corrected))
+            {
+                return ProtocolScanResult.UNKNOWN_ACCESS_CODE;
+            }
+
+            int nac = 0;
+
+            for(int x = 0; x < 12; x++)
+            {
+                if(corrected[51 + x] == 1)
+                {
+                    nac ^= (1 << x);
+                }
+            }
+
+            return nac;
+        }
+
+        /**
+         * Decodes the color code from the 20-bit DMR slot type.
+         * @param slotType bits in transmitted order with the first bit in bit position 19
+         * @return color code or UNKNOWN_ACCESS_CODE if the slot type fails error detection and correction
+         */
+        private int getColorCode(long slotType)
+        {
+            //Slot type is extracted with 4 leading padding bits for the Golay24 error correction utility
+            CorrectedBinaryMessage message = new CorrectedBinaryMessage(24);
+
+            for(int x = 0; x < 20; x++)
+            {
+                if(((slotType >>> (19 - x)) & 1) == 1)
+                {
+                    message.set(x + 4);
+                }
+            }
+
+            if(Golay24.checkAndCorrect(message, 0) < 3)
+            {
+                return new SlotType(message).getColorCode();
+            }
+
+            return ProtocolScanResult.UNKNOWN_ACCESS_CODE;
+        }
+    }
+
+    /**
+     * Sync detection tally for a protocol
+     */
+    private class Tally
+    {
+        private DecoderType mDecoderType;
+        private int mAccessCode = ProtocolScanResult.UNKNOWN_ACCESS_CODE;
+        private int mSyncCount;
+        private int mSyncBitErrorCount;
+        private int mAccessCodeCount;
+        private long mTimestamp;
+
+        public Tally(DecoderType decoderType)
+        {
+            mDecoderType = decoderType;
+        }
+
+        public void update(int bitErrors, int accessCode, long timestamp)
+        {
+            mSyncCount++;
+            mSyncBitErrorCount += bitErrors;
+            mTimestamp = timestamp;
+
+            if(accessCode != ProtocolScanResult.UNKNOWN_ACCESS_CODE)
+            {
+                mAccessCode = accessCode;
+                mAccessCodeCount++;
+            }
+        }
+
+        public ProtocolScanResult getResult()
+        {
+            return new ProtocolScanResult(mDecoderType, mAccessCode, mSyncCount, mSyncBitErrorCount,
+                mAccessCodeCount, mTimestamp);
+        }
+    }
+}
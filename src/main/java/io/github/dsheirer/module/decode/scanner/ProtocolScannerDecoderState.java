@@ -0,0 +1,150 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.module.decode.scanner;
+
+import io.github.dsheirer.channel.state.DecoderState;
+import io.github.dsheirer.channel.state.DecoderStateEvent;
+import io.github.dsheirer.channel.state.DecoderStateEvent.Event;
+import io.github.dsheirer.channel.state.State;
+import io.github.dsheirer.identifier.IdentifierClass;
+import io.github.dsheirer.identifier.MutableIdentifierCollection;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.event.DecodeEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Protocol scanner decoder state.  Tracks the most recent scan result for each detected protocol and broadcasts a
+ * decode event when a protocol is first detected or when the decoded access code (NAC or color code) for a protocol
+ * changes.  Each detected sync pattern marks the channel as active.
+ */
+public class ProtocolScannerDecoderState extends DecoderState
+{
+    private static final String PROTOCOL_DETECTED = "Protocol Detected";
+    private Map<DecoderType,ProtocolScanResult> mResults = new EnumMap<>(DecoderType.class);
+
+    public ProtocolScannerDecoderState()
+    {
+    }
+
+    @Override
+    public DecoderType getDecoderType()
+    {
+        return DecoderType.PROTOCOL_SCANNER;
+    }
+
+    @Override
+    public void init()
+    {
+    }
+
+    @Override
+    public void receive(IMessage message)
+    {
+        if(message instanceof ProtocolScanMessage)
+        {
+            ProtocolScanResult result = ((ProtocolScanMessage)message).getResult();
+            ProtocolScanResult previous = mResults.put(result.getDecoderType(), result);
+
+            if(previous == null || (result.hasAccessCode() && previous.getAccessCode() != result.getAccessCode()))
+            {
+                MutableIdentifierCollection ic = new MutableIdentifierCollection(getIdentifierCollection().getIdentifiers());
+                ic.remove(IdentifierClass.USER);
+                ic.update(message.getIdentifiers());
+
+                broadcast(DecodeEvent.builder(message.getTimestamp())
+                    .eventDescription(PROTOCOL_DETECTED)
+                    .details(result.toString())
+                    .protocol(message.getProtocol())
+                    .identifiers(ic)
+                    .build());
+            }
+
+            broadcast(new DecoderStateEvent(this, Event.DECODE, State.ACTIVE));
+        }
+    }
+
+    /**
+     * Most recent scan result for the protocol
+     * @param decoderType of the protocol
+     * @return result or null if the protocol has not been detected
+     */
+    public ProtocolScanResult getResult(DecoderType decoderType)
+    {
+        return mResults.get(decoderType);
+    }
+
+    @Override
+    public void receiveDecoderStateEvent(DecoderStateEvent event)
+    {
+        switch(event.getEvent())
+        {
+            case REQUEST_RESET:
+                resetState();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public String getActivitySummary()
+    {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append("Activity Summary\n");
+        sb.append("\tDecoder:\t");
+        sb.append(getDecoderType());
+        sb.append("\n\nDetected Protocols\n");
+
+        if(mResults.isEmpty())
+        {
+            sb.append("  None\n");
+        }
+        else
+        {
+            for(ProtocolScanResult result: mResults.values())
+            {
+                sb.append("  ").append(result).append("\n");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Clears the scan results to prepare for scanning a different sample source
+     */
+    @Override
+    public void reset()
+    {
+        super.reset();
+        mResults.clear();
+    }
+
+    @Override
+    public void stop()
+    {
+    }
+}
@@ -24,6 +24,7 @@ import io.github.dsheirer.bits.MessageFramer;
 import io.github.dsheirer.bits.SyncPattern;
 import io.github.dsheirer.dsp.afsk.AFSK1200Decoder;
 import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.afsk.AFSK1200FrontEnd;
 import io.github.dsheirer.module.decode.afsk.AbstractAFSKDecoder;
 
 /**
@@ -50,9 +51,20 @@ public class Tait1200Decoder extends AbstractAFSKDecoder implements IBinarySymbo
         init();
     }
 
+    /**
+     * Constructs a Tait 1200 decoder that receives symbols from a shared AFSK1200 front end
+     *
+     * @param frontEnd that demodulates the channel audio
+     */
+    public Tait1200Decoder(AFSK1200FrontEnd frontEnd)
+    {
+        super(frontEnd, AFSK1200Decoder.Output.NORMAL);
+        init();
+    }
+
     private void init()
     {
-        getDecoder().setSymbolProcessor(this);
+        setSymbolProcessor(this);
 
         mMessageFramerGPS = new MessageFramer(SyncPattern.TAIT_CCDI_GPS_MESSAGE.getPattern(), MESSAGE_LENGTH);
         mMessageFramerANI = new MessageFramer(SyncPattern.TAIT_SELCAL_MESSAGE.getPattern(), MESSAGE_LENGTH);
@@ -0,0 +1,278 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.traffic;
+
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.ChannelConfigurationChangeNotification;
+import io.github.dsheirer.module.ProcessingChain;
+import io.github.dsheirer.module.decode.DecoderType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of idle, fully constructed traffic channel processing chains owned by a traffic channel manager.
+ *
+ * Traffic channels managed by a traffic channel manager share the same configuration, except for the source
+ * frequency, so idle processing chains are pooled by decoder type rather than by traffic channel instance.  When a
+ * traffic channel stops, the channel processing manager stops and resets the channel's processing chain and offers it
+ * back to this pool instead of disposing it.  On the next channel grant for any traffic channel with the same decoder
+ * type, an idle processing chain is rebound to the granted traffic channel, retuned to the new source and restarted,
+ * avoiding the processing chain construction and teardown costs.
+ *
+ * The pool only accepts processing chains while it is enabled, which normally corresponds to the owning traffic
+ * channel manager's started state.
+ */
+public class ProcessingChainPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ProcessingChainPool.class);
+
+    private Map<DecoderType,Queue<ProcessingChain>> mIdleProcessingChains = new ConcurrentHashMap<>();
+    private AtomicInteger mIdleCount = new AtomicInteger();
+    private List<Channel> mTrafficChannels = new CopyOnWriteArrayList<>();
+    private AtomicBoolean mEnabled = new AtomicBoolean();
+
+    /**
+     * Constructs an instance
+     */
+    public ProcessingChainPool()
+    {
+    }
+
+    /**
+     * Registers the traffic channels that are eligible to have processing chains pooled.
+     * @param trafficChannels managed by the owning traffic channel manager
+     */
+    public void addTrafficChannels(List<Channel> trafficChannels)
+    {
+        mTrafficChannels.addAll(trafficChannels);
+    }
+
+    /**
+     * Traffic channels that are eligible to have processing chains pooled.
+     */
+    public List<Channel> getTrafficChannels()
+    {
+        return Collections.unmodifiableList(mTrafficChannels);
+    }
+
+    /**
+     * Enables or disables this pool.  Disabling the pool disposes any idle processing chains.
+     * @param enabled true to accept processing chains.
+     */
+    public void setEnabled(boolean enabled)
+    {
+        mEnabled.set(enabled);
+
+        if(!enabled)
+        {
+            clear();
+        }
+    }
+
+    /**
+     * Indicates if this pool is accepting processing chains
+     */
+    public boolean isEnabled()
+    {
+        return mEnabled.get();
+    }
+
+    /**
+     * Number of idle processing chains currently held by this pool
+     */
+    public int getIdleCount()
+    {
+        return mIdleCount.get();
+    }
+
+    /**
+     * Number of idle processing chains currently held by this pool for the decoder type
+     */
+    public int getIdleCount(DecoderType decoderType)
+    {
+        Queue<ProcessingChain> idle = mIdleProcessingChains.get(decoderType);
+        return idle != null ? idle.size() : 0;
+    }
+
+    /**
+     * Decoder type used to pool the processing chains for the traffic channel
+     */
+    private static DecoderType getDecoderType(Channel trafficChannel)
+    {
+        return trafficChannel.getDecodeConfiguration().getDecoderType();
+    }
+
+    /**
+     * Maximum number of idle processing chains to retain for the decoder type.  There is no benefit to holding more
+     * idle processing chains for a decoder type than there are traffic channels that can use them.
+     */
+    private int getMaximumIdle(DecoderType decoderType, int maximumIdle)
+    {
+        return Math.min(maximumIdle, getTrafficChannelCount(decoderType));
+    }
+
+    /**
+     * Number of traffic channels in this pool with the decoder type.
+     */
+    private int getTrafficChannelCount(DecoderType decoderType)
+    {
+        int count = 0;
+
+        for(Channel trafficChannel: mTrafficChannels)
+        {
+            if(getDecoderType(trafficChannel) == decoderType)
+            {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Identifies the traffic channel to use as the configuration template for the next pre-warmed processing chain.
+     * Decoder types are filled evenly so that each decoder type used by the traffic channels is pre-warmed before a
+     * second processing chain is created for any decoder type.
+     *
+     * @param maximumIdle processing chains to retain in this pool for each decoder type
+     * @return traffic channel for the decoder type with the fewest idle processing chains, or null if this pool is
+     * full for each decoder type.
+     */
+    public Channel getPrewarmChannel(int maximumIdle)
+    {
+        if(!isEnabled())
+        {
+            return null;
+        }
+
+        Channel prewarmChannel = null;
+        int fewestIdle = Integer.MAX_VALUE;
+
+        for(Channel trafficChannel: mTrafficChannels)
+        {
+            DecoderType decoderType = getDecoderType(trafficChannel);
+            int idle = getIdleCount(decoderType);
+
+            if(idle < fewestIdle && idle < getMaximumIdle(decoderType, maximumIdle))
+            {
+                prewarmChannel = trafficChannel;
+                fewestIdle = idle;
+            }
+        }
+
+        return prewarmChannel;
+    }
+
+    /**
+     * Removes an idle processing chain for the traffic channel's decoder type and rebinds it to the traffic channel,
+     * so that the channel state and decoder modules adopt the traffic channel configuration.  The caller is
+     * responsible for setting the processing chain's source.
+     *
+     * @param trafficChannel that is starting
+     * @return idle (stopped and reset) processing chain or null if this pool doesn't have one for the channel
+     */
+    public synchronized ProcessingChain take(Channel trafficChannel)
+    {
+        if(trafficChannel == null || !isEnabled())
+        {
+            return null;
+        }
+
+        Queue<ProcessingChain> idle = mIdleProcessingChains.get(getDecoderType(trafficChannel));
+        ProcessingChain processingChain = idle != null ? idle.poll() : null;
+
+        if(processingChain != null)
+        {
+            mIdleCount.decrementAndGet();
+            processingChain.channelConfigurationChanged(new ChannelConfigurationChangeNotification(trafficChannel));
+        }
+
+        return processingChain;
+    }
+
+    /**
+     * Offers a stopped and reset processing chain to this pool.  The processing chain is accepted when this pool is
+     * enabled, the traffic channel belongs to this pool and the pool holds fewer idle processing chains for the
+     * channel's decoder type than both the maximum size and the number of traffic channels with the decoder type.
+     *
+     * @param trafficChannel that owns the processing chain
+     * @param processingChain that is stopped
+     * @param maximumIdle processing chains to retain in this pool for each decoder type
+     * @return true if the processing chain was accepted, or false if the caller should dispose of the processing chain
+     */
+    public synchronized boolean offer(Channel trafficChannel, ProcessingChain processingChain, int maximumIdle)
+    {
+        if(isEnabled() && processingChain != null && !processingChain.isProcessing() &&
+            mTrafficChannels.contains(trafficChannel))
+        {
+            DecoderType decoderType = getDecoderType(trafficChannel);
+
+            if(getIdleCount(decoderType) < getMaximumIdle(decoderType, maximumIdle))
+            {
+                mIdleProcessingChains.computeIfAbsent(decoderType, type -> new ConcurrentLinkedQueue<>())
+                    .offer(processingChain);
+                mIdleCount.incrementAndGet();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Disposes all idle processing chains held by this pool
+     */
+    public synchronized void clear()
+    {
+        for(Queue<ProcessingChain> idle: mIdleProcessingChains.values())
+        {
+            ProcessingChain processingChain = idle.poll();
+
+            while(processingChain != null)
+            {
+                mIdleCount.decrementAndGet();
+
+                try
+                {
+                    processingChain.dispose();
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error disposing idle traffic channel processing chain", e);
+                }
+
+                processingChain = idle.poll();
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@
 
 package io.github.dsheirer.module.decode.traffic;
 
+import io.github.dsheirer.controller.channel.event.ChannelStartProcessingRequest;
 import io.github.dsheirer.module.Module;
 
 /**
@@ -26,4 +27,25 @@ import io.github.dsheirer.module.Module;
  */
 public abstract class TrafficChannelManager extends Module
 {
+    private ProcessingChainPool mProcessingChainPool = new ProcessingChainPool();
+
+    /**
+     * Pool of idle processing chains for the traffic channels managed by this traffic channel manager.
+     */
+    public ProcessingChainPool getProcessingChainPool()
+    {
+        return mProcessingChainPool;
+    }
+
+    /**
+     * Posts the traffic channel start request to the inter-module event bus for the channel processing manager,
+     * attaching this manager's processing chain pool so that an idle processing chain can be reused.
+     *
+     * @param request to start a managed traffic channel
+     */
+    protected void requestTrafficChannelStart(ChannelStartProcessingRequest request)
+    {
+        request.setProcessingChainPool(getProcessingChainPool());
+        getInterModuleEventBus().post(request);
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.message.IBinaryMessageProvider;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.module.decode.p25.identifier.radio.APCO25RadioIdentifier;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import io.github.dsheirer.module.export.client.MessageExportClient;
+import io.github.dsheirer.protocol.Protocol;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput benchmark for the message export stream.
+ *
+ * Runs several simulated decoder threads, each publishing messages through its own export module, to a local export
+ * server with one fast TCP client and one deliberately slow TCP client.  Reports the decoder-side publish rate, the
+ * number of messages received by each client and the number of batches dropped for the slow client, demonstrating
+ * that a slow consumer doesn't throttle the decoders.
+ *
+ * Arguments: [channel count] [messages per channel]
+ */
+public class MessageExportBenchmark
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageExportBenchmark.class);
+
+    public static void main(String[] args) throws Exception
+    {
+        int channels = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int messagesPerChannel = args.length > 1 ? Integer.parseInt(args[1]) : 250_000;
+
+        MessageExportServer server = new MessageExportServer();
+        server.start(0, null, 0);
+
+        AtomicLong fastMessages = new AtomicLong();
+        MessageExportClient fastClient = MessageExportClient.tcp("localhost", server.getTcpPort());
+        fastClient.start(batch -> fastMessages.addAndGet(batch.getMessages().size()));
+
+        AtomicLong slowMessages = new AtomicLong();
+        MessageExportClient slowClient = MessageExportClient.tcp("localhost", server.getTcpPort());
+        slowClient.start(batch -> {
+            slowMessages.addAndGet(batch.getMessages().size());
+
+            try
+            {
+                Thread.sleep(5);
+            }
+            catch(InterruptedException ie)
+            {
+                //Ignore
+            }
+        });
+
+        while(server.getConsumerCount() < 2)
+        {
+            Thread.sleep(10);
+        }
+
+        List<MessageExportModule> modules = new ArrayList<>();
+        List<Thread> decoders = new ArrayList<>();
+
+        for(int x = 0; x < channels; x++)
+        {
+            MessageExportModule module = new MessageExportModule("Channel " + x, server);
+            module.start();
+            modules.add(module);
+
+            decoders.add(new Thread(() -> {
+                BenchmarkMessage message = new BenchmarkMessage();
+
+                for(int y = 0; y < messagesPerChannel; y++)
+                {
+                    message.mTimestamp = y;
+                    module.getMessageListener().receive(message);
+                }
+            }));
+        }
+
+        long start = System.nanoTime();
+
+        for(Thread decoder: decoders)
+        {
+            decoder.start();
+        }
+
+        for(Thread decoder: decoders)
+        {
+            decoder.join();
+        }
+
+        long elapsed = System.nanoTime() - start;
+
+        for(MessageExportModule module: modules)
+        {
+            module.stop();
+        }
+
+        long total = (long)channels * messagesPerChannel;
+
+        //Allow the fast client to drain its queue
+        long received;
+
+        do
+        {
+            received = fastMessages.get();
+            Thread.sleep(250);
+        }
+        while(received != fastMessages.get());
+
+        mLog.info(String.format("Published %,d messages from %d channels in %.1f ms - %,.0f messages/second",
+            total, channels, elapsed / 1e6, total / (elapsed / 1e9)));
+        mLog.info(String.format("Batches published: %,d  dropped (all consumers): %,d",
+            server.getPublishedBatchCount(), server.getDroppedBatchCount()));
+        mLog.info(String.format("Fast client received %,d messages, missed %,d batches", fastMessages.get(),
+            fastClient.getMissedBatchCount()));
+        mLog.info(String.format("Slow client received %,d messages, missed %,d batches", slowMessages.get(),
+            slowClient.getMissedBatchCount()));
+
+        fastClient.stop();
+        slowClient.stop();
+        server.stop();
+
+        //The export modules' flush timers run on the shared (non-daemon) scheduled thread pool
+        System.exit(0);
+    }
+
+    /**
+     * Decoded message stand-in with a typical message length and identifiers
+     */
+    private static class BenchmarkMessage implements IMessage, IBinaryMessageProvider
+    {
+        private static final CorrectedBinaryMessage BITS = new CorrectedBinaryMessage(96);
+        private static final List<Identifier> IDENTIFIERS = Arrays.asList(APCO25Talkgroup.create(12345),
+            APCO25RadioIdentifier.createFrom(1234567));
+        private long mTimestamp;
+
+        @Override
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+
+        @Override
+        public boolean isValid()
+        {
+            return true;
+        }
+
+        @Override
+        public Protocol getProtocol()
+        {
+            return Protocol.APCO25;
+        }
+
+        @Override
+        public int getTimeslot()
+        {
+            return 0;
+        }
+
+        @Override
+        public BinaryMessage getMessage()
+        {
+            return BITS;
+        }
+
+        @Override
+        public List<Identifier> getIdentifiers()
+        {
+            return IDENTIFIERS;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "NAC:293 TSBK GROUP VOICE CHANNEL GRANT TO:12345 FROM:1234567 CHAN:1-0123 FREQ:851.01250";
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary encoding for exported decoded messages and decode events.
+ *
+ * Messages and events are exported in batches.  Each batch contains the records for a single channel:
+ *
+ * <pre>
+ *   batch:          [magic:int][version:byte][channel:utf][batch sequence:int][record count:short][records]
+ *   message:        [type=1:byte][timestamp:long][flags:byte][timeslot:byte][protocol:utf][message type:utf][bits]
+ *                   [identifier count:byte][identifiers][text]
+ *   bits:           present when the BITS flag is set: [bit count:short][corrected bit count:short]
+ *                   [(bit count + 7) / 8 bytes, most significant bit first]
+ *   identifier:     [form:utf][role:utf][value:utf]
+ *   text:           present when the TEXT flag is set: [message text:utf]
+ *   decode event:   [type=2:byte][start:long][duration:long][timeslot:byte][protocol:utf][event:utf][from:utf]
+ *                   [to:utf][channel descriptor:utf][details:utf]
+ *   utf:            [length:short][UTF-8 bytes] where missing values are encoded as an empty string
+ * </pre>
+ *
+ * Over TCP, each batch is prefixed with the batch length as an int.  Over UDP multicast, each datagram contains one
+ * batch.  The batch sequence number increments per channel so that clients can detect dropped batches.  Message
+ * protocol and identifier form and role values are the enumeration constant names.  Message type is the simple class
+ * name of the decoded message.  Message text is optional and is only included when the message doesn't provide the
+ * transmitted bits or when text export is enabled.  All values are big-endian.  Clients must check the version before decoding a batch.  Record types and record layouts are
+ * fixed for a version, so any change to the records requires a new version.
+ */
+public class MessageExportFormat
+{
+    public static final int MAGIC = 0x53445258; //SDRX
+    public static final byte VERSION = 2;
+    public static final int MAXIMUM_BATCH_SIZE = 8192;
+
+    public static final byte RECORD_MESSAGE = 1;
+    public static final byte RECORD_DECODE_EVENT = 2;
+
+    public static final byte MESSAGE_FLAG_VALID = 0x01;
+    public static final byte MESSAGE_FLAG_BITS = 0x02;
+    public static final byte MESSAGE_FLAG_TEXT = 0x04;
+
+    public static final int MAXIMUM_MESSAGE_LENGTH = 1024;
+    public static final int MAXIMUM_FIELD_LENGTH = 255;
+    public static final int MAXIMUM_IDENTIFIER_COUNT = 255;
+
+    private MessageExportFormat()
+    {
+    }
+
+    /**
+     * Writes the string value to the buffer, truncated to the maximum number of characters.
+     *
+     * @param buffer to write to
+     * @param value to write, null values are written as an empty string
+     * @param maximumLength in characters
+     */
+    public static void putString(ByteBuffer buffer, String value, int maximumLength)
+    {
+        if(value == null || value.isEmpty())
+        {
+            buffer.putShort((short)0);
+            return;
+        }
+
+        if(value.length() > maximumLength)
+        {
+            value = value.substring(0, maximumLength);
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short)bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * Reads a string value from the buffer
+     */
+    public static String getString(ByteBuffer buffer)
+    {
+        int length = buffer.getShort() & 0xFFFF;
+
+        if(length == 0)
+        {
+            return "";
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export;
+
+import io.github.dsheirer.bits.BinaryMessage;
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.message.IBinaryMessageProvider;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.message.IMessageListener;
+import io.github.dsheirer.module.Module;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.event.IDecodeEventListener;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the decoded messages and decode events produced by a channel to the message export server.
+ *
+ * Messages and events are encoded on the decoder thread into a per-channel batch buffer (see MessageExportFormat).
+ * Messages are exported as the transmitted bits and the decoded identifiers, with the message text as an option.
+ * Batches are published to the export server when the batch buffer is full, or by a timer on the shared thread pool
+ * so that batches are never held longer than the flush interval.  Publishing never blocks the decoder.
+ */
+public class MessageExportModule extends Module implements IMessageListener, IDecodeEventListener
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageExportModule.class);
+    public static final long FLUSH_INTERVAL_MS = 50;
+    private static final int BATCH_HEADER_RESERVE = 4 + 1 + 2 + (MessageExportFormat.MAXIMUM_FIELD_LENGTH * 3) + 4 + 2;
+
+    private MessageExportServer mServer;
+    private String mChannelName;
+    private ByteBuffer mRecords = ByteBuffer.allocate(MessageExportFormat.MAXIMUM_BATCH_SIZE - BATCH_HEADER_RESERVE);
+    private ByteBuffer mRecord = ByteBuffer.allocate(MessageExportFormat.MAXIMUM_BATCH_SIZE - BATCH_HEADER_RESERVE);
+    private ByteBuffer mBatch = ByteBuffer.allocate(MessageExportFormat.MAXIMUM_BATCH_SIZE);
+    private int mRecordCount;
+    private int mBatchSequence;
+    private ScheduledFuture<?> mFlushTimerHandle;
+    private MessageListener mMessageListener = new MessageListener();
+    private DecodeEventListener mDecodeEventListener = new DecodeEventListener();
+
+    /**
+     * Constructs an instance
+     * @param channelName to identify the exported batches
+     * @param server to publish batches
+     */
+    public MessageExportModule(String channelName, MessageExportServer server)
+    {
+        mChannelName = channelName;
+        mServer = server;
+    }
+
+    @Override
+    public void start()
+    {
+        if(mFlushTimerHandle == null)
+        {
+            mFlushTimerHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(this::flush, FLUSH_INTERVAL_MS,
+                FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop()
+    {
+        if(mFlushTimerHandle != null)
+        {
+            mFlushTimerHandle.cancel(false);
+            mFlushTimerHandle = null;
+        }
+
+        flush();
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public Listener<IMessage> getMessageListener()
+    {
+        return mMessageListener;
+    }
+
+    @Override
+    public Listener<IDecodeEvent> getDecodeEventListener()
+    {
+        return mDecodeEventListener;
+    }
+
+    /**
+     * Encodes the message into the current batch.  Messages that provide the transmitted bits are exported as the
+     * raw bits and the message identifiers, so that clients can fully parse the message.  The message text is only
+     * included when the bits are not available or when text export is enabled on the server.
+     */
+    private synchronized void add(IMessage message)
+    {
+        BinaryMessage bits = message instanceof IBinaryMessageProvider ?
+            ((IBinaryMessageProvider)message).getMessage() : null;
+        boolean text = bits == null || mServer.isMessageTextEnabled();
+
+        byte flags = 0;
+
+        if(message.isValid())
+        {
+            flags |= MessageExportFormat.MESSAGE_FLAG_VALID;
+        }
+
+        if(bits != null)
+        {
+            flags |= MessageExportFormat.MESSAGE_FLAG_BITS;
+        }
+
+        if(text)
+        {
+            flags |= MessageExportFormat.MESSAGE_FLAG_TEXT;
+        }
+
+        mRecord.clear();
+        mRecord.put(MessageExportFormat.RECORD_MESSAGE);
+        mRecord.putLong(message.getTimestamp());
+        mRecord.put(flags);
+        mRecord.put((byte)message.getTimeslot());
+        putField(message.getProtocol() != null ? message.getProtocol().name() : null);
+        putField(message.getClass().getSimpleName());
+
+        if(bits != null)
+        {
+            putBits(bits);
+        }
+
+        putIdentifiers(message.getIdentifiers());
+
+        if(text)
+        {
+            MessageExportFormat.putString(mRecord, message.toString(), MessageExportFormat.MAXIMUM_MESSAGE_LENGTH);
+        }
+
+        addRecord();
+    }
+
+    /**
+     * Writes the bit count, corrected bit count and the message bits, most significant bit first.
+     */
+    private void putBits(BinaryMessage bits)
+    {
+        int size = bits.size();
+        mRecord.putShort((short)size);
+        mRecord.putShort((short)Math.min(bits.getCorrectedBitCount(), Short.MAX_VALUE));
+
+        for(int x = 0; x < size; x += 8)
+        {
+            byte value = bits.getByte(x);
+
+            //Clear any trailing bits beyond the end of the message
+            if(size - x < 8)
+            {
+                value &= (byte)(0xFF << (8 - (size - x)));
+            }
+
+            mRecord.put(value);
+        }
+    }
+
+    /**
+     * Writes the form, role and value of each identifier
+     */
+    private void putIdentifiers(List<Identifier> identifiers)
+    {
+        int count = identifiers != null ? Math.min(identifiers.size(), MessageExportFormat.MAXIMUM_IDENTIFIER_COUNT) : 0;
+        mRecord.put((byte)count);
+
+        for(int x = 0; x < count; x++)
+        {
+            Identifier identifier = identifiers.get(x);
+            putField(identifier.getForm() != null ? identifier.getForm().name() : null);
+            putField(identifier.getRole() != null ? identifier.getRole().name() : null);
+            putField(identifier.getValue() != null ? identifier.getValue().toString() : null);
+        }
+    }
+
+    /**
+     * Encodes the decode event into the current batch
+     */
+    private synchronized void add(IDecodeEvent event)
+    {
+        mRecord.clear();
+        mRecord.put(MessageExportFormat.RECORD_DECODE_EVENT);
+        mRecord.putLong(event.getTimeStart());
+        mRecord.putLong(event.getDuration());
+        mRecord.put(event.hasTimeslot() ? event.getTimeslot().byteValue() : -1);
+        putField(event.getProtocol() != null ? event.getProtocol().toString() : null);
+        putField(event.getEventDescription());
+        putField(getIdentifier(event, Role.FROM));
+        putField(getIdentifier(event, Role.TO));
+        putField(event.getChannelDescriptor() != null ? event.getChannelDescriptor().toString() : null);
+        putField(event.getDetails());
+        addRecord();
+    }
+
+    private void putField(String value)
+    {
+        MessageExportFormat.putString(mRecord, value, MessageExportFormat.MAXIMUM_FIELD_LENGTH);
+    }
+
+    /**
+     * First identifier with the specified role from the event's identifier collection
+     */
+    private static String getIdentifier(IDecodeEvent event, Role role)
+    {
+        if(event.getIdentifierCollection() != null)
+        {
+            List<Identifier> identifiers = event.getIdentifierCollection().getIdentifiers(role);
+
+            if(!identifiers.isEmpty())
+            {
+                return identifiers.get(0).toString();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Appends the encoded record to the current batch, publishing the batch first if the record doesn't fit.
+     */
+    private void addRecord()
+    {
+        mRecord.flip();
+
+        if(mRecord.remaining() > mRecords.remaining() || mRecordCount == 0xFFFF)
+        {
+            publish();
+        }
+
+        mRecords.put(mRecord);
+        mRecordCount++;
+    }
+
+    /**
+     * Publishes the current batch if it contains any records.  Invoked by the flush timer.
+     */
+    private synchronized void flush()
+    {
+        try
+        {
+            publish();
+        }
+        catch(Throwable t)
+        {
+            mLog.error("Error while publishing message export batch for channel [" + mChannelName + "]", t);
+        }
+    }
+
+    /**
+     * Assembles the batch header and records and publishes the batch to the server
+     */
+    private void publish()
+    {
+        if(mRecordCount == 0)
+        {
+            return;
+        }
+
+        mBatch.clear();
+        mBatch.putInt(MessageExportFormat.MAGIC);
+        mBatch.put(MessageExportFormat.VERSION);
+        MessageExportFormat.putString(mBatch, mChannelName, MessageExportFormat.MAXIMUM_FIELD_LENGTH);
+        mBatch.putInt(mBatchSequence++);
+        mBatch.putShort((short)mRecordCount);
+        mRecords.flip();
+        mBatch.put(mRecords);
+        mBatch.flip();
+
+        byte[] batch = new byte[mBatch.remaining()];
+        mBatch.get(batch);
+
+        mRecords.clear();
+        mRecordCount = 0;
+
+        mServer.publish(batch);
+    }
+
+    /**
+     * Message listener
+     */
+    private class MessageListener implements Listener<IMessage>
+    {
+        @Override
+        public void receive(IMessage message)
+        {
+            try
+            {
+                add(message);
+            }
+            catch(BufferOverflowException boe)
+            {
+                mLog.error("Unable to export message - encoded message exceeds maximum batch size");
+            }
+        }
+    }
+
+    /**
+     * Decode event listener
+     */
+    private class DecodeEventListener implements Listener<IDecodeEvent>
+    {
+        @Override
+        public void receive(IDecodeEvent decodeEvent)
+        {
+            try
+            {
+                add(decodeEvent);
+            }
+            catch(BufferOverflowException boe)
+            {
+                mLog.error("Unable to export decode event - encoded event exceeds maximum batch size");
+            }
+        }
+    }
+}
@@ -0,0 +1,509 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export;
+
+import com.google.common.eventbus.Subscribe;
+import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.preference.export.MessageExportPreference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide server that distributes exported message batches to TCP clients and to a UDP multicast group.
+ *
+ * Each TCP client and the multicast sender have a bounded batch queue that is serviced by a dedicated sender thread.
+ * Publishing a batch only offers the batch to each queue.  When a slow consumer's queue is full, the batch is dropped
+ * for that consumer and counted, so that slow or stalled consumers never stall the decoders or the other consumers.
+ * Clients can detect dropped batches from gaps in the per-channel batch sequence numbers.
+ *
+ * The server is started and stopped according to the message export preference and restarts when the preference is
+ * updated.
+ */
+public class MessageExportServer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageExportServer.class);
+    public static final int CONSUMER_QUEUE_CAPACITY = 1024;
+    private static MessageExportServer sInstance;
+
+    private MessageExportPreference mPreference;
+    private ServerSocketChannel mServerSocketChannel;
+    private Thread mAcceptThread;
+    private List<Consumer> mConsumers = new CopyOnWriteArrayList<>();
+    private AtomicLong mPublishedBatchCount = new AtomicLong();
+    private AtomicLong mDroppedBatchCount = new AtomicLong();
+    private volatile boolean mRunning;
+    private String mServerSettings;
+
+    /**
+     * Constructs an instance.  Use getInstance() for the application server.
+     */
+    MessageExportServer()
+    {
+    }
+
+    /**
+     * Application message export server
+     */
+    public static synchronized MessageExportServer getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new MessageExportServer();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Sets the preference that controls the server, starts the server when enabled and registers to receive
+     * preference updates.
+     *
+     * @param preference for message export
+     */
+    public void initialize(MessageExportPreference preference)
+    {
+        mPreference = preference;
+        MyEventBus.getGlobalEventBus().register(this);
+        restart();
+    }
+
+    /**
+     * Receives preference update notifications from the Guava event bus and restarts the server
+     */
+    @Subscribe
+    public void preferenceUpdated(PreferenceType preferenceType)
+    {
+        if(preferenceType == PreferenceType.MESSAGE_EXPORT)
+        {
+            restart();
+        }
+    }
+
+    /**
+     * Indicates if the decoded message text is exported in addition to the message bits and identifiers
+     */
+    public boolean isMessageTextEnabled()
+    {
+        return mPreference != null && mPreference.isMessageTextEnabled();
+    }
+
+    /**
+     * Indicates if the server is running and accepting exported batches
+     */
+    public boolean isRunning()
+    {
+        return mRunning;
+    }
+
+    /**
+     * Stops and, if enabled, restarts the server using the current preference settings
+     */
+    private synchronized void restart()
+    {
+        String settings = null;
+
+        if(mPreference != null && mPreference.isEnabled())
+        {
+            settings = mPreference.getTcpPort() + " " +
+                (mPreference.isMulticastEnabled() ? mPreference.getMulticastGroup() : null) + " " +
+                mPreference.getMulticastPort();
+        }
+
+        //Don't disconnect clients for preference changes that don't affect the server, like message text export
+        if(mRunning && Objects.equals(settings, mServerSettings))
+        {
+            return;
+        }
+
+        stop();
+        mServerSettings = settings;
+
+        if(settings != null)
+        {
+            try
+            {
+                start(mPreference.getTcpPort(), mPreference.isMulticastEnabled() ? mPreference.getMulticastGroup() : null,
+                    mPreference.getMulticastPort());
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Unable to start message export server", ioe);
+                stop();
+            }
+        }
+    }
+
+    /**
+     * Starts the server.
+     *
+     * @param tcpPort to listen for client connections, or 0 to use an ephemeral port
+     * @param multicastGroup address to send batches to, or null to disable multicast
+     * @param multicastPort for the multicast group
+     * @throws IOException if the server can't be started
+     */
+    public synchronized void start(int tcpPort, String multicastGroup, int multicastPort) throws IOException
+    {
+        if(mRunning)
+        {
+            return;
+        }
+
+        mServerSocketChannel = ServerSocketChannel.open();
+        mServerSocketChannel.bind(new InetSocketAddress(tcpPort));
+
+        if(multicastGroup != null)
+        {
+            DatagramChannel datagramChannel = DatagramChannel.open();
+            datagramChannel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, 1);
+            datagramChannel.connect(new InetSocketAddress(InetAddress.getByName(multicastGroup), multicastPort));
+            addConsumer(new MulticastConsumer(datagramChannel));
+        }
+
+        mRunning = true;
+        mAcceptThread = new Thread(this::accept, "sdrtrunk message export server");
+        mAcceptThread.setDaemon(true);
+        mAcceptThread.start();
+
+        mLog.info("Message export server started on TCP port [" + getTcpPort() + "]" +
+            (multicastGroup != null ? " and multicast group [" + multicastGroup + ":" + multicastPort + "]" : ""));
+    }
+
+    /**
+     * Stops the server and disconnects all clients
+     */
+    public synchronized void stop()
+    {
+        if(!mRunning && mServerSocketChannel == null)
+        {
+            return;
+        }
+
+        mRunning = false;
+
+        if(mServerSocketChannel != null)
+        {
+            try
+            {
+                mServerSocketChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing message export server socket", ioe);
+            }
+
+            mServerSocketChannel = null;
+        }
+
+        for(Consumer consumer: mConsumers)
+        {
+            consumer.close();
+        }
+
+        mConsumers.clear();
+        mAcceptThread = null;
+    }
+
+    /**
+     * Local TCP port that the server is listening on, or 0 if the server is not running.
+     */
+    public int getTcpPort()
+    {
+        ServerSocketChannel channel = mServerSocketChannel;
+
+        if(channel != null)
+        {
+            try
+            {
+                return ((InetSocketAddress)channel.getLocalAddress()).getPort();
+            }
+            catch(IOException ioe)
+            {
+                //Fall through
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Publishes the batch to each connected consumer without blocking.  Batches are dropped for any consumer whose
+     * queue is full.
+     *
+     * @param batch encoded per MessageExportFormat
+     */
+    public void publish(byte[] batch)
+    {
+        if(!mRunning)
+        {
+            return;
+        }
+
+        mPublishedBatchCount.incrementAndGet();
+
+        for(Consumer consumer: mConsumers)
+        {
+            if(!consumer.mQueue.offer(batch))
+            {
+                consumer.mDroppedBatchCount.incrementAndGet();
+                mDroppedBatchCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Number of connected consumers, including the multicast sender
+     */
+    public int getConsumerCount()
+    {
+        return mConsumers.size();
+    }
+
+    /**
+     * Number of batches published to the server
+     */
+    public long getPublishedBatchCount()
+    {
+        return mPublishedBatchCount.get();
+    }
+
+    /**
+     * Number of batches dropped across all consumers because a consumer's queue was full
+     */
+    public long getDroppedBatchCount()
+    {
+        return mDroppedBatchCount.get();
+    }
+
+    /**
+     * Accepts client connections until the server is stopped
+     */
+    private void accept()
+    {
+        ServerSocketChannel serverSocketChannel = mServerSocketChannel;
+
+        while(mRunning && serverSocketChannel != null)
+        {
+            try
+            {
+                SocketChannel socketChannel = serverSocketChannel.accept();
+                socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                mLog.info("Message export client connected from [" + socketChannel.getRemoteAddress() + "]");
+                addConsumer(new TcpConsumer(socketChannel));
+            }
+            catch(ClosedChannelException cce)
+            {
+                break;
+            }
+            catch(IOException ioe)
+            {
+                if(mRunning)
+                {
+                    mLog.error("Error accepting message export client connection", ioe);
+                }
+            }
+        }
+    }
+
+    private void addConsumer(Consumer consumer)
+    {
+        mConsumers.add(consumer);
+        consumer.start();
+    }
+
+    /**
+     * Batch consumer with a bounded queue serviced by a dedicated sender thread
+     */
+    private abstract class Consumer implements Runnable
+    {
+        private BlockingQueue<byte[]> mQueue = new ArrayBlockingQueue<>(CONSUMER_QUEUE_CAPACITY);
+        private AtomicLong mDroppedBatchCount = new AtomicLong();
+        private Thread mThread;
+        private volatile boolean mClosed;
+
+        protected abstract String getName();
+
+        protected abstract void send(byte[] batch) throws IOException;
+
+        protected abstract void closeChannel() throws IOException;
+
+        public void start()
+        {
+            mThread = new Thread(this, "sdrtrunk message export " + getName());
+            mThread.setDaemon(true);
+            mThread.start();
+        }
+
+        public void close()
+        {
+            mClosed = true;
+
+            try
+            {
+                closeChannel();
+            }
+            catch(IOException ioe)
+            {
+                //Ignore
+            }
+
+            if(mThread != null)
+            {
+                mThread.interrupt();
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                while(!mClosed)
+                {
+                    byte[] batch = mQueue.poll(500, TimeUnit.MILLISECONDS);
+
+                    if(batch != null)
+                    {
+                        send(batch);
+                    }
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                //Normal shutdown
+            }
+            catch(IOException ioe)
+            {
+                if(!mClosed)
+                {
+                    mLog.info("Message export consumer [" + getName() + "] disconnected - dropped batches [" +
+                        mDroppedBatchCount.get() + "]");
+                }
+            }
+            finally
+            {
+                mConsumers.remove(this);
+                close();
+            }
+        }
+    }
+
+    /**
+     * TCP client consumer.  Each batch is prefixed with the batch length.
+     */
+    private class TcpConsumer extends Consumer
+    {
+        private SocketChannel mSocketChannel;
+        private String mName;
+        private ByteBuffer mLength = ByteBuffer.allocate(4);
+
+        public TcpConsumer(SocketChannel socketChannel) throws IOException
+        {
+            mSocketChannel = socketChannel;
+            mName = "client " + socketChannel.getRemoteAddress();
+        }
+
+        @Override
+        protected String getName()
+        {
+            return mName;
+        }
+
+        @Override
+        protected void send(byte[] batch) throws IOException
+        {
+            mLength.clear();
+            mLength.putInt(batch.length);
+            mLength.flip();
+
+            ByteBuffer[] buffers = new ByteBuffer[]{mLength, ByteBuffer.wrap(batch)};
+
+            while(buffers[1].hasRemaining())
+            {
+                mSocketChannel.write(buffers);
+            }
+        }
+
+        @Override
+        protected void closeChannel() throws IOException
+        {
+            mSocketChannel.close();
+        }
+    }
+
+    /**
+     * UDP multicast consumer.  Each batch is sent as a single datagram.
+     */
+    private class MulticastConsumer extends Consumer
+    {
+        private DatagramChannel mDatagramChannel;
+
+        public MulticastConsumer(DatagramChannel datagramChannel)
+        {
+            mDatagramChannel = datagramChannel;
+        }
+
+        @Override
+        protected String getName()
+        {
+            return "multicast";
+        }
+
+        @Override
+        protected void send(byte[] batch)
+        {
+            try
+            {
+                mDatagramChannel.write(ByteBuffer.wrap(batch));
+            }
+            catch(IOException ioe)
+            {
+                //Datagram send failures (e.g. no multicast route) are treated as dropped batches
+                mDroppedBatchCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        protected void closeChannel() throws IOException
+        {
+            mDatagramChannel.close();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export.client;
+
+import io.github.dsheirer.module.export.MessageExportFormat;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batch of decoded messages and decode events exported from a single channel
+ */
+public class ExportBatch
+{
+    private String mChannel;
+    private int mSequence;
+    private List<ExportedMessage> mMessages = new ArrayList<>();
+    private List<ExportedDecodeEvent> mDecodeEvents = new ArrayList<>();
+
+    private ExportBatch(String channel, int sequence)
+    {
+        mChannel = channel;
+        mSequence = sequence;
+    }
+
+    /**
+     * Name of the channel that produced the batch
+     */
+    public String getChannel()
+    {
+        return mChannel;
+    }
+
+    /**
+     * Per-channel batch sequence number
+     */
+    public int getSequence()
+    {
+        return mSequence;
+    }
+
+    /**
+     * Decoded messages contained in the batch
+     */
+    public List<ExportedMessage> getMessages()
+    {
+        return mMessages;
+    }
+
+    /**
+     * Decode events contained in the batch
+     */
+    public List<ExportedDecodeEvent> getDecodeEvents()
+    {
+        return mDecodeEvents;
+    }
+
+    /**
+     * Decodes a message record, after the record type
+     */
+    private static ExportedMessage decodeMessage(ByteBuffer buffer)
+    {
+        long timestamp = buffer.getLong();
+        byte flags = buffer.get();
+        int timeslot = buffer.get();
+        String protocol = MessageExportFormat.getString(buffer);
+        String messageType = MessageExportFormat.getString(buffer);
+
+        int bitCount = 0;
+        int correctedBitCount = 0;
+        byte[] bits = null;
+
+        if((flags & MessageExportFormat.MESSAGE_FLAG_BITS) != 0)
+        {
+            bitCount = buffer.getShort() & 0xFFFF;
+            correctedBitCount = buffer.getShort() & 0xFFFF;
+            bits = new byte[(bitCount + 7) / 8];
+            buffer.get(bits);
+        }
+
+        int identifierCount = buffer.get() & 0xFF;
+        List<ExportedIdentifier> identifiers = new ArrayList<>(identifierCount);
+
+        for(int x = 0; x < identifierCount; x++)
+        {
+            identifiers.add(new ExportedIdentifier(MessageExportFormat.getString(buffer),
+                MessageExportFormat.getString(buffer), MessageExportFormat.getString(buffer)));
+        }
+
+        String text = (flags & MessageExportFormat.MESSAGE_FLAG_TEXT) != 0 ? MessageExportFormat.getString(buffer) : null;
+
+        return new ExportedMessage(timestamp, (flags & MessageExportFormat.MESSAGE_FLAG_VALID) != 0, timeslot,
+            protocol, messageType, bits, bitCount, correctedBitCount, identifiers, text);
+    }
+
+    /**
+     * Decodes a batch.
+     *
+     * @param buffer containing a single batch
+     * @return decoded batch
+     * @throws IOException if the buffer doesn't contain a valid batch or the batch version is not supported
+     */
+    public static ExportBatch decode(ByteBuffer buffer) throws IOException
+    {
+        try
+        {
+            if(buffer.getInt() != MessageExportFormat.MAGIC)
+            {
+                throw new IOException("Invalid message export batch");
+            }
+
+            byte version = buffer.get();
+
+            if(version != MessageExportFormat.VERSION)
+            {
+                throw new IOException("Unsupported message export batch version [" + version + "]");
+            }
+
+            ExportBatch batch = new ExportBatch(MessageExportFormat.getString(buffer), buffer.getInt());
+            int count = buffer.getShort() & 0xFFFF;
+
+            for(int x = 0; x < count; x++)
+            {
+                byte type = buffer.get();
+
+                switch(type)
+                {
+                    case MessageExportFormat.RECORD_MESSAGE:
+                        batch.mMessages.add(decodeMessage(buffer));
+                        break;
+                    case MessageExportFormat.RECORD_DECODE_EVENT:
+                        long start = buffer.getLong();
+                        long duration = buffer.getLong();
+                        int timeslot = buffer.get();
+                        batch.mDecodeEvents.add(new ExportedDecodeEvent(start, duration, timeslot,
+                            MessageExportFormat.getString(buffer), MessageExportFormat.getString(buffer),
+                            MessageExportFormat.getString(buffer), MessageExportFormat.getString(buffer),
+                            MessageExportFormat.getString(buffer), MessageExportFormat.getString(buffer)));
+                        break;
+                    default:
+                        throw new IOException("Unrecognized message export record type [" + type + "]");
+                }
+            }
+
+            return batch;
+        }
+        catch(BufferUnderflowException bue)
+        {
+            throw new IOException("Truncated message export batch", bue);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export.client;
+
+/**
+ * Decode event exported by the message export server.  Fields that were not present in the event are empty strings.
+ */
+public class ExportedDecodeEvent
+{
+    private long mTimeStart;
+    private long mDuration;
+    private int mTimeslot;
+    private String mProtocol;
+    private String mEvent;
+    private String mFrom;
+    private String mTo;
+    private String mChannel;
+    private String mDetails;
+
+    public ExportedDecodeEvent(long timeStart, long duration, int timeslot, String protocol, String event, String from,
+                               String to, String channel, String details)
+    {
+        mTimeStart = timeStart;
+        mDuration = duration;
+        mTimeslot = timeslot;
+        mProtocol = protocol;
+        mEvent = event;
+        mFrom = from;
+        mTo = to;
+        mChannel = channel;
+        mDetails = details;
+    }
+
+    /**
+     * Event start time in milliseconds
+     */
+    public long getTimeStart()
+    {
+        return mTimeStart;
+    }
+
+    /**
+     * Event duration in milliseconds
+     */
+    public long getDuration()
+    {
+        return mDuration;
+    }
+
+    /**
+     * Timeslot for the event or -1 if the event doesn't have a timeslot
+     */
+    public int getTimeslot()
+    {
+        return mTimeslot;
+    }
+
+    public String getProtocol()
+    {
+        return mProtocol;
+    }
+
+    /**
+     * Event description
+     */
+    public String getEvent()
+    {
+        return mEvent;
+    }
+
+    public String getFrom()
+    {
+        return mFrom;
+    }
+
+    public String getTo()
+    {
+        return mTo;
+    }
+
+    /**
+     * Channel descriptor for the event
+     */
+    public String getChannel()
+    {
+        return mChannel;
+    }
+
+    public String getDetails()
+    {
+        return mDetails;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mTimeStart + " " + mProtocol + " " + mEvent + " FROM:" + mFrom + " TO:" + mTo + " " + mDetails;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export.client;
+
+/**
+ * Identifier exported with a decoded message
+ */
+public class ExportedIdentifier
+{
+    private String mForm;
+    private String mRole;
+    private String mValue;
+
+    public ExportedIdentifier(String form, String role, String value)
+    {
+        mForm = form;
+        mRole = role;
+        mValue = value;
+    }
+
+    /**
+     * Identifier form, as the name of the Form enumeration constant (e.g. TALKGROUP)
+     */
+    public String getForm()
+    {
+        return mForm;
+    }
+
+    /**
+     * Identifier role, as the name of the Role enumeration constant (e.g. FROM)
+     */
+    public String getRole()
+    {
+        return mRole;
+    }
+
+    /**
+     * Identifier value
+     */
+    public String getValue()
+    {
+        return mValue;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mRole + " " + mForm + ":" + mValue;
+    }
+}
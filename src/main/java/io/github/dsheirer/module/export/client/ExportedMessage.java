@@ -0,0 +1,176 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export.client;
+
+import java.util.List;
+
+/**
+ * Decoded message exported by the message export server.  Messages are exported as the transmitted message bits and
+ * the decoded identifiers.  The decoded message text is only present when the server is configured to export it or
+ * when the message doesn't provide the message bits.
+ */
+public class ExportedMessage
+{
+    private long mTimestamp;
+    private boolean mValid;
+    private int mTimeslot;
+    private String mProtocol;
+    private String mMessageType;
+    private byte[] mBits;
+    private int mBitCount;
+    private int mCorrectedBitCount;
+    private List<ExportedIdentifier> mIdentifiers;
+    private String mText;
+
+    public ExportedMessage(long timestamp, boolean valid, int timeslot, String protocol, String messageType,
+                           byte[] bits, int bitCount, int correctedBitCount, List<ExportedIdentifier> identifiers,
+                           String text)
+    {
+        mTimestamp = timestamp;
+        mValid = valid;
+        mTimeslot = timeslot;
+        mProtocol = protocol;
+        mMessageType = messageType;
+        mBits = bits;
+        mBitCount = bitCount;
+        mCorrectedBitCount = correctedBitCount;
+        mIdentifiers = identifiers;
+        mText = text;
+    }
+
+    /**
+     * Message timestamp in milliseconds
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+    /**
+     * Indicates if the message passed error detection and correction
+     */
+    public boolean isValid()
+    {
+        return mValid;
+    }
+
+    /**
+     * Timeslot of the message (0-based)
+     */
+    public int getTimeslot()
+    {
+        return mTimeslot;
+    }
+
+    /**
+     * Protocol of the message, as the name of the Protocol enumeration constant (e.g. APCO25)
+     */
+    public String getProtocol()
+    {
+        return mProtocol;
+    }
+
+    /**
+     * Decoded message type, as the simple class name of the decoded message
+     */
+    public String getMessageType()
+    {
+        return mMessageType;
+    }
+
+    /**
+     * Indicates if the message bits are present
+     */
+    public boolean hasBits()
+    {
+        return mBits != null;
+    }
+
+    /**
+     * Transmitted message bits after error correction, most significant bit first, or null if the message bits were
+     * not exported.  Bits beyond the bit count in the final byte are zero.
+     */
+    public byte[] getBits()
+    {
+        return mBits;
+    }
+
+    /**
+     * Number of valid bits in the message bits
+     */
+    public int getBitCount()
+    {
+        return mBitCount;
+    }
+
+    /**
+     * Number of bit errors that were corrected in the message bits
+     */
+    public int getCorrectedBitCount()
+    {
+        return mCorrectedBitCount;
+    }
+
+    /**
+     * Identifiers decoded from the message
+     */
+    public List<ExportedIdentifier> getIdentifiers()
+    {
+        return mIdentifiers;
+    }
+
+    /**
+     * Indicates if the decoded message text is present
+     */
+    public boolean hasText()
+    {
+        return mText != null;
+    }
+
+    /**
+     * Decoded message text or null if the message text was not exported
+     */
+    public String getText()
+    {
+        return mText;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mTimestamp).append(" ").append(mValid ? "PASSED" : "FAILED");
+        sb.append(" ").append(mProtocol).append(" ").append(mMessageType);
+
+        if(mText != null)
+        {
+            sb.append(" ").append(mText);
+        }
+        else
+        {
+            sb.append(" ").append(mIdentifiers);
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.export.client;
+
+import io.github.dsheirer.sample.Listener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for the binary decoded message export stream.  Receives batches from the export server over TCP or from
+ * the UDP multicast group, decodes each batch and delivers it to the listener on the client's receive thread.
+ *
+ * Usage:
+ * <pre>
+ *   MessageExportClient client = MessageExportClient.tcp("localhost", 9100);
+ *   client.start(batch -> System.out.println(batch.getMessages()));
+ *   ...
+ *   client.stop();
+ * </pre>
+ *
+ * The client tracks the per-channel batch sequence numbers and counts missed batches, which indicate that the server
+ * dropped batches because this client was not keeping up, or that multicast datagrams were lost.
+ */
+public class MessageExportClient
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MessageExportClient.class);
+    private static final int MAXIMUM_BATCH_SIZE = 65536;
+
+    private InetSocketAddress mAddress;
+    private boolean mMulticast;
+    private String mNetworkInterface;
+    private Thread mThread;
+    private volatile boolean mRunning;
+    private volatile Channel mChannel;
+    private Map<String,Integer> mLastSequences = new HashMap<>();
+    private AtomicLong mReceivedBatchCount = new AtomicLong();
+    private AtomicLong mMissedBatchCount = new AtomicLong();
+
+    private MessageExportClient(InetSocketAddress address, boolean multicast, String networkInterface)
+    {
+        mAddress = address;
+        mMulticast = multicast;
+        mNetworkInterface = networkInterface;
+    }
+
+    /**
+     * Creates a client that connects to the export server over TCP
+     * @param host of the export server
+     * @param port of the export server
+     */
+    public static MessageExportClient tcp(String host, int port)
+    {
+        return new MessageExportClient(new InetSocketAddress(host, port), false, null);
+    }
+
+    /**
+     * Creates a client that joins the export multicast group
+     * @param group multicast group address
+     * @param port multicast port
+     * @param networkInterface name of the network interface to join the group on, or null for the default interface
+     */
+    public static MessageExportClient multicast(String group, int port, String networkInterface)
+    {
+        return new MessageExportClient(new InetSocketAddress(group, port), true, networkInterface);
+    }
+
+    /**
+     * Starts receiving batches
+     * @param listener to receive decoded batches
+     * @throws IOException if the client can't connect or join the multicast group
+     */
+    public void start(Listener<ExportBatch> listener) throws IOException
+    {
+        if(mRunning)
+        {
+            return;
+        }
+
+        if(mMulticast)
+        {
+            DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(new InetSocketAddress(mAddress.getPort()));
+
+            NetworkInterface networkInterface = mNetworkInterface != null ?
+                NetworkInterface.getByName(mNetworkInterface) :
+                NetworkInterface.getByInetAddress(InetAddress.getLocalHost());
+
+            if(networkInterface == null)
+            {
+                networkInterface = channel.getOption(StandardSocketOptions.IP_MULTICAST_IF);
+            }
+
+            channel.join(mAddress.getAddress(), networkInterface);
+            mChannel = channel;
+        }
+        else
+        {
+            mChannel = SocketChannel.open(mAddress);
+        }
+
+        mRunning = true;
+        mThread = new Thread(() -> receive(listener), "message export client");
+        mThread.setDaemon(true);
+        mThread.start();
+    }
+
+    /**
+     * Stops receiving batches and closes the connection
+     */
+    public void stop()
+    {
+        mRunning = false;
+
+        try
+        {
+            if(mChannel != null)
+            {
+                mChannel.close();
+            }
+        }
+        catch(IOException ioe)
+        {
+            //Ignore
+        }
+    }
+
+    /**
+     * Number of batches received
+     */
+    public long getReceivedBatchCount()
+    {
+        return mReceivedBatchCount.get();
+    }
+
+    /**
+     * Number of batches that were missed, detected from gaps in the per-channel batch sequence numbers
+     */
+    public long getMissedBatchCount()
+    {
+        return mMissedBatchCount.get();
+    }
+
+    /**
+     * Receive loop
+     */
+    private void receive(Listener<ExportBatch> listener)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(MAXIMUM_BATCH_SIZE);
+
+        try
+        {
+            while(mRunning)
+            {
+                buffer.clear();
+
+                if(mMulticast)
+                {
+                    ((DatagramChannel)mChannel).receive(buffer);
+                    buffer.flip();
+                }
+                else
+                {
+                    SocketChannel channel = (SocketChannel)mChannel;
+                    buffer.limit(4);
+                    readFully(channel, buffer);
+                    int length = buffer.getInt(0);
+
+                    if(length <= 0 || length > MAXIMUM_BATCH_SIZE)
+                    {
+                        throw new IOException("Invalid message export batch length [" + length + "]");
+                    }
+
+                    buffer.clear();
+                    buffer.limit(length);
+                    readFully(channel, buffer);
+                    buffer.flip();
+                }
+
+                try
+                {
+                    ExportBatch batch = ExportBatch.decode(buffer);
+                    track(batch);
+                    listener.receive(batch);
+                }
+                catch(IOException ioe)
+                {
+                    if(!mMulticast)
+                    {
+                        throw ioe;
+                    }
+
+                    mLog.warn("Ignoring invalid message export datagram - " + ioe.getMessage());
+                }
+            }
+        }
+        catch(IOException ioe)
+        {
+            if(mRunning)
+            {
+                mLog.error("Message export client disconnected", ioe);
+            }
+        }
+        finally
+        {
+            stop();
+        }
+    }
+
+    /**
+     * Updates received and missed batch counts from the batch sequence number
+     */
+    private void track(ExportBatch batch)
+    {
+        mReceivedBatchCount.incrementAndGet();
+
+        Integer last = mLastSequences.put(batch.getChannel(), batch.getSequence());
+
+        if(last != null)
+        {
+            int gap = batch.getSequence() - last - 1;
+
+            if(gap > 0)
+            {
+                mMissedBatchCount.addAndGet(gap);
+            }
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            if(channel.read(buffer) < 0)
+            {
+                throw new EOFException("Message export server closed the connection");
+            }
+        }
+    }
+}
@@ -0,0 +1,925 @@
+/*
+ * *****************************************************************************
+ *  Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.playlist;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.xml.JacksonXmlAnnotationIntrospector;
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.audio.broadcast.BroadcastConfiguration;
+import io.github.dsheirer.controller.NamingThreadFactory;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.controller.channel.map.ChannelMap;
+import io.github.dsheirer.util.TimeStamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Incremental playlist persistence using a binary snapshot and an append-only change journal.
+ *
+ * The snapshot holds every alias, broadcast configuration, channel and channel map in the playlist, each tagged with
+ * a journal identifier and serialized as a length-prefixed record, so that startup can read the playlist without
+ * parsing the full XML playlist file.  Each alias, channel or broadcast configuration edit is appended to the journal
+ * as a single record (put or delete) keyed by the same identifier.  Loading reads the snapshot and replays the
+ * journal over it.  Snapshot records are decoded in chunks across the available processors.  Compaction folds the
+ * journal into a new snapshot after the XML playlist has been written.
+ *
+ * A journal that can't be replayed, because the snapshot is out of date or a record is corrupt, is never deleted.  It
+ * is renamed with an '.unreplayed' suffix and a warning is logged, so that the recorded edits can be recovered.
+ *
+ * The XML playlist file remains the authoritative, importable/exportable playlist format.  The snapshot records the
+ * size and modification timestamp of the XML playlist file that it was compacted with and is ignored whenever the XML
+ * file doesn't match, for example when the user replaces the playlist file.
+ *
+ * Journal records are idempotent (a put replaces the identified entity and a delete removes it), so replaying records
+ * that are already reflected in the snapshot is harmless.  This allows compaction to carry forward only the records
+ * appended after the compaction started without blocking further edits while the XML and snapshot files are written.
+ *
+ * Entity records are serialized as JSON using the same Jackson XML annotations as the playlist file so that a snapshot
+ * entity round-trips to identical XML.
+ */
+public class PlaylistJournal
+{
+    private final static Logger mLog = LoggerFactory.getLogger(PlaylistJournal.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x53545053; //STPS
+    private static final int JOURNAL_MAGIC = 0x5354504A; //STPJ
+    private static final int FORMAT_VERSION = 1;
+    private static final int JOURNAL_HEADER_LENGTH = 16;
+    private static final int RECORD_HEADER_LENGTH = 10;
+    private static final int BUFFER_SIZE = 65536;
+    private static final int DECODE_CHUNK_SIZE = 1024;
+    public static final String UNREPLAYED_JOURNAL_SUFFIX = ".unreplayed";
+    private static final int DECODER_THREAD_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Playlist sections that are persisted in the snapshot.  Channel maps are stored in the snapshot but not journaled.
+     */
+    public enum Section
+    {
+        ALIAS(Alias.class),
+        BROADCAST(BroadcastConfiguration.class),
+        CHANNEL(Channel.class),
+        CHANNEL_MAP(ChannelMap.class);
+
+        private Class<?> mEntityClass;
+
+        Section(Class<?> entityClass)
+        {
+            mEntityClass = entityClass;
+        }
+
+        public Class<?> getEntityClass()
+        {
+            return mEntityClass;
+        }
+    }
+
+    /**
+     * Journal record operations
+     */
+    public enum Operation
+    {
+        PUT,
+        DELETE;
+    }
+
+    private ObjectMapper mObjectMapper;
+    private Map<Section,ObjectReader> mReaders = new EnumMap<>(Section.class);
+    private ObjectWriter mWriter;
+    private Map<Object,Integer> mIdentifiers = new IdentityHashMap<>();
+    private int mNextIdentifier;
+    private long mEpoch;
+    private Path mJournalPath;
+    private DataOutputStream mJournalStream;
+    private long mJournalLength;
+    private int mRecordCount;
+    private final Object mCompactionLock = new Object();
+
+    /**
+     * Constructs an instance
+     */
+    public PlaylistJournal()
+    {
+        mObjectMapper = new ObjectMapper()
+            .setAnnotationIntrospector(new JacksonXmlAnnotationIntrospector(false))
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        for(Section section: Section.values())
+        {
+            mReaders.put(section, mObjectMapper.readerFor(section.getEntityClass()));
+        }
+
+        mWriter = mObjectMapper.writer();
+    }
+
+    /**
+     * Number of journal records that have not yet been compacted into the snapshot
+     */
+    public synchronized int getRecordCount()
+    {
+        return mRecordCount;
+    }
+
+    /**
+     * Loads the playlist from the snapshot and replays the journal.
+     *
+     * @param playlist path to the XML playlist file that the snapshot must match
+     * @param snapshot path to the snapshot file
+     * @param journal path to the journal file
+     * @return loaded playlist or null if the snapshot doesn't exist, is out of date with the XML playlist file, or
+     * can't be read.
+     */
+    public synchronized PlaylistV2 load(Path playlist, Path snapshot, Path journal)
+    {
+        close();
+
+        if(!Files.exists(playlist) || !Files.exists(snapshot))
+        {
+            return null;
+        }
+
+        Map<Section,Map<Integer,Object>> entities = new EnumMap<>(Section.class);
+        long epoch;
+        int nextIdentifier;
+        ExecutorService decoder = Executors.newFixedThreadPool(DECODER_THREAD_COUNT,
+            new NamingThreadFactory("sdrtrunk playlist snapshot"));
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot),
+            BUFFER_SIZE)))
+        {
+            if(in.readInt() != SNAPSHOT_MAGIC || in.readInt() != FORMAT_VERSION ||
+               in.readInt() != PlaylistManager.PLAYLIST_CURRENT_VERSION)
+            {
+                mLog.info("Playlist snapshot format or version has changed - ignoring snapshot");
+                return null;
+            }
+
+            epoch = in.readLong();
+            long playlistSize = in.readLong();
+            long playlistModified = in.readLong();
+
+            if(playlistSize != Files.size(playlist) ||
+               playlistModified != Files.getLastModifiedTime(playlist).toMillis())
+            {
+                mLog.info("Playlist file has changed since the last snapshot - ignoring snapshot");
+                return null;
+            }
+
+            nextIdentifier = in.readInt();
+
+            //Entity records are decoded in chunks on the decoder threads while the remaining records are read
+            Map<Section,List<Future<Map<Integer,Object>>>> decoded = new EnumMap<>(Section.class);
+
+            for(Section section: Section.values())
+            {
+                decoded.put(section, readSection(in, section, decoder));
+            }
+
+            for(Section section: Section.values())
+            {
+                entities.put(section, collect(decoded.get(section)));
+            }
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error reading playlist snapshot [" + snapshot.toString() + "] - ignoring snapshot", ioe);
+            return null;
+        }
+        finally
+        {
+            decoder.shutdownNow();
+        }
+
+        mEpoch = epoch;
+        mNextIdentifier = nextIdentifier;
+        mJournalPath = journal;
+
+        try
+        {
+            replay(journal, entities);
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error replaying playlist journal [" + journal.toString() + "] - ignoring snapshot", ioe);
+            return null;
+        }
+
+        PlaylistV2 playlistV2 = new PlaylistV2();
+        playlistV2.setAliases(toList(entities.get(Section.ALIAS)));
+        playlistV2.setBroadcastConfigurations(toList(entities.get(Section.BROADCAST)));
+        playlistV2.setChannels(toList(entities.get(Section.CHANNEL)));
+        playlistV2.setChannelMaps(toList(entities.get(Section.CHANNEL_MAP)));
+
+        mIdentifiers.clear();
+
+        for(Map<Integer,Object> sectionEntities: entities.values())
+        {
+            for(Map.Entry<Integer,Object> entry: sectionEntities.entrySet())
+            {
+                mIdentifiers.put(entry.getValue(), entry.getKey());
+                mNextIdentifier = Math.max(mNextIdentifier, entry.getKey() + 1);
+            }
+        }
+
+        try
+        {
+            openJournal();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error opening playlist journal [" + journal.toString() + "] for append", ioe);
+            return null;
+        }
+
+        mLog.info("Loaded playlist snapshot - aliases [" + playlistV2.getAliases().size() + "] channels [" +
+            playlistV2.getChannels().size() + "] replayed journal records [" + mRecordCount + "]");
+
+        return playlistV2;
+    }
+
+    /**
+     * Reads the entity records for a snapshot section and submits them to the decoder in chunks.
+     *
+     * @param in snapshot stream positioned at the start of the section
+     * @param section to read
+     * @param decoder for decoding the entity records
+     * @return decoded chunks of identifier-keyed entities, in snapshot order
+     */
+    private List<Future<Map<Integer,Object>>> readSection(DataInputStream in, Section section, ExecutorService decoder)
+        throws IOException
+    {
+        ObjectReader reader = mReaders.get(section);
+        List<Future<Map<Integer,Object>>> chunks = new ArrayList<>();
+        int remaining = in.readInt();
+
+        while(remaining > 0)
+        {
+            int chunkSize = Math.min(remaining, DECODE_CHUNK_SIZE);
+            int[] identifiers = new int[chunkSize];
+            byte[] records = new byte[BUFFER_SIZE];
+            int offset = 0;
+
+            for(int x = 0; x < chunkSize; x++)
+            {
+                identifiers[x] = in.readInt();
+                int length = in.readInt();
+
+                if(length < 0)
+                {
+                    throw new IOException("Invalid snapshot record length [" + length + "]");
+                }
+
+                if(records.length < offset + length)
+                {
+                    records = Arrays.copyOf(records, Math.max(records.length * 2, offset + length));
+                }
+
+                in.readFully(records, offset, length);
+                offset += length;
+            }
+
+            //Each record is a complete JSON value, so the chunk is decoded as a sequence of values with one parser
+            byte[] chunk = records;
+            int chunkLength = offset;
+
+            chunks.add(decoder.submit(() -> {
+                Map<Integer,Object> entities = new LinkedHashMap<>();
+
+                try(MappingIterator<Object> iterator = reader.readValues(chunk, 0, chunkLength))
+                {
+                    for(int identifier: identifiers)
+                    {
+                        entities.put(identifier, iterator.next());
+                    }
+                }
+
+                return entities;
+            }));
+
+            remaining -= chunkSize;
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Collects the decoded chunks of a snapshot section, in order.
+     */
+    private static Map<Integer,Object> collect(List<Future<Map<Integer,Object>>> chunks) throws IOException
+    {
+        Map<Integer,Object> entities = new LinkedHashMap<>();
+
+        try
+        {
+            for(Future<Map<Integer,Object>> chunk: chunks)
+            {
+                entities.putAll(chunk.get());
+            }
+        }
+        catch(ExecutionException ee)
+        {
+            if(ee.getCause() instanceof IOException)
+            {
+                throw (IOException)ee.getCause();
+            }
+
+            throw new IOException("Error decoding playlist snapshot record", ee.getCause());
+        }
+        catch(InterruptedException ie)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decoding playlist snapshot");
+        }
+
+        return entities;
+    }
+
+    /**
+     * Replays the journal records over the snapshot entities.  A partially written trailing record, left behind if
+     * the application terminated while appending, is truncated from the journal.  A journal that belongs to a
+     * different snapshot is set aside.  Any other unreadable record is reported as an IOException, leaving the journal
+     * in place to be set aside when the playlist is reset.
+     */
+    private void replay(Path journal, Map<Section,Map<Integer,Object>> entities) throws IOException
+    {
+        mRecordCount = 0;
+        mJournalLength = 0;
+
+        if(!Files.exists(journal))
+        {
+            return;
+        }
+
+        long length = JOURNAL_HEADER_LENGTH;
+        boolean truncated = false;
+
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journal),
+            BUFFER_SIZE)))
+        {
+            if(in.readInt() != JOURNAL_MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != mEpoch)
+            {
+                in.close();
+                setAside(journal, "does not match the playlist snapshot");
+                return;
+            }
+
+            Section[] sections = Section.values();
+            Operation[] operations = Operation.values();
+            byte[] buffer = new byte[BUFFER_SIZE];
+
+            while(true)
+            {
+                int sectionOrdinal = in.read();
+
+                if(sectionOrdinal < 0)
+                {
+                    break;
+                }
+
+                try
+                {
+                    int operationOrdinal = in.readByte();
+                    int identifier = in.readInt();
+                    int recordLength = in.readInt();
+
+                    if(sectionOrdinal >= sections.length || operationOrdinal < 0 ||
+                       operationOrdinal >= operations.length || recordLength < 0)
+                    {
+                        throw new IOException("Corrupt playlist journal record at offset [" + length + "]");
+                    }
+
+                    Section section = sections[sectionOrdinal];
+                    Operation operation = operations[operationOrdinal];
+
+                    if(buffer.length < recordLength)
+                    {
+                        buffer = new byte[recordLength];
+                    }
+
+                    in.readFully(buffer, 0, recordLength);
+
+                    switch(operation)
+                    {
+                        case PUT:
+                            entities.get(section).put(identifier, mReaders.get(section).readValue(buffer, 0,
+                                recordLength));
+                            break;
+                        case DELETE:
+                            entities.get(section).remove(identifier);
+                            break;
+                    }
+
+                    length += RECORD_HEADER_LENGTH + recordLength;
+                    mRecordCount++;
+                }
+                catch(EOFException eofe)
+                {
+                    truncated = true;
+                    break;
+                }
+            }
+        }
+        catch(EOFException eofe)
+        {
+            mLog.info("Playlist journal header is incomplete - ignoring journal");
+            Files.delete(journal);
+            return;
+        }
+
+        if(truncated)
+        {
+            mLog.info("Truncating partially written record from playlist journal at offset [" + length + "]");
+
+            try(FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE))
+            {
+                channel.truncate(length);
+            }
+        }
+
+        mJournalLength = length;
+    }
+
+    /**
+     * Resets the journal to start a new snapshot lineage for a playlist that was loaded from the XML playlist file.
+     * Sets aside any existing journal that contains records, since those records could not be replayed over a
+     * snapshot, and writes a snapshot of the playlist.
+     *
+     * @param playlist that was loaded
+     * @param playlistPath to the XML playlist file
+     * @param snapshot path to the snapshot file
+     * @param journal path to the journal file
+     */
+    public void reset(PlaylistV2 playlist, Path playlistPath, Path snapshot, Path journal)
+    {
+        synchronized(mCompactionLock)
+        {
+            synchronized(this)
+            {
+                close();
+
+                mEpoch = new Random().nextLong();
+                mIdentifiers.clear();
+                mNextIdentifier = 0;
+                mJournalPath = journal;
+                mJournalLength = 0;
+                mRecordCount = 0;
+
+                try
+                {
+                    setAside(journal, "could not be replayed over the playlist snapshot");
+                    openJournal();
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error creating playlist journal [" + journal.toString() + "]", ioe);
+                }
+            }
+
+            compact(playlist, mark(), playlistPath, snapshot);
+        }
+    }
+
+    /**
+     * Moves a journal that contains records aside so that edits recorded since the last playlist save are preserved
+     * for recovery instead of being discarded.  A journal without records is deleted.
+     *
+     * @param journal to set aside
+     * @param reason the journal is not being replayed, for logging
+     */
+    private void setAside(Path journal, String reason) throws IOException
+    {
+        if(!Files.exists(journal))
+        {
+            return;
+        }
+
+        if(Files.size(journal) <= JOURNAL_HEADER_LENGTH)
+        {
+            Files.delete(journal);
+            return;
+        }
+
+        Path aside = journal.resolveSibling(journal.getFileName().toString() + "." +
+            TimeStamp.getLongTimeStamp("_") + UNREPLAYED_JOURNAL_SUFFIX);
+        Files.move(journal, aside);
+
+        mLog.warn("Playlist journal [" + journal.toString() + "] " + reason + " - playlist edits recorded in the " +
+            "journal since the last playlist save were NOT applied.  The journal was preserved as [" +
+            aside.toString() + "]");
+    }
+
+    /**
+     * Marks the current end of the journal prior to capturing the playlist for compaction.  Records appended after
+     * the mark are carried forward into the compacted journal.
+     *
+     * @return journal mark
+     */
+    public synchronized long mark()
+    {
+        flush();
+        return mJournalLength;
+    }
+
+    /**
+     * Writes a new snapshot of the playlist and removes the journal records that preceded the mark.  This should be
+     * invoked after the XML playlist file has been successfully written, so that the snapshot records the XML file's
+     * current size and timestamp.
+     *
+     * @param playlist captured after the journal was marked
+     * @param mark obtained from mark() before the playlist was captured
+     * @param playlistPath to the XML playlist file
+     * @param snapshot path to the snapshot file
+     */
+    public void compact(PlaylistV2 playlist, long mark, Path playlistPath, Path snapshot)
+    {
+        synchronized(mCompactionLock)
+        {
+            Map<Section,List<?>> sections = new EnumMap<>(Section.class);
+            sections.put(Section.ALIAS, playlist.getAliases());
+            sections.put(Section.BROADCAST, playlist.getBroadcastConfigurations());
+            sections.put(Section.CHANNEL, playlist.getChannels());
+            sections.put(Section.CHANNEL_MAP, playlist.getChannelMaps());
+
+            Map<Section,int[]> identifiers = new EnumMap<>(Section.class);
+            long epoch;
+            int nextIdentifier;
+
+            synchronized(this)
+            {
+                if(mJournalPath == null)
+                {
+                    return;
+                }
+
+                for(Map.Entry<Section,List<?>> entry: sections.entrySet())
+                {
+                    List<?> entities = entry.getValue();
+                    int[] sectionIdentifiers = new int[entities.size()];
+
+                    for(int x = 0; x < entities.size(); x++)
+                    {
+                        sectionIdentifiers[x] = getIdentifier(entities.get(x));
+                    }
+
+                    identifiers.put(entry.getKey(), sectionIdentifiers);
+                }
+
+                epoch = mEpoch;
+                nextIdentifier = mNextIdentifier;
+            }
+
+            Path temp = Paths.get(snapshot.toString() + ".tmp");
+
+            try
+            {
+                try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp),
+                    BUFFER_SIZE)))
+                {
+                    out.writeInt(SNAPSHOT_MAGIC);
+                    out.writeInt(FORMAT_VERSION);
+                    out.writeInt(PlaylistManager.PLAYLIST_CURRENT_VERSION);
+                    out.writeLong(epoch);
+
+                    if(Files.exists(playlistPath))
+                    {
+                        out.writeLong(Files.size(playlistPath));
+                        out.writeLong(Files.getLastModifiedTime(playlistPath).toMillis());
+                    }
+                    else
+                    {
+                        out.writeLong(-1);
+                        out.writeLong(-1);
+                    }
+
+                    out.writeInt(nextIdentifier);
+
+                    for(Section section: Section.values())
+                    {
+                        List<?> entities = sections.get(section);
+                        int[] sectionIdentifiers = identifiers.get(section);
+                        out.writeInt(entities.size());
+
+                        for(int x = 0; x < entities.size(); x++)
+                        {
+                            byte[] bytes = mWriter.writeValueAsBytes(entities.get(x));
+                            out.writeInt(sectionIdentifiers[x]);
+                            out.writeInt(bytes.length);
+                            out.write(bytes);
+                        }
+                    }
+                }
+
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error writing playlist snapshot [" + snapshot.toString() + "]", ioe);
+                return;
+            }
+
+            synchronized(this)
+            {
+                try
+                {
+                    truncate(mark);
+                }
+                catch(IOException ioe)
+                {
+                    mLog.error("Error compacting playlist journal [" + mJournalPath.toString() + "]", ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rewrites the journal with only the records that follow the mark.
+     */
+    private void truncate(long mark) throws IOException
+    {
+        flush();
+
+        if(mark < JOURNAL_HEADER_LENGTH || mark > mJournalLength)
+        {
+            return;
+        }
+
+        Path temp = Paths.get(mJournalPath.toString() + ".tmp");
+        int carried = 0;
+
+        try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp),
+            BUFFER_SIZE)))
+        {
+            writeJournalHeader(out);
+
+            if(mark < mJournalLength)
+            {
+                try(InputStream in = new BufferedInputStream(Files.newInputStream(mJournalPath), BUFFER_SIZE))
+                {
+                    long skipped = 0;
+
+                    while(skipped < mark)
+                    {
+                        long count = in.skip(mark - skipped);
+
+                        if(count <= 0)
+                        {
+                            throw new EOFException("Unable to skip to journal mark");
+                        }
+
+                        skipped += count;
+                    }
+
+                    DataInputStream dataIn = new DataInputStream(in);
+                    long position = mark;
+
+                    while(position < mJournalLength)
+                    {
+                        byte section = dataIn.readByte();
+                        byte operation = dataIn.readByte();
+                        int identifier = dataIn.readInt();
+                        int length = dataIn.readInt();
+                        byte[] bytes = new byte[length];
+                        dataIn.readFully(bytes);
+
+                        out.writeByte(section);
+                        out.writeByte(operation);
+                        out.writeInt(identifier);
+                        out.writeInt(length);
+                        out.write(bytes);
+
+                        position += RECORD_HEADER_LENGTH + length;
+                        carried++;
+                    }
+                }
+            }
+        }
+
+        close();
+        Files.move(temp, mJournalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openJournal();
+        mRecordCount = carried;
+    }
+
+    /**
+     * Appends a put or delete record for the entity to the journal.
+     *
+     * @param section of the playlist containing the entity
+     * @param operation to record
+     * @param entity that was added, changed or deleted
+     */
+    public synchronized void append(Section section, Operation operation, Object entity)
+    {
+        write(section, operation, entity);
+        flush();
+    }
+
+    /**
+     * Appends a put or delete record for each of the entities to the journal.
+     *
+     * @param section of the playlist containing the entities
+     * @param operation to record
+     * @param entities that were added, changed or deleted
+     */
+    public synchronized void append(Section section, Operation operation, List<?> entities)
+    {
+        for(Object entity: entities)
+        {
+            write(section, operation, entity);
+        }
+
+        flush();
+    }
+
+    /**
+     * Writes a single journal record
+     */
+    private void write(Section section, Operation operation, Object entity)
+    {
+        if(mJournalStream == null || entity == null)
+        {
+            return;
+        }
+
+        try
+        {
+            int identifier;
+            byte[] bytes;
+
+            if(operation == Operation.DELETE)
+            {
+                Integer existing = mIdentifiers.remove(entity);
+
+                if(existing == null)
+                {
+                    return;
+                }
+
+                identifier = existing;
+                bytes = new byte[0];
+            }
+            else
+            {
+                identifier = getIdentifier(entity);
+                bytes = mWriter.writeValueAsBytes(entity);
+            }
+
+            mJournalStream.writeByte(section.ordinal());
+            mJournalStream.writeByte(operation.ordinal());
+            mJournalStream.writeInt(identifier);
+            mJournalStream.writeInt(bytes.length);
+            mJournalStream.write(bytes);
+            mJournalLength += RECORD_HEADER_LENGTH + bytes.length;
+            mRecordCount++;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error appending to playlist journal [" + mJournalPath + "] - journal disabled until the " +
+                "next playlist save", ioe);
+            close();
+        }
+    }
+
+    /**
+     * Journal identifier for the entity, assigning a new identifier if the entity doesn't have one.
+     */
+    private int getIdentifier(Object entity)
+    {
+        Integer identifier = mIdentifiers.get(entity);
+
+        if(identifier == null)
+        {
+            identifier = mNextIdentifier++;
+            mIdentifiers.put(entity, identifier);
+        }
+
+        return identifier;
+    }
+
+    /**
+     * Opens the journal for appending, creating the journal file and header if needed.
+     */
+    private void openJournal() throws IOException
+    {
+        boolean exists = Files.exists(mJournalPath);
+
+        mJournalStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(mJournalPath,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND), BUFFER_SIZE));
+
+        if(!exists)
+        {
+            writeJournalHeader(mJournalStream);
+            mJournalStream.flush();
+        }
+
+        mJournalLength = Files.size(mJournalPath);
+    }
+
+    private void writeJournalHeader(DataOutputStream out) throws IOException
+    {
+        out.writeInt(JOURNAL_MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(mEpoch);
+    }
+
+    /**
+     * Flushes buffered journal records to the journal file
+     */
+    private void flush()
+    {
+        if(mJournalStream != null)
+        {
+            try
+            {
+                mJournalStream.flush();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error flushing playlist journal [" + mJournalPath + "]", ioe);
+            }
+        }
+    }
+
+    /**
+     * Closes the journal file.  Further appends are ignored until the journal is loaded or reset.
+     */
+    public synchronized void close()
+    {
+        if(mJournalStream != null)
+        {
+            try
+            {
+                mJournalStream.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing playlist journal [" + mJournalPath + "]", ioe);
+            }
+
+            mJournalStream = null;
+        }
+    }
+
+    /**
+     * Converts the identifier-keyed entities to a list, preserving order
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> toList(Map<Integer,Object> entities)
+    {
+        List<T> list = new ArrayList<>(entities.size());
+
+        for(Object entity: entities.values())
+        {
+            list.add((T)entity);
+        }
+
+        return list;
+    }
+}
@@ -37,6 +37,8 @@ import io.github.dsheirer.controller.channel.map.ChannelMap;
 import io.github.dsheirer.controller.channel.map.ChannelMapModel;
 import io.github.dsheirer.icon.IconModel;
 import io.github.dsheirer.module.log.EventLogManager;
+import io.github.dsheirer.playlist.PlaylistJournal.Operation;
+import io.github.dsheirer.playlist.PlaylistJournal.Section;
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.playlist.PlaylistPreference;
 import io.github.dsheirer.sample.Listener;
@@ -68,6 +70,22 @@ public class PlaylistManager implements Listener<ChannelEvent>
 
     public static final int PLAYLIST_CURRENT_VERSION = 4;
 
+    /**
+     * Delay before saving the playlist after a change that is not journaled, or after the journal grows beyond the
+     * compaction threshold.
+     */
+    private static final long SAVE_DELAY_SECONDS = 2;
+
+    /**
+     * Maximum delay before journaled changes are compacted into the XML playlist file and snapshot.
+     */
+    private static final long COMPACTION_INTERVAL_SECONDS = 300;
+
+    /**
+     * Journal record count that triggers compaction without waiting for the compaction interval.
+     */
+    private static final int COMPACTION_RECORD_THRESHOLD = 1000;
+
     private AliasModel mAliasModel;
     private ChannelMapModel mChannelMapModel = new ChannelMapModel();
     private IconModel mIconModel;
@@ -80,13 +98,15 @@ public class PlaylistManager implements Listener<ChannelEvent>
     private RadioReference mRadioReference;
     private AtomicBoolean mPlaylistSavePending = new AtomicBoolean();
     private ScheduledFuture<?> mPlaylistSaveFuture;
+    private PlaylistJournal mPlaylistJournal = new PlaylistJournal();
     private boolean mPlaylistLoading = false;
 
     /**
      * Playlist manager - manages all channel configurations, channel maps, and alias lists and handles loading or
      * persisting to the current playlist file
      *
-     * Monitors playlist changes to automatically save configuration changes after they occur.
+     * Monitors playlist changes and appends alias, channel and broadcast configuration changes to the playlist
+     * journal as they occur.  Journaled changes are periodically compacted into the XML playlist file and snapshot.
      *
      * @param userPreferences for user settings
      * @param sourceManager for access to tuner model
@@ -110,10 +130,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
         mChannelProcessingManager.addChannelEventListener(mChannelModel);
 
         //Register for alias, channel and channel map events so that we can
-        //save the playlist when there are any changes
+        //journal or save the playlist when there are any changes
         mChannelModel.addListener(this);
 
-        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)c -> schedulePlaylistSave());
+        mAliasModel.aliasList().addListener((ListChangeListener<Alias>)this::journalAliasChanges);
 
         mChannelMapModel.getChannelMaps().addListener((ListChangeListener<ChannelMap>)c -> schedulePlaylistSave());
 
@@ -122,8 +142,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 case CONFIGURATION_ADD:
                 case CONFIGURATION_CHANGE:
+                    journal(Section.BROADCAST, Operation.PUT, broadcastEvent.getBroadcastConfiguration());
+                    break;
                 case CONFIGURATION_DELETE:
-                    schedulePlaylistSave();
+                    journal(Section.BROADCAST, Operation.DELETE, broadcastEvent.getBroadcastConfiguration());
                     break;
                 default:
                     //Do nothing
@@ -220,6 +242,7 @@ public class PlaylistManager implements Listener<ChannelEvent>
 
         //Complete any pending playlist save
         saveNow();
+        mPlaylistJournal.close();
 
         mUserPreferences.getPlaylistPreference().setPlaylist(path);
 
@@ -306,21 +329,33 @@ public class PlaylistManager implements Listener<ChannelEvent>
         mPlaylistLoading = false;
     }
 
+    /**
+     * Completes any pending playlist save and closes the playlist journal.  Invoke on application shutdown.
+     */
+    public void shutdown()
+    {
+        saveNow();
+        mPlaylistJournal.close();
+    }
+
     private void saveNow()
     {
         //Complete any pending playlist save
-        if(mPlaylistSaveFuture != null)
+        synchronized(this)
         {
-            try
+            if(mPlaylistSaveFuture != null)
             {
-                mPlaylistSaveFuture.cancel(true);
-            }
-            catch(Exception e)
-            {
-                mLog.error("Error trying to cancel pending playlist save");
-            }
+                try
+                {
+                    mPlaylistSaveFuture.cancel(false);
+                }
+                catch(Exception e)
+                {
+                    mLog.error("Error trying to cancel pending playlist save");
+                }
 
-            mPlaylistSaveFuture = null;
+                mPlaylistSaveFuture = null;
+            }
         }
 
         if(mPlaylistSavePending.getAndSet(false))
@@ -368,20 +403,93 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 case NOTIFICATION_ADD:
                 case NOTIFICATION_CONFIGURATION_CHANGE:
+                    journal(Section.CHANNEL, Operation.PUT, event.getChannel());
+                    break;
                 case NOTIFICATION_DELETE:
-                    schedulePlaylistSave();
+                    journal(Section.CHANNEL, Operation.DELETE, event.getChannel());
                     break;
             }
         }
     }
 
     /**
-     * Saves the current playlist
+     * Appends alias list additions, updates and removals to the playlist journal.
+     */
+    private void journalAliasChanges(ListChangeListener.Change<? extends Alias> change)
+    {
+        if(mPlaylistLoading)
+        {
+            return;
+        }
+
+        while(change.next())
+        {
+            if(change.wasPermutated())
+            {
+                //Alias ordering is not persisted
+                continue;
+            }
+
+            if(change.wasUpdated())
+            {
+                mPlaylistJournal.append(Section.ALIAS, Operation.PUT,
+                    change.getList().subList(change.getFrom(), change.getTo()));
+            }
+            else
+            {
+                if(change.wasRemoved())
+                {
+                    mPlaylistJournal.append(Section.ALIAS, Operation.DELETE, change.getRemoved());
+                }
+
+                if(change.wasAdded())
+                {
+                    mPlaylistJournal.append(Section.ALIAS, Operation.PUT, change.getAddedSubList());
+                }
+            }
+        }
+
+        scheduleCompaction();
+    }
+
+    /**
+     * Appends a single entity change to the playlist journal.
+     */
+    private void journal(Section section, Operation operation, Object entity)
+    {
+        if(!mPlaylistLoading)
+        {
+            mPlaylistJournal.append(section, operation, entity);
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Schedules compaction of the playlist journal into the XML playlist file and snapshot.  Compaction occurs
+     * shortly after the journal exceeds the record threshold, or otherwise at the compaction interval.
+     */
+    private void scheduleCompaction()
+    {
+        if(mPlaylistJournal.getRecordCount() >= COMPACTION_RECORD_THRESHOLD)
+        {
+            schedulePlaylistSave(SAVE_DELAY_SECONDS);
+        }
+        else
+        {
+            schedulePlaylistSave(COMPACTION_INTERVAL_SECONDS);
+        }
+    }
+
+    /**
+     * Saves the current playlist to the XML playlist file and compacts the playlist journal into a new snapshot.
      */
     private void save()
     {
         PlaylistPreference playlistPreference = mUserPreferences.getPlaylistPreference();
 
+        //Mark the journal before capturing the playlist so that changes made while saving are retained in the journal
+        long journalMark = mPlaylistJournal.mark();
+
         PlaylistV2 playlist = new PlaylistV2();
 
         playlist.setAliases(new ArrayList(mAliasModel.getAliases()));
@@ -419,6 +527,8 @@ public class PlaylistManager implements Listener<ChannelEvent>
             }
         }
 
+        boolean saved = false;
+
         try(OutputStream out = Files.newOutputStream(playlistPreference.getPlaylist()))
         {
             JacksonXmlModule xmlModule = new JacksonXmlModule();
@@ -433,6 +543,8 @@ public class PlaylistManager implements Listener<ChannelEvent>
             {
                 Files.delete(playlistPreference.getPlaylistLock());
             }
+
+            saved = true;
         }
         catch(IOException ioe)
         {
@@ -442,6 +554,13 @@ public class PlaylistManager implements Listener<ChannelEvent>
         {
             mLog.error("Error while saving playlist [" + playlistPreference.getPlaylist().toString() + "]", e);
         }
+
+        //Fold the journaled changes into a new snapshot that matches the XML playlist file we just wrote
+        if(saved)
+        {
+            mPlaylistJournal.compact(playlist, journalMark, playlistPreference.getPlaylist(),
+                playlistPreference.getPlaylistSnapshot());
+        }
     }
 
     /**
@@ -479,6 +598,25 @@ public class PlaylistManager implements Listener<ChannelEvent>
             }
         }
 
+        //Load from the snapshot and journal when the snapshot is current with the XML playlist file
+        if(Files.exists(files.getPlaylist()))
+        {
+            mLog.info("Loading playlist snapshot [" + files.getPlaylistSnapshot().toString() + "]");
+
+            playlist = mPlaylistJournal.load(files.getPlaylist(), files.getPlaylistSnapshot(),
+                files.getPlaylistJournal());
+
+            if(playlist != null)
+            {
+                if(mPlaylistJournal.getRecordCount() > 0)
+                {
+                    scheduleCompaction();
+                }
+
+                return playlist;
+            }
+        }
+
         if(Files.exists(files.getPlaylist()))
         {
             mLog.info("Loading playlist [" + files.getPlaylist().toString() + "]");
@@ -538,6 +676,10 @@ public class PlaylistManager implements Listener<ChannelEvent>
             schedulePlaylistSave();
         }
 
+        //Start a new snapshot and journal from the XML playlist so that the next startup can use the snapshot.  Any
+        //journal records that could not be replayed are preserved in a set aside copy of the journal.
+        mPlaylistJournal.reset(playlist, files.getPlaylist(), files.getPlaylistSnapshot(), files.getPlaylistJournal());
+
         return playlist;
     }
 
@@ -546,13 +688,33 @@ public class PlaylistManager implements Listener<ChannelEvent>
      * thus limiting repetitive playlist saving to a minimum.
      */
     private void schedulePlaylistSave()
+    {
+        schedulePlaylistSave(SAVE_DELAY_SECONDS);
+    }
+
+    /**
+     * Schedules a playlist save task to run after the delay.  If a save task is already pending, it is rescheduled
+     * only when the requested delay is shorter than the pending task's remaining delay.
+     *
+     * @param delay in seconds
+     */
+    private synchronized void schedulePlaylistSave(long delay)
     {
         if(!mPlaylistLoading)
         {
-            if(mPlaylistSavePending.compareAndSet(false, true))
+            mPlaylistSavePending.set(true);
+
+            if(mPlaylistSaveFuture != null)
             {
-                mPlaylistSaveFuture = ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), 2, TimeUnit.SECONDS);
+                if(mPlaylistSaveFuture.getDelay(TimeUnit.SECONDS) <= delay)
+                {
+                    return;
+                }
+
+                mPlaylistSaveFuture.cancel(false);
             }
+
+            mPlaylistSaveFuture = ThreadPool.SCHEDULED.schedule(new PlaylistSaveTask(), delay, TimeUnit.SECONDS);
         }
     }
 
@@ -564,10 +726,13 @@ public class PlaylistManager implements Listener<ChannelEvent>
         @Override
         public void run()
         {
-            save();
+            synchronized(PlaylistManager.this)
+            {
+                mPlaylistSaveFuture = null;
+                mPlaylistSavePending.set(false);
+            }
 
-            mPlaylistSaveFuture = null;
-            mPlaylistSavePending.set(false);
+            save();
         }
     }
 }
@@ -28,11 +28,14 @@ public enum PreferenceType
     DIRECTORY,
     DUPLICATE_CALL_DETECTION,
     JMBE_LIBRARY,
+    MESSAGE_EXPORT,
     MULTI_FREQUENCY,
     PLAYLIST,
     PLAYBACK,
     RADIO_REFERENCE,
     RECORD,
+    REMOTE_DECODE,
     TALKGROUP_FORMAT,
+    TRAFFIC_CHANNEL,
     TUNER;
 }
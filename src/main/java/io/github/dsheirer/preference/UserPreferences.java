@@ -21,9 +21,12 @@ package io.github.dsheirer.preference;
 
 import io.github.dsheirer.eventbus.MyEventBus;
 import io.github.dsheirer.preference.decoder.JmbeLibraryPreference;
+import io.github.dsheirer.preference.decoder.RemoteDecodePreference;
+import io.github.dsheirer.preference.decoder.TrafficChannelPreference;
 import io.github.dsheirer.preference.directory.DirectoryPreference;
 import io.github.dsheirer.preference.duplicate.DuplicateCallDetectionPreference;
 import io.github.dsheirer.preference.event.DecodeEventPreference;
+import io.github.dsheirer.preference.export.MessageExportPreference;
 import io.github.dsheirer.preference.identifier.TalkgroupFormatPreference;
 import io.github.dsheirer.preference.javafx.JavaFxPreferences;
 import io.github.dsheirer.preference.playback.PlaybackPreference;
@@ -58,11 +61,14 @@ public class UserPreferences implements Listener<PreferenceType>
     private DirectoryPreference mDirectoryPreference;
     private DuplicateCallDetectionPreference mDuplicateCallDetectionPreference;
     private JmbeLibraryPreference mJmbeLibraryPreference;
+    private MessageExportPreference mMessageExportPreference;
     private PlaybackPreference mPlaybackPreference;
     private PlaylistPreference mPlaylistPreference;
     private RadioReferencePreference mRadioReferencePreference;
     private RecordPreference mRecordPreference;
+    private RemoteDecodePreference mRemoteDecodePreference;
     private TalkgroupFormatPreference mTalkgroupFormatPreference;
+    private TrafficChannelPreference mTrafficChannelPreference;
     private TunerPreference mTunerPreference;
 
     private SwingPreference mSwingPreference = new SwingPreference();
@@ -100,6 +106,14 @@ public class UserPreferences implements Listener<PreferenceType>
         return mJmbeLibraryPreference;
     }
 
+    /**
+     * Decoded message export preferences
+     */
+    public MessageExportPreference getMessageExportPreference()
+    {
+        return mMessageExportPreference;
+    }
+
     /**
      * Directory preferences
      */
@@ -148,6 +162,14 @@ public class UserPreferences implements Listener<PreferenceType>
         return mRecordPreference;
     }
 
+    /**
+     * Remote decode worker preferences
+     */
+    public RemoteDecodePreference getRemoteDecodePreference()
+    {
+        return mRemoteDecodePreference;
+    }
+
     /**
      * Identifier preferences
      */
@@ -156,6 +178,14 @@ public class UserPreferences implements Listener<PreferenceType>
         return mTalkgroupFormatPreference;
     }
 
+    /**
+     * Traffic channel preferences
+     */
+    public TrafficChannelPreference getTrafficChannelPreference()
+    {
+        return mTrafficChannelPreference;
+    }
+
     /**
      * Tuner preferences
      */
@@ -191,11 +221,14 @@ public class UserPreferences implements Listener<PreferenceType>
         mDirectoryPreference = new DirectoryPreference(this::receive);
         mDuplicateCallDetectionPreference = new DuplicateCallDetectionPreference(this::receive);
         mJmbeLibraryPreference = new JmbeLibraryPreference(this::receive);
+        mMessageExportPreference = new MessageExportPreference(this::receive);
         mPlaybackPreference = new PlaybackPreference(this::receive);
         mPlaylistPreference = new PlaylistPreference(this::receive, mDirectoryPreference);
         mRadioReferencePreference = new RadioReferencePreference(this::receive);
         mRecordPreference = new RecordPreference(this::receive);
+        mRemoteDecodePreference = new RemoteDecodePreference(this::receive);
         mTalkgroupFormatPreference = new TalkgroupFormatPreference(this::receive);
+        mTrafficChannelPreference = new TrafficChannelPreference(this::receive);
         mTunerPreference = new TunerPreference(this::receive);
     }
 
@@ -0,0 +1,196 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.preference.decoder;
+
+import io.github.dsheirer.preference.Preference;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.sample.Listener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.prefs.Preferences;
+
+/**
+ * User preferences for offloading channel decoding to remote decode worker processes
+ */
+public class RemoteDecodePreference extends Preference
+{
+    private static final String PREFERENCE_KEY_ENABLED = "remote.decode.enabled";
+    private static final String PREFERENCE_KEY_WORKERS = "remote.decode.workers";
+    private static final String PREFERENCE_KEY_QUANTIZE = "remote.decode.quantize";
+    private static final String PREFERENCE_KEY_BATCH_INTERVAL = "remote.decode.batch.interval";
+    public static final int DEFAULT_WORKER_PORT = 9200;
+    public static final int DEFAULT_BATCH_INTERVAL_MILLISECONDS = 20;
+    public static final int MAXIMUM_BATCH_INTERVAL_MILLISECONDS = 200;
+
+    private Preferences mPreferences = Preferences.userNodeForPackage(RemoteDecodePreference.class);
+    private Boolean mEnabled;
+    private String mWorkers;
+    private Boolean mQuantize;
+    private Integer mBatchInterval;
+
+    /**
+     * Constructs an instance
+     * @param updateListener to receive notifications that a preference has been updated
+     */
+    public RemoteDecodePreference(Listener<PreferenceType> updateListener)
+    {
+        super(updateListener);
+    }
+
+    @Override
+    public PreferenceType getPreferenceType()
+    {
+        return PreferenceType.REMOTE_DECODE;
+    }
+
+    /**
+     * Indicates if traffic channels are decoded by remote decode workers
+     */
+    public boolean isEnabled()
+    {
+        if(mEnabled == null)
+        {
+            mEnabled = mPreferences.getBoolean(PREFERENCE_KEY_ENABLED, false);
+        }
+
+        return mEnabled;
+    }
+
+    /**
+     * Enables or disables remote decoding
+     */
+    public void setEnabled(boolean enabled)
+    {
+        mEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Remote decode workers as a comma separated list of host:port values
+     */
+    public String getWorkers()
+    {
+        if(mWorkers == null)
+        {
+            mWorkers = mPreferences.get(PREFERENCE_KEY_WORKERS, "localhost:" + DEFAULT_WORKER_PORT);
+        }
+
+        return mWorkers;
+    }
+
+    /**
+     * Sets the remote decode workers
+     * @param workers as a comma separated list of host:port values.  The port is optional.
+     */
+    public void setWorkers(String workers)
+    {
+        mWorkers = workers;
+        mPreferences.put(PREFERENCE_KEY_WORKERS, workers);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Parsed list of remote decode worker addresses, each as a two element array of host and port.
+     */
+    public List<String[]> getWorkerAddresses()
+    {
+        List<String[]> addresses = new ArrayList<>();
+
+        for(String worker: getWorkers().split(","))
+        {
+            String trimmed = worker.trim();
+
+            if(!trimmed.isEmpty())
+            {
+                int separator = trimmed.lastIndexOf(':');
+
+                if(separator > 0)
+                {
+                    addresses.add(new String[]{trimmed.substring(0, separator), trimmed.substring(separator + 1)});
+                }
+                else
+                {
+                    addresses.add(new String[]{trimmed, String.valueOf(DEFAULT_WORKER_PORT)});
+                }
+            }
+        }
+
+        return addresses;
+    }
+
+    /**
+     * Indicates if baseband samples are quantized to 16-bit values before sending to the remote decode worker,
+     * halving the network bandwidth at the cost of a small loss of dynamic range.
+     */
+    public boolean isQuantize()
+    {
+        if(mQuantize == null)
+        {
+            mQuantize = mPreferences.getBoolean(PREFERENCE_KEY_QUANTIZE, true);
+        }
+
+        return mQuantize;
+    }
+
+    /**
+     * Enables or disables 16-bit sample quantization
+     */
+    public void setQuantize(boolean quantize)
+    {
+        mQuantize = quantize;
+        mPreferences.putBoolean(PREFERENCE_KEY_QUANTIZE, quantize);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Interval in milliseconds of baseband samples to accumulate into each network batch
+     */
+    public int getBatchInterval()
+    {
+        if(mBatchInterval == null)
+        {
+            mBatchInterval = mPreferences.getInt(PREFERENCE_KEY_BATCH_INTERVAL, DEFAULT_BATCH_INTERVAL_MILLISECONDS);
+        }
+
+        return mBatchInterval;
+    }
+
+    /**
+     * Sets the sample batch interval
+     * @param interval in milliseconds in the range 1 to 200
+     */
+    public void setBatchInterval(int interval)
+    {
+        if(interval < 1 || interval > MAXIMUM_BATCH_INTERVAL_MILLISECONDS)
+        {
+            throw new IllegalArgumentException("Batch interval must be in range 1 - " +
+                MAXIMUM_BATCH_INTERVAL_MILLISECONDS);
+        }
+
+        mBatchInterval = interval;
+        mPreferences.putInt(PREFERENCE_KEY_BATCH_INTERVAL, interval);
+        notifyPreferenceUpdated();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.preference.decoder;
+
+import io.github.dsheirer.preference.Preference;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.sample.Listener;
+
+import java.util.prefs.Preferences;
+
+/**
+ * User preferences for trunked system traffic channel processing
+ */
+public class TrafficChannelPreference extends Preference
+{
+    private static final String PREFERENCE_KEY_PROCESSING_CHAIN_POOL_SIZE = "traffic.channel.processing.chain.pool.size";
+    public static final int DEFAULT_PROCESSING_CHAIN_POOL_SIZE = 4;
+    public static final int MAXIMUM_PROCESSING_CHAIN_POOL_SIZE = 50;
+
+    private Preferences mPreferences = Preferences.userNodeForPackage(TrafficChannelPreference.class);
+    private Integer mProcessingChainPoolSize;
+
+    /**
+     * Constructs an instance
+     * @param updateListener to receive notifications that a preference has been updated
+     */
+    public TrafficChannelPreference(Listener<PreferenceType> updateListener)
+    {
+        super(updateListener);
+    }
+
+    @Override
+    public PreferenceType getPreferenceType()
+    {
+        return PreferenceType.TRAFFIC_CHANNEL;
+    }
+
+    /**
+     * Number of constructed traffic channel processing chains to keep idle and ready for reuse, per decoder type, for
+     * each trunked system control channel.  A value of zero disables processing chain reuse.
+     */
+    public int getProcessingChainPoolSize()
+    {
+        if(mProcessingChainPoolSize == null)
+        {
+            mProcessingChainPoolSize = mPreferences.getInt(PREFERENCE_KEY_PROCESSING_CHAIN_POOL_SIZE,
+                DEFAULT_PROCESSING_CHAIN_POOL_SIZE);
+        }
+
+        return mProcessingChainPoolSize;
+    }
+
+    /**
+     * Sets the number of traffic channel processing chains to keep idle and ready for reuse.
+     * @param poolSize in the range 0 to 50
+     */
+    public void setProcessingChainPoolSize(int poolSize)
+    {
+        if(poolSize < 0 || poolSize > MAXIMUM_PROCESSING_CHAIN_POOL_SIZE)
+        {
+            throw new IllegalArgumentException("Processing chain pool size must be in range 0 - " +
+                MAXIMUM_PROCESSING_CHAIN_POOL_SIZE);
+        }
+
+        mPreferences.putInt(PREFERENCE_KEY_PROCESSING_CHAIN_POOL_SIZE, poolSize);
+        mProcessingChainPoolSize = poolSize;
+        notifyPreferenceUpdated();
+    }
+}
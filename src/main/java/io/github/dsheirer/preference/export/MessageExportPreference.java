@@ -0,0 +1,218 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.preference.export;
+
+import io.github.dsheirer.preference.Preference;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.sample.Listener;
+
+import java.util.prefs.Preferences;
+
+/**
+ * User preferences for exporting decoded messages and decode events as a binary network stream
+ */
+public class MessageExportPreference extends Preference
+{
+    private static final String PREFERENCE_KEY_ENABLED = "message.export.enabled";
+    private static final String PREFERENCE_KEY_TCP_PORT = "message.export.tcp.port";
+    private static final String PREFERENCE_KEY_MULTICAST_ENABLED = "message.export.multicast.enabled";
+    private static final String PREFERENCE_KEY_MULTICAST_GROUP = "message.export.multicast.group";
+    private static final String PREFERENCE_KEY_MULTICAST_PORT = "message.export.multicast.port";
+    private static final String PREFERENCE_KEY_MESSAGE_TEXT_ENABLED = "message.export.text.enabled";
+    public static final int DEFAULT_TCP_PORT = 9100;
+    public static final String DEFAULT_MULTICAST_GROUP = "239.255.77.77";
+    public static final int DEFAULT_MULTICAST_PORT = 9101;
+
+    private Preferences mPreferences = Preferences.userNodeForPackage(MessageExportPreference.class);
+    private Boolean mEnabled;
+    private Integer mTcpPort;
+    private Boolean mMulticastEnabled;
+    private String mMulticastGroup;
+    private Integer mMulticastPort;
+    private Boolean mMessageTextEnabled;
+
+    /**
+     * Constructs an instance
+     * @param updateListener to receive notifications that a preference has been updated
+     */
+    public MessageExportPreference(Listener<PreferenceType> updateListener)
+    {
+        super(updateListener);
+    }
+
+    @Override
+    public PreferenceType getPreferenceType()
+    {
+        return PreferenceType.MESSAGE_EXPORT;
+    }
+
+    /**
+     * Indicates if decoded messages and decode events are exported
+     */
+    public boolean isEnabled()
+    {
+        if(mEnabled == null)
+        {
+            mEnabled = mPreferences.getBoolean(PREFERENCE_KEY_ENABLED, false);
+        }
+
+        return mEnabled;
+    }
+
+    /**
+     * Enables or disables message export
+     */
+    public void setEnabled(boolean enabled)
+    {
+        mEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * TCP port that export clients connect to
+     */
+    public int getTcpPort()
+    {
+        if(mTcpPort == null)
+        {
+            mTcpPort = mPreferences.getInt(PREFERENCE_KEY_TCP_PORT, DEFAULT_TCP_PORT);
+        }
+
+        return mTcpPort;
+    }
+
+    /**
+     * Sets the TCP port that export clients connect to
+     * @param port in range 1 - 65535
+     */
+    public void setTcpPort(int port)
+    {
+        validatePort(port);
+        mTcpPort = port;
+        mPreferences.putInt(PREFERENCE_KEY_TCP_PORT, port);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if exported messages are also sent to the UDP multicast group
+     */
+    public boolean isMulticastEnabled()
+    {
+        if(mMulticastEnabled == null)
+        {
+            mMulticastEnabled = mPreferences.getBoolean(PREFERENCE_KEY_MULTICAST_ENABLED, false);
+        }
+
+        return mMulticastEnabled;
+    }
+
+    /**
+     * Enables or disables UDP multicast export
+     */
+    public void setMulticastEnabled(boolean enabled)
+    {
+        mMulticastEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_MULTICAST_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * UDP multicast group address
+     */
+    public String getMulticastGroup()
+    {
+        if(mMulticastGroup == null)
+        {
+            mMulticastGroup = mPreferences.get(PREFERENCE_KEY_MULTICAST_GROUP, DEFAULT_MULTICAST_GROUP);
+        }
+
+        return mMulticastGroup;
+    }
+
+    /**
+     * Sets the UDP multicast group address
+     */
+    public void setMulticastGroup(String group)
+    {
+        mMulticastGroup = group;
+        mPreferences.put(PREFERENCE_KEY_MULTICAST_GROUP, group);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * UDP multicast port
+     */
+    public int getMulticastPort()
+    {
+        if(mMulticastPort == null)
+        {
+            mMulticastPort = mPreferences.getInt(PREFERENCE_KEY_MULTICAST_PORT, DEFAULT_MULTICAST_PORT);
+        }
+
+        return mMulticastPort;
+    }
+
+    /**
+     * Sets the UDP multicast port
+     * @param port in range 1 - 65535
+     */
+    public void setMulticastPort(int port)
+    {
+        validatePort(port);
+        mMulticastPort = port;
+        mPreferences.putInt(PREFERENCE_KEY_MULTICAST_PORT, port);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if the decoded message text is exported along with the message bits and identifiers
+     */
+    public boolean isMessageTextEnabled()
+    {
+        if(mMessageTextEnabled == null)
+        {
+            mMessageTextEnabled = mPreferences.getBoolean(PREFERENCE_KEY_MESSAGE_TEXT_ENABLED, false);
+        }
+
+        return mMessageTextEnabled;
+    }
+
+    /**
+     * Enables or disables export of the decoded message text
+     */
+    public void setMessageTextEnabled(boolean enabled)
+    {
+        mMessageTextEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_MESSAGE_TEXT_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    private static void validatePort(int port)
+    {
+        if(port < 1 || port > 65535)
+        {
+            throw new IllegalArgumentException("Port must be in range 1 - 65535");
+        }
+    }
+}
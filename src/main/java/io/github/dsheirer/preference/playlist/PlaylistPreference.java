@@ -109,6 +109,24 @@ public class PlaylistPreference extends Preference
         return Paths.get(playlist + ".backup");
     }
 
+    /**
+     * Append-only change journal for alias, channel and broadcast edits made since the last playlist snapshot.
+     */
+    public Path getPlaylistJournal()
+    {
+        String playlist = getPlaylist().toString();
+        return Paths.get(playlist + ".journal");
+    }
+
+    /**
+     * Binary snapshot of the playlist used for fast startup loading.
+     */
+    public Path getPlaylistSnapshot()
+    {
+        String playlist = getPlaylist().toString();
+        return Paths.get(playlist + ".snapshot");
+    }
+
     /**
      * Sets the path to the playlist
      */
@@ -34,10 +34,25 @@ import java.util.prefs.Preferences;
 public class RecordPreference extends Preference
 {
     private static final String PREFERENCE_KEY_AUDIO_RECORD_FORMAT = "audio.record.format";
+    private static final String PREFERENCE_KEY_AUDIO_RECORD_ARCHIVE = "audio.record.archive";
+    private static final String PREFERENCE_KEY_MBE_RECORD_COMPRESSED = "mbe.record.compressed";
+    private static final String PREFERENCE_KEY_TIME_SHIFT_ENABLED = "time.shift.enabled";
+    private static final String PREFERENCE_KEY_TIME_SHIFT_DURATION = "time.shift.duration";
+    private static final String PREFERENCE_KEY_TIME_SHIFT_POST_TRIGGER = "time.shift.post.trigger";
+    private static final String PREFERENCE_KEY_TIME_SHIFT_EMERGENCY_TRIGGER = "time.shift.emergency.trigger";
+    public static final int DEFAULT_TIME_SHIFT_DURATION_SECONDS = 30;
+    public static final int MAXIMUM_TIME_SHIFT_DURATION_SECONDS = 300;
+    public static final int DEFAULT_TIME_SHIFT_POST_TRIGGER_SECONDS = 5;
     private static final RecordFormat DEFAULT_RECORD_FORMAT = RecordFormat.MP3;
     private final static Logger mLog = LoggerFactory.getLogger(RecordPreference.class);
     private Preferences mPreferences = Preferences.userNodeForPackage(RecordPreference.class);
     private RecordFormat mAudioRecordFormat;
+    private Boolean mAudioRecordArchive;
+    private Boolean mMBERecordCompressed;
+    private Boolean mTimeShiftEnabled;
+    private Integer mTimeShiftDuration;
+    private Integer mTimeShiftPostTrigger;
+    private Boolean mTimeShiftEmergencyTrigger;
 
     /**
      * Constructs this preference with an update listener
@@ -90,4 +105,160 @@ public class RecordPreference extends Preference
         mPreferences.put(PREFERENCE_KEY_AUDIO_RECORD_FORMAT, audioRecordFormat.name());
         notifyPreferenceUpdated();
     }
+
+    /**
+     * Indicates if audio recordings should be appended to the call archive instead of written as individual files
+     */
+    public boolean isAudioRecordArchive()
+    {
+        if(mAudioRecordArchive == null)
+        {
+            mAudioRecordArchive = mPreferences.getBoolean(PREFERENCE_KEY_AUDIO_RECORD_ARCHIVE, false);
+        }
+
+        return mAudioRecordArchive;
+    }
+
+    /**
+     * Sets audio recording storage to the call archive (true) or to individual files (false)
+     */
+    public void setAudioRecordArchive(boolean archive)
+    {
+        mAudioRecordArchive = archive;
+        mPreferences.putBoolean(PREFERENCE_KEY_AUDIO_RECORD_ARCHIVE, archive);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if MBE call sequence recordings should be compressed
+     */
+    public boolean isMBERecordCompressed()
+    {
+        if(mMBERecordCompressed == null)
+        {
+            mMBERecordCompressed = mPreferences.getBoolean(PREFERENCE_KEY_MBE_RECORD_COMPRESSED, false);
+        }
+
+        return mMBERecordCompressed;
+    }
+
+    /**
+     * Sets compression for MBE call sequence recordings
+     */
+    public void setMBERecordCompressed(boolean compressed)
+    {
+        mMBERecordCompressed = compressed;
+        mPreferences.putBoolean(PREFERENCE_KEY_MBE_RECORD_COMPRESSED, compressed);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if tuner time-shift buffering is enabled
+     */
+    public boolean isTimeShiftEnabled()
+    {
+        if(mTimeShiftEnabled == null)
+        {
+            mTimeShiftEnabled = mPreferences.getBoolean(PREFERENCE_KEY_TIME_SHIFT_ENABLED, false);
+        }
+
+        return mTimeShiftEnabled;
+    }
+
+    /**
+     * Enables or disables tuner time-shift buffering
+     */
+    public void setTimeShiftEnabled(boolean enabled)
+    {
+        mTimeShiftEnabled = enabled;
+        mPreferences.putBoolean(PREFERENCE_KEY_TIME_SHIFT_ENABLED, enabled);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Duration of the tuner time-shift buffer
+     * @return duration in seconds
+     */
+    public int getTimeShiftDuration()
+    {
+        if(mTimeShiftDuration == null)
+        {
+            mTimeShiftDuration = mPreferences.getInt(PREFERENCE_KEY_TIME_SHIFT_DURATION,
+                DEFAULT_TIME_SHIFT_DURATION_SECONDS);
+
+            if(mTimeShiftDuration < 1 || mTimeShiftDuration > MAXIMUM_TIME_SHIFT_DURATION_SECONDS)
+            {
+                mTimeShiftDuration = DEFAULT_TIME_SHIFT_DURATION_SECONDS;
+            }
+        }
+
+        return mTimeShiftDuration;
+    }
+
+    /**
+     * Sets the duration of the tuner time-shift buffer
+     * @param seconds in the range 1 to MAXIMUM_TIME_SHIFT_DURATION_SECONDS
+     */
+    public void setTimeShiftDuration(int seconds)
+    {
+        if(seconds < 1 || seconds > MAXIMUM_TIME_SHIFT_DURATION_SECONDS)
+        {
+            throw new IllegalArgumentException("Time-shift duration must be in range 1 - " +
+                MAXIMUM_TIME_SHIFT_DURATION_SECONDS + " seconds");
+        }
+
+        mTimeShiftDuration = seconds;
+        mPreferences.putInt(PREFERENCE_KEY_TIME_SHIFT_DURATION, seconds);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Delay after a capture trigger before the time-shift buffer is captured, so that the capture includes samples
+     * from after the triggering event.
+     * @return delay in seconds
+     */
+    public int getTimeShiftPostTrigger()
+    {
+        if(mTimeShiftPostTrigger == null)
+        {
+            mTimeShiftPostTrigger = mPreferences.getInt(PREFERENCE_KEY_TIME_SHIFT_POST_TRIGGER,
+                DEFAULT_TIME_SHIFT_POST_TRIGGER_SECONDS);
+        }
+
+        return mTimeShiftPostTrigger;
+    }
+
+    /**
+     * Sets the delay after a capture trigger before the time-shift buffer is captured
+     * @param seconds of delay
+     */
+    public void setTimeShiftPostTrigger(int seconds)
+    {
+        mTimeShiftPostTrigger = seconds;
+        mPreferences.putInt(PREFERENCE_KEY_TIME_SHIFT_POST_TRIGGER, seconds);
+        notifyPreferenceUpdated();
+    }
+
+    /**
+     * Indicates if emergency decode events trigger a capture of the tuner time-shift buffers
+     */
+    public boolean isTimeShiftEmergencyTrigger()
+    {
+        if(mTimeShiftEmergencyTrigger == null)
+        {
+            mTimeShiftEmergencyTrigger = mPreferences.getBoolean(PREFERENCE_KEY_TIME_SHIFT_EMERGENCY_TRIGGER, true);
+        }
+
+        return mTimeShiftEmergencyTrigger;
+    }
+
+    /**
+     * Sets emergency decode events to trigger a capture of the tuner time-shift buffers
+     */
+    public void setTimeShiftEmergencyTrigger(boolean trigger)
+    {
+        mTimeShiftEmergencyTrigger = trigger;
+        mPreferences.putBoolean(PREFERENCE_KEY_TIME_SHIFT_EMERGENCY_TRIGGER, trigger);
+        notifyPreferenceUpdated();
+    }
 }
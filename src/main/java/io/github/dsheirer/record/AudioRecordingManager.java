@@ -20,6 +20,7 @@
 package io.github.dsheirer.record;
 
 import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.controller.NamingThreadFactory;
 import io.github.dsheirer.identifier.Form;
 import io.github.dsheirer.identifier.Identifier;
 import io.github.dsheirer.identifier.IdentifierClass;
@@ -31,30 +32,59 @@ import io.github.dsheirer.identifier.tone.Tone;
 import io.github.dsheirer.identifier.tone.ToneIdentifier;
 import io.github.dsheirer.identifier.tone.ToneSequence;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.archive.CallArchive;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.util.StringUtils;
-import io.github.dsheirer.util.ThreadPool;
 import io.github.dsheirer.util.TimeStamp;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import org.apache.commons.math3.util.FastMath;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedTransferQueue;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Monitors audio segments and upon completion records any audio segments that have been flagged as recordable
+ * Monitors audio segments and upon completion records any audio segments that have been flagged as recordable.
+ *
+ * When recording to MP3, audio segments that are flagged as recordable are encoded incrementally while the call is
+ * in progress, so that completing the recording only requires encoding the final few audio buffers and writing the
+ * file.  Completed audio segments are dispatched by a dedicated queue processor thread to a pool of recording threads
+ * that write the recording files.  The number of dispatched recording tasks is bounded.  When the recording threads
+ * fall behind, the queue processor thread waits for a recording to complete before dispatching the next one, so that
+ * back pressure is applied without performing recording file I/O on the queue processor or shared scheduler threads.
+ *
+ * When the call archive storage preference is enabled, recordings are appended to the call archive located in the
+ * recordings folder instead of being written as individual recording files.
  */
 public class AudioRecordingManager implements Listener<AudioSegment>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AudioRecordingManager.class);
+    private static final int RECORDING_QUEUE_CAPACITY = 64;
+    private static final int RECORDING_THREAD_COUNT =
+        FastMath.min(4, FastMath.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    private static final long QUEUE_PROCESSOR_INTERVAL_MS = 250;
+    public static final String CALL_ARCHIVE_DIRECTORY = "archive";
     private LinkedTransferQueue<AudioSegment> mCompletedAudioSegmentQueue = new LinkedTransferQueue<>();
-    private ScheduledFuture<?> mQueueProcessorHandle;
+    private Map<AudioSegment,MP3SegmentEncoder> mSegmentEncoders = new ConcurrentHashMap<>();
+    private Semaphore mRecordingPermits = new Semaphore(RECORDING_THREAD_COUNT + RECORDING_QUEUE_CAPACITY);
+    private final Object mQueueLock = new Object();
+    private boolean mAcceptingAudioSegments;
+    private volatile boolean mRunning;
+    private Thread mQueueProcessorThread;
+    private ExecutorService mRecordingExecutor;
+    private CallArchive mCallArchive;
     private UserPreferences mUserPreferences;
     private int mUnknownAudioRecordingIndex = 1;
     private int mDuplicateAudioRecordingSuffix = 1;
@@ -74,32 +104,125 @@ public class AudioRecordingManager implements Listener<AudioSegment>
      */
     public void start()
     {
-        if(mQueueProcessorHandle == null)
+        if(mQueueProcessorThread == null)
         {
-            mQueueProcessorHandle = ThreadPool.SCHEDULED.scheduleAtFixedRate(new QueueProcessor(),
-                0, 1, TimeUnit.SECONDS);
+            mRecordingExecutor = Executors.newFixedThreadPool(RECORDING_THREAD_COUNT,
+                new NamingThreadFactory("sdrtrunk audio recording"));
+
+            synchronized(mQueueLock)
+            {
+                mAcceptingAudioSegments = true;
+            }
+
+            mRunning = true;
+            mQueueProcessorThread = new NamingThreadFactory("sdrtrunk audio recording queue")
+                .newThread(new QueueProcessor());
+            mQueueProcessorThread.start();
         }
     }
 
     /**
-     * Stops the manager and records any remaining queued audio segments.
+     * Stops the manager and records any remaining queued audio segments.  Audio segments that complete after the
+     * manager is stopped are not recorded.
      */
     public void stop()
     {
-        if(mQueueProcessorHandle != null)
+        if(mQueueProcessorThread != null)
         {
-            mQueueProcessorHandle.cancel(true);
+            synchronized(mQueueLock)
+            {
+                mAcceptingAudioSegments = false;
+            }
+
+            //Wait for the queue processor to finish dispatching so that it never dispatches to a shut down executor
+            mRunning = false;
+
+            boolean interrupted = false;
+
+            while(mQueueProcessorThread.isAlive())
+            {
+                try
+                {
+                    mQueueProcessorThread.join();
+                }
+                catch(InterruptedException ie)
+                {
+                    interrupted = true;
+                }
+            }
+
+            mQueueProcessorThread = null;
+
+            //Dispatch any audio segments that were queued after the queue processor's final pass
             processAudioSegments();
-            mQueueProcessorHandle = null;
+
+            mRecordingExecutor.shutdown();
+
+            try
+            {
+                if(!mRecordingExecutor.awaitTermination(10, TimeUnit.SECONDS))
+                {
+                    mLog.warn("Timeout while waiting for audio recordings to complete");
+                }
+            }
+            catch(InterruptedException ie)
+            {
+                mLog.warn("Interrupted while waiting for audio recordings to complete");
+            }
+
+            if(interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            mRecordingExecutor = null;
+
+            for(MP3SegmentEncoder encoder: mSegmentEncoders.values())
+            {
+                encoder.dispose();
+            }
+
+            mSegmentEncoders.clear();
+
+            synchronized(this)
+            {
+                if(mCallArchive != null)
+                {
+                    mCallArchive.close();
+                    mCallArchive = null;
+                }
+            }
         }
     }
 
+    /**
+     * Call archive for querying and exporting archived recordings.  The archive is opened on first access.
+     *
+     * @return call archive
+     * @throws IOException if the call archive cannot be opened
+     */
+    public synchronized CallArchive getCallArchive() throws IOException
+    {
+        if(mCallArchive == null)
+        {
+            mCallArchive = new CallArchive(getRecordingBasePath().resolve(CALL_ARCHIVE_DIRECTORY));
+        }
+
+        return mCallArchive;
+    }
+
     /**
      * Primary receive method for incoming audio segments to be recorded
      */
     @Override
     public void receive(AudioSegment audioSegment)
     {
+        if(mUserPreferences.getRecordPreference().getAudioRecordFormat() == RecordFormat.MP3)
+        {
+            mSegmentEncoders.put(audioSegment, new MP3SegmentEncoder(audioSegment,
+                AudioSegmentRecorder.getMP3EncoderPool()));
+        }
+
         audioSegment.completeProperty().addListener(new AudioSegmentCompletionMonitor(audioSegment));
     }
 
@@ -124,42 +247,114 @@ public class AudioRecordingManager implements Listener<AudioSegment>
 
         if(audioSegment.recordAudioProperty().get())
         {
-            mCompletedAudioSegmentQueue.add(audioSegment);
+            synchronized(mQueueLock)
+            {
+                if(mAcceptingAudioSegments)
+                {
+                    mCompletedAudioSegmentQueue.add(audioSegment);
+                    return;
+                }
+            }
         }
-        else
+
+        disposeEncoder(audioSegment);
+        audioSegment.decrementConsumerCount();
+    }
+
+    /**
+     * Removes and disposes the incremental MP3 encoder for the audio segment, if there is one.
+     */
+    private void disposeEncoder(AudioSegment audioSegment)
+    {
+        MP3SegmentEncoder encoder = mSegmentEncoders.remove(audioSegment);
+
+        if(encoder != null)
         {
-            audioSegment.decrementConsumerCount();
+            encoder.dispose();
         }
     }
 
     /**
-     * Processes any queued audio segments
+     * Dispatches recordable, in-progress audio segments that have new audio to the recording threads for incremental
+     * MP3 encoding.  Encoding is skipped while the recording threads are fully occupied since any pending audio is
+     * encoded when the audio segment completes.
+     */
+    private void encodeAudioSegments()
+    {
+        for(MP3SegmentEncoder encoder: mSegmentEncoders.values())
+        {
+            AudioSegment audioSegment = encoder.getAudioSegment();
+
+            if(audioSegment.recordAudioProperty().get() && !audioSegment.completeProperty().get() &&
+               encoder.hasPendingAudio())
+            {
+                if(!mRecordingPermits.tryAcquire())
+                {
+                    return;
+                }
+
+                if(encoder.claimEncode())
+                {
+                    dispatch(encoder::encode);
+                }
+                else
+                {
+                    mRecordingPermits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatches the task to the recording threads.  The caller must hold a recording permit, which is released when
+     * the task completes.
+     */
+    private void dispatch(Runnable task)
+    {
+        mRecordingExecutor.execute(() -> {
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                mRecordingPermits.release();
+            }
+        });
+    }
+
+    /**
+     * Dispatches each queued audio segment to the recording threads, waiting for a recording permit when the
+     * recording threads are fully occupied.
      */
     private void processAudioSegments()
     {
         RecordFormat recordFormat = mUserPreferences.getRecordPreference().getAudioRecordFormat();
+        boolean archive = mUserPreferences.getRecordPreference().isAudioRecordArchive();
         AudioSegment audioSegment = mCompletedAudioSegmentQueue.poll();
 
         while(audioSegment != null)
         {
             if(audioSegment.isDuplicate() && mUserPreferences.getDuplicateCallDetectionPreference().isDuplicateRecordingSuppressionEnabled())
             {
+                disposeEncoder(audioSegment);
                 audioSegment.decrementConsumerCount();
             }
             else
             {
+                //Recording paths are created on this thread since path creation tracks the previous recording path
                 Path path = getAudioRecordingPath(audioSegment.getIdentifierCollection(), recordFormat);
+                MP3SegmentEncoder encoder = mSegmentEncoders.remove(audioSegment);
 
-                try
+                if(encoder != null && recordFormat != RecordFormat.MP3)
                 {
-                    AudioSegmentRecorder.record(audioSegment, path, recordFormat);
-                }
-                catch(IOException ioe)
-                {
-                    mLog.error("Error recording audio segment to [" + path.toString() + "]");
+                    encoder.dispose();
+                    encoder = null;
                 }
 
-                audioSegment.decrementConsumerCount();
+                RecordingTask recordingTask = new RecordingTask(audioSegment, path, recordFormat, encoder, archive);
+                mRecordingPermits.acquireUninterruptibly();
+                dispatch(recordingTask);
             }
 
             //Grab the next one to record
@@ -167,6 +362,79 @@ public class AudioRecordingManager implements Listener<AudioSegment>
         }
     }
 
+    /**
+     * Encodes the audio segment and appends it to the call archive, indexed by the system, site, talkgroup and radio
+     * identifiers from the audio segment's identifier collection.
+     *
+     * @param audioSegment to archive
+     * @param path for the recording, used for the archived recording name
+     * @param recordFormat for the recording
+     * @param encoder containing incrementally encoded MP3 audio, or null
+     * @throws IOException on any errors
+     */
+    private void archive(AudioSegment audioSegment, Path path, RecordFormat recordFormat, MP3SegmentEncoder encoder)
+        throws IOException
+    {
+        if(!audioSegment.hasAudio())
+        {
+            if(encoder != null)
+            {
+                encoder.dispose();
+            }
+
+            return;
+        }
+
+        ByteBuffer[] audio;
+
+        if(recordFormat == RecordFormat.MP3)
+        {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+            if(encoder != null)
+            {
+                AudioSegmentRecorder.writeMP3(audioSegment, encoder.finish(), stream);
+            }
+            else
+            {
+                AudioSegmentRecorder.writeMP3(audioSegment, stream);
+            }
+
+            audio = new ByteBuffer[]{ByteBuffer.wrap(stream.toByteArray())};
+        }
+        else
+        {
+            audio = AudioSegmentRecorder.getWAVE(audioSegment);
+        }
+
+        IdentifierCollection identifierCollection = audioSegment.getIdentifierCollection();
+        String fileName = path.getFileName().toString();
+        String name = fileName.substring(0, fileName.length() - recordFormat.getExtension().length());
+
+        getCallArchive().append(audioSegment.getStartTimestamp(), audioSegment.getDuration(),
+            getValue(identifierCollection, IdentifierClass.CONFIGURATION, Form.SYSTEM, Role.ANY),
+            getValue(identifierCollection, IdentifierClass.CONFIGURATION, Form.SITE, Role.ANY),
+            getValue(identifierCollection, IdentifierClass.USER, Form.TALKGROUP, Role.TO),
+            getValue(identifierCollection, IdentifierClass.USER, Form.RADIO, Role.FROM),
+            name, recordFormat, audio);
+    }
+
+    /**
+     * String value of the identifier from the collection, or null if the collection doesn't contain the identifier
+     */
+    private static String getValue(IdentifierCollection identifierCollection, IdentifierClass identifierClass,
+                                   Form form, Role role)
+    {
+        Identifier identifier = identifierCollection.getIdentifier(identifierClass, form, role);
+
+        if(identifier != null && identifier.getValue() != null)
+        {
+            return identifier.getValue().toString();
+        }
+
+        return null;
+    }
+
     /**
      * Base path to recordings folder
      * @return
@@ -345,20 +613,90 @@ public class AudioRecordingManager implements Listener<AudioSegment>
     }
 
     /**
-     * Threaded queue processor to process/record each recordable audio segment
+     * Queue processor that dispatches each recordable audio segment for recording and dispatches in-progress audio
+     * segments for incremental encoding.  Runs on a dedicated thread until the manager is stopped.
      */
     public class QueueProcessor implements Runnable
     {
+        @Override
+        public void run()
+        {
+            while(mRunning)
+            {
+                try
+                {
+                    TimeUnit.MILLISECONDS.sleep(QUEUE_PROCESSOR_INTERVAL_MS);
+                }
+                catch(InterruptedException ie)
+                {
+                    mLog.warn("Audio recording queue processor interrupted");
+                    return;
+                }
+
+                try
+                {
+                    processAudioSegments();
+                    encodeAudioSegments();
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("Error while processing queued audio segments to recordings", t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records a completed audio segment to a file or to the call archive.  Uses the audio that was incrementally
+     * encoded during the call when an MP3 segment encoder is provided.
+     */
+    public class RecordingTask implements Runnable
+    {
+        private AudioSegment mAudioSegment;
+        private Path mPath;
+        private RecordFormat mRecordFormat;
+        private MP3SegmentEncoder mEncoder;
+        private boolean mArchive;
+
+        public RecordingTask(AudioSegment audioSegment, Path path, RecordFormat recordFormat, MP3SegmentEncoder encoder,
+                             boolean archive)
+        {
+            mAudioSegment = audioSegment;
+            mPath = path;
+            mRecordFormat = recordFormat;
+            mEncoder = encoder;
+            mArchive = archive;
+        }
+
         @Override
         public void run()
         {
             try
             {
-                processAudioSegments();
+                if(mArchive)
+                {
+                    archive(mAudioSegment, mPath, mRecordFormat, mEncoder);
+                }
+                else if(mEncoder != null)
+                {
+                    AudioSegmentRecorder.recordMP3(mAudioSegment, mPath, mEncoder.finish());
+                }
+                else
+                {
+                    AudioSegmentRecorder.record(mAudioSegment, mPath, mRecordFormat);
+                }
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error recording audio segment to [" + mPath.toString() + "]");
             }
             catch(Throwable t)
             {
-                mLog.error("Error while processing queued audio segments to recordings", t);
+                mLog.error("Error recording audio segment to [" + mPath.toString() + "]", t);
+            }
+            finally
+            {
+                mAudioSegment.decrementConsumerCount();
             }
         }
     }
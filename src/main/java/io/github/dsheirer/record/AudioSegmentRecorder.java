@@ -22,6 +22,7 @@ package io.github.dsheirer.record;
 import io.github.dsheirer.audio.AudioFormats;
 import io.github.dsheirer.audio.AudioSegment;
 import io.github.dsheirer.audio.convert.MP3AudioConverter;
+import io.github.dsheirer.audio.convert.MP3EncoderPool;
 import io.github.dsheirer.record.wave.AudioMetadata;
 import io.github.dsheirer.record.wave.AudioMetadataUtils;
 import io.github.dsheirer.record.wave.WaveWriter;
@@ -29,11 +30,14 @@ import io.github.dsheirer.sample.ConversionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -45,6 +49,15 @@ public class AudioSegmentRecorder
 
     public static final int MP3_BIT_RATE = 16;
     public static final boolean CONSTANT_BIT_RATE = false;
+    private static final MP3EncoderPool MP3_ENCODER_POOL = new MP3EncoderPool(MP3_BIT_RATE, CONSTANT_BIT_RATE);
+
+    /**
+     * Shared pool of MP3 converters for recording audio segments
+     */
+    public static MP3EncoderPool getMP3EncoderPool()
+    {
+        return MP3_ENCODER_POOL;
+    }
 
     /**
      * Records the audio segment to the specified path using the specified recording format
@@ -78,19 +91,51 @@ public class AudioSegmentRecorder
     {
         if(audioSegment.hasAudio())
         {
-            OutputStream outputStream = new FileOutputStream(path.toFile());
+            try(OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(path.toFile())))
+            {
+                writeMP3(audioSegment, outputStream);
+            }
+        }
+    }
 
-            //Write ID3 metadata
-            Map<AudioMetadata,String> metadataMap = AudioMetadataUtils.getMetadataMap(audioSegment.getIdentifierCollection(),
-                audioSegment.getAliasList());
+    /**
+     * Records the audio segment as an MP3 file to the specified path using audio that was previously encoded by an
+     * MP3 segment encoder.
+     * @param audioSegment to record
+     * @param path for the recording
+     * @param mp3Audio encoded MP3 audio frames
+     * @throws IOException on any errors
+     */
+    public static void recordMP3(AudioSegment audioSegment, Path path, byte[] mp3Audio) throws IOException
+    {
+        if(audioSegment.hasAudio())
+        {
+            try(OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(path.toFile())))
+            {
+                writeMP3(audioSegment, mp3Audio, outputStream);
+            }
+        }
+    }
 
-            byte[] id3Bytes = AudioMetadataUtils.getMP3ID3(metadataMap);
-            outputStream.write(id3Bytes);
+    /**
+     * Encodes the audio segment to MP3 and writes the ID3 metadata and encoded audio to the output stream.
+     * @param audioSegment to encode
+     * @param outputStream to receive the MP3 recording
+     * @throws IOException on any errors
+     */
+    public static void writeMP3(AudioSegment audioSegment, OutputStream outputStream) throws IOException
+    {
+        MP3AudioConverter converter = MP3_ENCODER_POOL.acquire();
 
-            //Convert audio to MP3 and write to file
-            MP3AudioConverter converter = new MP3AudioConverter(MP3_BIT_RATE, CONSTANT_BIT_RATE);
-            byte[] mp3 = converter.convertAudio(audioSegment.getAudioBuffers());
-            outputStream.write(mp3);
+        try
+        {
+            writeID3(audioSegment, outputStream);
+
+            //Convert audio to MP3 one buffer at a time and write to the stream
+            for(float[] audioBuffer: audioSegment.getAudioBuffers())
+            {
+                converter.encode(audioBuffer, outputStream);
+            }
 
             byte[] lastFrame = converter.flush();
 
@@ -98,10 +143,36 @@ public class AudioSegmentRecorder
             {
                 outputStream.write(lastFrame);
             }
-
-            outputStream.flush();
-            outputStream.close();
         }
+        finally
+        {
+            MP3_ENCODER_POOL.release(converter);
+        }
+    }
+
+    /**
+     * Writes the ID3 metadata for the audio segment and the previously encoded MP3 audio to the output stream.
+     * @param audioSegment for metadata
+     * @param mp3Audio encoded MP3 audio frames
+     * @param outputStream to receive the MP3 recording
+     * @throws IOException on any errors
+     */
+    public static void writeMP3(AudioSegment audioSegment, byte[] mp3Audio, OutputStream outputStream) throws IOException
+    {
+        writeID3(audioSegment, outputStream);
+        outputStream.write(mp3Audio);
+    }
+
+    /**
+     * Writes the ID3 metadata for the audio segment to the output stream
+     */
+    private static void writeID3(AudioSegment audioSegment, OutputStream outputStream) throws IOException
+    {
+        Map<AudioMetadata,String> metadataMap = AudioMetadataUtils.getMetadataMap(audioSegment.getIdentifierCollection(),
+            audioSegment.getAliasList());
+
+        byte[] id3Bytes = AudioMetadataUtils.getMP3ID3(metadataMap);
+        outputStream.write(id3Bytes);
     }
 
     /**
@@ -131,4 +202,52 @@ public class AudioSegmentRecorder
             writer.close();
         }
     }
+
+    /**
+     * Encodes the audio segment as the contents of a WAVe file, laid out as the WAVe file written by recordWAVE(),
+     * without writing a file.  The chunk sizes are calculated up front, so the header, converted audio and metadata
+     * chunks are returned as separate buffers that can be written directly with a gathering write.
+     *
+     * @param audioSegment to encode
+     * @return buffers, positioned at zero, containing the WAVe file contents in order
+     */
+    public static ByteBuffer[] getWAVE(AudioSegment audioSegment)
+    {
+        List<float[]> audioBuffers = audioSegment.getAudioBuffers();
+        ByteBuffer[] buffers = new ByteBuffer[audioBuffers.size() + 5];
+        long dataLength = 0;
+
+        for(int x = 0; x < audioBuffers.size(); x++)
+        {
+            buffers[x + 3] = ConversionUtils.convertToSigned16BitSamples(audioBuffers.get(x));
+            buffers[x + 3].position(0);
+            dataLength += buffers[x + 3].capacity();
+        }
+
+        Map<AudioMetadata,String> metadataMap = AudioMetadataUtils.getMetadataMap(audioSegment.getIdentifierCollection(),
+            audioSegment.getAliasList());
+        ByteBuffer listChunk = AudioMetadataUtils.getLISTChunk(metadataMap);
+        ByteBuffer id3Chunk = AudioMetadataUtils.getID3Chunk(AudioMetadataUtils.getMP3ID3(metadataMap));
+        listChunk.position(0);
+        id3Chunk.position(0);
+        buffers[buffers.length - 2] = listChunk;
+        buffers[buffers.length - 1] = id3Chunk;
+
+        ByteBuffer header = WaveWriter.getWaveHeader(AudioFormats.PCM_SIGNED_8KHZ_16BITS_MONO);
+        ByteBuffer formatChunk = WaveWriter.getFormatChunk(AudioFormats.PCM_SIGNED_8KHZ_16BITS_MONO);
+        ByteBuffer dataHeader = WaveWriter.getDataHeader();
+        formatChunk.position(0);
+        dataHeader.position(0);
+
+        long totalLength = header.capacity() + formatChunk.capacity() + dataHeader.capacity() + dataLength +
+            listChunk.remaining() + id3Chunk.remaining();
+        header.order(ByteOrder.LITTLE_ENDIAN).putInt(4, (int)(totalLength - 8));
+        dataHeader.order(ByteOrder.LITTLE_ENDIAN).putInt(4, (int)dataLength);
+
+        buffers[0] = header;
+        buffers[1] = formatChunk;
+        buffers[2] = dataHeader;
+
+        return buffers;
+    }
 }
@@ -0,0 +1,178 @@
+/*
+ * *****************************************************************************
+ *  Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.record;
+
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.audio.convert.MP3AudioConverter;
+import io.github.dsheirer.audio.convert.MP3EncoderPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Incremental MP3 encoder for an audio segment that is still in progress.
+ *
+ * Audio buffers are encoded as they are added to the audio segment, so that when the segment completes, only the
+ * last few buffers and the encoder flush remain to be encoded.  This keeps the time needed to finalize a recording
+ * independent of the length of the call.  Encoded frames are held in memory until the recording file is written,
+ * since the final recording filename depends on identifiers that may not arrive until the end of the call.
+ *
+ * This class is thread safe.  Encoding is performed by whichever thread invokes encode() or finish().
+ */
+public class MP3SegmentEncoder
+{
+    private final static Logger mLog = LoggerFactory.getLogger(MP3SegmentEncoder.class);
+
+    private AudioSegment mAudioSegment;
+    private MP3EncoderPool mEncoderPool;
+    private MP3AudioConverter mConverter;
+    private ByteArrayOutputStream mMP3Stream = new ByteArrayOutputStream();
+    private AtomicBoolean mEncodeScheduled = new AtomicBoolean();
+    private int mEncodedBufferCount;
+    private boolean mFinished;
+
+    /**
+     * Constructs an instance
+     * @param audioSegment to encode
+     * @param encoderPool to obtain an MP3 converter when encoding starts
+     */
+    public MP3SegmentEncoder(AudioSegment audioSegment, MP3EncoderPool encoderPool)
+    {
+        mAudioSegment = audioSegment;
+        mEncoderPool = encoderPool;
+    }
+
+    /**
+     * Audio segment being encoded
+     */
+    public AudioSegment getAudioSegment()
+    {
+        return mAudioSegment;
+    }
+
+    /**
+     * Indicates if there are audio buffers in the audio segment that have not yet been encoded.
+     */
+    public synchronized boolean hasPendingAudio()
+    {
+        return !mFinished && mEncodedBufferCount < mAudioSegment.getAudioBufferCount();
+    }
+
+    /**
+     * Attempts to claim the encode scheduling flag so that only one encode task is queued at a time.
+     *
+     * @return true if the caller should schedule an encode task and later invoke encode()
+     */
+    public boolean claimEncode()
+    {
+        return mEncodeScheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Encodes any audio buffers that have been added to the audio segment since the previous invocation.
+     */
+    public synchronized void encode()
+    {
+        mEncodeScheduled.set(false);
+
+        if(mFinished)
+        {
+            return;
+        }
+
+        try
+        {
+            encodePending();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error encoding audio segment to MP3", ioe);
+        }
+    }
+
+    /**
+     * Encodes any remaining audio buffers, flushes the encoder and returns the encoded MP3 audio.  The converter is
+     * returned to the encoder pool and this encoder cannot be used after this method is invoked.
+     *
+     * @return encoded MP3 audio frames
+     * @throws IOException if there is an error while encoding
+     */
+    public synchronized byte[] finish() throws IOException
+    {
+        if(mFinished)
+        {
+            throw new IllegalStateException("MP3 segment encoder is already finished");
+        }
+
+        try
+        {
+            encodePending();
+
+            if(mConverter != null)
+            {
+                byte[] lastFrame = mConverter.flush();
+
+                if(lastFrame != null && lastFrame.length > 0)
+                {
+                    mMP3Stream.write(lastFrame);
+                }
+            }
+
+            return mMP3Stream.toByteArray();
+        }
+        finally
+        {
+            dispose();
+        }
+    }
+
+    /**
+     * Discards any encoded audio and returns the converter to the encoder pool.
+     */
+    public synchronized void dispose()
+    {
+        mFinished = true;
+        mEncoderPool.release(mConverter);
+        mConverter = null;
+        mMP3Stream = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Encodes audio buffers from the last encoded buffer to the current end of the audio segment
+     */
+    private void encodePending() throws IOException
+    {
+        int bufferCount = mAudioSegment.getAudioBufferCount();
+
+        if(mEncodedBufferCount < bufferCount && mConverter == null)
+        {
+            mConverter = mEncoderPool.acquire();
+        }
+
+        while(mEncodedBufferCount < bufferCount)
+        {
+            mConverter.encode(mAudioSegment.getAudioBuffer(mEncodedBufferCount), mMP3Stream);
+            mEncodedBufferCount++;
+        }
+    }
+}
@@ -0,0 +1,674 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.record.archive;
+
+import io.github.dsheirer.record.RecordFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only call recording archive.
+ *
+ * Encoded call recordings are appended to large, rolling segment files instead of being written as one file per
+ * call.  Each call is described by an entry in an append-only binary index file that is loaded into memory when the
+ * archive is opened and indexed by call start time, talkgroup and radio.  Queries are resolved against the in-memory
+ * index and individual calls are read back from the segment files with a single positional read.
+ *
+ * Each call in a segment file is preceded by a small header (magic and length) and the call is appended to the
+ * segment file before the index entry is written, so that an interrupted write leaves, at most, an unreferenced call
+ * in the segment file.
+ *
+ * The index file starts with a magic and format version header.  Each index entry is framed with its length and a
+ * CRC-32 checksum.  When the archive is opened, a torn or corrupt entry at the end of the index file is truncated and
+ * a corrupt entry within the index file is skipped, so that the remaining calls are still available.
+ *
+ * This class is thread safe.
+ */
+public class CallArchive
+{
+    private final static Logger mLog = LoggerFactory.getLogger(CallArchive.class);
+    public static final long DEFAULT_MAXIMUM_SEGMENT_SIZE = 512L * 1024 * 1024;
+    private static final int CALL_HEADER_MAGIC = 0x53445243; //SDRC
+    private static final int CALL_HEADER_LENGTH = 8;
+    private static final int INDEX_HEADER_MAGIC = 0x53444958; //SDIX
+    private static final int INDEX_FORMAT_VERSION = 1;
+    private static final int INDEX_HEADER_LENGTH = 8;
+    private static final int INDEX_ENTRY_OVERHEAD = 8; //Entry length and CRC-32 checksum
+    private static final String INDEX_FILE_NAME = "calls.idx";
+    private static final String SEGMENT_FILE_PREFIX = "calls_";
+    private static final String SEGMENT_FILE_SUFFIX = ".dat";
+
+    private Path mDirectory;
+    private long mMaximumSegmentSize;
+    private List<CallArchiveEntry> mEntries = new ArrayList<>();
+    private NavigableMap<Long,List<CallArchiveEntry>> mTimeIndex = new TreeMap<>();
+    private Map<String,List<CallArchiveEntry>> mTalkgroupIndex = new HashMap<>();
+    private Map<String,List<CallArchiveEntry>> mRadioIndex = new HashMap<>();
+    private Map<Integer,FileChannel> mReadChannels = new HashMap<>();
+    private DataOutputStream mIndexOutputStream;
+    private FileChannel mSegmentChannel;
+    private int mSegmentNumber;
+    private boolean mClosed;
+
+    /**
+     * Opens or creates a call archive in the specified directory.
+     *
+     * @param directory for the archive index and segment files
+     * @param maximumSegmentSize in bytes before rolling over to a new segment file
+     * @throws IOException if the archive cannot be opened
+     */
+    public CallArchive(Path directory, long maximumSegmentSize) throws IOException
+    {
+        mDirectory = directory;
+        mMaximumSegmentSize = maximumSegmentSize;
+
+        Files.createDirectories(mDirectory);
+        loadIndex();
+        mSegmentNumber = getLastSegmentNumber();
+        mIndexOutputStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(getIndexPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+
+        if(Files.size(getIndexPath()) == 0)
+        {
+            mIndexOutputStream.writeInt(INDEX_HEADER_MAGIC);
+            mIndexOutputStream.writeInt(INDEX_FORMAT_VERSION);
+            mIndexOutputStream.flush();
+        }
+    }
+
+    /**
+     * Opens or creates a call archive in the specified directory using the default maximum segment size.
+     */
+    public CallArchive(Path directory) throws IOException
+    {
+        this(directory, DEFAULT_MAXIMUM_SEGMENT_SIZE);
+    }
+
+    /**
+     * Archive directory
+     */
+    public Path getDirectory()
+    {
+        return mDirectory;
+    }
+
+    /**
+     * Number of calls in the archive
+     */
+    public synchronized int size()
+    {
+        return mEntries.size();
+    }
+
+    /**
+     * Appends a call recording to the archive.
+     *
+     * @param timestamp for the start of the call in milliseconds
+     * @param duration of the call in milliseconds
+     * @param system name or null
+     * @param site name or null
+     * @param talkgroup value or null
+     * @param radio value or null
+     * @param name for the recording, without file extension
+     * @param recordFormat of the encoded call audio
+     * @param audio encoded call recording (e.g. complete MP3 or WAVE file contents)
+     * @return index entry for the archived call
+     * @throws IOException if the call cannot be written to the archive
+     */
+    public CallArchiveEntry append(long timestamp, long duration, String system, String site, String talkgroup,
+                                   String radio, String name, RecordFormat recordFormat, byte[] audio)
+        throws IOException
+    {
+        return append(timestamp, duration, system, site, talkgroup, radio, name, recordFormat,
+            ByteBuffer.wrap(audio));
+    }
+
+    /**
+     * Appends a call recording to the archive, writing the remaining contents of the buffers to the segment file
+     * with a single gathering write so that the recording doesn't have to be assembled into one array first.
+     *
+     * @param timestamp for the start of the call in milliseconds
+     * @param duration of the call in milliseconds
+     * @param system name or null
+     * @param site name or null
+     * @param talkgroup value or null
+     * @param radio value or null
+     * @param name for the recording, without file extension
+     * @param recordFormat of the encoded call audio
+     * @param audio buffers containing the encoded call recording, in order
+     * @return index entry for the archived call
+     * @throws IOException if the call cannot be written to the archive
+     */
+    public synchronized CallArchiveEntry append(long timestamp, long duration, String system, String site,
+                                                String talkgroup, String radio, String name,
+                                                RecordFormat recordFormat, ByteBuffer... audio) throws IOException
+    {
+        if(mClosed)
+        {
+            throw new IOException("Call archive is closed");
+        }
+
+        long length = 0;
+
+        for(ByteBuffer buffer: audio)
+        {
+            length += buffer.remaining();
+        }
+
+        if(length > Integer.MAX_VALUE - CALL_HEADER_LENGTH)
+        {
+            throw new IOException("Call recording [" + name + "] is too large to archive");
+        }
+
+        FileChannel channel = getSegmentChannel(CALL_HEADER_LENGTH + (int)length);
+        long offset = channel.size() + CALL_HEADER_LENGTH;
+
+        ByteBuffer[] buffers = new ByteBuffer[audio.length + 1];
+        buffers[0] = ByteBuffer.allocate(CALL_HEADER_LENGTH);
+        buffers[0].putInt(CALL_HEADER_MAGIC);
+        buffers[0].putInt((int)length);
+        buffers[0].flip();
+        System.arraycopy(audio, 0, buffers, 1, audio.length);
+
+        long remaining = CALL_HEADER_LENGTH + length;
+
+        while(remaining > 0)
+        {
+            remaining -= channel.write(buffers);
+        }
+
+        CallArchiveEntry entry = new CallArchiveEntry(timestamp, duration, system, site, talkgroup, radio, name,
+            recordFormat, mSegmentNumber, offset, (int)length);
+
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        entry.write(new DataOutputStream(serialized));
+        byte[] bytes = serialized.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+
+        mIndexOutputStream.writeInt(bytes.length);
+        mIndexOutputStream.write(bytes);
+        mIndexOutputStream.writeInt((int)crc.getValue());
+        mIndexOutputStream.flush();
+        add(entry);
+
+        return entry;
+    }
+
+    /**
+     * Finds the archived calls that match the query, ordered by call start time.
+     *
+     * The candidate calls are selected from the talkgroup, radio or time index, whichever is most selective for
+     * the query, and then filtered against the remaining query criteria.
+     *
+     * @param query criteria
+     * @return matching call entries
+     */
+    public synchronized List<CallArchiveEntry> query(CallArchiveQuery query)
+    {
+        if(query.getStart() > query.getEnd())
+        {
+            return Collections.emptyList();
+        }
+
+        Collection<CallArchiveEntry> candidates = null;
+
+        if(query.getTalkgroup() != null)
+        {
+            candidates = mTalkgroupIndex.getOrDefault(query.getTalkgroup(), Collections.emptyList());
+        }
+
+        if(query.getRadio() != null)
+        {
+            List<CallArchiveEntry> radioCandidates = mRadioIndex.getOrDefault(query.getRadio(), Collections.emptyList());
+
+            if(candidates == null || radioCandidates.size() < candidates.size())
+            {
+                candidates = radioCandidates;
+            }
+        }
+
+        List<CallArchiveEntry> results = new ArrayList<>();
+
+        if(candidates == null)
+        {
+            if(query.hasTimeRange())
+            {
+                for(List<CallArchiveEntry> entries: mTimeIndex.subMap(query.getStart(), true, query.getEnd(), true).values())
+                {
+                    for(CallArchiveEntry entry: entries)
+                    {
+                        if(query.matches(entry))
+                        {
+                            results.add(entry);
+                        }
+                    }
+                }
+
+                return results;
+            }
+
+            candidates = mEntries;
+        }
+
+        for(CallArchiveEntry entry: candidates)
+        {
+            if(query.matches(entry))
+            {
+                results.add(entry);
+            }
+        }
+
+        results.sort((e1, e2) -> Long.compare(e1.getTimestamp(), e2.getTimestamp()));
+
+        return results;
+    }
+
+    /**
+     * Reads the encoded call recording for the entry from the archive.
+     *
+     * @param entry to read
+     * @return encoded call recording
+     * @throws IOException if the call cannot be read
+     */
+    public synchronized byte[] read(CallArchiveEntry entry) throws IOException
+    {
+        FileChannel channel = getReadChannel(entry.getSegment());
+
+        ByteBuffer buffer = ByteBuffer.allocate(CALL_HEADER_LENGTH + entry.getLength());
+        long position = entry.getOffset() - CALL_HEADER_LENGTH;
+
+        while(buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, position + buffer.position());
+
+            if(read < 0)
+            {
+                throw new EOFException("Call archive segment [" + entry.getSegment() + "] ended before call [" +
+                    entry.getName() + "] could be read");
+            }
+        }
+
+        buffer.flip();
+
+        if(buffer.getInt() != CALL_HEADER_MAGIC || buffer.getInt() != entry.getLength())
+        {
+            throw new IOException("Call archive segment [" + entry.getSegment() + "] is corrupt at offset [" +
+                entry.getOffset() + "]");
+        }
+
+        byte[] audio = new byte[entry.getLength()];
+        buffer.get(audio);
+        return audio;
+    }
+
+    /**
+     * Exports the call recording for the entry to an individual recording file in the specified directory.
+     *
+     * @param entry to export
+     * @param directory for the exported recording file
+     * @return path to the exported recording file
+     * @throws IOException if the call cannot be exported
+     */
+    public Path export(CallArchiveEntry entry, Path directory) throws IOException
+    {
+        Path path = directory.resolve(entry.getName() + entry.getRecordFormat().getExtension());
+        Files.write(path, read(entry));
+        return path;
+    }
+
+    /**
+     * Closes the archive segment and index files.
+     */
+    public synchronized void close()
+    {
+        mClosed = true;
+
+        try
+        {
+            mIndexOutputStream.close();
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error closing call archive index", ioe);
+        }
+
+        closeSegmentChannel();
+
+        for(FileChannel channel: mReadChannels.values())
+        {
+            try
+            {
+                channel.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing call archive segment", ioe);
+            }
+        }
+
+        mReadChannels.clear();
+    }
+
+    /**
+     * Adds the entry to the in-memory indexes
+     */
+    private void add(CallArchiveEntry entry)
+    {
+        mEntries.add(entry);
+        mTimeIndex.computeIfAbsent(entry.getTimestamp(), key -> new ArrayList<>()).add(entry);
+
+        if(entry.getTalkgroup() != null)
+        {
+            mTalkgroupIndex.computeIfAbsent(entry.getTalkgroup(), key -> new ArrayList<>()).add(entry);
+        }
+
+        if(entry.getRadio() != null)
+        {
+            mRadioIndex.computeIfAbsent(entry.getRadio(), key -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    /**
+     * Loads the index file.  A torn or corrupt entry at the end of the index file is truncated and a corrupt entry
+     * within the index file is skipped.
+     *
+     * @throws IOException if the index file cannot be read or is not a call archive index
+     */
+    private void loadIndex() throws IOException
+    {
+        Path indexPath = getIndexPath();
+
+        if(!Files.exists(indexPath))
+        {
+            return;
+        }
+
+        long fileLength = Files.size(indexPath);
+
+        if(fileLength < INDEX_HEADER_LENGTH)
+        {
+            //Header write was interrupted when the archive was created - the header is rewritten on open
+            truncateIndex(indexPath, 0);
+            return;
+        }
+
+        long validLength = INDEX_HEADER_LENGTH;
+        int skipped = 0;
+        int corrupt = 0;
+
+        try(CountingInputStream countingInputStream = new CountingInputStream(Files.newInputStream(indexPath));
+            DataInputStream inputStream = new DataInputStream(countingInputStream))
+        {
+            int magic = inputStream.readInt();
+            int version = inputStream.readInt();
+
+            if(magic != INDEX_HEADER_MAGIC)
+            {
+                throw new IOException("File [" + indexPath + "] is not a call archive index");
+            }
+
+            if(version != INDEX_FORMAT_VERSION)
+            {
+                throw new IOException("Unsupported call archive index version [" + version + "] in [" +
+                    indexPath + "]");
+            }
+
+            while(fileLength - countingInputStream.getCount() >= INDEX_ENTRY_OVERHEAD)
+            {
+                int length = inputStream.readInt();
+
+                if(length < 0 || length > fileLength - countingInputStream.getCount() - 4)
+                {
+                    //A bad length can't be framed, so everything from this entry onward is discarded
+                    break;
+                }
+
+                byte[] bytes = new byte[length];
+                inputStream.readFully(bytes);
+                int checksum = inputStream.readInt();
+
+                CallArchiveEntry entry = null;
+                CRC32 crc = new CRC32();
+                crc.update(bytes, 0, bytes.length);
+
+                if((int)crc.getValue() == checksum)
+                {
+                    try
+                    {
+                        entry = CallArchiveEntry.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+                    }
+                    catch(IOException ioe)
+                    {
+                        //Treated as a corrupt entry
+                    }
+                }
+
+                if(entry != null)
+                {
+                    add(entry);
+
+                    //Corrupt entries followed by a valid entry are skipped, otherwise they are part of a torn tail
+                    skipped += corrupt;
+                    corrupt = 0;
+                    validLength = countingInputStream.getCount();
+                }
+                else
+                {
+                    corrupt++;
+                }
+            }
+        }
+
+        if(skipped > 0)
+        {
+            mLog.warn("Skipped [" + skipped + "] corrupt entries in call archive index [" + indexPath + "]");
+        }
+
+        if(validLength < fileLength)
+        {
+            mLog.warn("Discarding partially written entry at the end of call archive index [" + indexPath + "]");
+            truncateIndex(indexPath, validLength);
+        }
+
+        mLog.info("Loaded call archive index with [" + mEntries.size() + "] calls from [" + mDirectory + "]");
+    }
+
+    private static void truncateIndex(Path indexPath, long length) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE))
+        {
+            channel.truncate(length);
+        }
+    }
+
+    /**
+     * Highest numbered segment file in the archive directory, or 0 if there are no segment files.
+     */
+    private int getLastSegmentNumber() throws IOException
+    {
+        int last = 0;
+
+        try(DirectoryStream<Path> stream = Files.newDirectoryStream(mDirectory,
+            SEGMENT_FILE_PREFIX + "*" + SEGMENT_FILE_SUFFIX))
+        {
+            for(Path path: stream)
+            {
+                String name = path.getFileName().toString();
+
+                try
+                {
+                    int number = Integer.parseInt(name.substring(SEGMENT_FILE_PREFIX.length(),
+                        name.length() - SEGMENT_FILE_SUFFIX.length()));
+                    last = Math.max(last, number);
+                }
+                catch(NumberFormatException nfe)
+                {
+                    //Ignore files that don't follow the segment naming pattern
+                }
+            }
+        }
+
+        return last;
+    }
+
+    /**
+     * Segment file channel for appending a call of the specified size, rolling over to a new segment file when the
+     * current segment file would exceed the maximum segment size.
+     */
+    private FileChannel getSegmentChannel(int size) throws IOException
+    {
+        if(mSegmentChannel == null)
+        {
+            mSegmentNumber = Math.max(mSegmentNumber, 1);
+            mSegmentChannel = openSegmentChannel(mSegmentNumber);
+        }
+
+        if(mSegmentChannel.size() > 0 && mSegmentChannel.size() + size > mMaximumSegmentSize)
+        {
+            closeSegmentChannel();
+            mSegmentNumber++;
+            mSegmentChannel = openSegmentChannel(mSegmentNumber);
+        }
+
+        return mSegmentChannel;
+    }
+
+    private FileChannel openSegmentChannel(int segment) throws IOException
+    {
+        return FileChannel.open(getSegmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+    }
+
+    private void closeSegmentChannel()
+    {
+        if(mSegmentChannel != null)
+        {
+            try
+            {
+                mSegmentChannel.close();
+            }
+            catch(IOException ioe)
+            {
+                mLog.error("Error closing call archive segment", ioe);
+            }
+
+            mSegmentChannel = null;
+        }
+    }
+
+    /**
+     * Cached read channel for the segment file
+     */
+    private FileChannel getReadChannel(int segment) throws IOException
+    {
+        FileChannel channel = mReadChannels.get(segment);
+
+        if(channel == null)
+        {
+            channel = FileChannel.open(getSegmentPath(segment), StandardOpenOption.READ);
+            mReadChannels.put(segment, channel);
+        }
+
+        return channel;
+    }
+
+    private Path getIndexPath()
+    {
+        return mDirectory.resolve(INDEX_FILE_NAME);
+    }
+
+    private Path getSegmentPath(int segment)
+    {
+        return mDirectory.resolve(String.format("%s%08d%s", SEGMENT_FILE_PREFIX, segment, SEGMENT_FILE_SUFFIX));
+    }
+
+    /**
+     * Input stream that counts the bytes that have been read from the underlying stream
+     */
+    private static class CountingInputStream extends BufferedInputStream
+    {
+        private long mCount;
+
+        public CountingInputStream(InputStream inputStream)
+        {
+            super(inputStream);
+        }
+
+        public long getCount()
+        {
+            return mCount;
+        }
+
+        @Override
+        public synchronized int read() throws IOException
+        {
+            int value = super.read();
+
+            if(value >= 0)
+            {
+                mCount++;
+            }
+
+            return value;
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) throws IOException
+        {
+            int read = super.read(bytes, offset, length);
+
+            if(read > 0)
+            {
+                mCount += read;
+            }
+
+            return read;
+        }
+    }
+}
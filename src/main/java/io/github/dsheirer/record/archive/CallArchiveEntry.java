@@ -0,0 +1,232 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.record.archive;
+
+import io.github.dsheirer.record.RecordFormat;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Index entry for a single call stored in a call archive segment file.
+ */
+public class CallArchiveEntry
+{
+    private long mTimestamp;
+    private long mDuration;
+    private String mSystem;
+    private String mSite;
+    private String mTalkgroup;
+    private String mRadio;
+    private String mName;
+    private RecordFormat mRecordFormat;
+    private int mSegment;
+    private long mOffset;
+    private int mLength;
+
+    /**
+     * Constructs an instance
+     * @param timestamp for the start of the call in milliseconds
+     * @param duration of the call in milliseconds
+     * @param system name or null
+     * @param site name or null
+     * @param talkgroup value or null
+     * @param radio value or null
+     * @param name to use for the recording when exported
+     * @param recordFormat of the stored call audio
+     * @param segment number of the archive segment file containing the call
+     * @param offset of the call audio within the segment file
+     * @param length of the call audio in bytes
+     */
+    public CallArchiveEntry(long timestamp, long duration, String system, String site, String talkgroup, String radio,
+                            String name, RecordFormat recordFormat, int segment, long offset, int length)
+    {
+        mTimestamp = timestamp;
+        mDuration = duration;
+        mSystem = system;
+        mSite = site;
+        mTalkgroup = talkgroup;
+        mRadio = radio;
+        mName = name;
+        mRecordFormat = recordFormat;
+        mSegment = segment;
+        mOffset = offset;
+        mLength = length;
+    }
+
+    /**
+     * Start time of the call in milliseconds
+     */
+    public long getTimestamp()
+    {
+        return mTimestamp;
+    }
+
+    /**
+     * Duration of the call in milliseconds
+     */
+    public long getDuration()
+    {
+        return mDuration;
+    }
+
+    /**
+     * System name or null
+     */
+    public String getSystem()
+    {
+        return mSystem;
+    }
+
+    /**
+     * Site name or null
+     */
+    public String getSite()
+    {
+        return mSite;
+    }
+
+    /**
+     * Talkgroup (TO) value or null
+     */
+    public String getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    /**
+     * Radio (FROM) value or null
+     */
+    public String getRadio()
+    {
+        return mRadio;
+    }
+
+    /**
+     * Recording name, without file extension
+     */
+    public String getName()
+    {
+        return mName;
+    }
+
+    /**
+     * Format of the stored call audio
+     */
+    public RecordFormat getRecordFormat()
+    {
+        return mRecordFormat;
+    }
+
+    /**
+     * Archive segment file number that contains the call audio
+     */
+    public int getSegment()
+    {
+        return mSegment;
+    }
+
+    /**
+     * Byte offset of the call audio within the segment file
+     */
+    public long getOffset()
+    {
+        return mOffset;
+    }
+
+    /**
+     * Length of the call audio in bytes
+     */
+    public int getLength()
+    {
+        return mLength;
+    }
+
+    /**
+     * Writes this entry to the index stream
+     */
+    void write(DataOutputStream outputStream) throws IOException
+    {
+        outputStream.writeLong(mTimestamp);
+        outputStream.writeLong(mDuration);
+        writeString(outputStream, mSystem);
+        writeString(outputStream, mSite);
+        writeString(outputStream, mTalkgroup);
+        writeString(outputStream, mRadio);
+        writeString(outputStream, mName);
+        outputStream.writeByte(mRecordFormat.ordinal());
+        outputStream.writeInt(mSegment);
+        outputStream.writeLong(mOffset);
+        outputStream.writeInt(mLength);
+    }
+
+    /**
+     * Reads an entry from the index stream
+     * @throws java.io.EOFException if the stream ends before a complete entry is read
+     */
+    static CallArchiveEntry read(DataInputStream inputStream) throws IOException
+    {
+        long timestamp = inputStream.readLong();
+        long duration = inputStream.readLong();
+        String system = readString(inputStream);
+        String site = readString(inputStream);
+        String talkgroup = readString(inputStream);
+        String radio = readString(inputStream);
+        String name = readString(inputStream);
+        int format = inputStream.readUnsignedByte();
+
+        if(format >= RecordFormat.values().length)
+        {
+            throw new IOException("Unrecognized call archive record format [" + format + "]");
+        }
+
+        int segment = inputStream.readInt();
+        long offset = inputStream.readLong();
+        int length = inputStream.readInt();
+
+        return new CallArchiveEntry(timestamp, duration, system, site, talkgroup, radio, name,
+            RecordFormat.values()[format], segment, offset, length);
+    }
+
+    private static void writeString(DataOutputStream outputStream, String value) throws IOException
+    {
+        outputStream.writeBoolean(value != null);
+
+        if(value != null)
+        {
+            outputStream.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream inputStream) throws IOException
+    {
+        return inputStream.readBoolean() ? inputStream.readUTF() : null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return mName + " [segment:" + mSegment + " offset:" + mOffset + " length:" + mLength + "]";
+    }
+}
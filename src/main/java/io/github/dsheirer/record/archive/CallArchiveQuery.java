@@ -0,0 +1,147 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.record.archive;
+
+/**
+ * Query criteria for selecting calls from a call archive.  Criteria that are not set match any call.
+ */
+public class CallArchiveQuery
+{
+    private long mStart = Long.MIN_VALUE;
+    private long mEnd = Long.MAX_VALUE;
+    private String mSystem;
+    private String mSite;
+    private String mTalkgroup;
+    private String mRadio;
+
+    /**
+     * Constructs an empty query that matches all calls
+     */
+    public CallArchiveQuery()
+    {
+    }
+
+    /**
+     * Limits the query to calls that started within the time range
+     * @param start time in milliseconds, inclusive
+     * @param end time in milliseconds, inclusive
+     * @return this query
+     */
+    public CallArchiveQuery timeRange(long start, long end)
+    {
+        mStart = start;
+        mEnd = end;
+        return this;
+    }
+
+    /**
+     * Limits the query to calls from the named system
+     */
+    public CallArchiveQuery system(String system)
+    {
+        mSystem = system;
+        return this;
+    }
+
+    /**
+     * Limits the query to calls from the named site
+     */
+    public CallArchiveQuery site(String site)
+    {
+        mSite = site;
+        return this;
+    }
+
+    /**
+     * Limits the query to calls to the talkgroup
+     */
+    public CallArchiveQuery talkgroup(String talkgroup)
+    {
+        mTalkgroup = talkgroup;
+        return this;
+    }
+
+    /**
+     * Limits the query to calls from the radio
+     */
+    public CallArchiveQuery radio(String radio)
+    {
+        mRadio = radio;
+        return this;
+    }
+
+    public long getStart()
+    {
+        return mStart;
+    }
+
+    public long getEnd()
+    {
+        return mEnd;
+    }
+
+    public String getSystem()
+    {
+        return mSystem;
+    }
+
+    public String getSite()
+    {
+        return mSite;
+    }
+
+    public String getTalkgroup()
+    {
+        return mTalkgroup;
+    }
+
+    public String getRadio()
+    {
+        return mRadio;
+    }
+
+    /**
+     * Indicates if this query limits the time range of matching calls
+     */
+    public boolean hasTimeRange()
+    {
+        return mStart != Long.MIN_VALUE || mEnd != Long.MAX_VALUE;
+    }
+
+    /**
+     * Indicates if the entry matches all of the criteria of this query
+     */
+    public boolean matches(CallArchiveEntry entry)
+    {
+        return mStart <= entry.getTimestamp() && entry.getTimestamp() <= mEnd &&
+            matches(mSystem, entry.getSystem()) &&
+            matches(mSite, entry.getSite()) &&
+            matches(mTalkgroup, entry.getTalkgroup()) &&
+            matches(mRadio, entry.getRadio());
+    }
+
+    private static boolean matches(String criteria, String value)
+    {
+        return criteria == null || criteria.equals(value);
+    }
+}
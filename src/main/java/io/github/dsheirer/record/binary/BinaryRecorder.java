@@ -25,6 +25,7 @@ import io.github.dsheirer.protocol.Protocol;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableByteBufferListener;
 import io.github.dsheirer.sample.buffer.ReusableByteBuffer;
+import io.github.dsheirer.sample.queue.QueueType;
 import io.github.dsheirer.util.StringUtils;
 import io.github.dsheirer.util.TimeStamp;
 import org.slf4j.Logger;
@@ -54,7 +55,7 @@ public class BinaryRecorder extends Module implements IReusableByteBufferListene
     private static final int MAX_RECORDING_BYTE_SIZE = 524288;  //500 kB
 
     private ContinuousReusableBufferProcessor<ReusableByteBuffer> mBufferProcessor =
-        new ContinuousReusableBufferProcessor<>(500, 50);
+        new ContinuousReusableBufferProcessor<>(500, 50, QueueType.MPSC);
 
     private AtomicBoolean mRunning = new AtomicBoolean();
     private Path mBaseRecordingPath;
@@ -0,0 +1,90 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.record.timeshift;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Native I/Q sample formats that can be stored in a time-shift buffer without conversion to floating point.
+ */
+public enum NativeSampleFormat
+{
+    /**
+     * Interleaved unsigned 8-bit I/Q samples (e.g. RTL-2832).  Stored and written to wave files unmodified.
+     */
+    UNSIGNED_8(1, false),
+
+    /**
+     * Interleaved signed 8-bit I/Q samples (e.g. HackRF).  Wave files only support unsigned 8-bit samples, so the
+     * samples are offset by 128 when they are written to a wave file.
+     */
+    SIGNED_8(1, true),
+
+    /**
+     * Interleaved signed 16-bit little-endian I/Q samples.  Used for tuners that don't produce native I/Q samples.
+     * Complex sample buffers are quantized to this format.
+     */
+    SIGNED_16(2, true);
+
+    private int mBytesPerSample;
+    private boolean mSigned;
+
+    NativeSampleFormat(int bytesPerSample, boolean signed)
+    {
+        mBytesPerSample = bytesPerSample;
+        mSigned = signed;
+    }
+
+    /**
+     * Number of bytes for each I or Q sample
+     */
+    public int getBytesPerSample()
+    {
+        return mBytesPerSample;
+    }
+
+    /**
+     * Number of bytes for each complex I/Q sample pair
+     */
+    public int getFrameSize()
+    {
+        return mBytesPerSample * 2;
+    }
+
+    /**
+     * Indicates if samples must be converted when they are written to a wave file
+     */
+    public boolean requiresWaveConversion()
+    {
+        return this == SIGNED_8;
+    }
+
+    /**
+     * Two channel (I/Q) wave file audio format for this sample format at the specified sample rate
+     */
+    public AudioFormat getWaveAudioFormat(double sampleRate)
+    {
+        //8-bit wave samples are unsigned and 16-bit wave samples are signed
+        return new AudioFormat((float)sampleRate, mBytesPerSample * 8, 2, mBytesPerSample == 2, false);
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.record.timeshift;
+
+import io.github.dsheirer.record.wave.WaveWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Off-heap ring buffer that holds the most recent samples produced by a tuner in the tuner's native sample format.
+ *
+ * The buffer is allocated once in direct (native) memory, so it doesn't add to heap usage or garbage collection
+ * pressure regardless of its size.  Native sample buffers are copied into the ring with bulk copies and complex
+ * sample buffers from tuners that don't have a native I/Q format are quantized to 16-bit samples as they are written.
+ *
+ * The buffer supports a single writer thread.  A capture can run concurrently with the writer, since the writer only
+ * overwrites the oldest samples.  The capture copies the buffered samples in large chunks to a native staging buffer
+ * and writes each chunk to a wave file with a single sequential write.  A capture that can't keep pace with the
+ * writer stops early rather than writing samples that were overwritten while they were being copied.
+ */
+public class TimeShiftBuffer
+{
+    private final static Logger mLog = LoggerFactory.getLogger(TimeShiftBuffer.class);
+
+    /**
+     * Maximum buffer size in bytes
+     */
+    public static final int MAXIMUM_CAPACITY = 1 << 30;
+    private static final int CAPTURE_CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private NativeSampleFormat mNativeSampleFormat;
+    private double mSampleRate;
+    private ByteBuffer mBuffer;
+    private ByteBuffer mWriteView;
+    private int mCapacity;
+    private volatile long mWritten;
+    private volatile int mMaximumWriteLength;
+
+    /**
+     * Constructs an instance
+     * @param nativeSampleFormat of the samples
+     * @param sampleRate of the samples
+     * @param durationSeconds of samples to retain
+     */
+    public TimeShiftBuffer(NativeSampleFormat nativeSampleFormat, double sampleRate, int durationSeconds)
+    {
+        if(sampleRate <= 0 || durationSeconds <= 0)
+        {
+            throw new IllegalArgumentException("Sample rate and duration must be positive values");
+        }
+
+        mNativeSampleFormat = nativeSampleFormat;
+        mSampleRate = sampleRate;
+
+        int frameSize = nativeSampleFormat.getFrameSize();
+        long capacity = (long)(sampleRate * durationSeconds) * frameSize;
+
+        if(capacity > MAXIMUM_CAPACITY)
+        {
+            mLog.warn("Time-shift buffer of [" + durationSeconds + "] seconds at sample rate [" + sampleRate +
+                "] exceeds the maximum buffer size - limiting to [" + (MAXIMUM_CAPACITY / frameSize / sampleRate) +
+                "] seconds");
+            capacity = MAXIMUM_CAPACITY;
+        }
+
+        mCapacity = (int)(capacity - (capacity % frameSize));
+        mBuffer = ByteBuffer.allocateDirect(mCapacity).order(ByteOrder.LITTLE_ENDIAN);
+        mWriteView = mBuffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Native sample format of the buffered samples
+     */
+    public NativeSampleFormat getNativeSampleFormat()
+    {
+        return mNativeSampleFormat;
+    }
+
+    /**
+     * Sample rate of the buffered samples
+     */
+    public double getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Buffer size in bytes
+     */
+    public int getCapacity()
+    {
+        return mCapacity;
+    }
+
+    /**
+     * Duration of the samples currently held in the buffer
+     * @return duration in milliseconds
+     */
+    public long getBufferedDuration()
+    {
+        long bytes = Math.min(mWritten, mCapacity);
+        return (long)(bytes / mNativeSampleFormat.getFrameSize() / mSampleRate * 1000.0);
+    }
+
+    /**
+     * Writes native samples to the buffer, overwriting the oldest samples.
+     *
+     * @param samples containing native interleaved I/Q samples starting at index 0.  The position and limit of the
+     * samples buffer are not modified.
+     * @param length of the samples in bytes
+     */
+    public void write(ByteBuffer samples, int length)
+    {
+        length -= length % mNativeSampleFormat.getFrameSize();
+
+        if(length <= 0)
+        {
+            return;
+        }
+
+        //Only the most recent samples are retained if the samples are larger than the buffer
+        int skip = Math.max(0, length - mCapacity);
+        int toWrite = length - skip;
+        int offset = (int)((mWritten + skip) % mCapacity);
+        int firstLength = Math.min(toWrite, mCapacity - offset);
+
+        ByteBuffer source = samples.duplicate();
+        source.clear();
+        source.position(skip).limit(skip + firstLength);
+        mWriteView.clear();
+        mWriteView.position(offset);
+        mWriteView.put(source);
+
+        if(firstLength < toWrite)
+        {
+            source.limit(skip + toWrite);
+            mWriteView.clear();
+            mWriteView.put(source);
+        }
+
+        updateMaximumWriteLength(toWrite);
+        mWritten += length;
+    }
+
+    /**
+     * Quantizes interleaved complex float samples to 16-bit samples and writes them to the buffer, overwriting the
+     * oldest samples.  Only valid for buffers with the signed 16-bit sample format.
+     *
+     * @param samples containing interleaved I/Q samples in the range -1.0 to 1.0
+     */
+    public void write(float[] samples)
+    {
+        int offset = (int)(mWritten % mCapacity);
+        int length = samples.length - (samples.length % 2);
+
+        for(int x = 0; x < length; x++)
+        {
+            float sample = samples[x];
+
+            if(sample > 1.0f)
+            {
+                sample = 1.0f;
+            }
+            else if(sample < -1.0f)
+            {
+                sample = -1.0f;
+            }
+
+            mBuffer.putShort(offset, (short)(sample * Short.MAX_VALUE));
+            offset += 2;
+
+            if(offset == mCapacity)
+            {
+                offset = 0;
+            }
+        }
+
+        updateMaximumWriteLength(length * 2);
+        mWritten += length * 2;
+    }
+
+    /**
+     * Tracks the largest single write.  A write in progress modifies up to this many bytes beyond the oldest samples
+     * before the write position is updated.
+     */
+    private void updateMaximumWriteLength(int length)
+    {
+        if(length > mMaximumWriteLength)
+        {
+            mMaximumWriteLength = length;
+        }
+    }
+
+    /**
+     * Writes the currently buffered samples to a wave file.
+     *
+     * @param file for the wave recording
+     * @return duration of the captured samples in milliseconds
+     * @throws IOException if there is an error writing the file
+     */
+    public long capture(Path file) throws IOException
+    {
+        long end = mWritten;
+
+        //Skip the oldest samples that a write in progress may be overwriting
+        long start = Math.max(0, end - mCapacity + mMaximumWriteLength);
+        start -= start % mNativeSampleFormat.getFrameSize();
+        long position = start;
+
+        Path temporary = Paths.get(file.toString() + ".tmp");
+        WaveWriter writer = new WaveWriter(mNativeSampleFormat.getWaveAudioFormat(mSampleRate), temporary);
+
+        ByteBuffer chunkBuffer = ByteBuffer.allocateDirect(Math.min(CAPTURE_CHUNK_SIZE, mCapacity));
+
+        try
+        {
+            while(position < end)
+            {
+                int offset = (int)(position % mCapacity);
+                int length = (int)Math.min(Math.min(chunkBuffer.capacity(), end - position), mCapacity - offset);
+
+                ByteBuffer source = mBuffer.duplicate();
+                source.position(offset).limit(offset + length);
+                chunkBuffer.clear();
+
+                if(mNativeSampleFormat.requiresWaveConversion())
+                {
+                    //Convert signed 8-bit samples to unsigned 8-bit wave samples
+                    for(int x = 0; x < length; x++)
+                    {
+                        chunkBuffer.put((byte)(source.get() ^ 0x80));
+                    }
+                }
+                else
+                {
+                    chunkBuffer.put(source);
+                }
+
+                //The writer overwrites the oldest samples.  If the writer moved past the start of this chunk while it
+                //was copied, the chunk contents are no longer consistent.
+                if(mWritten + mMaximumWriteLength - mCapacity > position)
+                {
+                    mLog.warn("Time-shift capture overrun - capture stopped after [" + (position - start) + "] bytes");
+                    break;
+                }
+
+                chunkBuffer.flip();
+                writer.writeData(chunkBuffer.slice());
+                position += length;
+            }
+        }
+        finally
+        {
+            writer.close(file);
+        }
+
+        return (long)((position - start) / mNativeSampleFormat.getFrameSize() / mSampleRate * 1000.0);
+    }
+}
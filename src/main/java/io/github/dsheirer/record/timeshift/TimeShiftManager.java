@@ -0,0 +1,277 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.record.timeshift;
+
+import com.google.common.eventbus.Subscribe;
+import io.github.dsheirer.eventbus.MyEventBus;
+import io.github.dsheirer.module.decode.event.DecodeEventType;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.preference.PreferenceType;
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.preference.record.RecordPreference;
+import io.github.dsheirer.record.RecorderFactory;
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.TunerModel;
+import io.github.dsheirer.util.StringUtils;
+import io.github.dsheirer.util.ThreadPool;
+import io.github.dsheirer.util.TimeStamp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manages the tuner time-shift buffers and captures the buffered tuner I/Q samples to wave files when triggered.
+ *
+ * Each tuner continuously retains the most recent time-shift duration of samples when time-shift is enabled in the
+ * recording preferences.  A trigger (emergency decode event, alias action, or user request) schedules a capture of
+ * every tuner's buffer after the configured post-trigger delay, so that each capture contains the samples leading up
+ * to the trigger and a few seconds after it.  Triggers that arrive while a capture is pending are coalesced into the
+ * pending capture, and a trigger that arrives shortly after a capture is deferred until the buffer holds only samples
+ * that were not in the previous capture.
+ */
+public class TimeShiftManager implements Listener<IDecodeEvent>
+{
+    private final static Logger mLog = LoggerFactory.getLogger(TimeShiftManager.class);
+    private static TimeShiftManager sInstance;
+
+    private UserPreferences mUserPreferences;
+    private TunerModel mTunerModel;
+    private Set<IDecodeEvent> mTriggeringEvents = Collections.newSetFromMap(new WeakHashMap<>());
+    private boolean mCapturePending;
+    private long mLastCaptureTimestamp;
+
+    /**
+     * Constructs an instance.  Use getInstance() for the application manager.
+     */
+    TimeShiftManager()
+    {
+    }
+
+    /**
+     * Application time-shift manager
+     */
+    public static synchronized TimeShiftManager getInstance()
+    {
+        if(sInstance == null)
+        {
+            sInstance = new TimeShiftManager();
+        }
+
+        return sInstance;
+    }
+
+    /**
+     * Sets the user preferences and tuner model, applies the time-shift preferences to each tuner and registers to
+     * receive preference updates and tuner additions.
+     *
+     * @param userPreferences for recording settings and directory
+     * @param tunerModel containing the tuners
+     */
+    public void initialize(UserPreferences userPreferences, TunerModel tunerModel)
+    {
+        mUserPreferences = userPreferences;
+        mTunerModel = tunerModel;
+        mTunerModel.addTableModelListener(e -> applyPreferences());
+        MyEventBus.getGlobalEventBus().register(this);
+        applyPreferences();
+    }
+
+    /**
+     * Receives preference update notifications from the Guava event bus and updates the tuner time-shift buffers
+     */
+    @Subscribe
+    public void preferenceUpdated(PreferenceType preferenceType)
+    {
+        if(preferenceType == PreferenceType.RECORD)
+        {
+            applyPreferences();
+        }
+    }
+
+    private RecordPreference getRecordPreference()
+    {
+        return mUserPreferences != null ? mUserPreferences.getRecordPreference() : null;
+    }
+
+    /**
+     * Indicates if time-shift buffering is enabled
+     */
+    public boolean isEnabled()
+    {
+        RecordPreference preference = getRecordPreference();
+        return preference != null && preference.isTimeShiftEnabled();
+    }
+
+    /**
+     * Enables, resizes or disables the time-shift buffer for each tuner according to the recording preference.
+     */
+    private void applyPreferences()
+    {
+        if(mTunerModel == null)
+        {
+            return;
+        }
+
+        int duration = isEnabled() ? getRecordPreference().getTimeShiftDuration() : 0;
+
+        for(Tuner tuner: mTunerModel.getTuners())
+        {
+            tuner.getTunerController().setTimeShiftDuration(duration);
+        }
+    }
+
+    /**
+     * Processes decode events and triggers a capture for emergency events when the emergency trigger is enabled.
+     * Each event triggers at most once, even though the event may be updated several times over its lifetime.
+     */
+    @Override
+    public void receive(IDecodeEvent decodeEvent)
+    {
+        if(isEnabled() && getRecordPreference().isTimeShiftEmergencyTrigger() && isEmergency(decodeEvent))
+        {
+            boolean triggered;
+
+            synchronized(mTriggeringEvents)
+            {
+                triggered = mTriggeringEvents.add(decodeEvent);
+            }
+
+            if(triggered)
+            {
+                capture("emergency event [" + decodeEvent.getEventDescription() + "]");
+            }
+        }
+    }
+
+    /**
+     * Indicates if the decode event is an emergency event or is flagged as an emergency by the radio or system
+     */
+    private static boolean isEmergency(IDecodeEvent decodeEvent)
+    {
+        return decodeEvent.isEmergency() ||
+            DecodeEventType.EMERGENCY.getLabel().equals(decodeEvent.getEventDescription());
+    }
+
+    /**
+     * Schedules a capture of all tuner time-shift buffers after the post-trigger delay.  The request is ignored when
+     * time-shift is disabled and is coalesced with a capture that is already pending.
+     *
+     * @param reason for the capture, used for logging
+     */
+    public synchronized void capture(String reason)
+    {
+        if(!isEnabled())
+        {
+            return;
+        }
+
+        if(mCapturePending)
+        {
+            mLog.info("Time-shift capture already pending - including trigger: " + reason);
+            return;
+        }
+
+        RecordPreference preference = getRecordPreference();
+        long now = System.currentTimeMillis();
+        int duration = preference.getTimeShiftDuration();
+        int postTrigger = Math.min(preference.getTimeShiftPostTrigger(), duration);
+        long captureTimestamp = Math.max(now + TimeUnit.SECONDS.toMillis(postTrigger),
+            mLastCaptureTimestamp + TimeUnit.SECONDS.toMillis(duration));
+
+        mCapturePending = true;
+        mLog.info("Time-shift capture scheduled in " + (captureTimestamp - now) + " ms - trigger: " + reason);
+
+        ThreadPool.SCHEDULED.schedule(this::captureAll, captureTimestamp - now, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Captures the time-shift buffers of all tuners.
+     */
+    private void captureAll()
+    {
+        synchronized(this)
+        {
+            mCapturePending = false;
+            mLastCaptureTimestamp = System.currentTimeMillis();
+        }
+
+        if(mTunerModel != null)
+        {
+            for(Tuner tuner: mTunerModel.getTuners())
+            {
+                capture(tuner.getTunerController());
+            }
+        }
+    }
+
+    /**
+     * Immediately captures the time-shift buffer of the tuner controller.
+     *
+     * @param tunerController to capture
+     * @param reason for the capture, used for logging
+     * @return true if the capture was successful
+     */
+    public boolean capture(TunerController tunerController, String reason)
+    {
+        mLog.info("Time-shift capture requested - trigger: " + reason);
+        return capture(tunerController);
+    }
+
+    private boolean capture(TunerController tunerController)
+    {
+        if(mUserPreferences == null || !tunerController.hasTimeShiftBuffer())
+        {
+            return false;
+        }
+
+        Path directory = RecorderFactory.getRecordingBasePath(mUserPreferences);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(TimeStamp.getTimeStamp("_"));
+        sb.append("_TUNER_").append(tunerController.getFrequency()).append("_timeshift.wav");
+        Path file = directory.resolve(StringUtils.replaceIllegalCharacters(sb.toString()));
+
+        try
+        {
+            Files.createDirectories(directory);
+            long duration = tunerController.captureTimeShift(file);
+            mLog.info("Time-shift capture [" + duration + " ms] written to: " + file);
+            return true;
+        }
+        catch(IOException ioe)
+        {
+            mLog.error("Error writing time-shift capture to: " + file, ioe);
+        }
+
+        return false;
+    }
+}
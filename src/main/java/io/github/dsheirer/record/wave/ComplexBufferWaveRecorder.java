@@ -21,6 +21,7 @@ import io.github.dsheirer.sample.ConversionUtils;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableComplexBufferListener;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.queue.QueueType;
 import io.github.dsheirer.source.ISourceEventListener;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.util.ThreadPool;
@@ -45,7 +46,7 @@ public class ComplexBufferWaveRecorder extends Module implements IReusableComple
     private final static Logger mLog = LoggerFactory.getLogger(ComplexBufferWaveRecorder.class);
 
     private ContinuousReusableBufferProcessor<ReusableComplexBuffer> mBufferProcessor =
-        new ContinuousReusableBufferProcessor<>(500, 50);
+        new ContinuousReusableBufferProcessor<>(500, 50, QueueType.MPSC);
 
     private AtomicBoolean mRunning = new AtomicBoolean();
     private ReusableBufferWaveWriter mWriter;
@@ -18,14 +18,17 @@
  ******************************************************************************/
 package io.github.dsheirer.sample;
 
+import io.github.dsheirer.sample.queue.IQueue;
+import io.github.dsheirer.sample.queue.LinkedQueue;
+import io.github.dsheirer.sample.queue.MpscRingBuffer;
+import io.github.dsheirer.sample.queue.QueueType;
+import io.github.dsheirer.sample.queue.SpscRingBuffer;
 import io.github.dsheirer.source.Source;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
-import java.util.concurrent.LinkedTransferQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class OverflowableTransferQueue<E>
 {
@@ -35,8 +38,7 @@ public class OverflowableTransferQueue<E>
     private IOverflowListener mOverflowListener;
     private Source mSourceOverflowListener;
 
-    protected LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<E>();
-    protected AtomicInteger mCounter = new AtomicInteger();
+    protected IQueue<E> mQueue;
     protected AtomicBoolean mOverflow = new AtomicBoolean();
     private int mMaximumSize;
     private int mResetThreshold;
@@ -50,9 +52,38 @@ public class OverflowableTransferQueue<E>
      * @param resetThreshold for resetting overflow state to normal, once queue size is at or below this value.
      */
     public OverflowableTransferQueue(int maximumSize, int resetThreshold)
+    {
+        this(maximumSize, resetThreshold, QueueType.LINKED);
+    }
+
+    /**
+     * Concurrent transfer queue that uses the specified queue type for storage.  Ring buffer queue types are
+     * preallocated with capacity for the maximum size plus one element, which is the size that triggers overflow.
+     * When the queue size exceeds maximum size (overflow), all inbound elements are ignored until the queue size is
+     * reduced to or below the reset threshold.
+     *
+     * @param maximumSize of the queue.  Overflow state will occur once queue size exceeds this value.
+     * @param resetThreshold for resetting overflow state to normal, once queue size is at or below this value.
+     * @param queueType for the queue storage.  Use SPSC only when elements are offered by a single thread at a time.
+     */
+    public OverflowableTransferQueue(int maximumSize, int resetThreshold, QueueType queueType)
     {
         mMaximumSize = maximumSize;
         mResetThreshold = resetThreshold;
+
+        switch(queueType)
+        {
+            case SPSC:
+                mQueue = new SpscRingBuffer<>(maximumSize + 1);
+                break;
+            case MPSC:
+                mQueue = new MpscRingBuffer<>(maximumSize + 1);
+                break;
+            case LINKED:
+            default:
+                mQueue = new LinkedQueue<>();
+                break;
+        }
     }
 
     public void dispose()
@@ -70,11 +101,13 @@ public class OverflowableTransferQueue<E>
     {
         if(!mOverflow.get())
         {
-            mQueue.offer(e);
-
-            int size = mCounter.incrementAndGet();
-
-            if(size > mMaximumSize)
+            if(!mQueue.offer(e))
+            {
+                //Ring buffer is full - concurrent producers offered beyond the maximum size
+                setOverflow(true);
+                overflow(e);
+            }
+            else if(mQueue.size() > mMaximumSize)
             {
                 setOverflow(true);
             }
@@ -101,14 +134,7 @@ public class OverflowableTransferQueue<E>
      */
     public E poll()
     {
-        E element = mQueue.poll();
-
-        if(element != null)
-        {
-            mCounter.decrementAndGet();
-        }
-
-        return element;
+        return mQueue.poll();
     }
 
     /**
@@ -118,9 +144,7 @@ public class OverflowableTransferQueue<E>
     {
         int drainCount = mQueue.drainTo(collection, maxElements);
 
-        int size = mCounter.addAndGet(-drainCount);
-
-        if(mOverflow.get() && size <= mResetThreshold)
+        if(mOverflow.get() && mQueue.size() <= mResetThreshold)
         {
             setOverflow(false);
         }
@@ -129,20 +153,19 @@ public class OverflowableTransferQueue<E>
     }
 
     /**
-     * Retrieves elements from the queue into the collection up to the maximum number of elements specified
+     * Retrieves all elements from the queue into the collection
      */
     public int drainTo(Collection<? super E> collection)
     {
-        int drainCount = mQueue.drainTo(collection);
-
-        int size = mCounter.addAndGet(-drainCount);
-
-        if(mOverflow.get() && size <= mResetThreshold)
-        {
-            setOverflow(false);
-        }
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
 
-        return drainCount;
+    /**
+     * Current number of elements in the queue
+     */
+    public int size()
+    {
+        return mQueue.size();
     }
 
     /**
@@ -182,14 +205,13 @@ public class OverflowableTransferQueue<E>
     }
 
     /**
-     * Clears all elements from the queue and resets the internal counter to 0
+     * Clears all elements from the queue and resets the overflow state
      */
     public void clear()
     {
         synchronized(mQueue)
         {
             mQueue.clear();
-            mCounter.set(0);
             mOverflow.set(false);
         }
     }
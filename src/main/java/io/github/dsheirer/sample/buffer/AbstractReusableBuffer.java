@@ -27,6 +27,7 @@ public abstract class AbstractReusableBuffer
     protected IReusableBufferDisposedListener mBufferDisposedListener;
     protected long mTimestamp;
     protected AtomicInteger mUserCount = new AtomicInteger();
+    private ReusableBufferLeakDetector.LeakTracker mLeakTracker;
     private String mDebugName;
 
     public AbstractReusableBuffer(IReusableBufferDisposedListener bufferDisposedListener, long timestamp)
@@ -91,33 +92,51 @@ public abstract class AbstractReusableBuffer
      * indicate that they have finished processing the buffer so that when the user count reaches zero, this buffer
      * can be reused.
      *
-     * This method is thread-safe.
+     * This method is thread-safe and lock-free.  Only the user that decrements the count to zero recycles the buffer.
      */
-    public synchronized void decrementUserCount()
+    public void decrementUserCount()
     {
-        if(mUserCount.decrementAndGet() <= 0)
+        int userCount = mUserCount.decrementAndGet();
+
+        if(userCount == 0)
         {
             recycle();
         }
+        else if(userCount < 0)
+        {
+            mUserCount.compareAndSet(userCount, 0);
+            throw new IllegalStateException("User count is below zero.  This indicates that this buffer's decrement" +
+                " user count was invoked by more than the expected user count");
+        }
     }
 
     /**
-     * Sends this buffer back to the owning buffer queue for reuse
+     * Sets the leak tracker for this buffer when it is sampled for leak detection upon acquisition.
+     * @param leakTracker to close when this buffer is recycled, or null
      */
-    private synchronized void recycle()
+    void setLeakTracker(ReusableBufferLeakDetector.LeakTracker leakTracker)
     {
-        prepareForRecycle();
+        mLeakTracker = leakTracker;
+    }
 
-        if(mBufferDisposedListener != null)
+    /**
+     * Sends this buffer back to the owning buffer queue for reuse
+     */
+    private void recycle()
+    {
+        if(mLeakTracker != null)
         {
-            mBufferDisposedListener.disposed(this);
+            mLeakTracker.close();
+            mLeakTracker = null;
         }
 
-        if(mUserCount.get() < 0)
+        prepareForRecycle();
+
+        IReusableBufferDisposedListener listener = mBufferDisposedListener;
+
+        if(listener != null)
         {
-            mUserCount.set(0);
-            throw new IllegalStateException("User count is below zero.  This indicates that this buffer's decrement" +
-                " user count was invoked by more than the expected user count");
+            listener.disposed(this);
         }
     }
 
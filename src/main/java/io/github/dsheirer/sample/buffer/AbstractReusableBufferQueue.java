@@ -19,14 +19,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Queue;
-import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuffer>
         implements IReusableBufferDisposedListener<T>
 {
     private final static Logger mLog = LoggerFactory.getLogger(AbstractReusableBufferQueue.class);
 
-    private Queue<T> mReusableBufferQueue = new LinkedTransferQueue<>();
+    //Maximum number of idle buffers retained for reuse.  Excess buffers are disposed and their sample arrays are
+    //returned to the shared ReusableBufferPool.  Override at startup with -Dsdrtrunk.buffer.maximum.recycled=N
+    public static final String MAXIMUM_RECYCLED_BUFFERS_PROPERTY = "sdrtrunk.buffer.maximum.recycled";
+    public static final int DEFAULT_MAXIMUM_RECYCLED_BUFFERS = 64;
+    private static final int MAXIMUM_RECYCLED_BUFFERS =
+        Math.max(0, Integer.getInteger(MAXIMUM_RECYCLED_BUFFERS_PROPERTY, DEFAULT_MAXIMUM_RECYCLED_BUFFERS));
+
+    private Queue<T> mReusableBufferQueue = new ConcurrentLinkedQueue<>();
+    private AtomicInteger mRecycledBufferCount = new AtomicInteger();
     private int mBufferCount = 0;
     private String mDebugName;
 
@@ -55,12 +64,12 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
      */
     public void dispose()
     {
-        T buffer = mReusableBufferQueue.poll();
+        T buffer = getRecycledBuffer();
 
         while(buffer != null)
         {
             buffer.dispose();
-            buffer = mReusableBufferQueue.poll();
+            buffer = getRecycledBuffer();
         }
 
         mBufferCount = 0;
@@ -75,7 +84,15 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
     @Override
     public void disposed(T reusableBuffer)
     {
-        mReusableBufferQueue.offer(reusableBuffer);
+        if(mRecycledBufferCount.incrementAndGet() <= MAXIMUM_RECYCLED_BUFFERS)
+        {
+            mReusableBufferQueue.offer(reusableBuffer);
+        }
+        else
+        {
+            mRecycledBufferCount.decrementAndGet();
+            reusableBuffer.dispose();
+        }
     }
 
     /**
@@ -83,7 +100,28 @@ public abstract class AbstractReusableBufferQueue<T extends AbstractReusableBuff
      */
     protected T getRecycledBuffer()
     {
-        return mReusableBufferQueue.poll();
+        T buffer = mReusableBufferQueue.poll();
+
+        if(buffer != null)
+        {
+            mRecycledBufferCount.decrementAndGet();
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Registers the buffer with the shared leak detector when leak detection is enabled.  Buffer queue
+     * implementations should invoke this method on each buffer that is handed out to a user.
+     *
+     * @param buffer that is being handed out
+     */
+    protected void track(T buffer)
+    {
+        if(ReusableBufferPool.LEAK_DETECTOR.isEnabled())
+        {
+            buffer.setLeakTracker(ReusableBufferPool.LEAK_DETECTOR.track(buffer, getDebugName()));
+        }
     }
 
     /**
@@ -0,0 +1,51 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.sample.buffer;
+
+/**
+ * Size-classed pool of byte arrays
+ */
+public class ByteArrayPool extends SizeClassedArrayPool<byte[]>
+{
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * Constructs an instance
+     * @param classByteBudget maximum bytes retained by each size class
+     */
+    public ByteArrayPool(long classByteBudget)
+    {
+        super("Byte", Byte.BYTES, classByteBudget);
+    }
+
+    @Override
+    protected byte[] create(int length)
+    {
+        return length == 0 ? EMPTY : new byte[length];
+    }
+
+    @Override
+    protected int length(byte[] array)
+    {
+        return array.length;
+    }
+}
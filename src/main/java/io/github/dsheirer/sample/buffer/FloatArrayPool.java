@@ -0,0 +1,51 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.sample.buffer;
+
+/**
+ * Size-classed pool of float arrays
+ */
+public class FloatArrayPool extends SizeClassedArrayPool<float[]>
+{
+    private static final float[] EMPTY = new float[0];
+
+    /**
+     * Constructs an instance
+     * @param classByteBudget maximum bytes retained by each size class
+     */
+    public FloatArrayPool(long classByteBudget)
+    {
+        super("Float", Float.BYTES, classByteBudget);
+    }
+
+    @Override
+    protected float[] create(int length)
+    {
+        return length == 0 ? EMPTY : new float[length];
+    }
+
+    @Override
+    protected int length(float[] array)
+    {
+        return array.length;
+    }
+}
@@ -16,6 +16,7 @@
 package io.github.dsheirer.sample.buffer;
 
 import io.github.dsheirer.sample.OverflowableTransferQueue;
+import io.github.dsheirer.sample.queue.QueueType;
 
 public class OverflowableReusableBufferTransferQueue<T extends AbstractReusableBuffer> extends OverflowableTransferQueue<T>
 {
@@ -34,6 +35,18 @@ public class OverflowableReusableBufferTransferQueue<T extends AbstractReusableB
         super(maximumSize, resetThreshold);
     }
 
+    /**
+     * Concurrent transfer queue for reusable buffers using the specified queue type for storage.
+     *
+     * @param maximumSize of the queue.  Overflow state will occur once queue size exceeds this value.
+     * @param resetThreshold for resetting overflow state to normal, once queue size is at or below this value.
+     * @param queueType for the queue storage.  Use SPSC only when buffers are offered by a single thread at a time.
+     */
+    public OverflowableReusableBufferTransferQueue(int maximumSize, int resetThreshold, QueueType queueType)
+    {
+        super(maximumSize, resetThreshold, queueType);
+    }
+
     /**
      * Overrides the overflow method to decrement the user count on any buffers that are being discarded when the queue
      * is in an overflow state.
@@ -62,7 +75,6 @@ public class OverflowableReusableBufferTransferQueue<T extends AbstractReusableB
                 buffer = mQueue.poll();
             }
 
-            mCounter.set(0);
             mOverflow.set(false);
         }
     }
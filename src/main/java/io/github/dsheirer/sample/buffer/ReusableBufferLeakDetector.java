@@ -0,0 +1,231 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.sample.buffer;
+
+import io.github.dsheirer.sample.Broadcaster;
+import io.github.dsheirer.sample.Listener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling leak detector for reusable buffers.
+ *
+ * When enabled, one out of every N buffer acquisitions is tracked with a weak reference and a snapshot of the
+ * acquiring call stack.  The tracker is closed when the buffer's user count reaches zero and the buffer is recycled.
+ * A tracked buffer that is garbage collected while its tracker is still open was never recycled (ie leaked) and is
+ * logged along with the call site that acquired it.
+ *
+ * Detection is disabled by default since capturing the call stack is expensive.  The shared detector in
+ * ReusableBufferPool is enabled with the sdrtrunk.buffer.leak.sample.interval system property.
+ */
+public class ReusableBufferLeakDetector
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ReusableBufferLeakDetector.class);
+
+    private final ReferenceQueue<AbstractReusableBuffer> mReferenceQueue = new ReferenceQueue<>();
+    private final Set<LeakTracker> mOpenTrackers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong mAcquisitionCounter = new AtomicLong();
+    private final LongAdder mLeakCount = new LongAdder();
+    private final Broadcaster<Leak> mLeakBroadcaster = new Broadcaster<>();
+    private volatile int mSampleInterval;
+
+    /**
+     * Constructs an instance
+     *
+     * @param sampleInterval to track one of every N buffer acquisitions, or 0 to disable leak detection.
+     */
+    public ReusableBufferLeakDetector(int sampleInterval)
+    {
+        setSampleInterval(sampleInterval);
+    }
+
+    /**
+     * Constructs an instance with leak detection disabled.
+     */
+    public ReusableBufferLeakDetector()
+    {
+        this(0);
+    }
+
+    /**
+     * Sets the sampling interval.
+     *
+     * @param sampleInterval to track one of every N buffer acquisitions, 1 to track every acquisition, or 0 to
+     * disable leak detection.
+     */
+    public void setSampleInterval(int sampleInterval)
+    {
+        mSampleInterval = Math.max(0, sampleInterval);
+    }
+
+    /**
+     * Current sampling interval, where 0 indicates that leak detection is disabled
+     */
+    public int getSampleInterval()
+    {
+        return mSampleInterval;
+    }
+
+    /**
+     * Indicates if leak detection is enabled
+     */
+    public boolean isEnabled()
+    {
+        return mSampleInterval > 0;
+    }
+
+    /**
+     * Total count of leaked buffers detected since startup
+     */
+    public long getLeakCount()
+    {
+        return mLeakCount.sum();
+    }
+
+    /**
+     * Registers the listener to be notified of each detected leak
+     */
+    public void addLeakListener(Listener<Leak> listener)
+    {
+        mLeakBroadcaster.addListener(listener);
+    }
+
+    /**
+     * Unregisters the listener from being notified of detected leaks
+     */
+    public void removeLeakListener(Listener<Leak> listener)
+    {
+        mLeakBroadcaster.removeListener(listener);
+    }
+
+    /**
+     * Optionally starts tracking the buffer according to the sampling interval.
+     *
+     * @param buffer that was acquired from a buffer queue
+     * @param owner debug name of the owning buffer queue
+     * @return tracker for the buffer or null if the buffer is not sampled for tracking
+     */
+    public LeakTracker track(AbstractReusableBuffer buffer, String owner)
+    {
+        int interval = mSampleInterval;
+
+        if(interval <= 0)
+        {
+            return null;
+        }
+
+        processCollectedBuffers();
+
+        if(mAcquisitionCounter.incrementAndGet() % interval != 0)
+        {
+            return null;
+        }
+
+        LeakTracker tracker = new LeakTracker(buffer, owner);
+        mOpenTrackers.add(tracker);
+        return tracker;
+    }
+
+    /**
+     * Reports any tracked buffers that were garbage collected without being recycled.
+     */
+    public void processCollectedBuffers()
+    {
+        LeakTracker tracker = (LeakTracker)mReferenceQueue.poll();
+
+        while(tracker != null)
+        {
+            if(mOpenTrackers.remove(tracker))
+            {
+                mLeakCount.increment();
+                mLog.warn("Reusable buffer leak detected - buffer from [" + tracker.mOwner +
+                    "] was garbage collected without being recycled.  Acquired at:", tracker.mAcquisitionSite);
+                mLeakBroadcaster.receive(new Leak(tracker.mOwner, tracker.mAcquisitionSite));
+            }
+
+            tracker = (LeakTracker)mReferenceQueue.poll();
+        }
+    }
+
+    /**
+     * Weak reference to a tracked buffer that captures the call stack of the buffer acquisition.
+     */
+    public class LeakTracker extends WeakReference<AbstractReusableBuffer>
+    {
+        private final String mOwner;
+        private final Throwable mAcquisitionSite;
+
+        private LeakTracker(AbstractReusableBuffer buffer, String owner)
+        {
+            super(buffer, mReferenceQueue);
+            mOwner = owner != null ? owner : "(null)";
+            mAcquisitionSite = new Throwable("Buffer acquisition site");
+        }
+
+        /**
+         * Closes this tracker to indicate that the buffer was properly recycled.
+         */
+        public void close()
+        {
+            mOpenTrackers.remove(this);
+            clear();
+        }
+    }
+
+    /**
+     * Leaked buffer report
+     */
+    public static class Leak
+    {
+        private final String mOwner;
+        private final Throwable mAcquisitionSite;
+
+        private Leak(String owner, Throwable acquisitionSite)
+        {
+            mOwner = owner;
+            mAcquisitionSite = acquisitionSite;
+        }
+
+        /**
+         * Debug name of the buffer queue that owned the leaked buffer
+         */
+        public String getOwner()
+        {
+            return mOwner;
+        }
+
+        /**
+         * Call stack snapshot of the leaked buffer's acquisition
+         */
+        public Throwable getAcquisitionSite()
+        {
+            return mAcquisitionSite;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.sample.buffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application-wide shared sample array pools and reusable buffer leak detector.
+ *
+ * Reusable buffer queues obtain their sample arrays from these pools and return the arrays whenever a buffer is
+ * resized or disposed, so that buffers with varying block sizes share a bounded set of arrays across all queues.
+ */
+public class ReusableBufferPool
+{
+    private final static Logger mLog = LoggerFactory.getLogger(ReusableBufferPool.class);
+
+    //Leak detection sampling interval, enabled at startup with -Dsdrtrunk.buffer.leak.sample.interval=N to track one
+    //of every N buffer acquisitions.  Disabled (0) by default.
+    public static final String LEAK_SAMPLE_INTERVAL_PROPERTY = "sdrtrunk.buffer.leak.sample.interval";
+
+    //Maximum idle bytes retained by each power-of-two size class
+    private static final long CLASS_BYTE_BUDGET = 4 * 1024 * 1024;
+
+    public static final FloatArrayPool FLOAT = new FloatArrayPool(CLASS_BYTE_BUDGET);
+    public static final ByteArrayPool BYTE = new ByteArrayPool(CLASS_BYTE_BUDGET);
+    public static final ReusableBufferLeakDetector LEAK_DETECTOR =
+        new ReusableBufferLeakDetector(Integer.getInteger(LEAK_SAMPLE_INTERVAL_PROPERTY, 0));
+
+    private ReusableBufferPool()
+    {
+    }
+
+    /**
+     * Combined footprint of the idle arrays retained by the shared pools
+     */
+    public static long getRetainedBytes()
+    {
+        return FLOAT.getRetainedBytes() + BYTE.getRetainedBytes();
+    }
+
+    /**
+     * Logs the pool hit rate and footprint statistics
+     */
+    public static void logStatistics()
+    {
+        mLog.info(FLOAT.getStatistics());
+        mLog.info(BYTE.getStatistics());
+
+        if(LEAK_DETECTOR.isEnabled())
+        {
+            LEAK_DETECTOR.processCollectedBuffers();
+            mLog.info("Reusable buffer leaks detected:" + LEAK_DETECTOR.getLeakCount());
+        }
+    }
+}
@@ -44,13 +44,14 @@ public class ReusableBufferQueue extends AbstractReusableBufferQueue<ReusableFlo
 
         if(buffer == null)
         {
-            buffer = new ReusableFloatBuffer(this, new float[size]);
+            buffer = new ReusableFloatBuffer(this, ReusableBufferPool.FLOAT.acquire(size));
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.resize(size);
         buffer.incrementUserCount();
+        track(buffer);
 
         return buffer;
     }
@@ -67,13 +68,14 @@ public class ReusableBufferQueue extends AbstractReusableBufferQueue<ReusableFlo
 
         if(buffer == null)
         {
-            buffer = new ReusableFloatBuffer(this, new float[samples.length]);
+            buffer = new ReusableFloatBuffer(this, ReusableBufferPool.FLOAT.acquire(samples.length));
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.reloadFrom(samples, timestamp);
         buffer.incrementUserCount();
+        track(buffer);
 
         return buffer;
     }
@@ -91,7 +91,20 @@ public class ReusableByteBuffer extends AbstractReusableBuffer
     {
         if(mSamples.length != size)
         {
-            mSamples = new byte[size];
+            byte[] previous = mSamples;
+            mSamples = ReusableBufferPool.BYTE.acquire(size);
+            ReusableBufferPool.BYTE.release(previous);
         }
     }
+
+    /**
+     * Disposes this buffer and returns the byte array to the shared array pool.
+     */
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        ReusableBufferPool.BYTE.release(mSamples);
+        mSamples = ReusableBufferPool.BYTE.acquire(0);
+    }
 }
@@ -41,13 +41,14 @@ public class ReusableByteBufferQueue extends AbstractReusableBufferQueue<Reusabl
 
         if(buffer == null)
         {
-            buffer = new ReusableByteBuffer(this, new byte[size]);
+            buffer = new ReusableByteBuffer(this, ReusableBufferPool.BYTE.acquire(size));
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.resize(size);
         buffer.incrementUserCount();
+        track(buffer);
 
         return buffer;
     }
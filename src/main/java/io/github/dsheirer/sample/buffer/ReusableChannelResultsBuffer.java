@@ -20,6 +20,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
 {
@@ -29,6 +30,11 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
     private LinkedList<float[]> mEmptyBuffers = new LinkedList<>();
     private LinkedList<float[]> mFilledBuffers = new LinkedList<>();
     private Integer mLength;
+    private AtomicReferenceArray<ReusableComplexBuffer> mChannelBuffers;
+    private int[] mScatterChannels = new int[0];
+    private float[][] mScatterSamples = new float[0][];
+    private int mScatterChannelCount;
+    private int mChannelSampleCount;
 
     /**
      * Reusable buffer for storing polyphase channelizer results arrays.  This buffer is NOT thread safe and is
@@ -50,6 +56,46 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
         mEmptyBuffers.addAll(mFilledBuffers);
         mFilledBuffers.clear();
         mLength = null;
+        releaseChannelSamples();
+    }
+
+    /**
+     * Releases the channel-major buffers that were not claimed by a channel output
+     */
+    private void releaseChannelSamples()
+    {
+        for(int x = 0; x < mScatterChannelCount; x++)
+        {
+            ReusableComplexBuffer unclaimed = mChannelBuffers.getAndSet(mScatterChannels[x], null);
+
+            if(unclaimed != null)
+            {
+                unclaimed.decrementUserCount();
+            }
+
+            mScatterSamples[x] = null;
+        }
+
+        mChannelSampleCount = 0;
+        mScatterChannelCount = 0;
+    }
+
+    /**
+     * Disposes this buffer and returns the channel results arrays to the shared array pool.
+     */
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        prepareForRecycle();
+
+        for(float[] emptyBuffer: mEmptyBuffers)
+        {
+            ReusableBufferPool.FLOAT.release(emptyBuffer);
+        }
+
+        mEmptyBuffers.clear();
+        mReusableComplexBufferQueue.dispose();
     }
 
     /**
@@ -66,7 +112,8 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
 
         if(emptyBuffer == null || emptyBuffer.length != length)
         {
-            emptyBuffer = new float[length];
+            ReusableBufferPool.FLOAT.release(emptyBuffer);
+            emptyBuffer = ReusableBufferPool.FLOAT.acquire(length);
         }
 
         return emptyBuffer;
@@ -102,7 +149,73 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
     }
 
     /**
-     * Extracts a single I/Q interleaved sample buffer from this buffer of channel results arrays
+     * Prepares this buffer to scatter the I/Q samples for each of the specified channels directly into a pooled
+     * complex sample buffer for each channel.  After invoking this method, pass each channel results array to
+     * scatter() so that each channel output can claim its channel buffer from getChannel() without copying, instead
+     * of gathering one sample pair from each of the channel results arrays.  This should be invoked after all channel
+     * results have been added to this buffer.
+     *
+     * @param channels to scatter, identified by channel number (ie one half of the I index)
+     * @param channelCount total number of channels in each channel results array
+     */
+    public void setChannelMajorChannels(int[] channels, int channelCount)
+    {
+        releaseChannelSamples();
+
+        if(mChannelBuffers == null || mChannelBuffers.length() != channelCount)
+        {
+            mChannelBuffers = new AtomicReferenceArray<>(channelCount);
+        }
+
+        if(mScatterChannels.length < channels.length)
+        {
+            mScatterChannels = new int[channels.length];
+            mScatterSamples = new float[channels.length][];
+        }
+
+        int length = mFilledBuffers.size() * 2;
+        int count = 0;
+
+        for(int channel: channels)
+        {
+            if(channel >= 0 && channel < channelCount && mChannelBuffers.get(channel) == null)
+            {
+                ReusableComplexBuffer channelBuffer = mReusableComplexBufferQueue.getBuffer(length);
+                mChannelBuffers.set(channel, channelBuffer);
+                mScatterChannels[count] = channel;
+                mScatterSamples[count] = channelBuffer.getSamples();
+                count++;
+            }
+        }
+
+        mScatterChannelCount = count;
+    }
+
+    /**
+     * Copies the I/Q sample for each channel-major channel from the channel results array.  Channel results arrays
+     * must be scattered in the same order that they were added to this buffer.
+     *
+     * @param channelResults to scatter into the channel-major buffers
+     */
+    public void scatter(float[] channelResults)
+    {
+        int offset = mChannelSampleCount;
+
+        for(int x = 0; x < mScatterChannelCount; x++)
+        {
+            int index = 2 * mScatterChannels[x];
+            float[] samples = mScatterSamples[x];
+            samples[offset] = channelResults[index];
+            samples[offset + 1] = channelResults[index + 1];
+        }
+
+        mChannelSampleCount += 2;
+    }
+
+    /**
+     * Extracts a single I/Q interleaved sample buffer from this buffer of channel results arrays.  When the channel
+     * was scattered into a channel-major buffer, the first caller claims that buffer without a copy and any
+     * subsequent caller for the same channel receives a gathered copy.
      *
      * @param iChannelIndex to extract for the inphase sample.  The q index is assumed to be one greater than i.
      * @return float[] containing interleaved I and Q samples
@@ -122,6 +235,13 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
                 "results -- max channel is " + mLength);
         }
 
+        ReusableComplexBuffer channelMajor = claimChannelMajorBuffer(iChannelIndex / 2);
+
+        if(channelMajor != null)
+        {
+            return channelMajor;
+        }
+
         ReusableComplexBuffer channelBuffer = mReusableComplexBufferQueue.getBuffer(mFilledBuffers.size() * 2);
 
         float[] samples = channelBuffer.getSamples();
@@ -151,6 +271,23 @@ public class ReusableChannelResultsBuffer extends AbstractReusableBuffer
         return channelBuffer;
     }
 
+    /**
+     * Claims the channel-major buffer for the channel when the channel was scattered for every channel results array.
+     * Ownership of the claimed buffer transfers to the caller.
+     *
+     * @return claimed buffer or null if the channel was not scattered or the buffer was already claimed
+     */
+    private ReusableComplexBuffer claimChannelMajorBuffer(int channel)
+    {
+        if(mChannelBuffers != null && channel < mChannelBuffers.length() &&
+            mChannelSampleCount == mFilledBuffers.size() * 2)
+        {
+            return mChannelBuffers.getAndSet(channel, null);
+        }
+
+        return null;
+    }
+
     /**
      * Indicates if the channel argument is valid for the contained channel results.
      *
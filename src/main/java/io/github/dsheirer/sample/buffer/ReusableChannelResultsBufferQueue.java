@@ -49,6 +49,7 @@ public class ReusableChannelResultsBufferQueue extends AbstractReusableBufferQue
         }
 
         buffer.incrementUserCount();
+        track(buffer);
 
         return buffer;
     }
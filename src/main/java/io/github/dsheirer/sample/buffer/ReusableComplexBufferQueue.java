@@ -51,13 +51,14 @@ public class ReusableComplexBufferQueue extends AbstractReusableBufferQueue<Reus
 
         if(buffer == null)
         {
-            buffer = new ReusableComplexBuffer(this, new float[size]);
+            buffer = new ReusableComplexBuffer(this, ReusableBufferPool.FLOAT.acquire(size));
             buffer.setDebugName("Owner:" + getDebugName());
             incrementBufferCount();
         }
 
         buffer.resize(size);
         buffer.incrementUserCount();
+        track(buffer);
 
         return buffer;
     }
@@ -133,8 +133,21 @@ public class ReusableFloatBuffer extends AbstractReusableBuffer
     {
         if(mSamples.length != size)
         {
-            mSamples = new float[size];
+            float[] previous = mSamples;
+            mSamples = ReusableBufferPool.FLOAT.acquire(size);
+            ReusableBufferPool.FLOAT.release(previous);
         }
     }
 
+    /**
+     * Disposes this buffer and returns the sample array to the shared array pool.
+     */
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        ReusableBufferPool.FLOAT.release(mSamples);
+        mSamples = ReusableBufferPool.FLOAT.acquire(0);
+    }
+
 }
@@ -0,0 +1,247 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.sample.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shared, thread-safe pool of primitive sample arrays organized into power-of-two size classes.
+ *
+ * Each size class covers array lengths in the range (2^(n-1), 2^n] and retains a bounded number of arrays, derived
+ * from a per-class byte budget, so that the pool footprint stays bounded regardless of how many distinct block sizes
+ * are flowing through the system.  Since the reusable buffer API exposes the array length as the sample count, arrays
+ * are handed out at their exact requested length and are binned by exact length within each size class.
+ *
+ * Arrays released to a full size class are dropped and left for the garbage collector.
+ *
+ * @param <T> primitive array type
+ */
+public abstract class SizeClassedArrayPool<T>
+{
+    private static final int SIZE_CLASS_COUNT = 32;
+    private static final int MINIMUM_ARRAYS_PER_CLASS = 4;
+    private static final int MAXIMUM_ARRAYS_PER_CLASS = 256;
+
+    private final List<SizeClass<T>> mSizeClasses = new ArrayList<>();
+    private final String mName;
+    private final int mBytesPerElement;
+    private final LongAdder mAcquireCount = new LongAdder();
+    private final LongAdder mHitCount = new LongAdder();
+    private final LongAdder mReleaseCount = new LongAdder();
+    private final LongAdder mDropCount = new LongAdder();
+    private final AtomicLong mRetainedBytes = new AtomicLong();
+
+    /**
+     * Constructs an instance
+     *
+     * @param name of the pool for statistics logging
+     * @param bytesPerElement size of each primitive array element in bytes
+     * @param classByteBudget maximum bytes retained by each size class
+     */
+    public SizeClassedArrayPool(String name, int bytesPerElement, long classByteBudget)
+    {
+        mName = name;
+        mBytesPerElement = bytesPerElement;
+
+        for(int x = 0; x < SIZE_CLASS_COUNT; x++)
+        {
+            long classBytes = (1l << x) * bytesPerElement;
+            long capacity = classByteBudget / classBytes;
+            capacity = Math.max(MINIMUM_ARRAYS_PER_CLASS, Math.min(MAXIMUM_ARRAYS_PER_CLASS, capacity));
+            mSizeClasses.add(new SizeClass<>((int)capacity));
+        }
+    }
+
+    /**
+     * Creates a new array of the specified length
+     */
+    protected abstract T create(int length);
+
+    /**
+     * Length of the array argument
+     */
+    protected abstract int length(T array);
+
+    /**
+     * Index of the power-of-two size class that covers the specified array length.
+     */
+    static int getSizeClassIndex(int length)
+    {
+        return length <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(length - 1);
+    }
+
+    /**
+     * Obtains an array of exactly the requested length, reusing a pooled array when available.  Reused arrays may
+     * contain stale data from previous use.
+     *
+     * @param length of the array
+     * @return array
+     */
+    public T acquire(int length)
+    {
+        mAcquireCount.increment();
+
+        if(length > 0)
+        {
+            T array = mSizeClasses.get(getSizeClassIndex(length)).poll(length);
+
+            if(array != null)
+            {
+                mHitCount.increment();
+                mRetainedBytes.addAndGet(-(long)length * mBytesPerElement);
+                return array;
+            }
+        }
+
+        return create(length);
+    }
+
+    /**
+     * Returns an array to the pool for reuse.  The caller must not access the array after releasing it.
+     *
+     * @param array to release (null arrays are ignored)
+     */
+    public void release(T array)
+    {
+        if(array == null)
+        {
+            return;
+        }
+
+        int length = length(array);
+
+        if(length == 0)
+        {
+            return;
+        }
+
+        mReleaseCount.increment();
+
+        if(mSizeClasses.get(getSizeClassIndex(length)).offer(array, length))
+        {
+            mRetainedBytes.addAndGet((long)length * mBytesPerElement);
+        }
+        else
+        {
+            mDropCount.increment();
+        }
+    }
+
+    /**
+     * Ratio of acquire requests that were satisfied from pooled arrays, in the range 0.0 to 1.0
+     */
+    public double getHitRate()
+    {
+        long acquired = mAcquireCount.sum();
+        return acquired > 0 ? (double)mHitCount.sum() / (double)acquired : 0.0;
+    }
+
+    /**
+     * Total bytes of the arrays currently held idle by this pool
+     */
+    public long getRetainedBytes()
+    {
+        return mRetainedBytes.get();
+    }
+
+    /**
+     * Total count of acquire requests
+     */
+    public long getAcquireCount()
+    {
+        return mAcquireCount.sum();
+    }
+
+    /**
+     * Count of released arrays that were dropped because their size class was at capacity
+     */
+    public long getDropCount()
+    {
+        return mDropCount.sum();
+    }
+
+    /**
+     * Pool usage statistics summary
+     */
+    public String getStatistics()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(mName).append(" Pool - Acquired:").append(mAcquireCount.sum());
+        sb.append(" Hit Rate:").append(String.format("%.1f%%", getHitRate() * 100.0));
+        sb.append(" Released:").append(mReleaseCount.sum());
+        sb.append(" Dropped:").append(mDropCount.sum());
+        sb.append(" Retained:").append(getRetainedBytes() / 1024).append("kB");
+        return sb.toString();
+    }
+
+    /**
+     * Bounded collection of arrays for a single size class, binned by exact array length.
+     */
+    private static class SizeClass<E>
+    {
+        private final ConcurrentHashMap<Integer,Queue<E>> mBins = new ConcurrentHashMap<>();
+        private final AtomicInteger mCount = new AtomicInteger();
+        private final int mCapacity;
+
+        SizeClass(int capacity)
+        {
+            mCapacity = capacity;
+        }
+
+        E poll(int length)
+        {
+            Queue<E> bin = mBins.get(length);
+
+            if(bin != null)
+            {
+                E array = bin.poll();
+
+                if(array != null)
+                {
+                    mCount.decrementAndGet();
+                    return array;
+                }
+            }
+
+            return null;
+        }
+
+        boolean offer(E array, int length)
+        {
+            if(mCount.incrementAndGet() > mCapacity)
+            {
+                mCount.decrementAndGet();
+                return false;
+            }
+
+            mBins.computeIfAbsent(length, key -> new ConcurrentLinkedQueue<>()).offer(array);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.sample.queue;
+
+import java.util.Collection;
+
+/**
+ * Queue storage used by an overflowable transfer queue.  Implementations are safe for use by concurrent producer(s)
+ * and a consumer according to the queue type.
+ */
+public interface IQueue<E>
+{
+    /**
+     * Inserts the element at the tail of the queue.
+     *
+     * @param e element to insert
+     * @return true if inserted or false if the queue is at capacity
+     */
+    boolean offer(E e);
+
+    /**
+     * Removes and returns a single element from the head of the queue or null if the queue is empty
+     */
+    E poll();
+
+    /**
+     * Removes elements from the head of the queue into the collection, up to the maximum number of elements.
+     *
+     * @return number of elements transferred to the collection
+     */
+    int drainTo(Collection<? super E> collection, int maxElements);
+
+    /**
+     * Current number of elements in the queue.  This value is an estimate when producers and the consumer are
+     * concurrently accessing the queue.
+     */
+    int size();
+
+    /**
+     * Removes all elements from the queue
+     */
+    void clear();
+}
@@ -0,0 +1,78 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.sample.queue;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Linked transfer queue coupled with an atomic integer for monitoring queue size.
+ */
+public class LinkedQueue<E> implements IQueue<E>
+{
+    private LinkedTransferQueue<E> mQueue = new LinkedTransferQueue<>();
+    private AtomicInteger mCounter = new AtomicInteger();
+
+    @Override
+    public boolean offer(E e)
+    {
+        mQueue.offer(e);
+        mCounter.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public E poll()
+    {
+        E element = mQueue.poll();
+
+        if(element != null)
+        {
+            mCounter.decrementAndGet();
+        }
+
+        return element;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> collection, int maxElements)
+    {
+        int drainCount = mQueue.drainTo(collection, maxElements);
+        mCounter.addAndGet(-drainCount);
+        return drainCount;
+    }
+
+    @Override
+    public int size()
+    {
+        return mCounter.get();
+    }
+
+    @Override
+    public void clear()
+    {
+        mQueue.clear();
+        mCounter.set(0);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.sample.queue;
+
+/**
+ * Multiple producer, single consumer ring buffer.  Producers claim a slot by advancing the producer index and then
+ * store the element in the claimed slot.  The consumer waits briefly on a claimed slot until its element is stored.
+ */
+public class MpscRingBuffer<E> extends RingBuffer<E>
+{
+    /**
+     * Constructs an instance
+     *
+     * @param minimumCapacity of the ring buffer.  Actual capacity is the next power of two.
+     */
+    public MpscRingBuffer(int minimumCapacity)
+    {
+        super(minimumCapacity);
+    }
+
+    @Override
+    public boolean offer(E e)
+    {
+        long producer;
+
+        do
+        {
+            producer = mIndexes.get(PRODUCER);
+
+            if(producer - mIndexes.get(CONSUMER) >= mCapacity)
+            {
+                return false;
+            }
+        }
+        while(!mIndexes.compareAndSet(PRODUCER, producer, producer + 1));
+
+        mBuffer.lazySet((int)producer & mMask, e);
+        return true;
+    }
+}
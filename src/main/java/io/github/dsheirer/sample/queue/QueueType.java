@@ -0,0 +1,46 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.sample.queue;
+
+/**
+ * Queue storage implementations available for an overflowable transfer queue.
+ */
+public enum QueueType
+{
+    /**
+     * Unbounded linked transfer queue with a separate atomic size counter.  Safe for any number of producers and
+     * consumers, but allocates a node for each inserted element.
+     */
+    LINKED,
+
+    /**
+     * Preallocated array ring buffer for a single producer thread and a single consumer.  Use only where elements are
+     * always offered by one thread at a time, such as a scheduled dispatcher task.
+     */
+    SPSC,
+
+    /**
+     * Preallocated array ring buffer for multiple concurrent producer threads and a single consumer.
+     */
+    MPSC;
+}
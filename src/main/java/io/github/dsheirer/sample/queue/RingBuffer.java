@@ -0,0 +1,144 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.sample.queue;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer queue backed by a preallocated array.  Inserting an element doesn't allocate and the producer
+ * and consumer indexes are each written by only one side, so the producer(s) and the consumer don't contend on a
+ * shared counter.  The consumer publishes its index once per drained batch.
+ *
+ * Subclasses provide the producer side of the queue.  The consumer side (poll, drainTo and clear) is serialized so
+ * that clearing the queue from another thread (e.g. during dispose) can't hand the same element out twice.
+ */
+public abstract class RingBuffer<E> implements IQueue<E>
+{
+    //Producer and consumer indexes are spaced 128 bytes apart to avoid false sharing of a cache line
+    protected static final int PRODUCER = 16;
+    protected static final int CONSUMER = 32;
+
+    protected final AtomicReferenceArray<E> mBuffer;
+    protected final AtomicLongArray mIndexes = new AtomicLongArray(48);
+    protected final int mCapacity;
+    protected final int mMask;
+
+    /**
+     * Constructs an instance
+     *
+     * @param minimumCapacity of the ring buffer.  Actual capacity is the next power of two.
+     */
+    protected RingBuffer(int minimumCapacity)
+    {
+        if(minimumCapacity < 1 || minimumCapacity > (1 << 30))
+        {
+            throw new IllegalArgumentException("Capacity must be in range 1 - 2^30");
+        }
+
+        mCapacity = Integer.highestOneBit(minimumCapacity) == minimumCapacity ? minimumCapacity :
+            Integer.highestOneBit(minimumCapacity) << 1;
+        mMask = mCapacity - 1;
+        mBuffer = new AtomicReferenceArray<>(mCapacity);
+    }
+
+    /**
+     * Capacity of this ring buffer
+     */
+    public int getCapacity()
+    {
+        return mCapacity;
+    }
+
+    @Override
+    public int size()
+    {
+        long consumer = mIndexes.get(CONSUMER);
+        long size = mIndexes.get(PRODUCER) - consumer;
+        return (int)Math.max(0, Math.min(size, mCapacity));
+    }
+
+    /**
+     * Waits for the element at the index to be published by a producer that has claimed the slot but not yet
+     * stored the element.
+     */
+    private E take(int index)
+    {
+        E element = mBuffer.get(index);
+
+        while(element == null)
+        {
+            Thread.onSpinWait();
+            element = mBuffer.get(index);
+        }
+
+        mBuffer.lazySet(index, null);
+        return element;
+    }
+
+    @Override
+    public synchronized E poll()
+    {
+        long consumer = mIndexes.get(CONSUMER);
+
+        if(consumer >= mIndexes.get(PRODUCER))
+        {
+            return null;
+        }
+
+        E element = take((int)consumer & mMask);
+        mIndexes.lazySet(CONSUMER, consumer + 1);
+        return element;
+    }
+
+    @Override
+    public synchronized int drainTo(Collection<? super E> collection, int maxElements)
+    {
+        long consumer = mIndexes.get(CONSUMER);
+        int count = (int)Math.min(mIndexes.get(PRODUCER) - consumer, maxElements);
+
+        for(int x = 0; x < count; x++)
+        {
+            collection.add(take((int)(consumer + x) & mMask));
+        }
+
+        if(count > 0)
+        {
+            mIndexes.lazySet(CONSUMER, consumer + count);
+        }
+
+        return Math.max(count, 0);
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        E element = poll();
+
+        while(element != null)
+        {
+            element = poll();
+        }
+    }
+}
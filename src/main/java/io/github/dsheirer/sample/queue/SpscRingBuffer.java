@@ -0,0 +1,66 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.sample.queue;
+
+/**
+ * Single producer, single consumer ring buffer.  The producer caches the last observed consumer index so that it only
+ * reads the consumer's cache line when the buffer appears to be full.
+ *
+ * Note: offer() must only be invoked by one thread at a time.
+ */
+public class SpscRingBuffer<E> extends RingBuffer<E>
+{
+    private long mProducerIndex;
+    private long mConsumerIndexCache;
+
+    /**
+     * Constructs an instance
+     *
+     * @param minimumCapacity of the ring buffer.  Actual capacity is the next power of two.
+     */
+    public SpscRingBuffer(int minimumCapacity)
+    {
+        super(minimumCapacity);
+    }
+
+    @Override
+    public boolean offer(E e)
+    {
+        long producer = mProducerIndex;
+
+        if(producer - mConsumerIndexCache >= mCapacity)
+        {
+            mConsumerIndexCache = mIndexes.get(CONSUMER);
+
+            if(producer - mConsumerIndexCache >= mCapacity)
+            {
+                return false;
+            }
+        }
+
+        mBuffer.lazySet((int)producer & mMask, e);
+        mProducerIndex = producer + 1;
+        mIndexes.lazySet(PRODUCER, producer + 1);
+        return true;
+    }
+}
@@ -20,6 +20,8 @@ package io.github.dsheirer.source.tuner;
 
 import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.record.RecorderFactory;
+import io.github.dsheirer.record.timeshift.NativeSampleFormat;
+import io.github.dsheirer.record.timeshift.TimeShiftBuffer;
 import io.github.dsheirer.record.wave.ComplexBufferWaveRecorder;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.IReusableComplexBufferProvider;
@@ -34,9 +36,12 @@ import io.github.dsheirer.source.tuner.channel.TunerChannel;
 import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 import io.github.dsheirer.source.tuner.frequency.FrequencyController;
 import io.github.dsheirer.source.tuner.frequency.FrequencyController.Tunable;
+import io.github.dsheirer.source.tuner.usb.converter.NativeBufferConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.SortedSet;
 
 public abstract class TunerController implements Tunable, ISourceEventProcessor, ISourceEventListener,
@@ -51,6 +56,9 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
     private int mMeasuredFrequencyError;
     private ComplexBufferWaveRecorder mRecorder;
     private ITunerErrorListener mTunerErrorListener;
+    private volatile int mTimeShiftDuration;
+    private volatile TimeShiftBuffer mTimeShiftBuffer;
+    private volatile boolean mTimeShiftNative;
 
     /**
      * Abstract tuner controller class.  The tuner controller manages frequency bandwidth and currently tuned channels
@@ -385,6 +393,17 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
      */
     protected void broadcast(ReusableComplexBuffer reusableComplexBuffer)
     {
+        if(mTimeShiftDuration > 0)
+        {
+            TimeShiftBuffer timeShiftBuffer = getTimeShiftBuffer();
+
+            //Native time-shift buffers receive samples from the native buffer converter before conversion
+            if(timeShiftBuffer != null && !mTimeShiftNative)
+            {
+                timeShiftBuffer.write(reusableComplexBuffer.getSamples());
+            }
+        }
+
         mReusableBufferBroadcaster.broadcast(reusableComplexBuffer);
     }
 
@@ -506,6 +525,121 @@ public abstract class TunerController implements Tunable, ISourceEventProcessor,
         }
     }
 
+    /**
+     * Native byte buffer converter used by this tuner, if any.  Tuners that provide a converter with a native I/Q
+     * sample format store native samples in the time-shift buffer.  Otherwise, complex sample buffers are quantized
+     * to 16-bit samples.
+     *
+     * @return native buffer converter or null
+     */
+    protected NativeBufferConverter getNativeBufferConverter()
+    {
+        return null;
+    }
+
+    /**
+     * Sets the duration of the time-shift buffer that retains the most recent samples produced by this tuner so that
+     * they can be captured to a wave file after an event of interest.
+     *
+     * @param seconds of samples to retain, or zero to disable the time-shift buffer
+     */
+    public synchronized void setTimeShiftDuration(int seconds)
+    {
+        if(mTimeShiftDuration != seconds)
+        {
+            mTimeShiftDuration = seconds;
+            mTimeShiftBuffer = null;
+
+            NativeBufferConverter converter = getNativeBufferConverter();
+
+            if(converter != null)
+            {
+                converter.setTimeShiftBuffer(null);
+            }
+
+            if(seconds > 0)
+            {
+                getTimeShiftBuffer();
+            }
+        }
+    }
+
+    /**
+     * Current time-shift buffer.  Creates a new buffer when the time-shift buffer is enabled and the tuner sample
+     * rate has changed.
+     *
+     * @return time-shift buffer or null if time-shift buffering is disabled or the sample rate is not yet known
+     */
+    private TimeShiftBuffer getTimeShiftBuffer()
+    {
+        TimeShiftBuffer timeShiftBuffer = mTimeShiftBuffer;
+        double sampleRate = getSampleRate();
+
+        if(timeShiftBuffer == null || timeShiftBuffer.getSampleRate() != sampleRate)
+        {
+            synchronized(this)
+            {
+                timeShiftBuffer = mTimeShiftBuffer;
+
+                if(mTimeShiftDuration > 0 && sampleRate > 0 &&
+                    (timeShiftBuffer == null || timeShiftBuffer.getSampleRate() != sampleRate))
+                {
+                    NativeBufferConverter converter = getNativeBufferConverter();
+                    NativeSampleFormat format = converter != null ? converter.getNativeSampleFormat() : null;
+                    mTimeShiftNative = format != null;
+
+                    try
+                    {
+                        timeShiftBuffer = new TimeShiftBuffer(mTimeShiftNative ? format : NativeSampleFormat.SIGNED_16,
+                            sampleRate, mTimeShiftDuration);
+                    }
+                    catch(OutOfMemoryError oome)
+                    {
+                        mLog.error("Unable to allocate time-shift buffer for tuner - insufficient native memory");
+                        mTimeShiftDuration = 0;
+                        timeShiftBuffer = null;
+                    }
+
+                    mTimeShiftBuffer = timeShiftBuffer;
+
+                    if(converter != null)
+                    {
+                        converter.setTimeShiftBuffer(mTimeShiftNative ? timeShiftBuffer : null);
+                    }
+                }
+            }
+        }
+
+        return timeShiftBuffer;
+    }
+
+    /**
+     * Indicates if this tuner controller has a time-shift buffer
+     */
+    public boolean hasTimeShiftBuffer()
+    {
+        return mTimeShiftBuffer != null;
+    }
+
+    /**
+     * Writes the samples currently held in the time-shift buffer to a wave file.
+     *
+     * @param file for the wave recording
+     * @return duration of the captured samples in milliseconds
+     * @throws IOException if there is an error writing the file or if this tuner doesn't have a time-shift buffer
+     */
+    public long captureTimeShift(Path file) throws IOException
+    {
+        TimeShiftBuffer timeShiftBuffer = mTimeShiftBuffer;
+
+        if(timeShiftBuffer == null)
+        {
+            throw new IOException("Time-shift buffer is not enabled for this tuner");
+        }
+
+        return timeShiftBuffer.capture(file);
+    }
+
     /**
      * Indicates if this tuner controller is currently reocording the complex I/Q sample buffers produced by this tuner
      */
@@ -24,10 +24,12 @@ import io.github.dsheirer.gui.control.JFrequencyControl;
 import io.github.dsheirer.gui.editor.Editor;
 import io.github.dsheirer.gui.editor.EmptyEditor;
 import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.record.timeshift.TimeShiftManager;
 import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 import io.github.dsheirer.source.tuner.configuration.TunerConfigurationEditor;
 import io.github.dsheirer.source.tuner.configuration.TunerConfigurationFactory;
 import io.github.dsheirer.source.tuner.configuration.TunerConfigurationModel;
+import io.github.dsheirer.util.ThreadPool;
 import net.miginfocom.swing.MigLayout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +61,7 @@ public class TunerEditor extends Editor<Tuner>
     private TableRowSorter<TunerConfigurationModel> mRowSorter;
     private JFrequencyControl mFrequencyControl = new JFrequencyControl();
     private JToggleButton mRecordButton;
+    private JButton mCaptureButton;
     private JLabel mSelectedTunerType = new JLabel("No Tuner Selected");
     private JButton mNewConfigurationButton = new JButton("New");
     private JButton mDeleteConfigurationButton = new JButton("Delete");
@@ -127,7 +130,29 @@ public class TunerEditor extends Editor<Tuner>
                 }
             }
         });
-        listPanel.add(mRecordButton, "wrap");
+        listPanel.add(mRecordButton, "split 2");
+
+        mCaptureButton = new JButton("Capture");
+        mCaptureButton.setToolTipText("Write the tuner's I/Q time-shift buffer to the recordings folder");
+        mCaptureButton.setEnabled(false);
+        mCaptureButton.addActionListener(e -> {
+            if(hasItem())
+            {
+                final TunerController tunerController = getItem().getTunerController();
+
+                if(tunerController.hasTimeShiftBuffer())
+                {
+                    ThreadPool.SCHEDULED.submit(() -> TimeShiftManager.getInstance().capture(tunerController, "user"));
+                }
+                else
+                {
+                    JOptionPane.showMessageDialog(TunerEditor.this, "Time-shift buffering is not enabled or the " +
+                        "tuner is not running.  Time-shift buffering can be enabled in the recording preferences.",
+                        "Time-Shift Capture", JOptionPane.INFORMATION_MESSAGE);
+                }
+            }
+        });
+        listPanel.add(mCaptureButton, "wrap");
 
         mRowSorter = new TableRowSorter<>(mTunerConfigurationModel);
         mTunerConfigurationTable = new JTable(mTunerConfigurationModel);
@@ -311,6 +336,7 @@ public class TunerEditor extends Editor<Tuner>
 
             mRecordButton.setEnabled(true);
             mRecordButton.setSelected(getItem().getTunerController().isRecording());
+            mCaptureButton.setEnabled(true);
         }
         else
         {
@@ -322,6 +348,7 @@ public class TunerEditor extends Editor<Tuner>
             mEditor = new EmptyEditor<TunerConfiguration>();
             mRecordButton.setEnabled(false);
             mRecordButton.setSelected(false);
+            mCaptureButton.setEnabled(false);
         }
 
         //Swap out the editor
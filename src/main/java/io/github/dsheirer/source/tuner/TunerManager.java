@@ -26,11 +26,14 @@ import io.github.dsheirer.source.SourceException;
 import io.github.dsheirer.source.mixer.MixerManager;
 import io.github.dsheirer.source.tuner.airspy.AirspyTuner;
 import io.github.dsheirer.source.tuner.airspy.AirspyTunerController;
+import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
 import io.github.dsheirer.source.tuner.fcd.FCDTuner;
 import io.github.dsheirer.source.tuner.fcd.proV1.FCD1TunerController;
 import io.github.dsheirer.source.tuner.fcd.proplusV2.FCD2TunerController;
 import io.github.dsheirer.source.tuner.hackrf.HackRFTuner;
 import io.github.dsheirer.source.tuner.hackrf.HackRFTunerController;
+import io.github.dsheirer.source.tuner.network.RtlTcpTuner;
+import io.github.dsheirer.source.tuner.network.RtlTcpTunerConfiguration;
 import io.github.dsheirer.source.tuner.rtl.RTL2832Tuner;
 import io.github.dsheirer.source.tuner.rtl.RTL2832TunerController;
 import io.github.dsheirer.source.tuner.rtl.e4k.E4KTunerController;
@@ -77,6 +80,7 @@ public class TunerManager
         mUserPreferences = userPreferences;
 
         initTuners();
+        initNetworkTuners();
         validateUSBBusTransferRates();
     }
 
@@ -188,6 +192,31 @@ public class TunerManager
         LibUsb.freeDeviceList(deviceList, true);
     }
 
+    /**
+     * Loads the rtl_tcp network tuners that have an assigned tuner configuration from a previous session
+     */
+    private void initNetworkTuners()
+    {
+        List<TunerConfiguration> configurations =
+            new ArrayList<>(mTunerModel.getTunerConfigurationModel().getTunerConfigurations());
+
+        for(TunerConfiguration configuration: configurations)
+        {
+            if(configuration instanceof RtlTcpTunerConfiguration && configuration.isAssigned())
+            {
+                RtlTcpTunerConfiguration rtlTcpConfiguration = (RtlTcpTunerConfiguration)configuration;
+
+                if(rtlTcpConfiguration.getHost() != null && !rtlTcpConfiguration.getHost().isEmpty())
+                {
+                    RtlTcpTuner tuner = new RtlTcpTuner(rtlTcpConfiguration.getHost(), rtlTcpConfiguration.getPort(),
+                        mUserPreferences);
+                    mTunerModel.addTuner(tuner);
+                    mLog.info("LOADED: " + tuner.toString());
+                }
+            }
+        }
+    }
+
     private static String getDeviceClass(byte deviceClass)
     {
         switch(deviceClass)
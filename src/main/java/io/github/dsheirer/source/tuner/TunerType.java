@@ -38,6 +38,7 @@ public enum TunerType
 	RTL2832_VARIOUS( "Generic" ),
 	TEST("Test"),
 	RECORDING("Recording"),
+	RTL_TCP("rtl_tcp"),
 	UNKNOWN( "Unknown" );
 	
 	private String mLabel;
@@ -24,6 +24,7 @@ import io.github.dsheirer.preference.UserPreferences;
 import io.github.dsheirer.preference.swing.JTableColumnWidthMonitor;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.source.tuner.TunerEvent.Event;
+import io.github.dsheirer.source.tuner.network.AddRtlTcpTunerDialog;
 import io.github.dsheirer.source.tuner.recording.AddRecordingTunerDialog;
 import io.github.dsheirer.source.tuner.recording.RecordingTuner;
 import net.miginfocom.swing.MigLayout;
@@ -230,6 +231,15 @@ public class TunerViewPanel extends JPanel
 
         tunerTablePanel.add(addRecordingTunerButton);
 
+        JButton addNetworkTunerButton = new JButton("Add Network Tuner");
+        addNetworkTunerButton.addActionListener(e ->
+        {
+            AddRtlTcpTunerDialog dialog = new AddRtlTcpTunerDialog(mUserPreferences, mTunerModel);
+            dialog.setLocationRelativeTo(TunerViewPanel.this);
+            EventQueue.invokeLater(() -> dialog.setVisible(true));
+        });
+        tunerTablePanel.add(addNetworkTunerButton);
+
         JScrollPane editorScroller = new JScrollPane(mTunerEditor);
         editorScroller.setPreferredSize(new Dimension(400, 80));
 
@@ -24,7 +24,7 @@ import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.OverflowableReusableBufferTransferQueue;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
-import io.github.dsheirer.sample.complex.Complex;
+import io.github.dsheirer.sample.queue.QueueType;
 import io.github.dsheirer.source.SourceEvent;
 
 import java.util.ArrayList;
@@ -74,7 +74,8 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
         mDecimationFilter = new ComplexPrimeCICDecimate(sampleRate, decimation, channelSpecification.getPassFrequency(),
             channelSpecification.getStopFrequency());
 
-        mBuffer = new OverflowableReusableBufferTransferQueue<>(BUFFER_MAX_CAPACITY, BUFFER_OVERFLOW_RESET_THRESHOLD);
+        mBuffer = new OverflowableReusableBufferTransferQueue<>(BUFFER_MAX_CAPACITY, BUFFER_OVERFLOW_RESET_THRESHOLD,
+            QueueType.SPSC);
 
         //Setup the frequency mixer to the current source frequency
         mChannelSampleRate = sampleRate / (double)decimation;
@@ -108,6 +109,12 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
     @Override
     public void receive(ReusableComplexBuffer buffer)
     {
+        if(isPaused())
+        {
+            buffer.decrementUserCount();
+            return;
+        }
+
         mBuffer.offer(buffer);
     }
 
@@ -229,16 +236,7 @@ public class CICTunerChannelSource extends TunerChannelSource implements Listene
             float[] translatedSamples = translatedComplexBuffer.getSamples();
 
             /* Perform frequency translation */
-            for(int x = 0; x < samples.length; x += 2)
-            {
-                mFrequencyCorrectionMixer.rotate();
-
-                translatedSamples[x] = Complex.multiplyInphase(samples[x], samples[x + 1],
-                    mFrequencyCorrectionMixer.inphase(), mFrequencyCorrectionMixer.quadrature());
-
-                translatedSamples[x + 1] = Complex.multiplyQuadrature(samples[x], samples[x + 1],
-                    mFrequencyCorrectionMixer.inphase(), mFrequencyCorrectionMixer.quadrature());
-            }
+            mFrequencyCorrectionMixer.mixComplex(samples, translatedSamples);
 
             mDecimationFilter.receive(translatedComplexBuffer);
             complexBuffer.decrementUserCount();
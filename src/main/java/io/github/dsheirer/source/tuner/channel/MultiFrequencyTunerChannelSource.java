@@ -58,6 +58,7 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
     private String mPreferredTuner;
     private AtomicBoolean mChangingChannels = new AtomicBoolean();
     private boolean mStarted;
+    private long mRetiredProcessingCpuNanos;
     private ConsumerSourceEventAdapter mConsumerSourceEventAdapter = new ConsumerSourceEventAdapter();
 
     public MultiFrequencyTunerChannelSource(TunerModel tunerModel, TunerChannelSource tunerChannelSource,
@@ -93,6 +94,7 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
             {
                 //Shutdown the existing tuner channel source
                 mTunerChannelSource.stop();
+                mRetiredProcessingCpuNanos += mTunerChannelSource.getProcessingCpuNanos();
                 mTunerChannelSource.removeListener(mReusableComplexBufferListener);
                 mTunerChannelSource.removeSourceEventListener();
                 mTunerChannelSource.removeHeartbeatListener(mHeartbeatListener);
@@ -124,6 +126,7 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
                 mTunerChannelSource.setSourceEventListener(mConsumerSourceEventAdapter);
                 mTunerChannelSource.setListener(mReusableComplexBufferListener);
                 mTunerChannelSource.addHeartbeatListener(mHeartbeatListener);
+                mTunerChannelSource.setPaused(isPaused());
                 mTunerChannelSource.start();
                 mTunerChannel = nextChannel;
                 mChangingChannels.set(false);
@@ -141,6 +144,33 @@ public class MultiFrequencyTunerChannelSource extends TunerChannelSource
         }
     }
 
+    /**
+     * Pauses or resumes this source and the current tuner channel source.
+     */
+    @Override
+    public void setPaused(boolean paused)
+    {
+        super.setPaused(paused);
+
+        TunerChannelSource tunerChannelSource = mTunerChannelSource;
+
+        if(tunerChannelSource != null)
+        {
+            tunerChannelSource.setPaused(paused);
+        }
+    }
+
+    /**
+     * Cumulative sample processing CPU time for the current and all previous tuner channel sources
+     */
+    @Override
+    public long getProcessingCpuNanos()
+    {
+        TunerChannelSource tunerChannelSource = mTunerChannelSource;
+
+        return mRetiredProcessingCpuNanos + (tunerChannelSource != null ? tunerChannelSource.getProcessingCpuNanos() : 0);
+    }
+
     @Override
     public void start()
     {
@@ -19,6 +19,7 @@ package io.github.dsheirer.source.tuner.channel;
 import io.github.dsheirer.sample.Listener;
 import io.github.dsheirer.sample.buffer.OverflowableReusableBufferTransferQueue;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.queue.QueueType;
 import io.github.dsheirer.source.ISourceEventListener;
 import io.github.dsheirer.source.SourceEvent;
 import io.github.dsheirer.source.tuner.TunerController;
@@ -38,7 +39,7 @@ public class PassThroughChannelSource extends TunerChannelSource implements ISou
     private final static Logger mLog = LoggerFactory.getLogger(PassThroughChannelSource.class);
     private TunerController mTunerController;
     private OverflowableReusableBufferTransferQueue<ReusableComplexBuffer> mBufferQueue =
-            new OverflowableReusableBufferTransferQueue<>(500, 100);
+            new OverflowableReusableBufferTransferQueue<>(500, 100, QueueType.SPSC);
     private List<ReusableComplexBuffer> mBuffersToProcess = new ArrayList<>();
     private Listener<ReusableComplexBuffer> mComplexBufferListener;
 
@@ -121,6 +122,12 @@ public class PassThroughChannelSource extends TunerChannelSource implements ISou
     @Override
     public void receive(ReusableComplexBuffer reusableComplexBuffer)
     {
+        if(isPaused())
+        {
+            reusableComplexBuffer.decrementUserCount();
+            return;
+        }
+
         mBufferQueue.offer(reusableComplexBuffer);
     }
 }
@@ -32,18 +32,25 @@ import io.github.dsheirer.util.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class TunerChannelSource extends ComplexSource implements ISourceEventProcessor
 {
     private final static Logger mLog = LoggerFactory.getLogger(TunerChannelSource.class);
     private static final long BUFFER_PROCESSOR_RUN_INTERVAL_MILLISECONDS = 50;
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final boolean CPU_TIME_SUPPORTED = THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported();
     private SourceEventListenerToProcessorAdapter mConsumerSourceEventListenerAdapter;
     protected TunerChannel mTunerChannel;
     private Listener<SourceEvent> mProducerSourceEventListener;
     private Listener<SourceEvent> mConsumerSourceEventListener;
     private ScheduledIntervalProcessor mScheduledIntervalProcessor = new ScheduledIntervalProcessor();
+    private AtomicLong mProcessingCpuNanos = new AtomicLong();
+    private volatile boolean mPaused;
 
     /**
      * Tuner Channel Source is a Digital Drop Channel (DDC) abstract class that defines the minimum functionality
@@ -145,6 +152,35 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
         //Reset is not valid for a tuner channel source - ignored
     }
 
+    /**
+     * Pauses or resumes this source.  While paused, incoming sample buffers from the producer are discarded so that
+     * this channel and the downstream processing chain consume no DSP processing.  Heartbeats continue to be sent to
+     * the consumer.  This is used to shed load when the system is overloaded.
+     *
+     * @param paused true to pause or false to resume
+     */
+    public void setPaused(boolean paused)
+    {
+        mPaused = paused;
+    }
+
+    /**
+     * Indicates if this source is paused and is discarding incoming sample buffers.
+     */
+    public boolean isPaused()
+    {
+        return mPaused;
+    }
+
+    /**
+     * Cumulative thread CPU time in nanoseconds spent processing samples for this source, including the downstream
+     * processing (ie demodulation and decoding) that executes on the sample processing thread.
+     */
+    public long getProcessingCpuNanos()
+    {
+        return mProcessingCpuNanos.get();
+    }
+
     /**
      * This method is invoked after the buffer processor is completely shutdown so that this instance can perform any
      * cleanup operations needed to dispose of this instance.
@@ -310,6 +346,8 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
 
                 if(!mStopped)
                 {
+                    long start = CPU_TIME_SUPPORTED ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+
                     try
                     {
                         processSamples();
@@ -318,6 +356,11 @@ public abstract class TunerChannelSource extends ComplexSource implements ISourc
                     {
                         mLog.error("Error while processing samples", t);
                     }
+
+                    if(CPU_TIME_SUPPORTED)
+                    {
+                        mProcessingCpuNanos.addAndGet(THREAD_MX_BEAN.getCurrentThreadCpuTime() - start);
+                    }
                 }
 
                 if(mStopped)
@@ -31,6 +31,7 @@ import io.github.dsheirer.source.tuner.airspy.AirspyTunerConfiguration;
 import io.github.dsheirer.source.tuner.fcd.proV1.FCD1TunerConfiguration;
 import io.github.dsheirer.source.tuner.fcd.proplusV2.FCD2TunerConfiguration;
 import io.github.dsheirer.source.tuner.hackrf.HackRFTunerConfiguration;
+import io.github.dsheirer.source.tuner.network.RtlTcpTunerConfiguration;
 import io.github.dsheirer.source.tuner.recording.RecordingTunerConfiguration;
 import io.github.dsheirer.source.tuner.rtl.e4k.E4KTunerConfiguration;
 import io.github.dsheirer.source.tuner.rtl.r820t.R820TTunerConfiguration;
@@ -47,6 +48,7 @@ import io.github.dsheirer.source.tuner.rtl.r820t.R820TTunerConfiguration;
     @JsonSubTypes.Type(value=HackRFTunerConfiguration.class, name="hackRFTunerConfiguration"),
     @JsonSubTypes.Type(value= RecordingTunerConfiguration.class, name="recordingTunerConfiguration"),
     @JsonSubTypes.Type(value=R820TTunerConfiguration.class, name="r820TTunerConfiguration"),
+    @JsonSubTypes.Type(value=RtlTcpTunerConfiguration.class, name="rtlTcpTunerConfiguration"),
 })
 @JacksonXmlRootElement( localName = "tuner_configuration" )
 public abstract class TunerConfiguration
@@ -36,6 +36,9 @@ import io.github.dsheirer.source.tuner.fcd.proplusV2.FCD2TunerEditor;
 import io.github.dsheirer.source.tuner.hackrf.HackRFTuner;
 import io.github.dsheirer.source.tuner.hackrf.HackRFTunerConfiguration;
 import io.github.dsheirer.source.tuner.hackrf.HackRFTunerEditor;
+import io.github.dsheirer.source.tuner.network.RtlTcpTuner;
+import io.github.dsheirer.source.tuner.network.RtlTcpTunerConfiguration;
+import io.github.dsheirer.source.tuner.network.RtlTcpTunerEditor;
 import io.github.dsheirer.source.tuner.recording.RecordingTuner;
 import io.github.dsheirer.source.tuner.recording.RecordingTunerConfiguration;
 import io.github.dsheirer.source.tuner.recording.RecordingTunerConfigurationEditor;
@@ -69,6 +72,8 @@ public class TunerConfigurationFactory
                 return new R820TTunerConfiguration(uniqueID, name);
             case RECORDING:
                 return new RecordingTunerConfiguration(uniqueID, name);
+            case RTL_TCP:
+                return new RtlTcpTunerConfiguration(uniqueID, name);
             default:
                 throw new IllegalArgumentException("Unrecognized tuner type ["
                     + type.name() + "] - can't create named [" + name + "] tuner"
@@ -97,6 +102,8 @@ public class TunerConfigurationFactory
                 return new R820TTunerEditor(model, (RTL2832Tuner)tuner);
             case RECORDING:
                 return new RecordingTunerConfigurationEditor(model, (RecordingTuner)tuner);
+            case RTL_TCP:
+                return new RtlTcpTunerEditor(model, (RtlTcpTuner)tuner);
             case UNKNOWN:
             default:
                 throw new IllegalArgumentException("Unrecognized Tuner: " + tuner.getName());
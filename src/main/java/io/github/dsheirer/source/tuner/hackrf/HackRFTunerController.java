@@ -87,6 +87,12 @@ public class HackRFTunerController extends USBTunerController
         return USB_TRANSFER_BUFFER_SIZE / 2;
     }
 
+    @Override
+    protected NativeBufferConverter getNativeBufferConverter()
+    {
+        return mNativeBufferConverter;
+    }
+
     public void init() throws SourceException
     {
         mDeviceHandle = new DeviceHandle();
@@ -0,0 +1,152 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerModel;
+import net.miginfocom.swing.MigLayout;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JTextField;
+import java.awt.Dimension;
+
+/**
+ * Dialog to specify the host and port of an rtl_tcp server for use in adding a network tuner
+ */
+public class AddRtlTcpTunerDialog extends JFrame
+{
+    private final static Logger mLog = LoggerFactory.getLogger(AddRtlTcpTunerDialog.class);
+    private UserPreferences mUserPreferences;
+    private TunerModel mTunerModel;
+    private JTextField mHostTextField;
+    private JTextField mPortTextField;
+
+    public AddRtlTcpTunerDialog(UserPreferences userPreferences, TunerModel tunerModel)
+    {
+        Validate.notNull(userPreferences, "UserPreferences cannot be null");
+        Validate.notNull(tunerModel, "TunerModel cannot be null");
+
+        mTunerModel = tunerModel;
+        mUserPreferences = userPreferences;
+
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setTitle("Add rtl_tcp Network Tuner");
+        setSize(new Dimension(400, 180));
+
+        JPanel content = new JPanel();
+        content.setLayout(new MigLayout("", "[align right][grow,fill][grow,fill]", "[][][grow][]"));
+
+        content.add(new JLabel("Host:"));
+        mHostTextField = new JTextField("");
+        mHostTextField.setToolTipText("Host name or IP address of the rtl_tcp server");
+        content.add(mHostTextField, "span 2,grow,wrap");
+
+        content.add(new JLabel("Port:"));
+        mPortTextField = new JTextField(String.valueOf(RtlTcpTunerController.DEFAULT_PORT));
+        mPortTextField.setToolTipText("TCP port of the rtl_tcp server");
+        content.add(mPortTextField, "span 2,grow,wrap");
+
+        content.add(new JLabel(""), "wrap");
+        content.add(new JLabel(""));
+
+        JButton addButton = new JButton("Add");
+        addButton.addActionListener(e ->
+        {
+            String host = mHostTextField.getText() != null ? mHostTextField.getText().trim() : "";
+
+            if(host.isEmpty())
+            {
+                JOptionPane.showMessageDialog(AddRtlTcpTunerDialog.this, "Please provide the rtl_tcp server host",
+                    "Host Required", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            int port = getPort();
+
+            if(port <= 0 || port > 65535)
+            {
+                JOptionPane.showMessageDialog(AddRtlTcpTunerDialog.this, "Please provide a port (1 - 65535)",
+                    "Port Required", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            String uniqueID = RtlTcpTunerController.getUniqueID(host, port);
+
+            for(Tuner tuner: mTunerModel.getTuners())
+            {
+                if(tuner instanceof RtlTcpTuner && tuner.getUniqueID().equals(uniqueID))
+                {
+                    JOptionPane.showMessageDialog(AddRtlTcpTunerDialog.this, "A network tuner for [" + uniqueID +
+                        "] is already loaded", "Duplicate Tuner", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+            }
+
+            mLog.info("Adding rtl_tcp network tuner [" + uniqueID + "]");
+
+            try
+            {
+                mTunerModel.addTuner(new RtlTcpTuner(host, port, mUserPreferences));
+            }
+            catch(Exception ex)
+            {
+                mLog.error("Error adding rtl_tcp network tuner", ex);
+            }
+
+            AddRtlTcpTunerDialog.this.setVisible(false);
+        });
+        content.add(addButton, "grow,push");
+
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> AddRtlTcpTunerDialog.this.setVisible(false));
+        content.add(cancelButton, "grow,push");
+
+        setContentPane(content);
+    }
+
+    private int getPort()
+    {
+        String text = mPortTextField.getText();
+
+        if(text != null && !text.isEmpty())
+        {
+            try
+            {
+                return Integer.parseInt(text.trim());
+            }
+            catch(Exception e)
+            {
+                //Do nothing, we couldn't parse the port value
+            }
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import java.nio.ByteBuffer;
+
+/**
+ * rtl_tcp protocol commands.  Each command is sent to the rtl_tcp server as a 5-byte message containing the 1-byte
+ * command code followed by a 4-byte big-endian unsigned parameter value.
+ */
+public enum RtlTcpCommand
+{
+    SET_FREQUENCY(0x01),
+    SET_SAMPLE_RATE(0x02),
+    SET_GAIN_MODE(0x03),
+    SET_GAIN(0x04),
+    SET_FREQUENCY_CORRECTION(0x05),
+    SET_IF_GAIN(0x06),
+    SET_TEST_MODE(0x07),
+    SET_AGC_MODE(0x08),
+    SET_DIRECT_SAMPLING(0x09),
+    SET_OFFSET_TUNING(0x0A),
+    SET_RTL_XTAL(0x0B),
+    SET_TUNER_XTAL(0x0C),
+    SET_GAIN_BY_INDEX(0x0D),
+    SET_BIAS_TEE(0x0E);
+
+    public static final int COMMAND_LENGTH = 5;
+
+    private int mCode;
+
+    RtlTcpCommand(int code)
+    {
+        mCode = code;
+    }
+
+    /**
+     * Command code
+     */
+    public int getCode()
+    {
+        return mCode;
+    }
+
+    /**
+     * Creates a command message buffer ready for writing to the socket channel.
+     *
+     * @param value parameter for the command
+     * @return buffer flipped and ready to write
+     */
+    public ByteBuffer create(int value)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(COMMAND_LENGTH);
+        buffer.put((byte)mCode);
+        buffer.putInt(value);
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Lookup the command from the command code
+     * @param code to lookup
+     * @return matching command or null
+     */
+    public static RtlTcpCommand fromCode(int code)
+    {
+        for(RtlTcpCommand command: values())
+        {
+            if(command.getCode() == code)
+            {
+                return command;
+            }
+        }
+
+        return null;
+    }
+}
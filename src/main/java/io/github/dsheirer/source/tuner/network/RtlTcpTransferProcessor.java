@@ -0,0 +1,795 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.tuner.ITunerErrorListener;
+import io.github.dsheirer.source.tuner.usb.converter.NativeBufferConverter;
+import io.github.dsheirer.util.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Manages the network connection to an rtl_tcp server and the stream of 8-bit I/Q sample bytes received from the
+ * server.
+ *
+ * A dedicated reader thread uses a non-blocking socket channel and a selector to read the sample stream directly
+ * into a pool of native (direct) byte buffers.  Filled buffers are dispatched on the shared scheduled thread pool
+ * through the native buffer converter to produce complex sample buffers for the registered listener, mirroring the
+ * USB transfer processor.  When the dispatcher falls behind and no empty native buffer is available, the reader
+ * discards the received bytes and increments the dropped buffer counter so that the socket is always drained and the
+ * server never blocks.
+ *
+ * Command values are retained so that the complete tuner state (sample rate, frequency, gain) is re-sent each time
+ * the processor (re)connects to the server.
+ */
+public class RtlTcpTransferProcessor
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RtlTcpTransferProcessor.class);
+
+    //rtl_tcp dongle info header: 'RTL0' magic, tuner type and tuner gain count
+    public static final int DONGLE_INFO_LENGTH = 12;
+    public static final int DONGLE_INFO_MAGIC = 0x52544C30;
+
+    //Number of native byte buffers to allocate for receiving data from the server
+    private static final int BUFFER_POOL_SIZE = 40;
+    private static final long CONNECT_TIMEOUT_MS = 5000;
+    private static final long SELECT_TIMEOUT_MS = 500;
+    private static final long MAXIMUM_RECONNECT_DELAY_MS = 10000;
+    private static final int MAXIMUM_CONNECT_ATTEMPTS = 5;
+    private static final int SOCKET_RECEIVE_BUFFER_SIZE = 1024 * 1024;
+
+    private LinkedTransferQueue<NetworkBuffer> mAvailableBuffers = new LinkedTransferQueue<>();
+    private LinkedTransferQueue<NetworkBuffer> mCompletedBuffers = new LinkedTransferQueue<>();
+    private ConcurrentLinkedQueue<ByteBuffer> mPendingCommands = new ConcurrentLinkedQueue<>();
+    private Map<RtlTcpCommand,Integer> mCommandValues = new EnumMap<>(RtlTcpCommand.class);
+    private NetworkBuffer mDiscardBuffer;
+    private NetworkBuffer mCurrentBuffer;
+    private ByteBuffer mDongleInfo = ByteBuffer.allocate(DONGLE_INFO_LENGTH);
+
+    private NativeBufferConverter mNativeBufferConverter;
+    private Listener<ReusableComplexBuffer> mComplexBufferListener;
+    private ITunerErrorListener mTunerErrorListener;
+    private String mHost;
+    private int mPort;
+    private int mBufferSize;
+
+    private AtomicBoolean mRunning = new AtomicBoolean();
+    private AtomicBoolean mConnected = new AtomicBoolean();
+    private Thread mReaderThread;
+    private volatile Selector mSelector;
+    private ScheduledFuture<?> mBufferDispatcherFuture;
+    private BufferDispatcher mBufferDispatcher = new BufferDispatcher();
+    private int mRemoteTunerType;
+    private int mRemoteGainCount;
+
+    private LongAdder mBytesReceived = new LongAdder();
+    private LongAdder mBuffersDispatched = new LongAdder();
+    private LongAdder mBuffersDropped = new LongAdder();
+    private LongAdder mLatencyTotal = new LongAdder();
+    private AtomicLong mLatencyMaximum = new AtomicLong();
+    private LongAdder mReconnectCount = new LongAdder();
+
+    /**
+     * Constructs an instance
+     *
+     * @param host name or address of the rtl_tcp server
+     * @param port of the rtl_tcp server
+     * @param nativeBufferConverter for converting 8-bit sample bytes to floating point I/Q samples
+     * @param bufferSize in bytes.  Must be a multiple of two.
+     * @param tunerErrorListener to receive connection error notifications
+     */
+    public RtlTcpTransferProcessor(String host, int port, NativeBufferConverter nativeBufferConverter, int bufferSize,
+                                   ITunerErrorListener tunerErrorListener)
+    {
+        if(bufferSize % 2 == 1)
+        {
+            throw new IllegalArgumentException("Buffer size must be a multiple of 2 for complex samples");
+        }
+
+        mHost = host;
+        mPort = port;
+        mNativeBufferConverter = nativeBufferConverter;
+        mBufferSize = bufferSize;
+        mTunerErrorListener = tunerErrorListener;
+    }
+
+    /**
+     * Host name or address of the rtl_tcp server
+     */
+    public String getHost()
+    {
+        return mHost;
+    }
+
+    /**
+     * Port number of the rtl_tcp server
+     */
+    public int getPort()
+    {
+        return mPort;
+    }
+
+    /**
+     * Current buffer size in bytes
+     */
+    public int getBufferSize()
+    {
+        return mBufferSize;
+    }
+
+    /**
+     * Modifies the native buffer size.  Changing the buffer size while the processor is running causes the processor
+     * to momentarily stop and reconnect with the new buffers.
+     *
+     * @param bufferSize in bytes.  Must be a multiple of two.
+     */
+    public void setBufferSize(int bufferSize)
+    {
+        if(bufferSize % 2 == 1)
+        {
+            throw new IllegalArgumentException("Buffer size must be a multiple of 2 for complex samples");
+        }
+
+        if(mBufferSize != bufferSize)
+        {
+            boolean running = mRunning.get();
+            stop();
+            mBufferSize = bufferSize;
+
+            if(running)
+            {
+                start();
+            }
+        }
+    }
+
+    /**
+     * Sends the command to the server.  The command value is retained and re-sent each time the processor connects.
+     *
+     * @param command to send
+     * @param value for the command
+     */
+    public void send(RtlTcpCommand command, int value)
+    {
+        synchronized(mCommandValues)
+        {
+            mCommandValues.put(command, value);
+        }
+
+        if(mConnected.get())
+        {
+            mPendingCommands.add(command.create(value));
+
+            Selector selector = mSelector;
+
+            if(selector != null)
+            {
+                selector.wakeup();
+            }
+        }
+    }
+
+    /**
+     * Registers the listener to receive complex sample buffers and starts the processor.
+     */
+    public void setListener(Listener<ReusableComplexBuffer> listener)
+    {
+        mComplexBufferListener = listener;
+        start();
+    }
+
+    /**
+     * Removes the listener and stops the processor.
+     */
+    public void removeListener()
+    {
+        mComplexBufferListener = null;
+        stop();
+    }
+
+    /**
+     * Indicates if the processor is currently connected to the server
+     */
+    public boolean isConnected()
+    {
+        return mConnected.get();
+    }
+
+    /**
+     * Tuner type code reported by the server in the dongle info header, or 0 if not connected
+     */
+    public int getRemoteTunerType()
+    {
+        return mRemoteTunerType;
+    }
+
+    /**
+     * Number of tuner gain values reported by the server in the dongle info header
+     */
+    public int getRemoteGainCount()
+    {
+        return mRemoteGainCount;
+    }
+
+    /**
+     * Total number of sample bytes received from the server
+     */
+    public long getBytesReceived()
+    {
+        return mBytesReceived.sum();
+    }
+
+    /**
+     * Number of sample buffers converted and dispatched to the listener
+     */
+    public long getBuffersDispatched()
+    {
+        return mBuffersDispatched.sum();
+    }
+
+    /**
+     * Number of sample buffers discarded because the dispatcher did not return empty buffers in time
+     */
+    public long getBuffersDropped()
+    {
+        return mBuffersDropped.sum();
+    }
+
+    /**
+     * Average time in milliseconds between a buffer being filled from the socket and dispatched to the listener
+     */
+    public double getAverageLatency()
+    {
+        long dispatched = mBuffersDispatched.sum();
+
+        if(dispatched > 0)
+        {
+            return mLatencyTotal.sum() / (double)dispatched / 1E6;
+        }
+
+        return 0.0;
+    }
+
+    /**
+     * Maximum time in milliseconds between a buffer being filled from the socket and dispatched to the listener
+     */
+    public double getMaximumLatency()
+    {
+        return mLatencyMaximum.get() / 1E6;
+    }
+
+    /**
+     * Number of times that the connection to the server was re-established after an error
+     */
+    public long getReconnectCount()
+    {
+        return mReconnectCount.sum();
+    }
+
+    /**
+     * Resets the byte, buffer, drop and latency counters
+     */
+    public void resetStatistics()
+    {
+        mBytesReceived.reset();
+        mBuffersDispatched.reset();
+        mBuffersDropped.reset();
+        mLatencyTotal.reset();
+        mLatencyMaximum.set(0);
+        mReconnectCount.reset();
+    }
+
+    /**
+     * Summary of the transfer statistics
+     */
+    public String getStatistics()
+    {
+        return String.format("rtl_tcp [%s:%d] received:%,d bytes dispatched:%,d dropped:%,d buffers " +
+                "latency avg:%.2f max:%.2f ms reconnects:%d", mHost, mPort, getBytesReceived(),
+            getBuffersDispatched(), getBuffersDropped(), getAverageLatency(), getMaximumLatency(),
+            getReconnectCount());
+    }
+
+    /**
+     * Starts the reader thread and the buffer dispatcher.  Subsequent calls to this method after started are ignored.
+     */
+    private void start()
+    {
+        if(mRunning.compareAndSet(false, true))
+        {
+            prepareBuffers();
+
+            mReaderThread = new Thread(new Reader());
+            mReaderThread.setName("rtl_tcp " + mHost + ":" + mPort);
+            mReaderThread.setDaemon(true);
+            mReaderThread.start();
+
+            mBufferDispatcherFuture = ThreadPool.SCHEDULED.scheduleAtFixedRate(mBufferDispatcher,
+                0, 6, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the reader thread and the buffer dispatcher and closes the connection.  Subsequent calls to this method
+     * after stopped are ignored.
+     */
+    private void stop()
+    {
+        if(mRunning.compareAndSet(true, false))
+        {
+            Selector selector = mSelector;
+
+            if(selector != null)
+            {
+                selector.wakeup();
+            }
+
+            if(mReaderThread != null)
+            {
+                mReaderThread.interrupt();
+
+                try
+                {
+                    mReaderThread.join(2000);
+                }
+                catch(InterruptedException ie)
+                {
+                    //No action
+                }
+
+                mReaderThread = null;
+            }
+
+            if(mBufferDispatcherFuture != null)
+            {
+                mBufferDispatcherFuture.cancel(false);
+                mBufferDispatcherFuture = null;
+            }
+
+            mLog.info(getStatistics());
+        }
+    }
+
+    /**
+     * Creates the pool of native byte buffers, reusing existing buffers when the buffer size is unchanged.
+     */
+    private void prepareBuffers()
+    {
+        NetworkBuffer completed = mCompletedBuffers.poll();
+
+        while(completed != null)
+        {
+            mAvailableBuffers.add(completed);
+            completed = mCompletedBuffers.poll();
+        }
+
+        if(mCurrentBuffer != null && mCurrentBuffer != mDiscardBuffer)
+        {
+            mAvailableBuffers.add(mCurrentBuffer);
+        }
+
+        mCurrentBuffer = null;
+
+        if(mDiscardBuffer == null || mDiscardBuffer.getBuffer().capacity() != mBufferSize)
+        {
+            mAvailableBuffers.clear();
+            mDiscardBuffer = new NetworkBuffer(mBufferSize);
+
+            for(int x = 0; x < BUFFER_POOL_SIZE; x++)
+            {
+                mAvailableBuffers.add(new NetworkBuffer(mBufferSize));
+            }
+        }
+
+        for(NetworkBuffer networkBuffer: mAvailableBuffers)
+        {
+            networkBuffer.getBuffer().clear();
+        }
+
+        mDiscardBuffer.getBuffer().clear();
+    }
+
+    /**
+     * Returns the partially filled buffer from a previous connection to the pool and clears the discard buffer, so
+     * that sample data from a new connection starts on an I/Q sample boundary.
+     */
+    private void resetCurrentBuffer()
+    {
+        if(mCurrentBuffer != null && mCurrentBuffer != mDiscardBuffer)
+        {
+            mCurrentBuffer.getBuffer().clear();
+            mAvailableBuffers.add(mCurrentBuffer);
+        }
+
+        mCurrentBuffer = null;
+        mDiscardBuffer.getBuffer().clear();
+    }
+
+    /**
+     * Opens a non-blocking socket channel connection to the server.
+     *
+     * @param selector to register the channel with
+     * @return connected socket channel
+     * @throws IOException if the connection can't be established
+     */
+    private SocketChannel connect(Selector selector) throws IOException
+    {
+        SocketChannel socketChannel = SocketChannel.open();
+
+        try
+        {
+            socketChannel.configureBlocking(false);
+            socketChannel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            socketChannel.setOption(StandardSocketOptions.SO_RCVBUF, SOCKET_RECEIVE_BUFFER_SIZE);
+
+            if(!socketChannel.connect(new InetSocketAddress(mHost, mPort)))
+            {
+                SelectionKey key = socketChannel.register(selector, SelectionKey.OP_CONNECT);
+
+                long timeout = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+
+                while(!socketChannel.finishConnect())
+                {
+                    long remaining = timeout - System.currentTimeMillis();
+
+                    if(remaining <= 0 || !mRunning.get())
+                    {
+                        throw new IOException("Timeout connecting to rtl_tcp server [" + mHost + ":" + mPort + "]");
+                    }
+
+                    selector.select(remaining);
+                    selector.selectedKeys().clear();
+                }
+
+                key.interestOps(SelectionKey.OP_READ);
+            }
+            else
+            {
+                socketChannel.register(selector, SelectionKey.OP_READ);
+            }
+        }
+        catch(IOException ioe)
+        {
+            socketChannel.close();
+            throw ioe;
+        }
+
+        return socketChannel;
+    }
+
+    /**
+     * Queues the retained command values, in command code order, so that the server is configured to the current
+     * tuner state.
+     */
+    private void queueRetainedCommands()
+    {
+        mPendingCommands.clear();
+
+        synchronized(mCommandValues)
+        {
+            for(Map.Entry<RtlTcpCommand,Integer> entry: mCommandValues.entrySet())
+            {
+                mPendingCommands.add(entry.getKey().create(entry.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Writes pending commands to the socket channel.  A partially written command remains at the head of the queue
+     * and the key is registered for write readiness.
+     */
+    private void writeCommands(SocketChannel socketChannel, SelectionKey key) throws IOException
+    {
+        ByteBuffer command = mPendingCommands.peek();
+
+        while(command != null)
+        {
+            socketChannel.write(command);
+
+            if(command.hasRemaining())
+            {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+
+            mPendingCommands.poll();
+            command = mPendingCommands.peek();
+        }
+
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    /**
+     * Reads all currently available bytes from the socket channel into the native buffers.
+     */
+    private void read(SocketChannel socketChannel) throws IOException
+    {
+        if(mDongleInfo.hasRemaining())
+        {
+            if(socketChannel.read(mDongleInfo) < 0)
+            {
+                throw new EOFException("rtl_tcp server closed the connection");
+            }
+
+            if(mDongleInfo.hasRemaining())
+            {
+                return;
+            }
+
+            processDongleInfo();
+        }
+
+        while(true)
+        {
+            if(mCurrentBuffer == null)
+            {
+                mCurrentBuffer = mAvailableBuffers.poll();
+
+                if(mCurrentBuffer == null)
+                {
+                    mCurrentBuffer = mDiscardBuffer;
+                }
+            }
+
+            ByteBuffer buffer = mCurrentBuffer.getBuffer();
+
+            int read = socketChannel.read(buffer);
+
+            if(read < 0)
+            {
+                throw new EOFException("rtl_tcp server closed the connection");
+            }
+            else if(read == 0)
+            {
+                return;
+            }
+
+            mBytesReceived.add(read);
+
+            if(!buffer.hasRemaining())
+            {
+                if(mCurrentBuffer == mDiscardBuffer)
+                {
+                    mBuffersDropped.increment();
+                    buffer.clear();
+                }
+                else
+                {
+                    mCurrentBuffer.setTimestamp(System.nanoTime());
+                    mCompletedBuffers.add(mCurrentBuffer);
+                }
+
+                mCurrentBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Parses the dongle information header sent by the server on connection.
+     */
+    private void processDongleInfo()
+    {
+        mDongleInfo.flip();
+
+        int magic = mDongleInfo.getInt();
+
+        if(magic != DONGLE_INFO_MAGIC)
+        {
+            mLog.warn("rtl_tcp [" + mHost + ":" + mPort + "] unexpected dongle info header [" +
+                Integer.toHexString(magic) + "] - treating stream as sample data");
+        }
+
+        mRemoteTunerType = mDongleInfo.getInt();
+        mRemoteGainCount = mDongleInfo.getInt();
+
+        mLog.info("rtl_tcp [" + mHost + ":" + mPort + "] connected - tuner type [" + mRemoteTunerType +
+            "] gain count [" + mRemoteGainCount + "]");
+    }
+
+    /**
+     * Socket reader.  Connects to the server and reads samples until the processor is stopped, reconnecting with an
+     * increasing delay after connection errors.
+     */
+    public class Reader implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            long reconnectDelay = 0;
+            int failedAttempts = 0;
+
+            while(mRunning.get())
+            {
+                if(reconnectDelay > 0)
+                {
+                    try
+                    {
+                        Thread.sleep(reconnectDelay);
+                    }
+                    catch(InterruptedException ie)
+                    {
+                        //Stop was requested
+                        continue;
+                    }
+
+                    mReconnectCount.increment();
+                }
+
+                try(Selector selector = Selector.open(); SocketChannel socketChannel = connect(selector))
+                {
+                    mSelector = selector;
+                    mDongleInfo.clear();
+                    resetCurrentBuffer();
+                    queueRetainedCommands();
+                    mConnected.set(true);
+                    failedAttempts = 0;
+
+                    SelectionKey key = socketChannel.keyFor(selector);
+
+                    while(mRunning.get())
+                    {
+                        writeCommands(socketChannel, key);
+
+                        selector.select(SELECT_TIMEOUT_MS);
+
+                        if(key.isValid() && key.isReadable())
+                        {
+                            read(socketChannel);
+                            reconnectDelay = 0;
+                        }
+
+                        selector.selectedKeys().clear();
+                    }
+                }
+                catch(IOException ioe)
+                {
+                    if(mRunning.get())
+                    {
+                        failedAttempts++;
+
+                        if(failedAttempts >= MAXIMUM_CONNECT_ATTEMPTS)
+                        {
+                            mLog.warn("rtl_tcp [" + mHost + ":" + mPort + "] - maximum connection attempts [" +
+                                failedAttempts + "] exceeded - stopping");
+
+                            if(mTunerErrorListener != null)
+                            {
+                                mTunerErrorListener.setErrorMessage("NO CONNECTION");
+                            }
+
+                            ThreadPool.SCHEDULED.submit(() -> stop());
+                            return;
+                        }
+
+                        reconnectDelay = Math.min(MAXIMUM_RECONNECT_DELAY_MS, Math.max(500, reconnectDelay * 2));
+
+                        mLog.warn("rtl_tcp [" + mHost + ":" + mPort + "] connection error - " + ioe.getMessage() +
+                            " - reconnect attempt [" + failedAttempts + "] in " + reconnectDelay + " ms");
+                    }
+                }
+                catch(Throwable t)
+                {
+                    mLog.error("rtl_tcp [" + mHost + ":" + mPort + "] error while reading samples", t);
+                    reconnectDelay = MAXIMUM_RECONNECT_DELAY_MS;
+                }
+                finally
+                {
+                    mConnected.set(false);
+                    mSelector = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts completed native buffers to complex sample buffers and dispatches them to the listener.
+     */
+    public class BufferDispatcher implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                NetworkBuffer networkBuffer = mCompletedBuffers.poll();
+
+                while(networkBuffer != null)
+                {
+                    Listener<ReusableComplexBuffer> listener = mComplexBufferListener;
+
+                    if(mRunning.get() && listener != null)
+                    {
+                        ByteBuffer buffer = networkBuffer.getBuffer();
+
+                        ReusableComplexBuffer reusableComplexBuffer =
+                            mNativeBufferConverter.convert(buffer, buffer.position());
+
+                        long latency = System.nanoTime() - networkBuffer.getTimestamp();
+                        mLatencyTotal.add(latency);
+                        mLatencyMaximum.accumulateAndGet(latency, Math::max);
+                        mBuffersDispatched.increment();
+
+                        listener.receive(reusableComplexBuffer);
+                    }
+
+                    networkBuffer.getBuffer().clear();
+                    mAvailableBuffers.add(networkBuffer);
+
+                    networkBuffer = mCompletedBuffers.poll();
+                }
+            }
+            catch(Throwable throwable)
+            {
+                mLog.error("rtl_tcp [" + mHost + ":" + mPort + "] error while dispatching sample buffers", throwable);
+            }
+        }
+    }
+
+    /**
+     * Native byte buffer with the time that the buffer was filled
+     */
+    public static class NetworkBuffer
+    {
+        private ByteBuffer mBuffer;
+        private long mTimestamp;
+
+        public NetworkBuffer(int size)
+        {
+            mBuffer = ByteBuffer.allocateDirect(size);
+        }
+
+        public ByteBuffer getBuffer()
+        {
+            return mBuffer;
+        }
+
+        public long getTimestamp()
+        {
+            return mTimestamp;
+        }
+
+        public void setTimestamp(long timestamp)
+        {
+            mTimestamp = timestamp;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import io.github.dsheirer.preference.UserPreferences;
+import io.github.dsheirer.source.tuner.Tuner;
+import io.github.dsheirer.source.tuner.TunerClass;
+import io.github.dsheirer.source.tuner.TunerType;
+
+/**
+ * Remote RTL-2832 tuner accessed over the network through an rtl_tcp server
+ */
+public class RtlTcpTuner extends Tuner
+{
+    public RtlTcpTuner(String host, int port, UserPreferences userPreferences)
+    {
+        super("rtl_tcp " + RtlTcpTunerController.getUniqueID(host, port), new RtlTcpTunerController(host, port),
+            userPreferences);
+    }
+
+    /**
+     * Returns the tuner controller cast as an rtl_tcp tuner controller.
+     */
+    public RtlTcpTunerController getTunerController()
+    {
+        return (RtlTcpTunerController)super.getTunerController();
+    }
+
+    @Override
+    public String getUniqueID()
+    {
+        return getTunerController().getUniqueID();
+    }
+
+    @Override
+    public TunerClass getTunerClass()
+    {
+        return TunerClass.RTL_TCP_TUNER;
+    }
+
+    @Override
+    public TunerType getTunerType()
+    {
+        return TunerClass.RTL_TCP_TUNER.getTunerType();
+    }
+
+    @Override
+    public double getSampleSize()
+    {
+        //Note: although sample size is 8, we set it to 11 to align with the actual noise floor, like the USB RTL tuner.
+        return 11.0;
+    }
+
+    @Override
+    public int getMaximumUSBBitsPerSecond()
+    {
+        //Network tuner does not consume USB bus bandwidth
+        return 0;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import com.fasterxml.jackson.dataformat.xml.annotation.JacksonXmlProperty;
+import io.github.dsheirer.source.tuner.TunerType;
+import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
+import io.github.dsheirer.source.tuner.rtl.RTL2832TunerController;
+
+/**
+ * Network (rtl_tcp) tuner configuration
+ */
+public class RtlTcpTunerConfiguration extends TunerConfiguration
+{
+    private String mHost;
+    private int mPort = RtlTcpTunerController.DEFAULT_PORT;
+    private RTL2832TunerController.SampleRate mSampleRate = RTL2832TunerController.SampleRate.RATE_2_400MHZ;
+    private boolean mAutomaticGain = true;
+    private int mGain = 297;
+    private double mFrequencyCorrection = 0.0d;
+    private boolean mAutoPPMCorrection = true;
+
+    /**
+     * Default constructor for JAXB
+     */
+    public RtlTcpTunerConfiguration()
+    {
+    }
+
+    public RtlTcpTunerConfiguration(String uniqueID, String name)
+    {
+        super(uniqueID, name);
+
+        //Unique ID is formatted as host:port
+        if(uniqueID != null)
+        {
+            int separator = uniqueID.lastIndexOf(':');
+
+            if(separator > 0)
+            {
+                mHost = uniqueID.substring(0, separator);
+
+                try
+                {
+                    mPort = Integer.parseInt(uniqueID.substring(separator + 1));
+                }
+                catch(NumberFormatException nfe)
+                {
+                    //Use the default port
+                }
+            }
+        }
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "type", namespace = "http://www.w3.org/2001/XMLSchema-instance")
+    @Override
+    public TunerType getTunerType()
+    {
+        return TunerType.RTL_TCP;
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "host")
+    public String getHost()
+    {
+        return mHost;
+    }
+
+    public void setHost(String host)
+    {
+        mHost = host;
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "port")
+    public int getPort()
+    {
+        return mPort;
+    }
+
+    public void setPort(int port)
+    {
+        mPort = port;
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "sample_rate")
+    public RTL2832TunerController.SampleRate getSampleRate()
+    {
+        return mSampleRate;
+    }
+
+    public void setSampleRate(RTL2832TunerController.SampleRate sampleRate)
+    {
+        mSampleRate = sampleRate;
+    }
+
+    /**
+     * Indicates if the remote tuner uses automatic gain control
+     */
+    @JacksonXmlProperty(isAttribute = true, localName = "automatic_gain")
+    public boolean getAutomaticGain()
+    {
+        return mAutomaticGain;
+    }
+
+    public void setAutomaticGain(boolean automaticGain)
+    {
+        mAutomaticGain = automaticGain;
+    }
+
+    /**
+     * Manual gain value in tenths of a dB
+     */
+    @JacksonXmlProperty(isAttribute = true, localName = "gain")
+    public int getGain()
+    {
+        return mGain;
+    }
+
+    public void setGain(int gain)
+    {
+        mGain = gain;
+    }
+
+    @JacksonXmlProperty(isAttribute = true, localName = "frequency_correction")
+    public double getFrequencyCorrection()
+    {
+        return mFrequencyCorrection;
+    }
+
+    public void setFrequencyCorrection(double value)
+    {
+        mFrequencyCorrection = value;
+    }
+
+    /**
+     * Indicates if automatic correction of PPM from measured frequency error is enabled/disabled.
+     * @return true if auto-correction is enabled.
+     */
+    @JacksonXmlProperty(isAttribute = true, localName = "auto_ppm_correction_enabled")
+    public boolean getAutoPPMCorrectionEnabled()
+    {
+        return mAutoPPMCorrection;
+    }
+
+    /**
+     * Sets the enabled state for auto-correction of PPM from measured frequency error values.
+     * @param enabled
+     */
+    public void setAutoPPMCorrectionEnabled(boolean enabled)
+    {
+        mAutoPPMCorrection = enabled;
+    }
+}
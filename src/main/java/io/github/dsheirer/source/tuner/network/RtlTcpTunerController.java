@@ -0,0 +1,282 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.SourceException;
+import io.github.dsheirer.source.tuner.FrequencyErrorCorrectionManager;
+import io.github.dsheirer.source.tuner.TunerController;
+import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
+import io.github.dsheirer.source.tuner.rtl.RTL2832TunerController;
+import io.github.dsheirer.source.tuner.rtl.RTL2832TunerController.SampleRate;
+import io.github.dsheirer.source.tuner.usb.converter.ByteSampleConverter;
+import io.github.dsheirer.source.tuner.usb.converter.NativeBufferConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Tuner controller for a remote RTL-2832 tuner served over the network by an rtl_tcp server.  Provides auto-start and
+ * auto-stop of the sample stream when complex buffer listeners are added or removed, like the USB tuner controllers.
+ */
+public class RtlTcpTunerController extends TunerController
+{
+    private final static Logger mLog = LoggerFactory.getLogger(RtlTcpTunerController.class);
+
+    public static final long MIN_FREQUENCY = 24000000;
+    public static final long MAX_FREQUENCY = 1766000000;
+    public static final double USABLE_BANDWIDTH_PERCENT = 0.98;
+    public static final int DC_SPIKE_AVOID_BUFFER = 5000;
+    public static final int DEFAULT_PORT = 1234;
+
+    //Gain mode values for the rtl_tcp set gain mode command
+    private static final int GAIN_MODE_AUTOMATIC = 0;
+    private static final int GAIN_MODE_MANUAL = 1;
+
+    private NativeBufferConverter mNativeBufferConverter = new ByteSampleConverter();
+    private RtlTcpTransferProcessor mTransferProcessor;
+    private SampleRate mSampleRate = RTL2832TunerController.DEFAULT_SAMPLE_RATE;
+    private long mTunedFrequency;
+    private FrequencyErrorCorrectionManager mFrequencyErrorCorrectionManager;
+
+    /**
+     * Constructs an instance
+     *
+     * @param host name or address of the rtl_tcp server
+     * @param port of the rtl_tcp server
+     */
+    public RtlTcpTunerController(String host, int port)
+    {
+        super(MIN_FREQUENCY, MAX_FREQUENCY, DC_SPIKE_AVOID_BUFFER, USABLE_BANDWIDTH_PERCENT);
+
+        mFrequencyErrorCorrectionManager = new FrequencyErrorCorrectionManager(this);
+
+        mTransferProcessor = new RtlTcpTransferProcessor(host, port, mNativeBufferConverter,
+            getBufferSize(mSampleRate), this);
+
+        try
+        {
+            setSampleRate(mSampleRate);
+        }
+        catch(SourceException se)
+        {
+            mLog.error("Error setting default sample rate for rtl_tcp tuner", se);
+        }
+    }
+
+    /**
+     * Unique identifier for the remote tuner, formatted as host:port
+     */
+    public String getUniqueID()
+    {
+        return getUniqueID(mTransferProcessor.getHost(), mTransferProcessor.getPort());
+    }
+
+    /**
+     * Creates a unique identifier for a remote tuner
+     * @param host of the rtl_tcp server
+     * @param port of the rtl_tcp server
+     * @return host:port identifier
+     */
+    public static String getUniqueID(String host, int port)
+    {
+        return host + ":" + port;
+    }
+
+    /**
+     * Manager for applying automatic frequency error PPM adjustments to the tuner controller based on
+     * frequency error measurements received from certain downstream decoders (e.g. P25).
+     * @return manager
+     */
+    public FrequencyErrorCorrectionManager getFrequencyErrorCorrectionManager()
+    {
+        return mFrequencyErrorCorrectionManager;
+    }
+
+    /**
+     * Overrides updates for measured frequency error so that the updates can also be applied to the
+     * frequency error correction manager for automatic PPM updating.
+     * @param measuredFrequencyError in hertz averaged over a 5 second interval.
+     */
+    @Override
+    public void setMeasuredFrequencyError(int measuredFrequencyError)
+    {
+        super.setMeasuredFrequencyError(measuredFrequencyError);
+        getFrequencyErrorCorrectionManager().updatePPM(getPPMFrequencyError());
+    }
+
+    /**
+     * Network transfer processor providing the connection state and drop and latency counters.
+     */
+    public RtlTcpTransferProcessor getTransferProcessor()
+    {
+        return mTransferProcessor;
+    }
+
+    /**
+     * Native buffer size for the sample rate.  Matches the USB transfer buffer sizing for the local RTL-2832 tuners so
+     * that downstream buffer durations are the same.
+     */
+    private static int getBufferSize(SampleRate sampleRate)
+    {
+        if(sampleRate.getRate() >= SampleRate.RATE_0_960MHZ.getRate())
+        {
+            return RTL2832TunerController.USB_TRANSFER_BUFFER_SIZE_HIGH_SAMPLE_RATE;
+        }
+
+        return RTL2832TunerController.USB_TRANSFER_BUFFER_SIZE_LOW_SAMPLE_RATE;
+    }
+
+    @Override
+    public int getBufferSampleCount()
+    {
+        return mTransferProcessor.getBufferSize() / 2; //2 bytes per complex sample
+    }
+
+    @Override
+    protected NativeBufferConverter getNativeBufferConverter()
+    {
+        return mNativeBufferConverter;
+    }
+
+    @Override
+    public void dispose()
+    {
+        mTransferProcessor.removeListener();
+    }
+
+    /**
+     * Adds the IQ buffer listener and automatically starts the sample stream, if not already started.
+     */
+    @Override
+    public void addBufferListener(Listener<ReusableComplexBuffer> listener)
+    {
+        boolean hasExistingListeners = hasBufferListeners();
+
+        super.addBufferListener(listener);
+
+        if(!hasExistingListeners)
+        {
+            mTransferProcessor.setListener(this);
+        }
+    }
+
+    /**
+     * Removes the IQ buffer listener and stops the sample stream if there are no more listeners.
+     */
+    @Override
+    public void removeBufferListener(Listener<ReusableComplexBuffer> listener)
+    {
+        super.removeBufferListener(listener);
+
+        if(!hasBufferListeners())
+        {
+            mTransferProcessor.removeListener();
+        }
+    }
+
+    @Override
+    public void apply(TunerConfiguration tunerConfig) throws SourceException
+    {
+        if(tunerConfig instanceof RtlTcpTunerConfiguration)
+        {
+            RtlTcpTunerConfiguration config = (RtlTcpTunerConfiguration)tunerConfig;
+
+            setSampleRate(config.getSampleRate());
+            setFrequencyCorrection(config.getFrequencyCorrection());
+            getFrequencyErrorCorrectionManager().setEnabled(config.getAutoPPMCorrectionEnabled());
+            setGain(config.getAutomaticGain(), config.getGain());
+
+            try
+            {
+                setFrequency(config.getFrequency());
+            }
+            catch(SourceException se)
+            {
+                //Do nothing, we couldn't set the frequency
+            }
+        }
+    }
+
+    /**
+     * Sets the tuner gain
+     * @param automatic true for tuner automatic gain control
+     * @param gain in tenths of a dB for manual gain (e.g. 297 = 29.7 dB)
+     */
+    public void setGain(boolean automatic, int gain)
+    {
+        mTransferProcessor.send(RtlTcpCommand.SET_GAIN_MODE, automatic ? GAIN_MODE_AUTOMATIC : GAIN_MODE_MANUAL);
+
+        if(!automatic)
+        {
+            mTransferProcessor.send(RtlTcpCommand.SET_GAIN, gain);
+        }
+    }
+
+    /**
+     * Current sample rate
+     */
+    public SampleRate getSampleRateSetting()
+    {
+        return mSampleRate;
+    }
+
+    /**
+     * Sets the sample rate on the remote tuner and resizes the native buffers to match.
+     */
+    public void setSampleRate(SampleRate sampleRate) throws SourceException
+    {
+        if(sampleRate == null)
+        {
+            throw new SourceException("Sample rate cannot be null");
+        }
+
+        mSampleRate = sampleRate;
+        mTransferProcessor.send(RtlTcpCommand.SET_SAMPLE_RATE, sampleRate.getRate());
+        mTransferProcessor.setBufferSize(getBufferSize(sampleRate));
+        mFrequencyController.setSampleRate(sampleRate.getRate());
+    }
+
+    @Override
+    public long getTunedFrequency() throws SourceException
+    {
+        return mTunedFrequency;
+    }
+
+    @Override
+    public void setTunedFrequency(long frequency) throws SourceException
+    {
+        if(frequency < MIN_FREQUENCY || frequency > MAX_FREQUENCY)
+        {
+            throw new SourceException("Frequency [" + frequency + "] is outside of the tunable range");
+        }
+
+        mTunedFrequency = frequency;
+        mTransferProcessor.send(RtlTcpCommand.SET_FREQUENCY, (int)frequency);
+    }
+
+    @Override
+    public double getCurrentSampleRate()
+    {
+        return mSampleRate.getRate();
+    }
+}
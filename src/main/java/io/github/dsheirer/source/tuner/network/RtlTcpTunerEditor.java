@@ -0,0 +1,306 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import io.github.dsheirer.source.SourceException;
+import io.github.dsheirer.source.tuner.configuration.TunerConfiguration;
+import io.github.dsheirer.source.tuner.configuration.TunerConfigurationEditor;
+import io.github.dsheirer.source.tuner.configuration.TunerConfigurationEvent;
+import io.github.dsheirer.source.tuner.configuration.TunerConfigurationModel;
+import io.github.dsheirer.source.tuner.rtl.RTL2832TunerController.SampleRate;
+import net.miginfocom.swing.MigLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.JButton;
+import javax.swing.JCheckBox;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JSeparator;
+import javax.swing.JSpinner;
+import javax.swing.JTextField;
+import javax.swing.SpinnerNumberModel;
+import javax.swing.SwingConstants;
+import java.awt.event.FocusEvent;
+import java.awt.event.FocusListener;
+import java.text.DecimalFormat;
+
+public class RtlTcpTunerEditor extends TunerConfigurationEditor
+{
+    private static final long serialVersionUID = 1L;
+
+    private final static Logger mLog = LoggerFactory.getLogger(RtlTcpTunerEditor.class);
+
+    private RtlTcpTunerController mController;
+
+    private JTextField mConfigurationName;
+    private JLabel mServer;
+    private JButton mStatistics;
+    private JComboBox<SampleRate> mComboSampleRate;
+    private JSpinner mFrequencyCorrection;
+    private JCheckBox mAutoPPMEnabled;
+    private JCheckBox mAutomaticGain;
+    private JSpinner mGain;
+    private boolean mLoading;
+
+    public RtlTcpTunerEditor(TunerConfigurationModel tunerConfigurationModel, RtlTcpTuner tuner)
+    {
+        super(tunerConfigurationModel);
+        mController = tuner.getTunerController();
+
+        init();
+    }
+
+    private RtlTcpTunerConfiguration getConfiguration()
+    {
+        if(hasItem())
+        {
+            return (RtlTcpTunerConfiguration)getItem();
+        }
+
+        return null;
+    }
+
+    private void init()
+    {
+        setLayout(new MigLayout("fill,wrap 4", "[right][grow,fill][right][grow,fill]",
+            "[][][][][][][grow]"));
+
+        add(new JLabel("rtl_tcp Network Tuner Configuration"), "span,align center");
+
+        mConfigurationName = new JTextField();
+        mConfigurationName.setEnabled(false);
+        mConfigurationName.addFocusListener(new FocusListener()
+        {
+            @Override
+            public void focusLost(FocusEvent e)
+            {
+                save();
+            }
+
+            @Override
+            public void focusGained(FocusEvent e)
+            {
+            }
+        });
+
+        add(new JLabel("Name:"));
+        add(mConfigurationName, "span 2");
+
+        mStatistics = new JButton("Statistics");
+        mStatistics.setEnabled(false);
+        mStatistics.addActionListener(e -> JOptionPane.showMessageDialog(RtlTcpTunerEditor.this, getStatistics(),
+            "rtl_tcp Statistics", JOptionPane.INFORMATION_MESSAGE));
+        add(mStatistics);
+
+        add(new JLabel("Server:"));
+        mServer = new JLabel(mController.getUniqueID());
+        add(mServer, "span 3");
+
+        mComboSampleRate = new JComboBox<>(SampleRate.values());
+        mComboSampleRate.setEnabled(false);
+        mComboSampleRate.addActionListener(e ->
+        {
+            SampleRate sampleRate = (SampleRate)mComboSampleRate.getSelectedItem();
+
+            try
+            {
+                mController.setSampleRate(sampleRate);
+                save();
+            }
+            catch(SourceException se)
+            {
+                JOptionPane.showMessageDialog(RtlTcpTunerEditor.this, "rtl_tcp Tuner Controller - couldn't " +
+                    "apply the sample rate setting [" + sampleRate.getLabel() + "] " + se.getLocalizedMessage());
+
+                mLog.error("rtl_tcp Tuner Controller - couldn't apply sample rate setting [" +
+                    sampleRate.getLabel() + "]", se);
+            }
+        });
+        add(new JLabel("Sample Rate:"));
+        add(mComboSampleRate);
+
+        mFrequencyCorrection = new JSpinner(new SpinnerNumberModel(0.0, -1000.0, 1000.0, 0.1));
+        mFrequencyCorrection.setEnabled(false);
+        JSpinner.NumberEditor editor = (JSpinner.NumberEditor)mFrequencyCorrection.getEditor();
+        DecimalFormat format = editor.getFormat();
+        format.setMinimumFractionDigits(1);
+        editor.getTextField().setHorizontalAlignment(SwingConstants.CENTER);
+        mFrequencyCorrection.addChangeListener(e ->
+        {
+            double value = ((SpinnerNumberModel)mFrequencyCorrection.getModel()).getNumber().doubleValue();
+
+            try
+            {
+                mController.setFrequencyCorrection(value);
+            }
+            catch(SourceException se)
+            {
+                mLog.error("Error setting frequency correction value", se);
+            }
+
+            save();
+        });
+        add(new JLabel("PPM:"));
+        add(mFrequencyCorrection);
+
+        add(new JLabel("")); //Space filler
+        add(new JLabel("")); //Space filler
+        add(new JLabel("")); //Space filler
+        mAutoPPMEnabled = new JCheckBox("PPM Auto-Correction");
+        mAutoPPMEnabled.setEnabled(false);
+        mAutoPPMEnabled.addActionListener(e ->
+        {
+            mController.getFrequencyErrorCorrectionManager().setEnabled(mAutoPPMEnabled.isSelected());
+            save();
+        });
+        add(mAutoPPMEnabled);
+
+        add(new JSeparator(JSeparator.HORIZONTAL), "span,grow");
+
+        mAutomaticGain = new JCheckBox("Automatic Gain");
+        mAutomaticGain.setEnabled(false);
+        mAutomaticGain.addActionListener(e ->
+        {
+            mGain.setEnabled(!mAutomaticGain.isSelected());
+            applyGain();
+        });
+        add(new JLabel("Gain:"));
+        add(mAutomaticGain);
+
+        mGain = new JSpinner(new SpinnerNumberModel(29.7, 0.0, 50.0, 0.1));
+        mGain.setEnabled(false);
+        mGain.setToolTipText("Manual tuner gain (dB).  The rtl_tcp server selects the nearest supported gain value");
+        mGain.addChangeListener(e -> applyGain());
+        add(new JLabel("Manual (dB):"));
+        add(mGain);
+    }
+
+    /**
+     * Applies the gain controls to the tuner controller and saves the configuration
+     */
+    private void applyGain()
+    {
+        if(!mLoading)
+        {
+            mController.setGain(mAutomaticGain.isSelected(), getGainTenthsDb());
+            save();
+        }
+    }
+
+    /**
+     * Manual gain spinner value in tenths of a dB
+     */
+    private int getGainTenthsDb()
+    {
+        return (int)Math.round(((SpinnerNumberModel)mGain.getModel()).getNumber().doubleValue() * 10.0);
+    }
+
+    private String getStatistics()
+    {
+        RtlTcpTransferProcessor processor = mController.getTransferProcessor();
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("<html><h3>rtl_tcp ").append(mController.getUniqueID()).append("</h3>");
+        sb.append("<b>Connected: </b>").append(processor.isConnected()).append("<br>");
+        sb.append("<b>Remote Tuner Type: </b>").append(processor.getRemoteTunerType()).append("<br>");
+        sb.append("<b>Bytes Received: </b>").append(String.format("%,d", processor.getBytesReceived())).append("<br>");
+        sb.append("<b>Buffers Dispatched: </b>").append(String.format("%,d", processor.getBuffersDispatched()))
+            .append("<br>");
+        sb.append("<b>Buffers Dropped: </b>").append(String.format("%,d", processor.getBuffersDropped()))
+            .append("<br>");
+        sb.append("<b>Latency Avg/Max: </b>").append(String.format("%.2f / %.2f ms", processor.getAverageLatency(),
+            processor.getMaximumLatency())).append("<br>");
+        sb.append("<b>Reconnects: </b>").append(processor.getReconnectCount()).append("<br>");
+        return sb.toString();
+    }
+
+    @Override
+    public void setTunerLockState(boolean locked)
+    {
+        mComboSampleRate.setEnabled(!locked);
+    }
+
+    /**
+     * Sets each of the tuner configuration controls to the enabled argument state
+     */
+    private void setControlsEnabled(boolean enabled)
+    {
+        mConfigurationName.setEnabled(enabled);
+        mStatistics.setEnabled(enabled);
+        mFrequencyCorrection.setEnabled(enabled);
+        mAutoPPMEnabled.setEnabled(enabled);
+        mAutomaticGain.setEnabled(enabled);
+        mGain.setEnabled(enabled && !mAutomaticGain.isSelected());
+        mComboSampleRate.setEnabled(enabled && !mController.isLocked());
+    }
+
+    @Override
+    public void save()
+    {
+        if(hasItem() && !mLoading)
+        {
+            RtlTcpTunerConfiguration config = getConfiguration();
+
+            config.setName(mConfigurationName.getText());
+            config.setFrequencyCorrection(((SpinnerNumberModel)mFrequencyCorrection.getModel()).getNumber()
+                .doubleValue());
+            config.setAutoPPMCorrectionEnabled(mAutoPPMEnabled.isSelected());
+            config.setSampleRate((SampleRate)mComboSampleRate.getSelectedItem());
+            config.setAutomaticGain(mAutomaticGain.isSelected());
+            config.setGain(getGainTenthsDb());
+
+            getTunerConfigurationModel().broadcast(
+                new TunerConfigurationEvent(getConfiguration(), TunerConfigurationEvent.Event.CHANGE));
+        }
+    }
+
+    @Override
+    public void setItem(TunerConfiguration tunerConfiguration)
+    {
+        super.setItem(tunerConfiguration);
+
+        //Toggle loading so that we don't fire a change event and schedule a settings file save
+        mLoading = true;
+
+        if(hasItem() && tunerConfiguration.isAssigned())
+        {
+            RtlTcpTunerConfiguration config = getConfiguration();
+
+            mConfigurationName.setText(config.getName());
+            mFrequencyCorrection.setValue(config.getFrequencyCorrection());
+            mAutoPPMEnabled.setSelected(config.getAutoPPMCorrectionEnabled());
+            mComboSampleRate.setSelectedItem(config.getSampleRate());
+            mAutomaticGain.setSelected(config.getAutomaticGain());
+            mGain.setValue(config.getGain() / 10.0);
+            setControlsEnabled(true);
+        }
+        else
+        {
+            setControlsEnabled(false);
+            mConfigurationName.setText("");
+        }
+
+        mLoading = false;
+    }
+}
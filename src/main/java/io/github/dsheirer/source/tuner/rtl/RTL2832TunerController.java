@@ -104,6 +104,12 @@ public abstract class RTL2832TunerController extends USBTunerController
         return getUSBTransferBufferSize(getSampleRate()) / 2; //2 bytes per complex sample
     }
 
+    @Override
+    protected NativeBufferConverter getNativeBufferConverter()
+    {
+        return mNativeBufferConverter;
+    }
+
 
     public void init() throws SourceException
     {
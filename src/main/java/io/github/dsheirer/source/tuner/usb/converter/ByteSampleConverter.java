@@ -15,6 +15,8 @@
  ******************************************************************************/
 package io.github.dsheirer.source.tuner.usb.converter;
 
+import io.github.dsheirer.record.timeshift.NativeSampleFormat;
+
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 
@@ -45,6 +47,12 @@ public class ByteSampleConverter extends NativeBufferConverter
     {
     }
 
+    @Override
+    public NativeSampleFormat getNativeSampleFormat()
+    {
+        return NativeSampleFormat.UNSIGNED_8;
+    }
+
     /**
      * Converts the 8-bit complex samples contained in the native buffer into floats that are loaded into a float
      * buffer and subsequently transferred to a reusable complex buffer by the parent class.
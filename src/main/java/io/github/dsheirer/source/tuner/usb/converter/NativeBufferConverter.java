@@ -15,6 +15,8 @@
  ******************************************************************************/
 package io.github.dsheirer.source.tuner.usb.converter;
 
+import io.github.dsheirer.record.timeshift.NativeSampleFormat;
+import io.github.dsheirer.record.timeshift.TimeShiftBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
 import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
 
@@ -24,6 +26,7 @@ import java.nio.FloatBuffer;
 public abstract class NativeBufferConverter
 {
     private ReusableComplexBufferQueue mReusableComplexBufferQueue = new ReusableComplexBufferQueue("NativeBufferConverter");
+    private volatile TimeShiftBuffer mTimeShiftBuffer;
 
     /**
      * Converts native byte buffers into complex float samples and produces reusable complex sample buffers.  Tracks
@@ -43,6 +46,13 @@ public abstract class NativeBufferConverter
      */
     public ReusableComplexBuffer convert(ByteBuffer byteBuffer, int length)
     {
+        TimeShiftBuffer timeShiftBuffer = mTimeShiftBuffer;
+
+        if(timeShiftBuffer != null)
+        {
+            timeShiftBuffer.write(byteBuffer, length);
+        }
+
         FloatBuffer floatBuffer = convertSamples(byteBuffer, length);
 
         ReusableComplexBuffer reusableComplexBuffer = mReusableComplexBufferQueue.getBuffer(floatBuffer.capacity());
@@ -53,6 +63,27 @@ public abstract class NativeBufferConverter
         return reusableComplexBuffer;
     }
 
+    /**
+     * Native I/Q sample format of the byte buffers handled by this converter.
+     *
+     * @return native sample format or null if the native buffers don't contain interleaved I/Q samples that can be
+     * stored in a time-shift buffer.
+     */
+    public NativeSampleFormat getNativeSampleFormat()
+    {
+        return null;
+    }
+
+    /**
+     * Sets the time-shift buffer to receive a copy of each native byte buffer before it is converted.
+     *
+     * @param timeShiftBuffer to receive native samples, or null to stop writing native samples
+     */
+    public void setTimeShiftBuffer(TimeShiftBuffer timeShiftBuffer)
+    {
+        mTimeShiftBuffer = timeShiftBuffer;
+    }
+
     /**
      * Converts the native byte buffer bytes into complex float samples.
      *
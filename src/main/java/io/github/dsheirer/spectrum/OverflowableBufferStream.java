@@ -213,7 +213,7 @@ public class OverflowableBufferStream extends OverflowableTransferQueue<Reusable
     }
 
     /**
-     * Clears all elements from the queue and resets the internal counter to 0
+     * Clears all elements from the queue
      */
     @Override
     public void clear()
@@ -228,7 +228,6 @@ public class OverflowableBufferStream extends OverflowableTransferQueue<Reusable
                 buffer = mQueue.poll();
             }
 
-            mCounter.set(0);
             mOverflow.set(false);
         }
     }
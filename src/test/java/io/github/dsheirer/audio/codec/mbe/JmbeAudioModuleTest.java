@@ -0,0 +1,200 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.preference.PreferenceType;
+import jmbe.iface.IAudioCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for JMBE audio module frame ordering, frame drops, call boundaries and codec swaps
+ */
+public class JmbeAudioModuleTest
+{
+    @TempDir
+    Path mDirectory;
+
+    private JmbeTestAudioModule createModule(JmbeTestAudioModule.TestPreference preference)
+    {
+        return new JmbeTestAudioModule(preference, new JmbeCodecManager(preference));
+    }
+
+    @Test
+    void framesDecodeInOrderIntoOneSegmentPerCall() throws Exception
+    {
+        JmbeTestAudioModule module = createModule(new JmbeTestAudioModule.TestPreference(
+            JmbeTestLibrary.create(mDirectory, 1)));
+        Random random = new Random(1234);
+        List<Integer> callLengths = new ArrayList<>();
+        int frame = 0;
+
+        CountDownLatch latch = module.blockLane();
+
+        for(int call = 0; call < 10; call++)
+        {
+            int length = 1 + random.nextInt(40);
+            callLengths.add(length);
+
+            for(int x = 0; x < length; x++)
+            {
+                Assertions.assertTrue(module.decode(frame++), "Frame queued");
+            }
+
+            module.stop();
+        }
+
+        latch.countDown();
+        module.awaitLane();
+
+        List<Integer> decoded = module.getDecodedFrames();
+        Assertions.assertEquals(frame, decoded.size(), "Decoded frame count");
+
+        for(int x = 0; x < decoded.size(); x++)
+        {
+            Assertions.assertEquals(x, decoded.get(x).intValue(), "Frames decode in queued order");
+        }
+
+        List<AudioSegment> segments = module.getAudioSegments();
+        Assertions.assertEquals(callLengths.size(), segments.size(), "One audio segment per call");
+
+        for(int x = 0; x < segments.size(); x++)
+        {
+            Assertions.assertEquals(callLengths.get(x).intValue(), segments.get(x).getAudioBufferCount(),
+                "Each call's queued frames are included in the call's audio segment");
+            Assertions.assertTrue(segments.get(x).completeProperty().get(), "Audio segment closed at call end");
+        }
+
+        module.dispose();
+    }
+
+    @Test
+    void messageThreadTasksFromPreviousCallAreDiscarded() throws Exception
+    {
+        JmbeTestAudioModule module = createModule(new JmbeTestAudioModule.TestPreference(
+            JmbeTestLibrary.create(mDirectory, 1)));
+        AtomicInteger previousCallTasks = new AtomicInteger();
+        AtomicInteger currentCallTasks = new AtomicInteger();
+
+        CountDownLatch latch = module.blockLane();
+
+        for(int x = 0; x < 10; x++)
+        {
+            module.decode(x, previousCallTasks::incrementAndGet);
+        }
+
+        //End the call while its frames are still queued and then start the next call
+        module.stop();
+
+        for(int x = 10; x < 15; x++)
+        {
+            module.decode(x, currentCallTasks::incrementAndGet);
+        }
+
+        latch.countDown();
+        module.awaitLane();
+        module.processMessageThreadTasks();
+
+        Assertions.assertEquals(0, previousCallTasks.get(), "Tasks posted for the ended call are discarded");
+        Assertions.assertEquals(5, currentCallTasks.get(), "Tasks posted for the current call are executed");
+        Assertions.assertEquals(15, module.getDecodedFrames().size(), "All queued frames decoded");
+
+        module.dispose();
+    }
+
+    @Test
+    void framesAreDroppedWhenModuleQueueIsFull() throws Exception
+    {
+        JmbeTestAudioModule module = createModule(new JmbeTestAudioModule.TestPreference(
+            JmbeTestLibrary.create(mDirectory, 1)));
+
+        CountDownLatch latch = module.blockLane();
+
+        int queued = 0;
+
+        for(int x = 0; x < VocoderWorkerPool.MAXIMUM_QUEUED_FRAMES_PER_MODULE + 100; x++)
+        {
+            if(module.decode(x))
+            {
+                queued++;
+            }
+        }
+
+        Assertions.assertEquals(VocoderWorkerPool.MAXIMUM_QUEUED_FRAMES_PER_MODULE, queued, "Frames queued");
+
+        latch.countDown();
+        module.awaitLane();
+
+        Assertions.assertEquals(queued, module.getDecodedFrames().size(), "Queued frames decoded");
+        Assertions.assertEquals(VocoderWorkerPool.MAXIMUM_QUEUED_FRAMES_PER_MODULE - 1,
+            module.getDecodedFrames().get(queued - 1).intValue(), "Frames beyond the module limit are dropped");
+        Assertions.assertTrue(module.decode(0), "Frames are queued again once the module queue drains");
+
+        module.dispose();
+    }
+
+    @Test
+    void queuedFramesDecodeWithNewCodecAfterLibraryReload() throws Exception
+    {
+        JmbeTestAudioModule.TestPreference preference =
+            new JmbeTestAudioModule.TestPreference(JmbeTestLibrary.create(mDirectory, 1));
+        JmbeCodecManager manager = new JmbeCodecManager(preference);
+        JmbeTestAudioModule module = new JmbeTestAudioModule(preference, manager);
+        IAudioCodec previous = module.getAudioCodec();
+
+        CountDownLatch latch = module.blockLane();
+
+        for(int x = 0; x < 100; x++)
+        {
+            module.decode(x);
+        }
+
+        preference.setPath(JmbeTestLibrary.create(mDirectory, 2));
+        manager.preferenceUpdated(PreferenceType.JMBE_LIBRARY);
+
+        Assertions.assertNotSame(previous, module.getAudioCodec(), "Codec is swapped without waiting for the lane");
+
+        latch.countDown();
+        module.awaitLane();
+
+        Assertions.assertTrue(module.getErrors().isEmpty(), "Frames decode without errors");
+
+        for(Float sample: module.getDecodedSamples())
+        {
+            Assertions.assertEquals(2.0f, sample, "Queued frames decode with the new library");
+        }
+
+        Assertions.assertFalse(JmbeTestLibrary.canLoad(previous, JmbeTestLibrary.CLOSED_MARKER_CLASS),
+            "Previous library is closed after the previous codec is released");
+
+        module.dispose();
+        module.awaitLane();
+        Assertions.assertEquals(0, manager.getOutstandingCodecCount(), "Outstanding codecs after dispose");
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import io.github.dsheirer.preference.PreferenceType;
+import jmbe.iface.IAudioCodec;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Tests for loading, pooling and reloading JMBE audio codecs
+ */
+public class JmbeCodecManagerTest
+{
+    @TempDir
+    Path mDirectory;
+
+    @Test
+    void codecsArePooledPerLibrary() throws Exception
+    {
+        JmbeTestAudioModule.TestPreference preference =
+            new JmbeTestAudioModule.TestPreference(JmbeTestLibrary.create(mDirectory, 1));
+        JmbeCodecManager manager = new JmbeCodecManager(preference);
+
+        IAudioCodec codec = manager.getCodec(preference, JmbeTestAudioModule.CODEC_NAME);
+        Assertions.assertNotNull(codec, "Codec created from library");
+        Assertions.assertEquals(1, manager.getOutstandingCodecCount(), "Outstanding codecs");
+
+        manager.releaseCodec(JmbeTestAudioModule.CODEC_NAME, codec);
+        Assertions.assertEquals(0, manager.getOutstandingCodecCount(), "Outstanding codecs");
+        Assertions.assertSame(codec, manager.getCodec(preference, JmbeTestAudioModule.CODEC_NAME),
+            "Released codec is reused");
+        Assertions.assertEquals(1, manager.getCreatedCodecCount(JmbeTestAudioModule.CODEC_NAME), "Created codecs");
+
+        manager.releaseCodec(JmbeTestAudioModule.CODEC_NAME, codec);
+        preference.setPath(JmbeTestLibrary.create(mDirectory, 2));
+        manager.preferenceUpdated(PreferenceType.JMBE_LIBRARY);
+
+        Assertions.assertFalse(JmbeTestLibrary.canLoad(codec, JmbeTestLibrary.CLOSED_MARKER_CLASS),
+            "Previous library is closed immediately when none of its codecs are in use");
+
+        IAudioCodec reloaded = manager.getCodec(preference, JmbeTestAudioModule.CODEC_NAME);
+        Assertions.assertNotSame(codec, reloaded, "Pooled codecs from the previous library are discarded");
+        Assertions.assertEquals(2.0f, reloaded.getAudio(new byte[1])[0], "Codec from the new library");
+    }
+
+    @Test
+    void previousLibraryStaysOpenWhileModuleHoldsCodec() throws Exception
+    {
+        JmbeTestAudioModule.TestPreference preference =
+            new JmbeTestAudioModule.TestPreference(JmbeTestLibrary.create(mDirectory, 1));
+        JmbeCodecManager manager = new JmbeCodecManager(preference);
+        JmbeTestAudioModule module = new JmbeTestAudioModule(preference, manager);
+        IAudioCodec previous = module.getAudioCodec();
+        Assertions.assertNotNull(previous, "Module obtained a codec");
+
+        //Hold audio frames queued behind a blocked lane while the library is switched
+        CountDownLatch latch = module.blockLane();
+
+        for(int x = 0; x < 50; x++)
+        {
+            module.decode(x);
+        }
+
+        preference.setPath(JmbeTestLibrary.create(mDirectory, 2));
+        manager.preferenceUpdated(PreferenceType.JMBE_LIBRARY);
+
+        Assertions.assertTrue(JmbeTestLibrary.canLoad(previous, JmbeTestLibrary.OPEN_MARKER_CLASS),
+            "Previous library stays open while the module holds one of its codecs");
+
+        latch.countDown();
+        module.awaitLane();
+
+        Assertions.assertTrue(module.getErrors().isEmpty(), "Queued frames decode without errors: " +
+            module.getErrors());
+        Assertions.assertEquals(50, module.getDecodedFrames().size(), "Queued frames decoded");
+        Assertions.assertEquals(2.0f, module.getAudioCodec().getAudio(new byte[1])[0],
+            "Module swapped to a codec from the new library");
+        Assertions.assertFalse(JmbeTestLibrary.canLoad(previous, JmbeTestLibrary.CLOSED_MARKER_CLASS),
+            "Previous library is closed once the module releases its codec");
+        Assertions.assertEquals(1, manager.getOutstandingCodecCount(), "Outstanding codecs");
+
+        module.dispose();
+        module.awaitLane();
+        Assertions.assertEquals(0, manager.getOutstandingCodecCount(), "Outstanding codecs after dispose");
+    }
+}
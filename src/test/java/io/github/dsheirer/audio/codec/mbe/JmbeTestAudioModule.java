@@ -0,0 +1,193 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.audio.squelch.SquelchStateEvent;
+import io.github.dsheirer.message.IMessage;
+import io.github.dsheirer.preference.decoder.JmbeLibraryPreference;
+import io.github.dsheirer.sample.Listener;
+import org.junit.jupiter.api.Assertions;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMBE audio module for testing that decodes single byte frames with the stand-in test library and records the
+ * decoded frames, any decode errors and the produced audio segments.
+ */
+public class JmbeTestAudioModule extends JmbeAudioModule
+{
+    public static final String CODEC_NAME = "TEST";
+
+    private List<Integer> mDecodedFrames = new CopyOnWriteArrayList<>();
+    private List<Float> mDecodedSamples = new CopyOnWriteArrayList<>();
+    private List<Throwable> mErrors = new CopyOnWriteArrayList<>();
+    private List<AudioSegment> mAudioSegments = new CopyOnWriteArrayList<>();
+
+    public JmbeTestAudioModule(JmbeLibraryPreference preference, JmbeCodecManager codecManager)
+    {
+        super(preference, new AliasList("test"), DEFAULT_TIMESLOT, codecManager);
+        setAudioSegmentListener(mAudioSegments::add);
+    }
+
+    /**
+     * Queues the numbered audio frame for decoding.
+     * @return true if the frame was queued or false if it was dropped
+     */
+    public boolean decode(int frame)
+    {
+        return decode(frame, null);
+    }
+
+    /**
+     * Queues the numbered audio frame for decoding and, once decoded, posts the message thread task.
+     * @return true if the frame was queued or false if it was dropped
+     */
+    public boolean decode(int frame, Runnable messageThreadTask)
+    {
+        return decodeAudio(() -> {
+            try
+            {
+                float[] audio = getAudioCodec().getAudio(new byte[]{(byte)frame});
+
+                if(messageThreadTask != null)
+                {
+                    postToMessageThread(messageThreadTask);
+                }
+
+                mDecodedFrames.add(frame);
+                mDecodedSamples.add(audio[0]);
+                addAudio(audio);
+            }
+            catch(Throwable t)
+            {
+                mErrors.add(t);
+            }
+        });
+    }
+
+    /**
+     * Blocks the module's vocoder lane until the returned latch is released.
+     */
+    public CountDownLatch blockLane()
+    {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        queueLaneTask(() -> {
+            try
+            {
+                latch.await();
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        return latch;
+    }
+
+    /**
+     * Waits for all previously queued lane tasks to complete.
+     */
+    public void awaitLane() throws InterruptedException
+    {
+        CountDownLatch latch = new CountDownLatch(1);
+        queueLaneTask(latch::countDown);
+        Assertions.assertTrue(latch.await(10, TimeUnit.SECONDS), "Vocoder lane completed queued tasks");
+    }
+
+    public List<Integer> getDecodedFrames()
+    {
+        return mDecodedFrames;
+    }
+
+    public List<Float> getDecodedSamples()
+    {
+        return mDecodedSamples;
+    }
+
+    public List<Throwable> getErrors()
+    {
+        return mErrors;
+    }
+
+    public List<AudioSegment> getAudioSegments()
+    {
+        return mAudioSegments;
+    }
+
+    @Override
+    protected String getCodecName()
+    {
+        return CODEC_NAME;
+    }
+
+    @Override
+    public void receive(IMessage message)
+    {
+    }
+
+    @Override
+    public Listener<SquelchStateEvent> getSquelchStateListener()
+    {
+        return event -> queueCloseAudioSegment();
+    }
+
+    @Override
+    public void reset()
+    {
+    }
+
+    @Override
+    public void start()
+    {
+    }
+
+    /**
+     * JMBE library preference with a library path that can be changed without persisting it.
+     */
+    public static class TestPreference extends JmbeLibraryPreference
+    {
+        private Path mPath;
+
+        public TestPreference(Path path)
+        {
+            super(preferenceType -> {});
+            mPath = path;
+        }
+
+        @Override
+        public Path getPathJmbeLibrary()
+        {
+            return mPath;
+        }
+
+        public void setPath(Path path)
+        {
+            mPath = path;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import jmbe.iface.IAudioCodec;
+import org.junit.jupiter.api.Assertions;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds stand-in JMBE library jars for testing library reloads.  Each jar contains a jmbe.JMBEAudioLibrary whose
+ * codecs decode every frame to a single sample containing the library generation number.  The frame decoder class is
+ * loaded lazily on the first decode, so decoding after the library class loader is closed fails with a
+ * NoClassDefFoundError, as it would with the real library.  The jar also contains two marker classes that are never
+ * loaded by the library and can be used to probe whether the class loader is still open.
+ */
+public class JmbeTestLibrary
+{
+    public static final String OPEN_MARKER_CLASS = "jmbe.OpenMarker";
+    public static final String CLOSED_MARKER_CLASS = "jmbe.ClosedMarker";
+
+    /**
+     * Compiles and packages a library jar for the specified generation.
+     *
+     * @param directory to create the jar in
+     * @param generation number that the library's codecs output as the decoded audio sample
+     * @return path to the jar
+     */
+    public static Path create(Path directory, int generation) throws IOException
+    {
+        Path sources = Files.createDirectories(directory.resolve("src" + generation).resolve("jmbe"));
+        Path classes = Files.createDirectories(directory.resolve("classes" + generation));
+
+        write(sources, "JMBEAudioLibrary", "public class JMBEAudioLibrary implements jmbe.iface.IAudioCodecLibrary {" +
+            "public jmbe.iface.IAudioCodec getAudioConverter(String name) {return new TestCodec(name);}" +
+            "public String getVersion() {return \"1.0." + generation + "\";}" +
+            "public int getMajorVersion() {return 1;}" +
+            "public int getMinorVersion() {return 0;}" +
+            "public int getBuildVersion() {return " + generation + ";}}");
+        write(sources, "TestCodec", "public class TestCodec implements jmbe.iface.IAudioCodec {" +
+            "private String mName; public TestCodec(String name) {mName = name;}" +
+            "public float[] getAudio(byte[] frame) {return FrameDecoder.decode(frame);}" +
+            "public jmbe.iface.IAudioWithMetadata getAudioWithMetadata(byte[] frame) {return null;}" +
+            "public void reset() {}" +
+            "public String getCodecName() {return mName;}}");
+        write(sources, "FrameDecoder", "public class FrameDecoder {" +
+            "public static float[] decode(byte[] frame) {return new float[]{" + generation + "};}}");
+        write(sources, "OpenMarker", "public class OpenMarker {}");
+        write(sources, "ClosedMarker", "public class ClosedMarker {}");
+
+        List<String> arguments = new ArrayList<>();
+        arguments.add("-d");
+        arguments.add(classes.toString());
+        arguments.add("-classpath");
+        arguments.add(getInterfaceClassPath());
+
+        try(Stream<Path> stream = Files.list(sources))
+        {
+            arguments.addAll(stream.map(Path::toString).collect(Collectors.toList()));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Assertions.assertNotNull(compiler, "Java compiler is required to build the test library");
+        Assertions.assertEquals(0, compiler.run(null, null, null, arguments.toArray(new String[0])),
+            "Test library compiles");
+
+        Path jar = directory.resolve("jmbe-1.0." + generation + ".jar");
+
+        try(JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jar));
+            Stream<Path> stream = Files.list(classes.resolve("jmbe")))
+        {
+            for(Path classFile: stream.collect(Collectors.toList()))
+            {
+                jarOutputStream.putNextEntry(new JarEntry("jmbe/" + classFile.getFileName().toString()));
+                jarOutputStream.write(Files.readAllBytes(classFile));
+                jarOutputStream.closeEntry();
+            }
+        }
+
+        return jar;
+    }
+
+    /**
+     * Indicates if the class loader that loaded the codec can still load classes from the library jar.
+     */
+    public static boolean canLoad(IAudioCodec codec, String className)
+    {
+        try
+        {
+            codec.getClass().getClassLoader().loadClass(className);
+            return true;
+        }
+        catch(ClassNotFoundException | NoClassDefFoundError e)
+        {
+            return false;
+        }
+    }
+
+    private static void write(Path directory, String className, String body) throws IOException
+    {
+        try(OutputStream outputStream = Files.newOutputStream(directory.resolve(className + ".java")))
+        {
+            outputStream.write(("package jmbe; " + body).getBytes());
+        }
+    }
+
+    private static String getInterfaceClassPath()
+    {
+        try
+        {
+            return Paths.get(IAudioCodec.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        }
+        catch(Exception e)
+        {
+            throw new IllegalStateException("Unable to locate the JMBE interface classes", e);
+        }
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.dsheirer.module.decode.p25.audio.VoiceFrame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Round trip tests for the binary MBE call sequence writer and reader and the JSON to binary converter.
+ */
+public class MBECallSequenceWriterTest
+{
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final long START = 1600000000000L;
+
+    @TempDir
+    Path mDirectory;
+    private Random mRandom = new Random(33);
+
+    /**
+     * Random upper case hexadecimal frame value with the number of nibbles
+     */
+    private String getFrame(int nibbles)
+    {
+        char[] frame = new char[nibbles];
+
+        for(int x = 0; x < nibbles; x++)
+        {
+            frame[x] = HEX[mRandom.nextInt(16)];
+        }
+
+        return new String(frame);
+    }
+
+    /**
+     * Creates a call sequence with identifiers and voice frames retained in the sequence.
+     *
+     * @param frameCount number of voice frames
+     * @param nibbles per voice frame
+     * @param encryptedEvery adds every nth frame as an encrypted frame, or 0 for no encrypted frames
+     */
+    private MBECallSequence getSequence(String protocol, int frameCount, int nibbles, int encryptedEvery)
+    {
+        MBECallSequence sequence = new MBECallSequence(protocol);
+        sequence.setCallType("GROUP");
+        sequence.setFromIdentifier(String.valueOf(1000000 + mRandom.nextInt(1000000)));
+        sequence.setToIdentifier(String.valueOf(1 + mRandom.nextInt(65535)));
+        sequence.setSystem("Système");
+        sequence.setSite("Site " + mRandom.nextInt(10));
+
+        long timestamp = START + mRandom.nextInt(100000);
+
+        for(int x = 0; x < frameCount; x++)
+        {
+            timestamp += 20 + mRandom.nextInt(5);
+
+            if(encryptedEvery > 0 && x % encryptedEvery == 0)
+            {
+                sequence.addEncryptedVoiceFrame(timestamp, getFrame(nibbles), 0x84, mRandom.nextInt(65536),
+                    getFrame(18));
+                sequence.setEncrypted(true);
+            }
+            else
+            {
+                sequence.addVoiceFrame(timestamp, getFrame(nibbles));
+            }
+        }
+
+        return sequence;
+    }
+
+    /**
+     * Writes the call sequence through a call writer the way the call sequence recorder streams voice frames
+     */
+    private static void write(MBECallSequenceWriter writer, MBECallSequence sequence) throws IOException
+    {
+        List<VoiceFrame> voiceFrames = sequence.getVoiceFrames();
+        MBECallSequenceWriter.CallWriter callWriter = writer.startCall(sequence, voiceFrames.get(0).getTimestamp());
+
+        for(VoiceFrame voiceFrame: voiceFrames)
+        {
+            callWriter.receive(voiceFrame);
+        }
+
+        callWriter.finish("TS1");
+    }
+
+    private static void assertSequence(MBECallSequence expected, MBECallSequence actual)
+    {
+        Assertions.assertEquals(expected.getProtocol(), actual.getProtocol(), "protocol");
+        Assertions.assertEquals(expected.getCallType(), actual.getCallType(), "call type");
+        Assertions.assertEquals(expected.getFromIdentifier(), actual.getFromIdentifier(), "from");
+        Assertions.assertEquals(expected.getToIdentifier(), actual.getToIdentifier(), "to");
+        Assertions.assertEquals(expected.getSystem(), actual.getSystem(), "system");
+        Assertions.assertEquals(expected.getSite(), actual.getSite(), "site");
+        Assertions.assertEquals(expected.isEncrypted(), actual.isEncrypted(), "encrypted");
+        assertFrames(expected.getVoiceFrames(), actual.getVoiceFrames());
+        Assertions.assertEquals(expected.getVoiceFrames().size(), actual.getVoiceFrameCount(), "voice frame count");
+    }
+
+    private static void assertFrames(List<VoiceFrame> expected, List<VoiceFrame> actual)
+    {
+        Assertions.assertEquals(expected.size(), actual.size(), "voice frames");
+
+        for(int x = 0; x < expected.size(); x++)
+        {
+            VoiceFrame expectedFrame = expected.get(x);
+            VoiceFrame actualFrame = actual.get(x);
+            Assertions.assertEquals(expectedFrame.getTimestamp(), actualFrame.getTimestamp(), "timestamp " + x);
+            Assertions.assertEquals(expectedFrame.getFrame(), actualFrame.getFrame(), "frame " + x);
+            Assertions.assertEquals(expectedFrame.getAlgorithm(), actualFrame.getAlgorithm(), "algorithm " + x);
+            Assertions.assertEquals(expectedFrame.getKeyId(), actualFrame.getKeyId(), "key id " + x);
+            Assertions.assertEquals(expectedFrame.getMessageIndicator(), actualFrame.getMessageIndicator(),
+                "message indicator " + x);
+        }
+    }
+
+    private List<MBECallSequence> roundTrip(Path path, boolean compressed, List<MBECallSequence> sequences)
+        throws IOException
+    {
+        MBECallSequenceWriter writer = new MBECallSequenceWriter(path, 851012500, compressed);
+
+        for(MBECallSequence sequence: sequences)
+        {
+            write(writer, sequence);
+        }
+
+        writer.close();
+
+        List<MBECallSequence> read = MBECallSequenceBinaryReader.readAll(path);
+        Assertions.assertEquals(sequences.size(), read.size(), "call sequences");
+
+        for(int x = 0; x < sequences.size(); x++)
+        {
+            assertSequence(sequences.get(x), read.get(x));
+        }
+
+        return read;
+    }
+
+    @Test
+    void plainCalls() throws IOException
+    {
+        List<MBECallSequence> sequences = new ArrayList<>();
+
+        //IMBE (144 bits), AMBE (72 bits) and an odd nibble count that packs a half byte.  Frame counts span one
+        //partial block, an exact block, and several blocks.
+        sequences.add(getSequence("APCO25-PHASE1", 7, 36, 0));
+        sequences.add(getSequence("APCO25-PHASE2", MBECallSequenceWriter.FRAMES_PER_BLOCK, 18, 0));
+        sequences.add(getSequence("APCO25-PHASE1", 3 * MBECallSequenceWriter.FRAMES_PER_BLOCK + 11, 37, 0));
+
+        roundTrip(mDirectory.resolve("plain" + MBECallSequenceFormat.FILE_EXTENSION), false, sequences);
+    }
+
+    @Test
+    void encryptedCalls() throws IOException
+    {
+        List<MBECallSequence> sequences = new ArrayList<>();
+        sequences.add(getSequence("APCO25-PHASE1", 120, 36, 1));
+        sequences.add(getSequence("APCO25-PHASE2", 75, 18, 9));
+
+        //Encrypted frame without a message indicator
+        MBECallSequence sequence = getSequence("APCO25-PHASE1", 10, 36, 0);
+        sequence.addEncryptedVoiceFrame(START + 500000, getFrame(36), 0xAA, 0, null);
+        sequence.setEncrypted(true);
+        sequences.add(sequence);
+
+        roundTrip(mDirectory.resolve("encrypted" + MBECallSequenceFormat.FILE_EXTENSION), false, sequences);
+    }
+
+    @Test
+    void compressedCalls() throws IOException
+    {
+        List<MBECallSequence> sequences = new ArrayList<>();
+
+        for(int x = 0; x < 6; x++)
+        {
+            sequences.add(getSequence("APCO25-PHASE1", 40 + mRandom.nextInt(200), 36, x % 2 == 0 ? 0 : 7));
+        }
+
+        //Silence frames repeat, so the compressed recording must be smaller than the plain recording
+        MBECallSequence silence = getSequence("APCO25-PHASE1", 0, 36, 0);
+        String frame = getFrame(36);
+
+        for(int x = 0; x < 500; x++)
+        {
+            silence.addVoiceFrame(START + (x * 20), frame);
+        }
+
+        sequences.add(silence);
+
+        Path compressed = mDirectory.resolve("compressed" + MBECallSequenceFormat.FILE_EXTENSION);
+        Path plain = mDirectory.resolve("plain" + MBECallSequenceFormat.FILE_EXTENSION);
+        roundTrip(compressed, true, sequences);
+        roundTrip(plain, false, sequences);
+
+        Assertions.assertTrue(Files.size(compressed) < Files.size(plain), "compressed size " +
+            Files.size(compressed) + " plain size " + Files.size(plain));
+    }
+
+    @Test
+    void interleavedStreamingCalls() throws IOException
+    {
+        //Two timeslots streaming voice frames into the same file as they are added to each call sequence
+        Path path = mDirectory.resolve("interleaved" + MBECallSequenceFormat.FILE_EXTENSION);
+        MBECallSequenceWriter writer = new MBECallSequenceWriter(path, 851012500, true);
+
+        MBECallSequence expected1 = getSequence("APCO25-PHASE2", 130, 18, 0);
+        MBECallSequence expected2 = getSequence("APCO25-PHASE2", 90, 18, 4);
+        MBECallSequence streamed1 = new MBECallSequence("APCO25-PHASE2");
+        MBECallSequence streamed2 = new MBECallSequence("APCO25-PHASE2");
+        MBECallSequenceWriter.CallWriter callWriter1 = writer.startCall(streamed1, START + 200000);
+        MBECallSequenceWriter.CallWriter callWriter2 = writer.startCall(streamed2, START + 200000);
+        streamed1.setVoiceFrameListener(callWriter1);
+        streamed2.setVoiceFrameListener(callWriter2);
+
+        for(int x = 0; x < expected1.getVoiceFrames().size(); x++)
+        {
+            VoiceFrame voiceFrame = expected1.getVoiceFrames().get(x);
+            streamed1.addVoiceFrame(voiceFrame.getTimestamp(), voiceFrame.getFrame());
+
+            if(x < expected2.getVoiceFrames().size())
+            {
+                voiceFrame = expected2.getVoiceFrames().get(x);
+
+                if(voiceFrame.getAlgorithm() != null)
+                {
+                    streamed2.addEncryptedVoiceFrame(voiceFrame.getTimestamp(), voiceFrame.getFrame(),
+                        voiceFrame.getAlgorithm(), voiceFrame.getKeyId(), voiceFrame.getMessageIndicator());
+                }
+                else
+                {
+                    streamed2.addVoiceFrame(voiceFrame.getTimestamp(), voiceFrame.getFrame());
+                }
+            }
+        }
+
+        Assertions.assertTrue(streamed1.getVoiceFrames().isEmpty(), "streamed frames are not retained");
+
+        for(MBECallSequence[] pair: new MBECallSequence[][]{{expected1, streamed1}, {expected2, streamed2}})
+        {
+            pair[1].setCallType(pair[0].getCallType());
+            pair[1].setFromIdentifier(pair[0].getFromIdentifier());
+            pair[1].setToIdentifier(pair[0].getToIdentifier());
+            pair[1].setSystem(pair[0].getSystem());
+            pair[1].setSite(pair[0].getSite());
+            pair[1].setEncrypted(pair[0].isEncrypted());
+        }
+
+        //Second call finishes first
+        callWriter2.finish("TS2");
+        callWriter1.finish("TS1");
+
+        //A call without audio is discarded
+        writer.startCall(new MBECallSequence("APCO25-PHASE2"), START).finish(null);
+        writer.close();
+
+        List<MBECallSequence> read = MBECallSequenceBinaryReader.readAll(path);
+        Assertions.assertEquals(2, read.size(), "call sequences");
+        assertSequence(expected2, read.get(0));
+        assertSequence(expected1, read.get(1));
+    }
+
+    @Test
+    void truncatedTail() throws IOException
+    {
+        Path path = mDirectory.resolve("truncated" + MBECallSequenceFormat.FILE_EXTENSION);
+        MBECallSequenceWriter writer = new MBECallSequenceWriter(path, 851012500, true);
+        MBECallSequence first = getSequence("APCO25-PHASE1", 80, 36, 0);
+        MBECallSequence second = getSequence("APCO25-PHASE1", 60, 36, 3);
+        write(writer, first);
+        write(writer, second);
+        long completeLength = Files.size(path);
+
+        //Third call has two full blocks written when the recording stops, and a partial block that is never written
+        MBECallSequence third = getSequence("APCO25-PHASE1", 2 * MBECallSequenceWriter.FRAMES_PER_BLOCK + 5, 36, 0);
+        MBECallSequenceWriter.CallWriter callWriter = writer.startCall(third, START);
+
+        for(VoiceFrame voiceFrame: third.getVoiceFrames())
+        {
+            callWriter.receive(voiceFrame);
+        }
+
+        writer.close();
+        long unfinishedLength = Files.size(path);
+        Assertions.assertTrue(unfinishedLength > completeLength, "third call blocks written");
+
+        //Unfinished call is returned with the frames from its complete blocks
+        List<MBECallSequence> read = MBECallSequenceBinaryReader.readAll(path);
+        Assertions.assertEquals(3, read.size(), "call sequences with unfinished call");
+        assertSequence(first, read.get(0));
+        assertSequence(second, read.get(1));
+        assertFrames(third.getVoiceFrames().subList(0, 2 * MBECallSequenceWriter.FRAMES_PER_BLOCK),
+            read.get(2).getVoiceFrames());
+        Assertions.assertEquals("APCO25-PHASE1", read.get(2).getProtocol(), "unfinished call protocol");
+        Assertions.assertNull(read.get(2).getToIdentifier(), "unfinished call has no end record");
+
+        //Truncating inside the final compressed block drops that block but keeps the rest of the recording
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+        {
+            channel.truncate(unfinishedLength - 7);
+        }
+
+        read = MBECallSequenceBinaryReader.readAll(path);
+        Assertions.assertEquals(3, read.size(), "call sequences after truncated block");
+        assertSequence(first, read.get(0));
+        assertSequence(second, read.get(1));
+        assertFrames(third.getVoiceFrames().subList(0, MBECallSequenceWriter.FRAMES_PER_BLOCK),
+            read.get(2).getVoiceFrames());
+
+        //Truncating inside a record header keeps every complete call
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE))
+        {
+            channel.truncate(completeLength + 3);
+        }
+
+        read = MBECallSequenceBinaryReader.readAll(path);
+        Assertions.assertEquals(2, read.size(), "call sequences after truncated header");
+        assertSequence(first, read.get(0));
+        assertSequence(second, read.get(1));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException
+    {
+        Path path = mDirectory.resolve("other" + MBECallSequenceFormat.FILE_EXTENSION);
+        Files.write(path, new byte[]{'{', '"', 'p', 'r', 'o'});
+        Assertions.assertThrows(IOException.class, () -> MBECallSequenceBinaryReader.readAll(path), "magic");
+
+        Files.write(path, new byte[]{0x4D, 0x42, 0x45, 0x53, 9});
+        Assertions.assertThrows(IOException.class, () -> MBECallSequenceBinaryReader.readAll(path), "version");
+    }
+
+    @Test
+    void jsonConverter() throws IOException
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        List<MBECallSequence> sequences = new ArrayList<>();
+        List<Path> jsonPaths = new ArrayList<>();
+
+        for(int x = 0; x < 5; x++)
+        {
+            MBECallSequence sequence = getSequence(x % 2 == 0 ? "APCO25-PHASE1" : "APCO25-PHASE2",
+                20 + mRandom.nextInt(150), x % 2 == 0 ? 36 : 18, x == 3 ? 2 : 0);
+            Path jsonPath = mDirectory.resolve("call-" + x + MBECallSequenceJsonConverter.JSON_FILE_EXTENSION);
+            mapper.writerWithDefaultPrettyPrinter().writeValue(jsonPath.toFile(), sequence);
+            sequences.add(sequence);
+            jsonPaths.add(jsonPath);
+        }
+
+        //Unreadable JSON recording is skipped
+        Path corrupt = mDirectory.resolve("corrupt" + MBECallSequenceJsonConverter.JSON_FILE_EXTENSION);
+        Files.write(corrupt, "{\"protocol\":\"APCO25-PHASE1\",\"frames\":[{\"time\":".getBytes());
+        jsonPaths.add(2, corrupt);
+
+        for(boolean compressed: new boolean[]{false, true})
+        {
+            Path output = mDirectory.resolve("converted-" + compressed + MBECallSequenceFormat.FILE_EXTENSION);
+            Assertions.assertEquals(sequences.size(), MBECallSequenceJsonConverter.convert(jsonPaths, output,
+                compressed), "converted call sequences");
+
+            List<MBECallSequence> read = MBECallSequenceBinaryReader.readAll(output);
+            Assertions.assertEquals(sequences.size(), read.size(), "call sequences");
+
+            for(int x = 0; x < sequences.size(); x++)
+            {
+                assertSequence(sequences.get(x), read.get(x));
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.audio.codec.mbe;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for vocoder worker lane ordering and per-module frame queue bounds
+ */
+public class VocoderWorkerPoolTest
+{
+    @Test
+    void busyModuleDoesNotDropFramesForOtherModulesOnLane() throws Exception
+    {
+        VocoderWorkerPool pool = new VocoderWorkerPool(1);
+        VocoderWorkerPool.Lane lane = pool.assign();
+        AtomicInteger busyQueue = new AtomicInteger();
+        AtomicInteger quietQueue = new AtomicInteger();
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        CountDownLatch block = new CountDownLatch(1);
+        lane.execute(() -> {
+            try
+            {
+                block.await();
+            }
+            catch(InterruptedException ie)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        int busyQueued = 0;
+
+        for(int x = 0; x < VocoderWorkerPool.MAXIMUM_QUEUED_FRAMES_PER_MODULE + 50; x++)
+        {
+            String frame = "busy" + x;
+
+            if(lane.decode(() -> executed.add(frame), busyQueue))
+            {
+                busyQueued++;
+            }
+        }
+
+        for(int x = 0; x < 20; x++)
+        {
+            String frame = "quiet" + x;
+            Assertions.assertTrue(lane.decode(() -> executed.add(frame), quietQueue),
+                "Frames from another module on the lane are not dropped");
+        }
+
+        lane.execute(() -> executed.add("control"));
+
+        Assertions.assertEquals(VocoderWorkerPool.MAXIMUM_QUEUED_FRAMES_PER_MODULE, busyQueued, "Busy frames queued");
+        Assertions.assertEquals(50, lane.getDroppedFrameCount(), "Dropped frame count");
+        Assertions.assertEquals(VocoderWorkerPool.MAXIMUM_QUEUED_FRAMES_PER_MODULE + 20, lane.getQueueDepth(),
+            "Lane queue depth");
+
+        block.countDown();
+
+        CountDownLatch done = new CountDownLatch(1);
+        lane.execute(done::countDown);
+        Assertions.assertTrue(done.await(10, TimeUnit.SECONDS), "Lane completed queued tasks");
+
+        Assertions.assertEquals(busyQueued + 21, executed.size(), "Executed task count");
+
+        for(int x = 0; x < busyQueued; x++)
+        {
+            Assertions.assertEquals("busy" + x, executed.get(x), "Busy module frames execute in order");
+        }
+
+        for(int x = 0; x < 20; x++)
+        {
+            Assertions.assertEquals("quiet" + x, executed.get(busyQueued + x), "Quiet module frames execute in order");
+        }
+
+        Assertions.assertEquals("control", executed.get(executed.size() - 1), "Control task is never dropped");
+        Assertions.assertEquals(0, busyQueue.get(), "Busy module queue drained");
+        Assertions.assertEquals(0, quietQueue.get(), "Quiet module queue drained");
+        Assertions.assertEquals(0, lane.getQueueDepth(), "Lane queue drained");
+    }
+}
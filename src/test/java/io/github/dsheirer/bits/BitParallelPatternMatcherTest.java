@@ -0,0 +1,132 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.bits;
+
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the bit-parallel pattern matcher against a brute force comparison of each pattern.
+ */
+public class BitParallelPatternMatcherTest
+{
+    private static final int MAXIMUM_BIT_ERRORS = 4;
+
+    private Random mRandom = new Random(4321);
+
+    private List<Long> getSyncPatterns()
+    {
+        List<Long> patterns = new ArrayList<>();
+        patterns.add(FrameSync.P25_PHASE1_NORMAL.getSync());
+        patterns.add(FrameSync.P25_PHASE1_ERROR_90_CW.getSync());
+        patterns.add(FrameSync.P25_PHASE1_ERROR_90_CCW.getSync());
+        patterns.add(FrameSync.P25_PHASE1_ERROR_180.getSync());
+
+        for(DMRSyncPattern pattern: DMRSyncPattern.SYNC_PATTERNS)
+        {
+            patterns.add(pattern.getPattern());
+            patterns.add(pattern.getPlus90Pattern());
+            patterns.add(pattern.getMinus90Pattern());
+            patterns.add(pattern.getInvertedPattern());
+        }
+
+        return patterns;
+    }
+
+    /**
+     * Flips up to the specified number of random bits in the value
+     */
+    private long flip(long value, int bitCount, int length)
+    {
+        for(int x = 0; x < bitCount; x++)
+        {
+            value ^= (1l << mRandom.nextInt(length));
+        }
+
+        return value;
+    }
+
+    @Test
+    public void equivalentToBruteForce()
+    {
+        List<Long> patterns = getSyncPatterns();
+        int[] thresholds = new int[patterns.size()];
+
+        BitParallelPatternMatcher matcher = new BitParallelPatternMatcher(48, MAXIMUM_BIT_ERRORS);
+
+        for(int x = 0; x < patterns.size(); x++)
+        {
+            thresholds[x] = (x % 4 == 0) ? MAXIMUM_BIT_ERRORS : 1;
+            Assertions.assertEquals(x, matcher.add(patterns.get(x), thresholds[x]), "Pattern index");
+        }
+
+        for(int x = 0; x < 200000; x++)
+        {
+            //Mix of random values and sync patterns with up to 6 bit errors
+            long value = (x % 2 == 0) ? mRandom.nextLong() :
+                flip(patterns.get(mRandom.nextInt(patterns.size())), mRandom.nextInt(7), 48);
+
+            int expected = BitParallelPatternMatcher.NO_MATCH;
+            int expectedBitErrors = 0;
+
+            for(int y = 0; y < patterns.size(); y++)
+            {
+                int bitErrors = Long.bitCount((value & 0xFFFFFFFFFFFFl) ^ patterns.get(y));
+
+                if(bitErrors <= thresholds[y] && (expected == BitParallelPatternMatcher.NO_MATCH ||
+                    bitErrors < expectedBitErrors))
+                {
+                    expected = y;
+                    expectedBitErrors = bitErrors;
+                }
+            }
+
+            Assertions.assertEquals(expected, matcher.match(value), "Matched pattern for value: " +
+                Long.toHexString(value));
+            Assertions.assertEquals(expectedBitErrors, matcher.getBitErrorCount(), "Bit errors");
+        }
+    }
+
+    @Test
+    public void exactMatchOnly()
+    {
+        //Zero bit errors and a 40-bit pattern length uses multiple segments sized by the maximum segment length
+        BitParallelPatternMatcher matcher = new BitParallelPatternMatcher(40, 0);
+        long pattern = FrameSync.P25_PHASE2_NORMAL.getSync();
+        matcher.add(pattern, 0);
+
+        Assertions.assertEquals(0, matcher.match(pattern));
+        Assertions.assertEquals(0, matcher.match(pattern | (0xABl << 40)), "Bits beyond the pattern length");
+
+        for(int x = 0; x < 40; x++)
+        {
+            Assertions.assertEquals(BitParallelPatternMatcher.NO_MATCH, matcher.match(pattern ^ (1l << x)));
+        }
+    }
+}
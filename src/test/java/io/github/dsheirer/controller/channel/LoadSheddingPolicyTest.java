@@ -0,0 +1,356 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.controller.channel;
+
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.id.priority.Priority;
+import io.github.dsheirer.controller.channel.LoadSheddingController.ShedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests the load shedding channel ranking and the overload and restore thresholds against fake processing chains.
+ */
+public class LoadSheddingPolicyTest
+{
+    private Random mRandom = new Random(42);
+
+    /**
+     * Fake processing chain with a fixed processing load and a shed priority built from its active aliases
+     */
+    private static class FakeChain
+    {
+        private String mName;
+        private ShedPriority mShedPriority;
+        private double mLoad;
+        private boolean mPaused;
+
+        public FakeChain(String name, boolean standard, boolean recording, double load, Alias... aliases)
+        {
+            mName = name;
+            mShedPriority = new ShedPriority(standard, recording);
+            mLoad = load;
+            List<Alias> active = new ArrayList<>();
+            Collections.addAll(active, aliases);
+            mShedPriority.update(active);
+        }
+
+        @Override
+        public String toString()
+        {
+            return mName;
+        }
+    }
+
+    private static Alias getAlias(int priority, boolean recordable)
+    {
+        Alias alias = new Alias("alias");
+        alias.setCallPriority(priority);
+        alias.setRecordable(recordable);
+        return alias;
+    }
+
+    private static Map<FakeChain,ShedPriority> running(List<FakeChain> chains)
+    {
+        Map<FakeChain,ShedPriority> running = new HashMap<>();
+
+        for(FakeChain chain: chains)
+        {
+            if(!chain.mPaused)
+            {
+                running.put(chain, chain.mShedPriority);
+            }
+        }
+
+        return running;
+    }
+
+    private static Map<FakeChain,ShedPriority> shed(List<FakeChain> chains)
+    {
+        Map<FakeChain,ShedPriority> shed = new HashMap<>();
+
+        for(FakeChain chain: chains)
+        {
+            if(chain.mPaused)
+            {
+                shed.put(chain, chain.mShedPriority);
+            }
+        }
+
+        return shed;
+    }
+
+    private static double load(List<FakeChain> chains)
+    {
+        double load = 0.0;
+
+        for(FakeChain chain: chains)
+        {
+            if(!chain.mPaused)
+            {
+                load += chain.mLoad;
+            }
+        }
+
+        return load;
+    }
+
+    @Test
+    void rankingOrder()
+    {
+        //Expected shed order: alias priority first, then traffic before standard, then not recording before recording
+        List<FakeChain> expected = new ArrayList<>();
+        expected.add(new FakeChain("default traffic", false, false, 0.1));
+        expected.add(new FakeChain("default traffic recording", false, true, 0.1));
+        expected.add(new FakeChain("default standard", true, false, 0.1));
+        expected.add(new FakeChain("do not monitor standard recording", true, false, 0.1,
+            getAlias(Priority.DO_NOT_MONITOR, true)));
+        expected.add(new FakeChain("priority 50 traffic", false, false, 0.1, getAlias(50, false)));
+        expected.add(new FakeChain("priority 50 standard", true, false, 0.1, getAlias(50, false)));
+        expected.add(new FakeChain("priority 50 standard recording", true, false, 0.1,
+            getAlias(Priority.DEFAULT_PRIORITY, true), getAlias(50, false)));
+        expected.add(new FakeChain("priority 2 traffic", false, false, 0.1, getAlias(2, false), getAlias(70, false)));
+        expected.add(new FakeChain("priority 1 traffic recording", false, false, 0.1, getAlias(1, true)));
+
+        List<FakeChain> chains = new ArrayList<>(expected);
+        Collections.shuffle(chains, mRandom);
+
+        //Shed one at a time until a single channel remains running
+        for(int x = 0; x < expected.size() - 1; x++)
+        {
+            Map<FakeChain,ShedPriority> running = running(chains);
+            FakeChain lowest = LoadSheddingPolicy.selectShed(running, running.size());
+            Assertions.assertSame(expected.get(x), lowest, "shed " + x);
+            lowest.mPaused = true;
+        }
+
+        Assertions.assertNull(LoadSheddingPolicy.selectShed(running(chains), 1), "last running channel is kept");
+
+        //Restore in the reverse order
+        for(int x = expected.size() - 2; x >= 0; x--)
+        {
+            FakeChain highest = LoadSheddingPolicy.selectRestore(shed(chains));
+            Assertions.assertSame(expected.get(x), highest, "restore " + x);
+            highest.mPaused = false;
+        }
+
+        Assertions.assertNull(LoadSheddingPolicy.selectRestore(shed(chains)), "nothing to restore");
+    }
+
+    @Test
+    void controlChannelsCountAsRunning()
+    {
+        //The only pausable channel can be shed while a control channel that can't be shed is still running
+        FakeChain traffic = new FakeChain("traffic", false, false, 0.5);
+        Map<FakeChain,ShedPriority> candidates = new HashMap<>();
+        candidates.put(traffic, traffic.mShedPriority);
+        Assertions.assertSame(traffic, LoadSheddingPolicy.selectShed(candidates, 2), "shed with control channel");
+        Assertions.assertNull(LoadSheddingPolicy.selectShed(candidates, 1), "no shed when only channel");
+        Assertions.assertNull(LoadSheddingPolicy.selectShed(new HashMap<FakeChain,ShedPriority>(), 3),
+            "no pausable channels");
+    }
+
+    @Test
+    void aliasPriorityAndRecording()
+    {
+        ShedPriority shedPriority = new ShedPriority(true, false);
+        shedPriority.update(null);
+        Assertions.assertEquals(Priority.DEFAULT_PRIORITY, shedPriority.getAliasPriority(), "default priority");
+
+        //Do not monitor doesn't lower the priority, but a recordable alias still marks the channel as recording
+        shedPriority.update(Collections.singletonList(getAlias(Priority.DO_NOT_MONITOR, true)));
+        Assertions.assertEquals(Priority.DEFAULT_PRIORITY, shedPriority.getAliasPriority(), "do not monitor");
+        Assertions.assertTrue(shedPriority.isRecordingOrStreaming(), "recordable alias");
+
+        //Most important priority is kept across updates
+        shedPriority.update(Collections.singletonList(getAlias(20, false)));
+        shedPriority.update(Collections.singletonList(getAlias(60, false)));
+        Assertions.assertEquals(20, shedPriority.getAliasPriority(), "most important priority");
+    }
+
+    @Test
+    void shedHysteresis()
+    {
+        LoadSheddingPolicy policy = new LoadSheddingPolicy();
+
+        //Exactly at the overload threshold is not an overload
+        for(int x = 0; x < 20; x++)
+        {
+            Assertions.assertNull(policy.update(LoadSheddingPolicy.OVERLOAD_THRESHOLD, false, false), "at threshold");
+        }
+
+        //Sustained overload sheds on the 5th consecutive interval and then every 5th interval after that
+        for(int round = 0; round < 3; round++)
+        {
+            for(int x = 1; x < LoadSheddingPolicy.OVERLOAD_INTERVALS_BEFORE_SHED; x++)
+            {
+                Assertions.assertNull(policy.update(0.95, false, round > 0), "overload interval " + x);
+            }
+
+            Assertions.assertEquals(ShedEvent.Action.SHED, policy.update(0.95, false, round > 0), "shed " + round);
+        }
+
+        //A single normal interval resets the overload count
+        for(int x = 1; x < LoadSheddingPolicy.OVERLOAD_INTERVALS_BEFORE_SHED; x++)
+        {
+            policy.update(0.99, false, true);
+        }
+
+        Assertions.assertNull(policy.update(0.80, false, true), "normal interval");
+
+        for(int x = 1; x < LoadSheddingPolicy.OVERLOAD_INTERVALS_BEFORE_SHED; x++)
+        {
+            Assertions.assertNull(policy.update(0.99, false, true), "overload count reset " + x);
+        }
+
+        Assertions.assertEquals(ShedEvent.Action.SHED, policy.update(0.99, false, true), "shed after reset");
+
+        //Sample buffer overflow is an overload at any utilization
+        for(int x = 1; x < LoadSheddingPolicy.OVERLOAD_INTERVALS_BEFORE_SHED; x++)
+        {
+            Assertions.assertNull(policy.update(0.10, true, true), "overflow interval " + x);
+        }
+
+        Assertions.assertEquals(ShedEvent.Action.SHED, policy.update(0.10, true, true), "shed on overflow");
+    }
+
+    @Test
+    void restoreHysteresis()
+    {
+        LoadSheddingPolicy policy = new LoadSheddingPolicy();
+
+        //Nothing is restored when no channels are shed
+        for(int x = 0; x < 50; x++)
+        {
+            Assertions.assertNull(policy.update(0.10, false, false), "nothing shed");
+        }
+
+        //Load between the restore and overload thresholds never restores
+        for(int x = 0; x < 50; x++)
+        {
+            Assertions.assertNull(policy.update(x % 2 == 0 ? 0.70 : 0.89, false, true), "between thresholds");
+        }
+
+        //Restores on the 10th consecutive interval below the restore threshold
+        for(int x = 1; x < LoadSheddingPolicy.NORMAL_INTERVALS_BEFORE_RESTORE; x++)
+        {
+            Assertions.assertNull(policy.update(0.69, false, true), "normal interval " + x);
+        }
+
+        Assertions.assertEquals(ShedEvent.Action.RESTORE, policy.update(0.69, false, true), "restore");
+
+        //An interval between the thresholds or an overload interval resets the normal count
+        for(double interrupt: new double[]{0.75, 0.95})
+        {
+            for(int x = 1; x < LoadSheddingPolicy.NORMAL_INTERVALS_BEFORE_RESTORE; x++)
+            {
+                policy.update(0.30, false, true);
+            }
+
+            Assertions.assertNull(policy.update(interrupt, false, true), "interrupted by " + interrupt);
+
+            for(int x = 1; x < LoadSheddingPolicy.NORMAL_INTERVALS_BEFORE_RESTORE; x++)
+            {
+                Assertions.assertNull(policy.update(0.30, false, true), "normal count reset " + x);
+            }
+
+            Assertions.assertEquals(ShedEvent.Action.RESTORE, policy.update(0.30, false, true), "restore after " +
+                interrupt);
+        }
+
+        //Reset clears a partial count
+        for(int x = 1; x < LoadSheddingPolicy.NORMAL_INTERVALS_BEFORE_RESTORE; x++)
+        {
+            policy.update(0.30, false, true);
+        }
+
+        policy.reset();
+        Assertions.assertNull(policy.update(0.30, false, true), "reset");
+    }
+
+    @Test
+    void sheddingSettlesBetweenThresholds()
+    {
+        //Fake chains whose combined load exceeds the available processor time
+        List<FakeChain> chains = new ArrayList<>();
+        chains.add(new FakeChain("priority 1 standard", true, true, 0.30, getAlias(1, false)));
+        chains.add(new FakeChain("priority 10 traffic", false, false, 0.20, getAlias(10, false)));
+        chains.add(new FakeChain("default standard recording", true, true, 0.20));
+        chains.add(new FakeChain("default standard", true, false, 0.15));
+        chains.add(new FakeChain("default traffic", false, false, 0.15));
+        chains.add(new FakeChain("do not monitor traffic recording", false, false, 0.10,
+            getAlias(Priority.DO_NOT_MONITOR, true)));
+
+        LoadSheddingPolicy policy = new LoadSheddingPolicy();
+        List<String> events = new ArrayList<>();
+
+        for(int interval = 0; interval < 200; interval++)
+        {
+            ShedEvent.Action action = policy.update(load(chains), false, !shed(chains).isEmpty());
+
+            if(action == ShedEvent.Action.SHED)
+            {
+                Map<FakeChain,ShedPriority> running = running(chains);
+                FakeChain lowest = LoadSheddingPolicy.selectShed(running, running.size());
+                lowest.mPaused = true;
+                events.add("SHED " + lowest);
+            }
+            else if(action == ShedEvent.Action.RESTORE)
+            {
+                FakeChain highest = LoadSheddingPolicy.selectRestore(shed(chains));
+                highest.mPaused = false;
+                events.add("RESTORE " + highest);
+            }
+        }
+
+        //Shedding 1.10 down to 0.85 lands between the thresholds, so nothing is restored and nothing oscillates
+        List<String> expected = new ArrayList<>();
+        expected.add("SHED default traffic");
+        expected.add("SHED do not monitor traffic recording");
+        Assertions.assertEquals(expected, events, "shed events");
+        Assertions.assertEquals(0.85, load(chains), 0.0001, "settled load");
+
+        //Load drops once a channel goes quiet and the most important shed channel is restored first, which leaves
+        //the load between the thresholds again
+        chains.get(1).mLoad = 0.0;
+
+        for(int interval = 0; interval < 200; interval++)
+        {
+            ShedEvent.Action action = policy.update(load(chains), false, !shed(chains).isEmpty());
+
+            if(action == ShedEvent.Action.RESTORE)
+            {
+                FakeChain highest = LoadSheddingPolicy.selectRestore(shed(chains));
+                highest.mPaused = false;
+                events.add("RESTORE " + highest);
+            }
+        }
+
+        expected.add("RESTORE do not monitor traffic recording");
+        Assertions.assertEquals(expected, events, "restore events");
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.dsp.filter.fir.complex;
+
+import io.github.dsheirer.dsp.gain.ComplexFeedForwardGainControl;
+import io.github.dsheirer.dsp.gain.SlidingWindowMaximum;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.sample.complex.Complex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Compares the fused front end against separate (reference) filtering, decimation and windowed gain calculations.
+ */
+public class ComplexBasebandFrontEndTest
+{
+    private static final int BUFFER_SIZE = 1000;
+    private static final int BUFFER_COUNT = 5;
+    private static final int AGC_WINDOW = 32;
+
+    private ReusableComplexBufferQueue mBufferQueue = new ReusableComplexBufferQueue("ComplexBasebandFrontEndTest");
+    private Random mRandom = new Random(1234);
+
+    private float[] getCoefficients(int length)
+    {
+        float[] coefficients = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            coefficients[x] = mRandom.nextFloat() - 0.5f;
+        }
+
+        return coefficients;
+    }
+
+    private float[] getSamples(int length)
+    {
+        float[] samples = new float[length * 2];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            //Vary the amplitude so that the envelope maximum ages out of the window
+            samples[x] = (float)((mRandom.nextFloat() - 0.5f) * (1.5 + Math.sin(x / 300.0)));
+        }
+
+        return samples;
+    }
+
+    private void assertFrontEnd(int taps, int decimation)
+    {
+        float[] coefficients = getCoefficients(taps);
+        float[] samples = getSamples(BUFFER_SIZE * BUFFER_COUNT);
+
+        ComplexBasebandFrontEnd frontEnd = new ComplexBasebandFrontEnd(coefficients, decimation);
+        ComplexFIRFilter2 referenceFilter = new ComplexFIRFilter2(coefficients);
+        int sampleIndex = 0;
+
+        for(int x = 0; x < BUFFER_COUNT; x++)
+        {
+            //Reference: filter every sample, retain every decimation-th sample and apply one gain to the buffer that is
+            //calculated from the maximum envelope of the retained samples
+            float[] expected = new float[BUFFER_SIZE * 2];
+            int expectedCount = 0;
+            float max = ComplexFeedForwardGainControl.MINIMUM_ENVELOPE;
+
+            for(int y = x * BUFFER_SIZE * 2; y < (x + 1) * BUFFER_SIZE * 2; y += 2)
+            {
+                float inphase = referenceFilter.filterInphase(samples[y]);
+                float quadrature = referenceFilter.filterQuadrature(samples[y + 1]);
+
+                if(++sampleIndex % decimation == 0)
+                {
+                    max = Math.max(max, Complex.envelope(inphase, quadrature));
+                    expected[expectedCount++] = inphase;
+                    expected[expectedCount++] = quadrature;
+                }
+            }
+
+            ReusableComplexBuffer buffer = mBufferQueue.getBuffer(BUFFER_SIZE * 2);
+            System.arraycopy(samples, x * BUFFER_SIZE * 2, buffer.getSamples(), 0, BUFFER_SIZE * 2);
+
+            ReusableComplexBuffer processed = frontEnd.process(buffer);
+            float[] actual = processed.getSamples();
+
+            Assertions.assertEquals(expectedCount, actual.length, "Output sample count for buffer " + x);
+            Assertions.assertEquals(1.0f / max, frontEnd.getGain(), 1e-4f * frontEnd.getGain(), "Buffer gain");
+
+            for(int y = 0; y < expectedCount; y++)
+            {
+                Assertions.assertEquals(expected[y] / max, actual[y], 1e-4f, "Buffer " + x + " sample " + y);
+            }
+
+            processed.decrementUserCount();
+        }
+    }
+
+    @Test
+    public void gainMatchesFeedForwardGainControl()
+    {
+        //Without decimation, the front end must produce the same output as the separate filter and per-buffer gain
+        float[] coefficients = getCoefficients(37);
+        ComplexBasebandFrontEnd frontEnd = new ComplexBasebandFrontEnd(coefficients);
+        ComplexFIRFilter2 referenceFilter = new ComplexFIRFilter2(coefficients);
+        ComplexFeedForwardGainControl referenceGain = new ComplexFeedForwardGainControl(AGC_WINDOW);
+
+        for(int x = 0; x < BUFFER_COUNT; x++)
+        {
+            float[] samples = getSamples(BUFFER_SIZE);
+
+            ReusableComplexBuffer referenceBuffer = mBufferQueue.getBuffer(samples.length);
+            System.arraycopy(samples, 0, referenceBuffer.getSamples(), 0, samples.length);
+            ReusableComplexBuffer expected = referenceGain.filter(referenceFilter.filter(referenceBuffer));
+
+            ReusableComplexBuffer buffer = mBufferQueue.getBuffer(samples.length);
+            System.arraycopy(samples, 0, buffer.getSamples(), 0, samples.length);
+            ReusableComplexBuffer actual = frontEnd.process(buffer);
+
+            for(int y = 0; y < samples.length; y++)
+            {
+                Assertions.assertEquals(expected.getSamples()[y], actual.getSamples()[y], 1e-4f, "Sample " + y);
+            }
+
+            expected.decrementUserCount();
+            actual.decrementUserCount();
+        }
+    }
+
+    @Test
+    public void filterAndGain()
+    {
+        assertFrontEnd(63, 1);
+        assertFrontEnd(1, 1);
+    }
+
+    @Test
+    public void filterDecimateAndGain()
+    {
+        assertFrontEnd(63, 2);
+        assertFrontEnd(40, 3);
+    }
+
+    @Test
+    public void slidingWindowMaximum()
+    {
+        SlidingWindowMaximum maximum = new SlidingWindowMaximum(AGC_WINDOW);
+        float[] values = new float[2000];
+
+        for(int x = 0; x < values.length; x++)
+        {
+            //Decreasing runs force the maximum to age out of the window
+            values[x] = (x % 100 < 50) ? 100 - (x % 100) : mRandom.nextFloat() * 10;
+
+            float expected = 0.0f;
+
+            for(int y = Math.max(0, x - AGC_WINDOW + 1); y <= x; y++)
+            {
+                expected = Math.max(expected, values[y]);
+            }
+
+            Assertions.assertEquals(expected, maximum.add(values[x]), "Maximum at " + x);
+        }
+    }
+}
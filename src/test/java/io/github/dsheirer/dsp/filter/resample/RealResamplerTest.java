@@ -0,0 +1,185 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.dsp.filter.resample;
+
+import io.github.dsheirer.sample.buffer.ReusableBufferQueue;
+import io.github.dsheirer.sample.buffer.ReusableFloatBuffer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * Quality tests for the polyphase real resampler: output sample count, passband tone fidelity and rejection of tones
+ * that would alias when decimating.
+ */
+public class RealResamplerTest
+{
+    private static final int BUFFER_SIZE = 2000;
+    private static final int SETTLING_SAMPLES = 500;
+    private static final double AMPLITUDE = 0.5;
+
+    private ReusableBufferQueue mBufferQueue = new ReusableBufferQueue("RealResamplerTest");
+
+    /**
+     * Resamples the samples in buffer-size chunks and returns the concatenated output.
+     */
+    private float[] resample(RealResampler resampler, float[] samples, int maxOutput)
+    {
+        float[] output = new float[maxOutput];
+        int[] pointer = new int[1];
+
+        resampler.setListener(buffer -> {
+            float[] resampled = buffer.getSamples();
+            System.arraycopy(resampled, 0, output, pointer[0], resampled.length);
+            pointer[0] += resampled.length;
+            buffer.decrementUserCount();
+        });
+
+        for(int x = 0; x + BUFFER_SIZE <= samples.length; x += BUFFER_SIZE)
+        {
+            ReusableFloatBuffer buffer = mBufferQueue.getBuffer(BUFFER_SIZE);
+            System.arraycopy(samples, x, buffer.getSamples(), 0, BUFFER_SIZE);
+            resampler.resample(buffer);
+        }
+
+        return Arrays.copyOf(output, pointer[0]);
+    }
+
+    private static float[] tone(double frequency, double sampleRate, int length)
+    {
+        float[] samples = new float[length];
+
+        for(int x = 0; x < length; x++)
+        {
+            samples[x] = (float)(AMPLITUDE * Math.sin(2.0 * Math.PI * frequency * x / sampleRate));
+        }
+
+        return samples;
+    }
+
+    /**
+     * Least-squares fit of a sinusoid at the frequency, ignoring the filter settling samples at each end.
+     *
+     * @return array of amplitude and signal-to-residual ratio in dB
+     */
+    private static double[] fit(float[] samples, double frequency, double sampleRate)
+    {
+        double ss = 0.0, sc = 0.0, cc = 0.0, ys = 0.0, yc = 0.0;
+
+        for(int x = SETTLING_SAMPLES; x < samples.length - SETTLING_SAMPLES; x++)
+        {
+            double s = Math.sin(2.0 * Math.PI * frequency * x / sampleRate);
+            double c = Math.cos(2.0 * Math.PI * frequency * x / sampleRate);
+            ss += s * s;
+            cc += c * c;
+            sc += s * c;
+            ys += samples[x] * s;
+            yc += samples[x] * c;
+        }
+
+        double determinant = ss * cc - sc * sc;
+        double a = (ys * cc - yc * sc) / determinant;
+        double b = (yc * ss - ys * sc) / determinant;
+        double signal = 0.0, error = 0.0;
+
+        for(int x = SETTLING_SAMPLES; x < samples.length - SETTLING_SAMPLES; x++)
+        {
+            double model = a * Math.sin(2.0 * Math.PI * frequency * x / sampleRate) +
+                b * Math.cos(2.0 * Math.PI * frequency * x / sampleRate);
+            signal += model * model;
+            error += (samples[x] - model) * (samples[x] - model);
+        }
+
+        return new double[]{Math.sqrt(a * a + b * b), 10.0 * Math.log10(signal / error)};
+    }
+
+    private static double rmsDb(float[] samples)
+    {
+        double sum = 0.0;
+        int count = 0;
+
+        for(int x = SETTLING_SAMPLES; x < samples.length - SETTLING_SAMPLES; x++)
+        {
+            sum += samples[x] * samples[x];
+            count++;
+        }
+
+        return 20.0 * Math.log10(Math.sqrt(sum / count) / (AMPLITUDE / Math.sqrt(2.0)));
+    }
+
+    private void assertPassband(double inputRate, double outputRate, double frequency)
+    {
+        int length = (int)(inputRate * 2) / BUFFER_SIZE * BUFFER_SIZE;
+        float[] output = resample(new RealResampler(inputRate, outputRate, BUFFER_SIZE, 100),
+            tone(frequency, inputRate, length), length);
+
+        Assertions.assertEquals(length * outputRate / inputRate, output.length, 100, "Output sample count");
+
+        double[] fit = fit(output, frequency, outputRate);
+        Assertions.assertEquals(AMPLITUDE, fit[0], 0.001, "Passband gain at " + frequency);
+        Assertions.assertTrue(fit[1] > 70.0, "Passband SNR at " + frequency + " was " + fit[1] + " dB");
+    }
+
+    @Test
+    public void rationalRatioSelection()
+    {
+        Assertions.assertTrue(new RealResampler(50000.0, 8000.0, BUFFER_SIZE, 100).isRational());
+        Assertions.assertTrue(new RealResampler(8000.0, 7200.0, BUFFER_SIZE, 1).isRational());
+        Assertions.assertFalse(new RealResampler(24414.0625, 8000.0, BUFFER_SIZE, 100).isRational());
+    }
+
+    @Test
+    public void rationalPassband()
+    {
+        assertPassband(50000.0, 8000.0, 1000.0);
+        assertPassband(50000.0, 8000.0, 3000.0);
+        assertPassband(8000.0, 7200.0, 1200.0);
+        assertPassband(8000.0, 7200.0, 2200.0);
+    }
+
+    @Test
+    public void arbitraryPassband()
+    {
+        assertPassband(24414.0625, 8000.0, 1000.0);
+        assertPassband(24414.0625, 8000.0, 3000.0);
+    }
+
+    @Test
+    public void aliasRejection()
+    {
+        double[] inputRates = {50000.0, 24414.0625};
+
+        for(double inputRate: inputRates)
+        {
+            int length = (int)(inputRate * 2) / BUFFER_SIZE * BUFFER_SIZE;
+
+            //5.2 kHz folds to 2.8 kHz when decimating to 8 kHz without filtering
+            float[] output = resample(new RealResampler(inputRate, 8000.0, BUFFER_SIZE, 100),
+                tone(5200.0, inputRate, length), length);
+
+            double level = rmsDb(output);
+            Assertions.assertTrue(level < -70.0, "Alias level for input rate " + inputRate + " was " + level + " dB");
+        }
+    }
+}
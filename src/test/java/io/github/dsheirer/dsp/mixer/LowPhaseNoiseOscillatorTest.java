@@ -0,0 +1,224 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.dsp.mixer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Accuracy tests for the low phase noise oscillator block kernels against the per-sample oscillator and against an
+ * ideal (double precision) complex phasor.
+ */
+public class LowPhaseNoiseOscillatorTest
+{
+    private static final double SAMPLE_RATE = 50000.0;
+    private static final double FREQUENCY = 1234.5;
+    private static final float TOLERANCE = 1e-4f;
+
+    /**
+     * Generates complex samples using the per-sample rotate() method
+     */
+    private static float[] generatePerSample(IOscillator oscillator, int sampleCount)
+    {
+        float[] samples = new float[sampleCount * 2];
+
+        for(int x = 0; x < sampleCount * 2; x += 2)
+        {
+            samples[x] = oscillator.inphase();
+            samples[x + 1] = oscillator.quadrature();
+            oscillator.rotate();
+        }
+
+        return samples;
+    }
+
+    private static float[] randomSamples(int sampleCount, long seed)
+    {
+        Random random = new Random(seed);
+        float[] samples = new float[sampleCount * 2];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = random.nextFloat() * 2.0f - 1.0f;
+        }
+
+        return samples;
+    }
+
+    private static void assertArrayClose(float[] expected, float[] actual, float tolerance)
+    {
+        Assertions.assertEquals(expected.length, actual.length, "Array length");
+
+        for(int x = 0; x < expected.length; x++)
+        {
+            Assertions.assertEquals(expected[x], actual[x], tolerance, "Sample index " + x);
+        }
+    }
+
+    @Test
+    void generateComplexMatchesIdealPhasor()
+    {
+        int sampleCount = 1_000_000;
+        LowPhaseNoiseOscillator oscillator = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+        float[] samples = oscillator.generateComplex(sampleCount);
+
+        double anglePerSample = 2.0 * Math.PI * FREQUENCY / SAMPLE_RATE;
+        double maxError = 0.0;
+
+        for(int x = 0; x < sampleCount; x++)
+        {
+            double angle = anglePerSample * x;
+            maxError = Math.max(maxError, Math.abs(Math.cos(angle) - samples[2 * x]));
+            maxError = Math.max(maxError, Math.abs(Math.sin(angle) - samples[2 * x + 1]));
+        }
+
+        Assertions.assertTrue(maxError < TOLERANCE, "Max error versus ideal phasor: " + maxError);
+    }
+
+    @Test
+    void generateComplexMatchesPerSampleOscillator()
+    {
+        //Odd length to exercise a partial block
+        int sampleCount = 100_003;
+        float[] block = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE).generateComplex(sampleCount);
+        float[] perSample = generatePerSample(new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE), sampleCount);
+
+        assertArrayClose(perSample, block, TOLERANCE);
+    }
+
+    @Test
+    void amplitudeRemainsUnity()
+    {
+        LowPhaseNoiseOscillator oscillator = new LowPhaseNoiseOscillator(-FREQUENCY, SAMPLE_RATE);
+
+        for(int x = 0; x < 100; x++)
+        {
+            oscillator.generateComplex(100_000);
+        }
+
+        float[] samples = oscillator.generateComplex(1000);
+
+        for(int x = 0; x < samples.length; x += 2)
+        {
+            double magnitude = Math.hypot(samples[x], samples[x + 1]);
+            Assertions.assertEquals(1.0, magnitude, 1e-5, "Magnitude at sample " + (x / 2));
+        }
+
+        IOscillator perSample = new LowPhaseNoiseOscillator(-FREQUENCY, SAMPLE_RATE);
+        samples = generatePerSample(perSample, 10_000);
+
+        for(int x = 0; x < samples.length; x += 2)
+        {
+            double magnitude = Math.hypot(samples[x], samples[x + 1]);
+            Assertions.assertEquals(1.0, magnitude, 1e-5, "Per-sample magnitude at sample " + (x / 2));
+        }
+    }
+
+    @Test
+    void mixComplexMatchesPerSampleMixing()
+    {
+        LowPhaseNoiseOscillator block = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+        IOscillator reference = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+
+        //Several consecutive buffers of varying length verify phase continuity across calls
+        int[] lengths = {1, 15, 16, 17, 1000, 4099};
+        long seed = 0;
+
+        for(int length: lengths)
+        {
+            float[] samples = randomSamples(length, seed++);
+            float[] expected = new float[samples.length];
+
+            for(int x = 0; x < samples.length; x += 2)
+            {
+                float i = reference.inphase();
+                float q = reference.quadrature();
+                expected[x] = samples[x] * i - samples[x + 1] * q;
+                expected[x + 1] = samples[x] * q + samples[x + 1] * i;
+                reference.rotate();
+            }
+
+            assertArrayClose(expected, block.mixComplex(samples), TOLERANCE);
+        }
+    }
+
+    @Test
+    void mixComplexOutOfPlaceMatchesInPlace()
+    {
+        float[] input = randomSamples(5000, 42);
+        float[] output = new float[input.length];
+
+        new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE).mixComplex(input, output);
+        float[] inPlace = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE).mixComplex(input.clone());
+
+        assertArrayClose(inPlace, output, 0.0f);
+    }
+
+    @Test
+    void blockAndPerSampleUsageCanBeInterleaved()
+    {
+        LowPhaseNoiseOscillator mixed = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+        IOscillator reference = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+
+        float[] expected = generatePerSample(reference, 250);
+
+        float[] actual = new float[500];
+        System.arraycopy(mixed.generateComplex(100), 0, actual, 0, 200);
+        System.arraycopy(generatePerSample(mixed, 50), 0, actual, 200, 100);
+        System.arraycopy(mixed.generateComplex(100), 0, actual, 300, 200);
+
+        assertArrayClose(expected, actual, TOLERANCE);
+    }
+
+    @Test
+    void frequencyChangeUpdatesBlockKernel()
+    {
+        LowPhaseNoiseOscillator block = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+        IOscillator reference = new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE);
+
+        block.generateComplex(333);
+        generatePerSample(reference, 333);
+
+        block.setFrequency(-7500.0);
+        reference.setFrequency(-7500.0);
+
+        assertArrayClose(generatePerSample(reference, 1000), block.generateComplex(1000), TOLERANCE);
+    }
+
+    @Test
+    void fs4DownConversionFoldedIntoMixer()
+    {
+        //Mixing with an oscillator offset by -FS/4 is equivalent to FS/4 down conversion followed by the oscillator
+        float[] samples = randomSamples(10_000, 7);
+
+        float[] expected = new FS4DownConverter().mixComplex(samples.clone());
+        new LowPhaseNoiseOscillator(FREQUENCY, SAMPLE_RATE).mixComplex(expected);
+
+        float[] actual = new LowPhaseNoiseOscillator(FREQUENCY - SAMPLE_RATE / 4.0, SAMPLE_RATE)
+            .mixComplex(samples.clone());
+
+        assertArrayClose(expected, actual, TOLERANCE);
+    }
+}
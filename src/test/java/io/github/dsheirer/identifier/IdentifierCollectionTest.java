@@ -0,0 +1,222 @@
+/*
+ * *****************************************************************************
+ *  Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * ****************************************************************************
+ */
+
+package io.github.dsheirer.identifier;
+
+import io.github.dsheirer.identifier.configuration.AliasListConfigurationIdentifier;
+import io.github.dsheirer.identifier.configuration.SiteConfigurationIdentifier;
+import io.github.dsheirer.module.decode.dmr.identifier.DMRTalkgroup;
+import io.github.dsheirer.module.decode.p25.identifier.radio.APCO25RadioIdentifier;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the indexed identifier collection against a reference list implementation of the collection operations.
+ */
+public class IdentifierCollectionTest
+{
+    private Random mRandom = new Random(5678);
+
+    private Identifier randomIdentifier()
+    {
+        int value = 1 + mRandom.nextInt(4);
+
+        switch(mRandom.nextInt(8))
+        {
+            case 0:
+                return APCO25Talkgroup.create(value);
+            case 1:
+                return APCO25Talkgroup.createAny(value);
+            case 2:
+                return APCO25RadioIdentifier.createFrom(value);
+            case 3:
+                return APCO25RadioIdentifier.createTo(value);
+            case 4:
+                return DMRTalkgroup.create(value);
+            case 5:
+                return AliasListConfigurationIdentifier.create("List " + value);
+            case 6:
+                return SiteConfigurationIdentifier.create("Site " + value);
+            default:
+                //Invalid identifier that should never be added
+                return APCO25Talkgroup.create(0);
+        }
+    }
+
+    /**
+     * Reference update using the list operations of the original collection implementation
+     */
+    private static void referenceUpdate(List<Identifier> reference, Identifier identifier)
+    {
+        Identifier existing = null;
+
+        for(Identifier candidate: reference)
+        {
+            if(candidate.getIdentifierClass() == identifier.getIdentifierClass() &&
+                candidate.getForm() == identifier.getForm() && candidate.getRole() == identifier.getRole())
+            {
+                existing = candidate;
+                break;
+            }
+        }
+
+        if(existing != null)
+        {
+            if(!existing.equals(identifier))
+            {
+                reference.remove(existing);
+                referenceAdd(reference, identifier);
+            }
+        }
+        else
+        {
+            referenceAdd(reference, identifier);
+        }
+    }
+
+    private static void referenceAdd(List<Identifier> reference, Identifier identifier)
+    {
+        if(identifier.isValid() && !reference.contains(identifier))
+        {
+            reference.add(identifier);
+        }
+    }
+
+    private static List<Identifier> filter(List<Identifier> reference, IdentifierClass identifierClass, Form form,
+                                           Role role)
+    {
+        List<Identifier> identifiers = new ArrayList<>();
+
+        for(Identifier identifier: reference)
+        {
+            if((identifierClass == null || identifier.getIdentifierClass() == identifierClass) &&
+                (form == null || identifier.getForm() == form) &&
+                (role == null || identifier.getRole() == role))
+            {
+                identifiers.add(identifier);
+            }
+        }
+
+        return identifiers;
+    }
+
+    private static void assertEquivalent(List<Identifier> reference, IdentifierCollection collection)
+    {
+        Assertions.assertEquals(reference, collection.getIdentifiers());
+        Assertions.assertEquals(reference.isEmpty(), collection.isEmpty());
+
+        for(IdentifierClass identifierClass: IdentifierClass.values())
+        {
+            Assertions.assertEquals(filter(reference, identifierClass, null, null),
+                collection.getIdentifiers(identifierClass));
+
+            for(Role role: Role.values())
+            {
+                Assertions.assertEquals(filter(reference, identifierClass, null, role),
+                    collection.getIdentifiers(identifierClass, role));
+            }
+
+            for(Form form: Form.values())
+            {
+                List<Identifier> expected = filter(reference, identifierClass, form, null);
+                Assertions.assertEquals(expected, collection.getIdentifiers(identifierClass, form));
+
+                for(Role role: Role.values())
+                {
+                    List<Identifier> single = filter(reference, identifierClass, form, role);
+                    Assertions.assertEquals(single.isEmpty() ? null : single.get(0),
+                        collection.getIdentifier(identifierClass, form, role));
+                }
+            }
+        }
+
+        for(Form form: Form.values())
+        {
+            Assertions.assertEquals(filter(reference, null, form, null), collection.getIdentifiers(form));
+        }
+
+        for(Role role: Role.values())
+        {
+            Assertions.assertEquals(filter(reference, null, null, role), collection.getIdentifiers(role));
+        }
+
+        List<Identifier> from = filter(reference, null, null, Role.FROM);
+        Assertions.assertEquals(from.isEmpty() ? null : from.get(0), collection.getFromIdentifier());
+        List<Identifier> to = filter(reference, null, null, Role.TO);
+        Assertions.assertEquals(to.isEmpty() ? null : to.get(0), collection.getToIdentifier());
+    }
+
+    @Test
+    public void equivalentToReference()
+    {
+        MutableIdentifierCollection collection = new MutableIdentifierCollection(1);
+        List<Identifier> reference = new ArrayList<>();
+        List<IdentifierUpdateNotification> notifications = new ArrayList<>();
+        collection.setIdentifierUpdateListener(notifications::add);
+
+        for(int x = 0; x < 3000; x++)
+        {
+            Identifier identifier = randomIdentifier();
+
+            switch(mRandom.nextInt(5))
+            {
+                case 0:
+                    collection.remove(identifier);
+                    reference.remove(identifier);
+                    break;
+                case 1:
+                    collection.remove(identifier.getRole());
+                    reference.removeIf(i -> i.getRole() == identifier.getRole());
+                    break;
+                default:
+                    collection.update(identifier);
+                    referenceUpdate(reference, identifier);
+                    break;
+            }
+
+            assertEquivalent(reference, collection);
+
+            IdentifierCollection copy = collection.copyOf();
+            assertEquivalent(reference, copy);
+            Assertions.assertEquals(0, copy.getTimeslot(), "Copy timeslot");
+        }
+
+        Assertions.assertFalse(notifications.isEmpty(), "Update notifications");
+    }
+
+    @Test
+    public void snapshotsAreImmutable()
+    {
+        MutableIdentifierCollection collection = new MutableIdentifierCollection();
+        collection.update(APCO25Talkgroup.create(1));
+
+        List<Identifier> before = collection.getIdentifiers(Role.TO);
+        Assertions.assertSame(before, collection.getIdentifiers(Role.TO), "Cached list for unchanged collection");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> before.add(APCO25Talkgroup.create(2)));
+
+        collection.update(APCO25Talkgroup.create(2));
+        Assertions.assertEquals(APCO25Talkgroup.create(1), before.get(0));
+        Assertions.assertEquals(APCO25Talkgroup.create(2), collection.getIdentifiers(Role.TO).get(0));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+
+package io.github.dsheirer.identifier.integer;
+
+import io.github.dsheirer.identifier.Role;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+
+public class IntegerIdentifierInternerTest
+{
+    @Test
+    public void canonicalInstances()
+    {
+        IntegerIdentifierInterner<APCO25Talkgroup> interner = new IntegerIdentifierInterner<>(APCO25Talkgroup::new);
+
+        APCO25Talkgroup talkgroup = interner.get(1234, Role.TO);
+
+        Assertions.assertSame(talkgroup, interner.get(1234, Role.TO), "Same value and role");
+        Assertions.assertNotSame(talkgroup, interner.get(1234, Role.ANY), "Different role");
+        Assertions.assertEquals(1234, interner.get(1234, Role.ANY).getValue().intValue());
+        Assertions.assertEquals(Role.ANY, interner.get(1234, Role.ANY).getRole());
+    }
+
+    @Test
+    public void boundedWithEviction()
+    {
+        IntegerIdentifierInterner<APCO25Talkgroup> interner = new IntegerIdentifierInterner<>(16, APCO25Talkgroup::new);
+
+        APCO25Talkgroup first = interner.get(1, Role.TO);
+
+        for(int x = 2; x < 10000; x++)
+        {
+            interner.get(x, Role.TO);
+        }
+
+        Assertions.assertEquals(16, interner.getCapacity());
+
+        //Evicted instances remain equal to the new canonical instance
+        APCO25Talkgroup recreated = interner.get(1, Role.TO);
+        Assertions.assertEquals(first, recreated);
+        Assertions.assertEquals(first.hashCode(), recreated.hashCode());
+    }
+
+    @Test
+    public void hashCodeMatchesObjectsHash()
+    {
+        APCO25Talkgroup talkgroup = new APCO25Talkgroup(65535, Role.FROM);
+
+        Assertions.assertEquals(Objects.hash(talkgroup.getValue(), talkgroup.getIdentifierClass(),
+            talkgroup.getForm(), talkgroup.getRole()), talkgroup.hashCode());
+        Assertions.assertEquals(talkgroup, new APCO25Talkgroup(65535, Role.FROM));
+        Assertions.assertNotEquals(talkgroup, new APCO25Talkgroup(65535, Role.TO));
+        Assertions.assertNotEquals(talkgroup, new APCO25Talkgroup(65534, Role.FROM));
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.map;
+
+import io.github.dsheirer.identifier.Identifier;
+import io.github.dsheirer.module.decode.event.PlottableDecodeEvent;
+import io.github.dsheirer.module.decode.p25.identifier.radio.APCO25RadioIdentifier;
+import org.jdesktop.swingx.mapviewer.GeoPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the spatially indexed entity store queries against a brute force check of each entity's route.
+ */
+public class PlottableEntityStoreTest
+{
+    private Random mRandom = new Random(2468);
+
+    private PlottableDecodeEvent getEvent(double latitude, double longitude)
+    {
+        PlottableDecodeEvent event = new PlottableDecodeEvent(0);
+        event.setLocation(new GeoPosition(latitude, longitude));
+        return event;
+    }
+
+    private static boolean intersects(PlottableEntityHistory history, double minimumLatitude, double maximumLatitude,
+                                      double minimumLongitude, double maximumLongitude)
+    {
+        double minimumRouteLatitude = Double.MAX_VALUE;
+        double maximumRouteLatitude = -Double.MAX_VALUE;
+        double minimumRouteLongitude = Double.MAX_VALUE;
+        double maximumRouteLongitude = -Double.MAX_VALUE;
+
+        for(GeoPosition location: history.getLocationHistory())
+        {
+            if(location.isValid())
+            {
+                minimumRouteLatitude = Math.min(minimumRouteLatitude, location.getLatitude());
+                maximumRouteLatitude = Math.max(maximumRouteLatitude, location.getLatitude());
+                minimumRouteLongitude = Math.min(minimumRouteLongitude, location.getLongitude());
+                maximumRouteLongitude = Math.max(maximumRouteLongitude, location.getLongitude());
+            }
+        }
+
+        //Route bounding box intersects the region when it is not entirely outside of the region
+        return minimumRouteLatitude <= maximumLatitude && maximumRouteLatitude >= minimumLatitude &&
+            minimumRouteLongitude <= maximumLongitude && maximumRouteLongitude >= minimumLongitude;
+    }
+
+    @Test
+    public void regionQueryEquivalentToBruteForce()
+    {
+        PlottableEntityStore store = new PlottableEntityStore(Long.MAX_VALUE, 0.25);
+
+        for(int x = 0; x < 5000; x++)
+        {
+            Identifier identifier = APCO25RadioIdentifier.createFrom(1 + mRandom.nextInt(500));
+
+            //Mostly local movement with occasional long distance jumps that create oversized routes
+            double latitude = 43.0 + mRandom.nextGaussian() * (mRandom.nextInt(50) == 0 ? 40.0 : 1.0);
+            double longitude = -76.0 + mRandom.nextGaussian() * (mRandom.nextInt(50) == 0 ? 80.0 : 1.0);
+
+            store.update(identifier, getEvent(latitude, longitude), x);
+
+            if(x % 100 == 0)
+            {
+                for(int y = 0; y < 20; y++)
+                {
+                    double span = mRandom.nextInt(4) == 0 ? 400.0 : mRandom.nextDouble() * 3.0;
+                    double minimumLatitude = 43.0 + mRandom.nextGaussian() * 2.0 - span / 2;
+                    double minimumLongitude = -76.0 + mRandom.nextGaussian() * 2.0 - span / 2;
+
+                    Set<PlottableEntityHistory> expected = new HashSet<>();
+
+                    for(PlottableEntityHistory history: store.getEntities())
+                    {
+                        if(intersects(history, minimumLatitude, minimumLatitude + span, minimumLongitude,
+                            minimumLongitude + span))
+                        {
+                            expected.add(history);
+                        }
+                    }
+
+                    List<PlottableEntityHistory> actual = store.getEntities(minimumLatitude, minimumLatitude + span,
+                        minimumLongitude, minimumLongitude + span);
+
+                    Assertions.assertEquals(expected.size(), actual.size(), "Duplicate or missing entities");
+                    Assertions.assertEquals(expected, new HashSet<>(actual));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void timeWindowEviction()
+    {
+        PlottableEntityStore store = new PlottableEntityStore(1000, 1.0);
+        Identifier first = APCO25RadioIdentifier.createFrom(1);
+        Identifier second = APCO25RadioIdentifier.createFrom(2);
+
+        Assertions.assertTrue(store.update(first, getEvent(43.0, -76.0), 0), "New entity");
+        Assertions.assertTrue(store.update(second, getEvent(44.0, -77.0), 500), "New entity");
+        Assertions.assertFalse(store.update(first, getEvent(43.1, -76.1), 900), "Existing entity");
+
+        //Second entity was updated least recently
+        List<PlottableEntityHistory> evicted = store.evict(1600);
+        Assertions.assertEquals(1, evicted.size());
+        Assertions.assertEquals(second, evicted.get(0).getIdentifier());
+        Assertions.assertNull(store.get(second));
+        Assertions.assertTrue(store.getEntities(43.5, 45.0, -78.0, -76.5).isEmpty(), "Evicted entity is not indexed");
+
+        Assertions.assertEquals(2, store.get(first).getLocationHistory().size());
+        Assertions.assertEquals(1, store.getEntities(42.0, 44.0, -77.0, -75.0).size());
+
+        store.evict(1900);
+        Assertions.assertEquals(0, store.size());
+        Assertions.assertTrue(store.getEntities(-90.0, 90.0, -180.0, 180.0).isEmpty());
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.module.decode.remote;
+
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.bits.CorrectedBinaryMessage;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.edac.CRC;
+import io.github.dsheirer.edac.CRCLJ;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.config.AuxDecodeConfiguration;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.module.decode.lj1200.LJ1200MessageProcessor;
+import io.github.dsheirer.module.decode.nbfm.DecodeConfigNBFM;
+import io.github.dsheirer.preference.decoder.RemoteDecodePreference;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import io.github.dsheirer.source.SourceEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs remote decode workers in-process on loopback ports and decodes a channel through the remote decode manager,
+ * the coordinator-side remote decoder module and the worker-side decode session.
+ */
+public class RemoteDecodeWorkerTest
+{
+    private static final double SAMPLE_RATE = 50000.0;
+    private static final double AUDIO_SAMPLE_RATE = 8000.0;
+    private static final int BUFFER_LENGTH = 4096;
+    private static final double DEVIATION = 2500.0;
+    private static final long TIMEOUT_MS = 15000;
+
+    private Random mRandom = new Random(35);
+    private ReusableComplexBufferQueue mBufferQueue = new ReusableComplexBufferQueue("RemoteDecodeWorkerTest");
+    private List<RemoteDecodeWorker> mWorkers = new ArrayList<>();
+    private List<RemoteDecodeManager> mManagers = new ArrayList<>();
+
+    @AfterEach
+    void teardown()
+    {
+        for(RemoteDecodeManager manager: mManagers)
+        {
+            manager.dispose();
+        }
+
+        for(RemoteDecodeWorker worker: mWorkers)
+        {
+            worker.stop();
+        }
+    }
+
+    /**
+     * Remote decode preference that is held in memory rather than in the user's preference store
+     */
+    private static class TestPreference extends RemoteDecodePreference
+    {
+        private boolean mEnabled = true;
+        private String mWorkers;
+        private boolean mQuantize = true;
+
+        TestPreference(String workers)
+        {
+            super(null);
+            mWorkers = workers;
+        }
+
+        @Override
+        public boolean isEnabled()
+        {
+            return mEnabled;
+        }
+
+        @Override
+        public void setEnabled(boolean enabled)
+        {
+            mEnabled = enabled;
+        }
+
+        @Override
+        public String getWorkers()
+        {
+            return mWorkers;
+        }
+
+        @Override
+        public boolean isQuantize()
+        {
+            return mQuantize;
+        }
+
+        @Override
+        public int getBatchInterval()
+        {
+            return DEFAULT_BATCH_INTERVAL_MILLISECONDS;
+        }
+    }
+
+    private RemoteDecodeWorker startWorker() throws IOException
+    {
+        RemoteDecodeWorker worker = new RemoteDecodeWorker();
+        worker.start(0);
+        mWorkers.add(worker);
+        return worker;
+    }
+
+    private RemoteDecodeManager startManager(TestPreference preference)
+    {
+        RemoteDecodeManager manager = new RemoteDecodeManager(preference);
+        mManagers.add(manager);
+        return manager;
+    }
+
+    private static String address(RemoteDecodeWorker worker)
+    {
+        return InetAddress.getLoopbackAddress().getHostAddress() + ":" + worker.getPort();
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException
+    {
+        long timeout = System.currentTimeMillis() + TIMEOUT_MS;
+
+        while(!condition.getAsBoolean())
+        {
+            if(System.currentTimeMillis() > timeout)
+            {
+                Assertions.fail("Timeout waiting for " + message);
+            }
+
+            Thread.sleep(10);
+        }
+    }
+
+    private static void awaitSpareConnection(RemoteWorker worker) throws InterruptedException
+    {
+        await(() -> worker.getSpareConnectionCount() > 0, "spare connection to worker " + worker);
+    }
+
+    private static Channel getChannel()
+    {
+        Channel channel = new Channel("Remote Test", Channel.ChannelType.TRAFFIC);
+        channel.setAliasListName("Remote Test");
+        channel.setDecodeConfiguration(new DecodeConfigNBFM());
+        AuxDecodeConfiguration auxDecodeConfiguration = new AuxDecodeConfiguration();
+        auxDecodeConfiguration.addAuxDecoder(DecoderType.LJ_1200);
+        channel.setAuxDecodeConfiguration(auxDecodeConfiguration);
+        return channel;
+    }
+
+    /**
+     * LJ1200 tower message: sync, random address and function bits and a valid CRC
+     */
+    private boolean[] getLJ1200Message()
+    {
+        for(int attempt = 0; attempt < 100; attempt++)
+        {
+            CorrectedBinaryMessage message = new CorrectedBinaryMessage(80);
+            message.load(0, 16, LJ1200MessageProcessor.SYNC_TOWER);
+
+            for(int x = 16; x < 64; x++)
+            {
+                if(mRandom.nextBoolean())
+                {
+                    message.set(x);
+                }
+            }
+
+            for(int checksum = 0; checksum < 65536; checksum++)
+            {
+                message.load(64, 16, checksum);
+                CorrectedBinaryMessage copy = new CorrectedBinaryMessage(message);
+
+                if(CRCLJ.checkAndCorrect(copy) == CRC.PASSED)
+                {
+                    boolean[] bits = new boolean[80];
+
+                    for(int x = 0; x < 80; x++)
+                    {
+                        bits[x] = message.get(x);
+                    }
+
+                    return bits;
+                }
+            }
+        }
+
+        throw new IllegalStateException("Unable to create an LJ1200 message");
+    }
+
+    /**
+     * FM modulates 1200 baud AFSK (1200 Hz mark and 1800 Hz space) repetitions of the message, each with a dotting
+     * preamble, and a leading and trailing tone.
+     */
+    private float[] modulate(boolean[] message, int repetitions)
+    {
+        List<Boolean> bits = new ArrayList<>();
+
+        for(int x = 0; x < 240; x++)
+        {
+            bits.add(true);
+        }
+
+        for(int repetition = 0; repetition < repetitions; repetition++)
+        {
+            for(int x = 0; x < 40; x++)
+            {
+                bits.add(x % 2 == 0);
+            }
+
+            for(boolean bit: message)
+            {
+                bits.add(bit);
+            }
+
+            for(int x = 0; x < 60; x++)
+            {
+                bits.add(true);
+            }
+        }
+
+        int sampleCount = (int)(bits.size() * SAMPLE_RATE / 1200.0);
+        sampleCount += (BUFFER_LENGTH / 2) - (sampleCount % (BUFFER_LENGTH / 2));
+        float[] samples = new float[sampleCount * 2];
+        double tonePhase = 0.0;
+        double carrierPhase = 0.0;
+
+        for(int x = 0; x < sampleCount; x++)
+        {
+            int bit = (int)(x * 1200.0 / SAMPLE_RATE);
+            boolean mark = bit >= bits.size() || bits.get(bit);
+            tonePhase += 2.0 * Math.PI * (mark ? 1200.0 : 1800.0) / SAMPLE_RATE;
+            carrierPhase += 2.0 * Math.PI * DEVIATION * 0.8 * Math.sin(tonePhase) / SAMPLE_RATE;
+            samples[2 * x] = (float)(Math.cos(carrierPhase) * 0.5 + mRandom.nextGaussian() * 0.01);
+            samples[2 * x + 1] = (float)(Math.sin(carrierPhase) * 0.5 + mRandom.nextGaussian() * 0.01);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Feeds the samples to the remote decoder module at roughly real time so that the worker keeps up
+     */
+    private void feed(RemoteDecoderModule module, float[] samples) throws InterruptedException
+    {
+        long bufferDuration = (long)(BUFFER_LENGTH / 2 / SAMPLE_RATE * 1000);
+
+        for(int offset = 0; offset < samples.length; offset += BUFFER_LENGTH)
+        {
+            ReusableComplexBuffer buffer = mBufferQueue.getBuffer(BUFFER_LENGTH);
+            System.arraycopy(samples, offset, buffer.getSamples(), 0, BUFFER_LENGTH);
+            buffer.incrementUserCount();
+            module.receive(buffer);
+            Thread.sleep(bufferDuration / 2);
+        }
+    }
+
+    @Test
+    void quantizedSamplesRoundTrip()
+    {
+        float[] samples = new float[BUFFER_LENGTH];
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            samples[x] = (float)(mRandom.nextGaussian() * 0.3);
+        }
+
+        float peak = 0.0f;
+
+        for(float sample: samples)
+        {
+            peak = Math.max(peak, Math.abs(sample));
+        }
+
+        byte[] frame = RemoteDecodeProtocol.encodeSamples(RemoteDecodeProtocol.FRAME_SAMPLES, 1234L, samples,
+            samples.length, true);
+
+        Assertions.assertEquals(RemoteDecodeProtocol.SAMPLES_HEADER_LENGTH + samples.length * 2, frame.length,
+            "16-bit frame length");
+        Assertions.assertEquals(1234L, RemoteDecodeProtocol.getSamplesPrefix(frame), "timestamp");
+        Assertions.assertEquals(samples.length, RemoteDecodeProtocol.getSampleCount(frame), "sample count");
+
+        float[] decoded = new float[samples.length];
+        RemoteDecodeProtocol.decodeSamples(frame, decoded);
+        float step = peak / Short.MAX_VALUE;
+
+        for(int x = 0; x < samples.length; x++)
+        {
+            Assertions.assertEquals(samples[x], decoded[x], step * 0.51f, "sample " + x);
+        }
+
+        byte[] floatFrame = RemoteDecodeProtocol.encodeSamples(RemoteDecodeProtocol.FRAME_SAMPLES, 1234L, samples,
+            samples.length, false);
+        Assertions.assertEquals(RemoteDecodeProtocol.SAMPLES_HEADER_LENGTH + samples.length * 4, floatFrame.length,
+            "float frame length");
+        RemoteDecodeProtocol.decodeSamples(floatFrame, decoded);
+        Assertions.assertArrayEquals(samples, decoded, "float samples");
+    }
+
+    @Test
+    void remoteChannelReturnsDecodeEventsAndAudio() throws Exception
+    {
+        RemoteDecodeWorker worker = startWorker();
+        RemoteDecodeManager manager = startManager(new TestPreference(address(worker)));
+        awaitSpareConnection(manager.getWorkers().get(0));
+
+        RemoteDecoderModule module = manager.createRemoteDecoder(getChannel(), new AliasList("Remote Test"));
+        Assertions.assertNotNull(module, "remote decoder");
+        Assertions.assertEquals(1, module.getWorker().getActiveChannelCount(), "active channels");
+
+        List<IDecodeEvent> decodeEvents = new CopyOnWriteArrayList<>();
+        List<AudioSegment> audioSegments = new CopyOnWriteArrayList<>();
+        module.addDecodeEventListener(decodeEvents::add);
+        module.setAudioSegmentListener(audioSegments::add);
+        module.getSourceEventListener().receive(SourceEvent.sampleRateChange(SAMPLE_RATE));
+        module.getSourceEventListener().receive(SourceEvent.frequencyChange(null, 154000000));
+        module.start();
+
+        feed(module, modulate(getLJ1200Message(), 6));
+
+        await(() -> !decodeEvents.isEmpty(), "decode event from the worker");
+        await(() -> !audioSegments.isEmpty() && audioSegments.get(0).getAudioBufferCount() > 0,
+            "audio from the worker");
+
+        module.stop();
+        await(() -> audioSegments.get(0).completeProperty().get(), "audio segment completion");
+        await(() -> module.getWorker().getActiveChannelCount() == 0, "remote channel closed");
+
+        Assertions.assertEquals(0, module.getDroppedBatchCount(), "dropped sample batches");
+        Assertions.assertEquals("LOJACK", decodeEvents.get(0).getDetails(), "decode event details");
+
+        //Worker audio is sent back quantized to 16 bits, so every sample lies on the buffer's 16-bit scale
+        AudioSegment audioSegment = audioSegments.get(0);
+        int audioSampleCount = 0;
+
+        for(int x = 0; x < audioSegment.getAudioBufferCount(); x++)
+        {
+            float[] audio = audioSegment.getAudioBuffer(x);
+            float peak = 0.0f;
+
+            for(float sample: audio)
+            {
+                peak = Math.max(peak, Math.abs(sample));
+            }
+
+            if(peak > 0.0f)
+            {
+                float step = peak / Short.MAX_VALUE;
+
+                for(float sample: audio)
+                {
+                    Assertions.assertEquals(Math.round(sample / step), sample / step, 0.01, "16-bit audio sample");
+                }
+            }
+
+            audioSampleCount += audio.length;
+        }
+
+        Assertions.assertTrue(audioSampleCount > AUDIO_SAMPLE_RATE / 2, "audio sample count " + audioSampleCount);
+
+        module.dispose();
+        audioSegment.decrementConsumerCount();
+    }
+
+    @Test
+    void leastLoadedWorkerPlacement() throws Exception
+    {
+        RemoteDecodeWorker workerA = startWorker();
+        RemoteDecodeWorker workerB = startWorker();
+        RemoteDecodeManager manager = startManager(new TestPreference(address(workerA) + "," + address(workerB)));
+
+        RemoteWorker remoteA = manager.getWorkers().get(0);
+        RemoteWorker remoteB = manager.getWorkers().get(1);
+        AliasList aliasList = new AliasList("Remote Test");
+        List<RemoteDecoderModule> modules = new ArrayList<>();
+
+        awaitSpareConnection(remoteA);
+        awaitSpareConnection(remoteB);
+        modules.add(manager.createRemoteDecoder(getChannel(), aliasList));
+        Assertions.assertSame(remoteA, modules.get(0).getWorker(), "first channel");
+
+        awaitSpareConnection(remoteA);
+        awaitSpareConnection(remoteB);
+        modules.add(manager.createRemoteDecoder(getChannel(), aliasList));
+        Assertions.assertSame(remoteB, modules.get(1).getWorker(), "second channel goes to the idle worker");
+
+        awaitSpareConnection(remoteB);
+        modules.add(manager.createRemoteDecoder(getChannel(), aliasList));
+        Assertions.assertEquals(1, Math.abs(remoteA.getActiveChannelCount() - remoteB.getActiveChannelCount()),
+            "third channel balances");
+
+        RemoteWorker heavier = modules.get(2).getWorker();
+        RemoteWorker lighter = heavier == remoteA ? remoteB : remoteA;
+
+        //Releasing both channels on the heavier worker makes it the least loaded worker
+        modules.remove(2).dispose();
+        Assertions.assertEquals(1, heavier.getActiveChannelCount(), "released channel");
+
+        modules.remove(heavier == remoteA ? 0 : 1).dispose();
+        Assertions.assertEquals(0, heavier.getActiveChannelCount(), "released channel");
+        awaitSpareConnection(heavier);
+        awaitSpareConnection(lighter);
+        modules.add(manager.createRemoteDecoder(getChannel(), aliasList));
+        Assertions.assertSame(heavier, modules.get(modules.size() - 1).getWorker(), "least loaded worker");
+
+        for(RemoteDecoderModule module: modules)
+        {
+            module.dispose();
+        }
+
+        Assertions.assertEquals(0, remoteA.getActiveChannelCount(), "worker A channels");
+        Assertions.assertEquals(0, remoteB.getActiveChannelCount(), "worker B channels");
+    }
+
+    @Test
+    void localFallbackWhenNoWorkerIsReachable() throws Exception
+    {
+        int closedPort;
+
+        try(ServerSocket serverSocket = new ServerSocket(0))
+        {
+            closedPort = serverSocket.getLocalPort();
+        }
+
+        TestPreference preference = new TestPreference(InetAddress.getLoopbackAddress().getHostAddress() + ":" +
+            closedPort);
+        RemoteDecodeManager manager = startManager(preference);
+        RemoteWorker worker = manager.getWorkers().get(0);
+
+        //Assignment never waits for a connection: no spare connection means the channel is decoded locally
+        Assertions.assertNull(manager.createRemoteDecoder(getChannel(), new AliasList("Remote Test")),
+            "no remote decoder without a connection");
+
+        await(() -> !worker.isAvailable(), "unreachable worker flagged unavailable");
+        Assertions.assertEquals(0, worker.getSpareConnectionCount(), "spare connections");
+        Assertions.assertNull(manager.createRemoteDecoder(getChannel(), new AliasList("Remote Test")),
+            "no remote decoder for an unavailable worker");
+
+        //A reachable worker is not used while remote decoding is disabled
+        RemoteDecodeWorker reachable = startWorker();
+        TestPreference disabled = new TestPreference(address(reachable));
+        RemoteDecodeManager disabledManager = startManager(disabled);
+        awaitSpareConnection(disabledManager.getWorkers().get(0));
+        disabled.setEnabled(false);
+        Assertions.assertNull(disabledManager.createRemoteDecoder(getChannel(), new AliasList("Remote Test")),
+            "no remote decoder when disabled");
+    }
+}
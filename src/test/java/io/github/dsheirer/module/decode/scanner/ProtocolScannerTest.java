@@ -0,0 +1,252 @@
+/*
+ *
+ *  * ******************************************************************************
+ *  * Copyright (C) 2014-2020 Dennis Sheirer
+ *  *
+ *  * This program is free software: you can redistribute it and/or modify
+ *  * it under the terms of the GNU General Public License as published by
+ *  * the Free Software Foundation, either version 3 of the License, or
+ *  * (at your option) any later version.
+ *  *
+ *  * This program is distributed in the hope that it will be useful,
+ *  * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  * GNU General Public License for more details.
+ *  *
+ *  * You should have received a copy of the GNU General Public License
+ *  * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *  * *****************************************************************************
+ *
+ *
+ */
+
+package io.github.dsheirer.module.decode.scanner;
+
+import io.github.dsheirer.dsp.symbol.FrameSync;
+import io.github.dsheirer.edac.Golay24;
+import io.github.dsheirer.module.decode.DecoderType;
+import io.github.dsheirer.module.decode.dmr.DMRSyncPattern;
+import io.github.dsheirer.module.decode.event.IDecodeEvent;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.sample.buffer.ReusableComplexBufferQueue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Feeds synthetic P25 and DMR baseband through the protocol scanner and its decoder state and checks the detected
+ * protocol and the decoded NAC or color code.
+ */
+public class ProtocolScannerTest
+{
+    private static final double SAMPLE_RATE = 50000.0;
+    private static final int BUFFER_LENGTH = 4096;
+
+    //BCH(63,16) generator polynomial used by the P25 Phase 1 NID
+    private static final long NID_GENERATOR = Long.parseLong("6331141367235453", 8);
+
+    private Random mRandom = new Random(1357);
+    private ReusableComplexBufferQueue mBufferQueue = new ReusableComplexBufferQueue("ProtocolScannerTest");
+
+    private void addDibits(List<Integer> dibits, long value, int bitLength)
+    {
+        for(int x = bitLength - 2; x >= 0; x -= 2)
+        {
+            dibits.add((int)((value >>> x) & 3));
+        }
+    }
+
+    private void addRandomDibits(List<Integer> dibits, int count)
+    {
+        for(int x = 0; x < count; x++)
+        {
+            dibits.add(mRandom.nextInt(4));
+        }
+    }
+
+    /**
+     * P25 Phase 1 frames: sync, NID (BCH encoded NAC and TSBK DUID plus parity bit) with the embedded status dibit
+     * and random payload.
+     */
+    private List<Integer> getP25Phase1Dibits(int nac, int frames)
+    {
+        long message = (nac << 4) | 0x7;
+        long remainder = message << 47;
+
+        for(int x = 62; x >= 47; x--)
+        {
+            if(((remainder >>> x) & 1) == 1)
+            {
+                remainder ^= NID_GENERATOR << (x - 47);
+            }
+        }
+
+        long codeword = (message << 47) | remainder;
+        long nid = (codeword << 1) | (Long.bitCount(codeword) & 1);
+
+        List<Integer> dibits = new ArrayList<>();
+
+        for(int frame = 0; frame < frames; frame++)
+        {
+            addDibits(dibits, FrameSync.P25_PHASE1_NORMAL.getSync(), 48);
+
+            List<Integer> nidDibits = new ArrayList<>();
+            addDibits(nidDibits, nid, 64);
+            nidDibits.add(11, 1); //Status dibit
+            dibits.addAll(nidDibits);
+
+            addRandomDibits(dibits, 200);
+        }
+
+        return dibits;
+    }
+
+    /**
+     * DMR base station data bursts: Golay(20,8) slot type (color code and data type) split around the data sync.
+     */
+    private List<Integer> getDMRDibits(int colorCode, int frames)
+    {
+        int data = (colorCode << 4) | 0x3;
+        int checksum = 0;
+
+        for(int x = 0; x < 12; x++)
+        {
+            if(((data >>> (11 - x)) & 1) == 1)
+            {
+                checksum ^= Golay24.CHECKSUMS[x];
+            }
+        }
+
+        int word = (data << 12) | (checksum << 1);
+        word |= Integer.bitCount(word) & 1;
+        int slotType = word & 0xFFFFF; //Slot type is the trailing 20 bits of the Golay24 codeword
+
+        List<Integer> dibits = new ArrayList<>();
+
+        for(int frame = 0; frame < frames; frame++)
+        {
+            addRandomDibits(dibits, 61);
+            addDibits(dibits, slotType >>> 10, 10);
+            addDibits(dibits, DMRSyncPattern.BASE_STATION_DATA.getPattern(), 48);
+            addDibits(dibits, slotType & 0x3FF, 10);
+            addRandomDibits(dibits, 61);
+        }
+
+        return dibits;
+    }
+
+    /**
+     * Modulates the dibits as root raised cosine shaped pi/4 DQPSK with a carrier offset and additive noise.
+     */
+    private float[] modulate(List<Integer> dibits, double symbolRate, double offset)
+    {
+        double[] phaseChanges = {Math.PI / 4, 3 * Math.PI / 4, -Math.PI / 4, -3 * Math.PI / 4};
+        double[] phases = new double[dibits.size()];
+        double phase = 0.0;
+
+        for(int x = 0; x < phases.length; x++)
+        {
+            phase += phaseChanges[dibits.get(x)];
+            phases[x] = phase;
+        }
+
+        int sampleCount = (int)(phases.length * SAMPLE_RATE / symbolRate);
+        sampleCount -= sampleCount % (BUFFER_LENGTH / 2);
+        float[] samples = new float[sampleCount * 2];
+        double alpha = 0.2;
+
+        for(int x = 0; x < sampleCount; x++)
+        {
+            double symbolTime = x * symbolRate / SAMPLE_RATE;
+            int center = (int)symbolTime;
+            double i = 0.0;
+            double q = 0.0;
+
+            for(int k = Math.max(0, center - 8); k <= Math.min(phases.length - 1, center + 8); k++)
+            {
+                double u = symbolTime - k;
+                double h;
+
+                if(Math.abs(u) < 1e-9)
+                {
+                    h = 1.0;
+                }
+                else if(Math.abs(Math.abs(2 * alpha * u) - 1.0) < 1e-9)
+                {
+                    h = Math.PI / 4 * Math.sin(Math.PI * u) / (Math.PI * u);
+                }
+                else
+                {
+                    h = Math.sin(Math.PI * u) / (Math.PI * u) * Math.cos(Math.PI * alpha * u) /
+                        (1 - 4 * alpha * alpha * u * u);
+                }
+
+                i += h * Math.cos(phases[k]);
+                q += h * Math.sin(phases[k]);
+            }
+
+            double carrier = 2.0 * Math.PI * offset * x / SAMPLE_RATE;
+            double cos = Math.cos(carrier);
+            double sin = Math.sin(carrier);
+            samples[2 * x] = (float)((i * cos - q * sin) * 0.3 + mRandom.nextGaussian() * 0.02);
+            samples[2 * x + 1] = (float)((i * sin + q * cos) * 0.3 + mRandom.nextGaussian() * 0.02);
+        }
+
+        return samples;
+    }
+
+    /**
+     * Feeds the samples to a protocol scanner that is wired to a decoder state, as configured by the decoder factory.
+     * @return decode events produced by the decoder state
+     */
+    private List<IDecodeEvent> scan(float[] samples, ProtocolScanner scanner, ProtocolScannerDecoderState state)
+    {
+        List<IDecodeEvent> events = new ArrayList<>();
+        scanner.setSampleRate(SAMPLE_RATE);
+        scanner.setMessageListener(state);
+        state.addDecodeEventListener(events::add);
+
+        for(int offset = 0; offset < samples.length; offset += BUFFER_LENGTH)
+        {
+            ReusableComplexBuffer buffer = mBufferQueue.getBuffer(BUFFER_LENGTH);
+            System.arraycopy(samples, offset, buffer.getSamples(), 0, BUFFER_LENGTH);
+            scanner.getReusableComplexBufferListener().receive(buffer);
+        }
+
+        return events;
+    }
+
+    @Test
+    public void p25Phase1()
+    {
+        ProtocolScanner scanner = new ProtocolScanner(new DecodeConfigProtocolScanner());
+        ProtocolScannerDecoderState state = new ProtocolScannerDecoderState();
+        List<IDecodeEvent> events = scan(modulate(getP25Phase1Dibits(0x293, 40), 4800.0, 150.0), scanner, state);
+
+        ProtocolScanResult result = state.getResult(DecoderType.P25_PHASE1);
+        Assertions.assertNotNull(result, "P25 Phase 1 not detected");
+        Assertions.assertEquals(0x293, result.getAccessCode(), "NAC");
+        Assertions.assertTrue(result.getSyncCount() > 30, "Sync count " + result.getSyncCount());
+        Assertions.assertEquals(DecoderType.P25_PHASE1, scanner.getResults().get(0).getDecoderType(),
+            "Most likely protocol");
+        Assertions.assertFalse(events.isEmpty(), "Protocol detected event");
+    }
+
+    @Test
+    public void dmr()
+    {
+        ProtocolScanner scanner = new ProtocolScanner(new DecodeConfigProtocolScanner());
+        ProtocolScannerDecoderState state = new ProtocolScannerDecoderState();
+        List<IDecodeEvent> events = scan(modulate(getDMRDibits(7, 60), 4800.0, -100.0), scanner, state);
+
+        ProtocolScanResult result = state.getResult(DecoderType.DMR);
+        Assertions.assertNotNull(result, "DMR not detected");
+        Assertions.assertEquals(7, result.getAccessCode(), "Color code");
+        Assertions.assertTrue(result.getSyncCount() > 45, "Sync count " + result.getSyncCount());
+        Assertions.assertEquals(DecoderType.DMR, scanner.getResults().get(0).getDecoderType(), "Most likely protocol");
+        Assertions.assertFalse(events.isEmpty(), "Protocol detected event");
+    }
+}
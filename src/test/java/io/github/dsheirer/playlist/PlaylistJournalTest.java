@@ -0,0 +1,299 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.playlist;
+
+import io.github.dsheirer.alias.Alias;
+import io.github.dsheirer.alias.id.talkgroup.Talkgroup;
+import io.github.dsheirer.controller.channel.Channel;
+import io.github.dsheirer.protocol.Protocol;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the playlist snapshot and journal
+ */
+public class PlaylistJournalTest
+{
+    @TempDir
+    Path mDirectory;
+
+    private Path mPlaylistPath;
+    private Path mSnapshotPath;
+    private Path mJournalPath;
+
+    @BeforeEach
+    void setup() throws IOException
+    {
+        mPlaylistPath = mDirectory.resolve("playlist.xml");
+        mSnapshotPath = mDirectory.resolve("playlist.xml.snapshot");
+        mJournalPath = mDirectory.resolve("playlist.xml.journal");
+        Files.write(mPlaylistPath, "<playlist/>".getBytes());
+    }
+
+    private static Alias alias(String name, int talkgroup)
+    {
+        Alias alias = new Alias(name);
+        alias.setAliasListName("test");
+        alias.addAliasID(new Talkgroup(Protocol.APCO25, talkgroup));
+        return alias;
+    }
+
+    private static PlaylistV2 playlist(int aliasCount)
+    {
+        PlaylistV2 playlist = new PlaylistV2();
+
+        for(int x = 0; x < aliasCount; x++)
+        {
+            playlist.getAliases().add(alias("Alias " + x, x));
+        }
+
+        for(int x = 0; x < 5; x++)
+        {
+            playlist.getChannels().add(new Channel("Channel " + x));
+        }
+
+        return playlist;
+    }
+
+    private static List<String> aliasNames(PlaylistV2 playlist)
+    {
+        return playlist.getAliases().stream().map(Alias::getName).collect(Collectors.toList());
+    }
+
+    private PlaylistV2 load(PlaylistJournal journal)
+    {
+        return journal.load(mPlaylistPath, mSnapshotPath, mJournalPath);
+    }
+
+    private List<Path> unreplayedJournals() throws IOException
+    {
+        try(Stream<Path> stream = Files.list(mDirectory))
+        {
+            return stream.filter(path -> path.toString().endsWith(PlaylistJournal.UNREPLAYED_JOURNAL_SUFFIX))
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void snapshotRoundTripPreservesOrderAcrossDecodeChunks()
+    {
+        PlaylistV2 original = playlist(2500);
+        new PlaylistJournal().reset(original, mPlaylistPath, mSnapshotPath, mJournalPath);
+
+        PlaylistJournal journal = new PlaylistJournal();
+        PlaylistV2 loaded = load(journal);
+        journal.close();
+
+        Assertions.assertNotNull(loaded, "Snapshot loaded");
+        Assertions.assertEquals(aliasNames(original), aliasNames(loaded), "Aliases in snapshot order");
+        Assertions.assertEquals(5, loaded.getChannels().size(), "Channels");
+        Assertions.assertEquals(1200, ((Talkgroup)loaded.getAliases().get(1200).getAliasIdentifiers().get(0))
+            .getValue(), "Alias identifier");
+        Assertions.assertEquals(0, journal.getRecordCount(), "Journal records");
+    }
+
+    @Test
+    void journalRecordsAreReplayedOverSnapshot()
+    {
+        new PlaylistJournal().reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+
+        PlaylistJournal journal = new PlaylistJournal();
+        PlaylistV2 loaded = load(journal);
+        Alias edited = loaded.getAliases().get(3);
+        edited.setName("Edited");
+        journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, edited);
+        journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.DELETE, loaded.getAliases().get(7));
+        journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, alias("Added", 100));
+        journal.close();
+
+        PlaylistJournal reloaded = new PlaylistJournal();
+        PlaylistV2 replayed = load(reloaded);
+        reloaded.close();
+
+        Assertions.assertEquals(3, reloaded.getRecordCount(), "Replayed journal records");
+        List<String> names = aliasNames(replayed);
+        Assertions.assertEquals(10, names.size(), "Alias count after put, delete and add");
+        Assertions.assertEquals("Edited", names.get(3), "Edited alias replaced in place");
+        Assertions.assertFalse(names.contains("Alias 7"), "Deleted alias removed");
+        Assertions.assertEquals("Added", names.get(9), "Added alias appended");
+    }
+
+    @Test
+    void tornTailRecordIsTruncated() throws IOException
+    {
+        new PlaylistJournal().reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+
+        PlaylistJournal journal = new PlaylistJournal();
+        PlaylistV2 loaded = load(journal);
+
+        for(int x = 0; x < 5; x++)
+        {
+            Alias alias = loaded.getAliases().get(x);
+            alias.setName("Edited " + x);
+            journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, alias);
+        }
+
+        journal.close();
+
+        //Simulate a crash part way through appending the final record
+        long completeLength = Files.size(mJournalPath);
+        PlaylistJournal appender = new PlaylistJournal();
+        load(appender);
+        appender.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, alias("Torn", 500));
+        appender.close();
+        long tornLength = completeLength + (Files.size(mJournalPath) - completeLength) / 2;
+
+        try(FileChannel channel = FileChannel.open(mJournalPath, StandardOpenOption.WRITE))
+        {
+            channel.truncate(tornLength);
+        }
+
+        PlaylistJournal recovered = new PlaylistJournal();
+        PlaylistV2 replayed = load(recovered);
+
+        Assertions.assertNotNull(replayed, "Playlist loaded with a torn journal tail");
+        Assertions.assertEquals(5, recovered.getRecordCount(), "Complete records replayed");
+        Assertions.assertEquals(completeLength, Files.size(mJournalPath), "Torn record truncated from the journal");
+        Assertions.assertEquals("Edited 4", replayed.getAliases().get(4).getName(), "Complete record applied");
+        Assertions.assertFalse(aliasNames(replayed).contains("Torn"), "Torn record not applied");
+
+        //Records appended after the truncation are replayed on the next load
+        recovered.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, alias("After", 600));
+        recovered.close();
+
+        PlaylistJournal next = new PlaylistJournal();
+        PlaylistV2 nextLoaded = load(next);
+        next.close();
+        Assertions.assertEquals(6, next.getRecordCount(), "Records replayed after truncation");
+        Assertions.assertTrue(aliasNames(nextLoaded).contains("After"), "Record appended after truncation applied");
+        Assertions.assertTrue(unreplayedJournals().isEmpty(), "Torn journal is not set aside");
+    }
+
+    @Test
+    void corruptJournalIsSetAsideInsteadOfDeleted() throws IOException
+    {
+        new PlaylistJournal().reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+
+        PlaylistJournal journal = new PlaylistJournal();
+        PlaylistV2 loaded = load(journal);
+
+        for(int x = 0; x < 3; x++)
+        {
+            journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, loaded.getAliases().get(x));
+        }
+
+        journal.close();
+
+        //Corrupt the entity bytes of the first record
+        byte[] bytes = Files.readAllBytes(mJournalPath);
+        Random random = new Random(1234);
+
+        for(int x = 26; x < 36; x++)
+        {
+            bytes[x] = (byte)random.nextInt(32);
+        }
+
+        Files.write(mJournalPath, bytes);
+
+        PlaylistJournal corrupt = new PlaylistJournal();
+        Assertions.assertNull(load(corrupt), "Snapshot is not used when the journal can't be replayed");
+
+        corrupt.reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+        corrupt.close();
+
+        List<Path> unreplayed = unreplayedJournals();
+        Assertions.assertEquals(1, unreplayed.size(), "Unreplayable journal set aside");
+        Assertions.assertArrayEquals(bytes, Files.readAllBytes(unreplayed.get(0)), "Set aside journal is unchanged");
+        Assertions.assertEquals(16, Files.size(mJournalPath), "New journal started");
+    }
+
+    @Test
+    void journalIsSetAsideWhenPlaylistFileChanges() throws IOException
+    {
+        new PlaylistJournal().reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+
+        PlaylistJournal journal = new PlaylistJournal();
+        PlaylistV2 loaded = load(journal);
+        journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, loaded.getAliases().get(0));
+        journal.close();
+
+        Files.write(mPlaylistPath, "<playlist version=\"2\"/>".getBytes());
+
+        PlaylistJournal changed = new PlaylistJournal();
+        Assertions.assertNull(load(changed), "Snapshot is ignored when the playlist file changes");
+
+        changed.reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+        changed.close();
+
+        Assertions.assertEquals(1, unreplayedJournals().size(), "Journal with records set aside");
+    }
+
+    @Test
+    void emptyJournalIsNotSetAside() throws IOException
+    {
+        PlaylistJournal journal = new PlaylistJournal();
+        journal.reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+        journal.reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+        journal.close();
+
+        Assertions.assertTrue(unreplayedJournals().isEmpty(), "Journal without records is replaced");
+    }
+
+    @Test
+    void compactionCarriesForwardRecordsAfterMark()
+    {
+        new PlaylistJournal().reset(playlist(10), mPlaylistPath, mSnapshotPath, mJournalPath);
+
+        PlaylistJournal journal = new PlaylistJournal();
+        PlaylistV2 loaded = load(journal);
+        Alias first = loaded.getAliases().get(0);
+        first.setName("Before mark");
+        journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, first);
+
+        long mark = journal.mark();
+        Alias second = loaded.getAliases().get(1);
+        second.setName("After mark");
+        journal.append(PlaylistJournal.Section.ALIAS, PlaylistJournal.Operation.PUT, second);
+
+        //The captured playlist reflects the edits made before the mark
+        journal.compact(loaded, mark, mPlaylistPath, mSnapshotPath);
+        Assertions.assertEquals(1, journal.getRecordCount(), "Records after the mark carried forward");
+        journal.close();
+
+        PlaylistJournal reloaded = new PlaylistJournal();
+        PlaylistV2 replayed = load(reloaded);
+        reloaded.close();
+
+        Assertions.assertEquals("Before mark", replayed.getAliases().get(0).getName(), "Compacted edit");
+        Assertions.assertEquals("After mark", replayed.getAliases().get(1).getName(), "Carried forward edit");
+    }
+}
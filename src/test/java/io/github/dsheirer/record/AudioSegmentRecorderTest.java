@@ -0,0 +1,95 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.record;
+
+import io.github.dsheirer.alias.AliasList;
+import io.github.dsheirer.audio.AudioSegment;
+import io.github.dsheirer.module.decode.p25.identifier.talkgroup.APCO25Talkgroup;
+import io.github.dsheirer.record.archive.CallArchive;
+import io.github.dsheirer.record.archive.CallArchiveEntry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests that archived WAVe recordings, which are encoded in memory, match WAVe recording files
+ */
+public class AudioSegmentRecorderTest
+{
+    @TempDir
+    Path mDirectory;
+
+    private AudioSegment getAudioSegment(Random random)
+    {
+        AudioSegment audioSegment = new AudioSegment(new AliasList("test"), 0);
+        audioSegment.addIdentifier(APCO25Talkgroup.create(1234));
+
+        for(int x = 0; x < 25; x++)
+        {
+            float[] audio = new float[160];
+
+            for(int y = 0; y < audio.length; y++)
+            {
+                audio[y] = (float)(random.nextGaussian() * 0.2);
+            }
+
+            audioSegment.addAudio(audio);
+        }
+
+        return audioSegment;
+    }
+
+    @Test
+    void archivedWaveMatchesRecordedFile() throws IOException
+    {
+        AudioSegment audioSegment = getAudioSegment(new Random(32));
+
+        Path path = mDirectory.resolve("recording.wav");
+        AudioSegmentRecorder.recordWAVE(audioSegment, path);
+        byte[] expected = Files.readAllBytes(path);
+
+        CallArchive archive = new CallArchive(mDirectory.resolve("archive"));
+        CallArchiveEntry entry = archive.append(audioSegment.getStartTimestamp(), audioSegment.getDuration(), null,
+            null, "1234", null, "recording", RecordFormat.WAVE, AudioSegmentRecorder.getWAVE(audioSegment));
+        byte[] archived = archive.read(entry);
+        archive.close();
+
+        //Header and audio are identical.  The metadata chunks carry a creation date, so only their layout is compared.
+        int dataEnd = 44 + 25 * 160 * 2;
+        Assertions.assertEquals(expected.length, archived.length, "archived WAVe length");
+        Assertions.assertArrayEquals(Arrays.copyOf(expected, dataEnd), Arrays.copyOf(archived, dataEnd),
+            "archived WAVe header and audio");
+        Assertions.assertEquals("LIST", new String(archived, dataEnd, 4), "LIST chunk");
+
+        ByteBuffer header = ByteBuffer.wrap(archived).order(ByteOrder.LITTLE_ENDIAN);
+        Assertions.assertEquals(archived.length - 8, header.getInt(4), "RIFF length");
+        Assertions.assertEquals(25 * 160 * 2, header.getInt(40), "data chunk length");
+        Assertions.assertEquals(header.getInt(dataEnd + 4), ByteBuffer.wrap(expected)
+            .order(ByteOrder.LITTLE_ENDIAN).getInt(dataEnd + 4), "LIST chunk length");
+    }
+}
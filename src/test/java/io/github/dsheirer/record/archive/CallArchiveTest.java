@@ -0,0 +1,320 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.record.archive;
+
+import io.github.dsheirer.record.RecordFormat;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the append-only call archive and its index recovery
+ */
+public class CallArchiveTest
+{
+    private static final String[] SYSTEMS = {"Metro", "County"};
+    private static final String[] SITES = {"North", "South", "East"};
+
+    @TempDir
+    Path mDirectory;
+
+    private Random mRandom = new Random(32);
+    private Map<CallArchiveEntry,byte[]> mAudio = new IdentityHashMap<>();
+
+    private Path getIndexPath()
+    {
+        return mDirectory.resolve("calls.idx");
+    }
+
+    private byte[] audio()
+    {
+        byte[] audio = new byte[16 + mRandom.nextInt(2000)];
+        mRandom.nextBytes(audio);
+        return audio;
+    }
+
+    private CallArchiveEntry append(CallArchive archive, long timestamp) throws IOException
+    {
+        byte[] audio = audio();
+        CallArchiveEntry entry = archive.append(timestamp, 1000 + mRandom.nextInt(30000),
+            SYSTEMS[mRandom.nextInt(SYSTEMS.length)], SITES[mRandom.nextInt(SITES.length)],
+            mRandom.nextInt(10) == 0 ? null : String.valueOf(100 + mRandom.nextInt(5)),
+            mRandom.nextInt(10) == 0 ? null : String.valueOf(1000000 + mRandom.nextInt(20)),
+            "call_" + timestamp, RecordFormat.MP3, audio);
+        mAudio.put(entry, audio);
+        return entry;
+    }
+
+    private List<CallArchiveEntry> appendCalls(CallArchive archive, int count) throws IOException
+    {
+        List<CallArchiveEntry> entries = new ArrayList<>();
+        long timestamp = 1600000000000L;
+
+        for(int x = 0; x < count; x++)
+        {
+            timestamp += 1 + mRandom.nextInt(60000);
+            entries.add(append(archive, timestamp));
+        }
+
+        return entries;
+    }
+
+    private static void assertSameCall(CallArchiveEntry expected, CallArchiveEntry actual)
+    {
+        Assertions.assertEquals(expected.getTimestamp(), actual.getTimestamp(), "timestamp");
+        Assertions.assertEquals(expected.getDuration(), actual.getDuration(), "duration");
+        Assertions.assertEquals(expected.getSystem(), actual.getSystem(), "system");
+        Assertions.assertEquals(expected.getSite(), actual.getSite(), "site");
+        Assertions.assertEquals(expected.getTalkgroup(), actual.getTalkgroup(), "talkgroup");
+        Assertions.assertEquals(expected.getRadio(), actual.getRadio(), "radio");
+        Assertions.assertEquals(expected.getName(), actual.getName(), "name");
+        Assertions.assertEquals(expected.getRecordFormat(), actual.getRecordFormat(), "record format");
+        Assertions.assertEquals(expected.getSegment(), actual.getSegment(), "segment");
+        Assertions.assertEquals(expected.getOffset(), actual.getOffset(), "offset");
+        Assertions.assertEquals(expected.getLength(), actual.getLength(), "length");
+    }
+
+    /**
+     * Checks the query against a brute force filter of the expected calls
+     */
+    private void assertQuery(CallArchive archive, List<CallArchiveEntry> calls, CallArchiveQuery query,
+                             Predicate<CallArchiveEntry> filter) throws IOException
+    {
+        List<CallArchiveEntry> expected = calls.stream().filter(filter).collect(Collectors.toList());
+        List<CallArchiveEntry> actual = archive.query(query);
+
+        Assertions.assertEquals(expected.size(), actual.size(), "query result count");
+
+        for(int x = 0; x < expected.size(); x++)
+        {
+            assertSameCall(expected.get(x), actual.get(x));
+            Assertions.assertArrayEquals(mAudio.get(expected.get(x)), archive.read(actual.get(x)), "call audio");
+        }
+    }
+
+    private void assertQueries(CallArchive archive, List<CallArchiveEntry> calls) throws IOException
+    {
+        long start = calls.get(calls.size() / 4).getTimestamp();
+        long end = calls.get(calls.size() / 2).getTimestamp();
+
+        assertQuery(archive, calls, new CallArchiveQuery(), entry -> true);
+        assertQuery(archive, calls, new CallArchiveQuery().talkgroup("102"), entry -> "102".equals(entry.getTalkgroup()));
+        assertQuery(archive, calls, new CallArchiveQuery().radio("1000007"), entry -> "1000007".equals(entry.getRadio()));
+        assertQuery(archive, calls, new CallArchiveQuery().timeRange(start, end),
+            entry -> entry.getTimestamp() >= start && entry.getTimestamp() <= end);
+        assertQuery(archive, calls, new CallArchiveQuery().system("County").site("East"),
+            entry -> "County".equals(entry.getSystem()) && "East".equals(entry.getSite()));
+        assertQuery(archive, calls, new CallArchiveQuery().talkgroup("104").radio("1000003").timeRange(start, end),
+            entry -> "104".equals(entry.getTalkgroup()) && "1000003".equals(entry.getRadio()) &&
+                entry.getTimestamp() >= start && entry.getTimestamp() <= end);
+        assertQuery(archive, calls, new CallArchiveQuery().talkgroup("999"), entry -> false);
+        assertQuery(archive, calls, new CallArchiveQuery().timeRange(end, start), entry -> false);
+    }
+
+    @Test
+    void indexVersionHeader() throws IOException
+    {
+        CallArchive archive = new CallArchive(mDirectory);
+        archive.close();
+
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(getIndexPath()));
+        Assertions.assertEquals(8, header.capacity(), "empty index length");
+        Assertions.assertEquals(0x53444958, header.getInt(), "index magic");
+        Assertions.assertEquals(1, header.getInt(), "index format version");
+
+        //An unsupported version is rejected rather than misread
+        try(FileChannel channel = FileChannel.open(getIndexPath(), StandardOpenOption.WRITE))
+        {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 2), 4);
+        }
+
+        IOException version = Assertions.assertThrows(IOException.class, () -> new CallArchive(mDirectory));
+        Assertions.assertTrue(version.getMessage().contains("version"), version.getMessage());
+
+        Files.write(getIndexPath(), "not an index".getBytes());
+        Assertions.assertThrows(IOException.class, () -> new CallArchive(mDirectory), "foreign file");
+
+        //An interrupted header write is rewritten when the archive is opened
+        Files.write(getIndexPath(), new byte[]{0x53, 0x44});
+        new CallArchive(mDirectory).close();
+        Assertions.assertEquals(8, Files.size(getIndexPath()), "rewritten index header");
+    }
+
+    @Test
+    void appendAndQuery() throws IOException
+    {
+        CallArchive archive = new CallArchive(mDirectory, 32 * 1024);
+        List<CallArchiveEntry> calls = appendCalls(archive, 300);
+
+        Assertions.assertEquals(300, archive.size(), "call count");
+        Assertions.assertTrue(calls.get(calls.size() - 1).getSegment() > 1, "segment rollover");
+        assertQueries(archive, calls);
+        archive.close();
+
+        Assertions.assertThrows(IOException.class, () -> append(archive, 0), "append after close");
+
+        //The index is reloaded when the archive is reopened and new calls continue in the last segment
+        CallArchive reopened = new CallArchive(mDirectory, 32 * 1024);
+        Assertions.assertEquals(300, reopened.size(), "reloaded call count");
+        assertQueries(reopened, calls);
+
+        CallArchiveEntry next = append(reopened, calls.get(calls.size() - 1).getTimestamp() + 1);
+        Assertions.assertTrue(next.getSegment() >= calls.get(calls.size() - 1).getSegment(), "segment number");
+        calls.add(next);
+        assertQueries(reopened, calls);
+        reopened.close();
+    }
+
+    @Test
+    void appendBuffers() throws IOException
+    {
+        CallArchive archive = new CallArchive(mDirectory);
+        byte[] first = audio();
+        byte[] second = audio();
+        ByteBuffer secondBuffer = ByteBuffer.allocate(second.length + 10);
+        secondBuffer.position(10);
+        secondBuffer.put(second);
+        secondBuffer.position(10);
+
+        CallArchiveEntry entry = archive.append(1000L, 500L, null, null, null, null, "buffers",
+            RecordFormat.WAVE, ByteBuffer.wrap(first), secondBuffer);
+
+        byte[] expected = new byte[first.length + second.length];
+        System.arraycopy(first, 0, expected, 0, first.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+
+        Assertions.assertEquals(expected.length, entry.getLength(), "length");
+        Assertions.assertArrayEquals(expected, archive.read(entry), "gathered audio");
+        archive.close();
+    }
+
+    @Test
+    void export() throws IOException
+    {
+        CallArchive archive = new CallArchive(mDirectory);
+        List<CallArchiveEntry> calls = appendCalls(archive, 5);
+        Path exportDirectory = Files.createDirectory(mDirectory.resolve("export"));
+
+        for(CallArchiveEntry call: calls)
+        {
+            Path exported = archive.export(call, exportDirectory);
+            Assertions.assertEquals(call.getName() + RecordFormat.MP3.getExtension(),
+                exported.getFileName().toString(), "export file name");
+            Assertions.assertArrayEquals(mAudio.get(call), Files.readAllBytes(exported), "exported audio");
+        }
+
+        try(Stream<Path> files = Files.list(exportDirectory))
+        {
+            Assertions.assertEquals(5, files.count(), "exported files");
+        }
+
+        archive.close();
+    }
+
+    @Test
+    void truncatedFinalEntry() throws IOException
+    {
+        CallArchive archive = new CallArchive(mDirectory);
+        List<CallArchiveEntry> calls = appendCalls(archive, 2);
+        long validLength = Files.size(getIndexPath());
+        calls.add(append(archive, calls.get(1).getTimestamp() + 1));
+        long fullLength = Files.size(getIndexPath());
+        archive.close();
+
+        //Entry torn mid-payload, as by a crash during the index write
+        try(FileChannel channel = FileChannel.open(getIndexPath(), StandardOpenOption.WRITE))
+        {
+            channel.truncate(fullLength - 6);
+        }
+
+        CallArchive recovered = new CallArchive(mDirectory);
+        Assertions.assertEquals(2, recovered.size(), "calls after recovery");
+        Assertions.assertEquals(validLength, Files.size(getIndexPath()), "torn entry truncated");
+        assertQueries(recovered, calls.subList(0, 2));
+
+        //New calls are appended after the last valid entry
+        List<CallArchiveEntry> remaining = new ArrayList<>(calls.subList(0, 2));
+        remaining.add(append(recovered, calls.get(2).getTimestamp()));
+        recovered.close();
+
+        CallArchive reopened = new CallArchive(mDirectory);
+        Assertions.assertEquals(3, reopened.size(), "calls after append");
+        assertQueries(reopened, remaining);
+        reopened.close();
+    }
+
+    @Test
+    void corruptEntries() throws IOException
+    {
+        CallArchive archive = new CallArchive(mDirectory);
+        List<CallArchiveEntry> calls = appendCalls(archive, 4);
+        List<Long> entryEnds = new ArrayList<>();
+
+        for(int x = 0; x < 4; x++)
+        {
+            calls.add(append(archive, calls.get(calls.size() - 1).getTimestamp() + 1));
+            entryEnds.add(Files.size(getIndexPath()));
+        }
+
+        archive.close();
+
+        //Corrupt final entry: complete, but the checksum doesn't match
+        flipByte(entryEnds.get(3) - 10);
+
+        //Corrupt entry within the index: skipped, with the entries that follow it retained
+        flipByte(entryEnds.get(0) + 12);
+
+        CallArchive recovered = new CallArchive(mDirectory);
+        Assertions.assertEquals(6, recovered.size(), "calls after recovery");
+        Assertions.assertEquals(entryEnds.get(2), Files.size(getIndexPath()), "corrupt final entry truncated");
+
+        List<CallArchiveEntry> expected = new ArrayList<>(calls.subList(0, 5));
+        expected.add(calls.get(6));
+        assertQueries(recovered, expected);
+        recovered.close();
+    }
+
+    private void flipByte(long position) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(getIndexPath(), StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(1);
+            channel.read(buffer, position);
+            buffer.put(0, (byte)(buffer.get(0) ^ 0x5A));
+            buffer.position(0);
+            channel.write(buffer, position);
+        }
+    }
+}
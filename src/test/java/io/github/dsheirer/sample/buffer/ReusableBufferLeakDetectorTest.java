@@ -0,0 +1,193 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.sample.buffer;
+
+import io.github.dsheirer.sample.Listener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests reusable buffer user count management and leak detection.
+ */
+public class ReusableBufferLeakDetectorTest
+{
+    private static final long TIMEOUT_MS = 20000;
+
+    @Test
+    void userCountOverDecrement()
+    {
+        ReusableBufferQueue queue = new ReusableBufferQueue("over-decrement");
+        ReusableFloatBuffer buffer = queue.getBuffer(64);
+        buffer.incrementUserCount(2);
+        Assertions.assertEquals(3, buffer.getUserCount(), "user count");
+
+        buffer.decrementUserCount();
+        buffer.decrementUserCount();
+        buffer.decrementUserCount();
+        Assertions.assertEquals(0, buffer.getUserCount(), "released by all users");
+        Assertions.assertSame(buffer, queue.getBuffer(64), "recycled when the last user releases");
+
+        //Buffer is back in use with a user count of one, so a second decrement is one too many
+        buffer.decrementUserCount();
+        Assertions.assertThrows(IllegalStateException.class, buffer::decrementUserCount, "over-decrement");
+        Assertions.assertEquals(0, buffer.getUserCount(), "user count restored to zero");
+
+        //The over-decrement did not recycle the buffer a second time
+        Assertions.assertSame(buffer, queue.getBuffer(64), "recycled once");
+        Assertions.assertNotSame(buffer, queue.getBuffer(64), "not recycled twice");
+
+        //Negative increments are ignored
+        ReusableFloatBuffer other = queue.getBuffer(64);
+        other.incrementUserCount(-5);
+        Assertions.assertEquals(1, other.getUserCount(), "negative increment");
+    }
+
+    @Test
+    void samplingInterval()
+    {
+        ReusableBufferLeakDetector detector = new ReusableBufferLeakDetector();
+        ReusableFloatBuffer buffer = new ReusableBufferQueue("sampled").getBuffer(8);
+        Assertions.assertFalse(detector.isEnabled(), "disabled by default");
+        Assertions.assertNull(detector.track(buffer, "disabled"), "not tracked when disabled");
+
+        detector.setSampleInterval(-3);
+        Assertions.assertEquals(0, detector.getSampleInterval(), "negative interval disables detection");
+
+        detector.setSampleInterval(3);
+        int tracked = 0;
+
+        for(int x = 0; x < 30; x++)
+        {
+            ReusableBufferLeakDetector.LeakTracker tracker = detector.track(buffer, "sampled");
+
+            if(tracker != null)
+            {
+                tracked++;
+                tracker.close();
+            }
+        }
+
+        Assertions.assertEquals(10, tracked, "one of every 3 acquisitions tracked");
+    }
+
+    /**
+     * Acquires a buffer from the queue and drops it without decrementing its user count
+     */
+    private static void acquireWithoutRecycling(ReusableBufferQueue queue)
+    {
+        queue.getBuffer(256);
+    }
+
+    /**
+     * Acquires a buffer from the queue and recycles it
+     */
+    private static void acquireAndRecycle(ReusableBufferQueue queue)
+    {
+        queue.getBuffer(256).decrementUserCount();
+    }
+
+    @Test
+    void leakReportsAcquisitionSite() throws Exception
+    {
+        ReusableBufferLeakDetector detector = ReusableBufferPool.LEAK_DETECTOR;
+        int sampleInterval = detector.getSampleInterval();
+        List<ReusableBufferLeakDetector.Leak> leaks = new ArrayList<>();
+        Listener<ReusableBufferLeakDetector.Leak> listener = leak ->
+        {
+            synchronized(leaks)
+            {
+                leaks.add(leak);
+            }
+        };
+
+        detector.addLeakListener(listener);
+        detector.setSampleInterval(1);
+
+        try
+        {
+            long leakCount = detector.getLeakCount();
+            ReusableBufferQueue recycledQueue = new ReusableBufferQueue("recycled-queue");
+            ReusableBufferQueue leakedQueue = new ReusableBufferQueue("leaked-queue");
+
+            for(int x = 0; x < 10; x++)
+            {
+                acquireAndRecycle(recycledQueue);
+            }
+
+            acquireWithoutRecycling(leakedQueue);
+
+            long timeout = System.currentTimeMillis() + TIMEOUT_MS;
+
+            while(detector.getLeakCount() == leakCount)
+            {
+                if(System.currentTimeMillis() > timeout)
+                {
+                    Assertions.fail("Timeout waiting for the leaked buffer to be detected");
+                }
+
+                System.gc();
+                Thread.sleep(10);
+                detector.processCollectedBuffers();
+            }
+
+            Assertions.assertEquals(leakCount + 1, detector.getLeakCount(), "leak count");
+
+            ReusableBufferLeakDetector.Leak leak;
+
+            synchronized(leaks)
+            {
+                Assertions.assertEquals(1, leaks.size(), "leak reports");
+                leak = leaks.get(0);
+            }
+
+            Assertions.assertEquals("leaked-queue", leak.getOwner(), "owner");
+
+            //Acquisition site names the queue method and the caller that leaked the buffer
+            boolean queueFrame = false;
+            boolean callerFrame = false;
+
+            for(StackTraceElement element: leak.getAcquisitionSite().getStackTrace())
+            {
+                if(element.getClassName().equals(ReusableBufferQueue.class.getName()) &&
+                   element.getMethodName().equals("getBuffer"))
+                {
+                    queueFrame = true;
+                }
+
+                if(element.getClassName().equals(ReusableBufferLeakDetectorTest.class.getName()) &&
+                   element.getMethodName().equals("acquireWithoutRecycling"))
+                {
+                    callerFrame = true;
+                }
+            }
+
+            Assertions.assertTrue(queueFrame, "acquisition site includes the buffer queue");
+            Assertions.assertTrue(callerFrame, "acquisition site includes the leaking caller");
+        }
+        finally
+        {
+            detector.setSampleInterval(sampleInterval);
+            detector.removeLeakListener(listener);
+        }
+    }
+}
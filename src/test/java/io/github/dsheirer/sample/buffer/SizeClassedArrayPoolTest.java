@@ -0,0 +1,280 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.sample.buffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests size class rounding, per-class capacity bounds and the hit rate and footprint metrics of the array pools.
+ */
+public class SizeClassedArrayPoolTest
+{
+    private static final long CLASS_BYTE_BUDGET = 64 * 1024;
+
+    private Random mRandom = new Random(26);
+
+    @Test
+    void sizeClassRounding()
+    {
+        Assertions.assertEquals(0, SizeClassedArrayPool.getSizeClassIndex(0), "0");
+        Assertions.assertEquals(0, SizeClassedArrayPool.getSizeClassIndex(1), "1");
+        Assertions.assertEquals(1, SizeClassedArrayPool.getSizeClassIndex(2), "2");
+        Assertions.assertEquals(2, SizeClassedArrayPool.getSizeClassIndex(3), "3");
+        Assertions.assertEquals(2, SizeClassedArrayPool.getSizeClassIndex(4), "4");
+        Assertions.assertEquals(3, SizeClassedArrayPool.getSizeClassIndex(5), "5");
+        Assertions.assertEquals(10, SizeClassedArrayPool.getSizeClassIndex(1024), "1024");
+        Assertions.assertEquals(11, SizeClassedArrayPool.getSizeClassIndex(1025), "1025");
+        Assertions.assertEquals(30, SizeClassedArrayPool.getSizeClassIndex(1 << 30), "2^30");
+        Assertions.assertEquals(31, SizeClassedArrayPool.getSizeClassIndex(Integer.MAX_VALUE), "max int");
+
+        //Every array length has a size class, checked with a pool whose arrays are just their lengths
+        SizeClassedArrayPool<Integer> pool = new SizeClassedArrayPool<Integer>("Length", Byte.BYTES,
+            CLASS_BYTE_BUDGET)
+        {
+            @Override
+            protected Integer create(int length)
+            {
+                return length;
+            }
+
+            @Override
+            protected int length(Integer array)
+            {
+                return array;
+            }
+        };
+
+        pool.release(Integer.MAX_VALUE);
+        Assertions.assertEquals(Integer.MAX_VALUE, pool.getRetainedBytes(), "largest size class");
+        pool.acquire(Integer.MAX_VALUE);
+        Assertions.assertEquals(1.0, pool.getHitRate(), "largest size class reuse");
+
+        //Each class covers lengths in the range (2^(n-1), 2^n]
+        for(int x = 0; x < 10000; x++)
+        {
+            int length = 2 + mRandom.nextInt(1 << 24);
+            int index = SizeClassedArrayPool.getSizeClassIndex(length);
+            Assertions.assertTrue((1L << (index - 1)) < length && length <= (1L << index), "length " + length +
+                " class " + index);
+        }
+    }
+
+    @Test
+    void exactLengthReuse()
+    {
+        FloatArrayPool pool = new FloatArrayPool(CLASS_BYTE_BUDGET);
+
+        float[] array = pool.acquire(100);
+        Assertions.assertEquals(100, array.length, "requested length");
+        pool.release(array);
+
+        //Same size class but a different length is never handed the pooled array
+        float[] other = pool.acquire(120);
+        Assertions.assertEquals(120, other.length, "other length in the same size class");
+        Assertions.assertNotSame(array, other, "other length");
+
+        Assertions.assertSame(array, pool.acquire(100), "pooled array is reused");
+        Assertions.assertNotSame(array, pool.acquire(100), "pooled array is handed out once");
+
+        //Empty and null arrays are never pooled
+        Assertions.assertEquals(0, pool.acquire(0).length, "empty array");
+        pool.release(pool.acquire(0));
+        pool.release(null);
+        Assertions.assertEquals(0, pool.getRetainedBytes(), "empty and null releases are ignored");
+    }
+
+    @Test
+    void perClassCapacity()
+    {
+        FloatArrayPool pool = new FloatArrayPool(CLASS_BYTE_BUDGET);
+
+        //Class 10 covers 513 - 1024 floats (4096 bytes), so the 64 kB budget holds 16 arrays shared by all lengths
+        List<float[]> arrays = new ArrayList<>();
+
+        for(int x = 0; x < 12; x++)
+        {
+            arrays.add(new float[1000]);
+            arrays.add(new float[600]);
+        }
+
+        for(float[] array: arrays)
+        {
+            pool.release(array);
+        }
+
+        Assertions.assertEquals(24 - 16, pool.getDropCount(), "dropped beyond capacity");
+        Assertions.assertEquals(8 * (1000 + 600) * 4, pool.getRetainedBytes(), "retained bytes");
+
+        //Tiny arrays are capped at 256 per class even though the budget would allow more
+        ByteArrayPool bytePool = new ByteArrayPool(CLASS_BYTE_BUDGET);
+
+        for(int x = 0; x < 300; x++)
+        {
+            bytePool.release(new byte[1]);
+        }
+
+        Assertions.assertEquals(300 - 256, bytePool.getDropCount(), "maximum arrays per class");
+        Assertions.assertEquals(256, bytePool.getRetainedBytes(), "tiny array bytes");
+
+        //Arrays larger than the budget still retain a minimum of 4 per class
+        ByteArrayPool largePool = new ByteArrayPool(CLASS_BYTE_BUDGET);
+
+        for(int x = 0; x < 6; x++)
+        {
+            largePool.release(new byte[1 << 20]);
+        }
+
+        Assertions.assertEquals(2, largePool.getDropCount(), "minimum arrays per class");
+        Assertions.assertEquals(4L << 20, largePool.getRetainedBytes(), "large array bytes");
+
+        //Acquiring from a full class frees capacity for the next release
+        largePool.acquire(1 << 20);
+        largePool.release(new byte[1 << 20]);
+        Assertions.assertEquals(2, largePool.getDropCount(), "capacity freed by acquire");
+    }
+
+    @Test
+    void hitRateAndFootprint()
+    {
+        FloatArrayPool pool = new FloatArrayPool(CLASS_BYTE_BUDGET);
+        Assertions.assertEquals(0.0, pool.getHitRate(), "no requests");
+
+        //4 misses, 4 releases, then 4 hits and 4 misses
+        List<float[]> arrays = new ArrayList<>();
+
+        for(int x = 0; x < 4; x++)
+        {
+            arrays.add(pool.acquire(256));
+        }
+
+        for(float[] array: arrays)
+        {
+            pool.release(array);
+        }
+
+        Assertions.assertEquals(4 * 256 * 4, pool.getRetainedBytes(), "retained after release");
+
+        for(int x = 0; x < 8; x++)
+        {
+            pool.acquire(256);
+        }
+
+        Assertions.assertEquals(12, pool.getAcquireCount(), "acquire count");
+        Assertions.assertEquals(4.0 / 12.0, pool.getHitRate(), 1e-9, "hit rate");
+        Assertions.assertEquals(0, pool.getRetainedBytes(), "retained after reuse");
+
+        String statistics = pool.getStatistics();
+        Assertions.assertTrue(statistics.contains("Acquired:12"), statistics);
+        Assertions.assertTrue(statistics.contains("Released:4"), statistics);
+        Assertions.assertTrue(statistics.contains("Dropped:0"), statistics);
+    }
+
+    @Test
+    void concurrentAcquireAndRelease() throws Exception
+    {
+        ByteArrayPool pool = new ByteArrayPool(CLASS_BYTE_BUDGET);
+        int[] lengths = {96, 128, 1500, 4096, 8000, 65536};
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Long>> futures = new ArrayList<>();
+
+        for(int thread = 0; thread < 4; thread++)
+        {
+            long seed = mRandom.nextLong();
+
+            futures.add(executor.submit(() ->
+            {
+                Random random = new Random(seed);
+                List<byte[]> held = new ArrayList<>();
+                long acquired = 0;
+
+                for(int x = 0; x < 20000; x++)
+                {
+                    if(held.isEmpty() || (held.size() < 16 && random.nextBoolean()))
+                    {
+                        int length = lengths[random.nextInt(lengths.length)];
+                        byte[] array = pool.acquire(length);
+
+                        if(array.length != length)
+                        {
+                            throw new IllegalStateException("Acquired length " + array.length + " for " + length);
+                        }
+
+                        held.add(array);
+                        acquired++;
+                    }
+                    else
+                    {
+                        pool.release(held.remove(random.nextInt(held.size())));
+                    }
+                }
+
+                for(byte[] array: held)
+                {
+                    pool.release(array);
+                }
+
+                return acquired;
+            }));
+        }
+
+        long acquired = 0;
+
+        for(Future<Long> future: futures)
+        {
+            acquired += future.get();
+        }
+
+        executor.shutdown();
+
+        Assertions.assertEquals(acquired, pool.getAcquireCount(), "acquire count");
+        Assertions.assertTrue(pool.getHitRate() > 0.9, "hit rate " + pool.getHitRate());
+
+        //Footprint accounting matches the arrays that can be drained back out of the pool
+        long retained = pool.getRetainedBytes();
+        long drained = 0;
+
+        for(int length: lengths)
+        {
+            while(true)
+            {
+                long before = pool.getRetainedBytes();
+                pool.acquire(length);
+
+                if(pool.getRetainedBytes() == before)
+                {
+                    break;
+                }
+
+                drained += before - pool.getRetainedBytes();
+            }
+        }
+
+        Assertions.assertEquals(retained, drained, "drained bytes");
+        Assertions.assertEquals(0, pool.getRetainedBytes(), "retained after drain");
+    }
+}
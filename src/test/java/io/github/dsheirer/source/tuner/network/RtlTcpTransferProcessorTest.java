@@ -0,0 +1,323 @@
+/*
+ * ******************************************************************************
+ * sdrtrunk
+ * Copyright (C) 2014-2020 Dennis Sheirer
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ * *****************************************************************************
+ */
+package io.github.dsheirer.source.tuner.network;
+
+import io.github.dsheirer.sample.Listener;
+import io.github.dsheirer.sample.buffer.ReusableComplexBuffer;
+import io.github.dsheirer.source.tuner.usb.converter.ByteSampleConverter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Tests the rtl_tcp transfer processor against a loopback server socket that plays the part of the rtl_tcp server.
+ */
+public class RtlTcpTransferProcessorTest
+{
+    private static final int BUFFER_SIZE = 256;
+    private static final long TIMEOUT_MS = 10000;
+
+    private ServerSocketChannel mServer;
+    private RtlTcpTransferProcessor mProcessor;
+    private List<float[]> mReceived = new ArrayList<>();
+    private Random mRandom = new Random(30);
+
+    @BeforeEach
+    void setup() throws IOException
+    {
+        mServer = ServerSocketChannel.open();
+        mServer.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        mProcessor = new RtlTcpTransferProcessor(InetAddress.getLoopbackAddress().getHostAddress(),
+            mServer.socket().getLocalPort(), new ByteSampleConverter(), BUFFER_SIZE, null);
+    }
+
+    @AfterEach
+    void teardown() throws IOException
+    {
+        mProcessor.removeListener();
+        mServer.close();
+    }
+
+    /**
+     * Listener that copies the samples from each received buffer and releases the buffer
+     */
+    private Listener<ReusableComplexBuffer> collector()
+    {
+        return buffer ->
+        {
+            synchronized(mReceived)
+            {
+                mReceived.add(buffer.getSamplesCopy());
+            }
+
+            buffer.decrementUserCount();
+        };
+    }
+
+    private int receivedCount()
+    {
+        synchronized(mReceived)
+        {
+            return mReceived.size();
+        }
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException
+    {
+        long timeout = System.currentTimeMillis() + TIMEOUT_MS;
+
+        while(!condition.getAsBoolean())
+        {
+            if(System.currentTimeMillis() > timeout)
+            {
+                Assertions.fail("Timeout waiting for " + message);
+            }
+
+            Thread.sleep(5);
+        }
+    }
+
+    private SocketChannel accept() throws IOException
+    {
+        SocketChannel client = mServer.accept();
+        client.configureBlocking(true);
+        return client;
+    }
+
+    private static void sendDongleInfo(SocketChannel client, int tunerType, int gainCount) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(RtlTcpTransferProcessor.DONGLE_INFO_LENGTH);
+        header.putInt(RtlTcpTransferProcessor.DONGLE_INFO_MAGIC);
+        header.putInt(tunerType);
+        header.putInt(gainCount);
+        header.flip();
+        write(client, header);
+    }
+
+    private static void write(SocketChannel client, ByteBuffer buffer) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            client.write(buffer);
+        }
+    }
+
+    private static void assertCommand(SocketChannel client, RtlTcpCommand command, int value) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(RtlTcpCommand.COMMAND_LENGTH);
+
+        while(buffer.hasRemaining())
+        {
+            if(client.read(buffer) < 0)
+            {
+                Assertions.fail("Connection closed before command " + command + " was received");
+            }
+        }
+
+        buffer.flip();
+        Assertions.assertEquals(command.getCode(), buffer.get() & 0xFF, "command code");
+        Assertions.assertEquals(value, buffer.getInt(), "command value for " + command);
+    }
+
+    private byte[] samples(int length)
+    {
+        byte[] samples = new byte[length];
+        mRandom.nextBytes(samples);
+        return samples;
+    }
+
+    private static void assertConverted(byte[] expected, float[] actual)
+    {
+        Assertions.assertEquals(expected.length, actual.length, "sample count");
+
+        for(int x = 0; x < expected.length; x++)
+        {
+            Assertions.assertEquals(((expected[x] & 0xFF) - 127) / 128.0f, actual[x], 0.0f, "sample " + x);
+        }
+    }
+
+    @Test
+    void commandsAndUnsignedSampleConversion() throws Exception
+    {
+        //Values set before connecting are retained and sent in command code order when the connection opens
+        mProcessor.send(RtlTcpCommand.SET_SAMPLE_RATE, 2400000);
+        mProcessor.send(RtlTcpCommand.SET_FREQUENCY, 851012500);
+        mProcessor.setListener(collector());
+
+        try(SocketChannel client = accept())
+        {
+            assertCommand(client, RtlTcpCommand.SET_FREQUENCY, 851012500);
+            assertCommand(client, RtlTcpCommand.SET_SAMPLE_RATE, 2400000);
+
+            sendDongleInfo(client, 5, 29);
+
+            //Full range of unsigned 8-bit values, including the 0x7F/0x80 boundary and the 0x00/0xFF extremes
+            byte[] ramp = new byte[BUFFER_SIZE];
+
+            for(int x = 0; x < BUFFER_SIZE; x++)
+            {
+                ramp[x] = (byte)x;
+            }
+
+            byte[] random = samples(BUFFER_SIZE);
+            write(client, ByteBuffer.wrap(ramp));
+            write(client, ByteBuffer.wrap(random));
+
+            await(() -> receivedCount() == 2, "two sample buffers");
+
+            Assertions.assertEquals(5, mProcessor.getRemoteTunerType(), "tuner type");
+            Assertions.assertEquals(29, mProcessor.getRemoteGainCount(), "gain count");
+            Assertions.assertEquals(-127.0f / 128.0f, mReceived.get(0)[0], 0.0f, "0x00");
+            Assertions.assertEquals(0.0f, mReceived.get(0)[127], 0.0f, "0x7F");
+            Assertions.assertEquals(128.0f / 128.0f, mReceived.get(0)[255], 0.0f, "0xFF");
+            assertConverted(ramp, mReceived.get(0));
+            assertConverted(random, mReceived.get(1));
+            Assertions.assertEquals(2 * BUFFER_SIZE, mProcessor.getBytesReceived(), "bytes received");
+
+            //A command sent while connected is written immediately and a frequency above 2^31 Hz is sent unsigned
+            mProcessor.send(RtlTcpCommand.SET_FREQUENCY, (int)2400000000L);
+            assertCommand(client, RtlTcpCommand.SET_FREQUENCY, (int)2400000000L);
+            mProcessor.send(RtlTcpCommand.SET_SAMPLE_RATE, 1200000);
+            assertCommand(client, RtlTcpCommand.SET_SAMPLE_RATE, 1200000);
+        }
+    }
+
+    @Test
+    void dropAndLatencyCounters() throws Exception
+    {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Listener<ReusableComplexBuffer> collector = collector();
+
+        //The first buffer stalls the dispatcher so that the reader exhausts the buffer pool
+        mProcessor.setListener(buffer ->
+        {
+            if(blocked.getCount() > 0)
+            {
+                blocked.countDown();
+
+                try
+                {
+                    release.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                }
+                catch(InterruptedException ie)
+                {
+                    //No action
+                }
+            }
+
+            collector.receive(buffer);
+        });
+
+        try(SocketChannel client = accept())
+        {
+            sendDongleInfo(client, 5, 29);
+            write(client, ByteBuffer.wrap(samples(BUFFER_SIZE)));
+            Assertions.assertTrue(blocked.await(TIMEOUT_MS, TimeUnit.MILLISECONDS), "dispatcher blocked");
+
+            //Pool is 40 buffers and one is held by the stalled dispatcher, so 39 fill and the remainder are dropped
+            int sent = 60;
+
+            for(int x = 0; x < sent; x++)
+            {
+                write(client, ByteBuffer.wrap(samples(BUFFER_SIZE)));
+            }
+
+            await(() -> mProcessor.getBytesReceived() == (sent + 1) * BUFFER_SIZE, "all bytes received");
+            Thread.sleep(100);
+            release.countDown();
+
+            await(() -> mProcessor.getBuffersDispatched() + mProcessor.getBuffersDropped() == sent + 1,
+                "all buffers dispatched or dropped");
+
+            Assertions.assertEquals(sent + 1 - 40, mProcessor.getBuffersDropped(), "dropped buffers");
+            Assertions.assertEquals(40, mProcessor.getBuffersDispatched(), "dispatched buffers");
+            await(() -> receivedCount() == 40, "dispatched buffers delivered");
+
+            //Buffers queued behind the stalled dispatcher waited at least the 100 ms stall
+            Assertions.assertTrue(mProcessor.getMaximumLatency() >= 100.0, "maximum latency " +
+                mProcessor.getMaximumLatency());
+            Assertions.assertTrue(mProcessor.getAverageLatency() > 0.0, "average latency");
+            Assertions.assertTrue(mProcessor.getAverageLatency() <= mProcessor.getMaximumLatency(),
+                "average latency within maximum");
+
+            mProcessor.resetStatistics();
+            Assertions.assertEquals(0, mProcessor.getBuffersDropped(), "reset dropped");
+            Assertions.assertEquals(0.0, mProcessor.getMaximumLatency(), "reset maximum latency");
+        }
+    }
+
+    @Test
+    void reconnectResetsPartialBuffer() throws Exception
+    {
+        mProcessor.send(RtlTcpCommand.SET_FREQUENCY, 154000000);
+        mProcessor.send(RtlTcpCommand.SET_SAMPLE_RATE, 2400000);
+        mProcessor.setListener(collector());
+
+        try(SocketChannel client = accept())
+        {
+            assertCommand(client, RtlTcpCommand.SET_FREQUENCY, 154000000);
+            assertCommand(client, RtlTcpCommand.SET_SAMPLE_RATE, 2400000);
+            sendDongleInfo(client, 5, 29);
+
+            //Odd length partial buffer leaves the stream off the I/Q boundary when the connection drops
+            write(client, ByteBuffer.wrap(samples(BUFFER_SIZE / 2 + 1)));
+            await(() -> mProcessor.getBytesReceived() == BUFFER_SIZE / 2 + 1, "partial buffer received");
+        }
+
+        await(() -> !mProcessor.isConnected(), "disconnect");
+
+        //A frequency change while disconnected is retained and sent on reconnect
+        mProcessor.send(RtlTcpCommand.SET_FREQUENCY, 155000000);
+
+        try(SocketChannel client = accept())
+        {
+            assertCommand(client, RtlTcpCommand.SET_FREQUENCY, 155000000);
+            assertCommand(client, RtlTcpCommand.SET_SAMPLE_RATE, 2400000);
+            sendDongleInfo(client, 6, 17);
+
+            byte[] expected = samples(BUFFER_SIZE);
+            write(client, ByteBuffer.wrap(expected));
+
+            await(() -> receivedCount() == 1, "sample buffer after reconnect");
+
+            //The first buffer holds only the new connection's samples - none of the stale partial buffer
+            assertConverted(expected, mReceived.get(0));
+            Assertions.assertEquals(1, mProcessor.getReconnectCount(), "reconnect count");
+            Assertions.assertEquals(6, mProcessor.getRemoteTunerType(), "tuner type after reconnect");
+            Assertions.assertEquals(17, mProcessor.getRemoteGainCount(), "gain count after reconnect");
+            Assertions.assertEquals(0, mProcessor.getBuffersDropped(), "dropped buffers");
+        }
+    }
+}